@@ -0,0 +1,71 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.hetu.core.common.util;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+
+public final class DirectMemoryUtil
+{
+    private static final BufferPoolMXBean DIRECT_BUFFER_POOL = getDirectBufferPool();
+
+    private DirectMemoryUtil()
+    {
+    }
+
+    /**
+     * Returns the maximum amount of memory the JVM allows to allocate for direct buffers,
+     * as set by -XX:MaxDirectMemorySize.
+     */
+    public static long getMaxDirectMemory()
+    {
+        try {
+            HotSpotDiagnosticMXBean diagnostics = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+            if (diagnostics != null) {
+                long maxDirectMemory = Long.parseLong(diagnostics.getVMOption("MaxDirectMemorySize").getValue());
+                if (maxDirectMemory > 0) {
+                    return maxDirectMemory;
+                }
+            }
+        }
+        catch (IllegalArgumentException | SecurityException e) {
+            // the option is not available on this JVM
+        }
+        // without the option the limit is the maximum heap size
+        return Runtime.getRuntime().maxMemory();
+    }
+
+    /**
+     * Returns the memory currently allocated for direct buffers, which counts towards {@link #getMaxDirectMemory()}.
+     */
+    public static long getDirectMemoryUsed()
+    {
+        if (DIRECT_BUFFER_POOL == null) {
+            return 0;
+        }
+        return DIRECT_BUFFER_POOL.getMemoryUsed();
+    }
+
+    private static BufferPoolMXBean getDirectBufferPool()
+    {
+        for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+            if (pool.getName().equals("direct")) {
+                return pool;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.hetu.core.common.util;
+
+import org.testng.annotations.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.testng.Assert.assertTrue;
+
+public class DirectMemoryUtilTest
+{
+    @Test
+    public void testGetMaxDirectMemory()
+    {
+        assertTrue(DirectMemoryUtil.getMaxDirectMemory() > 0);
+    }
+
+    @Test
+    public void testGetDirectMemoryUsed()
+    {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(1024 * 1024);
+        assertTrue(DirectMemoryUtil.getDirectMemoryUsed() >= buffer.capacity());
+        assertTrue(DirectMemoryUtil.getDirectMemoryUsed() <= DirectMemoryUtil.getMaxDirectMemory());
+    }
+}
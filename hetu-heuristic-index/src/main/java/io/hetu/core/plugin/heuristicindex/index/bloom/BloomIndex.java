@@ -24,6 +24,7 @@ import io.prestosql.spi.heuristicindex.Pair;
 import io.prestosql.spi.predicate.Domain;
 import io.prestosql.spi.relation.CallExpression;
 import io.prestosql.spi.util.BloomFilter;
+import io.prestosql.spi.util.SplitBlockBloomFilter;
 
 import java.io.File;
 import java.io.IOException;
@@ -62,6 +63,9 @@ public class BloomIndex
     private static final Boolean DEFAULT_MMAP = true;
     private Boolean mmap;
 
+    private static final String SPLIT_BLOCK_KEY = "bloom.splitBlockEnabled";
+    private static final Boolean DEFAULT_SPLIT_BLOCK = false;
+
     private File file;
     private int mmapSizeInByte;
 
@@ -124,7 +128,8 @@ public class BloomIndex
                 int numHashFunctions = curFilter.getNumHashFunctions();
                 int numBits = bits.length;
                 mmapSizeInByte = numBits * 8;
-                MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_WRITE, 0, 2 * 4 + mmapSizeInByte);
+                MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_WRITE, 0, 3 * 4 + mmapSizeInByte);
+                map.putInt(curFilter.isSplitBlock() ? 1 : 0);
                 map.putInt(numHashFunctions);
                 map.putInt(numBits);
                 for (int i = 0; i < numBits; i++) {
@@ -139,14 +144,15 @@ public class BloomIndex
     {
         try (RandomAccessFile randomFile = new RandomAccessFile(getFile(), "r")) {
             try (FileChannel channel = randomFile.getChannel()) {
-                MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, 2 * 4 + mmapSizeInByte);
+                MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, 3 * 4 + mmapSizeInByte);
+                boolean splitBlock = map.getInt() != 0;
                 int numHashFunctions = map.getInt();
                 int numBits = map.getInt();
                 long[] bits = new long[numBits];
                 for (int i = 0; i < numBits; i++) {
                     bits[i] = map.getLong();
                 }
-                return new BloomFilter(bits, numHashFunctions);
+                return splitBlock ? new SplitBlockBloomFilter(bits) : new BloomFilter(bits, numHashFunctions);
             }
         }
     }
@@ -247,10 +253,21 @@ public class BloomIndex
         return mmap;
     }
 
+    private boolean isSplitBlockEnabled()
+    {
+        if (getProperties() != null) {
+            String splitBlockValue = getProperties().getProperty(SPLIT_BLOCK_KEY);
+            return splitBlockValue == null ? DEFAULT_SPLIT_BLOCK : Boolean.parseBoolean(splitBlockValue);
+        }
+        return DEFAULT_SPLIT_BLOCK;
+    }
+
     private BloomFilter getFilterFromMemory()
     {
         if (filter == null) {
-            filter = new BloomFilter(getExpectedNumOfEntries(), getFpp());
+            filter = isSplitBlockEnabled()
+                    ? new SplitBlockBloomFilter(getExpectedNumOfEntries(), getFpp())
+                    : new BloomFilter(getExpectedNumOfEntries(), getFpp());
         }
         return filter;
     }
@@ -280,6 +297,6 @@ public class BloomIndex
     @Override
     public long getDiskUsage()
     {
-        return mmap ? 2 * 4 + mmapSizeInByte : 0;
+        return mmap ? 3 * 4 + mmapSizeInByte : 0;
     }
 }
@@ -90,6 +90,42 @@ public class TestBloomIndex
         }
     }
 
+    @Test
+    public void testSplitBlockMatches()
+            throws IOException
+    {
+        Properties properties = new Properties();
+        properties.setProperty("bloom.splitBlockEnabled", "true");
+        for (boolean mmap : new boolean[] {false, true}) {
+            try (TempFolder folder = new TempFolder();
+                    BloomIndex bloomIndex = new BloomIndex();
+                    BloomIndex readIndex = new BloomIndex()) {
+                folder.create();
+                File testFile = folder.newFile();
+
+                List<Object> bloomValues = ImmutableList.of("a", "b", "c", "d");
+                bloomIndex.setProperties(properties);
+                bloomIndex.setExpectedNumOfEntries(bloomValues.size());
+                bloomIndex.addValues(Collections.singletonList(new Pair<>("testColumn", bloomValues)));
+                assertTrue(bloomIndex.getFilter().isSplitBlock());
+
+                try (FileOutputStream fo = new FileOutputStream(testFile)) {
+                    bloomIndex.serialize(fo);
+                }
+
+                // the layout is restored from the serialized index regardless of the reader properties
+                readIndex.setMmapEnabled(mmap);
+                try (FileInputStream fi = new FileInputStream(testFile)) {
+                    readIndex.deserialize(fi);
+                }
+                assertTrue(readIndex.getFilter().isSplitBlock());
+
+                assertTrue(readIndex.matches(simplePredicate(OperatorType.EQUAL, "testColumn", VARCHAR, "a")));
+                assertFalse(readIndex.matches(simplePredicate(OperatorType.EQUAL, "testColumn", VARCHAR, "e")));
+            }
+        }
+    }
+
     @Test
     public void testDomainMatching()
             throws IOException
@@ -25,6 +25,7 @@ import io.hetu.core.plugin.iceberg.catalog.IcebergCatalogModule;
 import io.prestosql.plugin.base.jmx.MBeanServerModule;
 import io.prestosql.plugin.base.session.SessionPropertiesProvider;
 import io.prestosql.plugin.hive.ConnectorObjectNameGeneratorModule;
+import io.prestosql.plugin.hive.HiveCatalogName;
 import io.prestosql.plugin.hive.HiveHdfsModule;
 import io.prestosql.plugin.hive.NodeVersion;
 import io.prestosql.plugin.hive.authentication.HdfsAuthenticationModule;
@@ -97,6 +98,7 @@ public final class InternalIcebergConnectorFactory
                         binder.bind(TypeManager.class).toInstance(context.getTypeManager());
                         binder.bind(PageIndexerFactory.class).toInstance(context.getPageIndexerFactory());
                         binder.bind(CatalogName.class).toInstance(new CatalogName(catalogName));
+                        binder.bind(HiveCatalogName.class).toInstance(new HiveCatalogName(catalogName));
                     },
                     module);
 
@@ -0,0 +1,215 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.hetu.core.transport.block;
+
+import io.airlift.slice.SliceInput;
+import io.airlift.slice.SliceOutput;
+
+import static io.airlift.slice.SizeOf.SIZE_OF_BYTE;
+import static io.airlift.slice.SizeOf.SIZE_OF_LONG;
+
+/**
+ * Frame-of-reference bit packing of integer values, with delta encoding for non-decreasing values.
+ * <p>
+ * Frame of reference stores {@code value - min}, delta encoding stores {@code value[i] - value[i - 1] - minDelta},
+ * both with the smallest bit width that fits every residual. Residuals are computed with wrapping arithmetic
+ * and treated as unsigned, which is exact for any range of longs.
+ */
+final class IntegerPacking
+{
+    private static final byte FRAME_OF_REFERENCE = 0;
+    private static final byte DELTA = 1;
+
+    private IntegerPacking()
+    {
+    }
+
+    /**
+     * Returns the layout with the smallest encoded size for the first {@code count} values
+     */
+    static Layout analyze(long[] values, int count)
+    {
+        if (count == 0) {
+            return new Layout(FRAME_OF_REFERENCE, 0, 0, 0, count);
+        }
+
+        long min = values[0];
+        long max = values[0];
+        boolean sorted = true;
+        long minDelta = -1;
+        long maxDelta = 0;
+        for (int i = 1; i < count; i++) {
+            long value = values[i];
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            if (sorted) {
+                if (value < values[i - 1]) {
+                    sorted = false;
+                    continue;
+                }
+                long delta = value - values[i - 1];
+                if (Long.compareUnsigned(delta, minDelta) < 0) {
+                    minDelta = delta;
+                }
+                if (Long.compareUnsigned(delta, maxDelta) > 0) {
+                    maxDelta = delta;
+                }
+            }
+        }
+
+        int frameOfReferenceWidth = bitWidth(max - min);
+        if (sorted && count > 1) {
+            int deltaWidth = bitWidth(maxDelta - minDelta);
+            if (deltaWidth < frameOfReferenceWidth) {
+                return new Layout(DELTA, values[0], minDelta, deltaWidth, count);
+            }
+        }
+        return new Layout(FRAME_OF_REFERENCE, min, 0, frameOfReferenceWidth, count);
+    }
+
+    /**
+     * Writes the first {@code count} values with the given layout. The content of {@code values} is destroyed.
+     */
+    static void write(SliceOutput output, long[] values, Layout layout)
+    {
+        output.writeByte(layout.mode);
+        output.writeLong(layout.base);
+        output.writeByte(layout.width);
+        if (layout.mode == DELTA) {
+            output.writeLong(layout.minDelta);
+            for (int i = layout.count - 1; i > 0; i--) {
+                values[i] = values[i] - values[i - 1] - layout.minDelta;
+            }
+            pack(output, values, 1, layout.count - 1, layout.width);
+        }
+        else {
+            for (int i = 0; i < layout.count; i++) {
+                values[i] -= layout.base;
+            }
+            pack(output, values, 0, layout.count, layout.width);
+        }
+    }
+
+    /**
+     * Reads {@code count} values written by {@link #write}
+     */
+    static void read(SliceInput input, long[] values, int count)
+    {
+        byte mode = input.readByte();
+        long base = input.readLong();
+        int width = input.readByte();
+        if (mode == DELTA) {
+            long minDelta = input.readLong();
+            unpack(input, values, 1, count - 1, width);
+            values[0] = base;
+            for (int i = 1; i < count; i++) {
+                values[i] = values[i - 1] + values[i] + minDelta;
+            }
+        }
+        else {
+            unpack(input, values, 0, count, width);
+            for (int i = 0; i < count; i++) {
+                values[i] += base;
+            }
+        }
+    }
+
+    private static void pack(SliceOutput output, long[] values, int offset, int length, int width)
+    {
+        if (width == 0) {
+            return;
+        }
+        long buffer = 0;
+        int used = 0;
+        for (int i = offset; i < offset + length; i++) {
+            long value = values[i];
+            buffer |= value << used;
+            if (used + width >= Long.SIZE) {
+                output.writeLong(buffer);
+                int consumed = Long.SIZE - used;
+                buffer = consumed == Long.SIZE ? 0 : value >>> consumed;
+                used = used + width - Long.SIZE;
+            }
+            else {
+                used += width;
+            }
+        }
+        if (used > 0) {
+            output.writeLong(buffer);
+        }
+    }
+
+    private static void unpack(SliceInput input, long[] values, int offset, int length, int width)
+    {
+        if (width == 0) {
+            for (int i = offset; i < offset + length; i++) {
+                values[i] = 0;
+            }
+            return;
+        }
+        long mask = width == Long.SIZE ? -1L : (1L << width) - 1;
+        long current = 0;
+        int consumed = Long.SIZE;
+        for (int i = offset; i < offset + length; i++) {
+            if (consumed == Long.SIZE) {
+                current = input.readLong();
+                consumed = 0;
+            }
+            long value = current >>> consumed;
+            int available = Long.SIZE - consumed;
+            if (available >= width) {
+                consumed += width;
+            }
+            else {
+                current = input.readLong();
+                value |= current << available;
+                consumed = width - available;
+            }
+            values[i] = value & mask;
+        }
+    }
+
+    private static int bitWidth(long unsignedValue)
+    {
+        return Long.SIZE - Long.numberOfLeadingZeros(unsignedValue);
+    }
+
+    static final class Layout
+    {
+        private final byte mode;
+        private final long base;
+        private final long minDelta;
+        private final int width;
+        private final int count;
+
+        private Layout(byte mode, long base, long minDelta, int width, int count)
+        {
+            this.mode = mode;
+            this.base = base;
+            this.minDelta = minDelta;
+            this.width = width;
+            this.count = count;
+        }
+
+        /**
+         * Number of bytes {@link #write} produces for this layout
+         */
+        long getEncodedSize()
+        {
+            int packedCount = mode == DELTA ? count - 1 : count;
+            long packedWords = (((long) packedCount) * width + Long.SIZE - 1) / Long.SIZE;
+            return SIZE_OF_BYTE + SIZE_OF_LONG + SIZE_OF_BYTE + (mode == DELTA ? SIZE_OF_LONG : 0) + packedWords * SIZE_OF_LONG;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.hetu.core.transport.block;
+
+import io.airlift.slice.SliceInput;
+import io.airlift.slice.SliceOutput;
+import io.hetu.core.transport.block.IntegerPacking.Layout;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockEncoding;
+import io.prestosql.spi.block.BlockEncodingSerde;
+import io.prestosql.spi.block.DictionaryBlock;
+import io.prestosql.spi.block.IntArrayBlock;
+import io.prestosql.spi.block.LongArrayBlock;
+import io.prestosql.spi.block.VariableWidthBlock;
+import io.prestosql.spi.type.Type;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static io.airlift.slice.SizeOf.SIZE_OF_INT;
+import static io.airlift.slice.SizeOf.SIZE_OF_LONG;
+import static io.prestosql.spi.block.DictionaryId.randomDictionaryId;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Writer side {@link BlockEncodingSerde} that picks a lightweight column encoding per block when it is smaller
+ * on the wire than the block's own encoding:
+ * <ul>
+ * <li>bigint and integer blocks are bit packed with frame of reference or delta encoding,
+ * which also collapses constant columns to a header</li>
+ * <li>dictionary blocks are compacted and their ids are bit packed</li>
+ * <li>low cardinality variable width blocks are rewritten as packed dictionaries</li>
+ * </ul>
+ * Everything else, all reads and the Kryo stream variants go to the delegate. The encodings are registered by name in every
+ * block encoding serde, so readers need no configuration.
+ */
+public class LightweightBlockEncodingSerde
+        implements BlockEncodingSerde
+{
+    private static final int MIN_DICTIONARY_POSITION_COUNT = 16;
+    private static final int DICTIONARY_HEADER_SIZE = SIZE_OF_INT + 3 * SIZE_OF_LONG;
+
+    private static final PackedLongArrayBlockEncoding PACKED_LONG_ARRAY = new PackedLongArrayBlockEncoding();
+    private static final PackedIntArrayBlockEncoding PACKED_INT_ARRAY = new PackedIntArrayBlockEncoding();
+    private static final PackedDictionaryBlockEncoding PACKED_DICTIONARY = new PackedDictionaryBlockEncoding();
+
+    private final BlockEncodingSerde delegate;
+
+    public LightweightBlockEncodingSerde(BlockEncodingSerde delegate)
+    {
+        this.delegate = requireNonNull(delegate, "delegate is null");
+    }
+
+    @Override
+    public Block readBlock(InputStream input)
+    {
+        return delegate.readBlock(input);
+    }
+
+    @Override
+    public void writeBlock(OutputStream output, Block block)
+    {
+        delegate.writeBlock(output, block);
+    }
+
+    @Override
+    public Block readBlock(SliceInput input)
+    {
+        return delegate.readBlock(input);
+    }
+
+    @Override
+    public void writeBlock(SliceOutput output, Block inputBlock)
+    {
+        Block block = inputBlock.getLoadedBlock();
+        if (block instanceof LongArrayBlock) {
+            long[] values = PackedLongArrayBlockEncoding.getNonNullValues(block);
+            Layout layout = IntegerPacking.analyze(values, values.length);
+            if (layout.getEncodedSize() + SIZE_OF_INT < (long) values.length * SIZE_OF_LONG) {
+                writeLengthPrefixedString(output, PACKED_LONG_ARRAY.getName());
+                PackedLongArrayBlockEncoding.writeBlock(output, block, values, layout);
+                return;
+            }
+        }
+        else if (block instanceof IntArrayBlock) {
+            long[] values = PackedIntArrayBlockEncoding.getNonNullValues(block);
+            Layout layout = IntegerPacking.analyze(values, values.length);
+            if (layout.getEncodedSize() + SIZE_OF_INT < (long) values.length * SIZE_OF_INT) {
+                writeLengthPrefixedString(output, PACKED_INT_ARRAY.getName());
+                PackedIntArrayBlockEncoding.writeBlock(output, block, values, layout);
+                return;
+            }
+        }
+        else if (block instanceof DictionaryBlock) {
+            writeDictionary(output, block);
+            return;
+        }
+        else if (block instanceof VariableWidthBlock) {
+            Optional<DictionaryBlock> dictionaryBlock = tryCreateDictionary((VariableWidthBlock) block);
+            if (dictionaryBlock.isPresent()) {
+                writeDictionary(output, dictionaryBlock.get());
+                return;
+            }
+        }
+        delegate.writeBlock(output, block);
+    }
+
+    private void writeDictionary(SliceOutput output, Block block)
+    {
+        writeLengthPrefixedString(output, PACKED_DICTIONARY.getName());
+        // the dictionary is written through this serde so that it is packed as well
+        PACKED_DICTIONARY.writeBlock(this, output, block);
+    }
+
+    /**
+     * Returns the block as a dictionary of its distinct values, if that is estimated to be smaller than the block itself
+     */
+    private static Optional<DictionaryBlock> tryCreateDictionary(VariableWidthBlock block)
+    {
+        int positionCount = block.getPositionCount();
+        if (positionCount < MIN_DICTIONARY_POSITION_COUNT) {
+            return Optional.empty();
+        }
+
+        // open addressing table of dictionary ids, each id refers to the first position holding its value
+        int maxDictionarySize = positionCount / 2;
+        int hashMask = (Integer.highestOneBit(maxDictionarySize - 1) << 2) - 1;
+        int[] hashTable = new int[hashMask + 1];
+        Arrays.fill(hashTable, -1);
+        int[] dictionaryPositions = new int[maxDictionarySize];
+        int dictionarySize = 0;
+        int nullId = -1;
+        int[] ids = new int[positionCount];
+        long dictionaryBytes = 0;
+        for (int position = 0; position < positionCount; position++) {
+            if (block.isNull(position)) {
+                if (nullId < 0) {
+                    if (dictionarySize == maxDictionarySize) {
+                        return Optional.empty();
+                    }
+                    nullId = dictionarySize;
+                    dictionaryPositions[dictionarySize++] = position;
+                }
+                ids[position] = nullId;
+                continue;
+            }
+
+            int length = block.getSliceLength(position);
+            int slot = (int) block.hash(position, 0, length) & hashMask;
+            while (true) {
+                int id = hashTable[slot];
+                if (id < 0) {
+                    if (dictionarySize == maxDictionarySize) {
+                        return Optional.empty();
+                    }
+                    id = dictionarySize++;
+                    dictionaryPositions[id] = position;
+                    hashTable[slot] = id;
+                    dictionaryBytes += length;
+                    ids[position] = id;
+                    break;
+                }
+                int dictionaryPosition = dictionaryPositions[id];
+                if (block.getSliceLength(dictionaryPosition) == length && block.equals(position, 0, block, dictionaryPosition, 0, length)) {
+                    ids[position] = id;
+                    break;
+                }
+                slot = (slot + 1) & hashMask;
+            }
+        }
+
+        int idWidth = Integer.SIZE - Integer.numberOfLeadingZeros(dictionarySize - 1);
+        long encodedSize = DICTIONARY_HEADER_SIZE
+                + dictionaryBytes + (long) dictionarySize * SIZE_OF_INT
+                + ((long) positionCount * idWidth + Long.SIZE - 1) / Long.SIZE * SIZE_OF_LONG;
+        if (encodedSize >= block.getSizeInBytes()) {
+            return Optional.empty();
+        }
+
+        Block dictionary = block.copyPositions(dictionaryPositions, 0, dictionarySize);
+        return Optional.of(new DictionaryBlock(positionCount, dictionary, ids, true, randomDictionaryId()));
+    }
+
+    @Override
+    public Object getContext()
+    {
+        return delegate.getContext();
+    }
+
+    @Override
+    public Type readType(SliceInput sliceInput)
+    {
+        return delegate.readType(sliceInput);
+    }
+
+    @Override
+    public void writeType(SliceOutput sliceOutput, Type type)
+    {
+        delegate.writeType(sliceOutput, type);
+    }
+
+    private static void writeLengthPrefixedString(SliceOutput output, String value)
+    {
+        byte[] bytes = value.getBytes(UTF_8);
+        output.writeInt(bytes.length);
+        output.writeBytes(bytes);
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.hetu.core.transport.block;
+
+import io.airlift.slice.SliceInput;
+import io.airlift.slice.SliceOutput;
+import io.prestosql.spi.PrestoException;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockEncoding;
+import io.prestosql.spi.block.BlockEncodingSerde;
+import io.prestosql.spi.block.DictionaryBlock;
+import io.prestosql.spi.block.DictionaryId;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import static io.prestosql.spi.StandardErrorCode.NOT_SUPPORTED;
+
+/**
+ * Same layout as {@link io.prestosql.spi.block.DictionaryBlockEncoding}, except the ids are bit packed
+ * to the width of the dictionary size instead of written as raw ints.
+ */
+public class PackedDictionaryBlockEncoding
+        implements BlockEncoding
+{
+    public static final String NAME = "PACKED_DICTIONARY";
+
+    @Override
+    public String getName()
+    {
+        return NAME;
+    }
+
+    @Override
+    public void writeBlock(BlockEncodingSerde blockEncodingSerde, SliceOutput sliceOutput, Block block)
+    {
+        DictionaryBlock dictionaryBlock = ((DictionaryBlock) block).compact();
+
+        // positionCount
+        int positionCount = dictionaryBlock.getPositionCount();
+        sliceOutput.appendInt(positionCount);
+
+        // dictionary
+        blockEncodingSerde.writeBlock(sliceOutput, dictionaryBlock.getDictionary());
+
+        // ids
+        long[] ids = new long[positionCount];
+        for (int position = 0; position < positionCount; position++) {
+            ids[position] = dictionaryBlock.getId(position);
+        }
+        IntegerPacking.write(sliceOutput, ids, IntegerPacking.analyze(ids, positionCount));
+
+        // instance id
+        DictionaryId dictionarySourceId = dictionaryBlock.getDictionarySourceId();
+        sliceOutput.appendLong(dictionarySourceId.getMostSignificantBits());
+        sliceOutput.appendLong(dictionarySourceId.getLeastSignificantBits());
+        sliceOutput.appendLong(dictionarySourceId.getSequenceId());
+    }
+
+    @Override
+    public Block readBlock(BlockEncodingSerde blockEncodingSerde, SliceInput sliceInput)
+    {
+        // positionCount
+        int positionCount = sliceInput.readInt();
+
+        // dictionary
+        Block dictionary = blockEncodingSerde.readBlock(sliceInput);
+
+        // ids
+        long[] packedIds = new long[positionCount];
+        IntegerPacking.read(sliceInput, packedIds, positionCount);
+        int[] ids = new int[positionCount];
+        for (int position = 0; position < positionCount; position++) {
+            ids[position] = (int) packedIds[position];
+        }
+
+        // instance id
+        long mostSignificantBits = sliceInput.readLong();
+        long leastSignificantBits = sliceInput.readLong();
+        long sequenceId = sliceInput.readLong();
+
+        return new DictionaryBlock(positionCount, dictionary, ids, false, new DictionaryId(mostSignificantBits, leastSignificantBits, sequenceId));
+    }
+
+    @Override
+    public Block readBlock(BlockEncodingSerde blockEncodingSerde, InputStream input)
+    {
+        throw new PrestoException(NOT_SUPPORTED, "Generic readblock not supported for " + NAME);
+    }
+
+    @Override
+    public void writeBlock(BlockEncodingSerde blockEncodingSerde, OutputStream output, Block block)
+    {
+        throw new PrestoException(NOT_SUPPORTED, "Generic write not supported for " + NAME);
+    }
+}
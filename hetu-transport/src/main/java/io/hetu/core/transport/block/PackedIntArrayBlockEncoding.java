@@ -0,0 +1,112 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.hetu.core.transport.block;
+
+import io.airlift.slice.SliceInput;
+import io.airlift.slice.SliceOutput;
+import io.hetu.core.transport.block.IntegerPacking.Layout;
+import io.prestosql.spi.PrestoException;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockEncoding;
+import io.prestosql.spi.block.BlockEncodingSerde;
+import io.prestosql.spi.block.IntArrayBlock;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Optional;
+
+import static io.prestosql.spi.StandardErrorCode.NOT_SUPPORTED;
+import static io.prestosql.spi.block.EncoderUtil.decodeNullBits;
+import static io.prestosql.spi.block.EncoderUtil.encodeNullsAsBits;
+
+/**
+ * Wire encoding of integer values as a bit packed frame of reference or delta sequence, see {@link IntegerPacking}.
+ * It is only chosen by {@link LightweightBlockEncodingSerde} and reads back as a {@link IntArrayBlock}.
+ */
+public class PackedIntArrayBlockEncoding
+        implements BlockEncoding
+{
+    public static final String NAME = "PACKED_INT_ARRAY";
+
+    @Override
+    public String getName()
+    {
+        return NAME;
+    }
+
+    @Override
+    public void writeBlock(BlockEncodingSerde blockEncodingSerde, SliceOutput sliceOutput, Block block)
+    {
+        long[] values = getNonNullValues(block);
+        writeBlock(sliceOutput, block, values, IntegerPacking.analyze(values, values.length));
+    }
+
+    static void writeBlock(SliceOutput sliceOutput, Block block, long[] values, Layout layout)
+    {
+        sliceOutput.appendInt(block.getPositionCount());
+        encodeNullsAsBits(sliceOutput, block);
+        sliceOutput.appendInt(values.length);
+        IntegerPacking.write(sliceOutput, values, layout);
+    }
+
+    static long[] getNonNullValues(Block block)
+    {
+        int positionCount = block.getPositionCount();
+        int nonNullCount = 0;
+        long[] values = new long[positionCount];
+        for (int position = 0; position < positionCount; position++) {
+            if (!block.isNull(position)) {
+                values[nonNullCount++] = block.getInt(position, 0);
+            }
+        }
+        if (nonNullCount == positionCount) {
+            return values;
+        }
+        long[] nonNullValues = new long[nonNullCount];
+        System.arraycopy(values, 0, nonNullValues, 0, nonNullCount);
+        return nonNullValues;
+    }
+
+    @Override
+    public Block readBlock(BlockEncodingSerde blockEncodingSerde, SliceInput sliceInput)
+    {
+        int positionCount = sliceInput.readInt();
+        boolean[] valueIsNull = decodeNullBits(sliceInput, positionCount).orElse(null);
+
+        int nonNullCount = sliceInput.readInt();
+        long[] packed = new long[nonNullCount];
+        IntegerPacking.read(sliceInput, packed, nonNullCount);
+
+        int[] values = new int[positionCount];
+        int index = 0;
+        for (int position = 0; position < positionCount; position++) {
+            if (valueIsNull == null || !valueIsNull[position]) {
+                values[position] = (int) packed[index++];
+            }
+        }
+        return new IntArrayBlock(positionCount, Optional.ofNullable(valueIsNull), values);
+    }
+
+    @Override
+    public Block readBlock(BlockEncodingSerde blockEncodingSerde, InputStream input)
+    {
+        throw new PrestoException(NOT_SUPPORTED, "Generic readblock not supported for " + NAME);
+    }
+
+    @Override
+    public void writeBlock(BlockEncodingSerde blockEncodingSerde, OutputStream output, Block block)
+    {
+        throw new PrestoException(NOT_SUPPORTED, "Generic write not supported for " + NAME);
+    }
+}
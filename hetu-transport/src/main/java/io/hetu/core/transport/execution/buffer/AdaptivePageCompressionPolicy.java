@@ -0,0 +1,147 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.hetu.core.transport.execution.buffer;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.hetu.core.transport.execution.buffer.PageCompressionCodec.NONE;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Picks the codec that minimizes the estimated time to ship a byte of page data, which is the time spent
+ * compressing it plus the time the compressed result takes on the wire at the configured network bandwidth.
+ * Sending pages uncompressed costs no CPU but the full wire time, so on fast networks a codec only wins
+ * when its throughput is high enough to pay for itself, and compression is switched off otherwise.
+ * <p>
+ * The compression ratio and throughput of every candidate are tracked as moving averages and every candidate
+ * is sampled once per {@link #SAMPLE_INTERVAL} pages, so the choice follows changes in the data.
+ */
+@ThreadSafe
+public class AdaptivePageCompressionPolicy
+        implements PageCompressionPolicy
+{
+    @VisibleForTesting
+    static final int SAMPLE_INTERVAL = 64;
+    private static final double SMOOTHING_FACTOR = 0.2;
+
+    private final List<PageCompressionCodec> codecs;
+    private final double wireNanosPerByte;
+    private final Optional<PageCompressionStats> stats;
+    private final AtomicLong pageCount = new AtomicLong();
+
+    @GuardedBy("this")
+    private final Map<PageCompressionCodec, CodecEstimate> estimates = new EnumMap<>(PageCompressionCodec.class);
+    private volatile PageCompressionCodec currentCodec;
+
+    public AdaptivePageCompressionPolicy(List<PageCompressionCodec> candidates, long networkBytesPerSecond, Optional<PageCompressionStats> stats)
+    {
+        requireNonNull(candidates, "candidates is null");
+        checkArgument(networkBytesPerSecond > 0, "networkBytesPerSecond must be positive");
+        this.codecs = candidates.stream()
+                .filter(codec -> codec != NONE)
+                .distinct()
+                .collect(ImmutableList.toImmutableList());
+        checkArgument(!codecs.isEmpty(), "at least one compression codec is required");
+        this.wireNanosPerByte = 1_000_000_000.0 / networkBytesPerSecond;
+        this.stats = requireNonNull(stats, "stats is null");
+        // start optimistic, the first sampling round corrects the choice
+        this.currentCodec = codecs.get(0);
+    }
+
+    @Override
+    public PageCompressionCodec nextCodec()
+    {
+        int slot = (int) (pageCount.getAndIncrement() % SAMPLE_INTERVAL);
+        if (slot < codecs.size()) {
+            return codecs.get(slot);
+        }
+        return currentCodec;
+    }
+
+    @Override
+    public void record(PageCompressionCodec codec, long inputBytes, long outputBytes, long compressionNanos)
+    {
+        stats.ifPresent(pageCompressionStats -> pageCompressionStats.record(codec, inputBytes, outputBytes, compressionNanos));
+        if (codec == NONE || inputBytes == 0) {
+            return;
+        }
+
+        synchronized (this) {
+            estimates.computeIfAbsent(codec, ignored -> new CodecEstimate())
+                    .add(((double) outputBytes) / inputBytes, ((double) compressionNanos) / inputBytes);
+
+            PageCompressionCodec bestCodec = NONE;
+            double bestCost = wireNanosPerByte;
+            for (Map.Entry<PageCompressionCodec, CodecEstimate> entry : estimates.entrySet()) {
+                double cost = entry.getValue().getCost(wireNanosPerByte);
+                if (cost < bestCost) {
+                    bestCost = cost;
+                    bestCodec = entry.getKey();
+                }
+            }
+            currentCodec = bestCodec;
+        }
+    }
+
+    public PageCompressionCodec getCurrentCodec()
+    {
+        return currentCodec;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("codecs", codecs)
+                .add("wireNanosPerByte", wireNanosPerByte)
+                .add("currentCodec", currentCodec)
+                .toString();
+    }
+
+    private static class CodecEstimate
+    {
+        private double ratio;
+        private double nanosPerByte;
+        private boolean initialized;
+
+        void add(double sampleRatio, double sampleNanosPerByte)
+        {
+            if (!initialized) {
+                ratio = sampleRatio;
+                nanosPerByte = sampleNanosPerByte;
+                initialized = true;
+                return;
+            }
+            ratio += SMOOTHING_FACTOR * (sampleRatio - ratio);
+            nanosPerByte += SMOOTHING_FACTOR * (sampleNanosPerByte - nanosPerByte);
+        }
+
+        double getCost(double wireNanosPerByte)
+        {
+            return nanosPerByte + ratio * wireNanosPerByte;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.hetu.core.transport.execution.buffer;
+
+import java.util.Optional;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+
+public class FixedPageCompressionPolicy
+        implements PageCompressionPolicy
+{
+    private final PageCompressionCodec codec;
+    private final Optional<PageCompressionStats> stats;
+
+    public FixedPageCompressionPolicy(PageCompressionCodec codec, Optional<PageCompressionStats> stats)
+    {
+        this.codec = requireNonNull(codec, "codec is null");
+        this.stats = requireNonNull(stats, "stats is null");
+    }
+
+    @Override
+    public PageCompressionCodec nextCodec()
+    {
+        return codec;
+    }
+
+    @Override
+    public void record(PageCompressionCodec codec, long inputBytes, long outputBytes, long compressionNanos)
+    {
+        stats.ifPresent(pageCompressionStats -> pageCompressionStats.record(codec, inputBytes, outputBytes, compressionNanos));
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("codec", codec)
+                .toString();
+    }
+}
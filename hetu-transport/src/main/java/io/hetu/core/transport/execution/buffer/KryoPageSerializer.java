@@ -91,9 +91,9 @@ public class KryoPageSerializer
         }
     };
 
-    KryoPageSerializer(BlockEncodingSerde serde)
+    KryoPageSerializer(BlockEncodingSerde serde, PageCompressionPolicy compressionPolicy, boolean pooledBuffersEnabled)
     {
-        super(serde, Optional.empty(), Optional.empty(), Optional.empty());
+        super(serde, compressionPolicy, Optional.empty(), pooledBuffersEnabled);
         this.serde = requireNonNull(serde, "Serde Cannot be null");
     }
 
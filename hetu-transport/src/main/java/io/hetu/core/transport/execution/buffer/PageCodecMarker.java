@@ -27,7 +27,10 @@ public enum PageCodecMarker
 {
     COMPRESSED(1),
     ENCRYPTED(2),
-    MARKER_PAGE(3);
+    MARKER_PAGE(3),
+    // Codec of a COMPRESSED page, a compressed page without any codec marker is zstd compressed
+    LZ4(4),
+    SNAPPY(5);
 
     private final int mask;
 
@@ -0,0 +1,102 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.hetu.core.transport.execution.buffer;
+
+import io.airlift.compress.Compressor;
+import io.airlift.compress.Decompressor;
+import io.airlift.compress.lz4.Lz4Compressor;
+import io.airlift.compress.lz4.Lz4Decompressor;
+import io.airlift.compress.snappy.SnappyCompressor;
+import io.airlift.compress.snappy.SnappyDecompressor;
+import io.airlift.compress.zstd.ZstdCompressor;
+import io.airlift.compress.zstd.ZstdDecompressor;
+import io.hetu.core.transport.execution.buffer.PageCodecMarker.MarkerSet;
+
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkState;
+import static io.hetu.core.transport.execution.buffer.PageCodecMarker.COMPRESSED;
+
+/**
+ * Compression codecs available for serialized pages. The codec of a page is recorded in its
+ * {@link PageCodecMarker}s: {@link PageCodecMarker#COMPRESSED} alone stands for zstd, so that pages
+ * written before codecs became pluggable can still be read, and the other codecs add their own marker.
+ */
+public enum PageCompressionCodec
+{
+    NONE(Optional.empty()),
+    ZSTD(Optional.empty()),
+    LZ4(Optional.of(PageCodecMarker.LZ4)),
+    SNAPPY(Optional.of(PageCodecMarker.SNAPPY));
+
+    private final Optional<PageCodecMarker> codecMarker;
+
+    PageCompressionCodec(Optional<PageCodecMarker> codecMarker)
+    {
+        this.codecMarker = codecMarker;
+    }
+
+    public Optional<Compressor> createCompressor()
+    {
+        switch (this) {
+            case NONE:
+                return Optional.empty();
+            case ZSTD:
+                return Optional.of(new ZstdCompressor());
+            case LZ4:
+                return Optional.of(new Lz4Compressor());
+            case SNAPPY:
+                return Optional.of(new SnappyCompressor());
+            default:
+                throw new UnsupportedOperationException("Unsupported compression codec: " + this);
+        }
+    }
+
+    public Optional<Decompressor> createDecompressor()
+    {
+        switch (this) {
+            case NONE:
+                return Optional.empty();
+            case ZSTD:
+                return Optional.of(new ZstdDecompressor());
+            case LZ4:
+                return Optional.of(new Lz4Decompressor());
+            case SNAPPY:
+                return Optional.of(new SnappyDecompressor());
+            default:
+                throw new UnsupportedOperationException("Unsupported compression codec: " + this);
+        }
+    }
+
+    public void addMarkers(MarkerSet markers)
+    {
+        checkState(this != NONE, "Uncompressed pages do not have a compression marker");
+        markers.add(COMPRESSED);
+        codecMarker.ifPresent(markers::add);
+    }
+
+    public static PageCompressionCodec fromMarkers(byte markers)
+    {
+        if (!COMPRESSED.isSet(markers)) {
+            return NONE;
+        }
+        if (PageCodecMarker.LZ4.isSet(markers)) {
+            return LZ4;
+        }
+        if (PageCodecMarker.SNAPPY.isSet(markers)) {
+            return SNAPPY;
+        }
+        return ZSTD;
+    }
+}
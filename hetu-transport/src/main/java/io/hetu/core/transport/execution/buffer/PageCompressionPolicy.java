@@ -0,0 +1,29 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.hetu.core.transport.execution.buffer;
+
+/**
+ * Decides which {@link PageCompressionCodec} a {@link PagesSerde} uses for the next page,
+ * and receives the outcome of every compression attempt.
+ * Implementations must be thread safe as one policy may be shared by the serdes of all drivers of a task.
+ */
+public interface PageCompressionPolicy
+{
+    PageCompressionCodec nextCodec();
+
+    /**
+     * @param outputBytes size of the page as it is sent, which equals {@code inputBytes} when the compressed result was discarded
+     */
+    void record(PageCompressionCodec codec, long inputBytes, long outputBytes, long compressionNanos);
+}
@@ -0,0 +1,81 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.hetu.core.transport.execution.buffer;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Cumulative compression counters per {@link PageCompressionCodec}, shared by all serdes that record into it
+ */
+@ThreadSafe
+public class PageCompressionStats
+{
+    private static final int CODEC_COUNT = PageCompressionCodec.values().length;
+
+    private final AtomicLongArray pages = new AtomicLongArray(CODEC_COUNT);
+    private final AtomicLongArray compressedPages = new AtomicLongArray(CODEC_COUNT);
+    private final AtomicLongArray inputBytes = new AtomicLongArray(CODEC_COUNT);
+    private final AtomicLongArray outputBytes = new AtomicLongArray(CODEC_COUNT);
+    private final AtomicLongArray compressionNanos = new AtomicLongArray(CODEC_COUNT);
+
+    /**
+     * @param outputBytes size of the page as it is sent, which equals {@code inputBytes} when the compressed result was discarded
+     */
+    public void record(PageCompressionCodec codec, long inputBytes, long outputBytes, long compressionNanos)
+    {
+        int index = requireNonNull(codec, "codec is null").ordinal();
+        this.pages.incrementAndGet(index);
+        if (outputBytes < inputBytes) {
+            this.compressedPages.incrementAndGet(index);
+        }
+        this.inputBytes.addAndGet(index, inputBytes);
+        this.outputBytes.addAndGet(index, outputBytes);
+        this.compressionNanos.addAndGet(index, compressionNanos);
+    }
+
+    public long getPages(PageCompressionCodec codec)
+    {
+        return pages.get(codec.ordinal());
+    }
+
+    public long getCompressedPages(PageCompressionCodec codec)
+    {
+        return compressedPages.get(codec.ordinal());
+    }
+
+    public long getInputBytes(PageCompressionCodec codec)
+    {
+        return inputBytes.get(codec.ordinal());
+    }
+
+    public long getOutputBytes(PageCompressionCodec codec)
+    {
+        return outputBytes.get(codec.ordinal());
+    }
+
+    public long getCompressionNanos(PageCompressionCodec codec)
+    {
+        return compressionNanos.get(codec.ordinal());
+    }
+
+    public double getCompressionRatio(PageCompressionCodec codec)
+    {
+        long input = getInputBytes(codec);
+        return input == 0 ? 1.0 : ((double) getOutputBytes(codec)) / input;
+    }
+}
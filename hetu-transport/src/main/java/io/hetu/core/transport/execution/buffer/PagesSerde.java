@@ -28,12 +28,16 @@ import io.prestosql.spi.spiller.SpillCipher;
 
 import javax.annotation.concurrent.NotThreadSafe;
 
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.LongConsumer;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
-import static io.hetu.core.transport.execution.buffer.PageCodecMarker.COMPRESSED;
 import static io.hetu.core.transport.execution.buffer.PageCodecMarker.ENCRYPTED;
+import static io.hetu.core.transport.execution.buffer.PageCompressionCodec.NONE;
+import static io.hetu.core.transport.execution.buffer.PageCompressionCodec.ZSTD;
 import static io.hetu.core.transport.execution.buffer.PagesSerdeUtil.readRawPage;
 import static io.hetu.core.transport.execution.buffer.PagesSerdeUtil.writeRawPage;
 import static java.lang.Math.toIntExact;
@@ -47,17 +51,67 @@ public class PagesSerde
     private static final double MINIMUM_COMPRESSION_RATIO = 0.8;
 
     private final BlockEncodingSerde blockEncodingSerde;
-    private final Optional<Compressor> compressor;
-    private final Optional<Decompressor> decompressor;
+    private final PageCompressionPolicy compressionPolicy;
+    private final Map<PageCompressionCodec, Compressor> compressors = new EnumMap<>(PageCompressionCodec.class);
+    private final Map<PageCompressionCodec, Decompressor> decompressors = new EnumMap<>(PageCompressionCodec.class);
     private final Optional<SpillCipher> spillCipher;
+    private final boolean pooledBuffersEnabled;
+
+    // scratch buffers reused across pages when pooled buffers are enabled, a serde instance is owned by a single driver
+    private DynamicSliceOutput serializationBuffer;
+    private byte[] compressionBuffer = new byte[0];
+    private byte[] encryptionBuffer = new byte[0];
+    private byte[] decryptionBuffer = new byte[0];
+    private LongConsumer retainedSizeListener = bytes -> {};
+    private long reportedRetainedSize;
 
     public PagesSerde(BlockEncodingSerde blockEncodingSerde, Optional<Compressor> compressor, Optional<Decompressor> decompressor, Optional<SpillCipher> spillCipher)
+    {
+        this(blockEncodingSerde, compressor, decompressor, spillCipher, false);
+    }
+
+    public PagesSerde(BlockEncodingSerde blockEncodingSerde, Optional<Compressor> compressor, Optional<Decompressor> decompressor, Optional<SpillCipher> spillCipher, boolean pooledBuffersEnabled)
+    {
+        this(blockEncodingSerde, new FixedPageCompressionPolicy(requireNonNull(compressor, "compressor is null").isPresent() ? ZSTD : NONE, Optional.empty()), spillCipher, pooledBuffersEnabled);
+        checkArgument(compressor.isPresent() == requireNonNull(decompressor, "decompressor is null").isPresent(), "compressor and decompressor must both be present or both be absent");
+        // explicitly provided compressors are zstd compatible, the way pages without a codec marker are decoded
+        compressor.ifPresent(instance -> compressors.put(ZSTD, instance));
+        decompressor.ifPresent(instance -> decompressors.put(ZSTD, instance));
+    }
+
+    public PagesSerde(BlockEncodingSerde blockEncodingSerde, PageCompressionPolicy compressionPolicy, Optional<SpillCipher> spillCipher, boolean pooledBuffersEnabled)
     {
         this.blockEncodingSerde = requireNonNull(blockEncodingSerde, "blockEncodingSerde is null");
-        checkArgument(compressor.isPresent() == decompressor.isPresent(), "compressor and decompressor must both be present or both be absent");
-        this.compressor = requireNonNull(compressor, "compressor is null");
-        this.decompressor = requireNonNull(decompressor, "decompressor is null");
+        this.compressionPolicy = requireNonNull(compressionPolicy, "compressionPolicy is null");
         this.spillCipher = requireNonNull(spillCipher, "spillCipher is null");
+        this.pooledBuffersEnabled = pooledBuffersEnabled;
+    }
+
+    public boolean isPooledBuffersEnabled()
+    {
+        return pooledBuffersEnabled;
+    }
+
+    /**
+     * Returns the size of the scratch buffers kept by this serde across pages
+     */
+    public long getRetainedSizeInBytes()
+    {
+        long size = compressionBuffer.length + encryptionBuffer.length + decryptionBuffer.length;
+        if (serializationBuffer != null) {
+            size += serializationBuffer.getRetainedSize();
+        }
+        return size;
+    }
+
+    /**
+     * Sets the listener that is notified with {@link #getRetainedSizeInBytes()} whenever the pooled buffers grow
+     */
+    public void setRetainedSizeListener(LongConsumer retainedSizeListener)
+    {
+        this.retainedSizeListener = requireNonNull(retainedSizeListener, "retainedSizeListener is null");
+        reportedRetainedSize = getRetainedSizeInBytes();
+        retainedSizeListener.accept(reportedRetainedSize);
     }
 
     @Override
@@ -80,30 +134,41 @@ public class PagesSerde
 
     private SerializedPage serializeImpl(Page page)
     {
-        SliceOutput serializationBuffer = new DynamicSliceOutput(toIntExact(page.getSizeInBytes() + Integer.BYTES)); // block length is an int
+        SliceOutput serializationBuffer = getSerializationBuffer(toIntExact(page.getSizeInBytes() + Integer.BYTES)); // block length is an int
         writeRawPage(page, serializationBuffer, blockEncodingSerde);
         Slice slice = serializationBuffer.slice();
         int uncompressedSize = serializationBuffer.size();
         MarkerSet markers = MarkerSet.empty();
 
-        if (compressor.isPresent()) {
-            byte[] compressed = new byte[compressor.get().maxCompressedLength(uncompressedSize)];
-            int compressedSize = compressor.get().compress(
+        PageCompressionCodec codec = compressionPolicy.nextCodec();
+        if (codec != NONE) {
+            Compressor compressor = getCompressor(codec);
+            long start = System.nanoTime();
+            byte[] compressed = getCompressionBuffer(compressor.maxCompressedLength(uncompressedSize));
+            int compressedSize = compressor.compress(
                     (byte[]) slice.getBase(),
                     (int) (slice.getAddress() - ARRAY_BYTE_BASE_OFFSET),
                     uncompressedSize,
                     compressed,
                     0,
                     compressed.length);
+            long compressionNanos = System.nanoTime() - start;
 
             if ((((double) compressedSize) / uncompressedSize) <= MINIMUM_COMPRESSION_RATIO) {
                 slice = Slices.wrappedBuffer(compressed, 0, compressedSize);
-                markers.add(COMPRESSED);
+                codec.addMarkers(markers);
+                compressionPolicy.record(codec, uncompressedSize, compressedSize, compressionNanos);
+            }
+            else {
+                compressionPolicy.record(codec, uncompressedSize, uncompressedSize, compressionNanos);
             }
         }
+        else {
+            compressionPolicy.record(NONE, uncompressedSize, uncompressedSize, 0);
+        }
 
         if (spillCipher.isPresent()) {
-            byte[] encrypted = new byte[spillCipher.get().encryptedMaxLength(slice.length())];
+            byte[] encrypted = getEncryptionBuffer(spillCipher.get().encryptedMaxLength(slice.length()));
             int encryptedSize = spillCipher.get().encrypt(
                     (byte[]) slice.getBase(),
                     (int) (slice.getAddress() - ARRAY_BYTE_BASE_OFFSET),
@@ -115,8 +180,10 @@ public class PagesSerde
             markers.add(ENCRYPTED);
         }
 
-        if (!slice.isCompact()) {
+        if (pooledBuffersEnabled || !slice.isCompact()) {
+            // pooled buffers are overwritten by the next page, so the result always gets its own compact copy
             slice = Slices.copyOf(slice);
+            updateRetainedSize();
         }
 
         return new SerializedPage(slice, markers, page.getPositionCount(), uncompressedSize, page.getPageMetadata());
@@ -131,7 +198,10 @@ public class PagesSerde
         if (serializedPage.isEncrypted()) {
             checkState(spillCipher.isPresent(), "Page is encrypted, but spill cipher is missing");
 
-            byte[] decrypted = new byte[spillCipher.get().decryptedMaxLength(slice.length())];
+            // the decrypted bytes are only an intermediate result when the page is also compressed,
+            // otherwise the deserialized blocks may reference them and they must not be reused
+            int decryptedMaxLength = spillCipher.get().decryptedMaxLength(slice.length());
+            byte[] decrypted = serializedPage.isCompressed() ? getDecryptionBuffer(decryptedMaxLength) : new byte[decryptedMaxLength];
             int decryptedSize = spillCipher.get().decrypt(
                     (byte[]) slice.getBase(),
                     (int) (slice.getAddress() - ARRAY_BYTE_BASE_OFFSET),
@@ -140,14 +210,15 @@ public class PagesSerde
                     0);
 
             slice = Slices.wrappedBuffer(decrypted, 0, decryptedSize);
+            updateRetainedSize();
         }
 
         if (serializedPage.isCompressed()) {
-            checkState(decompressor.isPresent(), "Page is compressed, but decompressor is missing");
+            Decompressor decompressor = getDecompressor(serializedPage.getCompressionCodec());
 
             int uncompressedSize = serializedPage.getUncompressedSizeInBytes();
             byte[] decompressed = new byte[uncompressedSize];
-            checkState(decompressor.get().decompress(
+            checkState(decompressor.decompress(
                     (byte[]) slice.getBase(),
                     (int) (slice.getAddress() - ARRAY_BYTE_BASE_OFFSET),
                     slice.length(),
@@ -161,6 +232,75 @@ public class PagesSerde
         return readRawPage(serializedPage.getPositionCount(), serializedPage.getPageMetadata(), slice.getInput(), blockEncodingSerde);
     }
 
+    private void updateRetainedSize()
+    {
+        if (!pooledBuffersEnabled) {
+            return;
+        }
+        long retainedSize = getRetainedSizeInBytes();
+        if (retainedSize != reportedRetainedSize) {
+            reportedRetainedSize = retainedSize;
+            retainedSizeListener.accept(retainedSize);
+        }
+    }
+
+    private Compressor getCompressor(PageCompressionCodec codec)
+    {
+        return compressors.computeIfAbsent(codec, key -> key.createCompressor()
+                .orElseThrow(() -> new IllegalArgumentException("No compressor for codec " + key)));
+    }
+
+    private Decompressor getDecompressor(PageCompressionCodec codec)
+    {
+        return decompressors.computeIfAbsent(codec, key -> key.createDecompressor()
+                .orElseThrow(() -> new IllegalArgumentException("No decompressor for codec " + key)));
+    }
+
+    private SliceOutput getSerializationBuffer(int estimatedSize)
+    {
+        if (!pooledBuffersEnabled) {
+            return new DynamicSliceOutput(estimatedSize);
+        }
+        if (serializationBuffer == null) {
+            serializationBuffer = new DynamicSliceOutput(estimatedSize);
+        }
+        serializationBuffer.reset();
+        return serializationBuffer;
+    }
+
+    private byte[] getCompressionBuffer(int minLength)
+    {
+        if (!pooledBuffersEnabled) {
+            return new byte[minLength];
+        }
+        if (compressionBuffer.length < minLength) {
+            compressionBuffer = new byte[minLength];
+        }
+        return compressionBuffer;
+    }
+
+    private byte[] getEncryptionBuffer(int minLength)
+    {
+        if (!pooledBuffersEnabled) {
+            return new byte[minLength];
+        }
+        if (encryptionBuffer.length < minLength) {
+            encryptionBuffer = new byte[minLength];
+        }
+        return encryptionBuffer;
+    }
+
+    private byte[] getDecryptionBuffer(int minLength)
+    {
+        if (!pooledBuffersEnabled) {
+            return new byte[minLength];
+        }
+        if (decryptionBuffer.length < minLength) {
+            decryptionBuffer = new byte[minLength];
+        }
+        return decryptionBuffer;
+    }
+
     @Override
     public BlockEncodingSerde getBlockEncodingSerde()
     {
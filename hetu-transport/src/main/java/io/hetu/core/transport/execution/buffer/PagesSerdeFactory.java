@@ -13,24 +13,39 @@
  */
 package io.hetu.core.transport.execution.buffer;
 
-import io.airlift.compress.zstd.ZstdCompressor;
-import io.airlift.compress.zstd.ZstdDecompressor;
 import io.prestosql.spi.block.BlockEncodingSerde;
 import io.prestosql.spi.spiller.SpillCipher;
 
 import java.util.Optional;
 
+import static io.hetu.core.transport.execution.buffer.PageCompressionCodec.NONE;
+import static io.hetu.core.transport.execution.buffer.PageCompressionCodec.ZSTD;
 import static java.util.Objects.requireNonNull;
 
 public class PagesSerdeFactory
 {
     private final BlockEncodingSerde blockEncodingSerde;
-    private final boolean compressionEnabled;
+    private final PageCompressionPolicy compressionPolicy;
+    private final boolean pooledBuffersEnabled;
 
     public PagesSerdeFactory(BlockEncodingSerde blockEncodingSerde, boolean compressionEnabled)
+    {
+        this(blockEncodingSerde, compressionEnabled, false);
+    }
+
+    public PagesSerdeFactory(BlockEncodingSerde blockEncodingSerde, boolean compressionEnabled, boolean pooledBuffersEnabled)
+    {
+        this(blockEncodingSerde, new FixedPageCompressionPolicy(compressionEnabled ? ZSTD : NONE, Optional.empty()), pooledBuffersEnabled);
+    }
+
+    /**
+     * @param compressionPolicy shared by all serdes created by this factory
+     */
+    public PagesSerdeFactory(BlockEncodingSerde blockEncodingSerde, PageCompressionPolicy compressionPolicy, boolean pooledBuffersEnabled)
     {
         this.blockEncodingSerde = requireNonNull(blockEncodingSerde, "blockEncodingSerde is null");
-        this.compressionEnabled = compressionEnabled;
+        this.compressionPolicy = requireNonNull(compressionPolicy, "compressionPolicy is null");
+        this.pooledBuffersEnabled = pooledBuffersEnabled;
     }
 
     public PagesSerde createPagesSerde()
@@ -45,18 +60,16 @@ public class PagesSerdeFactory
 
     private PagesSerde createPagesSerdeInternal(Optional<SpillCipher> spillCipher, boolean useDirectSerde, boolean useKryo)
     {
+        // direct serdes write pages to streams without a codec marker, so only pages serialized
+        // through serialize(Page) are compressed with the configured policy
         if (useDirectSerde) {
             if (useKryo) {
-                return new KryoPageSerializer(blockEncodingSerde);
+                return new KryoPageSerializer(blockEncodingSerde, compressionPolicy, pooledBuffersEnabled);
             }
 
-            return new SliceStreamPageSerde(blockEncodingSerde, Optional.empty(), Optional.empty(), spillCipher);
-        }
-
-        if (compressionEnabled) {
-            return new PagesSerde(blockEncodingSerde, Optional.of(new ZstdCompressor()), Optional.of(new ZstdDecompressor()), spillCipher);
+            return new SliceStreamPageSerde(blockEncodingSerde, compressionPolicy, spillCipher, pooledBuffersEnabled);
         }
 
-        return new PagesSerde(blockEncodingSerde, Optional.empty(), Optional.empty(), spillCipher);
+        return new PagesSerde(blockEncodingSerde, compressionPolicy, spillCipher, pooledBuffersEnabled);
     }
 }
@@ -45,6 +45,12 @@ public class SliceStreamPageSerde
         this.serde = blockEncodingSerde;
     }
 
+    public SliceStreamPageSerde(BlockEncodingSerde blockEncodingSerde, PageCompressionPolicy compressionPolicy, Optional<SpillCipher> spillCipher, boolean pooledBuffersEnabled)
+    {
+        super(blockEncodingSerde, compressionPolicy, spillCipher, pooledBuffersEnabled);
+        this.serde = blockEncodingSerde;
+    }
+
     @Override
     public void serialize(OutputStream output, Page page)
     {
@@ -14,10 +14,14 @@
 package io.prestosql.array;
 
 import io.airlift.slice.SizeOf;
+import io.prestosql.spi.snapshot.BinarySnapshotState;
 import io.prestosql.spi.snapshot.BlockEncodingSerdeProvider;
 import io.prestosql.spi.snapshot.Restorable;
+import io.prestosql.spi.snapshot.SnapshotStateInput;
+import io.prestosql.spi.snapshot.SnapshotStateOutput;
 import org.openjdk.jol.info.ClassLayout;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.Arrays;
 
@@ -190,11 +194,29 @@ public final class IntBigArray
         this.segments = myState.segments;
     }
 
-    private static class IntBigArrayState
-            implements Serializable
+    public static class IntBigArrayState
+            implements Serializable, BinarySnapshotState
     {
         private int[][] array;
         private int capacity;
         private int segments;
+
+        @Override
+        public void writeState(SnapshotStateOutput output)
+                throws IOException
+        {
+            output.writeObject(array);
+            output.writeInt(capacity);
+            output.writeInt(segments);
+        }
+
+        @Override
+        public void readState(SnapshotStateInput input)
+                throws IOException, ClassNotFoundException
+        {
+            array = (int[][]) input.readObject();
+            capacity = input.readInt();
+            segments = input.readInt();
+        }
     }
 }
@@ -14,10 +14,14 @@
 package io.prestosql.array;
 
 import io.airlift.slice.SizeOf;
+import io.prestosql.spi.snapshot.BinarySnapshotState;
 import io.prestosql.spi.snapshot.BlockEncodingSerdeProvider;
 import io.prestosql.spi.snapshot.Restorable;
+import io.prestosql.spi.snapshot.SnapshotStateInput;
+import io.prestosql.spi.snapshot.SnapshotStateOutput;
 import org.openjdk.jol.info.ClassLayout;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.Arrays;
 
@@ -182,11 +186,29 @@ public final class LongBigArray
         this.segments = myState.segments;
     }
 
-    private static class LongBigArrayState
-            implements Serializable
+    public static class LongBigArrayState
+            implements Serializable, BinarySnapshotState
     {
         private long[][] array;
         private int capacity;
         private int segments;
+
+        @Override
+        public void writeState(SnapshotStateOutput output)
+                throws IOException
+        {
+            output.writeObject(array);
+            output.writeInt(capacity);
+            output.writeInt(segments);
+        }
+
+        @Override
+        public void readState(SnapshotStateInput input)
+                throws IOException, ClassNotFoundException
+        {
+            array = (long[][]) input.readObject();
+            capacity = input.readInt();
+            segments = input.readInt();
+        }
     }
 }
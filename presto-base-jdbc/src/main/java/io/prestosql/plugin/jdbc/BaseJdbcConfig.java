@@ -79,6 +79,8 @@ public class BaseJdbcConfig
     private Duration stepCalcRefreshInterval = new Duration(5, TimeUnit.MINUTES);
     private int stepCalcThreads = 4;
 
+    private boolean asyncFetchEnabled;
+
     public Optional<CatalogSchemaName> getConnectorRegistryFunctionNamespace()
     {
         return parserExternalFunctionCatalogSchema(connectorRegistryFunctionNamespace);
@@ -538,4 +540,17 @@ public class BaseJdbcConfig
     {
         return stepCalcThreads;
     }
+
+    public boolean isAsyncFetchEnabled()
+    {
+        return asyncFetchEnabled;
+    }
+
+    @Config("jdbc.async-fetch-enabled")
+    @ConfigDescription("Fetch rows from the remote database on a separate thread pool, so worker threads do not block on the JDBC driver")
+    public BaseJdbcConfig setAsyncFetchEnabled(boolean asyncFetchEnabled)
+    {
+        this.asyncFetchEnabled = asyncFetchEnabled;
+        return this;
+    }
 }
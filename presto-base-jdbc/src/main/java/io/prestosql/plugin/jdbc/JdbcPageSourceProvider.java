@@ -14,6 +14,7 @@
  */
 package io.prestosql.plugin.jdbc;
 
+import io.prestosql.spi.connector.AsyncRecordPageSource;
 import io.prestosql.spi.connector.ColumnHandle;
 import io.prestosql.spi.connector.ConnectorPageSource;
 import io.prestosql.spi.connector.ConnectorPageSourceProvider;
@@ -24,11 +25,16 @@ import io.prestosql.spi.connector.ConnectorTransactionHandle;
 import io.prestosql.spi.connector.RecordPageSource;
 import io.prestosql.spi.connector.RecordSet;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
 
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newCachedThreadPool;
 
 public class JdbcPageSourceProvider
         implements ConnectorPageSourceProvider
@@ -36,6 +42,8 @@ public class JdbcPageSourceProvider
     private JdbcRecordSetProvider recordSetProvider;
     private final JdbcClient jdbcClient;
     private final BaseJdbcConfig config;
+    // fetches are mostly waiting on the remote database, so the pool is unbounded
+    private final Optional<ExecutorService> fetchExecutor;
 
     @Inject
     public JdbcPageSourceProvider(@InternalBaseJdbc JdbcClient jdbcClient, BaseJdbcConfig config, JdbcRecordSetProvider recordSetProvider)
@@ -43,6 +51,13 @@ public class JdbcPageSourceProvider
         this.jdbcClient = requireNonNull(jdbcClient, "jdbcClient is null");
         this.config = requireNonNull(config, "config is null");
         this.recordSetProvider = requireNonNull(recordSetProvider, "recordSetProvider is null");
+        this.fetchExecutor = config.isAsyncFetchEnabled() ? Optional.of(newCachedThreadPool(daemonThreadsNamed("jdbc-fetch-%s"))) : Optional.empty();
+    }
+
+    @PreDestroy
+    public void destroy()
+    {
+        fetchExecutor.ifPresent(ExecutorService::shutdownNow);
     }
 
     @Override
@@ -53,6 +68,9 @@ public class JdbcPageSourceProvider
         if (jdbcTableHandle.getDeleteOrUpdate()) {
             return new JdbcUpdatablePageSource(recordSet, session, table, jdbcClient, config, (JdbcSplit) split);
         }
+        else if (fetchExecutor.isPresent()) {
+            return new AsyncRecordPageSource(new RecordPageSource(recordSet), fetchExecutor.get());
+        }
         else {
             return new RecordPageSource(recordSet);
         }
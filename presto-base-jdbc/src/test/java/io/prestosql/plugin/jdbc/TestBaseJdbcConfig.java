@@ -65,7 +65,8 @@ public class TestBaseJdbcConfig
                 .setTableSplitEnable(false)
                 .setTableSplitFields(null)
                 .setTableSplitStepCalcRefreshInterval(new Duration(5, MINUTES))
-                .setTableSplitStepCalcCalcThreads(4));
+                .setTableSplitStepCalcCalcThreads(4)
+                .setAsyncFetchEnabled(false));
     }
 
     @Test
@@ -105,6 +106,7 @@ public class TestBaseJdbcConfig
                 .put("jdbc.table-split-fields", "test_field")
                 .put("jdbc.table-split-stepCalc-refresh-interval", "20s")
                 .put("jdbc.table-split-stepCalc-threads", "2")
+                .put("jdbc.async-fetch-enabled", "true")
                 .build();
 
         BaseJdbcConfig expected = new BaseJdbcConfig()
@@ -140,7 +142,8 @@ public class TestBaseJdbcConfig
                 .setTableSplitEnable(true)
                 .setTableSplitFields("test_field")
                 .setTableSplitStepCalcRefreshInterval(new Duration(20, SECONDS))
-                .setTableSplitStepCalcCalcThreads(2);
+                .setTableSplitStepCalcCalcThreads(2)
+                .setAsyncFetchEnabled(true);
 
         ConfigAssertions.assertFullMapping(properties, expected);
     }
@@ -40,6 +40,10 @@ public class SnapshotStats
     private final long allCaptureSize;
     // Size (bytes) of last successful snapshot
     private final long lastCaptureSize;
+    // Size (bytes) of state that incremental captures of all snapshots didn't write again
+    private final long allCaptureSkippedSize;
+    // Size (bytes) of state that incremental captures of last successful snapshot didn't write again
+    private final long lastCaptureSkippedSize;
     // List of snapshots from which restore happened
     private final List<Long> restoredSnapshotList;
     // List of successfully captured snapshots
@@ -66,6 +70,8 @@ public class SnapshotStats
             @JsonProperty("lastCaptureWallTime") long lastCaptureWallTime,
             @JsonProperty("allCaptureSize") long allCaptureSize,
             @JsonProperty("lastCaptureSize") long lastCaptureSize,
+            @JsonProperty("allCaptureSkippedSize") long allCaptureSkippedSize,
+            @JsonProperty("lastCaptureSkippedSize") long lastCaptureSkippedSize,
             @JsonProperty("restoredSnapshotList") List<Long> restoredSnapshotList,
             @JsonProperty("capturedSnapshotList") List<Long> capturedSnapshotList,
             @JsonProperty("successRestoreCount") long successRestoreCount,
@@ -82,6 +88,8 @@ public class SnapshotStats
         this.lastCaptureWallTime = lastCaptureWallTime;
         this.allCaptureSize = allCaptureSize;
         this.lastCaptureSize = lastCaptureSize;
+        this.allCaptureSkippedSize = allCaptureSkippedSize;
+        this.lastCaptureSkippedSize = lastCaptureSkippedSize;
         this.restoredSnapshotList = restoredSnapshotList;
         this.capturedSnapshotList = capturedSnapshotList;
         this.successRestoreCount = successRestoreCount;
@@ -134,6 +142,18 @@ public class SnapshotStats
         return lastCaptureSize;
     }
 
+    @JsonProperty
+    public long getAllCaptureSkippedSize()
+    {
+        return allCaptureSkippedSize;
+    }
+
+    @JsonProperty
+    public long getLastCaptureSkippedSize()
+    {
+        return lastCaptureSkippedSize;
+    }
+
     @JsonProperty
     public List<Long> getRestoredSnapshotList()
     {
@@ -193,6 +213,8 @@ public class SnapshotStats
                 .add("lastCaptureWallTime", lastCaptureWallTime)
                 .add("allCaptureSize", allCaptureSize)
                 .add("lastCaptureSize", lastCaptureSize)
+                .add("allCaptureSkippedSize", allCaptureSkippedSize)
+                .add("lastCaptureSkippedSize", lastCaptureSkippedSize)
                 .add("restoredSnapshotList", restoredSnapshotList)
                 .add("capturedSnapshotList", capturedSnapshotList)
                 .add("successRestoreCount", successRestoreCount)
@@ -218,6 +240,8 @@ public class SnapshotStats
         private long lastCaptureWallTime;
         private long allCaptureSize;
         private long lastCaptureSize;
+        private long allCaptureSkippedSize;
+        private long lastCaptureSkippedSize;
         private List<Long> restoredSnapshotList;
         private List<Long> capturedSnapshotList;
         private long successRestoreCount;
@@ -271,6 +295,18 @@ public class SnapshotStats
             return this;
         }
 
+        public Builder setAllSnapshotsSkippedSizeBytes(long allCaptureSkippedSize)
+        {
+            this.allCaptureSkippedSize = allCaptureSkippedSize;
+            return this;
+        }
+
+        public Builder setLastSnapshotSkippedSizeBytes(long lastCaptureSkippedSize)
+        {
+            this.lastCaptureSkippedSize = lastCaptureSkippedSize;
+            return this;
+        }
+
         public Builder setRestoringSnapshotId(long restoringSnapshotId)
         {
             this.restoringSnapshotId = restoringSnapshotId;
@@ -329,6 +365,8 @@ public class SnapshotStats
                     lastCaptureWallTime,
                     allCaptureSize,
                     lastCaptureSize,
+                    allCaptureSkippedSize,
+                    lastCaptureSkippedSize,
                     restoredSnapshotList,
                     capturedSnapshotList,
                     successRestoreCount,
@@ -17,6 +17,9 @@ package io.prestosql.client.block;
 import com.google.common.collect.ImmutableMap;
 import io.airlift.slice.SliceInput;
 import io.airlift.slice.SliceOutput;
+import io.hetu.core.transport.block.PackedDictionaryBlockEncoding;
+import io.hetu.core.transport.block.PackedIntArrayBlockEncoding;
+import io.hetu.core.transport.block.PackedLongArrayBlockEncoding;
 import io.prestosql.spi.block.ArrayBlockEncoding;
 import io.prestosql.spi.block.Block;
 import io.prestosql.spi.block.BlockEncoding;
@@ -63,6 +66,9 @@ public final class ExternalBlockEncodingSerde
                 .put(SingleRowBlockEncoding.NAME, new SingleRowBlockEncoding())
                 .put(RunLengthBlockEncoding.NAME, new RunLengthBlockEncoding())
                 .put(LazyBlockEncoding.NAME, new LazyBlockEncoding())
+                .put(PackedLongArrayBlockEncoding.NAME, new PackedLongArrayBlockEncoding())
+                .put(PackedIntArrayBlockEncoding.NAME, new PackedIntArrayBlockEncoding())
+                .put(PackedDictionaryBlockEncoding.NAME, new PackedDictionaryBlockEncoding())
                 .build();
     }
 
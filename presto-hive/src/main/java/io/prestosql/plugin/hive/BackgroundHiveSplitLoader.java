@@ -29,6 +29,7 @@ import io.prestosql.plugin.hive.HiveVacuumTableHandle.Range;
 import io.prestosql.plugin.hive.metastore.Column;
 import io.prestosql.plugin.hive.metastore.Partition;
 import io.prestosql.plugin.hive.metastore.Table;
+import io.prestosql.plugin.hive.orc.OrcFileDynamicFilterPruner;
 import io.prestosql.plugin.hive.util.ConfigurationUtils;
 import io.prestosql.plugin.hive.util.HiveFileIterator;
 import io.prestosql.plugin.hive.util.HiveFileIterator.NestedDirectoryNotAllowedException;
@@ -53,6 +54,7 @@ import org.apache.hadoop.hive.common.ValidWriteIdList;
 import org.apache.hadoop.hive.ql.io.AcidUtils;
 import org.apache.hadoop.hive.ql.io.SymlinkTextInputFormat;
 import org.apache.hadoop.hive.ql.io.orc.OrcFile;
+import org.apache.hadoop.hive.ql.io.orc.OrcSerde;
 import org.apache.hadoop.hive.ql.io.orc.Reader;
 import org.apache.hadoop.hive.shims.HadoopShims;
 import org.apache.hadoop.mapred.FileInputFormat;
@@ -94,6 +96,7 @@ import java.util.stream.Collectors;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.util.concurrent.Futures.immediateFuture;
+import static io.prestosql.plugin.hive.HiveSessionProperties.isDynamicFilteringFilePruningEnabled;
 import static io.prestosql.plugin.hive.HiveSessionProperties.isDynamicFilteringSplitFilteringEnabled;
 import static io.prestosql.plugin.hive.HiveSessionProperties.isForceLocalScheduling;
 import static io.prestosql.plugin.hive.HiveUtil.checkCondition;
@@ -101,6 +104,7 @@ import static io.prestosql.plugin.hive.HiveUtil.getBucketNumber;
 import static io.prestosql.plugin.hive.HiveUtil.getFooterCount;
 import static io.prestosql.plugin.hive.HiveUtil.getHeaderCount;
 import static io.prestosql.plugin.hive.HiveUtil.getInputFormat;
+import static io.prestosql.plugin.hive.HiveUtil.isDeserializerClass;
 import static io.prestosql.plugin.hive.HiveUtil.isPartitionFiltered;
 import static io.prestosql.plugin.hive.S3SelectPushdown.shouldEnablePushdownForTable;
 import static io.prestosql.plugin.hive.metastore.MetastoreUtil.getHiveSchema;
@@ -167,6 +171,10 @@ public class BackgroundHiveSplitLoader
 
     private final Map<ColumnHandle, DynamicFilter> cachedDynamicFilters = new ConcurrentHashMap<>();
 
+    // a file can produce several splits, its footer is read once per set of dynamic filters
+    private final Map<String, Boolean> prunedFiles = new ConcurrentHashMap<>();
+    private volatile int prunedFilesDynamicFilterCount;
+
     public BackgroundHiveSplitLoader(
             Table table,
             Iterable<HivePartitionMetadata> partitions,
@@ -337,7 +345,12 @@ public class BackgroundHiveSplitLoader
         }
 
         while (splits.hasNext() && !stopped) {
-            ListenableFuture<?> future = hiveSplitSource.addToQueue(splits.next());
+            InternalHiveSplit split = splits.next();
+            if (isPrunedByFileStatistics(split)) {
+                hiveSplitSource.recordDynamicFilterPrunedSplit(split.getEnd() - split.getStart());
+                continue;
+            }
+            ListenableFuture<?> future = hiveSplitSource.addToQueue(split);
             if (!future.isDone()) {
                 fileIterators.addFirst(splits);
                 return future;
@@ -348,6 +361,32 @@ public class BackgroundHiveSplitLoader
         return COMPLETED_FUTURE;
     }
 
+    private boolean isPrunedByFileStatistics(InternalHiveSplit split)
+    {
+        if (dynamicFilterSupplier == null || !isDynamicFilteringFilePruningEnabled(session) || !isDeserializerClass(split.getSchema(), OrcSerde.class)) {
+            return false;
+        }
+        List<Set<DynamicFilter>> dynamicFilters = dynamicFilterSupplier.get();
+        if (dynamicFilters == null || dynamicFilters.isEmpty()) {
+            return false;
+        }
+        int dynamicFilterCount = dynamicFilters.stream().mapToInt(Set::size).sum();
+        if (dynamicFilterCount != prunedFilesDynamicFilterCount) {
+            // filters that arrived since may rule out files that were kept so far
+            prunedFiles.clear();
+            prunedFilesDynamicFilterCount = dynamicFilterCount;
+        }
+        // Avoid scheduling splits of a file whose footer statistics show it has no rows matching the dynamic filters
+        return prunedFiles.computeIfAbsent(split.getPath(), path -> OrcFileDynamicFilterPruner.isFilePruned(
+                session,
+                hdfsEnvironment,
+                hdfsContext,
+                new Path(path),
+                split.getFileSize(),
+                split.getLastModifiedTime(),
+                dynamicFilters));
+    }
+
     private ListenableFuture<?> loadPartition(HivePartitionMetadata partition)
             throws IOException
     {
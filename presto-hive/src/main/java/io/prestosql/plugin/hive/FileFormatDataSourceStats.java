@@ -13,6 +13,7 @@
  */
 package io.prestosql.plugin.hive;
 
+import io.airlift.stats.CounterStat;
 import io.airlift.stats.DistributionStat;
 import io.airlift.stats.TimeStat;
 import org.weakref.jmx.Managed;
@@ -29,6 +30,8 @@ public class FileFormatDataSourceStats
     private final TimeStat time100KBto1MB = new TimeStat(MILLISECONDS);
     private final TimeStat time1MBto10MB = new TimeStat(MILLISECONDS);
     private final TimeStat time10MBPlus = new TimeStat(MILLISECONDS);
+    private final CounterStat skippedPages = new CounterStat();
+    private final CounterStat skippedPageBytes = new CounterStat();
 
     @Managed
     @Nested
@@ -72,6 +75,20 @@ public class FileFormatDataSourceStats
         return time10MBPlus;
     }
 
+    @Managed
+    @Nested
+    public CounterStat getSkippedPages()
+    {
+        return skippedPages;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getSkippedPageBytes()
+    {
+        return skippedPageBytes;
+    }
+
     public void readDataBytesPerSecond(long bytes, long nanos)
     {
         readBytes.add(bytes);
@@ -93,4 +110,10 @@ public class FileFormatDataSourceStats
     {
         maxCombinedBytesPerRow.add(bytes);
     }
+
+    public void addSkippedPages(long pages, long bytes)
+    {
+        skippedPages.update(pages);
+        skippedPageBytes.update(bytes);
+    }
 }
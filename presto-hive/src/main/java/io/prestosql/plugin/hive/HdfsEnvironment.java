@@ -16,18 +16,23 @@ package io.prestosql.plugin.hive;
 import io.prestosql.hadoop.HadoopNative;
 import io.prestosql.plugin.hive.authentication.GenericExceptionAction;
 import io.prestosql.plugin.hive.authentication.HdfsAuthentication;
+import io.prestosql.plugin.hive.filecache.LocalFileCache;
+import io.prestosql.plugin.hive.filecache.LocalFileCacheStats;
 import io.prestosql.spi.connector.ConnectorSession;
 import io.prestosql.spi.security.ConnectorIdentity;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 
 import javax.inject.Inject;
 
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.Optional;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
 import static java.util.Objects.requireNonNull;
 
 public class HdfsEnvironment
@@ -39,16 +44,38 @@ public class HdfsEnvironment
     private final HdfsConfiguration hdfsConfiguration;
     private final HdfsAuthentication hdfsAuthentication;
     private final boolean verifyChecksum;
+    private final LocalFileCacheStats localFileCacheStats = new LocalFileCacheStats();
+    private final Optional<LocalFileCache> localFileCache;
 
-    @Inject
     public HdfsEnvironment(
             HdfsConfiguration hdfsConfiguration,
             HiveConfig config,
             HdfsAuthentication hdfsAuthentication)
+    {
+        this(hdfsConfiguration, config, hdfsAuthentication, new HiveCatalogName("hive"));
+    }
+
+    @Inject
+    public HdfsEnvironment(
+            HdfsConfiguration hdfsConfiguration,
+            HiveConfig config,
+            HdfsAuthentication hdfsAuthentication,
+            HiveCatalogName catalogName)
     {
         this.hdfsConfiguration = requireNonNull(hdfsConfiguration, "hdfsConfiguration is null");
         this.verifyChecksum = requireNonNull(config, "config is null").isVerifyChecksum();
         this.hdfsAuthentication = requireNonNull(hdfsAuthentication, "hdfsAuthentication is null");
+        if (config.isLocalFileCacheEnabled()) {
+            checkArgument(config.getLocalFileCacheDirectory() != null, "hive.local-file-cache.directory must be set when the local file cache is enabled");
+            this.localFileCache = Optional.of(new LocalFileCache(
+                    Paths.get(config.getLocalFileCacheDirectory()).resolve(catalogName.toString()),
+                    config.getLocalFileCacheMaxSize(),
+                    config.getLocalFileCachePageSize(),
+                    localFileCacheStats));
+        }
+        else {
+            this.localFileCache = Optional.empty();
+        }
     }
 
     public Configuration getConfiguration(HdfsContext context, Path path)
@@ -72,6 +99,23 @@ public class HdfsEnvironment
         });
     }
 
+    public LocalFileCacheStats getLocalFileCacheStats()
+    {
+        return localFileCacheStats;
+    }
+
+    /**
+     * Returns the input stream of a file read by a query, served from the local file cache of the
+     * worker if the cache is enabled.
+     */
+    public FSDataInputStream wrapWithLocalFileCache(FSDataInputStream inputStream, Path path, long fileSize, long lastModifiedTime, String queryId)
+    {
+        if (!localFileCache.isPresent()) {
+            return inputStream;
+        }
+        return localFileCache.get().wrap(inputStream, path, fileSize, lastModifiedTime, queryId);
+    }
+
     public <R, E extends Exception> R doAs(String user, GenericExceptionAction<R, E> action)
             throws E
     {
@@ -125,6 +125,19 @@ public class HiveConfig
     private boolean useParquetColumnNames;
     private boolean failOnCorruptedParquetStatistics = true;
     private DataSize parquetMaxReadBlockSize = new DataSize(16, MEGABYTE);
+    private boolean parquetSelectiveReaderEnabled;
+    private boolean parquetUseColumnIndex = true;
+    private boolean parquetUseBloomFilter = true;
+    private DataSize parquetMaxMergeDistance = new DataSize(1, MEGABYTE);
+    private DataSize parquetMaxBufferSize = new DataSize(8, MEGABYTE);
+
+    private boolean vectoredReadEnabled;
+    private int vectoredReadThreads = 32;
+
+    private boolean localFileCacheEnabled;
+    private String localFileCacheDirectory;
+    private DataSize localFileCacheMaxSize = new DataSize(10, GIGABYTE);
+    private DataSize localFileCachePageSize = new DataSize(1, MEGABYTE);
 
     private boolean assumeCanonicalPartitionKeys;
 
@@ -156,6 +169,8 @@ public class HiveConfig
     private boolean orcRowDataCacheEnabled;
     private Duration orcRowDataCacheTtl = new Duration(4, HOURS);
     private DataSize orcRowDataCacheMaximumWeight = new DataSize(20, GIGABYTE);
+    private boolean orcOffHeapCacheEnabled;
+    private DataSize orcOffHeapStripeFooterCacheMaximumSize = new DataSize(256, MEGABYTE);
 
     private String rcfileTimeZone = TimeZone.getDefault().getID();
     private boolean rcfileWriterValidate;
@@ -201,6 +216,7 @@ public class HiveConfig
     private boolean tableCreatesWithLocationAllowed = true;
 
     private boolean dynamicFilterPartitionFilteringEnabled = true;
+    private boolean dynamicFilterFilePruningEnabled;
     private int dynamicFilteringRowFilteringThreshold = 2000;
 
     private boolean orcCacheStatsMetricCollectionEnabled;
@@ -1116,6 +1132,157 @@ public class HiveConfig
         return this;
     }
 
+    public boolean isParquetSelectiveReaderEnabled()
+    {
+        return parquetSelectiveReaderEnabled;
+    }
+
+    @Config("hive.parquet.selective-reader-enabled")
+    @ConfigDescription("Evaluate simple predicates on Parquet columns while decoding and only decode the remaining columns for matching rows")
+    public HiveConfig setParquetSelectiveReaderEnabled(boolean parquetSelectiveReaderEnabled)
+    {
+        this.parquetSelectiveReaderEnabled = parquetSelectiveReaderEnabled;
+        return this;
+    }
+
+    public boolean isParquetUseColumnIndex()
+    {
+        return parquetUseColumnIndex;
+    }
+
+    @Config("hive.parquet.use-column-index")
+    @ConfigDescription("Use the Parquet column and offset indexes to skip pages that cannot match the predicate")
+    public HiveConfig setParquetUseColumnIndex(boolean parquetUseColumnIndex)
+    {
+        this.parquetUseColumnIndex = parquetUseColumnIndex;
+        return this;
+    }
+
+    public boolean isParquetUseBloomFilter()
+    {
+        return parquetUseBloomFilter;
+    }
+
+    @Config("hive.parquet.use-bloom-filter")
+    @ConfigDescription("Use Parquet bloom filters to skip row groups that cannot match equality and IN predicates")
+    public HiveConfig setParquetUseBloomFilter(boolean parquetUseBloomFilter)
+    {
+        this.parquetUseBloomFilter = parquetUseBloomFilter;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getParquetMaxMergeDistance()
+    {
+        return parquetMaxMergeDistance;
+    }
+
+    @Config("hive.parquet.max-merge-distance")
+    @ConfigDescription("Maximum gap between Parquet column chunks that are fetched in one vectored read")
+    public HiveConfig setParquetMaxMergeDistance(DataSize parquetMaxMergeDistance)
+    {
+        this.parquetMaxMergeDistance = parquetMaxMergeDistance;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getParquetMaxBufferSize()
+    {
+        return parquetMaxBufferSize;
+    }
+
+    @Config("hive.parquet.max-buffer-size")
+    @ConfigDescription("Maximum size of a vectored read that merges several Parquet column chunks")
+    public HiveConfig setParquetMaxBufferSize(DataSize parquetMaxBufferSize)
+    {
+        this.parquetMaxBufferSize = parquetMaxBufferSize;
+        return this;
+    }
+
+    public boolean isVectoredReadEnabled()
+    {
+        return vectoredReadEnabled;
+    }
+
+    @Config("hive.vectored-read.enabled")
+    @ConfigDescription("Fetch the merged ORC stream and Parquet column chunk ranges concurrently and ahead of decoding")
+    public HiveConfig setVectoredReadEnabled(boolean vectoredReadEnabled)
+    {
+        this.vectoredReadEnabled = vectoredReadEnabled;
+        return this;
+    }
+
+    @Min(1)
+    public int getVectoredReadThreads()
+    {
+        return vectoredReadThreads;
+    }
+
+    @Config("hive.vectored-read.threads")
+    @ConfigDescription("Maximum number of vectored reads in flight on a worker")
+    public HiveConfig setVectoredReadThreads(int vectoredReadThreads)
+    {
+        this.vectoredReadThreads = vectoredReadThreads;
+        return this;
+    }
+
+    public boolean isLocalFileCacheEnabled()
+    {
+        return localFileCacheEnabled;
+    }
+
+    @Config("hive.local-file-cache.enabled")
+    @ConfigDescription("Cache the pages of ORC, Parquet and RCFile files read from remote storage on the local disk of the worker")
+    public HiveConfig setLocalFileCacheEnabled(boolean localFileCacheEnabled)
+    {
+        this.localFileCacheEnabled = localFileCacheEnabled;
+        return this;
+    }
+
+    @Nullable
+    public String getLocalFileCacheDirectory()
+    {
+        return localFileCacheDirectory;
+    }
+
+    @Config("hive.local-file-cache.directory")
+    @ConfigDescription("Local directory of the worker file cache. Each catalog uses a subdirectory named after the catalog")
+    public HiveConfig setLocalFileCacheDirectory(String localFileCacheDirectory)
+    {
+        this.localFileCacheDirectory = localFileCacheDirectory;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getLocalFileCacheMaxSize()
+    {
+        return localFileCacheMaxSize;
+    }
+
+    @Config("hive.local-file-cache.max-size")
+    @ConfigDescription("Maximum disk space used by the worker file cache")
+    public HiveConfig setLocalFileCacheMaxSize(DataSize localFileCacheMaxSize)
+    {
+        this.localFileCacheMaxSize = localFileCacheMaxSize;
+        return this;
+    }
+
+    @NotNull
+    @MinDataSize("4kB")
+    @MaxDataSize("64MB")
+    public DataSize getLocalFileCachePageSize()
+    {
+        return localFileCachePageSize;
+    }
+
+    @Config("hive.local-file-cache.page-size")
+    @ConfigDescription("Size of the aligned file pages stored in the worker file cache")
+    public HiveConfig setLocalFileCachePageSize(DataSize localFileCachePageSize)
+    {
+        this.localFileCachePageSize = localFileCachePageSize;
+        return this;
+    }
+
     public boolean isOptimizeMismatchedBucketCount()
     {
         return optimizeMismatchedBucketCount;
@@ -1681,6 +1848,33 @@ public class HiveConfig
         return this;
     }
 
+    public boolean isOrcOffHeapCacheEnabled()
+    {
+        return orcOffHeapCacheEnabled;
+    }
+
+    @Config("hive.orc.off-heap-cache.enabled")
+    @ConfigDescription("Keep Orc stripe footer and row data caches serialized in direct memory instead of on heap")
+    public HiveConfig setOrcOffHeapCacheEnabled(boolean orcOffHeapCacheEnabled)
+    {
+        this.orcOffHeapCacheEnabled = orcOffHeapCacheEnabled;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getOrcOffHeapStripeFooterCacheMaximumSize()
+    {
+        return orcOffHeapStripeFooterCacheMaximumSize;
+    }
+
+    @Config("hive.orc.off-heap-cache.stripe-footer.max-size")
+    @ConfigDescription("Maximum size of the off-heap Orc stripe footer cache")
+    public HiveConfig setOrcOffHeapStripeFooterCacheMaximumSize(DataSize orcOffHeapStripeFooterCacheMaximumSize)
+    {
+        this.orcOffHeapStripeFooterCacheMaximumSize = orcOffHeapStripeFooterCacheMaximumSize;
+        return this;
+    }
+
     @Config("hive.transaction-heartbeat-interval")
     @ConfigDescription("Interval after which heartbeat is sent for open Hive transaction")
     public HiveConfig setHiveTransactionHeartbeatInterval(Duration interval)
@@ -1747,6 +1941,19 @@ public class HiveConfig
         return dynamicFilterPartitionFilteringEnabled;
     }
 
+    @Config("hive.dynamic-filter-file-pruning")
+    @ConfigDescription("Filter out ORC files early based on footer statistics using dynamic filter")
+    public HiveConfig setDynamicFilterFilePruningEnabled(boolean dynamicFilterFilePruningEnabled)
+    {
+        this.dynamicFilterFilePruningEnabled = dynamicFilterFilePruningEnabled;
+        return this;
+    }
+
+    public boolean isDynamicFilterFilePruningEnabled()
+    {
+        return dynamicFilterFilePruningEnabled;
+    }
+
     @Config("hive.dynamic-filtering-row-filtering-threshold")
     @ConfigDescription("Filter out hive rows early if the dynamic filter size is below the threshold")
     public HiveConfig setDynamicFilteringRowFilteringThreshold(int dynamicFilteringRowFilteringThreshold)
@@ -28,12 +28,15 @@ import io.prestosql.orc.OrcCacheStore;
 import io.prestosql.orc.RowDataCacheStatsLister;
 import io.prestosql.orc.RowIndexCacheStatsLister;
 import io.prestosql.orc.StripeFooterCacheStatsLister;
+import io.prestosql.orc.VectoredReader;
+import io.prestosql.plugin.hive.filecache.LocalFileCacheStats;
 import io.prestosql.plugin.hive.metastore.SemiTransactionalHiveMetastore;
 import io.prestosql.plugin.hive.orc.OrcPageSourceFactory;
 import io.prestosql.plugin.hive.orc.OrcSelectivePageSourceFactory;
 import io.prestosql.plugin.hive.parquet.ParquetPageSourceFactory;
 import io.prestosql.plugin.hive.rcfile.RcFilePageSourceFactory;
 import io.prestosql.plugin.hive.s3.PrestoS3ClientFactory;
+import io.prestosql.plugin.hive.util.HiveBlockEncodingSerde;
 import io.prestosql.plugin.hive.util.IndexCache;
 import io.prestosql.plugin.hive.util.IndexCacheLoader;
 import io.prestosql.spi.connector.ConnectorNodePartitioningProvider;
@@ -109,6 +112,7 @@ public class HiveModule
 
         binder.bind(FileFormatDataSourceStats.class).in(Scopes.SINGLETON);
         newExporter(binder).export(FileFormatDataSourceStats.class).withGeneratedName();
+        newExporter(binder).export(LocalFileCacheStats.class).withGeneratedName();
 
         Multibinder<HivePageSourceFactory> pageSourceFactoryBinder = newSetBinder(binder, HivePageSourceFactory.class);
         pageSourceFactoryBinder.addBinding().to(OrcPageSourceFactory.class).in(Scopes.SINGLETON);
@@ -200,6 +204,22 @@ public class HiveModule
                 (int) Math.max(hiveConfig.getMaxMetastoreRefreshThreads() * 0.1, 1));
     }
 
+    @Singleton
+    @Provides
+    public VectoredReader createVectoredReader(HiveCatalogName catalogName, HiveConfig hiveConfig)
+    {
+        return new VectoredReader(new BoundedExecutor(
+                newCachedThreadPool(daemonThreadsNamed("hive-vectored-read-" + catalogName + "-%s")),
+                hiveConfig.getVectoredReadThreads()));
+    }
+
+    @Singleton
+    @Provides
+    public LocalFileCacheStats createLocalFileCacheStats(HdfsEnvironment hdfsEnvironment)
+    {
+        return hdfsEnvironment.getLocalFileCacheStats();
+    }
+
     @Singleton
     @Provides
     public Function<HiveTransactionHandle, SemiTransactionalHiveMetastore> createMetastoreGetter(HiveTransactionManager transactionManager)
@@ -211,6 +231,18 @@ public class HiveModule
     @Singleton
     public static OrcCacheStore getCacheStore(HiveConfig config)
     {
+        if (config.isOrcOffHeapCacheEnabled()) {
+            return OrcCacheStore.builder().newOffHeapCacheStore(
+                    config.getOrcFileTailCacheLimit(), Duration.ofMillis(config.getOrcFileTailCacheTtl().toMillis()),
+                    config.getOrcOffHeapStripeFooterCacheMaximumSize(),
+                    Duration.ofMillis(config.getOrcStripeFooterCacheTtl().toMillis()),
+                    config.getOrcRowIndexCacheLimit(), Duration.ofMillis(config.getOrcRowIndexCacheTtl().toMillis()),
+                    config.getOrcBloomFiltersCacheLimit(),
+                    Duration.ofMillis(config.getOrcBloomFiltersCacheTtl().toMillis()),
+                    config.getOrcRowDataCacheMaximumWeight(), Duration.ofMillis(config.getOrcRowDataCacheTtl().toMillis()),
+                    new HiveBlockEncodingSerde(),
+                    config.isOrcCacheStatsMetricCollectionEnabled());
+        }
         return OrcCacheStore.builder().newCacheStore(
                 config.getOrcFileTailCacheLimit(), Duration.ofMillis(config.getOrcFileTailCacheTtl().toMillis()),
                 config.getOrcStripeFooterCacheLimit(),
@@ -36,7 +36,6 @@ import io.prestosql.spi.dynamicfilter.DynamicFilter;
 import io.prestosql.spi.dynamicfilter.DynamicFilterSupplier;
 import io.prestosql.spi.type.Type;
 import io.prestosql.spi.type.TypeManager;
-import io.prestosql.spi.type.TypeUtils;
 import it.unimi.dsi.fastutil.ints.IntArrayList;
 import org.apache.hadoop.hive.serde2.typeinfo.TypeInfo;
 
@@ -351,8 +350,18 @@ public class HivePageSource
                     block.filter(((BloomFilterDynamicFilter) dynamicFilters.get(j).get(columnHandle)).getBloomFilterDeserialized(), filterResult);
                 }
                 else {
+                    // only test the positions which passed the previous columns, in one batch
+                    int[] positions = new int[block.getPositionCount()];
+                    int positionCount = 0;
                     for (int i = 0; i < block.getPositionCount(); i++) {
-                        filterResult[i] = filterResult[i] && dynamicFilter.contains(TypeUtils.readNativeValue(types[columnIndex], block, i));
+                        if (filterResult[i]) {
+                            positions[positionCount++] = i;
+                        }
+                    }
+                    int matchCount = dynamicFilter.filter(types[columnIndex], block, positions, positionCount, positions);
+                    Arrays.fill(filterResult, false);
+                    for (int i = 0; i < matchCount; i++) {
+                        filterResult[positions[i]] = true;
                     }
                 }
             }
@@ -70,6 +70,10 @@ public final class HiveSessionProperties
     private static final String PARQUET_USE_COLUMN_NAME = "parquet_use_column_names";
     private static final String PARQUET_FAIL_WITH_CORRUPTED_STATISTICS = "parquet_fail_with_corrupted_statistics";
     private static final String PARQUET_MAX_READ_BLOCK_SIZE = "parquet_max_read_block_size";
+    private static final String PARQUET_SELECTIVE_READER_ENABLED = "parquet_selective_reader_enabled";
+    private static final String PARQUET_USE_COLUMN_INDEX = "parquet_use_column_index";
+    private static final String PARQUET_USE_BLOOM_FILTER = "parquet_use_bloom_filter";
+    private static final String VECTORED_READ_ENABLED = "vectored_read_enabled";
     private static final String PARQUET_WRITER_BLOCK_SIZE = "parquet_writer_block_size";
     private static final String PARQUET_WRITER_PAGE_SIZE = "parquet_writer_page_size";
     private static final String MAX_SPLIT_SIZE = "max_split_size";
@@ -85,6 +89,7 @@ public final class HiveSessionProperties
     private static final String TEMPORARY_STAGING_DIRECTORY_ENABLED = "temporary_staging_directory_enabled";
     private static final String TEMPORARY_STAGING_DIRECTORY_PATH = "temporary_staging_directory_path";
     private static final String DYNAMIC_FILTERING_SPLIT_FILTERING = "dynamic_filtering_partition_filtering";
+    private static final String DYNAMIC_FILTERING_FILE_PRUNING = "dynamic_filtering_file_pruning";
     private static final String DYNAMIC_FILTERING_ROW_FILTERING_THRESHOLD = "dynamic_filtering_filter_rows_threshold";
     private static final String ORC_PREDICATE_PUSHDOWN = "orc_predicate_pushdown_enabled";
     private static final String ORC_DISJUCT_PREDICATE_PUSHDOWN = "orc_disjunct_predicate_pushdown_enabled";
@@ -294,6 +299,26 @@ public final class HiveSessionProperties
                         "Parquet: Maximum size of a block to read",
                         hiveConfig.getParquetMaxReadBlockSize(),
                         false),
+                booleanProperty(
+                        PARQUET_SELECTIVE_READER_ENABLED,
+                        "Experimental: Parquet: Evaluate predicates while decoding and skip decoding non-matching rows",
+                        hiveConfig.isParquetSelectiveReaderEnabled(),
+                        false),
+                booleanProperty(
+                        PARQUET_USE_COLUMN_INDEX,
+                        "Parquet: Use column and offset indexes to skip pages that cannot match the predicate",
+                        hiveConfig.isParquetUseColumnIndex(),
+                        false),
+                booleanProperty(
+                        PARQUET_USE_BLOOM_FILTER,
+                        "Parquet: Use bloom filters to skip row groups that cannot match equality and IN predicates",
+                        hiveConfig.isParquetUseBloomFilter(),
+                        false),
+                booleanProperty(
+                        VECTORED_READ_ENABLED,
+                        "Fetch the merged ORC stream and Parquet column chunk ranges concurrently and ahead of decoding",
+                        hiveConfig.isVectoredReadEnabled(),
+                        false),
                 dataSizeProperty(
                         PARQUET_WRITER_BLOCK_SIZE,
                         "Parquet: Writer block size",
@@ -379,6 +404,11 @@ public final class HiveSessionProperties
                         "Filter out hive splits early based on partition value using dynamic filter",
                         hiveConfig.isDynamicFilterPartitionFilteringEnabled(),
                         false),
+                booleanProperty(
+                        DYNAMIC_FILTERING_FILE_PRUNING,
+                        "Filter out ORC files early based on footer statistics using dynamic filter",
+                        hiveConfig.isDynamicFilterFilePruningEnabled(),
+                        false),
                 booleanProperty(
                         ORC_PREDICATE_PUSHDOWN,
                         "Experimental: Consume deterministic predicates(conjucts: AND) for ORC scan.",
@@ -569,6 +599,26 @@ public final class HiveSessionProperties
         return session.getProperty(PARQUET_MAX_READ_BLOCK_SIZE, DataSize.class);
     }
 
+    public static boolean isParquetSelectiveReaderEnabled(ConnectorSession session)
+    {
+        return session.getProperty(PARQUET_SELECTIVE_READER_ENABLED, Boolean.class);
+    }
+
+    public static boolean isParquetUseColumnIndex(ConnectorSession session)
+    {
+        return session.getProperty(PARQUET_USE_COLUMN_INDEX, Boolean.class);
+    }
+
+    public static boolean isParquetUseBloomFilter(ConnectorSession session)
+    {
+        return session.getProperty(PARQUET_USE_BLOOM_FILTER, Boolean.class);
+    }
+
+    public static boolean isVectoredReadEnabled(ConnectorSession session)
+    {
+        return session.getProperty(VECTORED_READ_ENABLED, Boolean.class);
+    }
+
     public static DataSize getParquetWriterBlockSize(ConnectorSession session)
     {
         return session.getProperty(PARQUET_WRITER_BLOCK_SIZE, DataSize.class);
@@ -648,6 +698,11 @@ public final class HiveSessionProperties
         return session.getProperty(DYNAMIC_FILTERING_SPLIT_FILTERING, Boolean.class);
     }
 
+    public static boolean isDynamicFilteringFilePruningEnabled(ConnectorSession session)
+    {
+        return session.getProperty(DYNAMIC_FILTERING_FILE_PRUNING, Boolean.class);
+    }
+
     public static boolean isOrcPredicatePushdownEnabled(ConnectorSession session)
     {
         return session.getProperty(ORC_PREDICATE_PUSHDOWN, Boolean.class);
@@ -99,6 +99,8 @@ public class HiveSplitSource
     private final AtomicReference<State> stateReference;
 
     private final AtomicLong estimatedSplitSizeInBytes = new AtomicLong();
+    private final AtomicLong dynamicFilterPrunedSplits = new AtomicLong();
+    private final AtomicLong dynamicFilterPrunedBytes = new AtomicLong();
 
     private final CounterStat highMemorySplitSourceCounter;
     private final AtomicBoolean loggedHighMemoryWarning = new AtomicBoolean();
@@ -450,9 +452,17 @@ public class HiveSplitSource
 
             // Filter out splits if dynamic filter is available
             if (dynamicFilterSupplier != null && isSplitFilteringEnabled) {
-                splits = splits.stream()
-                        .filter(split -> !isPartitionFiltered(HiveSplitWrapper.getOnlyHiveSplit(split).getPartitionKeys(), dynamicFilterSupplier.get(), typeManager))
-                        .collect(Collectors.toList());
+                List<ConnectorSplit> remainingSplits = new ArrayList<>(splits.size());
+                for (ConnectorSplit split : splits) {
+                    HiveSplit hiveSplit = HiveSplitWrapper.getOnlyHiveSplit(split);
+                    if (isPartitionFiltered(hiveSplit.getPartitionKeys(), dynamicFilterSupplier.get(), typeManager)) {
+                        recordDynamicFilterPrunedSplit(hiveSplit.getLength());
+                    }
+                    else {
+                        remainingSplits.add(split);
+                    }
+                }
+                splits = remainingSplits;
             }
 
             if (noMoreSplits) {
@@ -527,6 +537,27 @@ public class HiveSplitSource
         return false;
     }
 
+    /**
+     * Record a split, or a file not turned into splits, that is skipped because dynamic filters rule out all of its rows
+     */
+    void recordDynamicFilterPrunedSplit(long bytes)
+    {
+        dynamicFilterPrunedSplits.incrementAndGet();
+        dynamicFilterPrunedBytes.addAndGet(bytes);
+    }
+
+    @Override
+    public long getDynamicFilterPrunedSplits()
+    {
+        return dynamicFilterPrunedSplits.get();
+    }
+
+    @Override
+    public long getDynamicFilterPrunedBytes()
+    {
+        return dynamicFilterPrunedBytes.get();
+    }
+
     @Override
     public boolean isFinished()
     {
@@ -23,10 +23,12 @@ import io.prestosql.spi.connector.ConnectorSplit;
 import org.openjdk.jol.info.ClassLayout;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.stream.Collectors;
 
 import static com.google.common.collect.Iterables.getOnlyElement;
+import static io.prestosql.plugin.hive.filecache.LocalFileCache.CACHE_AFFINITY_CHUNK_SIZE;
 import static io.prestosql.spi.util.SizeOf.estimatedSizeOf;
 import static io.prestosql.spi.util.SizeOf.sizeOf;
 import static java.util.Objects.requireNonNull;
@@ -77,6 +79,13 @@ public class HiveSplitWrapper
         return splits.stream().findFirst().orElseThrow(IllegalAccessError::new).isCacheable();
     }
 
+    @Override
+    public Optional<String> getCacheAffinityKey()
+    {
+        // splits of a large file starting in different chunks may be cached by different workers
+        return splits.stream().findFirst().map(split -> split.getPath() + "#" + split.getStart() / CACHE_AFFINITY_CHUNK_SIZE);
+    }
+
     @JsonProperty
     public List<HiveSplit> getSplits()
     {
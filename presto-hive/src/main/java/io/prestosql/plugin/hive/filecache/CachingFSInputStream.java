@@ -0,0 +1,172 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive.filecache;
+
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSInputStream;
+
+import java.io.EOFException;
+import java.io.IOException;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Math.min;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Input stream that serves the reads of a remote file from the pages of a {@link LocalFileCache}.
+ * Consecutive pages that are not cached are fetched with one remote read and then stored in the cache.
+ */
+class CachingFSInputStream
+        extends FSInputStream
+{
+    private final FSDataInputStream delegate;
+    private final LocalFileCache cache;
+    private final String fileId;
+    private final long fileSize;
+    private final String queryId;
+    private final int pageSize;
+
+    private long position;
+
+    CachingFSInputStream(FSDataInputStream delegate, LocalFileCache cache, String fileId, long fileSize, String queryId)
+    {
+        this.delegate = requireNonNull(delegate, "delegate is null");
+        this.cache = requireNonNull(cache, "cache is null");
+        this.fileId = requireNonNull(fileId, "fileId is null");
+        checkArgument(fileSize >= 0, "fileSize is negative");
+        this.fileSize = fileSize;
+        this.queryId = requireNonNull(queryId, "queryId is null");
+        this.pageSize = cache.getPageSize();
+    }
+
+    @Override
+    public int read(long position, byte[] buffer, int offset, int length)
+            throws IOException
+    {
+        if (position >= fileSize) {
+            return -1;
+        }
+        int readLength = toIntExact(min(length, fileSize - position));
+        readFully(position, buffer, offset, readLength);
+        return readLength;
+    }
+
+    @Override
+    public void readFully(long position, byte[] buffer, int offset, int length)
+            throws IOException
+    {
+        if (position < 0 || position + length > fileSize) {
+            throw new EOFException("Read of " + length + " bytes at position " + position + " is outside of the file of size " + fileSize);
+        }
+
+        long end = position + length;
+        long cachedBytes = 0;
+        long remoteBytes = 0;
+        while (position < end) {
+            long pageIndex = position / pageSize;
+            long pageStart = pageIndex * pageSize;
+
+            int readLength = toIntExact(min(end, pageStart + pageSize) - position);
+            if (cache.readPage(fileId, pageIndex, toIntExact(position - pageStart), buffer, offset, readLength)) {
+                position += readLength;
+                offset += readLength;
+                cachedBytes += readLength;
+                continue;
+            }
+
+            // fetch the run of pages that are not cached with one remote read
+            long runEndIndex = pageIndex + 1;
+            while (runEndIndex * pageSize < end && !cache.containsPage(fileId, runEndIndex)) {
+                runEndIndex++;
+            }
+            long runEnd = min(runEndIndex * pageSize, fileSize);
+            byte[] data = new byte[toIntExact(runEnd - pageStart)];
+            delegate.readFully(pageStart, data, 0, data.length);
+            for (long index = pageIndex; index < runEndIndex; index++) {
+                int pageOffset = toIntExact((index - pageIndex) * pageSize);
+                cache.writePage(fileId, index, data, pageOffset, min(pageSize, data.length - pageOffset));
+            }
+
+            readLength = toIntExact(min(end, runEnd) - position);
+            System.arraycopy(data, toIntExact(position - pageStart), buffer, offset, readLength);
+            position += readLength;
+            offset += readLength;
+            remoteBytes += readLength;
+        }
+        cache.getStats().addRead(queryId, cachedBytes, remoteBytes);
+    }
+
+    @Override
+    public void readFully(long position, byte[] buffer)
+            throws IOException
+    {
+        readFully(position, buffer, 0, buffer.length);
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length)
+            throws IOException
+    {
+        int readLength = read(position, buffer, offset, length);
+        if (readLength > 0) {
+            position += readLength;
+        }
+        return readLength;
+    }
+
+    @Override
+    public int read()
+            throws IOException
+    {
+        byte[] buffer = new byte[1];
+        int readLength = read(buffer, 0, 1);
+        return readLength <= 0 ? -1 : buffer[0] & 0xFF;
+    }
+
+    @Override
+    public void seek(long position)
+            throws IOException
+    {
+        if (position < 0 || position > fileSize) {
+            throw new EOFException("Seek to position " + position + " is outside of the file of size " + fileSize);
+        }
+        this.position = position;
+    }
+
+    @Override
+    public long getPos()
+    {
+        return position;
+    }
+
+    @Override
+    public boolean seekToNewSource(long targetPosition)
+    {
+        return false;
+    }
+
+    @Override
+    public int available()
+    {
+        return toIntExact(min(Integer.MAX_VALUE, fileSize - position));
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        delegate.close();
+    }
+}
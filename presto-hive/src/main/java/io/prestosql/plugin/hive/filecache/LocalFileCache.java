@@ -0,0 +1,258 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive.filecache;
+
+import com.google.common.collect.ImmutableList;
+import io.airlift.log.Logger;
+import io.airlift.units.DataSize;
+import org.apache.hadoop.fs.FSDataInputStream;
+
+import javax.annotation.concurrent.GuardedBy;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.hash.Hashing.sha256;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.lang.Math.toIntExact;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Worker-local cache of remote file content on disk. Files are cached in pages of a fixed size that
+ * are aligned to the page size, so that reads of different ranges of the same file share the pages.
+ * A page is identified by the path and the modification time of the file and its page index, thus a
+ * rewritten file never hits the pages of the old file. The least recently used pages are evicted
+ * when the cache exceeds its maximum size.
+ */
+public class LocalFileCache
+{
+    private static final Logger log = Logger.get(LocalFileCache.class);
+
+    // page files and the temporary files they are written to, see pageName()
+    /**
+     * Splits starting in the same chunk of a file are scheduled on the same worker when cache affinity
+     * scheduling is enabled. The page size must divide the chunk size, so that chunks start at page boundaries
+     * and no page is cached by two workers for splits of the same chunk.
+     */
+    public static final long CACHE_AFFINITY_CHUNK_SIZE = new DataSize(64, MEGABYTE).toBytes();
+
+    private static final Pattern PAGE_FILE_NAME = Pattern.compile("[0-9a-f]{64}-[0-9]+(\\.[0-9a-f-]{36}\\.tmp)?");
+
+    private final Path directory;
+    private final long maxSizeInBytes;
+    private final int pageSize;
+    private final LocalFileCacheStats stats;
+
+    // page file name to page size, in access order
+    @GuardedBy("this")
+    private final LinkedHashMap<String, Integer> pages = new LinkedHashMap<>(16, 0.75f, true);
+    @GuardedBy("this")
+    private long sizeInBytes;
+
+    public LocalFileCache(Path directory, DataSize maxSize, DataSize pageSize, LocalFileCacheStats stats)
+    {
+        this.directory = requireNonNull(directory, "directory is null");
+        this.maxSizeInBytes = requireNonNull(maxSize, "maxSize is null").toBytes();
+        this.pageSize = toIntExact(requireNonNull(pageSize, "pageSize is null").toBytes());
+        this.stats = requireNonNull(stats, "stats is null");
+        checkArgument(this.pageSize > 0, "pageSize must be positive");
+        checkArgument(CACHE_AFFINITY_CHUNK_SIZE % this.pageSize == 0, "pageSize must divide %s bytes", CACHE_AFFINITY_CHUNK_SIZE);
+
+        // pages of a previous run are not tracked, so they would never be evicted
+        try {
+            Files.createDirectories(directory);
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+                for (Path file : files) {
+                    if (PAGE_FILE_NAME.matcher(file.getFileName().toString()).matches() && Files.isRegularFile(file)) {
+                        Files.delete(file);
+                    }
+                }
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Failed to initialize local file cache directory " + directory, e);
+        }
+    }
+
+    public int getPageSize()
+    {
+        return pageSize;
+    }
+
+    public LocalFileCacheStats getStats()
+    {
+        return stats;
+    }
+
+    public synchronized long getSizeInBytes()
+    {
+        return sizeInBytes;
+    }
+
+    /**
+     * Wraps the input stream of a remote file so that its positioned reads go through the cache.
+     * The stream is returned as is if the modification time of the file is unknown, since its
+     * pages could not be told apart from the pages of a rewritten file.
+     */
+    public FSDataInputStream wrap(FSDataInputStream input, org.apache.hadoop.fs.Path path, long fileSize, long lastModifiedTime, String queryId)
+    {
+        if (lastModifiedTime <= 0) {
+            return input;
+        }
+        String fileId = sha256().hashString(path.toString() + "#" + lastModifiedTime, UTF_8).toString();
+        return new FSDataInputStream(new CachingFSInputStream(input, this, fileId, fileSize, queryId));
+    }
+
+    public synchronized boolean containsPage(String fileId, long pageIndex)
+    {
+        return pages.containsKey(pageName(fileId, pageIndex));
+    }
+
+    /**
+     * Reads length bytes of the page starting at pageOffset into the buffer. Returns false if the
+     * page is not cached.
+     */
+    public boolean readPage(String fileId, long pageIndex, int pageOffset, byte[] buffer, int offset, int length)
+    {
+        String name = pageName(fileId, pageIndex);
+        synchronized (this) {
+            // mark the page as recently used
+            if (pages.get(name) == null) {
+                return false;
+            }
+        }
+        try (FileChannel channel = FileChannel.open(directory.resolve(name), READ)) {
+            ByteBuffer data = ByteBuffer.wrap(buffer, offset, length);
+            while (data.hasRemaining()) {
+                if (channel.read(data, pageOffset + data.position() - offset) < 0) {
+                    log.warn("Page %s of local file cache is shorter than expected", name);
+                    return false;
+                }
+            }
+            return true;
+        }
+        catch (NoSuchFileException e) {
+            // the page was evicted concurrently
+            return false;
+        }
+        catch (IOException e) {
+            log.warn(e, "Failed to read page %s of local file cache", name);
+            return false;
+        }
+    }
+
+    /**
+     * Stores a page in the cache. Failures are counted and otherwise ignored, since the data has been
+     * read from the remote file already.
+     */
+    public void writePage(String fileId, long pageIndex, byte[] buffer, int offset, int length)
+    {
+        checkArgument(length <= pageSize, "length is larger than the page size");
+        String name = pageName(fileId, pageIndex);
+        if (containsPage(fileId, pageIndex)) {
+            return;
+        }
+
+        Path temporaryFile = directory.resolve(name + "." + UUID.randomUUID() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporaryFile, CREATE_NEW, WRITE)) {
+            ByteBuffer data = ByteBuffer.wrap(buffer, offset, length);
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+        }
+        catch (IOException e) {
+            stats.addWriteFailure();
+            log.debug(e, "Failed to write page %s of local file cache", name);
+            deleteQuietly(temporaryFile);
+            return;
+        }
+
+        // the page files are published and deleted in the order of the updates of the map, so
+        // that the deletion of an evicted page never removes a later copy of the same page
+        List<String> evicted;
+        synchronized (this) {
+            if (pages.containsKey(name)) {
+                // a concurrent writer stored the same page
+                deleteQuietly(temporaryFile);
+                return;
+            }
+            try {
+                Files.move(temporaryFile, directory.resolve(name), ATOMIC_MOVE);
+            }
+            catch (IOException e) {
+                stats.addWriteFailure();
+                log.debug(e, "Failed to write page %s of local file cache", name);
+                deleteQuietly(temporaryFile);
+                return;
+            }
+            pages.put(name, length);
+            sizeInBytes += length;
+            evicted = evict();
+            for (String evictedName : evicted) {
+                deleteQuietly(directory.resolve(evictedName));
+            }
+        }
+        stats.addEvictedPages(evicted.size());
+    }
+
+    @GuardedBy("this")
+    private List<String> evict()
+    {
+        if (sizeInBytes <= maxSizeInBytes) {
+            return ImmutableList.of();
+        }
+        ImmutableList.Builder<String> evicted = ImmutableList.builder();
+        Iterator<Map.Entry<String, Integer>> iterator = pages.entrySet().iterator();
+        while (sizeInBytes > maxSizeInBytes && iterator.hasNext()) {
+            Map.Entry<String, Integer> entry = iterator.next();
+            sizeInBytes -= entry.getValue();
+            evicted.add(entry.getKey());
+            iterator.remove();
+        }
+        return evicted.build();
+    }
+
+    private static String pageName(String fileId, long pageIndex)
+    {
+        return fileId + "-" + pageIndex;
+    }
+
+    private static void deleteQuietly(Path file)
+    {
+        try {
+            Files.deleteIfExists(file);
+        }
+        catch (IOException e) {
+            log.debug(e, "Failed to delete %s", file);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive.filecache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.airlift.stats.CounterStat;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.concurrent.TimeUnit.HOURS;
+
+public class LocalFileCacheStats
+{
+    private final CounterStat cachedReadBytes = new CounterStat();
+    private final CounterStat remoteReadBytes = new CounterStat();
+    private final CounterStat evictedPages = new CounterStat();
+    private final CounterStat writeFailures = new CounterStat();
+    private final Cache<String, QueryStats> queryStats = CacheBuilder.newBuilder()
+            .maximumSize(1000)
+            .expireAfterAccess(1, HOURS)
+            .build();
+
+    @Managed
+    @Nested
+    public CounterStat getCachedReadBytes()
+    {
+        return cachedReadBytes;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getRemoteReadBytes()
+    {
+        return remoteReadBytes;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getEvictedPages()
+    {
+        return evictedPages;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getWriteFailures()
+    {
+        return writeFailures;
+    }
+
+    @Managed
+    public double getHitRatio()
+    {
+        return hitRatio(cachedReadBytes.getTotalCount(), remoteReadBytes.getTotalCount());
+    }
+
+    /**
+     * Returns the fraction of the bytes read by the query on this worker that were served from the cache.
+     */
+    @Managed
+    public double getQueryHitRatio(String queryId)
+    {
+        QueryStats stats = queryStats.getIfPresent(queryId);
+        return stats == null ? 0 : hitRatio(stats.cachedReadBytes.get(), stats.remoteReadBytes.get());
+    }
+
+    /**
+     * Returns the number of bytes the query read from the cache on this worker instead of remote storage.
+     */
+    @Managed
+    public long getQueryBytesSaved(String queryId)
+    {
+        QueryStats stats = queryStats.getIfPresent(queryId);
+        return stats == null ? 0 : stats.cachedReadBytes.get();
+    }
+
+    public void addRead(String queryId, long cachedBytes, long remoteBytes)
+    {
+        cachedReadBytes.update(cachedBytes);
+        remoteReadBytes.update(remoteBytes);
+        QueryStats stats = queryStats.asMap().computeIfAbsent(queryId, ignored -> new QueryStats());
+        stats.cachedReadBytes.addAndGet(cachedBytes);
+        stats.remoteReadBytes.addAndGet(remoteBytes);
+    }
+
+    public void addEvictedPages(long pages)
+    {
+        evictedPages.update(pages);
+    }
+
+    public void addWriteFailure()
+    {
+        writeFailures.update(1);
+    }
+
+    private static double hitRatio(long cachedBytes, long remoteBytes)
+    {
+        long totalBytes = cachedBytes + remoteBytes;
+        return totalBytes == 0 ? 0 : (double) cachedBytes / totalBytes;
+    }
+
+    private static class QueryStats
+    {
+        private final AtomicLong cachedReadBytes = new AtomicLong();
+        private final AtomicLong remoteReadBytes = new AtomicLong();
+    }
+}
@@ -18,6 +18,7 @@ import io.airlift.units.DataSize;
 import io.prestosql.orc.AbstractOrcDataSource;
 import io.prestosql.orc.OrcDataSourceId;
 import io.prestosql.orc.OrcReaderOptions;
+import io.prestosql.orc.VectoredReader;
 import io.prestosql.plugin.hive.FileFormatDataSourceStats;
 import io.prestosql.plugin.hive.HiveErrorCode;
 import io.prestosql.plugin.hive.util.FSDataInputStreamTail;
@@ -26,6 +27,7 @@ import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.hdfs.BlockMissingException;
 
 import java.io.IOException;
+import java.util.Optional;
 
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
@@ -47,7 +49,22 @@ public class HdfsOrcDataSource
             FileFormatDataSourceStats stats,
             long lastModifiedTime)
     {
-        super(id, size, maxMergeDistance, maxReadSize, streamBufferSize, lazyReadSmallRanges, lastModifiedTime);
+        this(id, size, maxMergeDistance, maxReadSize, streamBufferSize, lazyReadSmallRanges, inputStream, stats, lastModifiedTime, Optional.empty());
+    }
+
+    public HdfsOrcDataSource(
+            OrcDataSourceId id,
+            long size,
+            DataSize maxMergeDistance,
+            DataSize maxReadSize,
+            DataSize streamBufferSize,
+            boolean lazyReadSmallRanges,
+            FSDataInputStream inputStream,
+            FileFormatDataSourceStats stats,
+            long lastModifiedTime,
+            Optional<VectoredReader> vectoredReader)
+    {
+        super(id, size, maxMergeDistance, maxReadSize, streamBufferSize, lazyReadSmallRanges, lastModifiedTime, vectoredReader);
         this.inputStream = requireNonNull(inputStream, "inputStream is null");
         this.stats = requireNonNull(stats, "stats is null");
     }
@@ -68,6 +85,7 @@ public class HdfsOrcDataSource
     public void close()
             throws IOException
     {
+        closeVectoredReads();
         inputStream.close();
     }
 
@@ -0,0 +1,150 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive.orc;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.airlift.log.Logger;
+import io.prestosql.orc.DynamicFilterOrcPredicate.DynamicFilterOrcPredicateBuilder;
+import io.prestosql.orc.OrcColumn;
+import io.prestosql.orc.OrcDataSource;
+import io.prestosql.orc.OrcDataSourceId;
+import io.prestosql.orc.OrcPredicate;
+import io.prestosql.orc.OrcReader;
+import io.prestosql.orc.metadata.ColumnMetadata;
+import io.prestosql.orc.metadata.Footer;
+import io.prestosql.orc.metadata.OrcColumnId;
+import io.prestosql.orc.metadata.statistics.ColumnStatistics;
+import io.prestosql.plugin.hive.FileFormatDataSourceStats;
+import io.prestosql.plugin.hive.HdfsEnvironment;
+import io.prestosql.plugin.hive.HdfsEnvironment.HdfsContext;
+import io.prestosql.plugin.hive.HiveColumnHandle;
+import io.prestosql.spi.connector.ConnectorSession;
+import io.prestosql.spi.dynamicfilter.DynamicFilter;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static io.prestosql.plugin.hive.HiveSessionProperties.getOrcLazyReadSmallRanges;
+import static io.prestosql.plugin.hive.HiveSessionProperties.getOrcMaxMergeDistance;
+import static io.prestosql.plugin.hive.HiveSessionProperties.getOrcMaxReadBlockSize;
+import static io.prestosql.plugin.hive.HiveSessionProperties.getOrcStreamBufferSize;
+import static io.prestosql.plugin.hive.HiveSessionProperties.getOrcTinyStripeThreshold;
+import static java.util.Locale.ENGLISH;
+
+/**
+ * Skips whole ORC files at split generation time when the file level column statistics
+ * in the footer show that no row of the file can pass the dynamic filters.
+ * Stripes and row groups of the files that are read are pruned later by the record reader.
+ */
+public final class OrcFileDynamicFilterPruner
+{
+    private static final Logger log = Logger.get(OrcFileDynamicFilterPruner.class);
+
+    private OrcFileDynamicFilterPruner()
+    {
+    }
+
+    public static boolean isFilePruned(
+            ConnectorSession session,
+            HdfsEnvironment hdfsEnvironment,
+            HdfsContext hdfsContext,
+            Path path,
+            long fileSize,
+            long lastModifiedTime,
+            List<Set<DynamicFilter>> dynamicFilters)
+    {
+        if (fileSize == 0 || getColumnFilters(dynamicFilters).isEmpty()) {
+            return false;
+        }
+
+        try {
+            FileSystem fileSystem = hdfsEnvironment.getFileSystem(hdfsContext, path);
+            FSDataInputStream inputStream = hdfsEnvironment.doAs(session.getUser(), () -> fileSystem.open(path));
+            try (OrcDataSource orcDataSource = new HdfsOrcDataSource(
+                    new OrcDataSourceId(path.toString()),
+                    fileSize,
+                    getOrcMaxMergeDistance(session),
+                    getOrcMaxReadBlockSize(session),
+                    getOrcStreamBufferSize(session),
+                    getOrcLazyReadSmallRanges(session),
+                    inputStream,
+                    new FileFormatDataSourceStats(),
+                    lastModifiedTime)) {
+                OrcReader reader = new OrcReader(orcDataSource, getOrcMaxMergeDistance(session), getOrcTinyStripeThreshold(session), getOrcMaxReadBlockSize(session));
+                return isFilePruned(reader.getFooter(), reader.getRootColumn(), dynamicFilters);
+            }
+        }
+        catch (IOException | RuntimeException e) {
+            // keep the file, reading its split reports any real problem with it
+            log.debug(e, "Cannot read ORC footer of %s for dynamic filter pruning", path);
+            return false;
+        }
+    }
+
+    @VisibleForTesting
+    static boolean isFilePruned(Footer footer, OrcColumn rootColumn, List<Set<DynamicFilter>> dynamicFilters)
+    {
+        Optional<ColumnMetadata<ColumnStatistics>> fileStats = footer.getFileStats();
+        if (!fileStats.isPresent()) {
+            return false;
+        }
+
+        Map<String, OrcColumn> fileColumns = new HashMap<>();
+        for (OrcColumn column : rootColumn.getNestedColumns()) {
+            fileColumns.put(column.getColumnName().toLowerCase(ENGLISH), column);
+        }
+
+        // files of full ACID tables and files using positional column names do not match by name and are never pruned
+        Map<OrcColumnId, List<DynamicFilter>> filtersByColumn = new LinkedHashMap<>();
+        for (Map.Entry<String, List<DynamicFilter>> entry : getColumnFilters(dynamicFilters).entrySet()) {
+            OrcColumn column = fileColumns.get(entry.getKey());
+            if (column != null) {
+                filtersByColumn.computeIfAbsent(column.getColumnId(), id -> new ArrayList<>()).addAll(entry.getValue());
+            }
+        }
+
+        DynamicFilterOrcPredicateBuilder builder = DynamicFilterOrcPredicateBuilder.builder();
+        filtersByColumn.forEach(builder::addColumn);
+        Optional<OrcPredicate> predicate = builder.build();
+        return predicate.isPresent() && !predicate.get().matches(footer.getNumberOfRows(), fileStats.get());
+    }
+
+    private static Map<String, List<DynamicFilter>> getColumnFilters(List<Set<DynamicFilter>> dynamicFilters)
+    {
+        Map<String, List<DynamicFilter>> columnFilters = new HashMap<>();
+        if (dynamicFilters == null) {
+            return columnFilters;
+        }
+        for (Set<DynamicFilter> filters : dynamicFilters) {
+            for (DynamicFilter filter : filters) {
+                // partition columns are not stored in the files, they are pruned with the partition values
+                if (!(filter.getColumnHandle() instanceof HiveColumnHandle) || ((HiveColumnHandle) filter.getColumnHandle()).isPartitionKey()) {
+                    continue;
+                }
+                String columnName = ((HiveColumnHandle) filter.getColumnHandle()).getName().toLowerCase(ENGLISH);
+                columnFilters.computeIfAbsent(columnName, name -> new ArrayList<>()).add(filter);
+            }
+        }
+        return columnFilters;
+    }
+}
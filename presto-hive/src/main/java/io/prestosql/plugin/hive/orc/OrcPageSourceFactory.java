@@ -33,6 +33,7 @@ import io.prestosql.orc.OrcReader;
 import io.prestosql.orc.OrcRecordReader;
 import io.prestosql.orc.TupleDomainOrcPredicate;
 import io.prestosql.orc.TupleDomainOrcPredicate.TupleDomainOrcPredicateBuilder;
+import io.prestosql.orc.VectoredReader;
 import io.prestosql.orc.metadata.OrcColumnId;
 import io.prestosql.orc.metadata.OrcType.OrcTypeKind;
 import io.prestosql.plugin.hive.DeleteDeltaLocations;
@@ -111,6 +112,7 @@ import static io.prestosql.plugin.hive.HiveSessionProperties.isOrcFileTailCacheE
 import static io.prestosql.plugin.hive.HiveSessionProperties.isOrcRowDataCacheEnabled;
 import static io.prestosql.plugin.hive.HiveSessionProperties.isOrcRowIndexCacheEnabled;
 import static io.prestosql.plugin.hive.HiveSessionProperties.isOrcStripeFooterCacheEnabled;
+import static io.prestosql.plugin.hive.HiveSessionProperties.isVectoredReadEnabled;
 import static io.prestosql.plugin.hive.orc.OrcPageSource.handleException;
 import static io.prestosql.spi.type.BigintType.BIGINT;
 import static io.prestosql.spi.type.IntegerType.INTEGER;
@@ -144,8 +146,21 @@ public class OrcPageSourceFactory
     private final OrcCacheStore orcCacheStore;
     private final int domainCompactionThreshold;
     private final DateTimeZone legacyTimeZone;
+    private final Optional<VectoredReader> vectoredReader;
 
     @Inject
+    public OrcPageSourceFactory(TypeManager typeManager, HiveConfig config, HdfsEnvironment hdfsEnvironment, FileFormatDataSourceStats stats, OrcCacheStore orcCacheStore, VectoredReader vectoredReader)
+    {
+        this(
+                typeManager,
+                config,
+                hdfsEnvironment,
+                stats,
+                orcCacheStore,
+                requireNonNull(config, "hiveConfig is null").getDomainCompactionThreshold(),
+                Optional.of(requireNonNull(vectoredReader, "vectoredReader is null")));
+    }
+
     public OrcPageSourceFactory(TypeManager typeManager, HiveConfig config, HdfsEnvironment hdfsEnvironment, FileFormatDataSourceStats stats, OrcCacheStore orcCacheStore)
     {
         this(
@@ -158,6 +173,18 @@ public class OrcPageSourceFactory
     }
 
     public OrcPageSourceFactory(TypeManager typeManager, HiveConfig config, HdfsEnvironment hdfsEnvironment, FileFormatDataSourceStats stats, OrcCacheStore orcCacheStore, int domainCompactionThreshold)
+    {
+        this(typeManager, config, hdfsEnvironment, stats, orcCacheStore, domainCompactionThreshold, Optional.empty());
+    }
+
+    public OrcPageSourceFactory(
+            TypeManager typeManager,
+            HiveConfig config,
+            HdfsEnvironment hdfsEnvironment,
+            FileFormatDataSourceStats stats,
+            OrcCacheStore orcCacheStore,
+            int domainCompactionThreshold,
+            Optional<VectoredReader> vectoredReader)
     {
         this.typeManager = requireNonNull(typeManager, "typeManager is null");
         requireNonNull(config, "config is null");
@@ -167,6 +194,7 @@ public class OrcPageSourceFactory
         this.orcCacheStore = orcCacheStore;
         this.legacyTimeZone = requireNonNull(config, "hiveConfig is null").getOrcLegacyDateTimeZone();
         this.domainCompactionThreshold = domainCompactionThreshold;
+        this.vectoredReader = requireNonNull(vectoredReader, "vectoredReader is null");
     }
 
     @Override
@@ -205,6 +233,7 @@ public class OrcPageSourceFactory
         return Optional.of(createOrcPageSource(
                 hdfsEnvironment,
                 session.getUser(),
+                session.getQueryId(),
                 configuration,
                 path,
                 start,
@@ -233,12 +262,14 @@ public class OrcPageSourceFactory
                 orcCacheProperties,
                 domainCompactionThreshold,
                 session.isPageMetadataEnabled(),
-                dataSourceLastModifiedTime));
+                dataSourceLastModifiedTime,
+                isVectoredReadEnabled(session) ? vectoredReader : Optional.empty()));
     }
 
     public static OrcPageSource createOrcPageSource(
             HdfsEnvironment hdfsEnvironment,
             String sessionUser,
+            String queryId,
             Configuration configuration,
             Path path,
             long start,
@@ -267,7 +298,8 @@ public class OrcPageSourceFactory
             OrcCacheProperties orcCacheProperties,
             int domainCompactionThreshold,
             boolean pageMetadataEnabled,
-            long dataSourceLastModifiedTime)
+            long dataSourceLastModifiedTime,
+            Optional<VectoredReader> vectoredReader)
     {
         for (HiveColumnHandle column : columns) {
             checkArgument(
@@ -279,10 +311,15 @@ public class OrcPageSourceFactory
         OrcDataSource orcDataSource;
         try {
             //Always create a lazy Stream. HDFS stream opened only when required.
-            FSDataInputStream inputStream = new FSDataInputStream(new LazyFSInputStream(() -> {
-                FileSystem fileSystem = hdfsEnvironment.getFileSystem(sessionUser, path, configuration);
-                return hdfsEnvironment.doAs(sessionUser, () -> fileSystem.open(path));
-            }));
+            FSDataInputStream inputStream = hdfsEnvironment.wrapWithLocalFileCache(
+                    new FSDataInputStream(new LazyFSInputStream(() -> {
+                        FileSystem fileSystem = hdfsEnvironment.getFileSystem(sessionUser, path, configuration);
+                        return hdfsEnvironment.doAs(sessionUser, () -> fileSystem.open(path));
+                    })),
+                    path,
+                    fileSize,
+                    dataSourceLastModifiedTime,
+                    queryId);
             orcDataSource = new HdfsOrcDataSource(
                     new OrcDataSourceId(path.toString()),
                     fileSize,
@@ -292,7 +329,8 @@ public class OrcPageSourceFactory
                     lazyReadSmallRanges,
                     inputStream,
                     stats,
-                    dataSourceLastModifiedTime);
+                    dataSourceLastModifiedTime,
+                    vectoredReader);
         }
         catch (Exception e) {
             if (nullToEmpty(e.getMessage()).trim().equals("Filesystem closed") ||
@@ -507,8 +545,9 @@ public class OrcPageSourceFactory
             implements Seekable, PositionedReadable
     {
         private FSDataInputStreamProvider fsDataInputStreamProvider;
-        private FSDataInputStream fsDataInputStream;
-        private boolean isStreamAvailable;
+        // the stream is read concurrently by vectored reads
+        private volatile FSDataInputStream fsDataInputStream;
+        private volatile boolean isStreamAvailable;
 
         public LazyFSInputStream(FSDataInputStreamProvider fsDataInputStreamProvider)
         {
@@ -590,9 +629,9 @@ public class OrcPageSourceFactory
             synchronized (this) {
                 if (!isStreamAvailable) {
                     fsDataInputStream = fsDataInputStreamProvider.provide();
+                    isStreamAvailable = true;
                 }
             }
-            isStreamAvailable = true;
         }
     }
 
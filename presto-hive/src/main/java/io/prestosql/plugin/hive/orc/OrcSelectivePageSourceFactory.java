@@ -317,10 +317,15 @@ public class OrcSelectivePageSourceFactory
         OrcDataSource orcDataSource;
         try {
             //Always create a lazy Stream. HDFS stream opened only when required.
-            FSDataInputStream inputStream = new FSDataInputStream(new LazyFSInputStream(() -> {
-                FileSystem fileSystem = hdfsEnvironment.getFileSystem(sessionUser, path, configuration);
-                return hdfsEnvironment.doAs(sessionUser, () -> fileSystem.open(path));
-            }));
+            FSDataInputStream inputStream = hdfsEnvironment.wrapWithLocalFileCache(
+                    new FSDataInputStream(new LazyFSInputStream(() -> {
+                        FileSystem fileSystem = hdfsEnvironment.getFileSystem(sessionUser, path, configuration);
+                        return hdfsEnvironment.doAs(sessionUser, () -> fileSystem.open(path));
+                    })),
+                    path,
+                    fileSize,
+                    dataSourceLastModifiedTime,
+                    session.getQueryId());
             orcDataSource = new HdfsOrcDataSource(
                     new OrcDataSourceId(path.toString()),
                     fileSize,
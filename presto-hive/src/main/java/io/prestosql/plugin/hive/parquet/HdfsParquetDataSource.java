@@ -15,10 +15,14 @@ package io.prestosql.plugin.hive.parquet;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ListMultimap;
+import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.slice.Slice;
 import io.airlift.slice.Slices;
 import io.airlift.units.DataSize;
+import io.prestosql.orc.VectoredReadTracker;
+import io.prestosql.orc.VectoredReader;
 import io.prestosql.parquet.ChunkReader;
 import io.prestosql.parquet.DiskRange;
 import io.prestosql.parquet.ParquetDataSource;
@@ -35,6 +39,8 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
 
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Verify.verify;
@@ -47,17 +53,41 @@ import static java.util.Objects.requireNonNull;
 public class HdfsParquetDataSource
         implements ParquetDataSource
 {
+    private static final ParquetReaderOptions DEFAULT_OPTIONS = new ParquetReaderOptions();
+
     private final ParquetDataSourceId id;
     private final long size;
     private final FSDataInputStream inputStream;
     private long readTimeNanos;
     private long readBytes;
+    // time spent by the vectored reads, which run on the threads of the vectored reader
+    private final LongAdder vectoredReadTimeNanos = new LongAdder();
     private final FileFormatDataSourceStats stats;
+    private final Optional<VectoredReader> vectoredReader;
+    private final VectoredReadTracker vectoredReads = new VectoredReadTracker();
+    private final DataSize maxMergeDistance;
+    private final DataSize maxBufferSize;
 
     private final long estimatedSize;
     private final ParquetReaderOptions options;
 
     public HdfsParquetDataSource(ParquetDataSourceId id, long size, FSDataInputStream inputStream, FileFormatDataSourceStats stats)
+    {
+        this(id, size, inputStream, stats, Optional.empty(), DEFAULT_OPTIONS.getMaxMergeDistance(), DEFAULT_OPTIONS.getMaxBufferSize());
+    }
+
+    /**
+     * @param vectoredReader when present, {@link #readFullyAsync} reads the ranges concurrently, merging ranges
+     * that are at most {@code maxMergeDistance} apart into reads of at most {@code maxBufferSize}
+     */
+    public HdfsParquetDataSource(
+            ParquetDataSourceId id,
+            long size,
+            FSDataInputStream inputStream,
+            FileFormatDataSourceStats stats,
+            Optional<VectoredReader> vectoredReader,
+            DataSize maxMergeDistance,
+            DataSize maxBufferSize)
     {
         this.id = requireNonNull(id, "id is null");
         this.size = size;
@@ -65,6 +95,9 @@ public class HdfsParquetDataSource
         this.stats = stats;
         this.estimatedSize = 0L;
         this.options = null;
+        this.vectoredReader = requireNonNull(vectoredReader, "vectoredReader is null");
+        this.maxMergeDistance = requireNonNull(maxMergeDistance, "maxMergeDistance is null");
+        this.maxBufferSize = requireNonNull(maxBufferSize, "maxBufferSize is null");
     }
 
     public HdfsParquetDataSource(
@@ -80,6 +113,9 @@ public class HdfsParquetDataSource
         this.stats = stats;
         this.options = requireNonNull(options, "options is null");
         this.size = 0L;
+        this.vectoredReader = Optional.empty();
+        this.maxMergeDistance = options.getMaxMergeDistance();
+        this.maxBufferSize = options.getMaxBufferSize();
     }
 
     @Override
@@ -97,7 +133,7 @@ public class HdfsParquetDataSource
     @Override
     public long getReadTimeNanos()
     {
-        return readTimeNanos;
+        return readTimeNanos + vectoredReadTimeNanos.sum();
     }
 
     @Override
@@ -110,6 +146,7 @@ public class HdfsParquetDataSource
     public void close()
             throws IOException
     {
+        vectoredReads.close();
         inputStream.close();
     }
 
@@ -146,11 +183,55 @@ public class HdfsParquetDataSource
         }
     }
 
+    @Override
+    public boolean isAsyncReadSupported()
+    {
+        return vectoredReader.isPresent();
+    }
+
+    @Override
+    public <K> Map<K, ListenableFuture<Slice>> readFullyAsync(Map<K, DiskRange> diskRanges)
+    {
+        if (!vectoredReader.isPresent()) {
+            return ParquetDataSource.super.readFullyAsync(diskRanges);
+        }
+
+        ImmutableMap.Builder<K, io.prestosql.orc.DiskRange> ranges = ImmutableMap.builder();
+        for (Map.Entry<K, DiskRange> entry : diskRanges.entrySet()) {
+            DiskRange diskRange = entry.getValue();
+            ranges.put(entry.getKey(), new io.prestosql.orc.DiskRange(diskRange.getOffset(), diskRange.getLength()));
+            readBytes += diskRange.getLength();
+        }
+        return vectoredReads.register(vectoredReader.get().readRanges(ranges.build(), maxMergeDistance, maxBufferSize, vectoredReads.track(this::readVectored)));
+    }
+
+    private void readVectored(long position, byte[] buffer, int bufferOffset, int bufferLength)
+    {
+        long start = System.nanoTime();
+        readInternal(position, buffer, bufferOffset, bufferLength);
+        long currentReadTimeNanos = System.nanoTime() - start;
+
+        vectoredReadTimeNanos.add(currentReadTimeNanos);
+        stats.readDataBytesPerSecond(bufferLength, currentReadTimeNanos);
+    }
+
     public static HdfsParquetDataSource buildHdfsParquetDataSource(FSDataInputStream inputStream, Path path, long fileSize, FileFormatDataSourceStats stats)
     {
         return new HdfsParquetDataSource(new ParquetDataSourceId(path.toString()), fileSize, inputStream, stats);
     }
 
+    public static HdfsParquetDataSource buildHdfsParquetDataSource(
+            FSDataInputStream inputStream,
+            Path path,
+            long fileSize,
+            FileFormatDataSourceStats stats,
+            Optional<VectoredReader> vectoredReader,
+            DataSize maxMergeDistance,
+            DataSize maxBufferSize)
+    {
+        return new HdfsParquetDataSource(new ParquetDataSourceId(path.toString()), fileSize, inputStream, stats, vectoredReader, maxMergeDistance, maxBufferSize);
+    }
+
     @Override
     public long getEstimatedSize()
     {
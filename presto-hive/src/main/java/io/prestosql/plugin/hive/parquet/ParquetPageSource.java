@@ -14,17 +14,24 @@
 package io.prestosql.plugin.hive.parquet;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Ints;
+import io.prestosql.orc.TupleDomainFilter;
 import io.prestosql.parquet.Field;
 import io.prestosql.parquet.ParquetCorruptionException;
+import io.prestosql.parquet.PrimitiveField;
 import io.prestosql.parquet.reader.ParquetReader;
+import io.prestosql.plugin.hive.FileFormatDataSourceStats;
 import io.prestosql.plugin.hive.HiveColumnHandle;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.PrestoException;
 import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockBuilder;
 import io.prestosql.spi.block.LazyBlock;
 import io.prestosql.spi.block.LazyBlockLoader;
 import io.prestosql.spi.block.RunLengthEncodedBlock;
 import io.prestosql.spi.connector.ConnectorPageSource;
+import io.prestosql.spi.predicate.Domain;
+import io.prestosql.spi.predicate.SortedRangeSet;
 import io.prestosql.spi.predicate.TupleDomain;
 import io.prestosql.spi.type.Type;
 import io.prestosql.spi.type.TypeManager;
@@ -33,11 +40,14 @@ import org.apache.parquet.schema.MessageType;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
 
 import static com.google.common.base.Preconditions.checkState;
+import static io.prestosql.orc.TupleDomainFilterUtils.toFilter;
 import static io.prestosql.parquet.ParquetTypeUtils.getFieldIndex;
 import static io.prestosql.parquet.ParquetTypeUtils.lookupColumnByName;
 import static io.prestosql.plugin.hive.HiveColumnHandle.ColumnType.REGULAR;
@@ -60,9 +70,15 @@ public class ParquetPageSource
     private final Block[] constantBlocks;
     private final int[] hiveColumnIndexes;
 
+    // columns whose predicate is evaluated by the reader while decoding, in evaluation order
+    private final int[] filterChannels;
+    private final TupleDomainFilter[] filters;
+    private int[] positions = new int[0];
+
     private int batchId;
     private boolean closed;
     private final boolean useParquetColumnNames;
+    private final FileFormatDataSourceStats stats;
 
     public ParquetPageSource(
             ParquetReader parquetReader,
@@ -73,6 +89,21 @@ public class ParquetPageSource
             List<HiveColumnHandle> columns,
             TupleDomain<HiveColumnHandle> effectivePredicate,
             boolean useParquetColumnNames)
+    {
+        this(parquetReader, fileSchema, messageColumnIO, typeManager, splitSchema, columns, effectivePredicate, useParquetColumnNames, false, new FileFormatDataSourceStats());
+    }
+
+    public ParquetPageSource(
+            ParquetReader parquetReader,
+            MessageType fileSchema,
+            MessageColumnIO messageColumnIO,
+            TypeManager typeManager,
+            Properties splitSchema,
+            List<HiveColumnHandle> columns,
+            TupleDomain<HiveColumnHandle> effectivePredicate,
+            boolean useParquetColumnNames,
+            boolean selectiveReadEnabled,
+            FileFormatDataSourceStats stats)
     {
         requireNonNull(splitSchema, "splitSchema is null");
         requireNonNull(columns, "columns is null");
@@ -80,6 +111,7 @@ public class ParquetPageSource
         this.parquetReader = requireNonNull(parquetReader, "parquetReader is null");
         this.fileSchema = requireNonNull(fileSchema, "fileSchema is null");
         this.useParquetColumnNames = useParquetColumnNames;
+        this.stats = requireNonNull(stats, "stats is null");
 
         int size = columns.size();
         this.constantBlocks = new Block[size];
@@ -111,6 +143,32 @@ public class ParquetPageSource
         types = typesBuilder.build();
         fields = fieldsBuilder.build();
         columnNames = namesBuilder.build();
+
+        ImmutableList.Builder<Integer> filterChannelsBuilder = ImmutableList.builder();
+        ImmutableList.Builder<TupleDomainFilter> filtersBuilder = ImmutableList.builder();
+        if (selectiveReadEnabled && effectivePredicate.getDomains().isPresent()) {
+            Map<HiveColumnHandle, Domain> domains = effectivePredicate.getDomains().get();
+            for (int columnIndex = 0; columnIndex < size; columnIndex++) {
+                Domain domain = domains.get(columns.get(columnIndex));
+                Optional<Field> field = fields.get(columnIndex);
+                if (domain != null && isFilterSupported(domain, field)) {
+                    filterChannelsBuilder.add(columnIndex);
+                    filtersBuilder.add(toFilter(domain));
+                }
+            }
+        }
+        filterChannels = Ints.toArray(filterChannelsBuilder.build());
+        filters = filtersBuilder.build().toArray(new TupleDomainFilter[0]);
+    }
+
+    private boolean isFilterSupported(Domain domain, Optional<Field> field)
+    {
+        return !domain.isAll() &&
+                domain.getValues() instanceof SortedRangeSet &&
+                field.isPresent() &&
+                field.get() instanceof PrimitiveField &&
+                field.get().getType().equals(domain.getType()) &&
+                parquetReader.isFilterSupported((PrimitiveField) field.get());
     }
 
     @Override
@@ -140,6 +198,9 @@ public class ParquetPageSource
     @Override
     public Page getNextPage()
     {
+        if (filterChannels.length > 0) {
+            return getNextFilteredPage();
+        }
         try {
             batchId++;
             int batchSize = parquetReader.nextBatch();
@@ -184,6 +245,101 @@ public class ParquetPageSource
         }
     }
 
+    /**
+     * Evaluates the filters column by column, each one only on the positions that passed the
+     * previous filters, and then reads the remaining columns only at the positions that passed all of them.
+     */
+    private Page getNextFilteredPage()
+    {
+        try {
+            while (true) {
+                batchId++;
+                int batchSize = parquetReader.nextBatch();
+
+                if (closed || batchSize <= 0) {
+                    close();
+                    return null;
+                }
+
+                if (positions.length < batchSize) {
+                    positions = new int[batchSize];
+                }
+                for (int position = 0; position < batchSize; position++) {
+                    positions[position] = position;
+                }
+
+                int positionCount = batchSize;
+                Block[] filteredBlocks = new Block[filterChannels.length];
+                int[][] filteredPositions = new int[filterChannels.length][];
+                for (int i = 0; i < filterChannels.length && positionCount > 0; i++) {
+                    int channel = filterChannels[i];
+                    BlockBuilder blockBuilder = types.get(channel).createBlockBuilder(null, positionCount);
+                    positionCount = parquetReader.filterBlock((PrimitiveField) fields.get(channel).get(), filters[i], positions, positionCount, blockBuilder);
+                    filteredBlocks[i] = blockBuilder.build();
+                    filteredPositions[i] = Arrays.copyOf(positions, positionCount);
+                }
+                if (positionCount == 0) {
+                    // columns that were not read are skipped when the next batch is read
+                    continue;
+                }
+
+                int[] selectedPositions = Arrays.copyOf(positions, positionCount);
+                Block[] blocks = new Block[hiveColumnIndexes.length];
+                for (int i = 0; i < filterChannels.length; i++) {
+                    blocks[filterChannels[i]] = selectPositions(filteredBlocks[i], filteredPositions[i], selectedPositions);
+                }
+                for (int fieldId = 0; fieldId < blocks.length; fieldId++) {
+                    if (blocks[fieldId] != null) {
+                        continue;
+                    }
+                    Optional<Field> field = fields.get(fieldId);
+                    if (constantBlocks[fieldId] != null || !field.isPresent()) {
+                        blocks[fieldId] = RunLengthEncodedBlock.create(types.get(fieldId), null, positionCount);
+                    }
+                    else if (positionCount == batchSize) {
+                        blocks[fieldId] = new LazyBlock(positionCount, new ParquetBlockLoader(field.get()));
+                    }
+                    else {
+                        blocks[fieldId] = new LazyBlock(positionCount, new ParquetBlockLoader(field.get(), selectedPositions));
+                    }
+                }
+                return new Page(positionCount, blocks);
+            }
+        }
+        catch (PrestoException e) {
+            closeWithSuppression(e);
+            throw e;
+        }
+        catch (ParquetCorruptionException e) {
+            closeWithSuppression(e);
+            throw new PrestoException(HIVE_BAD_DATA, e);
+        }
+        catch (IOException | RuntimeException e) {
+            closeWithSuppression(e);
+            throw new PrestoException(HIVE_CURSOR_ERROR, e);
+        }
+    }
+
+    /**
+     * Returns the values of block, which holds one value for each of blockPositions, at the
+     * selected positions, which are a subset of blockPositions.
+     */
+    private static Block selectPositions(Block block, int[] blockPositions, int[] selectedPositions)
+    {
+        if (blockPositions.length == selectedPositions.length) {
+            return block;
+        }
+        int[] indexes = new int[selectedPositions.length];
+        int blockIndex = 0;
+        for (int i = 0; i < selectedPositions.length; i++) {
+            while (blockPositions[blockIndex] != selectedPositions[i]) {
+                blockIndex++;
+            }
+            indexes[i] = blockIndex;
+        }
+        return block.copyPositions(indexes, 0, indexes.length);
+    }
+
     private void closeWithSuppression(Throwable throwable)
     {
         requireNonNull(throwable, "throwable is null");
@@ -207,6 +363,7 @@ public class ParquetPageSource
         closed = true;
 
         try {
+            stats.addSkippedPages(parquetReader.getSkippedPageCount(), parquetReader.getSkippedPageBytes());
             parquetReader.close();
         }
         catch (IOException e) {
@@ -219,11 +376,18 @@ public class ParquetPageSource
     {
         private final int expectedBatchId = batchId;
         private final Field field;
+        private final int[] selectedPositions;
         private boolean loaded;
 
         public ParquetBlockLoader(Field field)
+        {
+            this(field, null);
+        }
+
+        public ParquetBlockLoader(Field field, int[] selectedPositions)
         {
             this.field = requireNonNull(field, "field is null");
+            this.selectedPositions = selectedPositions;
         }
 
         @Override
@@ -236,8 +400,7 @@ public class ParquetPageSource
             checkState(batchId == expectedBatchId);
 
             try {
-                Block block = parquetReader.readBlock(field);
-                lazyBlock.setBlock(block);
+                lazyBlock.setBlock(readBlock());
             }
             catch (ParquetCorruptionException e) {
                 throw new PrestoException(HIVE_BAD_DATA, e);
@@ -247,5 +410,18 @@ public class ParquetPageSource
             }
             loaded = true;
         }
+
+        private Block readBlock()
+                throws IOException
+        {
+            if (selectedPositions == null) {
+                return parquetReader.readBlock(field);
+            }
+            if (field instanceof PrimitiveField && ((PrimitiveField) field).getDescriptor().getMaxRepetitionLevel() == 0) {
+                return parquetReader.readBlock((PrimitiveField) field, selectedPositions, selectedPositions.length);
+            }
+            // nested columns are decoded for the whole batch
+            return parquetReader.readBlock(field).copyPositions(selectedPositions, 0, selectedPositions.length);
+        }
     }
 }
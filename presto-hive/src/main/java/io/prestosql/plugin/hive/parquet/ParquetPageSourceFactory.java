@@ -18,6 +18,7 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import io.airlift.units.DataSize;
 import io.prestosql.memory.context.AggregatedMemoryContext;
+import io.prestosql.orc.VectoredReader;
 import io.prestosql.parquet.ParquetCorruptionException;
 import io.prestosql.parquet.ParquetDataSource;
 import io.prestosql.parquet.RichColumnDescriptor;
@@ -48,6 +49,7 @@ import org.apache.parquet.column.ColumnDescriptor;
 import org.apache.parquet.hadoop.metadata.BlockMetaData;
 import org.apache.parquet.hadoop.metadata.FileMetaData;
 import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.apache.parquet.internal.filter2.columnindex.ColumnIndexStore;
 import org.apache.parquet.io.MessageColumnIO;
 import org.apache.parquet.schema.MessageType;
 import org.joda.time.DateTimeZone;
@@ -66,19 +68,26 @@ import java.util.Set;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Strings.nullToEmpty;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static io.prestosql.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
 import static io.prestosql.parquet.ParquetTypeUtils.getColumnIO;
 import static io.prestosql.parquet.ParquetTypeUtils.getDescriptors;
 import static io.prestosql.parquet.ParquetTypeUtils.getParquetTypeByName;
+import static io.prestosql.parquet.predicate.PredicateUtils.bloomFilterPredicatesMatch;
 import static io.prestosql.parquet.predicate.PredicateUtils.buildPredicate;
 import static io.prestosql.parquet.predicate.PredicateUtils.predicateMatches;
+import static io.prestosql.parquet.reader.ParquetColumnIndexStore.createColumnIndexStore;
 import static io.prestosql.plugin.hive.HiveColumnHandle.ColumnType.REGULAR;
 import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_BAD_DATA;
 import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_CANNOT_OPEN_SPLIT;
 import static io.prestosql.plugin.hive.HiveErrorCode.HIVE_MISSING_DATA;
 import static io.prestosql.plugin.hive.HiveSessionProperties.getParquetMaxReadBlockSize;
 import static io.prestosql.plugin.hive.HiveSessionProperties.isFailOnCorruptedParquetStatistics;
+import static io.prestosql.plugin.hive.HiveSessionProperties.isParquetSelectiveReaderEnabled;
+import static io.prestosql.plugin.hive.HiveSessionProperties.isParquetUseBloomFilter;
+import static io.prestosql.plugin.hive.HiveSessionProperties.isParquetUseColumnIndex;
 import static io.prestosql.plugin.hive.HiveSessionProperties.isUseParquetColumnNames;
+import static io.prestosql.plugin.hive.HiveSessionProperties.isVectoredReadEnabled;
 import static io.prestosql.plugin.hive.HiveUtil.getDeserializerClassName;
 import static io.prestosql.plugin.hive.HiveUtil.shouldUseRecordReaderFromInputFormat;
 import static io.prestosql.plugin.hive.parquet.HdfsParquetDataSource.buildHdfsParquetDataSource;
@@ -100,14 +109,30 @@ public class ParquetPageSourceFactory
     private final HdfsEnvironment hdfsEnvironment;
     private final FileFormatDataSourceStats stats;
     private final DateTimeZone timeZone;
+    private final Optional<VectoredReader> vectoredReader;
+    private final DataSize maxMergeDistance;
+    private final DataSize maxBufferSize;
 
     @Inject
+    public ParquetPageSourceFactory(TypeManager typeManager, HdfsEnvironment hdfsEnvironment, FileFormatDataSourceStats stats, HiveConfig hiveConfig, VectoredReader vectoredReader)
+    {
+        this(typeManager, hdfsEnvironment, stats, hiveConfig, Optional.of(requireNonNull(vectoredReader, "vectoredReader is null")));
+    }
+
     public ParquetPageSourceFactory(TypeManager typeManager, HdfsEnvironment hdfsEnvironment, FileFormatDataSourceStats stats, HiveConfig hiveConfig)
+    {
+        this(typeManager, hdfsEnvironment, stats, hiveConfig, Optional.empty());
+    }
+
+    private ParquetPageSourceFactory(TypeManager typeManager, HdfsEnvironment hdfsEnvironment, FileFormatDataSourceStats stats, HiveConfig hiveConfig, Optional<VectoredReader> vectoredReader)
     {
         this.typeManager = requireNonNull(typeManager, "typeManager is null");
         this.hdfsEnvironment = requireNonNull(hdfsEnvironment, "hdfsEnvironment is null");
         this.stats = requireNonNull(stats, "stats is null");
         timeZone = requireNonNull(hiveConfig, "hiveConfig is null").getParquetDateTimeZone();
+        this.vectoredReader = vectoredReader;
+        this.maxMergeDistance = hiveConfig.getParquetMaxMergeDistance();
+        this.maxBufferSize = hiveConfig.getParquetMaxBufferSize();
     }
 
     @Override
@@ -151,9 +176,71 @@ public class ParquetPageSourceFactory
                 typeManager,
                 effectivePredicate,
                 stats,
-                timeZone));
+                timeZone,
+                isParquetSelectiveReaderEnabled(session),
+                isParquetUseColumnIndex(session),
+                isParquetUseBloomFilter(session),
+                isVectoredReadEnabled(session) ? vectoredReader : Optional.empty(),
+                maxMergeDistance,
+                maxBufferSize,
+                dataSourceLastModifiedTime,
+                session.getQueryId()));
+    }
+
+    public static ParquetPageSource createParquetPageSource(
+            HdfsEnvironment hdfsEnvironment,
+            String user,
+            Configuration configuration,
+            Path path,
+            long start,
+            long length,
+            long fileSize,
+            Properties schema,
+            List<HiveColumnHandle> columns,
+            boolean useParquetColumnNames,
+            boolean failOnCorruptedParquetStatistics,
+            DataSize maxReadBlockSize,
+            TypeManager typeManager,
+            TupleDomain<HiveColumnHandle> effectivePredicate,
+            FileFormatDataSourceStats stats,
+            DateTimeZone timeZone,
+            boolean selectiveReadEnabled,
+            boolean useColumnIndex,
+            boolean useBloomFilter)
+    {
+        return createParquetPageSource(
+                hdfsEnvironment,
+                user,
+                configuration,
+                path,
+                start,
+                length,
+                fileSize,
+                schema,
+                columns,
+                useParquetColumnNames,
+                failOnCorruptedParquetStatistics,
+                maxReadBlockSize,
+                typeManager,
+                effectivePredicate,
+                stats,
+                timeZone,
+                selectiveReadEnabled,
+                useColumnIndex,
+                useBloomFilter,
+                Optional.empty(),
+                new DataSize(1, MEGABYTE),
+                new DataSize(8, MEGABYTE),
+                0,
+                "");
     }
 
+    /**
+     * @param vectoredReader when present, the column chunks of a row group are fetched concurrently
+     * and the chunks of the next row group are fetched while the current one is decoded
+     * @param lastModifiedTime modification time of the file, which identifies the file in the local
+     * file cache; the file is not cached when it is 0
+     */
     public static ParquetPageSource createParquetPageSource(
             HdfsEnvironment hdfsEnvironment,
             String user,
@@ -170,7 +257,15 @@ public class ParquetPageSourceFactory
             TypeManager typeManager,
             TupleDomain<HiveColumnHandle> effectivePredicate,
             FileFormatDataSourceStats stats,
-            DateTimeZone timeZone)
+            DateTimeZone timeZone,
+            boolean selectiveReadEnabled,
+            boolean useColumnIndex,
+            boolean useBloomFilter,
+            Optional<VectoredReader> vectoredReader,
+            DataSize maxMergeDistance,
+            DataSize maxBufferSize,
+            long lastModifiedTime,
+            String queryId)
     {
         AggregatedMemoryContext systemMemoryContext = newSimpleAggregatedMemoryContext();
 
@@ -178,11 +273,16 @@ public class ParquetPageSourceFactory
         DateTimeZone readerTimeZone = timeZone;
         try {
             FileSystem fileSystem = hdfsEnvironment.getFileSystem(user, path, configuration);
-            FSDataInputStream inputStream = hdfsEnvironment.doAs(user, () -> fileSystem.open(path));
+            FSDataInputStream inputStream = hdfsEnvironment.wrapWithLocalFileCache(
+                    hdfsEnvironment.doAs(user, () -> fileSystem.open(path)),
+                    path,
+                    fileSize,
+                    lastModifiedTime,
+                    queryId);
             ParquetMetadata parquetMetadata = MetadataReader.readFooter(inputStream, path, fileSize);
             FileMetaData fileMetaData = parquetMetadata.getFileMetaData();
             MessageType fileSchema = fileMetaData.getSchema();
-            dataSource = buildHdfsParquetDataSource(inputStream, path, fileSize, stats);
+            dataSource = buildHdfsParquetDataSource(inputStream, path, fileSize, stats, vectoredReader, maxMergeDistance, maxBufferSize);
             String writerTimeZoneId = fileMetaData.getKeyValueMetaData().get(WRITER_TIME_ZONE_KEY);
             if (writerTimeZoneId != null && !writerTimeZoneId.equalsIgnoreCase(readerTimeZone.getID())) {
                 readerTimeZone = DateTimeZone.forID(writerTimeZoneId);
@@ -209,9 +309,12 @@ public class ParquetPageSourceFactory
             Predicate parquetPredicate = buildPredicate(requestedSchema, parquetTupleDomain, descriptorsByPath);
             final ParquetDataSource finalDataSource = dataSource;
             ImmutableList.Builder<BlockMetaData> blocks = ImmutableList.builder();
+            ImmutableList.Builder<Optional<ColumnIndexStore>> columnIndexStores = ImmutableList.builder();
             for (BlockMetaData block : footerBlocks.build()) {
-                if (predicateMatches(parquetPredicate, block, finalDataSource, descriptorsByPath, parquetTupleDomain, failOnCorruptedParquetStatistics)) {
+                if (predicateMatches(parquetPredicate, block, finalDataSource, descriptorsByPath, parquetTupleDomain, failOnCorruptedParquetStatistics) &&
+                        (!useBloomFilter || bloomFilterPredicatesMatch(block, finalDataSource, descriptorsByPath, parquetTupleDomain))) {
                     blocks.add(block);
+                    columnIndexStores.add(useColumnIndex ? createColumnIndexStore(finalDataSource, block) : Optional.empty());
                 }
             }
             MessageColumnIO messageColumnIO = getColumnIO(fileSchema, requestedSchema);
@@ -222,7 +325,9 @@ public class ParquetPageSourceFactory
                     dataSource,
                     readerTimeZone,
                     systemMemoryContext,
-                    maxReadBlockSize);
+                    maxReadBlockSize,
+                    useColumnIndex ? parquetPredicate : null,
+                    columnIndexStores.build());
 
             return new ParquetPageSource(
                     parquetReader,
@@ -232,7 +337,9 @@ public class ParquetPageSourceFactory
                     schema,
                     columns,
                     effectivePredicate,
-                    useParquetColumnNames);
+                    useParquetColumnNames,
+                    selectiveReadEnabled,
+                    stats);
         }
         catch (Exception e) {
             try {
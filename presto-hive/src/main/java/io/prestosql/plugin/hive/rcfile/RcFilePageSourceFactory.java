@@ -138,7 +138,12 @@ public class RcFilePageSourceFactory
         FSDataInputStream inputStream;
         try {
             FileSystem fileSystem = hdfsEnvironment.getFileSystem(session.getUser(), path, configuration);
-            inputStream = hdfsEnvironment.doAs(session.getUser(), () -> fileSystem.open(path));
+            inputStream = hdfsEnvironment.wrapWithLocalFileCache(
+                    hdfsEnvironment.doAs(session.getUser(), () -> fileSystem.open(path)),
+                    path,
+                    fileSize,
+                    dataSourceLastModifiedTime,
+                    session.getQueryId());
         }
         catch (Exception e) {
             if (nullToEmpty(e.getMessage()).trim().equals("Filesystem closed") ||
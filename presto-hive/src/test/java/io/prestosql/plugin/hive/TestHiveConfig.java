@@ -89,6 +89,17 @@ public class TestHiveConfig
                 .setUseParquetColumnNames(false)
                 .setFailOnCorruptedParquetStatistics(true)
                 .setParquetMaxReadBlockSize(new DataSize(16, Unit.MEGABYTE))
+                .setParquetSelectiveReaderEnabled(false)
+                .setParquetUseColumnIndex(true)
+                .setParquetUseBloomFilter(true)
+                .setParquetMaxMergeDistance(new DataSize(1, Unit.MEGABYTE))
+                .setParquetMaxBufferSize(new DataSize(8, Unit.MEGABYTE))
+                .setVectoredReadEnabled(false)
+                .setVectoredReadThreads(32)
+                .setLocalFileCacheEnabled(false)
+                .setLocalFileCacheDirectory(null)
+                .setLocalFileCacheMaxSize(new DataSize(10, Unit.GIGABYTE))
+                .setLocalFileCachePageSize(new DataSize(1, Unit.MEGABYTE))
                 .setUseOrcColumnNames(false)
                 .setAssumeCanonicalPartitionKeys(false)
                 .setOrcBloomFiltersEnabled(false)
@@ -103,6 +114,8 @@ public class TestHiveConfig
                 .setOrcRowIndexCacheEnabled(false).setOrcRowIndexCacheTtl(new Duration(4, TimeUnit.HOURS)).setOrcRowIndexCacheLimit(250_000)
                 .setOrcBloomFiltersCacheEnabled(false).setOrcBloomFiltersCacheTtl(new Duration(4, TimeUnit.HOURS)).setOrcBloomFiltersCacheLimit(250_000)
                 .setOrcRowDataCacheEnabled(false).setOrcRowDataCacheTtl(new Duration(4, TimeUnit.HOURS)).setOrcRowDataCacheMaximumWeight(new DataSize(20, GIGABYTE))
+                .setOrcOffHeapCacheEnabled(false)
+                .setOrcOffHeapStripeFooterCacheMaximumSize(new DataSize(256, MEGABYTE))
                 .setOrcLazyReadSmallRanges(true)
                 .setRcfileTimeZone(TimeZone.getDefault().getID())
                 .setRcfileWriterValidate(false)
@@ -139,6 +152,7 @@ public class TestHiveConfig
                 .setTableCreatesWithLocationAllowed(true)
                 .setTlsEnabled(false)
                 .setDynamicFilterPartitionFilteringEnabled(true)
+                .setDynamicFilterFilePruningEnabled(false)
                 .setDynamicFilteringRowFilteringThreshold(2000)
                 .setOrcCacheStatsMetricCollectionEnabled(false)
                 .setVacuumCleanupRecheckInterval(new Duration(5, TimeUnit.MINUTES))
@@ -185,6 +199,7 @@ public class TestHiveConfig
                 .put("hive.dfs.verify-checksum", "false")
                 .put("hive.dfs.domain-socket-path", "/foo")
                 .put("hive.dynamic-filter-partition-filtering", "false")
+                .put("hive.dynamic-filter-file-pruning", "true")
                 .put("hive.dynamic-filtering-row-filtering-threshold", "10000")
                 .put("hive.s3-file-system-type", "EMRFS")
                 .put("hive.config.resources", "/foo.xml,/bar.xml")
@@ -212,6 +227,17 @@ public class TestHiveConfig
                 .put("hive.parquet.use-column-names", "true")
                 .put("hive.parquet.fail-on-corrupted-statistics", "false")
                 .put("hive.parquet.max-read-block-size", "66kB")
+                .put("hive.parquet.selective-reader-enabled", "true")
+                .put("hive.parquet.use-column-index", "false")
+                .put("hive.parquet.use-bloom-filter", "false")
+                .put("hive.parquet.max-merge-distance", "2MB")
+                .put("hive.parquet.max-buffer-size", "16MB")
+                .put("hive.vectored-read.enabled", "true")
+                .put("hive.vectored-read.threads", "64")
+                .put("hive.local-file-cache.enabled", "true")
+                .put("hive.local-file-cache.directory", "/tmp/hive-file-cache")
+                .put("hive.local-file-cache.max-size", "20GB")
+                .put("hive.local-file-cache.page-size", "4MB")
                 .put("hive.orc.use-column-names", "true")
                 .put("hive.orc.bloom-filters.enabled", "true")
                 .put("hive.orc.default-bloom-filter-fpp", "0.96")
@@ -235,6 +261,8 @@ public class TestHiveConfig
                 .put("hive.orc.row-data.block.cache.enabled", "true")
                 .put("hive.orc.row-data.block.cache.ttl", "1h")
                 .put("hive.orc.row-data.block.cache.max.weight", "1MB")
+                .put("hive.orc.off-heap-cache.enabled", "true")
+                .put("hive.orc.off-heap-cache.stripe-footer.max-size", "64MB")
                 .put("hive.orc.lazy-read-small-ranges", "false")
                 .put("hive.rcfile.time-zone", nonDefaultTimeZone().getID())
                 .put("hive.rcfile.writer.validate", "true")
@@ -337,6 +365,17 @@ public class TestHiveConfig
                 .setUseParquetColumnNames(true)
                 .setFailOnCorruptedParquetStatistics(false)
                 .setParquetMaxReadBlockSize(new DataSize(66, Unit.KILOBYTE))
+                .setParquetSelectiveReaderEnabled(true)
+                .setParquetUseColumnIndex(false)
+                .setParquetUseBloomFilter(false)
+                .setParquetMaxMergeDistance(new DataSize(2, Unit.MEGABYTE))
+                .setParquetMaxBufferSize(new DataSize(16, Unit.MEGABYTE))
+                .setVectoredReadEnabled(true)
+                .setVectoredReadThreads(64)
+                .setLocalFileCacheEnabled(true)
+                .setLocalFileCacheDirectory("/tmp/hive-file-cache")
+                .setLocalFileCacheMaxSize(new DataSize(20, Unit.GIGABYTE))
+                .setLocalFileCachePageSize(new DataSize(4, Unit.MEGABYTE))
                 .setUseOrcColumnNames(true)
                 .setAssumeCanonicalPartitionKeys(true)
                 .setRcfileTimeZone(nonDefaultTimeZone().getID())
@@ -352,6 +391,8 @@ public class TestHiveConfig
                 .setOrcRowIndexCacheEnabled(true).setOrcRowIndexCacheTtl(new Duration(1, TimeUnit.HOURS)).setOrcRowIndexCacheLimit(100)
                 .setOrcBloomFiltersCacheEnabled(true).setOrcBloomFiltersCacheTtl(new Duration(1, TimeUnit.HOURS)).setOrcBloomFiltersCacheLimit(100)
                 .setOrcRowDataCacheEnabled(true).setOrcRowDataCacheTtl(new Duration(1, TimeUnit.HOURS)).setOrcRowDataCacheMaximumWeight(new DataSize(1, MEGABYTE))
+                .setOrcOffHeapCacheEnabled(true)
+                .setOrcOffHeapStripeFooterCacheMaximumSize(new DataSize(64, MEGABYTE))
                 .setOrcLazyReadSmallRanges(false)
                 .setRcfileTimeZone(nonDefaultTimeZone().getID())
                 .setRcfileWriterValidate(true)
@@ -389,6 +430,7 @@ public class TestHiveConfig
                 .setTableCreatesWithLocationAllowed(false)
                 .setTlsEnabled(true)
                 .setDynamicFilterPartitionFilteringEnabled(false)
+                .setDynamicFilterFilePruningEnabled(true)
                 .setDynamicFilteringRowFilteringThreshold(10000)
                 .setOrcCacheStatsMetricCollectionEnabled(true)
                 .setVacuumCleanupRecheckInterval(new Duration(10, TimeUnit.MINUTES))
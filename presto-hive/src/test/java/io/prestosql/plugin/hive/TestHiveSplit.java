@@ -16,6 +16,7 @@ package io.prestosql.plugin.hive;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import io.airlift.json.JsonCodec;
+import io.airlift.units.DataSize;
 import io.prestosql.plugin.hive.HiveColumnHandle.ColumnType;
 import io.prestosql.spi.HostAddress;
 import org.apache.hadoop.fs.Path;
@@ -26,11 +27,13 @@ import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.Properties;
 
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static io.prestosql.plugin.hive.HiveBucketing.BucketingVersion.BUCKETING_V1;
 import static io.prestosql.plugin.hive.HiveType.HIVE_LONG;
 import static io.prestosql.plugin.hive.HiveType.HIVE_STRING;
 import static io.prestosql.spi.type.BigintType.BIGINT;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
 
 public class TestHiveSplit
 {
@@ -99,4 +102,41 @@ public class TestHiveSplit
         assertEquals(actual.getDeleteDeltaLocations().get(), expected.getDeleteDeltaLocations().get());
         assertEquals(actual.getCustomSplitInfo(), expected.getCustomSplitInfo());
     }
+
+    @Test
+    public void testCacheAffinityKey()
+    {
+        long chunkSize = new DataSize(64, MEGABYTE).toBytes();
+        String firstChunk = getCacheAffinityKey("path", 0);
+        assertEquals(getCacheAffinityKey("path", chunkSize - 1), firstChunk);
+        assertNotEquals(getCacheAffinityKey("path", chunkSize), firstChunk);
+        assertEquals(getCacheAffinityKey("path", 2 * chunkSize + 1), getCacheAffinityKey("path", 2 * chunkSize));
+        assertNotEquals(getCacheAffinityKey("other", 0), firstChunk);
+    }
+
+    private static String getCacheAffinityKey(String path, long start)
+    {
+        HiveSplit split = new HiveSplit(
+                "db",
+                "table",
+                "partitionId",
+                path,
+                start,
+                1024,
+                start + 1024,
+                0,
+                new Properties(),
+                ImmutableList.of(),
+                ImmutableList.of(),
+                OptionalInt.empty(),
+                false,
+                ImmutableMap.of(),
+                Optional.empty(),
+                false,
+                Optional.empty(),
+                Optional.empty(),
+                false,
+                ImmutableMap.of());
+        return HiveSplitWrapper.wrap(split).getCacheAffinityKey().get();
+    }
 }
@@ -302,6 +302,8 @@ public class TestHiveSplitSource
         }
 
         assertEquals(getSplits(hiveSplitSource, 10).size(), 5);
+        assertEquals(hiveSplitSource.getDynamicFilterPrunedSplits(), 5);
+        assertEquals(hiveSplitSource.getDynamicFilterPrunedBytes(), 500);
     }
 
     private static List<ConnectorSplit> getSplits(ConnectorSplitSource source, int maxSize)
@@ -0,0 +1,214 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive.filecache;
+
+import com.google.common.collect.ImmutableList;
+import io.airlift.units.DataSize;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.fs.RawLocalFileSystem;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.nio.file.Files.createTempDirectory;
+import static java.nio.file.Files.list;
+import static java.nio.file.Files.write;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class TestLocalFileCache
+{
+    private static final String QUERY_ID = "test_query";
+    private static final int PAGE_SIZE = 4 * 1024;
+
+    private java.nio.file.Path tempDirectory;
+    private RawLocalFileSystem fileSystem;
+    private Path path;
+    private byte[] data;
+
+    @BeforeMethod
+    public void setUp()
+            throws IOException
+    {
+        tempDirectory = createTempDirectory("local-file-cache");
+        fileSystem = new RawLocalFileSystem();
+        fileSystem.initialize(URI.create("file:///"), new Configuration());
+
+        // the file does not end at a page boundary
+        data = new byte[10 * PAGE_SIZE + 123];
+        ThreadLocalRandom.current().nextBytes(data);
+        java.nio.file.Path file = tempDirectory.resolve("data");
+        write(file, data);
+        path = new Path(file.toUri());
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown()
+            throws IOException
+    {
+        fileSystem.close();
+        deleteRecursively(tempDirectory, ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testReadThroughCache()
+            throws IOException
+    {
+        LocalFileCache cache = createCache(new DataSize(1, MEGABYTE));
+        LocalFileCacheStats stats = cache.getStats();
+
+        // unaligned read across several pages is fetched from the file and cached
+        assertRead(cache, PAGE_SIZE + 100, 3 * PAGE_SIZE);
+        assertEquals(stats.getRemoteReadBytes().getTotalCount(), 3 * PAGE_SIZE);
+        assertEquals(stats.getCachedReadBytes().getTotalCount(), 0);
+        assertEquals(cache.getSizeInBytes(), 4 * PAGE_SIZE);
+
+        // read inside the cached pages
+        assertRead(cache, 2 * PAGE_SIZE, PAGE_SIZE + 10);
+        assertEquals(stats.getCachedReadBytes().getTotalCount(), PAGE_SIZE + 10);
+        assertEquals(stats.getRemoteReadBytes().getTotalCount(), 3 * PAGE_SIZE);
+
+        // read of the whole file combines cached pages and remote reads, including the short last page
+        assertRead(cache, 0, data.length);
+        assertEquals(cache.getSizeInBytes(), data.length);
+        assertRead(cache, 0, data.length);
+
+        assertEquals(stats.getQueryBytesSaved(QUERY_ID), stats.getCachedReadBytes().getTotalCount());
+        assertTrue(stats.getQueryHitRatio(QUERY_ID) > 0.5);
+        assertEquals(stats.getQueryBytesSaved("unknown_query"), 0);
+    }
+
+    @Test
+    public void testModifiedFileIsNotServedFromCache()
+            throws IOException
+    {
+        LocalFileCache cache = createCache(new DataSize(1, MEGABYTE));
+        assertRead(cache, 0, PAGE_SIZE, 1);
+        assertRead(cache, 0, PAGE_SIZE, 2);
+        assertEquals(cache.getStats().getCachedReadBytes().getTotalCount(), 0);
+        assertEquals(cache.getStats().getRemoteReadBytes().getTotalCount(), 2 * PAGE_SIZE);
+    }
+
+    @Test
+    public void testEviction()
+            throws IOException
+    {
+        LocalFileCache cache = createCache(new DataSize(2 * PAGE_SIZE, BYTE));
+        assertRead(cache, 0, PAGE_SIZE);
+        assertRead(cache, PAGE_SIZE, PAGE_SIZE);
+        // page 0 is used again, so page 1 is the least recently used one
+        assertRead(cache, 0, PAGE_SIZE);
+        assertRead(cache, 2 * PAGE_SIZE, PAGE_SIZE);
+
+        assertEquals(cache.getSizeInBytes(), 2 * PAGE_SIZE);
+        assertEquals(cache.getStats().getEvictedPages().getTotalCount(), 1);
+        assertEquals(listCacheDirectory().size(), 2);
+
+        long cachedBytes = cache.getStats().getCachedReadBytes().getTotalCount();
+        assertRead(cache, 0, PAGE_SIZE);
+        assertEquals(cache.getStats().getCachedReadBytes().getTotalCount(), cachedBytes + PAGE_SIZE);
+        long remoteBytes = cache.getStats().getRemoteReadBytes().getTotalCount();
+        assertRead(cache, PAGE_SIZE, PAGE_SIZE);
+        assertEquals(cache.getStats().getRemoteReadBytes().getTotalCount(), remoteBytes + PAGE_SIZE);
+    }
+
+    @Test
+    public void testRestartDeletesOnlyPages()
+            throws IOException
+    {
+        LocalFileCache cache = createCache(new DataSize(1, MEGABYTE));
+        assertRead(cache, 0, 2 * PAGE_SIZE);
+        assertEquals(listCacheDirectory().size(), 2);
+        write(tempDirectory.resolve("cache").resolve("other"), new byte[] {1, 2, 3});
+
+        cache = createCache(new DataSize(1, MEGABYTE));
+        assertEquals(cache.getSizeInBytes(), 0);
+        assertEquals(listCacheDirectory(), ImmutableList.of("other"));
+
+        // the pages of the previous run are not served
+        assertRead(cache, 0, PAGE_SIZE);
+        assertEquals(cache.getStats().getCachedReadBytes().getTotalCount(), 0);
+    }
+
+    @Test
+    public void testSequentialRead()
+            throws IOException
+    {
+        LocalFileCache cache = createCache(new DataSize(1, MEGABYTE));
+        try (FSDataInputStream input = cache.wrap(fileSystem.open(path), path, data.length, 1, QUERY_ID)) {
+            input.seek(data.length - 200);
+            byte[] buffer = new byte[200];
+            input.readFully(buffer);
+            assertEquals(buffer, Arrays.copyOfRange(data, data.length - 200, data.length));
+            assertEquals(input.getPos(), data.length);
+            assertEquals(input.read(), -1);
+        }
+    }
+
+    @Test
+    public void testUnknownModificationTimeIsNotCached()
+            throws IOException
+    {
+        LocalFileCache cache = createCache(new DataSize(1, MEGABYTE));
+        FSDataInputStream input = fileSystem.open(path);
+        try (FSDataInputStream wrapped = cache.wrap(input, path, data.length, 0, QUERY_ID)) {
+            assertSame(wrapped, input);
+        }
+    }
+
+    private LocalFileCache createCache(DataSize maxSize)
+    {
+        return new LocalFileCache(tempDirectory.resolve("cache"), maxSize, new DataSize(PAGE_SIZE, BYTE), new LocalFileCacheStats());
+    }
+
+    private List<String> listCacheDirectory()
+            throws IOException
+    {
+        try (Stream<java.nio.file.Path> files = list(tempDirectory.resolve("cache"))) {
+            return files.map(file -> file.getFileName().toString())
+                    .collect(toImmutableList());
+        }
+    }
+
+    private void assertRead(LocalFileCache cache, long position, int length)
+            throws IOException
+    {
+        assertRead(cache, position, length, 1);
+    }
+
+    private void assertRead(LocalFileCache cache, long position, int length, long lastModifiedTime)
+            throws IOException
+    {
+        try (FSDataInputStream input = cache.wrap(fileSystem.open(path), path, data.length, lastModifiedTime, QUERY_ID)) {
+            byte[] buffer = new byte[length];
+            input.readFully(position, buffer, 0, length);
+            assertEquals(buffer, Arrays.copyOfRange(data, (int) position, (int) position + length));
+        }
+    }
+}
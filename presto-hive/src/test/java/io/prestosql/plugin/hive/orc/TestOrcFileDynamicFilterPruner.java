@@ -0,0 +1,139 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive.orc;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import io.prestosql.orc.OrcColumn;
+import io.prestosql.orc.OrcDataSourceId;
+import io.prestosql.orc.metadata.ColumnMetadata;
+import io.prestosql.orc.metadata.Footer;
+import io.prestosql.orc.metadata.OrcColumnId;
+import io.prestosql.orc.metadata.statistics.ColumnStatistics;
+import io.prestosql.orc.metadata.statistics.DateStatistics;
+import io.prestosql.orc.metadata.statistics.IntegerStatistics;
+import io.prestosql.plugin.hive.HiveColumnHandle;
+import io.prestosql.plugin.hive.HiveType;
+import io.prestosql.spi.dynamicfilter.DynamicFilter;
+import io.prestosql.spi.dynamicfilter.HashSetDynamicFilter;
+import org.testng.annotations.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static io.prestosql.orc.metadata.OrcType.OrcTypeKind.DATE;
+import static io.prestosql.orc.metadata.OrcType.OrcTypeKind.LONG;
+import static io.prestosql.orc.metadata.OrcType.OrcTypeKind.STRUCT;
+import static io.prestosql.plugin.hive.HiveColumnHandle.ColumnType.PARTITION_KEY;
+import static io.prestosql.plugin.hive.HiveColumnHandle.ColumnType.REGULAR;
+import static io.prestosql.plugin.hive.HiveType.HIVE_DATE;
+import static io.prestosql.plugin.hive.HiveType.HIVE_LONG;
+import static io.prestosql.plugin.hive.orc.OrcFileDynamicFilterPruner.isFilePruned;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestOrcFileDynamicFilterPruner
+{
+    private static final OrcDataSourceId DATA_SOURCE_ID = new OrcDataSourceId("test.orc");
+
+    @Test
+    public void testPrunedByIntegerStatistics()
+    {
+        Footer footer = footer(integerStatistics(100L, 200L), dateStatistics(18_000, 18_100));
+        OrcColumn root = rootColumn("orderkey", "orderdate");
+
+        assertTrue(isFilePruned(footer, root, filters(filter("orderkey", HIVE_LONG, REGULAR, 1L, 300L))));
+        assertTrue(isFilePruned(footer, root, filters(filter("orderkey", HIVE_LONG, REGULAR, 99L, 201L))));
+        assertFalse(isFilePruned(footer, root, filters(filter("orderkey", HIVE_LONG, REGULAR, 1L, 150L))));
+        // column names are matched case insensitively
+        assertTrue(isFilePruned(footer, rootColumn("OrderKey", "orderdate"), filters(filter("orderkey", HIVE_LONG, REGULAR, 1L))));
+    }
+
+    @Test
+    public void testPrunedByDateStatistics()
+    {
+        Footer footer = footer(integerStatistics(100L, 200L), dateStatistics(18_000, 18_100));
+        OrcColumn root = rootColumn("orderkey", "orderdate");
+
+        assertTrue(isFilePruned(footer, root, filters(filter("orderdate", HIVE_DATE, REGULAR, 17_000L))));
+        assertFalse(isFilePruned(footer, root, filters(filter("orderdate", HIVE_DATE, REGULAR, 18_050L))));
+    }
+
+    @Test
+    public void testEveryFilterMustMatch()
+    {
+        Footer footer = footer(integerStatistics(100L, 200L), dateStatistics(18_000, 18_100));
+        OrcColumn root = rootColumn("orderkey", "orderdate");
+
+        List<Set<DynamicFilter>> dynamicFilters = ImmutableList.of(
+                ImmutableSet.of(filter("orderkey", HIVE_LONG, REGULAR, 150L)),
+                ImmutableSet.of(filter("orderdate", HIVE_DATE, REGULAR, 17_000L)));
+        assertTrue(isFilePruned(footer, root, dynamicFilters));
+    }
+
+    @Test
+    public void testNotPruned()
+    {
+        Footer footer = footer(integerStatistics(100L, 200L), dateStatistics(18_000, 18_100));
+
+        // partition columns are not stored in the file
+        assertFalse(isFilePruned(footer, rootColumn("orderkey", "orderdate"), filters(filter("orderkey", HIVE_LONG, PARTITION_KEY, 1L))));
+        // positional column names of files written by older Hive versions
+        assertFalse(isFilePruned(footer, rootColumn("_col0", "_col1"), filters(filter("orderkey", HIVE_LONG, REGULAR, 1L))));
+        // no file statistics
+        Footer noStatistics = new Footer(10, 10_000, ImmutableList.of(), new ColumnMetadata<>(ImmutableList.of()), Optional.empty(), ImmutableMap.of());
+        assertFalse(isFilePruned(noStatistics, rootColumn("orderkey", "orderdate"), filters(filter("orderkey", HIVE_LONG, REGULAR, 1L))));
+        // no filters
+        assertFalse(isFilePruned(footer, rootColumn("orderkey", "orderdate"), ImmutableList.of()));
+    }
+
+    private static Footer footer(ColumnStatistics orderKeyStatistics, ColumnStatistics orderDateStatistics)
+    {
+        ColumnStatistics rootStatistics = new ColumnStatistics(10L, 0L, null, null, null, null, null, null, null, null);
+        ColumnMetadata<ColumnStatistics> fileStatistics = new ColumnMetadata<>(ImmutableList.of(rootStatistics, orderKeyStatistics, orderDateStatistics));
+        return new Footer(10, 10_000, ImmutableList.of(), new ColumnMetadata<>(ImmutableList.of()), Optional.of(fileStatistics), ImmutableMap.of());
+    }
+
+    private static OrcColumn rootColumn(String firstColumnName, String secondColumnName)
+    {
+        List<OrcColumn> columns = ImmutableList.of(
+                new OrcColumn(firstColumnName, new OrcColumnId(1), firstColumnName, LONG, DATA_SOURCE_ID, ImmutableList.of()),
+                new OrcColumn(secondColumnName, new OrcColumnId(2), secondColumnName, DATE, DATA_SOURCE_ID, ImmutableList.of()));
+        return new OrcColumn("", new OrcColumnId(0), "", STRUCT, DATA_SOURCE_ID, columns);
+    }
+
+    private static ColumnStatistics integerStatistics(Long minimum, Long maximum)
+    {
+        return new ColumnStatistics(10L, 9L, null, new IntegerStatistics(minimum, maximum, null), null, null, null, null, null, null);
+    }
+
+    private static ColumnStatistics dateStatistics(Integer minimum, Integer maximum)
+    {
+        return new ColumnStatistics(10L, 5L, null, null, null, null, new DateStatistics(minimum, maximum), null, null, null);
+    }
+
+    private static List<Set<DynamicFilter>> filters(DynamicFilter filter)
+    {
+        return ImmutableList.of(ImmutableSet.of(filter));
+    }
+
+    private static DynamicFilter filter(String columnName, HiveType hiveType, HiveColumnHandle.ColumnType columnType, Long... values)
+    {
+        HiveColumnHandle column = new HiveColumnHandle(columnName, hiveType, hiveType.getTypeSignature(), 0, columnType, Optional.empty());
+        return new HashSetDynamicFilter("filterId", column, new HashSet<>(ImmutableSet.copyOf(values)), DynamicFilter.Type.LOCAL);
+    }
+}
@@ -0,0 +1,293 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive.parquet;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.units.DataSize;
+import io.prestosql.plugin.hive.FileFormatDataSourceStats;
+import io.prestosql.plugin.hive.HiveColumnHandle;
+import io.prestosql.plugin.hive.HiveCompressionCodec;
+import io.prestosql.plugin.hive.HiveTypeTranslator;
+import io.prestosql.plugin.hive.benchmark.FileFormat;
+import io.prestosql.plugin.hive.benchmark.FormatWriter;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.PageBuilder;
+import io.prestosql.spi.connector.ConnectorPageSource;
+import io.prestosql.spi.predicate.Domain;
+import io.prestosql.spi.predicate.Range;
+import io.prestosql.spi.predicate.TupleDomain;
+import io.prestosql.spi.predicate.ValueSet;
+import io.prestosql.spi.type.Type;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapred.JobConf;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static io.prestosql.plugin.hive.HiveColumnHandle.ColumnType.REGULAR;
+import static io.prestosql.plugin.hive.HiveTestUtils.HDFS_ENVIRONMENT;
+import static io.prestosql.plugin.hive.HiveTestUtils.SESSION;
+import static io.prestosql.plugin.hive.HiveTestUtils.TYPE_MANAGER;
+import static io.prestosql.plugin.hive.HiveType.toHiveType;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.DoubleType.DOUBLE;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static java.nio.file.Files.createTempDirectory;
+import static java.util.UUID.randomUUID;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.joda.time.DateTimeZone.UTC;
+
+/**
+ * Reads a filter column and a payload column with and without the selective Parquet reader.
+ * Without it all values are decoded and the filter is left to the engine.
+ */
+@SuppressWarnings("MethodMayBeStatic")
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(2)
+@Warmup(iterations = 10, time = 500, timeUnit = MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = MILLISECONDS)
+@BenchmarkMode(Mode.AverageTime)
+public class BenchmarkParquetSelectiveColumnReaders
+{
+    public static final int ROWS = 5_000_000;
+
+    @Benchmark
+    public Object readBigintNoFilter(BigintBenchmarkData data)
+            throws Throwable
+    {
+        return readAllPages(data.createPageSource(TupleDomain.all()));
+    }
+
+    @Benchmark
+    public Object readBigintWithFilter(BigintBenchmarkData data)
+            throws Throwable
+    {
+        return readAllPages(data.createPageSource(data.createPredicate(Domain.create(ValueSet.ofRanges(Range.range(BIGINT, 0L, true, 1_000L, false)), false))));
+    }
+
+    @Benchmark
+    public Object readBigintWithNullsWithFilter(BigintWithNullBenchmarkData data)
+            throws Throwable
+    {
+        return readAllPages(data.createPageSource(data.createPredicate(Domain.create(ValueSet.ofRanges(Range.range(BIGINT, 0L, true, 1_000L, false)), false))));
+    }
+
+    @Benchmark
+    public Object readDictionaryVarcharWithFilter(VarcharDictionaryBenchmarkData data)
+            throws Throwable
+    {
+        return readAllPages(data.createPageSource(data.createPredicate(Domain.singleValue(VARCHAR, utf8Slice("value_7")))));
+    }
+
+    private static List<Page> readAllPages(ConnectorPageSource pageSource)
+            throws IOException
+    {
+        List<Page> pages = new ArrayList<>();
+        try {
+            while (!pageSource.isFinished()) {
+                Page page = pageSource.getNextPage();
+                if (page != null) {
+                    pages.add(page.getLoadedPage());
+                }
+            }
+        }
+        finally {
+            pageSource.close();
+        }
+        return pages;
+    }
+
+    private abstract static class BenchmarkData
+    {
+        protected final Random random = new Random(0);
+
+        @Param({"false", "true"})
+        private boolean selectiveReadEnabled;
+
+        private File temporaryDirectory;
+        private File parquetFile;
+        private List<HiveColumnHandle> columns;
+
+        public void setup(Type filterType)
+                throws Exception
+        {
+            temporaryDirectory = createTempDirectory(getClass().getName()).toFile();
+            parquetFile = new File(temporaryDirectory, randomUUID().toString());
+
+            List<String> columnNames = ImmutableList.of("filter_column", "payload");
+            List<Type> types = ImmutableList.of(filterType, DOUBLE);
+            try (FormatWriter writer = FileFormat.PRESTO_PARQUET.createFileFormatWriter(SESSION, parquetFile, columnNames, types, HiveCompressionCodec.NONE)) {
+                PageBuilder pageBuilder = new PageBuilder(types);
+                for (int row = 0; row < ROWS; row++) {
+                    pageBuilder.declarePosition();
+                    writeFilterValue(pageBuilder, row);
+                    DOUBLE.writeDouble(pageBuilder.getBlockBuilder(1), random.nextDouble());
+                    if (pageBuilder.isFull()) {
+                        writer.writePage(pageBuilder.build());
+                        pageBuilder.reset();
+                    }
+                }
+                if (!pageBuilder.isEmpty()) {
+                    writer.writePage(pageBuilder.build());
+                }
+            }
+
+            HiveTypeTranslator typeTranslator = new HiveTypeTranslator();
+            ImmutableList.Builder<HiveColumnHandle> columnsBuilder = ImmutableList.builder();
+            for (int i = 0; i < columnNames.size(); i++) {
+                columnsBuilder.add(new HiveColumnHandle(columnNames.get(i), toHiveType(typeTranslator, types.get(i)), types.get(i).getTypeSignature(), i, REGULAR, Optional.empty()));
+            }
+            columns = columnsBuilder.build();
+        }
+
+        @TearDown
+        public void tearDown()
+                throws IOException
+        {
+            deleteRecursively(temporaryDirectory.toPath(), ALLOW_INSECURE);
+        }
+
+        protected abstract void writeFilterValue(PageBuilder pageBuilder, int row);
+
+        public TupleDomain<HiveColumnHandle> createPredicate(Domain domain)
+        {
+            return TupleDomain.withColumnDomains(ImmutableMap.of(columns.get(0), domain));
+        }
+
+        public ConnectorPageSource createPageSource(TupleDomain<HiveColumnHandle> predicate)
+        {
+            JobConf configuration = new JobConf(new Configuration(false));
+            configuration.set("fs.file.impl", "org.apache.hadoop.fs.RawLocalFileSystem");
+            return ParquetPageSourceFactory.createParquetPageSource(
+                    HDFS_ENVIRONMENT,
+                    SESSION.getUser(),
+                    configuration,
+                    new Path(parquetFile.toURI()),
+                    0,
+                    parquetFile.length(),
+                    parquetFile.length(),
+                    new Properties(),
+                    columns,
+                    false,
+                    true,
+                    new DataSize(16, MEGABYTE),
+                    TYPE_MANAGER,
+                    predicate,
+                    new FileFormatDataSourceStats(),
+                    UTC,
+                    selectiveReadEnabled,
+                    true,
+                    true);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class BigintBenchmarkData
+            extends BenchmarkData
+    {
+        @Setup
+        public void setup()
+                throws Exception
+        {
+            setup(BIGINT);
+        }
+
+        @Override
+        protected void writeFilterValue(PageBuilder pageBuilder, int row)
+        {
+            BIGINT.writeLong(pageBuilder.getBlockBuilder(0), random.nextInt(100_000));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class BigintWithNullBenchmarkData
+            extends BenchmarkData
+    {
+        @Setup
+        public void setup()
+                throws Exception
+        {
+            setup(BIGINT);
+        }
+
+        @Override
+        protected void writeFilterValue(PageBuilder pageBuilder, int row)
+        {
+            if (random.nextBoolean()) {
+                pageBuilder.getBlockBuilder(0).appendNull();
+            }
+            else {
+                BIGINT.writeLong(pageBuilder.getBlockBuilder(0), random.nextInt(100_000));
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class VarcharDictionaryBenchmarkData
+            extends BenchmarkData
+    {
+        @Setup
+        public void setup()
+                throws Exception
+        {
+            setup(VARCHAR);
+        }
+
+        @Override
+        protected void writeFilterValue(PageBuilder pageBuilder, int row)
+        {
+            VARCHAR.writeSlice(pageBuilder.getBlockBuilder(0), utf8Slice("value_" + random.nextInt(100)));
+        }
+    }
+
+    public static void main(String[] args)
+            throws Throwable
+    {
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkParquetSelectiveColumnReaders.class.getSimpleName() + ".*")
+                .build();
+
+        new Runner(options).run();
+    }
+}
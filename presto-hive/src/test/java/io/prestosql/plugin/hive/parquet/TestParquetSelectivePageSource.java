@@ -0,0 +1,205 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.plugin.hive.parquet;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.airlift.units.DataSize;
+import io.prestosql.plugin.hive.FileFormatDataSourceStats;
+import io.prestosql.plugin.hive.HiveColumnHandle;
+import io.prestosql.plugin.hive.HiveCompressionCodec;
+import io.prestosql.plugin.hive.HiveTypeTranslator;
+import io.prestosql.plugin.hive.benchmark.FileFormat;
+import io.prestosql.plugin.hive.benchmark.FormatWriter;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.PageBuilder;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.connector.ConnectorPageSource;
+import io.prestosql.spi.predicate.Domain;
+import io.prestosql.spi.predicate.Range;
+import io.prestosql.spi.predicate.TupleDomain;
+import io.prestosql.spi.predicate.ValueSet;
+import io.prestosql.spi.type.Type;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.mapred.JobConf;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Random;
+
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static io.prestosql.plugin.hive.HiveColumnHandle.ColumnType.REGULAR;
+import static io.prestosql.plugin.hive.HiveTestUtils.HDFS_ENVIRONMENT;
+import static io.prestosql.plugin.hive.HiveTestUtils.SESSION;
+import static io.prestosql.plugin.hive.HiveTestUtils.TYPE_MANAGER;
+import static io.prestosql.plugin.hive.HiveType.toHiveType;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.DoubleType.DOUBLE;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static java.nio.file.Files.createTempDirectory;
+import static org.joda.time.DateTimeZone.UTC;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestParquetSelectivePageSource
+{
+    private static final int ROWS = 20_000;
+    private static final List<String> COLUMN_NAMES = ImmutableList.of("id", "category", "price");
+    private static final List<Type> TYPES = ImmutableList.of(BIGINT, VARCHAR, DOUBLE);
+    private static final List<String> CATEGORIES = ImmutableList.of("a", "b", "c", "d");
+
+    private File temporaryDirectory;
+    private File file;
+    private List<HiveColumnHandle> columns;
+
+    @BeforeClass
+    public void setUp()
+            throws Exception
+    {
+        temporaryDirectory = createTempDirectory(getClass().getSimpleName()).toFile();
+        file = new File(temporaryDirectory, "data.parquet");
+
+        Random random = new Random(0);
+        PageBuilder pageBuilder = new PageBuilder(TYPES);
+        for (int row = 0; row < ROWS; row++) {
+            pageBuilder.declarePosition();
+            if (row % 7 == 0) {
+                pageBuilder.getBlockBuilder(0).appendNull();
+            }
+            else {
+                BIGINT.writeLong(pageBuilder.getBlockBuilder(0), random.nextInt(100));
+            }
+            VARCHAR.writeSlice(pageBuilder.getBlockBuilder(1), utf8Slice(CATEGORIES.get(random.nextInt(CATEGORIES.size()))));
+            DOUBLE.writeDouble(pageBuilder.getBlockBuilder(2), random.nextDouble());
+        }
+        try (FormatWriter writer = FileFormat.PRESTO_PARQUET.createFileFormatWriter(SESSION, file, COLUMN_NAMES, TYPES, HiveCompressionCodec.NONE)) {
+            writer.writePage(pageBuilder.build());
+        }
+
+        HiveTypeTranslator typeTranslator = new HiveTypeTranslator();
+        ImmutableList.Builder<HiveColumnHandle> columnsBuilder = ImmutableList.builder();
+        for (int i = 0; i < COLUMN_NAMES.size(); i++) {
+            columnsBuilder.add(new HiveColumnHandle(COLUMN_NAMES.get(i), toHiveType(typeTranslator, TYPES.get(i)), TYPES.get(i).getTypeSignature(), i, REGULAR, Optional.empty()));
+        }
+        columns = columnsBuilder.build();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+            throws IOException
+    {
+        deleteRecursively(temporaryDirectory.toPath(), ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testSelectiveReadMatchesFilteredRows()
+    {
+        Domain idDomain = Domain.create(ValueSet.ofRanges(Range.range(BIGINT, 10L, true, 20L, false)), false);
+        Domain categoryDomain = Domain.multipleValues(VARCHAR, ImmutableList.of(utf8Slice("a"), utf8Slice("c")), false);
+        TupleDomain<HiveColumnHandle> predicate = TupleDomain.withColumnDomains(ImmutableMap.of(columns.get(0), idDomain, columns.get(1), categoryDomain));
+
+        List<List<Object>> expected = new ArrayList<>();
+        for (List<Object> row : readRows(predicate, false)) {
+            Long id = (Long) row.get(0);
+            if (id != null && id >= 10 && id < 20 && (row.get(1).equals("a") || row.get(1).equals("c"))) {
+                expected.add(row);
+            }
+        }
+        assertTrue(!expected.isEmpty());
+        assertEquals(readRows(predicate, true), expected);
+    }
+
+    @Test
+    public void testSelectiveReadWithNulls()
+    {
+        Domain idDomain = Domain.create(ValueSet.ofRanges(Range.greaterThan(BIGINT, 90L)), true);
+        TupleDomain<HiveColumnHandle> predicate = TupleDomain.withColumnDomains(ImmutableMap.of(columns.get(0), idDomain));
+
+        List<List<Object>> expected = new ArrayList<>();
+        for (List<Object> row : readRows(predicate, false)) {
+            Long id = (Long) row.get(0);
+            if (id == null || id > 90) {
+                expected.add(row);
+            }
+        }
+        assertEquals(readRows(predicate, true), expected);
+    }
+
+    @Test
+    public void testSelectiveReadWithoutMatches()
+    {
+        Domain priceDomain = Domain.create(ValueSet.ofRanges(Range.greaterThan(DOUBLE, 2.0)), false);
+        TupleDomain<HiveColumnHandle> predicate = TupleDomain.withColumnDomains(ImmutableMap.of(columns.get(2), priceDomain));
+
+        assertEquals(readRows(predicate, true), ImmutableList.of());
+    }
+
+    private List<List<Object>> readRows(TupleDomain<HiveColumnHandle> predicate, boolean selectiveReadEnabled)
+    {
+        JobConf configuration = new JobConf(new Configuration(false));
+        configuration.set("fs.file.impl", "org.apache.hadoop.fs.RawLocalFileSystem");
+        List<List<Object>> rows = new ArrayList<>();
+        try (ConnectorPageSource pageSource = ParquetPageSourceFactory.createParquetPageSource(
+                HDFS_ENVIRONMENT,
+                SESSION.getUser(),
+                configuration,
+                new Path(file.toURI()),
+                0,
+                file.length(),
+                file.length(),
+                new Properties(),
+                columns,
+                false,
+                true,
+                new DataSize(16, MEGABYTE),
+                TYPE_MANAGER,
+                predicate,
+                new FileFormatDataSourceStats(),
+                UTC,
+                selectiveReadEnabled,
+                true,
+                true)) {
+            while (!pageSource.isFinished()) {
+                Page page = pageSource.getNextPage();
+                if (page == null) {
+                    continue;
+                }
+                for (int position = 0; position < page.getPositionCount(); position++) {
+                    Object[] row = new Object[TYPES.size()];
+                    for (int channel = 0; channel < TYPES.size(); channel++) {
+                        Block block = page.getBlock(channel);
+                        row[channel] = TYPES.get(channel).getObjectValue(SESSION, block, position);
+                    }
+                    rows.add(Arrays.asList(row));
+                }
+            }
+        }
+        catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return rows;
+    }
+}
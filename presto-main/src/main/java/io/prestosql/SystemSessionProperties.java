@@ -17,6 +17,7 @@ import com.google.common.collect.ImmutableList;
 import io.airlift.log.Logger;
 import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
+import io.hetu.core.transport.execution.buffer.PageCompressionCodec;
 import io.prestosql.exchange.RetryPolicy;
 import io.prestosql.execution.QueryManagerConfig;
 import io.prestosql.execution.TaskManagerConfig;
@@ -67,6 +68,7 @@ public final class SystemSessionProperties
     public static final String OPTIMIZE_HASH_GENERATION = "optimize_hash_generation";
     public static final String JOIN_DISTRIBUTION_TYPE = "join_distribution_type";
     public static final String JOIN_MAX_BROADCAST_TABLE_SIZE = "join_max_broadcast_table_size";
+    public static final String ADAPTIVE_JOIN_DISTRIBUTION_ENABLED = "adaptive_join_distribution_enabled";
     public static final String DISTRIBUTED_INDEX_JOIN = "distributed_index_join";
     public static final String HASH_PARTITION_COUNT = "hash_partition_count";
     public static final String GROUPED_EXECUTION = "grouped_execution";
@@ -118,6 +120,12 @@ public final class SystemSessionProperties
     public static final String ITERATIVE_OPTIMIZER_TIMEOUT = "iterative_optimizer_timeout";
     public static final String ENABLE_FORCED_EXCHANGE_BELOW_GROUP_ID = "enable_forced_exchange_below_group_id";
     public static final String EXCHANGE_COMPRESSION = "exchange_compression";
+    public static final String EXCHANGE_POOLED_SERDE_BUFFERS = "exchange_pooled_serde_buffers";
+    public static final String EXCHANGE_COMPRESSION_CODEC = "exchange_compression_codec";
+    public static final String EXCHANGE_ADAPTIVE_COMPRESSION = "exchange_adaptive_compression";
+    public static final String EXCHANGE_ADAPTIVE_COMPRESSION_NETWORK_BANDWIDTH = "exchange_adaptive_compression_network_bandwidth";
+    public static final String EXCHANGE_LIGHTWEIGHT_ENCODINGS = "exchange_lightweight_encodings";
+    public static final String FLAT_GROUP_BY_HASH = "flat_group_by_hash";
     public static final String ENABLE_INTERMEDIATE_AGGREGATIONS = "enable_intermediate_aggregations";
     public static final String PUSH_AGGREGATION_THROUGH_JOIN = "push_aggregation_through_join";
     public static final String PUSH_PARTIAL_AGGREGATION_THROUGH_JOIN = "push_partial_aggregation_through_join";
@@ -155,6 +163,7 @@ public final class SystemSessionProperties
     public static final String DYNAMIC_FILTERING_DATA_TYPE = "dynamic_filtering_data_type";
     public static final String DYNAMIC_FILTERING_MAX_PER_DRIVER_SIZE = "dynamic_filtering_max_per_driver_size";
     public static final String DYNAMIC_FILTERING_BLOOM_FILTER_FPP = "dynamic_filtering_bloom_filter_fpp";
+    public static final String DYNAMIC_FILTERING_SPLIT_BLOCK_BLOOM_FILTER = "dynamic_filtering_split_block_bloom_filter";
     public static final String ENABLE_EXECUTION_PLAN_CACHE = "enable_execution_plan_cache";
     public static final String ENABLE_CROSS_REGION_DYNAMIC_FILTER = "cross_region_dynamic_filter_enabled";
     public static final String ENABLE_HEURISTICINDEX_FILTER = "heuristicindex_filter_enabled";
@@ -166,6 +175,8 @@ public final class SystemSessionProperties
     public static final String SPILL_REUSE_TABLESCAN = "spill_reuse_tablescan";
     public static final String SPILL_THRESHOLD_REUSE_TABLESCAN = "spill_threshold_reuse_tablescan";
     public static final String SORT_BASED_AGGREGATION_ENABLED = "sort_based_aggregation_enabled";
+    public static final String STREAMING_PARTIAL_AGGREGATION_ENABLED = "streaming_partial_aggregation_enabled";
+    public static final String EXCHANGE_HOT_KEY_DETECTION_ENABLED = "exchange_hot_key_detection_enabled";
     public static final String PRCNT_DRIVERS_FOR_PARTIAL_AGGR = "prcnt_drivers_for_partial_aggr";
     public static final String SPILL_TO_HDFS_ENABLED = "spill_to_hdfs_enabled";
     // CTE Optimization configurations
@@ -186,6 +197,8 @@ public final class SystemSessionProperties
     public static final String SKIP_ATTACHING_STATS_WITH_PLAN = "skip_attaching_stats_with_plan";
     public static final String SKIP_NON_APPLICABLE_RULES_ENABLED = "skip_non_applicable_rules_enabled";
     public static final String ELIMINATE_DUPLICATE_SPILL_FILES = "eliminate_duplicate_spill_files";
+    public static final String SNAPSHOT_INCREMENTAL_CAPTURE_ENABLED = "snapshot_incremental_capture_enabled";
+    public static final String SNAPSHOT_FULL_CAPTURE_INTERVAL = "snapshot_full_capture_interval";
     // Task Level Retry
     public static final String TASK_RETRY_ATTEMPTS_OVERALL = "task_retry_attempts_overall";
     public static final String TASK_RETRY_ATTEMPTS_PER_TASK = "task_retry_attempts_per_task";
@@ -196,6 +209,7 @@ public final class SystemSessionProperties
     public static final String FAULT_TOLERANT_EXECUTION_TARGET_TASK_INPUT_SIZE = "fault_tolerant_execution_target_task_input_size";
     public static final String FAULT_TOLERANT_EXECUTION_TARGET_TASK_SPLIT_COUNT = "fault_tolerant_execution_target_task_split_count";
     public static final String FAULT_TOLERANT_EXECUTION_PRESERVE_INPUT_PARTITIONS_IN_WRITE_STAGE = "fault_tolerant_execution_preserve_input_partitions_in_write_stage";
+    public static final String FAULT_TOLERANT_EXECUTION_ADAPTIVE_PARTITIONING_ENABLED = "fault_tolerant_execution_adaptive_partitioning_enabled";
     public static final String FAULT_TOLERANT_EXECUTION_MIN_TASK_SPLIT_COUNT = "fault_tolerant_execution_min_task_split_count";
     public static final String FAULT_TOLERANT_EXECUTION_MAX_TASK_SPLIT_COUNT = "fault_tolerant_execution_max_task_split_count";
     public static final String FAULT_TOLERANT_EXECUTION_TASK_MEMORY = "fault_tolerant_execution_task_memory";
@@ -293,6 +307,11 @@ public final class SystemSessionProperties
                         "Maximum estimated size of a table that can be broadcast when using automatic join type selection",
                         featuresConfig.getJoinMaxBroadcastTableSize(),
                         false),
+                booleanProperty(
+                        ADAPTIVE_JOIN_DISTRIBUTION_ENABLED,
+                        "Use build side sizes observed in earlier queries when choosing between broadcast and partitioned joins",
+                        featuresConfig.isAdaptiveJoinDistributionEnabled(),
+                        false),
                 booleanProperty(
                         DISTRIBUTED_INDEX_JOIN,
                         "Distribute index joins on join keys instead of executing inline",
@@ -605,6 +624,37 @@ public final class SystemSessionProperties
                         "Enable compression in exchanges",
                         featuresConfig.isExchangeCompressionEnabled(),
                         false),
+                booleanProperty(
+                        EXCHANGE_POOLED_SERDE_BUFFERS,
+                        "Reuse serialization buffers across pages in exchanges",
+                        featuresConfig.isExchangePooledSerdeBuffersEnabled(),
+                        false),
+                enumProperty(
+                        EXCHANGE_COMPRESSION_CODEC,
+                        "Codec used to compress pages in exchanges when compression is enabled",
+                        PageCompressionCodec.class,
+                        featuresConfig.getExchangeCompressionCodec(),
+                        false),
+                booleanProperty(
+                        EXCHANGE_ADAPTIVE_COMPRESSION,
+                        "Choose the exchange compression codec at runtime from the observed compression ratio and throughput",
+                        featuresConfig.isExchangeAdaptiveCompressionEnabled(),
+                        false),
+                dataSizeProperty(
+                        EXCHANGE_ADAPTIVE_COMPRESSION_NETWORK_BANDWIDTH,
+                        "Network bandwidth per second assumed by adaptive exchange compression",
+                        featuresConfig.getExchangeAdaptiveCompressionNetworkBandwidth(),
+                        false),
+                booleanProperty(
+                        EXCHANGE_LIGHTWEIGHT_ENCODINGS,
+                        "Bit pack integer columns and dictionary encode low cardinality columns in exchanges",
+                        featuresConfig.isExchangeLightweightEncodingsEnabled(),
+                        false),
+                booleanProperty(
+                        FLAT_GROUP_BY_HASH,
+                        "Store multi-channel group by keys in flat row-oriented records",
+                        featuresConfig.isFlatGroupByHashEnabled(),
+                        false),
                 booleanProperty(
                         ENABLE_INTERMEDIATE_AGGREGATIONS,
                         "Enable the use of intermediate aggregations",
@@ -764,6 +814,11 @@ public final class SystemSessionProperties
                         "Expected FPP for BloomFilter which is used in dynamic filtering",
                         featuresConfig.getDynamicFilteringBloomFilterFpp(),
                         false),
+                booleanProperty(
+                        DYNAMIC_FILTERING_SPLIT_BLOCK_BLOOM_FILTER,
+                        "Build BloomFilter used in dynamic filtering with the cache line blocked layout",
+                        featuresConfig.isDynamicFilteringSplitBlockBloomFilter(),
+                        false),
                 booleanProperty(
                         OPTIMIZE_DYNAMIC_FILTER_GENERATION,
                         "Generate dynamic filters based on the selectivity",
@@ -865,6 +920,16 @@ public final class SystemSessionProperties
                         "Enable sort based aggregation",
                         featuresConfig.isSortBasedAggregationEnabled(),
                         false),
+                booleanProperty(
+                        STREAMING_PARTIAL_AGGREGATION_ENABLED,
+                        "Use streaming partial aggregation when the input is known to be grouped on the grouping keys",
+                        featuresConfig.isStreamingPartialAggregationEnabled(),
+                        false),
+                booleanProperty(
+                        EXCHANGE_HOT_KEY_DETECTION_ENABLED,
+                        "Sample the partitioning keys of partitioned outputs and report hot keys",
+                        featuresConfig.isExchangeHotKeyDetectionEnabled(),
+                        false),
                 integerProperty(
                         PRCNT_DRIVERS_FOR_PARTIAL_AGGR,
                         "Sort based aggr, percentage of number of drivers that are used for not finalized values",
@@ -921,6 +986,16 @@ public final class SystemSessionProperties
                         "Eliminates back up of spill files",
                         recoveryConfig.isEliminateDuplicateSpillFilesEnabled(),
                         false),
+                booleanProperty(
+                        SNAPSHOT_INCREMENTAL_CAPTURE_ENABLED,
+                        "Capture only the changes since the previous snapshot for operators that support it",
+                        recoveryConfig.isSnapshotIncrementalCaptureEnabled(),
+                        false),
+                integerProperty(
+                        SNAPSHOT_FULL_CAPTURE_INTERVAL,
+                        "Number of snapshots after which an incremental state is compacted into a full one",
+                        recoveryConfig.getSnapshotFullCaptureInterval(),
+                        false),
                 enumProperty(
                         RETRY_POLICY,
                         "Retry policy",
@@ -984,6 +1059,11 @@ public final class SystemSessionProperties
                         "Ensure single task reads single hash partitioned input partition for stages which write table data",
                         queryManagerConfig.getFaultTolerantPreserveInputPartitionsInWriteStage(),
                         false),
+                booleanProperty(
+                        FAULT_TOLERANT_EXECUTION_ADAPTIVE_PARTITIONING_ENABLED,
+                        "Balance hash partitioned task inputs by their actual size, splitting oversized partitions where the plan allows it",
+                        queryManagerConfig.isFaultTolerantExecutionAdaptivePartitioningEnabled(),
+                        false),
                 integerProperty(
                         FAULT_TOLERANT_EXECUTION_MIN_TASK_SPLIT_COUNT,
                         "Minimal number of splits for a single fault tolerant task (count based)",
@@ -1133,6 +1213,11 @@ public final class SystemSessionProperties
         return Optional.ofNullable(session.getSystemProperty(JOIN_MAX_BROADCAST_TABLE_SIZE, DataSize.class));
     }
 
+    public static boolean isAdaptiveJoinDistributionEnabled(Session session)
+    {
+        return session.getSystemProperty(ADAPTIVE_JOIN_DISTRIBUTION_ENABLED, Boolean.class);
+    }
+
     public static boolean isDistributedIndexJoinEnabled(Session session)
     {
         return session.getSystemProperty(DISTRIBUTED_INDEX_JOIN, Boolean.class);
@@ -1397,6 +1482,36 @@ public final class SystemSessionProperties
         return session.getSystemProperty(EXCHANGE_COMPRESSION, Boolean.class);
     }
 
+    public static boolean isExchangePooledSerdeBuffersEnabled(Session session)
+    {
+        return session.getSystemProperty(EXCHANGE_POOLED_SERDE_BUFFERS, Boolean.class);
+    }
+
+    public static PageCompressionCodec getExchangeCompressionCodec(Session session)
+    {
+        return session.getSystemProperty(EXCHANGE_COMPRESSION_CODEC, PageCompressionCodec.class);
+    }
+
+    public static boolean isExchangeAdaptiveCompressionEnabled(Session session)
+    {
+        return session.getSystemProperty(EXCHANGE_ADAPTIVE_COMPRESSION, Boolean.class);
+    }
+
+    public static DataSize getExchangeAdaptiveCompressionNetworkBandwidth(Session session)
+    {
+        return session.getSystemProperty(EXCHANGE_ADAPTIVE_COMPRESSION_NETWORK_BANDWIDTH, DataSize.class);
+    }
+
+    public static boolean isExchangeLightweightEncodingsEnabled(Session session)
+    {
+        return session.getSystemProperty(EXCHANGE_LIGHTWEIGHT_ENCODINGS, Boolean.class);
+    }
+
+    public static boolean isFlatGroupByHashEnabled(Session session)
+    {
+        return session.getSystemProperty(FLAT_GROUP_BY_HASH, Boolean.class);
+    }
+
     public static boolean isEnableIntermediateAggregations(Session session)
     {
         return session.getSystemProperty(ENABLE_INTERMEDIATE_AGGREGATIONS, Boolean.class);
@@ -1581,6 +1696,11 @@ public final class SystemSessionProperties
         return session.getSystemProperty(DYNAMIC_FILTERING_BLOOM_FILTER_FPP, Double.class);
     }
 
+    public static boolean isDynamicFilteringSplitBlockBloomFilter(Session session)
+    {
+        return session.getSystemProperty(DYNAMIC_FILTERING_SPLIT_BLOCK_BLOOM_FILTER, Boolean.class);
+    }
+
     public static boolean isOptimizeDynamicFilterGeneration(Session session)
     {
         return session.getSystemProperty(OPTIMIZE_DYNAMIC_FILTER_GENERATION, Boolean.class);
@@ -1682,6 +1802,16 @@ public final class SystemSessionProperties
         return session.getSystemProperty(SORT_BASED_AGGREGATION_ENABLED, Boolean.class);
     }
 
+    public static boolean isStreamingPartialAggregationEnabled(Session session)
+    {
+        return session.getSystemProperty(STREAMING_PARTIAL_AGGREGATION_ENABLED, Boolean.class);
+    }
+
+    public static boolean isExchangeHotKeyDetectionEnabled(Session session)
+    {
+        return session.getSystemProperty(EXCHANGE_HOT_KEY_DETECTION_ENABLED, Boolean.class);
+    }
+
     public static int getPrcntDriversForPartialAggr(Session session)
     {
         return session.getSystemProperty(PRCNT_DRIVERS_FOR_PARTIAL_AGGR, Integer.class);
@@ -1722,6 +1852,16 @@ public final class SystemSessionProperties
         return session.getSystemProperty(ELIMINATE_DUPLICATE_SPILL_FILES, Boolean.class);
     }
 
+    public static boolean isSnapshotIncrementalCaptureEnabled(Session session)
+    {
+        return session.getSystemProperty(SNAPSHOT_INCREMENTAL_CAPTURE_ENABLED, Boolean.class);
+    }
+
+    public static int getSnapshotFullCaptureInterval(Session session)
+    {
+        return session.getSystemProperty(SNAPSHOT_FULL_CAPTURE_INTERVAL, Integer.class);
+    }
+
     public static RetryPolicy getRetryPolicy(Session session)
     {
         RetryPolicy retryPolicy = session.getSystemProperty(RETRY_POLICY, RetryPolicy.class);
@@ -1778,6 +1918,11 @@ public final class SystemSessionProperties
         return session.getSystemProperty(FAULT_TOLERANT_EXECUTION_PRESERVE_INPUT_PARTITIONS_IN_WRITE_STAGE, Boolean.class);
     }
 
+    public static boolean isFaultTolerantExecutionAdaptivePartitioningEnabled(Session session)
+    {
+        return session.getSystemProperty(FAULT_TOLERANT_EXECUTION_ADAPTIVE_PARTITIONING_ENABLED, Boolean.class);
+    }
+
     public static int getFaultTolerantExecutionMinTaskSplitCount(Session session)
     {
         return session.getSystemProperty(FAULT_TOLERANT_EXECUTION_MIN_TASK_SPLIT_COUNT, Integer.class);
@@ -13,6 +13,7 @@
  */
 package io.prestosql.connector;
 
+import io.prestosql.memory.LocalMemoryManager;
 import io.prestosql.spi.NodeManager;
 import io.prestosql.spi.PageIndexerFactory;
 import io.prestosql.spi.PageSorter;
@@ -22,11 +23,14 @@ import io.prestosql.spi.connector.ConnectorContext;
 import io.prestosql.spi.function.FunctionMetadataManager;
 import io.prestosql.spi.function.StandardFunctionResolution;
 import io.prestosql.spi.heuristicindex.IndexClient;
+import io.prestosql.spi.memory.ReclaimableMemoryConsumer;
 import io.prestosql.spi.metastore.HetuMetastore;
 import io.prestosql.spi.plan.FilterStatsCalculatorService;
 import io.prestosql.spi.relation.RowExpressionService;
 import io.prestosql.spi.type.TypeManager;
 
+import java.util.Optional;
+
 import static java.util.Objects.requireNonNull;
 
 public class ConnectorContextInstance
@@ -45,6 +49,7 @@ public class ConnectorContextInstance
     private final StandardFunctionResolution functionResolution;
     private final BlockEncodingSerde blockEncodingSerde;
     private final FilterStatsCalculatorService filterStatsCalculatorService;
+    private final Optional<LocalMemoryManager> localMemoryManager;
 
     public ConnectorContextInstance(
             NodeManager nodeManager,
@@ -58,7 +63,8 @@ public class ConnectorContextInstance
             FunctionMetadataManager functionMetadataManager,
             StandardFunctionResolution functionResolution,
             BlockEncodingSerde blockEncodingSerde,
-            FilterStatsCalculatorService filterStatsCalculatorService)
+            FilterStatsCalculatorService filterStatsCalculatorService,
+            Optional<LocalMemoryManager> localMemoryManager)
     {
         this.nodeManager = requireNonNull(nodeManager, "nodeManager is null");
         this.versionEmbedder = requireNonNull(versionEmbedder, "versionEmbedder is null");
@@ -72,6 +78,7 @@ public class ConnectorContextInstance
         this.functionResolution = requireNonNull(functionResolution, "functionResolution is null");
         this.blockEncodingSerde = requireNonNull(blockEncodingSerde, "blockEncodingSerde is null");
         this.filterStatsCalculatorService = requireNonNull(filterStatsCalculatorService, "filterStatsCalculatorService is null");
+        this.localMemoryManager = requireNonNull(localMemoryManager, "localMemoryManager is null");
     }
 
     @Override
@@ -145,4 +152,10 @@ public class ConnectorContextInstance
     {
         return filterStatsCalculatorService;
     }
+
+    @Override
+    public void registerReclaimableMemoryConsumer(ReclaimableMemoryConsumer consumer)
+    {
+        localMemoryManager.ifPresent(manager -> manager.registerReclaimableMemoryConsumer(consumer));
+    }
 }
@@ -31,6 +31,7 @@ import io.prestosql.cost.FilterStatsCalculator;
 import io.prestosql.execution.scheduler.NodeSchedulerConfig;
 import io.prestosql.heuristicindex.HeuristicIndexerManager;
 import io.prestosql.index.IndexManager;
+import io.prestosql.memory.LocalMemoryManager;
 import io.prestosql.metadata.Catalog;
 import io.prestosql.metadata.CatalogManager;
 import io.prestosql.metadata.FunctionAndTypeManager;
@@ -144,6 +145,7 @@ public class ConnectorManager
 
     private final AtomicBoolean stopped = new AtomicBoolean();
     private final Announcer announcer;
+    private final LocalMemoryManager localMemoryManager;
     private final ServerConfig serverConfig;
     private final NodeSchedulerConfig schedulerConfig;
 
@@ -181,7 +183,8 @@ public class ConnectorManager
             HeuristicIndexerManager heuristicIndexerManager,
             DomainTranslator domainTranslator,
             DeterminismEvaluator determinismEvaluator,
-            FilterStatsCalculator filterStatsCalculator)
+            FilterStatsCalculator filterStatsCalculator,
+            LocalMemoryManager localMemoryManager)
     {
         this.materializedViewPropertyManager = materializedViewPropertyManager;
         this.hetuMetaStoreManager = hetuMetaStoreManager;
@@ -209,6 +212,7 @@ public class ConnectorManager
         this.domainTranslator = domainTranslator;
         this.determinismEvaluator = determinismEvaluator;
         this.filterStatsCalculator = filterStatsCalculator;
+        this.localMemoryManager = localMemoryManager;
         this.tableProceduresRegistry = TableProceduresRegistry.getInstance();
         this.tableProceduresPropertyManager = TableProceduresPropertyManager.getInstance();
     }
@@ -476,7 +480,8 @@ public class ConnectorManager
                 metadataManager.getFunctionAndTypeManager(),
                 new FunctionResolution(metadataManager.getFunctionAndTypeManager()),
                 metadataManager.getFunctionAndTypeManager().getBlockEncodingSerde(),
-                new ConnectorFilterStatsCalculatorService(filterStatsCalculator));
+                new ConnectorFilterStatsCalculatorService(filterStatsCalculator),
+                Optional.ofNullable(localMemoryManager));
 
         try (ThreadContextClassLoader ignored = new ThreadContextClassLoader(factory.getClass().getClassLoader())) {
             Connector connector = factory.create(catalogName.getCatalogName(), properties, context);
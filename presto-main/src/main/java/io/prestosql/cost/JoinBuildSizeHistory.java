@@ -0,0 +1,446 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.cost;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMultiset;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Multiset;
+import io.prestosql.execution.QueryInfo;
+import io.prestosql.execution.StageInfo;
+import io.prestosql.operator.HashBuilderOperator;
+import io.prestosql.operator.OperatorStats;
+import io.prestosql.spi.connector.ConnectorTableHandle;
+import io.prestosql.spi.plan.AggregationNode;
+import io.prestosql.spi.plan.FilterNode;
+import io.prestosql.spi.plan.JoinNode;
+import io.prestosql.spi.plan.PlanNode;
+import io.prestosql.spi.plan.ProjectNode;
+import io.prestosql.spi.plan.Symbol;
+import io.prestosql.spi.plan.TableScanNode;
+import io.prestosql.spi.relation.RowExpression;
+import io.prestosql.spi.relation.VariableReferenceExpression;
+import io.prestosql.sql.planner.PlanFragment;
+import io.prestosql.sql.planner.iterative.Lookup;
+import io.prestosql.sql.planner.optimizations.PlanNodeSearcher;
+import io.prestosql.sql.planner.plan.ExchangeNode;
+import io.prestosql.sql.planner.plan.PlanFragmentId;
+import io.prestosql.sql.planner.plan.RemoteSourceNode;
+import org.weakref.jmx.Managed;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static io.prestosql.execution.QueryState.FINISHED;
+import static io.prestosql.spi.plan.AggregationNode.Step.FINAL;
+import static io.prestosql.spi.plan.AggregationNode.Step.INTERMEDIATE;
+import static io.prestosql.spi.plan.JoinNode.DistributionType.REPLICATED;
+import static io.prestosql.sql.planner.RowExpressionVariableInliner.inlineVariables;
+import static io.prestosql.sql.relational.OriginalExpressionUtils.isExpression;
+import static java.lang.Math.max;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.DAYS;
+
+/**
+ * Remembers how large the build side of a join actually was when it last ran.
+ * <p>
+ * Sizes are taken from the {@link HashBuilderOperator} input of finished (or failed) queries and
+ * keyed by a canonical form of the build side, so that the next plan with the same build side does
+ * not have to rely on table statistics alone when choosing between a broadcast and a partitioned join.
+ * The canonical form covers the scanned tables with their constraints, the filter predicates, the
+ * grouping keys and the expressions the join reads, with symbols replaced by the columns they are
+ * computed from. Anything that cannot be put in that form is not tracked.
+ */
+@ThreadSafe
+public class JoinBuildSizeHistory
+{
+    private static final int MAX_ENTRIES = 10_000;
+
+    private final Cache<BuildSideKey, Long> observedSizes = CacheBuilder.newBuilder()
+            .maximumSize(MAX_ENTRIES)
+            .expireAfterWrite(1, DAYS)
+            .build();
+
+    private final AtomicLong recordedJoins = new AtomicLong();
+    private final AtomicLong replicatedAdjustments = new AtomicLong();
+    private final AtomicLong partitionedAdjustments = new AtomicLong();
+
+    public OptionalLong getObservedSize(BuildSideKey buildSideKey)
+    {
+        Long size = observedSizes.getIfPresent(buildSideKey);
+        return size == null ? OptionalLong.empty() : OptionalLong.of(size);
+    }
+
+    /**
+     * @param complete whether the size covers the whole build side; partial sizes from failed
+     * queries are only used to raise what has been observed so far
+     */
+    public void record(BuildSideKey buildSideKey, long sizeInBytes, boolean complete)
+    {
+        if (complete) {
+            observedSizes.put(buildSideKey, sizeInBytes);
+        }
+        else {
+            observedSizes.asMap().merge(buildSideKey, sizeInBytes, Math::max);
+        }
+        recordedJoins.incrementAndGet();
+    }
+
+    public void recordAdjustment(JoinNode.DistributionType distributionType)
+    {
+        if (distributionType == REPLICATED) {
+            replicatedAdjustments.incrementAndGet();
+        }
+        else {
+            partitionedAdjustments.incrementAndGet();
+        }
+    }
+
+    public void queryFinished(QueryInfo queryInfo)
+    {
+        List<StageInfo> stages = StageInfo.getAllStages(queryInfo.getOutputStage()).stream()
+                .filter(stage -> stage.getPlan() != null)
+                .collect(toImmutableList());
+        Map<PlanFragmentId, PlanNode> fragmentRoots = stages.stream()
+                .map(StageInfo::getPlan)
+                .collect(toImmutableMap(PlanFragment::getId, PlanFragment::getRoot, (first, second) -> first));
+        Function<RemoteSourceNode, Optional<List<PlanNode>>> remoteSources = remoteSource -> {
+            List<PlanNode> sources = remoteSource.getSourceFragmentIds().stream()
+                    .map(fragmentRoots::get)
+                    .filter(Objects::nonNull)
+                    .collect(toImmutableList());
+            return sources.size() == remoteSource.getSourceFragmentIds().size() ? Optional.of(sources) : Optional.empty();
+        };
+        boolean complete = queryInfo.getState() == FINISHED;
+
+        for (StageInfo stage : stages) {
+            List<JoinNode> joins = PlanNodeSearcher.searchFrom(stage.getPlan().getRoot())
+                    .where(JoinNode.class::isInstance)
+                    .findAll();
+            for (JoinNode join : joins) {
+                Optional<BuildSideKey> buildSideKey = getBuildSideKey(join, Lookup.noLookup(), remoteSources);
+                if (!buildSideKey.isPresent() || !join.getDistributionType().isPresent()) {
+                    continue;
+                }
+                List<OperatorStats> builders = stage.getStageStats().getOperatorSummaries().stream()
+                        .filter(operator -> operator.getPlanNodeId().equals(join.getId()))
+                        .filter(operator -> operator.getOperatorType().equals(HashBuilderOperator.class.getSimpleName()))
+                        .collect(toImmutableList());
+                if (builders.isEmpty()) {
+                    continue;
+                }
+                long buildSize = builders.stream()
+                        .mapToLong(operator -> operator.getInputDataSize().toBytes())
+                        .sum();
+                if (join.getDistributionType().get() == REPLICATED) {
+                    // every task builds its own copy of a replicated build side
+                    buildSize /= max(1, stage.getStageStats().getTotalTasks());
+                }
+                if (complete || buildSize > 0) {
+                    record(buildSideKey.get(), buildSize, complete);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the key under which the size of the build side of the given join is tracked, or empty
+     * if the build side contains anything but scans, filters, projections and aggregations.
+     */
+    public static Optional<BuildSideKey> getBuildSideKey(JoinNode join, Lookup lookup)
+    {
+        return getBuildSideKey(join, lookup, remoteSource -> Optional.empty());
+    }
+
+    private static Optional<BuildSideKey> getBuildSideKey(JoinNode join, Lookup lookup, Function<RemoteSourceNode, Optional<List<PlanNode>>> remoteSources)
+    {
+        BuildSideCanonicalizer canonicalizer = new BuildSideCanonicalizer(lookup, remoteSources);
+        PlanNode buildSide = lookup.resolve(join.getRight());
+        if (!canonicalizer.visit(buildSide) || canonicalizer.tables.isEmpty()) {
+            return Optional.empty();
+        }
+        // the hash symbol is only added once the plan is distributed
+        ImmutableSet.Builder<Object> outputs = ImmutableSet.builder();
+        for (Symbol symbol : buildSide.getOutputSymbols()) {
+            if (join.getRightHashSymbol().map(symbol::equals).orElse(false)) {
+                continue;
+            }
+            Object canonical = canonicalizer.symbols.get(symbol);
+            if (canonical == null) {
+                return Optional.empty();
+            }
+            outputs.add(canonical);
+        }
+        return Optional.of(new BuildSideKey(canonicalizer.tables, canonicalizer.operations.build(), outputs.build()));
+    }
+
+    /**
+     * The canonical form of a build side. Two build sides have the same key only if they read the
+     * same tables with the same constraints, filters and aggregations and produce the same columns.
+     */
+    public static final class BuildSideKey
+    {
+        private final Set<String> tables;
+        private final Multiset<List<Object>> operations;
+        private final Set<Object> outputs;
+
+        private BuildSideKey(Set<String> tables, Multiset<List<Object>> operations, Set<Object> outputs)
+        {
+            this.tables = ImmutableSet.copyOf(requireNonNull(tables, "tables is null"));
+            this.operations = requireNonNull(operations, "operations is null");
+            this.outputs = requireNonNull(outputs, "outputs is null");
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            BuildSideKey other = (BuildSideKey) obj;
+            return tables.equals(other.tables) &&
+                    operations.equals(other.operations) &&
+                    outputs.equals(other.outputs);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(tables, operations, outputs);
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.join(",", tables);
+        }
+    }
+
+    private static final class BuildSideCanonicalizer
+    {
+        private final Lookup lookup;
+        private final Function<RemoteSourceNode, Optional<List<PlanNode>>> remoteSources;
+
+        private final Set<String> tables = new TreeSet<>();
+        private final ImmutableMultiset.Builder<List<Object>> operations = ImmutableMultiset.builder();
+        // a scanned column as "table.column", or the canonical expression a symbol is computed by
+        private final Map<Symbol, Object> symbols = new HashMap<>();
+
+        private BuildSideCanonicalizer(Lookup lookup, Function<RemoteSourceNode, Optional<List<PlanNode>>> remoteSources)
+        {
+            this.lookup = lookup;
+            this.remoteSources = remoteSources;
+        }
+
+        private boolean visit(PlanNode node)
+        {
+            PlanNode resolved = lookup.resolve(node);
+            if (resolved instanceof TableScanNode) {
+                return visitTableScan((TableScanNode) resolved);
+            }
+            if (resolved instanceof RemoteSourceNode) {
+                // the fragment boundary keeps the symbols of the exchange it replaced
+                Optional<List<PlanNode>> sources = remoteSources.apply((RemoteSourceNode) resolved);
+                return sources.isPresent() && sources.get().size() == 1 && visit(sources.get().get(0));
+            }
+            if (resolved instanceof ExchangeNode) {
+                return visitExchange((ExchangeNode) resolved);
+            }
+            if (resolved instanceof FilterNode) {
+                FilterNode filter = (FilterNode) resolved;
+                if (!visit(filter.getSource())) {
+                    return false;
+                }
+                Optional<RowExpression> predicate = canonicalize(filter.getPredicate());
+                predicate.ifPresent(expression -> operations.add(ImmutableList.of("filter", expression)));
+                return predicate.isPresent();
+            }
+            if (resolved instanceof ProjectNode) {
+                return visitProject((ProjectNode) resolved);
+            }
+            if (resolved instanceof AggregationNode) {
+                return visitAggregation((AggregationNode) resolved);
+            }
+            return false;
+        }
+
+        private boolean visitTableScan(TableScanNode tableScan)
+        {
+            if (!hasTableName(tableScan.getTable().getConnectorHandle())) {
+                return false;
+            }
+            String table = tableScan.getTable().getFullyQualifiedName();
+            tables.add(table);
+            tableScan.getAssignments().forEach((symbol, column) -> symbols.put(symbol, table + "." + column));
+
+            Optional<RowExpression> predicate = Optional.empty();
+            if (tableScan.getPredicate().isPresent()) {
+                predicate = canonicalize(tableScan.getPredicate().get());
+                if (!predicate.isPresent()) {
+                    return false;
+                }
+            }
+            operations.add(ImmutableList.of("scan", table, tableScan.getEnforcedConstraint(), predicate));
+            return true;
+        }
+
+        private boolean visitExchange(ExchangeNode exchange)
+        {
+            if (exchange.getSources().size() != 1 || !visit(exchange.getSources().get(0))) {
+                return false;
+            }
+            List<Symbol> inputs = exchange.getInputs().get(0);
+            for (int i = 0; i < exchange.getOutputSymbols().size(); i++) {
+                Object canonical = symbols.get(inputs.get(i));
+                if (canonical != null) {
+                    symbols.put(exchange.getOutputSymbols().get(i), canonical);
+                }
+            }
+            return true;
+        }
+
+        private boolean visitProject(ProjectNode project)
+        {
+            if (!visit(project.getSource())) {
+                return false;
+            }
+            for (Map.Entry<Symbol, RowExpression> assignment : project.getAssignments().getMap().entrySet()) {
+                RowExpression expression = assignment.getValue();
+                Object canonical;
+                if (expression instanceof VariableReferenceExpression) {
+                    canonical = symbols.get(new Symbol(((VariableReferenceExpression) expression).getName()));
+                }
+                else {
+                    canonical = canonicalize(expression).orElse(null);
+                }
+                // projections the join does not read are not part of the key
+                if (canonical != null) {
+                    symbols.put(assignment.getKey(), canonical);
+                }
+            }
+            return true;
+        }
+
+        private boolean visitAggregation(AggregationNode aggregation)
+        {
+            if (aggregation.getGroupingSetCount() != 1 || !visit(aggregation.getSource())) {
+                return false;
+            }
+            if (aggregation.getStep() == FINAL || aggregation.getStep() == INTERMEDIATE) {
+                // partial and final aggregations collapse into the partial one, so logical and distributed plans agree
+                for (Map.Entry<Symbol, AggregationNode.Aggregation> entry : aggregation.getAggregations().entrySet()) {
+                    List<RowExpression> arguments = entry.getValue().getArguments();
+                    if (arguments.size() == 1 && arguments.get(0) instanceof VariableReferenceExpression) {
+                        Object canonical = symbols.get(new Symbol(((VariableReferenceExpression) arguments.get(0)).getName()));
+                        if (canonical != null) {
+                            symbols.put(entry.getKey(), canonical);
+                        }
+                    }
+                }
+                return true;
+            }
+
+            ImmutableSet.Builder<Object> groupingKeys = ImmutableSet.builder();
+            for (Symbol groupingKey : aggregation.getGroupingKeys()) {
+                Object canonical = symbols.get(groupingKey);
+                if (canonical == null) {
+                    return false;
+                }
+                groupingKeys.add(canonical);
+            }
+            operations.add(ImmutableList.of("aggregation", groupingKeys.build()));
+            for (Map.Entry<Symbol, AggregationNode.Aggregation> entry : aggregation.getAggregations().entrySet()) {
+                canonicalize(entry.getValue().getFunctionCall()).ifPresent(canonical -> symbols.put(entry.getKey(), canonical));
+            }
+            return true;
+        }
+
+        private Optional<RowExpression> canonicalize(RowExpression expression)
+        {
+            if (isExpression(expression)) {
+                return Optional.empty();
+            }
+            boolean[] resolved = {true};
+            RowExpression canonical = inlineVariables(variable -> {
+                Object symbol = symbols.get(new Symbol(variable.getName()));
+                if (symbol instanceof String) {
+                    return new VariableReferenceExpression((String) symbol, variable.getType());
+                }
+                if (symbol == null) {
+                    resolved[0] = false;
+                    return variable;
+                }
+                return (RowExpression) symbol;
+            }, expression);
+            return resolved[0] ? Optional.of(canonical) : Optional.empty();
+        }
+    }
+
+    private static boolean hasTableName(ConnectorTableHandle handle)
+    {
+        // the defaults of both methods fail for connectors that do not provide the table name
+        return overridesDefault(handle, "getSchemaPrefixedTableName") || overridesDefault(handle, "getTableName");
+    }
+
+    private static boolean overridesDefault(ConnectorTableHandle handle, String methodName)
+    {
+        try {
+            return handle.getClass().getMethod(methodName).getDeclaringClass() != ConnectorTableHandle.class;
+        }
+        catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    @Managed
+    public long getTrackedBuildSides()
+    {
+        return observedSizes.size();
+    }
+
+    @Managed
+    public long getRecordedJoins()
+    {
+        return recordedJoins.get();
+    }
+
+    @Managed
+    public long getReplicatedAdjustments()
+    {
+        return replicatedAdjustments.get();
+    }
+
+    @Managed
+    public long getPartitionedAdjustments()
+    {
+        return partitionedAdjustments.get();
+    }
+}
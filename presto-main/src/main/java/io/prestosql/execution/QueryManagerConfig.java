@@ -85,6 +85,7 @@ public class QueryManagerConfig
     private DataSize faultTolerantExecutionTargetTaskInputSize = new DataSize(4, GIGABYTE);
     private int faultTolerantExecutionTargetTaskSplitCount = 64;
     private boolean faultTolerantPreserveInputPartitionsInWriteStage = true;
+    private boolean faultTolerantExecutionAdaptivePartitioningEnabled;
     private int faultTolerantExecutionMinTaskSplitCount = 16;
     private int faultTolerantExecutionMaxTaskSplitCount = 256;
     private int faultTolerantExecutionPartitionCount = 50;
@@ -519,6 +520,19 @@ public class QueryManagerConfig
         return this;
     }
 
+    public boolean isFaultTolerantExecutionAdaptivePartitioningEnabled()
+    {
+        return faultTolerantExecutionAdaptivePartitioningEnabled;
+    }
+
+    @Config("fault-tolerant-execution-adaptive-partitioning-enabled")
+    @ConfigDescription("Balance hash partitioned task inputs by their actual size, splitting oversized partitions where the plan allows it")
+    public QueryManagerConfig setFaultTolerantExecutionAdaptivePartitioningEnabled(boolean faultTolerantExecutionAdaptivePartitioningEnabled)
+    {
+        this.faultTolerantExecutionAdaptivePartitioningEnabled = faultTolerantExecutionAdaptivePartitioningEnabled;
+        return this;
+    }
+
     @Min(1)
     public int getFaultTolerantExecutionMinTaskSplitCount()
     {
@@ -528,6 +528,9 @@ public class QueryStateMachine
         long physicalWrittenDataSize = 0;
         long failedPhysicalWrittenDataSize = 0;
 
+        long dynamicFilterPrunedSplits = 0;
+        long dynamicFilterPrunedDataSize = 0;
+
         long inputBlockedTime = 0;
         long failedInputBlockedTime = 0;
         long outputBlockedTime = 0;
@@ -594,6 +597,9 @@ public class QueryStateMachine
             physicalWrittenDataSize += stageStats.getPhysicalWrittenDataSize().toBytes();
             failedPhysicalWrittenDataSize += stageStats.getFailedPhysicalWrittenDataSize().toBytes();
 
+            dynamicFilterPrunedSplits += stageStats.getDynamicFilterPrunedSplits();
+            dynamicFilterPrunedDataSize += stageStats.getDynamicFilterPrunedDataSize().toBytes();
+
             inputBlockedTime += stageStats.getInputBlockedTime().roundTo(NANOSECONDS);
             failedInputBlockedTime += stageStats.getFailedInputBlockedTime().roundTo(NANOSECONDS);
 
@@ -691,6 +697,9 @@ public class QueryStateMachine
                 succinctBytes(physicalWrittenDataSize),
                 succinctBytes(failedPhysicalWrittenDataSize),
 
+                dynamicFilterPrunedSplits,
+                succinctBytes(dynamicFilterPrunedDataSize),
+
                 stageGcStatistics.build(),
 
                 operatorStatsSummary.build(),
@@ -1318,6 +1327,8 @@ public class QueryStateMachine
                 queryStats.getFailedOutputPositions(),
                 queryStats.getPhysicalWrittenDataSize(),
                 queryStats.getFailedPhysicalWrittenDataSize(),
+                queryStats.getDynamicFilterPrunedSplits(),
+                queryStats.getDynamicFilterPrunedDataSize(),
                 queryStats.getStageGcStatistics(),
                 ImmutableList.of(), // Remove the operator summaries as OperatorInfo (especially ExchangeClientStatus) can hold onto a large amount of memory
                 queryStats.getInputBlockedTime(),
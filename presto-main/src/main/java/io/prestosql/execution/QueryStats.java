@@ -117,6 +117,9 @@ public class QueryStats
     private final DataSize physicalWrittenDataSize;
     private final DataSize failedPhysicalWrittenDataSize;
 
+    private final long dynamicFilterPrunedSplits;
+    private final DataSize dynamicFilterPrunedDataSize;
+
     private final List<StageGcStatistics> stageGcStatistics;
 
     private final List<OperatorStats> operatorSummaries;
@@ -205,6 +208,9 @@ public class QueryStats
             @JsonProperty("physicalWrittenDataSize") DataSize physicalWrittenDataSize,
             @JsonProperty("failedPhysicalWrittenDataSize") DataSize failedPhysicalWrittenDataSize,
 
+            @JsonProperty("dynamicFilterPrunedSplits") long dynamicFilterPrunedSplits,
+            @JsonProperty("dynamicFilterPrunedDataSize") DataSize dynamicFilterPrunedDataSize,
+
             @JsonProperty("stageGcStatistics") List<StageGcStatistics> stageGcStatistics,
 
             @JsonProperty("operatorSummaries") List<OperatorStats> operatorSummaries,
@@ -309,6 +315,10 @@ public class QueryStats
         this.physicalWrittenDataSize = requireNonNull(physicalWrittenDataSize, "physicalWrittenDataSize is null");
         this.failedPhysicalWrittenDataSize = requireNonNull(failedPhysicalWrittenDataSize, "failedPhysicalWrittenDataSize is null");
 
+        checkArgument(dynamicFilterPrunedSplits >= 0, "dynamicFilterPrunedSplits is negative");
+        this.dynamicFilterPrunedSplits = dynamicFilterPrunedSplits;
+        this.dynamicFilterPrunedDataSize = requireNonNull(dynamicFilterPrunedDataSize, "dynamicFilterPrunedDataSize is null");
+
         this.stageGcStatistics = ImmutableList.copyOf(requireNonNull(stageGcStatistics, "stageGcStatistics is null"));
 
         this.operatorSummaries = ImmutableList.copyOf(requireNonNull(operatorSummaries, "operatorSummaries is null"));
@@ -710,6 +720,18 @@ public class QueryStats
         return failedPhysicalWrittenDataSize;
     }
 
+    @JsonProperty
+    public long getDynamicFilterPrunedSplits()
+    {
+        return dynamicFilterPrunedSplits;
+    }
+
+    @JsonProperty
+    public DataSize getDynamicFilterPrunedDataSize()
+    {
+        return dynamicFilterPrunedDataSize;
+    }
+
     @JsonProperty
     public long getWrittenPositions()
     {
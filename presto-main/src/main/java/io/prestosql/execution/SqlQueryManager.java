@@ -24,6 +24,7 @@ import io.airlift.log.Logger;
 import io.airlift.units.Duration;
 import io.prestosql.ExceededCpuLimitException;
 import io.prestosql.Session;
+import io.prestosql.cost.JoinBuildSizeHistory;
 import io.prestosql.event.QueryMonitor;
 import io.prestosql.execution.QueryExecution.QueryOutputInfo;
 import io.prestosql.execution.StateMachine.StateChangeListener;
@@ -104,15 +105,17 @@ public class SqlQueryManager
     private final StateStoreProvider stateStoreProvider;
     private final SessionPropertyManager sessionPropertyManager;
     private final QueryHistoryService queryHistoryService;
+    private final JoinBuildSizeHistory joinBuildSizeHistory;
 
     // Inject LocalStateProvider
     @Inject
-    public SqlQueryManager(ClusterMemoryManager memoryManager, QueryMonitor queryMonitor, EmbedVersion embedVersion, QueryManagerConfig queryManagerConfig, StateStoreProvider stateStoreProvider, SessionPropertyManager sessionPropertyManager, QueryHistoryService queryHistoryService)
+    public SqlQueryManager(ClusterMemoryManager memoryManager, QueryMonitor queryMonitor, EmbedVersion embedVersion, QueryManagerConfig queryManagerConfig, StateStoreProvider stateStoreProvider, SessionPropertyManager sessionPropertyManager, QueryHistoryService queryHistoryService, JoinBuildSizeHistory joinBuildSizeHistory)
     {
         this.memoryManager = requireNonNull(memoryManager, "memoryManager is null");
         this.queryMonitor = requireNonNull(queryMonitor, "queryMonitor is null");
         this.embedVersion = requireNonNull(embedVersion, "embedVersion is null");
         this.queryHistoryService = requireNonNull(queryHistoryService, "embedVersion is null");
+        this.joinBuildSizeHistory = requireNonNull(joinBuildSizeHistory, "joinBuildSizeHistory is null");
 
         this.maxQueryCpuTime = queryManagerConfig.getQueryMaxCpuTime();
 
@@ -291,6 +294,7 @@ public class SqlQueryManager
                 }
             });
 
+            queryExecution.addFinalQueryInfoListener(joinBuildSizeHistory::queryFinished);
             stats.trackQueryStats(queryExecution);
         }
 
@@ -710,6 +710,11 @@ public final class SqlStageExecution
         stateMachine.recordGetSplitTime(start);
     }
 
+    public void recordDynamicFilterPruning(long prunedSplits, long prunedBytes)
+    {
+        stateMachine.recordDynamicFilterPruning(prunedSplits, prunedBytes);
+    }
+
     private static Split newConnectSplit(TaskId taskId, RemoteTask sourceTask)
     {
         return createRemoteSplitFor(taskId, sourceTask.getInstanceId(), sourceTask.getTaskStatus().getSelf());
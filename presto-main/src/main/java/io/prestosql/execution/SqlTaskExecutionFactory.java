@@ -13,11 +13,19 @@
  */
 package io.prestosql.execution;
 
+import com.google.common.collect.ImmutableList;
 import io.airlift.concurrent.SetThreadName;
 import io.airlift.log.Logger;
+import io.hetu.core.transport.block.LightweightBlockEncodingSerde;
+import io.hetu.core.transport.execution.buffer.AdaptivePageCompressionPolicy;
+import io.hetu.core.transport.execution.buffer.FixedPageCompressionPolicy;
+import io.hetu.core.transport.execution.buffer.PageCompressionCodec;
+import io.hetu.core.transport.execution.buffer.PageCompressionPolicy;
+import io.hetu.core.transport.execution.buffer.PageCompressionStats;
 import io.hetu.core.transport.execution.buffer.PagesSerdeFactory;
 import io.prestosql.Session;
 import io.prestosql.event.SplitMonitor;
+import io.prestosql.execution.buffer.ExchangeCompressionStats;
 import io.prestosql.execution.buffer.OutputBuffer;
 import io.prestosql.execution.executor.TaskExecutor;
 import io.prestosql.memory.QueryContext;
@@ -25,6 +33,7 @@ import io.prestosql.metadata.Metadata;
 import io.prestosql.operator.CommonTableExecutionContext;
 import io.prestosql.operator.TaskContext;
 import io.prestosql.spi.PrestoException;
+import io.prestosql.spi.block.BlockEncodingSerde;
 import io.prestosql.spi.plan.PlanNodeId;
 import io.prestosql.sql.planner.LocalExecutionPlanner;
 import io.prestosql.sql.planner.LocalExecutionPlanner.LocalExecutionPlan;
@@ -44,9 +53,14 @@ import java.util.OptionalInt;
 import java.util.concurrent.Executor;
 
 import static com.google.common.base.Throwables.throwIfUnchecked;
+import static io.prestosql.SystemSessionProperties.getExchangeAdaptiveCompressionNetworkBandwidth;
+import static io.prestosql.SystemSessionProperties.getExchangeCompressionCodec;
 import static io.prestosql.SystemSessionProperties.getExtensionExecutionPlannerClassPath;
 import static io.prestosql.SystemSessionProperties.getExtensionExecutionPlannerJarPath;
+import static io.prestosql.SystemSessionProperties.isExchangeAdaptiveCompressionEnabled;
 import static io.prestosql.SystemSessionProperties.isExchangeCompressionEnabled;
+import static io.prestosql.SystemSessionProperties.isExchangeLightweightEncodingsEnabled;
+import static io.prestosql.SystemSessionProperties.isExchangePooledSerdeBuffersEnabled;
 import static io.prestosql.SystemSessionProperties.isExtensionExecutionPlannerEnabled;
 import static io.prestosql.execution.SqlTaskExecution.createSqlTaskExecution;
 import static io.prestosql.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
@@ -66,6 +80,7 @@ public class SqlTaskExecutionFactory
     private final boolean perOperatorCpuTimerEnabled;
     private final boolean cpuTimerEnabled;
     private final Metadata metadata;
+    private final ExchangeCompressionStats exchangeCompressionStats;
 
     public SqlTaskExecutionFactory(
             Executor taskNotificationExecutor,
@@ -74,6 +89,18 @@ public class SqlTaskExecutionFactory
             SplitMonitor splitMonitor,
             TaskManagerConfig config,
             Metadata metadata)
+    {
+        this(taskNotificationExecutor, taskExecutor, planner, splitMonitor, config, metadata, new ExchangeCompressionStats());
+    }
+
+    public SqlTaskExecutionFactory(
+            Executor taskNotificationExecutor,
+            TaskExecutor taskExecutor,
+            LocalExecutionPlanner planner,
+            SplitMonitor splitMonitor,
+            TaskManagerConfig config,
+            Metadata metadata,
+            ExchangeCompressionStats exchangeCompressionStats)
     {
         this.taskNotificationExecutor = requireNonNull(taskNotificationExecutor, "taskNotificationExecutor is null");
         this.taskExecutor = requireNonNull(taskExecutor, "taskExecutor is null");
@@ -83,6 +110,7 @@ public class SqlTaskExecutionFactory
         this.perOperatorCpuTimerEnabled = config.isPerOperatorCpuTimerEnabled();
         this.cpuTimerEnabled = config.isTaskCpuTimerEnabled();
         this.metadata = metadata;
+        this.exchangeCompressionStats = requireNonNull(exchangeCompressionStats, "exchangeCompressionStats is null");
     }
 
     public SqlTaskExecution create(String taskInstanceId, Session session, QueryContext queryContext, TaskStateMachine taskStateMachine, OutputBuffer outputBuffer, PlanFragment fragment, List<TaskSource> sources, OptionalInt totalPartitions, Optional<PlanNodeId> consumer,
@@ -96,8 +124,8 @@ public class SqlTaskExecutionFactory
                 cpuTimerEnabled,
                 totalPartitions,
                 consumer,
-                new PagesSerdeFactory(metadata.getFunctionAndTypeManager().getBlockEncodingSerde(), isExchangeCompressionEnabled(session)),
-                new PagesSerdeFactory(metadata.getFunctionAndTypeManager().getBlockKryoEncodingSerde(), isExchangeCompressionEnabled(session)));
+                new PagesSerdeFactory(createExchangeBlockEncodingSerde(session), createExchangeCompressionPolicy(session), isExchangePooledSerdeBuffersEnabled(session)),
+                new PagesSerdeFactory(metadata.getFunctionAndTypeManager().getBlockKryoEncodingSerde(), createExchangeCompressionPolicy(session), isExchangePooledSerdeBuffersEnabled(session)));
 
         LocalExecutionPlan localExecutionPlan = null;
         try (SetThreadName ignored = new SetThreadName("Task-%s", taskStateMachine.getTaskId())) {
@@ -145,6 +173,32 @@ public class SqlTaskExecutionFactory
                 queryPriorityTag);
     }
 
+    private BlockEncodingSerde createExchangeBlockEncodingSerde(Session session)
+    {
+        BlockEncodingSerde blockEncodingSerde = metadata.getFunctionAndTypeManager().getBlockEncodingSerde();
+        if (isExchangeLightweightEncodingsEnabled(session)) {
+            // only the writer needs to opt in, the packed encodings are registered with every serde
+            return new LightweightBlockEncodingSerde(blockEncodingSerde);
+        }
+        return blockEncodingSerde;
+    }
+
+    private PageCompressionPolicy createExchangeCompressionPolicy(Session session)
+    {
+        // the policy is shared by all drivers of the task, so adaptive compression learns from all pages the task sends
+        Optional<PageCompressionStats> stats = Optional.of(exchangeCompressionStats.getPageCompressionStats());
+        if (!isExchangeCompressionEnabled(session)) {
+            return new FixedPageCompressionPolicy(PageCompressionCodec.NONE, stats);
+        }
+        if (isExchangeAdaptiveCompressionEnabled(session)) {
+            return new AdaptivePageCompressionPolicy(
+                    ImmutableList.of(PageCompressionCodec.LZ4, PageCompressionCodec.SNAPPY, PageCompressionCodec.ZSTD),
+                    getExchangeAdaptiveCompressionNetworkBandwidth(session).toBytes(),
+                    stats);
+        }
+        return new FixedPageCompressionPolicy(getExchangeCompressionCodec(session), stats);
+    }
+
     @Nullable
     private LocalExecutionPlan loadExtensionLocalExecutionPlan(OutputBuffer outputBuffer, PlanFragment fragment, TaskContext taskContext, Map<String, CommonTableExecutionContext> cteCtx, String jarPath, String classPath)
     {
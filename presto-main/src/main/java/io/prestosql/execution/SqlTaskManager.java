@@ -32,6 +32,7 @@ import io.prestosql.event.SplitMonitor;
 import io.prestosql.exchange.ExchangeManagerRegistry;
 import io.prestosql.execution.StateMachine.StateChangeListener;
 import io.prestosql.execution.buffer.BufferResult;
+import io.prestosql.execution.buffer.ExchangeCompressionStats;
 import io.prestosql.execution.buffer.OutputBuffers;
 import io.prestosql.execution.buffer.OutputBuffers.OutputBufferId;
 import io.prestosql.execution.executor.TaskExecutor;
@@ -128,6 +129,7 @@ public class SqlTaskManager
     private String coordinatorId;
 
     private final CounterStat failedTasks = new CounterStat();
+    private final ExchangeCompressionStats exchangeCompressionStats = new ExchangeCompressionStats();
 
     private static final Map<String, CommonTableExecutionContext> cteCtx = new ConcurrentHashMap<>();
 
@@ -170,7 +172,7 @@ public class SqlTaskManager
         this.taskManagementExecutor = requireNonNull(taskManagementExecutor, "taskManagementExecutor cannot be null").getExecutor();
         this.driverYieldExecutor = newScheduledThreadPool(config.getTaskYieldThreads(), threadsNamed("task-yield-%s"));
 
-        SqlTaskExecutionFactory localSqlTaskExecutionFactory = new SqlTaskExecutionFactory(taskNotificationExecutor, taskExecutor, planner, splitMonitor, config, metadata);
+        SqlTaskExecutionFactory localSqlTaskExecutionFactory = new SqlTaskExecutionFactory(taskNotificationExecutor, taskExecutor, planner, splitMonitor, config, metadata, exchangeCompressionStats);
 
         this.localMemoryManager = requireNonNull(localMemoryManager, "localMemoryManager is null");
         DataSize maxQueryUserMemoryPerNode = nodeMemoryConfig.getMaxQueryMemoryPerNode();
@@ -382,6 +384,13 @@ public class SqlTaskManager
         return failedTasks;
     }
 
+    @Managed(description = "Compression of exchange pages by codec")
+    @Nested
+    public ExchangeCompressionStats getExchangeCompressionStats()
+    {
+        return exchangeCompressionStats;
+    }
+
     @Override
     public List<SqlTask> getAllTasks()
     {
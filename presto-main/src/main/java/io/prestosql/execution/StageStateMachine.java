@@ -101,6 +101,8 @@ public class StageStateMachine
     private final AtomicLong currentUserMemory = new AtomicLong();
     private final AtomicLong currentRevocableMemory = new AtomicLong();
     private final AtomicLong currentTotalMemory = new AtomicLong();
+    private final AtomicLong dynamicFilterPrunedSplits = new AtomicLong();
+    private final AtomicLong dynamicFilterPrunedBytes = new AtomicLong();
     private final TableScanNode consumerScanNode;
     private final TableScanNode producerScanNode;
     private AtomicInteger taskPriority = new AtomicInteger(1);
@@ -684,6 +686,8 @@ public class StageStateMachine
                 failedOutputPositions,
                 succinctBytes(physicalWrittenDataSize),
                 succinctBytes(failedPhysicalWrittenDataSize),
+                dynamicFilterPrunedSplits.get(),
+                succinctBytes(dynamicFilterPrunedBytes.get()),
 
                 new StageGcStatistics(
                         stageId.getId(),
@@ -719,6 +723,12 @@ public class StageStateMachine
                 failureInfo);
     }
 
+    public void recordDynamicFilterPruning(long prunedSplits, long prunedBytes)
+    {
+        dynamicFilterPrunedSplits.addAndGet(prunedSplits);
+        dynamicFilterPrunedBytes.addAndGet(prunedBytes);
+    }
+
     public void recordGetSplitTime(long startNanos)
     {
         long elapsedNanos = System.nanoTime() - startNanos;
@@ -99,6 +99,9 @@ public class StageStats
     private final DataSize physicalWrittenDataSize;
     private final DataSize failedPhysicalWrittenDataSize;
 
+    private final long dynamicFilterPrunedSplits;
+    private final DataSize dynamicFilterPrunedDataSize;
+
     private final StageGcStatistics gcInfo;
 
     private final List<OperatorStats> operatorSummaries;
@@ -170,6 +173,9 @@ public class StageStats
             @JsonProperty("physicalWrittenDataSize") DataSize physicalWrittenDataSize,
             @JsonProperty("failedPhysicalWrittenDataSize") DataSize failedPhysicalWrittenDataSize,
 
+            @JsonProperty("dynamicFilterPrunedSplits") long dynamicFilterPrunedSplits,
+            @JsonProperty("dynamicFilterPrunedDataSize") DataSize dynamicFilterPrunedDataSize,
+
             @JsonProperty("gcInfo") StageGcStatistics gcInfo,
 
             @JsonProperty("operatorSummaries") List<OperatorStats> operatorSummaries,
@@ -258,6 +264,10 @@ public class StageStats
         this.physicalWrittenDataSize = requireNonNull(physicalWrittenDataSize, "writtenDataSize is null");
         this.failedPhysicalWrittenDataSize = requireNonNull(failedPhysicalWrittenDataSize, "failedPhysicalWrittenDataSize is null");
 
+        checkArgument(dynamicFilterPrunedSplits >= 0, "dynamicFilterPrunedSplits is negative");
+        this.dynamicFilterPrunedSplits = dynamicFilterPrunedSplits;
+        this.dynamicFilterPrunedDataSize = requireNonNull(dynamicFilterPrunedDataSize, "dynamicFilterPrunedDataSize is null");
+
         this.gcInfo = requireNonNull(gcInfo, "gcInfo is null");
 
         this.operatorSummaries = ImmutableList.copyOf(requireNonNull(operatorSummaries, "operatorSummaries is null"));
@@ -556,6 +566,18 @@ public class StageStats
         return failedPhysicalWrittenDataSize;
     }
 
+    @JsonProperty
+    public long getDynamicFilterPrunedSplits()
+    {
+        return dynamicFilterPrunedSplits;
+    }
+
+    @JsonProperty
+    public DataSize getDynamicFilterPrunedDataSize()
+    {
+        return dynamicFilterPrunedDataSize;
+    }
+
     @JsonProperty
     public StageGcStatistics getGcInfo()
     {
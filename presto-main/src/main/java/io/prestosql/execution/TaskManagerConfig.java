@@ -73,6 +73,7 @@ public class TaskManagerConfig
     private int taskYieldThreads = 3;
 
     private BigDecimal levelTimeMultiplier = new BigDecimal(2.0);
+    private boolean workStealingEnabled;
 
     @MinDuration("1ms")
     @MaxDuration("10s")
@@ -208,6 +209,19 @@ public class TaskManagerConfig
         return this;
     }
 
+    public boolean isWorkStealingEnabled()
+    {
+        return workStealingEnabled;
+    }
+
+    @Config("task.work-stealing-enabled")
+    @ConfigDescription("Queue waiting splits on each runner thread and let idle runner threads steal them, instead of using a single shared split queue")
+    public TaskManagerConfig setWorkStealingEnabled(boolean workStealingEnabled)
+    {
+        this.workStealingEnabled = workStealingEnabled;
+        return this;
+    }
+
     @Min(1)
     public int getMaxWorkerThreads()
     {
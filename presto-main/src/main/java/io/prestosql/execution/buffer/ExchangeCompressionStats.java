@@ -0,0 +1,119 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.execution.buffer;
+
+import io.hetu.core.transport.execution.buffer.PageCompressionCodec;
+import io.hetu.core.transport.execution.buffer.PageCompressionStats;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import static io.hetu.core.transport.execution.buffer.PageCompressionCodec.LZ4;
+import static io.hetu.core.transport.execution.buffer.PageCompressionCodec.NONE;
+import static io.hetu.core.transport.execution.buffer.PageCompressionCodec.SNAPPY;
+import static io.hetu.core.transport.execution.buffer.PageCompressionCodec.ZSTD;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Exports the per-codec {@link PageCompressionStats} of exchange pages serialized on this node
+ */
+public class ExchangeCompressionStats
+{
+    private final PageCompressionStats stats = new PageCompressionStats();
+    private final CodecStats none = new CodecStats(stats, NONE);
+    private final CodecStats zstd = new CodecStats(stats, ZSTD);
+    private final CodecStats lz4 = new CodecStats(stats, LZ4);
+    private final CodecStats snappy = new CodecStats(stats, SNAPPY);
+
+    public PageCompressionStats getPageCompressionStats()
+    {
+        return stats;
+    }
+
+    @Managed
+    @Nested
+    public CodecStats getNone()
+    {
+        return none;
+    }
+
+    @Managed
+    @Nested
+    public CodecStats getZstd()
+    {
+        return zstd;
+    }
+
+    @Managed
+    @Nested
+    public CodecStats getLz4()
+    {
+        return lz4;
+    }
+
+    @Managed
+    @Nested
+    public CodecStats getSnappy()
+    {
+        return snappy;
+    }
+
+    public static class CodecStats
+    {
+        private final PageCompressionStats stats;
+        private final PageCompressionCodec codec;
+
+        CodecStats(PageCompressionStats stats, PageCompressionCodec codec)
+        {
+            this.stats = requireNonNull(stats, "stats is null");
+            this.codec = requireNonNull(codec, "codec is null");
+        }
+
+        @Managed
+        public long getPages()
+        {
+            return stats.getPages(codec);
+        }
+
+        @Managed(description = "Pages sent compressed, the others did not compress well enough")
+        public long getCompressedPages()
+        {
+            return stats.getCompressedPages(codec);
+        }
+
+        @Managed
+        public long getInputBytes()
+        {
+            return stats.getInputBytes(codec);
+        }
+
+        @Managed
+        public long getOutputBytes()
+        {
+            return stats.getOutputBytes(codec);
+        }
+
+        @Managed
+        public double getCompressionRatio()
+        {
+            return stats.getCompressionRatio(codec);
+        }
+
+        @Managed(description = "Compression throughput in bytes per second")
+        public double getCompressionThroughput()
+        {
+            long nanos = stats.getCompressionNanos(codec);
+            return nanos == 0 ? 0 : stats.getInputBytes(codec) * 1_000_000_000.0 / nanos;
+        }
+    }
+}
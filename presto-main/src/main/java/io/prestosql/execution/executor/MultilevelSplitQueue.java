@@ -31,6 +31,7 @@ import java.util.PriorityQueue;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntPredicate;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkState;
@@ -52,6 +53,8 @@ public class MultilevelSplitQueue
     private final List<CounterStat> selectedLevelCounters;
 
     private final ReentrantLock lock = new ReentrantLock();
+    // lock acquisitions that found the lock held by another thread
+    private final CounterStat contendedLockAcquisitions = new CounterStat();
     private final Condition notEmpty = lock.newCondition();
 
     private final double levelTimeMultiplier;
@@ -101,17 +104,10 @@ public class MultilevelSplitQueue
 
         split.setReady();
         int level = split.getPriority().getLevel();
-        lock.lock();
+        lock();
         try {
             if (levelWaitingSplits.get(level).isEmpty()) {
-                // Accesses to levelScheduledTime are not synchronized, so we have a data race
-                // here - our level time math will be off. However, the staleness is bounded by
-                // the fact that only running splits that complete during this computation
-                // can update the level time. Therefore, this is benign.
-                long level0Time = getLevel0TargetTime();
-                long levelExpectedTime = (long) (level0Time / Math.pow(levelTimeMultiplier, level));
-                long delta = levelExpectedTime - levelScheduledTime[level].get();
-                levelScheduledTime[level].addAndGet(delta);
+                catchUpLevelTime(level);
             }
 
             levelWaitingSplits.get(level).offer(split);
@@ -122,11 +118,30 @@ public class MultilevelSplitQueue
         }
     }
 
+    /**
+     * Sets the scheduled time of a level that is about to receive its first waiting split
+     * to the expected scheduled time (see {@link #offer}).
+     */
+    void catchUpLevelTime(int level)
+    {
+        // Accesses to levelScheduledTime are not synchronized, so we have a data race
+        // here - our level time math will be off. However, the staleness is bounded by
+        // the fact that only running splits that complete during this computation
+        // can update the level time. Therefore, this is benign.
+        long level0Time = getLevel0TargetTime();
+        long levelExpectedTime = (long) (level0Time / Math.pow(levelTimeMultiplier, level));
+        long delta = levelExpectedTime - levelScheduledTime[level].get();
+        levelScheduledTime[level].addAndGet(delta);
+    }
+
     public PrioritizedSplitRunner take()
             throws InterruptedException
     {
         while (true) {
-            lock.lockInterruptibly();
+            if (!lock.tryLock()) {
+                contendedLockAcquisitions.update(1);
+                lock.lockInterruptibly();
+            }
             try {
                 PrioritizedSplitRunner result;
                 while ((result = pollSplit()) == null) {
@@ -138,10 +153,7 @@ public class MultilevelSplitQueue
                     continue;
                 }
 
-                int selectedLevel = result.getPriority().getLevel();
-                levelMinPriority[selectedLevel].set(result.getPriority().getLevelPriority());
-                selectedLevelCounters.get(selectedLevel).update(1);
-
+                recordSelected(result);
                 return result;
             }
             finally {
@@ -150,6 +162,13 @@ public class MultilevelSplitQueue
         }
     }
 
+    void recordSelected(PrioritizedSplitRunner split)
+    {
+        int selectedLevel = split.getPriority().getLevel();
+        levelMinPriority[selectedLevel].set(split.getPriority().getLevelPriority());
+        selectedLevelCounters.get(selectedLevel).update(1);
+    }
+
     /**
      * Presto attempts to give each level a target amount of scheduled time, which is configurable
      * using levelTimeMultiplier.
@@ -160,12 +179,31 @@ public class MultilevelSplitQueue
      */
     @GuardedBy("lock")
     private PrioritizedSplitRunner pollSplit()
+    {
+        int selectedLevel = selectLevel(level -> !levelWaitingSplits.get(level).isEmpty());
+        if (selectedLevel == -1) {
+            return null;
+        }
+
+        PrioritizedSplitRunner result = levelWaitingSplits.get(selectedLevel).poll();
+        checkState(result != null, "pollSplit cannot return null");
+
+        return result;
+    }
+
+    /**
+     * Selects, among the levels that have waiting splits, the level with the lowest ratio of
+     * actual to target scheduled time.
+     *
+     * @return the selected level, or -1 if no level has waiting splits
+     */
+    int selectLevel(IntPredicate hasWaitingSplits)
     {
         long targetScheduledTime = getLevel0TargetTime();
         double worstRatio = 1;
         int selectedLevel = -1;
         for (int level = 0; level < LEVEL_THRESHOLD_SECONDS.length; level++) {
-            if (!levelWaitingSplits.get(level).isEmpty()) {
+            if (hasWaitingSplits.test(level)) {
                 long levelTime = levelScheduledTime[level].get();
                 double ratio = levelTime == 0 ? 0 : targetScheduledTime / (1.0 * levelTime);
                 if (selectedLevel == -1 || ratio > worstRatio) {
@@ -176,18 +214,10 @@ public class MultilevelSplitQueue
 
             targetScheduledTime /= levelTimeMultiplier;
         }
-
-        if (selectedLevel == -1) {
-            return null;
-        }
-
-        PrioritizedSplitRunner result = levelWaitingSplits.get(selectedLevel).poll();
-        checkState(result != null, "pollSplit cannot return null");
-
-        return result;
+        return selectedLevel;
     }
 
-    @GuardedBy("lock")
+    // not guarded by the lock: the level times are atomics and a stale read is benign (see catchUpLevelTime)
     private long getLevel0TargetTime()
     {
         long level0TargetTime = levelScheduledTime[0].get();
@@ -248,7 +278,7 @@ public class MultilevelSplitQueue
     public void remove(PrioritizedSplitRunner split)
     {
         checkArgument(split != null, "split is null");
-        lock.lock();
+        lock();
         try {
             for (PriorityQueue<PrioritizedSplitRunner> level : levelWaitingSplits) {
                 level.remove(split);
@@ -261,7 +291,7 @@ public class MultilevelSplitQueue
 
     public void removeAll(Collection<PrioritizedSplitRunner> splits)
     {
-        lock.lock();
+        lock();
         try {
             for (PriorityQueue<PrioritizedSplitRunner> level : levelWaitingSplits) {
                 level.removeAll(splits);
@@ -293,6 +323,14 @@ public class MultilevelSplitQueue
         }
     }
 
+    private void lock()
+    {
+        if (!lock.tryLock()) {
+            contendedLockAcquisitions.update(1);
+            lock.lock();
+        }
+    }
+
     public static int computeLevel(long threadUsageNanos)
     {
         long seconds = NANOSECONDS.toSeconds(threadUsageNanos);
@@ -375,4 +413,11 @@ public class MultilevelSplitQueue
     {
         return selectedLevelCounters.get(4);
     }
+
+    @Managed
+    @Nested
+    public CounterStat getContendedLockAcquisitions()
+    {
+        return contendedLockAcquisitions;
+    }
 }
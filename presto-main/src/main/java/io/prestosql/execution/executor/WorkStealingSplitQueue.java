@@ -0,0 +1,342 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.execution.executor;
+
+import io.airlift.stats.CounterStat;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Split queue that keeps the waiting splits of each runner thread in its own lock free deques, so that
+ * runner threads do not serialize on a single queue lock when they requeue and take splits.
+ * <p>
+ * Splits offered by a runner thread (splits that yielded) are queued on that thread, splits offered by
+ * any other thread (new and unblocked splits) are queued on a shared deque. A runner thread first
+ * selects the level exactly as {@link MultilevelSplitQueue} does, and then takes a split of that level
+ * from its own deque, from the shared deque, or steals one from another runner thread.
+ * <p>
+ * Within a level splits are served in FIFO order per deque rather than in global level priority order.
+ * Level shares and the level movement of tasks are the same as with {@link MultilevelSplitQueue}.
+ */
+@ThreadSafe
+public class WorkStealingSplitQueue
+        extends MultilevelSplitQueue
+{
+    private static final int LEVELS = LEVEL_THRESHOLD_SECONDS.length;
+
+    private final LevelDeques sharedSplits = new LevelDeques();
+    private final List<LevelDeques> runnerSplits = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<LevelDeques> localSplits = new ThreadLocal<>();
+
+    // best effort counts of the waiting splits of each level, across all deques
+    private final AtomicInteger[] levelSplitCounts = new AtomicInteger[LEVELS];
+
+    // only used to park idle runner threads
+    private final ReentrantLock idleLock = new ReentrantLock();
+    private final Condition notEmpty = idleLock.newCondition();
+    private final AtomicInteger idleRunners = new AtomicInteger();
+
+    private final CounterStat localSplitsTaken = new CounterStat();
+    private final CounterStat sharedSplitsTaken = new CounterStat();
+    private final CounterStat stolenSplits = new CounterStat();
+    private final CounterStat failedSteals = new CounterStat();
+    private final CounterStat idleRunnerWakeups = new CounterStat();
+
+    public WorkStealingSplitQueue(double levelTimeMultiplier)
+    {
+        super(levelTimeMultiplier);
+        for (int level = 0; level < LEVELS; level++) {
+            levelSplitCounts[level] = new AtomicInteger();
+        }
+    }
+
+    @Override
+    public void offer(PrioritizedSplitRunner split)
+    {
+        checkArgument(split != null, "split is null");
+
+        split.setReady();
+        int level = split.getPriority().getLevel();
+        if (levelSplitCounts[level].get() <= 0) {
+            catchUpLevelTime(level);
+        }
+
+        LevelDeques local = localSplits.get();
+        (local != null ? local : sharedSplits).add(level, split);
+        // counted after the split is visible, so a positive count always has a split to take
+        levelSplitCounts[level].incrementAndGet();
+
+        if (idleRunners.get() > 0) {
+            idleLock.lock();
+            try {
+                notEmpty.signal();
+            }
+            finally {
+                idleLock.unlock();
+            }
+            idleRunnerWakeups.update(1);
+        }
+    }
+
+    @Override
+    public PrioritizedSplitRunner take()
+            throws InterruptedException
+    {
+        LevelDeques local = getLocalSplits();
+        while (true) {
+            PrioritizedSplitRunner result = pollSplit(local);
+            if (result == null) {
+                awaitSplits();
+                continue;
+            }
+
+            if (result.updateLevelPriority()) {
+                offer(result);
+                continue;
+            }
+
+            recordSelected(result);
+            return result;
+        }
+    }
+
+    private LevelDeques getLocalSplits()
+    {
+        LevelDeques local = localSplits.get();
+        if (local == null) {
+            // first take on this runner thread
+            local = new LevelDeques();
+            localSplits.set(local);
+            runnerSplits.add(local);
+        }
+        return local;
+    }
+
+    private PrioritizedSplitRunner pollSplit(LevelDeques local)
+    {
+        int selectedLevel = selectLevel(level -> levelSplitCounts[level].get() > 0);
+        if (selectedLevel == -1) {
+            return null;
+        }
+
+        PrioritizedSplitRunner split = pollSplit(local, selectedLevel);
+        if (split != null) {
+            return split;
+        }
+
+        // the selected level was drained concurrently, take from any level rather than park
+        for (int level = 0; level < LEVELS; level++) {
+            split = pollSplit(local, level);
+            if (split != null) {
+                return split;
+            }
+        }
+        return null;
+    }
+
+    private PrioritizedSplitRunner pollSplit(LevelDeques local, int level)
+    {
+        PrioritizedSplitRunner split = local.poll(level);
+        if (split != null) {
+            localSplitsTaken.update(1);
+        }
+        else {
+            split = sharedSplits.poll(level);
+            if (split != null) {
+                sharedSplitsTaken.update(1);
+            }
+            else {
+                split = steal(local, level);
+            }
+        }
+
+        if (split != null) {
+            levelSplitCounts[level].decrementAndGet();
+        }
+        return split;
+    }
+
+    private PrioritizedSplitRunner steal(LevelDeques local, int level)
+    {
+        List<LevelDeques> victims = runnerSplits;
+        int size = victims.size();
+        if (size <= 1) {
+            return null;
+        }
+
+        // start at a random victim so thieves do not all contend on the same deque
+        int start = ThreadLocalRandom.current().nextInt(size);
+        for (int i = 0; i < size; i++) {
+            LevelDeques victim = victims.get((start + i) % size);
+            if (victim != local) {
+                PrioritizedSplitRunner split = victim.steal(level);
+                if (split != null) {
+                    stolenSplits.update(1);
+                    return split;
+                }
+            }
+        }
+        failedSteals.update(1);
+        return null;
+    }
+
+    private void awaitSplits()
+            throws InterruptedException
+    {
+        idleLock.lockInterruptibly();
+        try {
+            // offer checks for idle runners after counting the split, so either the split
+            // is seen here, or the offering thread signals this runner
+            idleRunners.incrementAndGet();
+            try {
+                while (size() == 0) {
+                    notEmpty.await();
+                }
+            }
+            finally {
+                idleRunners.decrementAndGet();
+            }
+        }
+        finally {
+            idleLock.unlock();
+        }
+    }
+
+    @Override
+    public void remove(PrioritizedSplitRunner split)
+    {
+        checkArgument(split != null, "split is null");
+        if (!sharedSplits.remove(split)) {
+            for (LevelDeques deques : runnerSplits) {
+                if (deques.remove(split)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void removeAll(Collection<PrioritizedSplitRunner> splits)
+    {
+        for (PrioritizedSplitRunner split : splits) {
+            remove(split);
+        }
+    }
+
+    @Override
+    public int size()
+    {
+        int total = 0;
+        for (AtomicInteger waitingSplits : levelSplitCounts) {
+            total += waitingSplits.get();
+        }
+        // the counts may be briefly behind the deques
+        return Math.max(total, 0);
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getLocalSplitsTaken()
+    {
+        return localSplitsTaken;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getSharedSplitsTaken()
+    {
+        return sharedSplitsTaken;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getStolenSplits()
+    {
+        return stolenSplits;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getFailedSteals()
+    {
+        return failedSteals;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getIdleRunnerWakeups()
+    {
+        return idleRunnerWakeups;
+    }
+
+    @Managed
+    public int getRunnerQueues()
+    {
+        return runnerSplits.size();
+    }
+
+    private final class LevelDeques
+    {
+        private final List<ConcurrentLinkedDeque<PrioritizedSplitRunner>> levels = new ArrayList<>(LEVELS);
+
+        private LevelDeques()
+        {
+            for (int level = 0; level < LEVELS; level++) {
+                levels.add(new ConcurrentLinkedDeque<>());
+            }
+        }
+
+        public void add(int level, PrioritizedSplitRunner split)
+        {
+            levels.get(level).addLast(split);
+        }
+
+        public PrioritizedSplitRunner poll(int level)
+        {
+            // the owner takes the oldest split, so the splits of a runner are served round robin
+            return levels.get(level).pollFirst();
+        }
+
+        public PrioritizedSplitRunner steal(int level)
+        {
+            // thieves take from the other end, away from the owner
+            return levels.get(level).pollLast();
+        }
+
+        public boolean remove(PrioritizedSplitRunner split)
+        {
+            for (int level = 0; level < LEVELS; level++) {
+                if (levels.get(level).remove(split)) {
+                    levelSplitCounts[level].decrementAndGet();
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
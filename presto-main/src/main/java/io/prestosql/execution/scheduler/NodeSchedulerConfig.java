@@ -42,6 +42,7 @@ public class NodeSchedulerConfig
     private int maxPendingSplitsPerTask = 10;
     private String networkTopology = NetworkTopologyType.LEGACY;
     private boolean optimizedLocalScheduling = true;
+    private boolean cacheAffinitySchedulingEnabled;
 
     private Duration allowedNoMatchingNodePeriod = new Duration(2, TimeUnit.MINUTES);
     private NodeAllocatorType nodeAllocatorType = NodeAllocatorType.BIN_PACKING;
@@ -121,6 +122,19 @@ public class NodeSchedulerConfig
         return this;
     }
 
+    public boolean isCacheAffinitySchedulingEnabled()
+    {
+        return cacheAffinitySchedulingEnabled;
+    }
+
+    @Config("node-scheduler.cache-affinity-scheduling-enabled")
+    @ConfigDescription("Schedule splits that read through a worker-local cache on the same worker every time")
+    public NodeSchedulerConfig setCacheAffinitySchedulingEnabled(boolean cacheAffinitySchedulingEnabled)
+    {
+        this.cacheAffinitySchedulingEnabled = cacheAffinitySchedulingEnabled;
+        return this;
+    }
+
     public Duration getAllowedNoMatchingNodePeriod()
     {
         return allowedNoMatchingNodePeriod;
@@ -122,6 +122,8 @@ public class SourcePartitionedScheduler
     private PartitionIdAllocator partitionIdAllocator;
     private final Map<InternalNode, RemoteTask> scheduledTasks;
     private final DynamicFilterService dynamicFilterService;
+    private long reportedDynamicFilterPrunedSplits;
+    private long reportedDynamicFilterPrunedBytes;
 
     private SourcePartitionedScheduler(
             SqlStageExecution stage,
@@ -334,6 +336,7 @@ public class SourcePartitionedScheduler
                 if (scheduleGroup.nextSplitBatchFuture.isDone()) {
                     SplitBatch nextSplits = getFutureValue(scheduleGroup.nextSplitBatchFuture);
                     scheduleGroup.nextSplitBatchFuture = null;
+                    recordDynamicFilterPruning();
 
                     // add split filter to filter out split has no valid rows
                     Pair<Optional<RowExpression>, Map<Symbol, ColumnHandle>> pair = SplitFiltering.getExpression(stage);
@@ -490,6 +493,7 @@ public class SourcePartitionedScheduler
                 case SPLITS_ADDED:
                     state = State.NO_MORE_SPLITS;
 
+                    recordDynamicFilterPruning();
                     Optional<List<Object>> tableExecuteSplitsInfo = splitSource.getTableExecuteSplitsInfo();
 
                     // Here we assume that we can get non-empty tableExecuteSplitsInfo only for queries which facilitate single split source.
@@ -605,6 +609,18 @@ public class SourcePartitionedScheduler
         return result.build();
     }
 
+    private void recordDynamicFilterPruning()
+    {
+        // the split source reports running totals, the stage accumulates them over all of its split sources
+        long prunedSplits = splitSource.getDynamicFilterPrunedSplits();
+        long prunedBytes = splitSource.getDynamicFilterPrunedBytes();
+        if (prunedSplits != reportedDynamicFilterPrunedSplits || prunedBytes != reportedDynamicFilterPrunedBytes) {
+            stage.recordDynamicFilterPruning(prunedSplits - reportedDynamicFilterPrunedSplits, prunedBytes - reportedDynamicFilterPrunedBytes);
+            reportedDynamicFilterPrunedSplits = prunedSplits;
+            reportedDynamicFilterPrunedBytes = prunedBytes;
+        }
+    }
+
     private Set<RemoteTask> assignSplits(Multimap<InternalNode, Split> splitAssignment, Multimap<InternalNode, Lifespan> noMoreSplitsNotification)
     {
         ImmutableSet.Builder<RemoteTask> newTasks = ImmutableSet.builder();
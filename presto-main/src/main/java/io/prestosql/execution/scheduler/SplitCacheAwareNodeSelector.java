@@ -19,6 +19,7 @@ import com.google.common.base.Suppliers;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Multimap;
+import com.google.common.hash.HashFunction;
 import io.airlift.log.Logger;
 import io.prestosql.execution.NodeTaskMap;
 import io.prestosql.execution.RemoteTask;
@@ -41,15 +42,18 @@ import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import static com.google.common.hash.Hashing.murmur3_128;
 import static io.prestosql.execution.scheduler.NodeScheduler.randomizedNodes;
 import static io.prestosql.execution.scheduler.NodeScheduler.selectDistributionNodes;
 import static io.prestosql.execution.scheduler.NodeScheduler.selectNodes;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.util.Objects.requireNonNull;
 
 public class SplitCacheAwareNodeSelector
         implements NodeSelector
 {
     private static final Logger log = Logger.get(SplitCacheAwareNodeSelector.class);
+    private static final HashFunction CACHE_AFFINITY_HASH = murmur3_128();
 
     private final InternalNodeManager nodeManager;
     private final NodeTaskMap nodeTaskMap;
@@ -128,6 +132,7 @@ public class SplitCacheAwareNodeSelector
 
         Set<Split> uncacheableSplits = new HashSet<>();
         Set<Split> newCacheableSplits = new HashSet<>();
+        int cacheAffinitySplitCount = 0;
         SplitCacheMap splitCacheMap = SplitCacheMap.getInstance();
         for (Split split : splits) {
             Optional<String> assignedNodeId = Optional.empty();
@@ -137,6 +142,13 @@ public class SplitCacheAwareNodeSelector
             }
 
             if (!split.getConnectorSplit().isCacheable() || splitKey == null) {
+                InternalNode cacheAffinityNode = selectCacheAffinityNode(split, nodeMapSlice, assignmentStats);
+                if (cacheAffinityNode != null) {
+                    assignment.put(cacheAffinityNode, split);
+                    assignmentStats.addAssignedSplit(cacheAffinityNode);
+                    cacheAffinitySplitCount++;
+                    continue;
+                }
                 //uncacheable splits will be scheduled using default node selector
                 uncacheableSplits.add(split);
                 continue;
@@ -160,7 +172,8 @@ public class SplitCacheAwareNodeSelector
             }
         }
 
-        log.info("%d out of %d splits already cached. %d new splits to be cached. %d splits cannot be cached.", assignment.size(), splits.size(), newCacheableSplits.size(), uncacheableSplits.size());
+        log.info("%d out of %d splits already cached. %d new splits to be cached. %d splits cannot be cached. %d splits scheduled by cache affinity.",
+                assignment.size() - cacheAffinitySplitCount, splits.size(), newCacheableSplits.size(), uncacheableSplits.size(), cacheAffinitySplitCount);
 
         Set<Split> unassignedSplits = new HashSet<>();
         unassignedSplits.addAll(newCacheableSplits);
@@ -203,6 +216,46 @@ public class SplitCacheAwareNodeSelector
         feederScheduledNodes.put(stage.getFragment().getFeederCTEParentId().get(), data);
     }
 
+    /**
+     * Selects the worker for a split that reads through a worker-local cache, by rendezvous hashing of
+     * the split's cache key over the workers. The same key always maps to the same worker while the
+     * workers do not change, and only the keys of a removed worker move when the cluster changes.
+     * Returns null if the split has no cache key, or the worker is full or already has
+     * maxPendingSplitsPerTask splits queued for the stage, in which case the split is scheduled by the
+     * default node selector.
+     */
+    private InternalNode selectCacheAffinityNode(Split split, NodeMap nodeMapSlice, NodeAssignmentStats assignmentStats)
+    {
+        Optional<String> cacheKey = split.getConnectorSplit().getCacheAffinityKey();
+        if (!cacheKey.isPresent() || !split.getConnectorSplit().isRemotelyAccessible()) {
+            return null;
+        }
+
+        InternalNode selected = null;
+        long selectedWeight = Long.MIN_VALUE;
+        for (InternalNode node : nodeMapSlice.getNodesByHostAndPort().values()) {
+            if (!includeCoordinator && nodeMapSlice.getCoordinatorNodeIds().contains(node.getNodeIdentifier())) {
+                continue;
+            }
+            long weight = CACHE_AFFINITY_HASH.newHasher()
+                    .putString(cacheKey.get(), UTF_8)
+                    .putString(node.getNodeIdentifier(), UTF_8)
+                    .hash()
+                    .asLong();
+            if (selected == null || weight > selectedWeight) {
+                selected = node;
+                selectedWeight = weight;
+            }
+        }
+
+        if (selected == null
+                || assignmentStats.getTotalSplitCount(selected) >= maxSplitsPerNode
+                || assignmentStats.getQueuedSplitCountForStage(selected) >= maxPendingSplitsPerTask) {
+            return null;
+        }
+        return selected;
+    }
+
     private SplitKey createSplitKey(Split split)
     {
         SplitKey splitKey = null;
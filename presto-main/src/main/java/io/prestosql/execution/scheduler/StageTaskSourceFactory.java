@@ -48,13 +48,17 @@ import io.prestosql.spi.HostAddress;
 import io.prestosql.spi.QueryId;
 import io.prestosql.spi.SplitWeight;
 import io.prestosql.spi.connector.CatalogName;
+import io.prestosql.spi.plan.FilterNode;
+import io.prestosql.spi.plan.JoinNode;
 import io.prestosql.spi.plan.PlanNode;
 import io.prestosql.spi.plan.PlanNodeId;
 import io.prestosql.spi.plan.PlanVisitor;
+import io.prestosql.spi.plan.ProjectNode;
 import io.prestosql.split.SplitSource;
 import io.prestosql.sql.planner.PartitioningHandle;
 import io.prestosql.sql.planner.PlanFragment;
 import io.prestosql.sql.planner.SplitSourceFactory;
+import io.prestosql.sql.planner.plan.ExchangeNode;
 import io.prestosql.sql.planner.plan.InternalPlanVisitor;
 import io.prestosql.sql.planner.plan.PlanFragmentId;
 import io.prestosql.sql.planner.plan.RemoteSourceNode;
@@ -70,6 +74,7 @@ import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
@@ -82,6 +87,7 @@ import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.Iterables.getOnlyElement;
 import static com.google.common.collect.Sets.newIdentityHashSet;
 import static com.google.common.collect.Sets.union;
+import static com.google.common.math.LongMath.divide;
 import static com.google.common.util.concurrent.Futures.allAsList;
 import static com.google.common.util.concurrent.Futures.immediateFuture;
 import static io.airlift.concurrent.MoreFutures.addSuccessCallback;
@@ -92,15 +98,26 @@ import static io.prestosql.SystemSessionProperties.getFaultTolerantExecutionMinT
 import static io.prestosql.SystemSessionProperties.getFaultTolerantExecutionTargetTaskInputSize;
 import static io.prestosql.SystemSessionProperties.getFaultTolerantExecutionTargetTaskSplitCount;
 import static io.prestosql.SystemSessionProperties.getFaultTolerantPreserveInputPartitionsInWriteStage;
+import static io.prestosql.SystemSessionProperties.isFaultTolerantExecutionAdaptivePartitioningEnabled;
 import static io.prestosql.spi.connector.CatalogName.isInternalSystemConnector;
 import static io.prestosql.spi.connector.NotPartitionedPartitionHandle.NOT_PARTITIONED;
+import static io.prestosql.spi.plan.JoinNode.DistributionType.PARTITIONED;
+import static io.prestosql.spi.plan.JoinNode.Type.INNER;
+import static io.prestosql.spi.plan.JoinNode.Type.LEFT;
 import static io.prestosql.sql.planner.SystemPartitioningHandle.FIXED_ARBITRARY_DISTRIBUTION;
 import static io.prestosql.sql.planner.SystemPartitioningHandle.FIXED_HASH_DISTRIBUTION;
 import static io.prestosql.sql.planner.SystemPartitioningHandle.SCALED_WRITER_DISTRIBUTION;
 import static io.prestosql.sql.planner.SystemPartitioningHandle.SINGLE_DISTRIBUTION;
 import static io.prestosql.sql.planner.SystemPartitioningHandle.SOURCE_DISTRIBUTION;
+import static io.prestosql.sql.planner.plan.ExchangeNode.Scope.LOCAL;
 import static io.prestosql.sql.planner.plan.ExchangeNode.Type.GATHER;
+import static io.prestosql.sql.planner.plan.ExchangeNode.Type.REPARTITION;
 import static io.prestosql.sql.planner.plan.ExchangeNode.Type.REPLICATE;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.math.RoundingMode.CEILING;
+import static java.util.Comparator.comparingInt;
+import static java.util.Comparator.comparingLong;
 import static java.util.Objects.requireNonNull;
 
 public class StageTaskSourceFactory
@@ -169,6 +186,7 @@ public class StageTaskSourceFactory
                     getFaultTolerantExecutionTargetTaskSplitCount(session) * SplitWeight.standard().getRawValue(),
                     getFaultTolerantExecutionTargetTaskInputSize(session),
                     getFaultTolerantPreserveInputPartitionsInWriteStage(session),
+                    isFaultTolerantExecutionAdaptivePartitioningEnabled(session),
                     executor);
         }
         if (partitioning.equals(SOURCE_DISTRIBUTION)) {
@@ -376,6 +394,8 @@ public class StageTaskSourceFactory
         private final Optional<CatalogName> catalogRequirement;
         private final long targetPartitionSourceSizeInBytes; // compared data read from ExchangeSources
         private final long targetPartitionSplitWeight; // compared against splits from SplitSources
+        private final boolean adaptivePartitioning;
+        private final Optional<PlanNodeId> splittableRemoteSource;
         private final Executor executor;
 
         @GuardedBy("this")
@@ -398,10 +418,12 @@ public class StageTaskSourceFactory
                 long targetPartitionSplitWeight,
                 DataSize targetPartitionSourceSize,
                 boolean preserveInputPartitionsInWriteStage,
+                boolean adaptivePartitioning,
                 Executor executor)
         {
             checkArgument(bucketNodeMap.isPresent() || fragment.getPartitionedSources().isEmpty(), "bucketNodeMap is expected to be set when the fragment reads partitioned sources (tables)");
             Map<PlanNodeId, SplitSource> hashDistributionSplitSources = splitSourceFactory.createSplitSources(session, fragment);
+            boolean preserveInputPartitions = preserveInputPartitionsInWriteStage && isWriteFragment(fragment);
 
             return new HashDistributionTaskSource(
                     hashDistributionSplitSources,
@@ -414,11 +436,48 @@ public class StageTaskSourceFactory
                     bucketNodeMap,
                     fragment.getPartitioning().getConnectorId(),
                     targetPartitionSplitWeight,
-                    (preserveInputPartitionsInWriteStage && isWriteFragment(fragment)) ? new DataSize(0, BYTE) : targetPartitionSourceSize,
+                    preserveInputPartitions ? new DataSize(0, BYTE) : targetPartitionSourceSize,
                     getFaultTolerantExecutionDefaultTaskMemory(session),
+                    adaptivePartitioning && !preserveInputPartitions,
+                    adaptivePartitioning ? getSplittableRemoteSource(fragment) : Optional.empty(),
                     executor);
         }
 
+        /**
+         * Returns the probe side remote source of a fragment whose hash partitions may be divided between
+         * several tasks, as long as every task reads the whole build side of its partition. This holds for
+         * a partitioned inner or left join with only projections and filters between it and the probe
+         * input and between it and the fragment output.
+         */
+        @VisibleForTesting
+        static Optional<PlanNodeId> getSplittableRemoteSource(PlanFragment fragment)
+        {
+            PlanNode root = skipRowLocalNodes(fragment.getRoot());
+            if (!(root instanceof JoinNode)) {
+                return Optional.empty();
+            }
+            JoinNode join = (JoinNode) root;
+            if ((join.getType() != INNER && join.getType() != LEFT) || join.getDistributionType().orElse(null) != PARTITIONED) {
+                return Optional.empty();
+            }
+            PlanNode probe = skipRowLocalNodes(join.getLeft());
+            if (!(probe instanceof RemoteSourceNode) || ((RemoteSourceNode) probe).getExchangeType() != REPARTITION) {
+                return Optional.empty();
+            }
+            return Optional.of(probe.getId());
+        }
+
+        private static PlanNode skipRowLocalNodes(PlanNode node)
+        {
+            PlanNode current = node;
+            while (current instanceof ProjectNode
+                    || current instanceof FilterNode
+                    || (current instanceof ExchangeNode && ((ExchangeNode) current).getScope() == LOCAL && current.getSources().size() == 1)) {
+                current = getOnlyElement(current.getSources());
+            }
+            return current;
+        }
+
         private static boolean isWriteFragment(PlanFragment fragment)
         {
             PlanVisitor<Boolean, Void> visitor = new InternalPlanVisitor<Boolean, Void>()
@@ -458,6 +517,8 @@ public class StageTaskSourceFactory
                 long targetPartitionSplitWeight,
                 DataSize targetPartitionSourceSize,
                 DataSize taskMemory,
+                boolean adaptivePartitioning,
+                Optional<PlanNodeId> splittableRemoteSource,
                 Executor executor)
         {
             this.splitSources = ImmutableMap.copyOf(requireNonNull(splitSources, "splitSources is null"));
@@ -474,6 +535,8 @@ public class StageTaskSourceFactory
             this.catalogRequirement = requireNonNull(catalogRequirement, "catalogRequirement is null");
             this.targetPartitionSourceSizeInBytes = requireNonNull(targetPartitionSourceSize, "targetPartitionSourceSize is null").toBytes();
             this.targetPartitionSplitWeight = targetPartitionSplitWeight;
+            this.adaptivePartitioning = adaptivePartitioning;
+            this.splittableRemoteSource = requireNonNull(splittableRemoteSource, "splittableRemoteSource is null");
             this.executor = requireNonNull(executor, "executor is null");
         }
 
@@ -559,6 +622,7 @@ public class StageTaskSourceFactory
 
                             int taskPartitionId = 0;
                             ImmutableList.Builder<TaskDescriptor> partitionTasks = ImmutableList.builder();
+                            ImmutableList.Builder<TaskDescriptor> splitPartitionTasks = ImmutableList.builder();
                             for (Integer partition : union(partitionToSplitsMap.keySet(), partitionToExchangeSourceHandlesMap.keySet())) {
                                 ListMultimap<PlanNodeId, Split> splits = partitionToSplitsMap.getOrDefault(partition, ImmutableListMultimap.of());
                                 ListMultimap<PlanNodeId, ExchangeSourceHandle> exchangeSourceHandles = ImmutableListMultimap.<PlanNodeId, ExchangeSourceHandle>builder()
@@ -566,10 +630,20 @@ public class StageTaskSourceFactory
                                         // replicated exchange source will be added in postprocessTasks below
                                         .build();
                                 Set<HostAddress> hostRequirement = partitionToNodeMap.get(partition);
-                                partitionTasks.add(new TaskDescriptor(taskPartitionId++, splits, exchangeSourceHandles, new NodeRequirements(catalogRequirement, hostRequirement, taskMemory)));
+                                NodeRequirements nodeRequirements = new NodeRequirements(catalogRequirement, hostRequirement, taskMemory);
+                                if (adaptivePartitioning && splittableRemoteSource.isPresent() && splits.isEmpty()) {
+                                    List<ListMultimap<PlanNodeId, ExchangeSourceHandle>> partitionParts = splitPartition(exchangeSourceHandles, splittableRemoteSource.get());
+                                    if (partitionParts.size() > 1) {
+                                        for (ListMultimap<PlanNodeId, ExchangeSourceHandle> partitionPart : partitionParts) {
+                                            splitPartitionTasks.add(new TaskDescriptor(taskPartitionId++, ImmutableListMultimap.of(), partitionPart, nodeRequirements));
+                                        }
+                                        continue;
+                                    }
+                                }
+                                partitionTasks.add(new TaskDescriptor(taskPartitionId++, splits, exchangeSourceHandles, nodeRequirements));
                             }
 
-                            List<TaskDescriptor> result = postprocessTasks(partitionTasks.build());
+                            List<TaskDescriptor> result = postprocessTasks(partitionTasks.build(), splitPartitionTasks.build());
                             finished = true;
                             return result;
                         }
@@ -577,7 +651,7 @@ public class StageTaskSourceFactory
                     executor);
         }
 
-        private List<TaskDescriptor> postprocessTasks(List<TaskDescriptor> tasks)
+        private List<TaskDescriptor> postprocessTasks(List<TaskDescriptor> tasks, List<TaskDescriptor> splitPartitionTasks)
         {
             ListMultimap<NodeRequirements, TaskDescriptor> taskGroups = groupCompatibleTasks(tasks);
             ImmutableList.Builder<TaskDescriptor> joinedTasks = ImmutableList.builder();
@@ -587,6 +661,17 @@ public class StageTaskSourceFactory
                 NodeRequirements groupNodeRequirements = taskGroup.getKey();
                 Collection<TaskDescriptor> groupTasks = taskGroup.getValue();
 
+                if (adaptivePartitioning && groupTasks.stream().allMatch(task -> task.getSplits().isEmpty())) {
+                    for (ListMultimap<PlanNodeId, ExchangeSourceHandle> balancedExchangeSources : balancePartitions(groupTasks, replicatedExchangeSourcesSize)) {
+                        ListMultimap<PlanNodeId, ExchangeSourceHandle> exchangeSources = ImmutableListMultimap.<PlanNodeId, ExchangeSourceHandle>builder()
+                                .putAll(balancedExchangeSources)
+                                .putAll(replicatedExchangeSourceHandles) // add replicated exchanges
+                                .build();
+                        joinedTasks.add(new TaskDescriptor(taskPartitionId++, ImmutableListMultimap.of(), exchangeSources, groupNodeRequirements));
+                    }
+                    continue;
+                }
+
                 ImmutableListMultimap.Builder<PlanNodeId, Split> splits = ImmutableListMultimap.builder();
                 ImmutableListMultimap.Builder<PlanNodeId, ExchangeSourceHandle> exchangeSources = ImmutableListMultimap.builder();
                 long splitsWeight = 0;
@@ -624,9 +709,110 @@ public class StageTaskSourceFactory
                     joinedTasks.add(new TaskDescriptor(taskPartitionId++, remainderSplits, remainderExchangeSources, groupNodeRequirements));
                 }
             }
+            // parts of a split partition each carry the whole build side, so they are never merged with each other
+            for (TaskDescriptor task : splitPartitionTasks) {
+                ListMultimap<PlanNodeId, ExchangeSourceHandle> exchangeSources = ImmutableListMultimap.<PlanNodeId, ExchangeSourceHandle>builder()
+                        .putAll(task.getExchangeSourceHandles())
+                        .putAll(replicatedExchangeSourceHandles) // add replicated exchanges
+                        .build();
+                joinedTasks.add(new TaskDescriptor(taskPartitionId++, task.getSplits(), exchangeSources, task.getNodeRequirements()));
+            }
             return joinedTasks.build();
         }
 
+        /**
+         * Packs whole partitions into as few tasks as the target size allows, assigning the largest
+         * partitions first to the least loaded task so that the resulting tasks are evenly sized.
+         */
+        private List<ListMultimap<PlanNodeId, ExchangeSourceHandle>> balancePartitions(Collection<TaskDescriptor> tasks, long replicatedExchangeSourcesSize)
+        {
+            long targetSize = max(1, targetPartitionSourceSizeInBytes - replicatedExchangeSourcesSize);
+            Map<TaskDescriptor, Long> taskSizes = new HashMap<>();
+            for (TaskDescriptor task : tasks) {
+                taskSizes.put(task, task.getExchangeSourceHandles().values().stream().mapToLong(this::sourceHandleSize).sum());
+            }
+            long totalSize = taskSizes.values().stream().mapToLong(Long::longValue).sum();
+            int binCount = (int) min(tasks.size(), max(1, divide(totalSize, targetSize, CEILING)));
+
+            PriorityQueue<PartitionBin> bins = new PriorityQueue<>(comparingLong(PartitionBin::getSizeInBytes).thenComparingInt(PartitionBin::getIndex));
+            for (int i = 0; i < binCount; i++) {
+                bins.add(new PartitionBin(i));
+            }
+            List<TaskDescriptor> largestFirst = tasks.stream()
+                    .sorted(comparingLong((TaskDescriptor task) -> taskSizes.get(task)).reversed().thenComparingInt(TaskDescriptor::getPartitionId))
+                    .collect(toImmutableList());
+            for (TaskDescriptor task : largestFirst) {
+                PartitionBin bin = bins.poll();
+                bin.add(task.getExchangeSourceHandles(), taskSizes.get(task));
+                bins.add(bin);
+            }
+
+            return bins.stream()
+                    .filter(bin -> !bin.isEmpty())
+                    .sorted(comparingInt(PartitionBin::getIndex))
+                    .map(PartitionBin::build)
+                    .collect(toImmutableList());
+        }
+
+        /**
+         * Divides an oversized partition into parts that each read a slice of the splittable source
+         * together with all other inputs of the partition. Returns a single part if the partition
+         * fits the target size or cannot be divided, or if the other inputs take more than half of
+         * the target size, since every part reads them again.
+         */
+        private List<ListMultimap<PlanNodeId, ExchangeSourceHandle>> splitPartition(ListMultimap<PlanNodeId, ExchangeSourceHandle> exchangeSourceHandles, PlanNodeId splittableSource)
+        {
+            long replicatedExchangeSourcesSize = replicatedExchangeSourceHandles.values().stream().mapToLong(this::sourceHandleSize).sum();
+            long partitionSize = exchangeSourceHandles.values().stream().mapToLong(this::sourceHandleSize).sum();
+            if (partitionSize + replicatedExchangeSourcesSize <= targetPartitionSourceSizeInBytes) {
+                return ImmutableList.of(exchangeSourceHandles);
+            }
+
+            ImmutableListMultimap.Builder<PlanNodeId, ExchangeSourceHandle> sharedHandles = ImmutableListMultimap.builder();
+            long sharedSize = 0;
+            for (Map.Entry<PlanNodeId, ExchangeSourceHandle> entry : exchangeSourceHandles.entries()) {
+                if (!entry.getKey().equals(splittableSource)) {
+                    sharedHandles.put(entry);
+                    sharedSize += sourceHandleSize(entry.getValue());
+                }
+            }
+            long targetPartSize = targetPartitionSourceSizeInBytes - sharedSize - replicatedExchangeSourcesSize;
+            if (targetPartSize < targetPartitionSourceSizeInBytes / 2) {
+                return ImmutableList.of(exchangeSourceHandles);
+            }
+
+            ImmutableList.Builder<ListMultimap<PlanNodeId, ExchangeSourceHandle>> parts = ImmutableList.builder();
+            ImmutableListMultimap.Builder<PlanNodeId, ExchangeSourceHandle> part = ImmutableListMultimap.builder();
+            long partSize = 0;
+            for (ExchangeSourceHandle handle : exchangeSourceHandles.get(splittableSource)) {
+                Exchange exchange = exchangeForHandle.get(handle);
+                try (ExchangeSourceSplitter splitter = exchange.split(handle, targetPartSize)) {
+                    while (true) {
+                        checkState(splitter.isBlocked().isDone(), "not supported");
+                        Optional<ExchangeSourceHandle> next = splitter.getNext();
+                        if (!next.isPresent()) {
+                            break;
+                        }
+                        ExchangeSourceHandle slice = next.get();
+                        exchangeForHandle.put(slice, exchange);
+                        long sliceSize = sourceHandleSize(slice);
+                        if (partSize > 0 && partSize + sliceSize > targetPartSize) {
+                            parts.add(part.putAll(sharedHandles.build()).build());
+                            part = ImmutableListMultimap.builder();
+                            partSize = 0;
+                        }
+                        part.put(splittableSource, slice);
+                        partSize += sliceSize;
+                    }
+                }
+            }
+            if (partSize > 0) {
+                parts.add(part.putAll(sharedHandles.build()).build());
+            }
+            List<ListMultimap<PlanNodeId, ExchangeSourceHandle>> result = parts.build();
+            return result.size() > 1 ? result : ImmutableList.of(exchangeSourceHandles);
+        }
+
         private long sourceHandleSize(ExchangeSourceHandle handle)
         {
             Exchange exchange = exchangeForHandle.get(handle);
@@ -981,6 +1167,46 @@ public class StageTaskSourceFactory
         return result.build();
     }
 
+    private static class PartitionBin
+    {
+        private final int index;
+        private final ImmutableListMultimap.Builder<PlanNodeId, ExchangeSourceHandle> exchangeSourceHandles = ImmutableListMultimap.builder();
+        private long sizeInBytes;
+        private boolean empty = true;
+
+        private PartitionBin(int index)
+        {
+            this.index = index;
+        }
+
+        public int getIndex()
+        {
+            return index;
+        }
+
+        public long getSizeInBytes()
+        {
+            return sizeInBytes;
+        }
+
+        public boolean isEmpty()
+        {
+            return empty;
+        }
+
+        public void add(ListMultimap<PlanNodeId, ExchangeSourceHandle> handles, long handlesSizeInBytes)
+        {
+            exchangeSourceHandles.putAll(handles);
+            sizeInBytes += handlesSizeInBytes;
+            empty = false;
+        }
+
+        public ListMultimap<PlanNodeId, ExchangeSourceHandle> build()
+        {
+            return exchangeSourceHandles.build();
+        }
+    }
+
     private static class LoadedSplits
     {
         private final PlanNodeId planNodeId;
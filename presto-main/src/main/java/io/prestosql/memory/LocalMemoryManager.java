@@ -16,10 +16,14 @@ package io.prestosql.memory;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import io.airlift.log.Logger;
 import io.airlift.units.DataSize;
+import io.hetu.core.common.util.DirectMemoryUtil;
 import io.prestosql.spi.memory.MemoryPoolId;
 import io.prestosql.spi.memory.MemoryPoolInfo;
+import io.prestosql.spi.memory.ReclaimableMemoryConsumer;
 
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 
 import java.lang.management.ManagementFactory;
@@ -27,23 +31,39 @@ import java.lang.management.OperatingSystemMXBean;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Verify.verify;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.airlift.units.DataSize.Unit.BYTE;
+import static io.hetu.core.common.util.DirectMemoryUtil.getMaxDirectMemory;
+import static io.prestosql.memory.MemoryPoolListener.onMemoryReserved;
 import static io.prestosql.memory.NodeMemoryConfig.QUERY_MAX_MEMORY_PER_NODE_CONFIG;
 import static io.prestosql.memory.NodeMemoryConfig.QUERY_MAX_TOTAL_MEMORY_PER_NODE_CONFIG;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
 
 public final class LocalMemoryManager
 {
     public static final MemoryPoolId GENERAL_POOL = new MemoryPoolId("general");
     public static final MemoryPoolId RESERVED_POOL = new MemoryPoolId("reserved");
     private static final OperatingSystemMXBean OPERATING_SYSTEM_MX_BEAN = ManagementFactory.getOperatingSystemMXBean();
+    private static final Logger log = Logger.get(LocalMemoryManager.class);
 
     private DataSize maxMemory;
     private Map<MemoryPoolId, MemoryPool> pools;
+    private final List<ReclaimableMemoryConsumer> reclaimableMemoryConsumers = new CopyOnWriteArrayList<>();
+    private final double reclaimableMemoryThreshold;
+    private final long maxDirectMemory;
+    private final LongSupplier directMemoryUsed;
+    private final ExecutorService reclaimExecutor;
+    private final AtomicBoolean reclaimScheduled = new AtomicBoolean();
 
     @Inject
     public LocalMemoryManager(NodeMemoryConfig config)
@@ -53,9 +73,26 @@ public final class LocalMemoryManager
 
     @VisibleForTesting
     LocalMemoryManager(NodeMemoryConfig config, long availableMemory)
+    {
+        this(config, availableMemory, getMaxDirectMemory(), DirectMemoryUtil::getDirectMemoryUsed, newSingleThreadExecutor(daemonThreadsNamed("local-memory-reclaimer")));
+    }
+
+    @VisibleForTesting
+    LocalMemoryManager(NodeMemoryConfig config, long availableMemory, long maxDirectMemory, LongSupplier directMemoryUsed, ExecutorService reclaimExecutor)
     {
         requireNonNull(config, "config is null");
         configureMemoryPools(config, availableMemory);
+        this.reclaimableMemoryThreshold = config.getReclaimableMemoryThreshold();
+        this.maxDirectMemory = maxDirectMemory;
+        this.directMemoryUsed = requireNonNull(directMemoryUsed, "directMemoryUsed is null");
+        this.reclaimExecutor = requireNonNull(reclaimExecutor, "reclaimExecutor is null");
+        getGeneralPool().addListener(onMemoryReserved(this::reclaimMemoryIfNeeded));
+    }
+
+    @PreDestroy
+    public void stop()
+    {
+        reclaimExecutor.shutdownNow();
     }
 
     private void configureMemoryPools(NodeMemoryConfig config, long availableMemory)
@@ -127,6 +164,98 @@ public final class LocalMemoryManager
         }
     }
 
+    /**
+     * Registers memory held outside of the memory pools, such as a connector cache. Heap memory
+     * counts towards the general pool when the pool is checked against the reclaimable memory
+     * threshold, and is shrunk when the pool together with the registered memory exceeds it.
+     * Direct memory is shrunk when the direct memory used by the JVM exceeds the threshold of
+     * the maximum direct memory instead.
+     */
+    public void registerReclaimableMemoryConsumer(ReclaimableMemoryConsumer consumer)
+    {
+        reclaimableMemoryConsumers.add(requireNonNull(consumer, "consumer is null"));
+    }
+
+    public long getReclaimableMemoryBytes()
+    {
+        return getReclaimableMemoryBytes(false) + getReclaimableMemoryBytes(true);
+    }
+
+    private long getReclaimableMemoryBytes(boolean directMemory)
+    {
+        long bytes = 0;
+        for (ReclaimableMemoryConsumer consumer : reclaimableMemoryConsumers) {
+            if (consumer.isDirectMemory() == directMemory) {
+                bytes += consumer.getRetainedSizeInBytes();
+            }
+        }
+        return bytes;
+    }
+
+    private void reclaimMemoryIfNeeded(MemoryPool pool)
+    {
+        // direct memory is checked on reservations too, since the consumers usually grow while queries read data
+        if (getHeapBytesToReclaim(pool) <= 0 && getDirectBytesToReclaim() <= 0) {
+            return;
+        }
+        // the listener runs in the thread that reserves memory, so the consumers are shrunk in the
+        // background and reservations that arrive in the meantime do not schedule more work
+        if (reclaimScheduled.compareAndSet(false, true)) {
+            try {
+                reclaimExecutor.execute(() -> {
+                    try {
+                        reclaimMemory(false, getHeapBytesToReclaim(pool));
+                        reclaimMemory(true, getDirectBytesToReclaim());
+                    }
+                    finally {
+                        reclaimScheduled.set(false);
+                    }
+                });
+            }
+            catch (RejectedExecutionException e) {
+                // the memory manager is stopped
+                reclaimScheduled.set(false);
+            }
+        }
+    }
+
+    private long getHeapBytesToReclaim(MemoryPool pool)
+    {
+        long reclaimableBytes = getReclaimableMemoryBytes(false);
+        if (reclaimableBytes == 0) {
+            return 0;
+        }
+        long usedBytes = pool.getReservedBytes() + pool.getReservedRevocableBytes() + reclaimableBytes;
+        return Math.min(reclaimableBytes, usedBytes - (long) (pool.getMaxBytes() * reclaimableMemoryThreshold));
+    }
+
+    private long getDirectBytesToReclaim()
+    {
+        long reclaimableBytes = getReclaimableMemoryBytes(true);
+        if (reclaimableBytes == 0) {
+            return 0;
+        }
+        // the direct memory of the consumers is already part of the direct memory used by the JVM
+        return Math.min(reclaimableBytes, directMemoryUsed.getAsLong() - (long) (maxDirectMemory * reclaimableMemoryThreshold));
+    }
+
+    private void reclaimMemory(boolean directMemory, long bytesToReclaim)
+    {
+        for (ReclaimableMemoryConsumer consumer : reclaimableMemoryConsumers) {
+            if (bytesToReclaim <= 0) {
+                return;
+            }
+            if (consumer.isDirectMemory() != directMemory) {
+                continue;
+            }
+            long reclaimed = consumer.reclaim(bytesToReclaim);
+            if (reclaimed > 0) {
+                log.debug("Reclaimed %s bytes from %s", reclaimed, consumer);
+            }
+            bytesToReclaim -= reclaimed;
+        }
+    }
+
     public List<MemoryPool> getPools()
     {
         return ImmutableList.copyOf(pools.values());
@@ -18,6 +18,8 @@ import io.airlift.configuration.ConfigDescription;
 import io.airlift.configuration.DefunctConfig;
 import io.airlift.units.DataSize;
 
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
 import javax.validation.constraints.NotNull;
 
 import static io.airlift.units.DataSize.Unit.BYTE;
@@ -37,6 +39,7 @@ public class NodeMemoryConfig
     // This is a per-query limit for the user plus system allocations.
     private DataSize maxQueryTotalMemoryPerNode = new DataSize(AVAILABLE_HEAP_MEMORY * 0.3, BYTE);
     private DataSize heapHeadroom = new DataSize(AVAILABLE_HEAP_MEMORY * 0.3, BYTE);
+    private double reclaimableMemoryThreshold = 0.9;
 
     @NotNull
     public DataSize getMaxQueryMemoryPerNode()
@@ -89,4 +92,19 @@ public class NodeMemoryConfig
         this.heapHeadroom = heapHeadroom;
         return this;
     }
+
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    public double getReclaimableMemoryThreshold()
+    {
+        return reclaimableMemoryThreshold;
+    }
+
+    @Config("memory.reclaimable-memory-threshold")
+    @ConfigDescription("Fraction of the general pool, or of the direct memory for caches in direct memory, above which connector caches are shrunk")
+    public NodeMemoryConfig setReclaimableMemoryThreshold(double reclaimableMemoryThreshold)
+    {
+        this.reclaimableMemoryThreshold = reclaimableMemoryThreshold;
+        return this;
+    }
 }
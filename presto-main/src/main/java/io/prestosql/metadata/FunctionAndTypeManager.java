@@ -21,6 +21,9 @@ import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.UncheckedExecutionException;
+import io.hetu.core.transport.block.PackedDictionaryBlockEncoding;
+import io.hetu.core.transport.block.PackedIntArrayBlockEncoding;
+import io.hetu.core.transport.block.PackedLongArrayBlockEncoding;
 import io.prestosql.Session;
 import io.prestosql.metastore.HetuMetaStoreManager;
 import io.prestosql.operator.aggregation.InternalAggregationFunction;
@@ -168,6 +171,9 @@ public class FunctionAndTypeManager
         addBlockEncoding(new SingleRowBlockEncoding());
         addBlockEncoding(new RunLengthBlockEncoding());
         addBlockEncoding(new LazyBlockEncoding());
+        addBlockEncoding(new PackedLongArrayBlockEncoding());
+        addBlockEncoding(new PackedIntArrayBlockEncoding());
+        addBlockEncoding(new PackedDictionaryBlockEncoding());
     }
 
     public static FunctionAndTypeManager createTestFunctionAndTypeManager()
@@ -21,13 +21,17 @@ import io.prestosql.spi.PageBuilder;
 import io.prestosql.spi.PrestoException;
 import io.prestosql.spi.block.Block;
 import io.prestosql.spi.block.BlockBuilder;
+import io.prestosql.spi.snapshot.BinarySnapshotState;
 import io.prestosql.spi.snapshot.BlockEncodingSerdeProvider;
 import io.prestosql.spi.snapshot.RestorableConfig;
+import io.prestosql.spi.snapshot.SnapshotStateInput;
+import io.prestosql.spi.snapshot.SnapshotStateOutput;
 import io.prestosql.spi.type.BigintType;
 import io.prestosql.spi.type.Type;
 import io.prestosql.type.BigintOperators;
 import org.openjdk.jol.info.ClassLayout;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.List;
 
@@ -346,8 +350,8 @@ public class BigintGroupByHash
         this.currentPageSizeInBytes = myState.currentPageSizeInBytes;
     }
 
-    private static class BigintGroupByHashState
-            implements Serializable
+    public static class BigintGroupByHashState
+            implements Serializable, BinarySnapshotState
     {
         private int hashCapacity;
         private int maxFill;
@@ -361,5 +365,41 @@ public class BigintGroupByHash
         private double expectedHashCollisions;
         private long preallocatedMemoryInBytes;
         private long currentPageSizeInBytes;
+
+        @Override
+        public void writeState(SnapshotStateOutput output)
+                throws IOException
+        {
+            output.writeInt(hashCapacity);
+            output.writeInt(maxFill);
+            output.writeInt(mask);
+            output.writeObject(values);
+            output.writeObject(groupIds);
+            output.writeInt(nullGroupId);
+            output.writeObject(valuesByGroupId);
+            output.writeInt(nextGroupId);
+            output.writeLong(hashCollisions);
+            output.writeDouble(expectedHashCollisions);
+            output.writeLong(preallocatedMemoryInBytes);
+            output.writeLong(currentPageSizeInBytes);
+        }
+
+        @Override
+        public void readState(SnapshotStateInput input)
+                throws IOException, ClassNotFoundException
+        {
+            hashCapacity = input.readInt();
+            maxFill = input.readInt();
+            mask = input.readInt();
+            values = input.readObject();
+            groupIds = input.readObject();
+            nullGroupId = input.readInt();
+            valuesByGroupId = input.readObject();
+            nextGroupId = input.readInt();
+            hashCollisions = input.readLong();
+            expectedHashCollisions = input.readDouble();
+            preallocatedMemoryInBytes = input.readLong();
+            currentPageSizeInBytes = input.readLong();
+        }
     }
 }
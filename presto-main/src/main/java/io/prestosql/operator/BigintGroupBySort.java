@@ -20,13 +20,17 @@ import io.prestosql.spi.PageBuilder;
 import io.prestosql.spi.PrestoException;
 import io.prestosql.spi.block.Block;
 import io.prestosql.spi.block.BlockBuilder;
+import io.prestosql.spi.snapshot.BinarySnapshotState;
 import io.prestosql.spi.snapshot.BlockEncodingSerdeProvider;
 import io.prestosql.spi.snapshot.RestorableConfig;
+import io.prestosql.spi.snapshot.SnapshotStateInput;
+import io.prestosql.spi.snapshot.SnapshotStateOutput;
 import io.prestosql.spi.type.Type;
 import io.prestosql.type.BigintOperators;
 import it.unimi.dsi.fastutil.longs.LongArrayList;
 import org.openjdk.jol.info.ClassLayout;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.List;
 
@@ -211,12 +215,32 @@ public class BigintGroupBySort
         this.nullGroupId = myState.nullGroupId;
     }
 
-    protected static class BigintGroupBySortState
-            implements Serializable
+    public static class BigintGroupBySortState
+            implements Serializable, BinarySnapshotState
     {
         protected int maxFill;
         protected int nextGroupId;
         protected long currentPageSizeInBytes;
         protected int nullGroupId;
+
+        @Override
+        public void writeState(SnapshotStateOutput output)
+                throws IOException
+        {
+            output.writeInt(maxFill);
+            output.writeInt(nextGroupId);
+            output.writeLong(currentPageSizeInBytes);
+            output.writeInt(nullGroupId);
+        }
+
+        @Override
+        public void readState(SnapshotStateInput input)
+                throws IOException, ClassNotFoundException
+        {
+            maxFill = input.readInt();
+            nextGroupId = input.readInt();
+            currentPageSizeInBytes = input.readLong();
+            nullGroupId = input.readInt();
+        }
     }
 }
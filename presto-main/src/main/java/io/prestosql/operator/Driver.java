@@ -594,6 +594,7 @@ public class Driver
         Throwable inFlightException = null;
         try {
             inFlightException = closeAndDestroyOperators(activeOperators, toResume);
+            driverContext.closeSerde();
             if (driverContext.getMemoryUsage() > 0) {
                 log.error("Driver still has memory reserved after freeing all operator memory.");
             }
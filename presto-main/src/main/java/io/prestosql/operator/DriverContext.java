@@ -26,6 +26,7 @@ import io.prestosql.Session;
 import io.prestosql.execution.Lifespan;
 import io.prestosql.execution.TaskId;
 import io.prestosql.memory.QueryContextVisitor;
+import io.prestosql.memory.context.LocalMemoryContext;
 import io.prestosql.memory.context.MemoryTrackingContext;
 import io.prestosql.operator.OperationTimer.OperationTiming;
 import io.prestosql.spi.plan.PlanNodeId;
@@ -86,6 +87,7 @@ public class DriverContext
     private final int driverId;
 
     private PagesSerde serde;
+    private LocalMemoryContext serdeMemoryContext;
     private PagesSerde kryoSerde;
     private PagesSerde javaSerde;
 
@@ -522,10 +524,26 @@ public class DriverContext
             // Lazily create serde because some pipelines may not need it.
             // Work within a driver is single-threaded, so no synchronization needed.
             serde = pipelineContext.getTaskContext().getSerdeFactory().createPagesSerde();
+            if (serde.isPooledBuffersEnabled()) {
+                serdeMemoryContext = driverMemoryContext.newSystemMemoryContext(PagesSerde.class.getSimpleName());
+                serde.setRetainedSizeListener(serdeMemoryContext::setBytes);
+            }
         }
         return serde;
     }
 
+    /**
+     * Releases the pooled buffers of the serde once no operator of this driver uses it anymore
+     */
+    public void closeSerde()
+    {
+        if (serdeMemoryContext != null) {
+            serdeMemoryContext.close();
+            serdeMemoryContext = null;
+        }
+        serde = null;
+    }
+
     public PagesSerde getJavaSerde()
     {
         if (javaSerde == null) {
@@ -19,6 +19,9 @@ import io.prestosql.snapshot.RecoveryUtils;
 import io.prestosql.snapshot.SingleInputSnapshotState;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.block.Block;
+import io.prestosql.spi.dynamicfilter.DoubleHashSet;
+import io.prestosql.spi.dynamicfilter.LongHashSet;
+import io.prestosql.spi.dynamicfilter.SliceHashSet;
 import io.prestosql.spi.plan.PlanNodeId;
 import io.prestosql.spi.snapshot.BlockEncodingSerdeProvider;
 import io.prestosql.spi.snapshot.RestorableConfig;
@@ -28,7 +31,6 @@ import io.prestosql.spi.type.TypeUtils;
 import java.io.Serializable;
 import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -37,6 +39,7 @@ import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Verify.verify;
+import static io.prestosql.spi.dynamicfilter.HashSetDynamicFilter.createValueSet;
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.toSet;
 
@@ -82,7 +85,7 @@ public class DynamicFilterSourceOperator
 
         this.values = new HashMap<>();
         for (Channel channel : channels) {
-            values.put(channel, new HashSet<>());
+            values.put(channel, createValueSet(channel.type));
         }
         this.snapshotState = context.isSnapshotEnabled() ? SingleInputSnapshotState.forOperator(this, context) : null;
     }
@@ -123,12 +126,7 @@ public class DynamicFilterSourceOperator
             Block block = page.getBlock(channel.index);
 
             //saving the cloned block, to be processed in the "finish()" to avoid blocking down stream operators
-            for (int i = 0; i < block.getPositionCount(); i++) {
-                Object value = TypeUtils.readNativeValue(channel.type, block, i);
-                if (value != null) { //ignoring null values
-                    values.get(channel).add(value);
-                }
-            }
+            collectValues(channel.type, block, values.get(channel));
 
             filterSizeInBytes += block.getRetainedSizeInBytes();
             filterPositionsCount += values.get(channel).size();
@@ -140,6 +138,43 @@ public class DynamicFilterSourceOperator
         }
     }
 
+    private static void collectValues(Type type, Block block, Set channelValues)
+    {
+        // null values are ignored
+        if (channelValues instanceof LongHashSet) {
+            LongHashSet set = (LongHashSet) channelValues;
+            for (int i = 0; i < block.getPositionCount(); i++) {
+                if (!block.isNull(i)) {
+                    set.add(type.getLong(block, i));
+                }
+            }
+        }
+        else if (channelValues instanceof DoubleHashSet) {
+            DoubleHashSet set = (DoubleHashSet) channelValues;
+            for (int i = 0; i < block.getPositionCount(); i++) {
+                if (!block.isNull(i)) {
+                    set.add(type.getDouble(block, i));
+                }
+            }
+        }
+        else if (channelValues instanceof SliceHashSet) {
+            SliceHashSet set = (SliceHashSet) channelValues;
+            for (int i = 0; i < block.getPositionCount(); i++) {
+                if (!block.isNull(i)) {
+                    set.add(type.getSlice(block, i));
+                }
+            }
+        }
+        else {
+            for (int i = 0; i < block.getPositionCount(); i++) {
+                Object value = TypeUtils.readNativeValue(type, block, i);
+                if (value != null) {
+                    channelValues.add(value);
+                }
+            }
+        }
+    }
+
     private void handleTooLargePredicate()
     {
         values = null;
@@ -268,7 +303,7 @@ public class DynamicFilterSourceOperator
             if (this.values == null) {
                 this.values = new HashMap<>();
                 for (Channel channel : channels) {
-                    this.values.put(channel, new HashSet<>());
+                    this.values.put(channel, createValueSet(channel.type));
                 }
             }
             checkState(myState.values.length == channels.size());
@@ -47,9 +47,11 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -64,6 +66,7 @@ import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Throwables.throwIfUnchecked;
 import static com.google.common.collect.Sets.newConcurrentHashSet;
 import static io.airlift.slice.Slices.EMPTY_SLICE;
+import static io.airlift.units.DataSize.Unit.BYTE;
 import static java.util.Objects.requireNonNull;
 
 @ThreadSafe
@@ -72,11 +75,13 @@ public class ExchangeClient
 {
     private static final Logger log = Logger.get(ExchangeClient.class);
     private static final SerializedPage NO_MORE_PAGES = new SerializedPage(EMPTY_SLICE, PageCodecMarker.MarkerSet.empty(), 0, 0);
+    private static final long MIN_CREDIT_BYTES = new DataSize(64, DataSize.Unit.KILOBYTE).toBytes();
 
     private final long bufferCapacity;
     private final DataSize maxResponseSize;
     private final int concurrentRequestMultiplier;
     private final boolean acknowledgePages;
+    private final boolean creditBasedFlowControl;
     private final HttpClient httpClient;
     private final ScheduledExecutorService scheduler;
     private final FailureDetectorManager failureDetectorManager;
@@ -105,6 +110,11 @@ public class ExchangeClient
     private final Deque<HttpPageBufferClient> queuedClients = new LinkedList<>();
 
     private final Set<HttpPageBufferClient> completedClients = newConcurrentHashSet();
+    // Credit based flow control: bytes each in-flight request may still add to the buffer. Uses object identity, like the client bookkeeping above.
+    @GuardedBy("this")
+    private final Map<HttpPageBufferClient, Long> grantedCredits = new IdentityHashMap<>();
+    @GuardedBy("this")
+    private long outstandingCreditBytes;
     private final LinkedBlockingDeque<SerializedPage> pageBuffer = new LinkedBlockingDeque<>();
     // Snapshot: pararrel array to pageBuffer, about which targets need to receive this page. "null" indicates any one target.
     // originBuffer is similar to targetBuffer, but detailing where the page is coming from rather than where it is headed
@@ -148,11 +158,41 @@ public class ExchangeClient
                            TaskFailureListener taskFailureListener,
                            RetryPolicy retryPolicy,
                            DirectExchangeBuffer buffer)
+    {
+        this(bufferCapacity,
+                maxResponseSize,
+                concurrentRequestMultiplier,
+                acknowledgePages,
+                false,
+                httpClient,
+                scheduler,
+                systemMemoryContext,
+                pageBufferClientCallbackExecutor,
+                failureDetectorManager,
+                taskFailureListener,
+                retryPolicy,
+                buffer);
+    }
+
+    public ExchangeClient(DataSize bufferCapacity,
+                           DataSize maxResponseSize,
+                           int concurrentRequestMultiplier,
+                           boolean acknowledgePages,
+                           boolean creditBasedFlowControl,
+                           HttpClient httpClient,
+                           ScheduledExecutorService scheduler,
+                           LocalMemoryContext systemMemoryContext,
+                           Executor pageBufferClientCallbackExecutor,
+                           FailureDetectorManager failureDetectorManager,
+                           TaskFailureListener taskFailureListener,
+                           RetryPolicy retryPolicy,
+                           DirectExchangeBuffer buffer)
     {
         this.bufferCapacity = bufferCapacity.toBytes();
         this.maxResponseSize = maxResponseSize;
         this.concurrentRequestMultiplier = concurrentRequestMultiplier;
         this.acknowledgePages = acknowledgePages;
+        this.creditBasedFlowControl = creditBasedFlowControl;
         this.httpClient = httpClient;
         this.scheduler = scheduler;
         this.systemMemoryContext = systemMemoryContext;
@@ -526,6 +566,8 @@ public class ExchangeClient
         pendingOrigins.clear();
         systemMemoryContext.setBytes(0);
         bufferRetainedSizeInBytes = 0;
+        grantedCredits.clear();
+        outstandingCreditBytes = 0;
     }
 
     @VisibleForTesting
@@ -561,6 +603,11 @@ public class ExchangeClient
             return;
         }
 
+        if (creditBasedFlowControl) {
+            scheduleRequestsWithCredit(neededBytes);
+            return;
+        }
+
         long clientCount = (long) ((1.0 * neededBytes / averageBytesPerRequest) * concurrentRequestMultiplier);
         clientCount = Math.max(clientCount, 1);
 
@@ -577,6 +624,37 @@ public class ExchangeClient
         }
     }
 
+    /**
+     * Credit based flow control: the free buffer capacity is split into credits and every
+     * request carries its credit as the maximum response size, so the bytes that may be in
+     * flight never exceed what the buffer can hold. When the free capacity is small, fewer
+     * clients get a minimum credit rather than every client a tiny one, and the last client
+     * gets what is left. Clients without credit stay queued until the consumer drains the buffer.
+     */
+    @GuardedBy("this")
+    private void scheduleRequestsWithCredit(long neededBytes)
+    {
+        long freeCredit = neededBytes - outstandingCreditBytes;
+        while (freeCredit > 0 && !queuedClients.isEmpty()) {
+            long credit = Math.min(freeCredit, Math.min(maxResponseSize.toBytes(), Math.max(MIN_CREDIT_BYTES, freeCredit / queuedClients.size())));
+            HttpPageBufferClient client = queuedClients.poll();
+            if (client.scheduleRequest(new DataSize(credit, BYTE))) {
+                grantedCredits.put(client, credit);
+                outstandingCreditBytes += credit;
+                freeCredit -= credit;
+            }
+        }
+    }
+
+    @GuardedBy("this")
+    private void releaseCredit(HttpPageBufferClient client)
+    {
+        Long credit = grantedCredits.remove(client);
+        if (credit != null) {
+            outstandingCreditBytes -= credit;
+        }
+    }
+
     public synchronized ListenableFuture<?> isBlocked()
     {
         ListenableFuture<?> resultFuture;
@@ -682,6 +760,7 @@ public class ExchangeClient
 
     private synchronized void requestComplete(HttpPageBufferClient client)
     {
+        releaseCredit(client);
         if (!queuedClients.contains(client)) {
             // Snapshot: Client may have been removed as a result of rescheduling, then don't queue it.
             // Use object identity, instead of .equals, for comparison.
@@ -697,6 +776,7 @@ public class ExchangeClient
     private synchronized void clientFinished(HttpPageBufferClient client)
     {
         requireNonNull(client, "client is null");
+        releaseCredit(client);
         // Snapshot: Client may have been removed as a result of rescheduling, then don't add it.
         // Use object identity, instead of .equals, for comparison.
         if (!recoveryEnabled || allClients.values().stream().anyMatch(c -> c == client)) {
@@ -713,6 +793,7 @@ public class ExchangeClient
     private synchronized void clientFailed(HttpPageBufferClient client, Throwable cause)
     {
         log.error("clientFailed is called!, cause: " + cause + ", isClosed(): " + isClosed());
+        releaseCredit(client);
         if (buffer != null) {
             requireNonNull(client, "client is null");
             if (completedClients.add(client)) {
@@ -31,6 +31,7 @@ public class ExchangeClientConfig
     private int clientThreads = 25;
     private int pageBufferClientMaxCallbackThreads = 25;
     private boolean acknowledgePages = true;
+    private boolean creditBasedFlowControl;
     private DataSize deduplicationBufferSize = new DataSize(32, Unit.MEGABYTE);
 
     @NotNull
@@ -111,6 +112,18 @@ public class ExchangeClientConfig
         return this;
     }
 
+    public boolean isCreditBasedFlowControl()
+    {
+        return creditBasedFlowControl;
+    }
+
+    @Config("exchange.credit-based-flow-control")
+    public ExchangeClientConfig setCreditBasedFlowControl(boolean creditBasedFlowControl)
+    {
+        this.creditBasedFlowControl = creditBasedFlowControl;
+        return this;
+    }
+
     @NotNull
     public DataSize getDeduplicationBufferSize()
     {
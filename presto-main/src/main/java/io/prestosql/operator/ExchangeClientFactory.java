@@ -47,6 +47,7 @@ public class ExchangeClientFactory
     private final HttpClient httpClient;
     private final DataSize maxResponseSize;
     private final boolean acknowledgePages;
+    private final boolean creditBasedFlowControl;
     private final ScheduledExecutorService scheduler;
     private final ThreadPoolExecutorMBean executorMBean;
     private final ExecutorService pageBufferClientCallbackExecutor;
@@ -68,6 +69,7 @@ public class ExchangeClientFactory
                 config.getMaxResponseSize(),
                 config.getConcurrentRequestMultiplier(),
                 config.isAcknowledgePages(),
+                config.isCreditBasedFlowControl(),
                 config.getPageBufferClientMaxCallbackThreads(),
                 httpClient,
                 scheduler,
@@ -86,10 +88,38 @@ public class ExchangeClientFactory
             ScheduledExecutorService scheduler,
             FailureDetectorManager failureDetectorManager,
             ExchangeManagerRegistry exchangeManagerRegistry)
+    {
+        this(
+                maxBufferedBytes,
+                deduplicationBufferSize,
+                maxResponseSize,
+                concurrentRequestMultiplier,
+                acknowledgePages,
+                false,
+                pageBufferClientMaxCallbackThreads,
+                httpClient,
+                scheduler,
+                failureDetectorManager,
+                exchangeManagerRegistry);
+    }
+
+    public ExchangeClientFactory(
+            DataSize maxBufferedBytes,
+            DataSize deduplicationBufferSize,
+            DataSize maxResponseSize,
+            int concurrentRequestMultiplier,
+            boolean acknowledgePages,
+            boolean creditBasedFlowControl,
+            int pageBufferClientMaxCallbackThreads,
+            HttpClient httpClient,
+            ScheduledExecutorService scheduler,
+            FailureDetectorManager failureDetectorManager,
+            ExchangeManagerRegistry exchangeManagerRegistry)
     {
         this.maxBufferedBytes = requireNonNull(maxBufferedBytes, "maxBufferedBytes is null");
         this.concurrentRequestMultiplier = concurrentRequestMultiplier;
         this.acknowledgePages = acknowledgePages;
+        this.creditBasedFlowControl = creditBasedFlowControl;
         this.httpClient = requireNonNull(httpClient, "httpClient is null");
         this.failureDetectorManager = failureDetectorManager;
 
@@ -149,6 +179,7 @@ public class ExchangeClientFactory
                 maxResponseSize,
                 concurrentRequestMultiplier,
                 acknowledgePages,
+                creditBasedFlowControl,
                 httpClient,
                 scheduler,
                 systemMemoryContext,
@@ -0,0 +1,659 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.PageBuilder;
+import io.prestosql.spi.PrestoException;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockBuilder;
+import io.prestosql.spi.snapshot.BinarySnapshotState;
+import io.prestosql.spi.snapshot.BlockEncodingSerdeProvider;
+import io.prestosql.spi.snapshot.RestorableConfig;
+import io.prestosql.spi.snapshot.SnapshotStateInput;
+import io.prestosql.spi.snapshot.SnapshotStateOutput;
+import io.prestosql.spi.type.CharType;
+import io.prestosql.spi.type.DecimalType;
+import io.prestosql.spi.type.Type;
+import io.prestosql.spi.type.VarbinaryType;
+import io.prestosql.spi.type.VarcharType;
+import io.prestosql.sql.gen.JoinCompiler;
+import org.openjdk.jol.info.ClassLayout;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.airlift.slice.SizeOf.SIZE_OF_INT;
+import static io.airlift.slice.SizeOf.SIZE_OF_LONG;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static io.prestosql.spi.StandardErrorCode.GENERIC_INSUFFICIENT_RESOURCES;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.BooleanType.BOOLEAN;
+import static io.prestosql.spi.type.DateType.DATE;
+import static io.prestosql.spi.type.IntegerType.INTEGER;
+import static io.prestosql.spi.type.SmallintType.SMALLINT;
+import static io.prestosql.spi.type.TimestampType.TIMESTAMP;
+import static io.prestosql.spi.type.TinyintType.TINYINT;
+import static io.prestosql.util.HashCollisionsEstimator.estimateNumberOfHashCollisions;
+import static it.unimi.dsi.fastutil.HashCommon.arraySize;
+import static it.unimi.dsi.fastutil.HashCommon.murmurHash3;
+import static java.lang.Math.max;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Group by hash that keeps every group as a fixed size record in large byte arrays instead of
+ * appending the keys to block builders. A record holds the raw hash followed by a null flag and
+ * the value of every key; variable width values are copied to separate chunks and the record
+ * keeps their length and location. Hash slots pack the high bits of the raw hash together with
+ * the group id, so most mismatches are rejected without touching the records.
+ * <p>
+ * Only types whose values are equal exactly when their stored representation is equal are
+ * supported, see {@link #isSupportedTypes(List)}.
+ */
+@RestorableConfig(uncapturedFields = {"keyKinds", "keyOffsets", "updateMemory"})
+public class FlatGroupByHash
+        extends MultiChannelGroupBy
+        implements GroupByHash
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(FlatGroupByHash.class).instanceSize();
+    private static final float FILL_RATIO = 0.75f;
+
+    private static final int RECORDS_PER_PAGE_SHIFT = 10;
+    private static final int RECORDS_PER_PAGE = 1 << RECORDS_PER_PAGE_SHIFT;
+    private static final int RECORDS_PER_PAGE_MASK = RECORDS_PER_PAGE - 1;
+    private static final int VARIABLE_WIDTH_CHUNK_SIZE = 64 * 1024;
+
+    private static final long EMPTY_SLOT = -1;
+    private static final long HASH_TAG_MASK = 0xFFFF_FFFF_0000_0000L;
+
+    private static final byte FIXED_WIDTH_LONG = 0;
+    private static final byte FIXED_WIDTH_BOOLEAN = 1;
+    private static final byte VARIABLE_WIDTH = 2;
+    // length, chunk index and offset in the chunk
+    private static final int VARIABLE_WIDTH_REFERENCE_SIZE = 3 * SIZE_OF_INT;
+
+    private final byte[] keyKinds;
+    private final int[] keyOffsets;
+    private final int recordSize;
+
+    private long[] slots;
+    private int hashCapacity;
+    private int maxFill;
+    private int mask;
+
+    private Slice[] recordPages = new Slice[16];
+    private int recordPageCount;
+
+    private Slice[] variableWidthChunks = new Slice[16];
+    private int variableWidthChunkCount;
+    private int variableWidthChunkPosition;
+    private long variableWidthRetainedBytes;
+
+    private int nextGroupId;
+    private long hashCollisions;
+    private double expectedHashCollisions;
+
+    // reserve enough memory before rehash
+    private final UpdateMemory updateMemory;
+    private long preallocatedMemoryInBytes;
+
+    public FlatGroupByHash(
+            List<? extends Type> hashTypes,
+            int[] hashChannels,
+            Optional<Integer> inputHashChannel,
+            int expectedSize,
+            boolean processDictionary,
+            JoinCompiler joinCompiler,
+            UpdateMemory updateMemory)
+    {
+        super(hashTypes, hashChannels, inputHashChannel, expectedSize, processDictionary, joinCompiler);
+        checkArgument(isSupportedTypes(hashTypes), "Unsupported types for flat group by hash: %s", hashTypes);
+
+        keyKinds = new byte[hashTypes.size()];
+        keyOffsets = new int[hashTypes.size()];
+        int offset = SIZE_OF_LONG;
+        for (int i = 0; i < hashTypes.size(); i++) {
+            Type type = hashTypes.get(i);
+            keyOffsets[i] = offset;
+            // null flag
+            offset++;
+            if (isVariableWidth(type)) {
+                keyKinds[i] = VARIABLE_WIDTH;
+                offset += VARIABLE_WIDTH_REFERENCE_SIZE;
+            }
+            else if (type.equals(BOOLEAN)) {
+                keyKinds[i] = FIXED_WIDTH_BOOLEAN;
+                offset++;
+            }
+            else {
+                keyKinds[i] = FIXED_WIDTH_LONG;
+                offset += SIZE_OF_LONG;
+            }
+        }
+        recordSize = offset;
+
+        hashCapacity = arraySize(expectedSize, FILL_RATIO);
+        maxFill = calculateMaxFill(hashCapacity);
+        mask = hashCapacity - 1;
+        slots = new long[hashCapacity];
+        Arrays.fill(slots, EMPTY_SLOT);
+
+        // This interface is used for actively reserving memory (push model) for rehash.
+        // The caller can also query memory usage on this object (pull model)
+        this.updateMemory = requireNonNull(updateMemory, "updateMemory is null");
+    }
+
+    public static boolean isSupportedTypes(List<? extends Type> types)
+    {
+        return types.stream().allMatch(FlatGroupByHash::isSupportedType);
+    }
+
+    private static boolean isSupportedType(Type type)
+    {
+        if (isVariableWidth(type)) {
+            return true;
+        }
+        if (type instanceof DecimalType) {
+            return ((DecimalType) type).isShort();
+        }
+        // REAL, DOUBLE and TIMESTAMP WITH TIME ZONE compare values that have several representations
+        return type.equals(BIGINT) || type.equals(INTEGER) || type.equals(SMALLINT) || type.equals(TINYINT) ||
+                type.equals(DATE) || type.equals(TIMESTAMP) || type.equals(BOOLEAN);
+    }
+
+    private static boolean isVariableWidth(Type type)
+    {
+        return type instanceof VarcharType || type instanceof VarbinaryType || type instanceof CharType;
+    }
+
+    @Override
+    public long getRawHash(int groupId)
+    {
+        return getRecordPage(groupId).getLong(getRecordOffset(groupId));
+    }
+
+    @Override
+    public long getEstimatedSize()
+    {
+        return INSTANCE_SIZE +
+                (sizeOf(channelBuilders.get(0).elements()) * channelBuilders.size()) +
+                sizeOf(slots) +
+                sizeOf(recordPages) +
+                (long) recordPageCount * RECORDS_PER_PAGE * recordSize +
+                sizeOf(variableWidthChunks) +
+                variableWidthRetainedBytes +
+                preallocatedMemoryInBytes;
+    }
+
+    @Override
+    public long getHashCollisions()
+    {
+        return hashCollisions;
+    }
+
+    @Override
+    public double getExpectedHashCollisions()
+    {
+        return expectedHashCollisions + estimateNumberOfHashCollisions(getGroupCount(), hashCapacity);
+    }
+
+    @Override
+    public List<Type> getTypes()
+    {
+        return types;
+    }
+
+    @Override
+    public int getGroupCount()
+    {
+        return nextGroupId;
+    }
+
+    @Override
+    public void appendValuesTo(int groupId, PageBuilder pageBuilder, int outputChannelOffset)
+    {
+        Slice records = getRecordPage(groupId);
+        int recordOffset = getRecordOffset(groupId);
+        for (int i = 0; i < keyKinds.length; i++) {
+            Type type = hashTypes.get(i);
+            BlockBuilder blockBuilder = pageBuilder.getBlockBuilder(outputChannelOffset + i);
+            int fieldOffset = recordOffset + keyOffsets[i];
+            if (records.getByte(fieldOffset) != 0) {
+                blockBuilder.appendNull();
+                continue;
+            }
+            fieldOffset++;
+            switch (keyKinds[i]) {
+                case FIXED_WIDTH_LONG:
+                    type.writeLong(blockBuilder, records.getLong(fieldOffset));
+                    break;
+                case FIXED_WIDTH_BOOLEAN:
+                    type.writeBoolean(blockBuilder, records.getByte(fieldOffset) != 0);
+                    break;
+                default:
+                    int length = records.getInt(fieldOffset);
+                    Slice chunk = variableWidthChunks[records.getInt(fieldOffset + SIZE_OF_INT)];
+                    type.writeSlice(blockBuilder, chunk, records.getInt(fieldOffset + 2 * SIZE_OF_INT), length);
+            }
+        }
+        if (precomputedHashChannel.isPresent()) {
+            BIGINT.writeLong(pageBuilder.getBlockBuilder(outputChannelOffset + precomputedHashChannel.getAsInt()), records.getLong(recordOffset));
+        }
+    }
+
+    @Override
+    public Work<?> addPage(Page page)
+    {
+        currentPageSizeInBytes = page.getRetainedSizeInBytes();
+        if (isRunLengthEncoded(page)) {
+            return new AddRunLengthEncodedPageWork(page, this);
+        }
+        if (canProcessDictionary(page)) {
+            return new AddDictionaryPageWork(page, this);
+        }
+
+        return new AddNonDictionaryPageWork(page, this);
+    }
+
+    @Override
+    public Work<GroupByIdBlock> getGroupIds(Page page)
+    {
+        currentPageSizeInBytes = page.getRetainedSizeInBytes();
+        if (isRunLengthEncoded(page)) {
+            return new GetRunLengthEncodedGroupIdsWork(page, this);
+        }
+        if (canProcessDictionary(page)) {
+            return new GetDictionaryGroupIdsWork(page, this);
+        }
+
+        return new GetNonDictionaryGroupIdsWork(page, this);
+    }
+
+    @Override
+    public boolean contains(int position, Page page, int[] hashChannels)
+    {
+        long rawHash = hashStrategy.hashRow(position, page);
+        return contains(position, page, hashChannels, rawHash);
+    }
+
+    @Override
+    public boolean contains(int position, Page page, int[] hashChannels, long rawHash)
+    {
+        int hashPosition = getHashPosition(rawHash, mask);
+        long hashTag = rawHash & HASH_TAG_MASK;
+
+        // look for a slot containing this key
+        while (slots[hashPosition] != EMPTY_SLOT) {
+            long slot = slots[hashPosition];
+            if ((slot & HASH_TAG_MASK) == hashTag && keyNotDistinctFromRow((int) slot, position, page, hashChannels)) {
+                return true;
+            }
+            // increment position and mask to handle wrap around
+            hashPosition = (hashPosition + 1) & mask;
+        }
+        return false;
+    }
+
+    @VisibleForTesting
+    @Override
+    public int getCapacity()
+    {
+        return hashCapacity;
+    }
+
+    @Override
+    public int putIfAbsent(int position, Page page)
+    {
+        long rawHash = hashGenerator.hashPosition(position, page);
+        return putIfAbsent(position, page, rawHash);
+    }
+
+    @Override
+    public int putIfAbsent(int position, Page page, long rawHash)
+    {
+        int hashPosition = getHashPosition(rawHash, mask);
+        long hashTag = rawHash & HASH_TAG_MASK;
+
+        // look for an empty slot or a slot containing this key
+        while (slots[hashPosition] != EMPTY_SLOT) {
+            long slot = slots[hashPosition];
+            if ((slot & HASH_TAG_MASK) == hashTag && keyNotDistinctFromRow((int) slot, position, page, channels)) {
+                // found an existing slot for this key
+                return (int) slot;
+            }
+            // increment position and mask to handle wrap around
+            hashPosition = (hashPosition + 1) & mask;
+            hashCollisions++;
+        }
+
+        return addNewGroup(hashPosition, position, page, rawHash);
+    }
+
+    private boolean keyNotDistinctFromRow(int groupId, int position, Page page, int[] hashChannels)
+    {
+        Slice records = getRecordPage(groupId);
+        int recordOffset = getRecordOffset(groupId);
+        for (int i = 0; i < keyKinds.length; i++) {
+            Block block = page.getBlock(hashChannels[i]);
+            int fieldOffset = recordOffset + keyOffsets[i];
+            boolean isNull = block.isNull(position);
+            if ((records.getByte(fieldOffset) != 0) != isNull) {
+                return false;
+            }
+            if (isNull) {
+                continue;
+            }
+            fieldOffset++;
+            switch (keyKinds[i]) {
+                case FIXED_WIDTH_LONG:
+                    if (hashTypes.get(i).getLong(block, position) != records.getLong(fieldOffset)) {
+                        return false;
+                    }
+                    break;
+                case FIXED_WIDTH_BOOLEAN:
+                    if (hashTypes.get(i).getBoolean(block, position) != (records.getByte(fieldOffset) != 0)) {
+                        return false;
+                    }
+                    break;
+                default:
+                    int length = records.getInt(fieldOffset);
+                    if (block.getSliceLength(position) != length) {
+                        return false;
+                    }
+                    Slice chunk = variableWidthChunks[records.getInt(fieldOffset + SIZE_OF_INT)];
+                    if (!block.bytesEqual(position, 0, chunk, records.getInt(fieldOffset + 2 * SIZE_OF_INT), length)) {
+                        return false;
+                    }
+            }
+        }
+        return true;
+    }
+
+    private int addNewGroup(int hashPosition, int position, Page page, long rawHash)
+    {
+        int groupId = nextGroupId++;
+        int pageIndex = groupId >>> RECORDS_PER_PAGE_SHIFT;
+        if (pageIndex == recordPageCount) {
+            if (recordPageCount == recordPages.length) {
+                recordPages = Arrays.copyOf(recordPages, recordPages.length * 2);
+            }
+            recordPages[recordPageCount++] = Slices.allocate(RECORDS_PER_PAGE * recordSize);
+        }
+
+        Slice records = recordPages[pageIndex];
+        int recordOffset = getRecordOffset(groupId);
+        records.setLong(recordOffset, rawHash);
+        for (int i = 0; i < keyKinds.length; i++) {
+            Block block = page.getBlock(channels[i]);
+            int fieldOffset = recordOffset + keyOffsets[i];
+            if (block.isNull(position)) {
+                records.setByte(fieldOffset, 1);
+                continue;
+            }
+            fieldOffset++;
+            switch (keyKinds[i]) {
+                case FIXED_WIDTH_LONG:
+                    records.setLong(fieldOffset, hashTypes.get(i).getLong(block, position));
+                    break;
+                case FIXED_WIDTH_BOOLEAN:
+                    records.setByte(fieldOffset, hashTypes.get(i).getBoolean(block, position) ? 1 : 0);
+                    break;
+                default:
+                    int length = block.getSliceLength(position);
+                    int chunkOffset = reserveVariableWidth(length);
+                    variableWidthChunks[variableWidthChunkCount - 1].setBytes(chunkOffset, block.getSlice(position, 0, length));
+                    records.setInt(fieldOffset, length);
+                    records.setInt(fieldOffset + SIZE_OF_INT, variableWidthChunkCount - 1);
+                    records.setInt(fieldOffset + 2 * SIZE_OF_INT, chunkOffset);
+            }
+        }
+
+        // record group id in hash
+        slots[hashPosition] = (rawHash & HASH_TAG_MASK) | groupId;
+
+        // increase capacity, if necessary
+        if (needMoreCapacity()) {
+            tryToIncreaseCapacity();
+        }
+        return groupId;
+    }
+
+    private int reserveVariableWidth(int length)
+    {
+        if (variableWidthChunkCount == 0 || variableWidthChunkPosition + length > variableWidthChunks[variableWidthChunkCount - 1].length()) {
+            if (variableWidthChunkCount == variableWidthChunks.length) {
+                variableWidthChunks = Arrays.copyOf(variableWidthChunks, variableWidthChunks.length * 2);
+            }
+            Slice chunk = Slices.allocate(max(VARIABLE_WIDTH_CHUNK_SIZE, length));
+            variableWidthChunks[variableWidthChunkCount++] = chunk;
+            variableWidthChunkPosition = 0;
+            variableWidthRetainedBytes += chunk.getRetainedSize();
+        }
+        int offset = variableWidthChunkPosition;
+        variableWidthChunkPosition += length;
+        return offset;
+    }
+
+    @Override
+    public boolean needMoreCapacity()
+    {
+        return nextGroupId >= maxFill;
+    }
+
+    @Override
+    public boolean tryToIncreaseCapacity()
+    {
+        long newCapacityLong = hashCapacity * 2L;
+        if (newCapacityLong > Integer.MAX_VALUE) {
+            throw new PrestoException(GENERIC_INSUFFICIENT_RESOURCES, "Size of hash table cannot exceed 1 billion entries");
+        }
+        int newCapacity = toIntExact(newCapacityLong);
+
+        // An estimate of how much extra memory is needed before we can go ahead and expand the hash table.
+        // This includes the new slots as well as the size of the current page
+        preallocatedMemoryInBytes = (newCapacity - hashCapacity) * (long) Long.BYTES + currentPageSizeInBytes;
+        if (!updateMemory.update()) {
+            // reserved memory but has exceeded the limit
+            return false;
+        }
+        preallocatedMemoryInBytes = 0;
+
+        expectedHashCollisions += estimateNumberOfHashCollisions(getGroupCount(), hashCapacity);
+
+        // the records keep the raw hashes, so the slots are rebuilt in group order without probing the old table
+        int newMask = newCapacity - 1;
+        long[] newSlots = new long[newCapacity];
+        Arrays.fill(newSlots, EMPTY_SLOT);
+        for (int groupId = 0; groupId < nextGroupId; groupId++) {
+            long rawHash = getRawHash(groupId);
+            int pos = getHashPosition(rawHash, newMask);
+            while (newSlots[pos] != EMPTY_SLOT) {
+                pos = (pos + 1) & newMask;
+                hashCollisions++;
+            }
+            newSlots[pos] = (rawHash & HASH_TAG_MASK) | groupId;
+        }
+
+        this.mask = newMask;
+        this.hashCapacity = newCapacity;
+        this.maxFill = calculateMaxFill(newCapacity);
+        this.slots = newSlots;
+        return true;
+    }
+
+    private Slice getRecordPage(int groupId)
+    {
+        return recordPages[groupId >>> RECORDS_PER_PAGE_SHIFT];
+    }
+
+    private int getRecordOffset(int groupId)
+    {
+        return (groupId & RECORDS_PER_PAGE_MASK) * recordSize;
+    }
+
+    private static int getHashPosition(long rawHash, int mask)
+    {
+        return (int) (murmurHash3(rawHash) & mask);
+    }
+
+    private static int calculateMaxFill(int hashSize)
+    {
+        checkArgument(hashSize > 0, "hashSize must be greater than 0");
+        int calculateFill = (int) Math.ceil(hashSize * FILL_RATIO);
+        if (calculateFill == hashSize) {
+            calculateFill--;
+        }
+        checkArgument(hashSize > calculateFill, "hashSize must be larger than calculateFill");
+        return calculateFill;
+    }
+
+    @Override
+    public Object capture(BlockEncodingSerdeProvider serdeProvider)
+    {
+        FlatGroupByHashState myState = new FlatGroupByHashState();
+        myState.slots = Arrays.copyOf(slots, slots.length);
+        myState.hashCapacity = hashCapacity;
+        myState.maxFill = maxFill;
+        myState.mask = mask;
+        myState.recordPageCount = recordPageCount;
+        myState.recordPages = new byte[recordPageCount][];
+        for (int i = 0; i < recordPageCount; i++) {
+            myState.recordPages[i] = recordPages[i].getBytes();
+        }
+        myState.variableWidthChunkCount = variableWidthChunkCount;
+        myState.variableWidthChunks = new byte[variableWidthChunkCount][];
+        for (int i = 0; i < variableWidthChunkCount; i++) {
+            myState.variableWidthChunks[i] = variableWidthChunks[i].getBytes();
+        }
+        myState.variableWidthChunkPosition = variableWidthChunkPosition;
+        myState.variableWidthRetainedBytes = variableWidthRetainedBytes;
+        myState.nextGroupId = nextGroupId;
+        myState.hashCollisions = hashCollisions;
+        myState.expectedHashCollisions = expectedHashCollisions;
+        myState.preallocatedMemoryInBytes = preallocatedMemoryInBytes;
+        myState.currentPageSizeInBytes = currentPageSizeInBytes;
+        if (dictionaryLookBack != null) {
+            myState.dictionaryLookBack = dictionaryLookBack.capture(serdeProvider);
+        }
+        return myState;
+    }
+
+    @Override
+    public void restore(Object state, BlockEncodingSerdeProvider serdeProvider)
+    {
+        FlatGroupByHashState myState = (FlatGroupByHashState) state;
+        this.slots = myState.slots;
+        this.hashCapacity = myState.hashCapacity;
+        this.maxFill = myState.maxFill;
+        this.mask = myState.mask;
+        this.recordPageCount = myState.recordPageCount;
+        this.recordPages = new Slice[max(16, recordPageCount)];
+        for (int i = 0; i < recordPageCount; i++) {
+            this.recordPages[i] = Slices.wrappedBuffer(myState.recordPages[i]);
+        }
+        this.variableWidthChunkCount = myState.variableWidthChunkCount;
+        this.variableWidthChunks = new Slice[max(16, variableWidthChunkCount)];
+        for (int i = 0; i < variableWidthChunkCount; i++) {
+            this.variableWidthChunks[i] = Slices.wrappedBuffer(myState.variableWidthChunks[i]);
+        }
+        this.variableWidthChunkPosition = myState.variableWidthChunkPosition;
+        this.variableWidthRetainedBytes = myState.variableWidthRetainedBytes;
+        this.nextGroupId = myState.nextGroupId;
+        this.hashCollisions = myState.hashCollisions;
+        this.expectedHashCollisions = myState.expectedHashCollisions;
+        this.preallocatedMemoryInBytes = myState.preallocatedMemoryInBytes;
+        this.currentPageSizeInBytes = myState.currentPageSizeInBytes;
+        if (myState.dictionaryLookBack != null) {
+            Slice input = Slices.wrappedBuffer(((DictionaryLookBack.DictionaryLookBackState) myState.dictionaryLookBack).dictionary);
+            this.dictionaryLookBack = new DictionaryLookBack(serdeProvider.getBlockEncodingSerde().readBlock(input.getInput()));
+            this.dictionaryLookBack.restore(myState.dictionaryLookBack, serdeProvider);
+        }
+        else {
+            this.dictionaryLookBack = null;
+        }
+    }
+
+    public static class FlatGroupByHashState
+            implements Serializable, BinarySnapshotState
+    {
+        private long[] slots;
+        private int hashCapacity;
+        private int maxFill;
+        private int mask;
+        private byte[][] recordPages;
+        private int recordPageCount;
+        private byte[][] variableWidthChunks;
+        private int variableWidthChunkCount;
+        private int variableWidthChunkPosition;
+        private long variableWidthRetainedBytes;
+        private int nextGroupId;
+        private long hashCollisions;
+        private double expectedHashCollisions;
+        private long preallocatedMemoryInBytes;
+        private long currentPageSizeInBytes;
+        private Object dictionaryLookBack;
+
+        @Override
+        public void writeState(SnapshotStateOutput output)
+                throws IOException
+        {
+            output.writeObject(slots);
+            output.writeInt(hashCapacity);
+            output.writeInt(maxFill);
+            output.writeInt(mask);
+            output.writeObject(recordPages);
+            output.writeInt(recordPageCount);
+            output.writeObject(variableWidthChunks);
+            output.writeInt(variableWidthChunkCount);
+            output.writeInt(variableWidthChunkPosition);
+            output.writeLong(variableWidthRetainedBytes);
+            output.writeInt(nextGroupId);
+            output.writeLong(hashCollisions);
+            output.writeDouble(expectedHashCollisions);
+            output.writeLong(preallocatedMemoryInBytes);
+            output.writeLong(currentPageSizeInBytes);
+            output.writeSerializable(dictionaryLookBack);
+        }
+
+        @Override
+        public void readState(SnapshotStateInput input)
+                throws IOException, ClassNotFoundException
+        {
+            slots = (long[]) input.readObject();
+            hashCapacity = input.readInt();
+            maxFill = input.readInt();
+            mask = input.readInt();
+            recordPages = (byte[][]) input.readObject();
+            recordPageCount = input.readInt();
+            variableWidthChunks = (byte[][]) input.readObject();
+            variableWidthChunkCount = input.readInt();
+            variableWidthChunkPosition = input.readInt();
+            variableWidthRetainedBytes = input.readLong();
+            nextGroupId = input.readInt();
+            hashCollisions = input.readLong();
+            expectedHashCollisions = input.readDouble();
+            preallocatedMemoryInBytes = input.readLong();
+            currentPageSizeInBytes = input.readLong();
+            dictionaryLookBack = input.readSerializable();
+        }
+    }
+}
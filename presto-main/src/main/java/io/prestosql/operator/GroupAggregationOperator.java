@@ -28,13 +28,17 @@ import io.prestosql.spi.Page;
 import io.prestosql.spi.PageBuilder;
 import io.prestosql.spi.plan.AggregationNode;
 import io.prestosql.spi.plan.PlanNodeId;
+import io.prestosql.spi.snapshot.BinarySnapshotState;
 import io.prestosql.spi.snapshot.BlockEncodingSerdeProvider;
 import io.prestosql.spi.snapshot.RestorableConfig;
+import io.prestosql.spi.snapshot.SnapshotStateInput;
+import io.prestosql.spi.snapshot.SnapshotStateOutput;
 import io.prestosql.spi.type.BigintType;
 import io.prestosql.spi.type.Type;
 import io.prestosql.spiller.SpillerFactory;
 import io.prestosql.sql.gen.JoinCompiler;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.List;
 import java.util.Optional;
@@ -473,7 +477,7 @@ public class GroupAggregationOperator
     }
 
     public static class GroupAggregationOperatorState
-            implements Serializable
+            implements Serializable, BinarySnapshotState
     {
         private Object operatorContext;
         private Object aggregationBuilder;
@@ -481,5 +485,29 @@ public class GroupAggregationOperator
         private boolean inputProcessed;
         private boolean finishing;
         private boolean finished;
+
+        @Override
+        public void writeState(SnapshotStateOutput output)
+                throws IOException
+        {
+            output.writeSerializable(operatorContext);
+            output.writeObject(aggregationBuilder);
+            output.writeLong(memoryContext);
+            output.writeBoolean(inputProcessed);
+            output.writeBoolean(finishing);
+            output.writeBoolean(finished);
+        }
+
+        @Override
+        public void readState(SnapshotStateInput input)
+                throws IOException, ClassNotFoundException
+        {
+            operatorContext = input.readSerializable();
+            aggregationBuilder = input.readObject();
+            memoryContext = input.readLong();
+            inputProcessed = input.readBoolean();
+            finishing = input.readBoolean();
+            finished = input.readBoolean();
+        }
     }
 }
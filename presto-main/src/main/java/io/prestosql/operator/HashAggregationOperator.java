@@ -29,6 +29,7 @@ import io.prestosql.sql.gen.JoinCompiler;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalLong;
 
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Verify.verify;
@@ -427,6 +428,7 @@ public class HashAggregationOperator
     protected void closeAggregationBuilder()
     {
         outputPages = null;
+        boolean aggregationSkipped = aggregationBuilder instanceof SkipAggregationBuilder;
         if (aggregationBuilder != null) {
             aggregationBuilder.recordHashCollisions(hashCollisionsCounter);
             aggregationBuilder.close();
@@ -435,8 +437,17 @@ public class HashAggregationOperator
             aggregationBuilder = null;
         }
         memoryContext.setBytes(0);
+        if (step.isOutputPartial()) {
+            if (aggregationSkipped) {
+                hashCollisionsCounter.recordPartialAggregationSkipped(numberOfInputRowsProcessed);
+            }
+            else {
+                hashCollisionsCounter.recordPartialAggregation(numberOfInputRowsProcessed, numberOfUniqueRowsProduced);
+            }
+        }
+        OptionalLong uniqueRowsProduced = aggregationSkipped ? OptionalLong.empty() : OptionalLong.of(numberOfUniqueRowsProduced);
         partialAggregationController.ifPresent(
-                controller -> controller.onFlush(numberOfInputRowsProcessed, numberOfUniqueRowsProduced));
+                controller -> controller.onFlush(numberOfInputRowsProcessed, uniqueRowsProduced));
         numberOfInputRowsProcessed = 0;
         numberOfUniqueRowsProduced = 0;
     }
@@ -21,14 +21,18 @@ import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
 import io.prestosql.execution.Lifespan;
 import io.prestosql.memory.context.LocalMemoryContext;
+import io.prestosql.snapshot.IncrementalRestorable;
 import io.prestosql.snapshot.SingleInputSnapshotState;
 import io.prestosql.snapshot.Spillable;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.block.Block;
 import io.prestosql.spi.plan.PlanNodeId;
+import io.prestosql.spi.snapshot.BinarySnapshotState;
 import io.prestosql.spi.snapshot.BlockEncodingSerdeProvider;
 import io.prestosql.spi.snapshot.MarkerPage;
 import io.prestosql.spi.snapshot.RestorableConfig;
+import io.prestosql.spi.snapshot.SnapshotStateInput;
+import io.prestosql.spi.snapshot.SnapshotStateOutput;
 import io.prestosql.spi.type.BigintType;
 import io.prestosql.spi.util.BloomFilter;
 import io.prestosql.spiller.SingleStreamSpiller;
@@ -83,7 +87,7 @@ import static java.util.Objects.requireNonNull;
         "lookupSourceNotNeeded", "spilledLookupSourceHandle", "spillInProgress", "unspillInProgress", "lookupSourceSupplier", "lookupSourceChecksum",
         "finishMemoryRevoke", "snapshotState", "lastMarker", "finishInProgress", "spillerFactory"})
 public class HashBuilderOperator
-        implements SinkOperator, Spillable
+        implements SinkOperator, Spillable, IncrementalRestorable
 {
     public static class HashBuilderOperatorFactory
             implements OperatorFactory
@@ -980,12 +984,46 @@ public class HashBuilderOperator
 
     @Override
     public Object capture(BlockEncodingSerdeProvider serdeProvider)
+    {
+        HashBuilderOperatorState myState = captureState(serdeProvider);
+        myState.index = index.capture(serdeProvider);
+        return myState;
+    }
+
+    @Override
+    public Object captureIncremental(BlockEncodingSerdeProvider serdeProvider)
+    {
+        Object indexState = index.captureIncremental(serdeProvider);
+        if (indexState == null) {
+            return null;
+        }
+        HashBuilderOperatorState myState = captureState(serdeProvider);
+        myState.index = indexState;
+        return myState;
+    }
+
+    @Override
+    public Object applyIncremental(Object baseState, Object incrementalState)
+    {
+        HashBuilderOperatorState base = (HashBuilderOperatorState) baseState;
+        HashBuilderOperatorState myState = (HashBuilderOperatorState) incrementalState;
+        myState.index = index.applyIncremental(base.index, myState.index);
+        return myState;
+    }
+
+    @Override
+    public long getIncrementalSkippedBytes()
+    {
+        return index.getIncrementalSkippedBytes();
+    }
+
+    // Captures everything except the pages index
+    private HashBuilderOperatorState captureState(BlockEncodingSerdeProvider serdeProvider)
     {
         HashBuilderOperatorState myState = new HashBuilderOperatorState();
         myState.operatorContext = operatorContext.capture(serdeProvider);
         myState.localUserMemoryContext = localUserMemoryContext.getBytes();
         myState.localRevocableMemoryContext = localRevocableMemoryContext.getBytes();
-        myState.index = index.capture(serdeProvider);
         myState.hashCollisionsCounter = hashCollisionsCounter.capture(serdeProvider);
         myState.alreadyFinished = alreadyFinished;
 
@@ -1067,8 +1105,8 @@ public class HashBuilderOperator
         return false;
     }
 
-    private static class HashBuilderOperatorState
-            implements Serializable
+    public static class HashBuilderOperatorState
+            implements Serializable, BinarySnapshotState
     {
         private Object genericSpiller;
         private Object operatorContext;
@@ -1083,6 +1121,40 @@ public class HashBuilderOperator
         private Object spiller;
         private boolean spillToHdfsEnabled;
         private Object spillBloom;
+
+        @Override
+        public void writeState(SnapshotStateOutput output)
+                throws IOException
+        {
+            output.writeSerializable(genericSpiller);
+            output.writeSerializable(operatorContext);
+            output.writeLong(localUserMemoryContext);
+            output.writeLong(localRevocableMemoryContext);
+            output.writeObject(index);
+            output.writeSerializable(hashCollisionsCounter);
+            output.writeObject(state);
+            output.writeBoolean(alreadyFinished);
+            output.writeSerializable(spiller);
+            output.writeBoolean(spillToHdfsEnabled);
+            output.writeSerializable(spillBloom);
+        }
+
+        @Override
+        public void readState(SnapshotStateInput input)
+                throws IOException, ClassNotFoundException
+        {
+            genericSpiller = input.readSerializable();
+            operatorContext = input.readSerializable();
+            localUserMemoryContext = input.readLong();
+            localRevocableMemoryContext = input.readLong();
+            index = input.readObject();
+            hashCollisionsCounter = input.readSerializable();
+            state = (String) input.readObject();
+            alreadyFinished = input.readBoolean();
+            spiller = input.readSerializable();
+            spillToHdfsEnabled = input.readBoolean();
+            spillBloom = input.readSerializable();
+        }
     }
 
     private static class SpillBloomState
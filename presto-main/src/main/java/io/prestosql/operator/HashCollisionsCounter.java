@@ -30,6 +30,9 @@ public class HashCollisionsCounter
 
     private long hashCollisions;
     private double expectedHashCollisions;
+    private long partialAggregationInputRows;
+    private long partialAggregationUniqueRows;
+    private long partialAggregationSkippedRows;
 
     public HashCollisionsCounter(OperatorContext operatorContext)
     {
@@ -42,10 +45,27 @@ public class HashCollisionsCounter
         this.expectedHashCollisions += expectedHashCollisions;
     }
 
+    public void recordPartialAggregation(long inputRows, long uniqueRows)
+    {
+        this.partialAggregationInputRows += inputRows;
+        this.partialAggregationUniqueRows += uniqueRows;
+    }
+
+    public void recordPartialAggregationSkipped(long inputRows)
+    {
+        this.partialAggregationSkippedRows += inputRows;
+    }
+
     @Override
     public HashCollisionsInfo get()
     {
-        return createHashCollisionsInfo(operatorContext.getInputPositions().getTotalCount(), hashCollisions, expectedHashCollisions);
+        return createHashCollisionsInfo(
+                operatorContext.getInputPositions().getTotalCount(),
+                hashCollisions,
+                expectedHashCollisions,
+                partialAggregationInputRows,
+                partialAggregationUniqueRows,
+                partialAggregationSkippedRows);
     }
 
     @Override
@@ -54,6 +74,9 @@ public class HashCollisionsCounter
         HashCollisionsCounterState myState = new HashCollisionsCounterState();
         myState.hashCollisions = hashCollisions;
         myState.expectedHashCollisions = expectedHashCollisions;
+        myState.partialAggregationInputRows = partialAggregationInputRows;
+        myState.partialAggregationUniqueRows = partialAggregationUniqueRows;
+        myState.partialAggregationSkippedRows = partialAggregationSkippedRows;
         return myState;
     }
 
@@ -63,6 +86,9 @@ public class HashCollisionsCounter
         HashCollisionsCounterState myState = (HashCollisionsCounterState) state;
         this.hashCollisions = myState.hashCollisions;
         this.expectedHashCollisions = myState.expectedHashCollisions;
+        this.partialAggregationInputRows = myState.partialAggregationInputRows;
+        this.partialAggregationUniqueRows = myState.partialAggregationUniqueRows;
+        this.partialAggregationSkippedRows = myState.partialAggregationSkippedRows;
     }
 
     private static class HashCollisionsCounterState
@@ -70,5 +96,8 @@ public class HashCollisionsCounter
     {
         private long hashCollisions;
         private double expectedHashCollisions;
+        private long partialAggregationInputRows;
+        private long partialAggregationUniqueRows;
+        private long partialAggregationSkippedRows;
     }
 }
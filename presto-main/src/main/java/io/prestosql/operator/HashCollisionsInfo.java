@@ -23,29 +23,49 @@ public class HashCollisionsInfo
     public static final String WEIGHTED_HASH_COLLISIONS_PROPERTY = "weightedHashCollisions";
     public static final String WEIGHTED_SUM_SQUARED_HASH_COLLISIONS = "weightedSumSquaredHashCollisions";
     public static final String WEIGHTED_EXPECTED_HASH_COLLISIONS = "weightedExpectedHashCollisions";
+    public static final String PARTIAL_AGGREGATION_INPUT_ROWS = "partialAggregationInputRows";
+    public static final String PARTIAL_AGGREGATION_UNIQUE_ROWS = "partialAggregationUniqueRows";
+    public static final String PARTIAL_AGGREGATION_SKIPPED_ROWS = "partialAggregationSkippedRows";
 
     private final double weightedHashCollisions;
     private final double weightedSumSquaredHashCollisions;
     private final double weightedExpectedHashCollisions;
+    private final long partialAggregationInputRows;
+    private final long partialAggregationUniqueRows;
+    private final long partialAggregationSkippedRows;
 
     public static HashCollisionsInfo createHashCollisionsInfo(
-            long inputPositionsCount, double hashCollisionsCount, double expectedHashCollisions)
+            long inputPositionsCount,
+            double hashCollisionsCount,
+            double expectedHashCollisions,
+            long partialAggregationInputRows,
+            long partialAggregationUniqueRows,
+            long partialAggregationSkippedRows)
     {
         return new HashCollisionsInfo(
                 hashCollisionsCount * inputPositionsCount,
                 hashCollisionsCount * hashCollisionsCount * inputPositionsCount,
-                expectedHashCollisions * inputPositionsCount);
+                expectedHashCollisions * inputPositionsCount,
+                partialAggregationInputRows,
+                partialAggregationUniqueRows,
+                partialAggregationSkippedRows);
     }
 
     @JsonCreator
     public HashCollisionsInfo(
             @JsonProperty(WEIGHTED_HASH_COLLISIONS_PROPERTY) double weightedHashCollisions,
             @JsonProperty(WEIGHTED_SUM_SQUARED_HASH_COLLISIONS) double weightedSumSquaredHashCollisions,
-            @JsonProperty(WEIGHTED_EXPECTED_HASH_COLLISIONS) double weightedExpectedHashCollisions)
+            @JsonProperty(WEIGHTED_EXPECTED_HASH_COLLISIONS) double weightedExpectedHashCollisions,
+            @JsonProperty(PARTIAL_AGGREGATION_INPUT_ROWS) long partialAggregationInputRows,
+            @JsonProperty(PARTIAL_AGGREGATION_UNIQUE_ROWS) long partialAggregationUniqueRows,
+            @JsonProperty(PARTIAL_AGGREGATION_SKIPPED_ROWS) long partialAggregationSkippedRows)
     {
         this.weightedHashCollisions = weightedHashCollisions;
         this.weightedSumSquaredHashCollisions = weightedSumSquaredHashCollisions;
         this.weightedExpectedHashCollisions = weightedExpectedHashCollisions;
+        this.partialAggregationInputRows = partialAggregationInputRows;
+        this.partialAggregationUniqueRows = partialAggregationUniqueRows;
+        this.partialAggregationSkippedRows = partialAggregationSkippedRows;
     }
 
     @JsonProperty
@@ -66,12 +86,51 @@ public class HashCollisionsInfo
         return weightedExpectedHashCollisions;
     }
 
+    /**
+     * Number of rows aggregated by a partial aggregation, i.e. not passed through because partial aggregation was disabled.
+     */
+    @JsonProperty
+    public long getPartialAggregationInputRows()
+    {
+        return partialAggregationInputRows;
+    }
+
+    @JsonProperty
+    public long getPartialAggregationUniqueRows()
+    {
+        return partialAggregationUniqueRows;
+    }
+
+    /**
+     * Number of rows passed through without hashing because adaptive partial aggregation disabled the aggregation.
+     */
+    @JsonProperty
+    public long getPartialAggregationSkippedRows()
+    {
+        return partialAggregationSkippedRows;
+    }
+
+    /**
+     * Ratio between rows produced and rows consumed by the partial aggregation, or NaN if nothing was aggregated.
+     * The closer to 1 this gets, the less the partial aggregation reduces the data sent downstream.
+     */
+    public double getPartialAggregationUniqueRowsRatio()
+    {
+        if (partialAggregationInputRows == 0) {
+            return Double.NaN;
+        }
+        return (double) partialAggregationUniqueRows / partialAggregationInputRows;
+    }
+
     @Override
     public HashCollisionsInfo mergeWith(HashCollisionsInfo other)
     {
         return new HashCollisionsInfo(
                 this.weightedHashCollisions + other.getWeightedHashCollisions(),
                 this.weightedSumSquaredHashCollisions + other.getWeightedSumSquaredHashCollisions(),
-                this.weightedExpectedHashCollisions + other.getWeightedExpectedHashCollisions());
+                this.weightedExpectedHashCollisions + other.getWeightedExpectedHashCollisions(),
+                this.partialAggregationInputRows + other.getPartialAggregationInputRows(),
+                this.partialAggregationUniqueRows + other.getPartialAggregationUniqueRows(),
+                this.partialAggregationSkippedRows + other.getPartialAggregationSkippedRows());
     }
 }
@@ -130,6 +130,9 @@ public final class HttpPageBufferClient
     private DateTime lastUpdate = DateTime.now();
     @GuardedBy("this")
     private long token;
+
+    @GuardedBy("this")
+    private DataSize requestSize;
     @GuardedBy("this")
     private boolean scheduled;
     @GuardedBy("this")
@@ -169,6 +172,7 @@ public final class HttpPageBufferClient
     {
         this.httpClient = requireNonNull(httpClient, "httpClient is null");
         this.maxResponseSize = requireNonNull(maxResponseSize, "maxResponseSize is null");
+        this.requestSize = maxResponseSize;
         this.acknowledgePages = acknowledgePages;
         requireNonNull(location, "TaskLocation is null");
         this.location = requireNonNull(location.getUri(), "location is null");
@@ -202,6 +206,7 @@ public final class HttpPageBufferClient
     {
         this.httpClient = requireNonNull(httpClient, "httpClient is null");
         this.maxResponseSize = requireNonNull(maxResponseSize, "maxResponseSize is null");
+        this.requestSize = maxResponseSize;
         this.acknowledgePages = acknowledgePages;
         requireNonNull(location, "TaskLocation is null");
         this.location = requireNonNull(location.getUri(), "location is null");
@@ -296,11 +301,22 @@ public final class HttpPageBufferClient
     }
 
     public synchronized void scheduleRequest()
+    {
+        scheduleRequest(maxResponseSize);
+    }
+
+    /**
+     * Schedules the next request, limiting its response to {@code requestSize}.
+     *
+     * @return false if the client is closed or already has a request scheduled or running
+     */
+    public synchronized boolean scheduleRequest(DataSize requestSize)
     {
         if (closed || (future != null) || scheduled) {
-            return;
+            return false;
         }
         scheduled = true;
+        this.requestSize = requireNonNull(requestSize, "requestSize is null");
 
         // start before scheduling to include error delay
         backoff.startRequest();
@@ -318,6 +334,7 @@ public final class HttpPageBufferClient
 
         lastUpdate = DateTime.now();
         requestsScheduled.incrementAndGet();
+        return true;
     }
 
     private synchronized void initiateRequest()
@@ -352,7 +369,7 @@ public final class HttpPageBufferClient
         URI uri = HttpUriBuilder.uriBuilderFrom(location).appendPath(String.valueOf(token)).build();
         HttpResponseFuture<PagesResponse> resultFuture = httpClient.executeAsync(
                 addInstanceIdHeader(prepareGet())
-                        .setHeader(PRESTO_MAX_SIZE, maxResponseSize.toString())
+                        .setHeader(PRESTO_MAX_SIZE, requestSize.toString())
                         .setUri(uri).build(),
                 new PageResponseHandler(queryRecoveryManager));
 
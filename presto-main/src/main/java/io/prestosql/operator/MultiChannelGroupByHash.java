@@ -22,12 +22,16 @@ import io.prestosql.array.LongBigArray;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.PageBuilder;
 import io.prestosql.spi.PrestoException;
+import io.prestosql.spi.snapshot.BinarySnapshotState;
 import io.prestosql.spi.snapshot.BlockEncodingSerdeProvider;
 import io.prestosql.spi.snapshot.RestorableConfig;
+import io.prestosql.spi.snapshot.SnapshotStateInput;
+import io.prestosql.spi.snapshot.SnapshotStateOutput;
 import io.prestosql.spi.type.Type;
 import io.prestosql.sql.gen.JoinCompiler;
 import org.openjdk.jol.info.ClassLayout;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.Arrays;
 import java.util.List;
@@ -497,8 +501,8 @@ public class MultiChannelGroupByHash
         }
     }
 
-    private static class MultiChannelGroupByHashState
-            implements Serializable
+    public static class MultiChannelGroupByHashState
+            implements Serializable, BinarySnapshotState
     {
         private Object currentPageBuilder;
 
@@ -521,5 +525,49 @@ public class MultiChannelGroupByHash
         private long currentPageSizeInBytes;
 
         private byte[][][] channelBuilders;
+
+        @Override
+        public void writeState(SnapshotStateOutput output)
+                throws IOException
+        {
+            output.writeSerializable(currentPageBuilder);
+            output.writeLong(completedPagesMemorySize);
+            output.writeInt(hashCapacity);
+            output.writeInt(maxFill);
+            output.writeInt(mask);
+            output.writeObject(groupAddressByHash);
+            output.writeObject(groupIdsByHash);
+            output.writeObject(rawHashByHashPosition);
+            output.writeObject(groupAddressByGroupId);
+            output.writeInt(nextGroupId);
+            output.writeSerializable(dictionaryLookBack);
+            output.writeLong(hashCollisions);
+            output.writeDouble(expectedHashCollisions);
+            output.writeLong(preallocatedMemoryInBytes);
+            output.writeLong(currentPageSizeInBytes);
+            output.writeObject(channelBuilders);
+        }
+
+        @Override
+        public void readState(SnapshotStateInput input)
+                throws IOException, ClassNotFoundException
+        {
+            currentPageBuilder = input.readSerializable();
+            completedPagesMemorySize = input.readLong();
+            hashCapacity = input.readInt();
+            maxFill = input.readInt();
+            mask = input.readInt();
+            groupAddressByHash = (long[]) input.readObject();
+            groupIdsByHash = (int[]) input.readObject();
+            rawHashByHashPosition = (byte[]) input.readObject();
+            groupAddressByGroupId = input.readObject();
+            nextGroupId = input.readInt();
+            dictionaryLookBack = input.readSerializable();
+            hashCollisions = input.readLong();
+            expectedHashCollisions = input.readDouble();
+            preallocatedMemoryInBytes = input.readLong();
+            currentPageSizeInBytes = input.readLong();
+            channelBuilders = (byte[][][]) input.readObject();
+        }
     }
 }
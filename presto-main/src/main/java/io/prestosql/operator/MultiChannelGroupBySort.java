@@ -23,14 +23,18 @@ import io.prestosql.operator.scalar.CombineHashFunction;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.PageBuilder;
 import io.prestosql.spi.block.Block;
+import io.prestosql.spi.snapshot.BinarySnapshotState;
 import io.prestosql.spi.snapshot.BlockEncodingSerdeProvider;
 import io.prestosql.spi.snapshot.RestorableConfig;
+import io.prestosql.spi.snapshot.SnapshotStateInput;
+import io.prestosql.spi.snapshot.SnapshotStateOutput;
 import io.prestosql.spi.type.Type;
 import io.prestosql.sql.gen.JoinCompiler;
 import io.prestosql.sql.planner.optimizations.HashGenerationOptimizer;
 import io.prestosql.type.TypeUtils;
 import org.openjdk.jol.info.ClassLayout;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.BitSet;
@@ -367,8 +371,8 @@ public class MultiChannelGroupBySort
         this.rawPrevNullBitSet = myState.rawPrevNullBitSet;
     }
 
-    private static class MultiChannelGroupBySortState
-            implements Serializable
+    public static class MultiChannelGroupBySortState
+            implements Serializable, BinarySnapshotState
     {
         private Object currentPageBuilder;
         private long completedPagesMemorySize;
@@ -384,5 +388,46 @@ public class MultiChannelGroupBySort
         private long rawPrevNullHash;
         private int newGroupId;
         private BitSet rawPrevNullBitSet;
+
+        @Override
+        public void writeState(SnapshotStateOutput output)
+                throws IOException
+        {
+            output.writeSerializable(currentPageBuilder);
+            output.writeLong(completedPagesMemorySize);
+            output.writeInt(nextSortBasedGroupId);
+            output.writeSerializable(dictionaryLookBack);
+            output.writeLong(currentPageSizeInBytes);
+            output.writeObject(channelBuilders);
+            output.writeLong(rawPrevHash);
+            output.writeObject(maxGroupId);
+            output.writeInt(nextGroupIdStartingRange);
+            output.writeInt(currentGroupIdStartingRange);
+            output.writeInt(sliceIndex);
+            output.writeLong(rawPrevNullHash);
+            output.writeInt(newGroupId);
+            output.writeSerializable(rawPrevNullBitSet);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void readState(SnapshotStateInput input)
+                throws IOException, ClassNotFoundException
+        {
+            currentPageBuilder = input.readSerializable();
+            completedPagesMemorySize = input.readLong();
+            nextSortBasedGroupId = input.readInt();
+            dictionaryLookBack = input.readSerializable();
+            currentPageSizeInBytes = input.readLong();
+            channelBuilders = (byte[][][]) input.readObject();
+            rawPrevHash = input.readLong();
+            maxGroupId = (List<Integer>) input.readObject();
+            nextGroupIdStartingRange = input.readInt();
+            currentGroupIdStartingRange = input.readInt();
+            sliceIndex = input.readInt();
+            rawPrevNullHash = input.readLong();
+            newGroupId = input.readInt();
+            rawPrevNullBitSet = (BitSet) input.readSerializable();
+        }
     }
 }
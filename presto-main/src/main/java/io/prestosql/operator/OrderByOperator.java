@@ -19,6 +19,7 @@ import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
 import io.airlift.log.Logger;
 import io.prestosql.memory.context.LocalMemoryContext;
+import io.prestosql.snapshot.IncrementalRestorable;
 import io.prestosql.snapshot.SingleInputSnapshotState;
 import io.prestosql.snapshot.Spillable;
 import io.prestosql.spi.Page;
@@ -56,7 +57,7 @@ import static java.util.Objects.requireNonNull;
 @RestorableConfig(uncapturedFields = {"sortChannels", "sortOrder", "outputChannels", "sourceTypes", "spillerFactory",
         "orderingCompiler", "spillInProgress", "finishMemoryRevoke", "sortedPages", "state", "snapshotState", "spill2InProgress", "finishMemoryRevoke2"})
 public class OrderByOperator
-        implements Operator, Spillable
+        implements Operator, Spillable, IncrementalRestorable
 {
     private static final long MAX_RESERVED_MEMORY = 20 * 1024 * 1024;
 
@@ -567,14 +568,51 @@ public class OrderByOperator
 
     @Override
     public Object capture(BlockEncodingSerdeProvider serdeProvider)
+    {
+        OrderByOperatorState myState = captureState(serdeProvider);
+        myState.pageIndex = pageIndex.capture(serdeProvider);
+        myState.secondaryPageIndex = secondaryPageIndex.capture(serdeProvider);
+        return myState;
+    }
+
+    @Override
+    public Object captureIncremental(BlockEncodingSerdeProvider serdeProvider)
+    {
+        Object pageIndexState = pageIndex.captureIncremental(serdeProvider);
+        Object secondaryPageIndexState = secondaryPageIndex.captureIncremental(serdeProvider);
+        if (pageIndexState == null || secondaryPageIndexState == null) {
+            return null;
+        }
+        OrderByOperatorState myState = captureState(serdeProvider);
+        myState.pageIndex = pageIndexState;
+        myState.secondaryPageIndex = secondaryPageIndexState;
+        return myState;
+    }
+
+    @Override
+    public Object applyIncremental(Object baseState, Object incrementalState)
+    {
+        OrderByOperatorState base = (OrderByOperatorState) baseState;
+        OrderByOperatorState myState = (OrderByOperatorState) incrementalState;
+        myState.pageIndex = pageIndex.applyIncremental(base.pageIndex, myState.pageIndex);
+        myState.secondaryPageIndex = secondaryPageIndex.applyIncremental(base.secondaryPageIndex, myState.secondaryPageIndex);
+        return myState;
+    }
+
+    @Override
+    public long getIncrementalSkippedBytes()
+    {
+        return pageIndex.getIncrementalSkippedBytes() + secondaryPageIndex.getIncrementalSkippedBytes();
+    }
+
+    // Captures everything except the pages indexes
+    private OrderByOperatorState captureState(BlockEncodingSerdeProvider serdeProvider)
     {
         OrderByOperatorState myState = new OrderByOperatorState();
         myState.operatorContext = operatorContext.capture(serdeProvider);
         myState.revocableMemoryContext = revocableMemoryContext.getBytes();
         myState.localUserMemoryContext = localUserMemoryContext.getBytes();
         myState.secondaryMemoryContext = secondaryMemoryContext.getBytes();
-        myState.pageIndex = pageIndex.capture(serdeProvider);
-        myState.secondaryPageIndex = secondaryPageIndex.capture(serdeProvider);
         myState.primarySpillRunning = primarySpillRunning;
         myState.secondarySpillRunning = secondarySpillRunning;
 
@@ -25,15 +25,18 @@ import io.prestosql.Session;
 import io.prestosql.geospatial.Rectangle;
 import io.prestosql.metadata.Metadata;
 import io.prestosql.operator.SpatialIndexBuilderOperator.SpatialPredicate;
+import io.prestosql.snapshot.IncrementalRestorable;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.PageBuilder;
 import io.prestosql.spi.block.Block;
 import io.prestosql.spi.block.BlockBuilder;
 import io.prestosql.spi.block.BlockEncodingSerde;
 import io.prestosql.spi.block.SortOrder;
+import io.prestosql.spi.snapshot.BinarySnapshotState;
 import io.prestosql.spi.snapshot.BlockEncodingSerdeProvider;
-import io.prestosql.spi.snapshot.Restorable;
 import io.prestosql.spi.snapshot.RestorableConfig;
+import io.prestosql.spi.snapshot.SnapshotStateInput;
+import io.prestosql.spi.snapshot.SnapshotStateOutput;
 import io.prestosql.spi.type.Type;
 import io.prestosql.sql.analyzer.FeaturesConfig;
 import io.prestosql.sql.gen.JoinCompiler;
@@ -47,6 +50,7 @@ import org.openjdk.jol.info.ClassLayout;
 
 import javax.inject.Inject;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.Arrays;
 import java.util.Iterator;
@@ -60,6 +64,7 @@ import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static io.airlift.slice.SizeOf.sizeOf;
 import static io.airlift.units.DataSize.Unit.BYTE;
@@ -78,9 +83,10 @@ import static java.util.Objects.requireNonNull;
  * <li>Positional output via the {@link #appendTo} method</li>
  * </ul>
  */
-@RestorableConfig(uncapturedFields = {"orderingCompiler", "joinCompiler", "metadata", "types"})
+@RestorableConfig(uncapturedFields = {"orderingCompiler", "joinCompiler", "metadata", "types",
+        "capturedBlockCount", "capturedPositionCount", "capturedSizeInBytes", "sortedSinceCapture", "incrementalSkippedBytes"})
 public class PagesIndex
-        implements Swapper, Restorable
+        implements Swapper, IncrementalRestorable
 {
     private static final int INSTANCE_SIZE = ClassLayout.parseClass(PagesIndex.class).instanceSize();
     private static final Logger log = Logger.get(PagesIndex.class);
@@ -99,6 +105,15 @@ public class PagesIndex
     private long pagesMemorySize;
     private long estimatedSize;
 
+    // Blocks per channel and positions covered by the last capture or restore.
+    // A negative block count means the next capture has to be a full one.
+    private int capturedBlockCount = -1;
+    private int capturedPositionCount;
+    // Serialized size of the blocks covered by the last capture or restore
+    private long capturedSizeInBytes;
+    private boolean sortedSinceCapture;
+    private long incrementalSkippedBytes;
+
     private PagesIndex(
             OrderingCompiler orderingCompiler,
             JoinCompiler joinCompiler,
@@ -203,6 +218,7 @@ public class PagesIndex
         positionCount = 0;
         nextBlockToCompact = 0;
         pagesMemorySize = 0;
+        capturedBlockCount = -1;
 
         estimatedSize = calculateEstimatedSize();
     }
@@ -384,6 +400,7 @@ public class PagesIndex
 
     public void sort(List<Integer> sortChannels, List<SortOrder> sortOrders, int startPosition, int endPosition)
     {
+        sortedSinceCapture = true;
         createPagesIndexComparator(sortChannels, sortOrders).sort(this, startPosition, endPosition);
     }
 
@@ -598,23 +615,101 @@ public class PagesIndex
         PagesIndexState myState = new PagesIndexState();
         myState.valueAddresses = new long[valueAddresses.size()];
         valueAddresses.getElements(0, myState.valueAddresses, 0, valueAddresses.size());
-        myState.channels = new byte[channels.length][][];
+        myState.channels = captureBlocks(blockSerde, 0);
+        myState.nextBlockToCompact = nextBlockToCompact;
+        myState.positionCount = positionCount;
+        myState.pagesMemorySize = pagesMemorySize;
+        myState.estimatedSize = estimatedSize;
+        capturedSizeInBytes = 0;
+        markCaptured(myState.channels);
+        return myState;
+    }
+
+    @Override
+    public Object captureIncremental(BlockEncodingSerdeProvider serdeProvider)
+    {
+        if (capturedBlockCount < 0 || getBlockCount() < capturedBlockCount || valueAddresses.size() < capturedPositionCount) {
+            return null;
+        }
+        BlockEncodingSerde blockSerde = serdeProvider.getBlockEncodingSerde();
+        PagesIndexIncrementalState myState = new PagesIndexIncrementalState();
+        myState.baseBlockCount = capturedBlockCount;
+        // Sorting reorders the existing addresses, so they all need to be captured again
+        myState.basePositionCount = sortedSinceCapture ? 0 : capturedPositionCount;
+        myState.valueAddresses = new long[valueAddresses.size() - myState.basePositionCount];
+        valueAddresses.getElements(myState.basePositionCount, myState.valueAddresses, 0, myState.valueAddresses.length);
+        myState.channels = captureBlocks(blockSerde, capturedBlockCount);
+        myState.nextBlockToCompact = nextBlockToCompact;
+        myState.positionCount = positionCount;
+        myState.pagesMemorySize = pagesMemorySize;
+        myState.estimatedSize = estimatedSize;
+        incrementalSkippedBytes = capturedSizeInBytes + (long) myState.basePositionCount * Long.BYTES;
+        markCaptured(myState.channels);
+        return myState;
+    }
+
+    @Override
+    public Object applyIncremental(Object baseState, Object incrementalState)
+    {
+        PagesIndexState base = (PagesIndexState) baseState;
+        PagesIndexIncrementalState increment = (PagesIndexIncrementalState) incrementalState;
+        checkArgument(base.channels.length == increment.channels.length, "channel count mismatch");
+        checkArgument(base.valueAddresses.length >= increment.basePositionCount, "base state has fewer positions than expected");
+
+        PagesIndexState myState = new PagesIndexState();
+        myState.valueAddresses = Arrays.copyOf(base.valueAddresses, increment.basePositionCount + increment.valueAddresses.length);
+        System.arraycopy(increment.valueAddresses, 0, myState.valueAddresses, increment.basePositionCount, increment.valueAddresses.length);
+        myState.channels = new byte[base.channels.length][][];
+        for (int i = 0; i < base.channels.length; i++) {
+            checkArgument(base.channels[i].length == increment.baseBlockCount, "base state has %s blocks instead of %s", base.channels[i].length, increment.baseBlockCount);
+            myState.channels[i] = Arrays.copyOf(base.channels[i], base.channels[i].length + increment.channels[i].length);
+            System.arraycopy(increment.channels[i], 0, myState.channels[i], base.channels[i].length, increment.channels[i].length);
+        }
+        myState.nextBlockToCompact = increment.nextBlockToCompact;
+        myState.positionCount = increment.positionCount;
+        myState.pagesMemorySize = increment.pagesMemorySize;
+        myState.estimatedSize = increment.estimatedSize;
+        return myState;
+    }
+
+    @Override
+    public long getIncrementalSkippedBytes()
+    {
+        return incrementalSkippedBytes;
+    }
+
+    private byte[][][] captureBlocks(BlockEncodingSerde blockSerde, int startBlock)
+    {
+        byte[][][] result = new byte[channels.length][][];
         for (int i = 0; i < channels.length; i++) {
-            int arraySize = channels[i].size();
-            myState.channels[i] = new byte[arraySize][];
+            int arraySize = channels[i].size() - startBlock;
+            result[i] = new byte[arraySize][];
             Block[] blockArray = new Block[arraySize];
-            channels[i].getElements(0, blockArray, 0, arraySize);
+            channels[i].getElements(startBlock, blockArray, 0, arraySize);
             for (int j = 0; j < arraySize; j++) {
                 SliceOutput sliceOutput = new DynamicSliceOutput(0);
                 blockSerde.writeBlock(sliceOutput, blockArray[j]);
-                myState.channels[i][j] = sliceOutput.getUnderlyingSlice().getBytes();
+                result[i][j] = sliceOutput.getUnderlyingSlice().getBytes();
             }
         }
-        myState.nextBlockToCompact = nextBlockToCompact;
-        myState.positionCount = positionCount;
-        myState.pagesMemorySize = pagesMemorySize;
-        myState.estimatedSize = estimatedSize;
-        return myState;
+        return result;
+    }
+
+    private void markCaptured(byte[][][] capturedChannels)
+    {
+        for (byte[][] channel : capturedChannels) {
+            for (byte[] block : channel) {
+                capturedSizeInBytes += block.length;
+            }
+        }
+        capturedBlockCount = getBlockCount();
+        capturedPositionCount = valueAddresses.size();
+        sortedSinceCapture = false;
+    }
+
+    private int getBlockCount()
+    {
+        return (channels.length > 0) ? channels[0].size() : 0;
     }
 
     @Override
@@ -637,10 +732,12 @@ public class PagesIndex
         this.positionCount = myState.positionCount;
         this.pagesMemorySize = myState.pagesMemorySize;
         this.estimatedSize = myState.estimatedSize;
+        capturedSizeInBytes = 0;
+        markCaptured(myState.channels);
     }
 
-    private static class PagesIndexState
-            implements Serializable
+    public static class PagesIndexState
+            implements Serializable, BinarySnapshotState
     {
         private long[] valueAddresses;
         private byte[][][] channels;
@@ -648,5 +745,71 @@ public class PagesIndex
         private int positionCount;
         private long pagesMemorySize;
         private long estimatedSize;
+
+        @Override
+        public void writeState(SnapshotStateOutput output)
+                throws IOException
+        {
+            output.writeObject(valueAddresses);
+            output.writeObject(channels);
+            output.writeInt(nextBlockToCompact);
+            output.writeInt(positionCount);
+            output.writeLong(pagesMemorySize);
+            output.writeLong(estimatedSize);
+        }
+
+        @Override
+        public void readState(SnapshotStateInput input)
+                throws IOException, ClassNotFoundException
+        {
+            valueAddresses = (long[]) input.readObject();
+            channels = (byte[][][]) input.readObject();
+            nextBlockToCompact = input.readInt();
+            positionCount = input.readInt();
+            pagesMemorySize = input.readLong();
+            estimatedSize = input.readLong();
+        }
+    }
+
+    public static class PagesIndexIncrementalState
+            implements Serializable, BinarySnapshotState
+    {
+        // Number of blocks per channel, and leading addresses, that are taken from the base state
+        private int baseBlockCount;
+        private int basePositionCount;
+        private long[] valueAddresses;
+        private byte[][][] channels;
+        private int nextBlockToCompact;
+        private int positionCount;
+        private long pagesMemorySize;
+        private long estimatedSize;
+
+        @Override
+        public void writeState(SnapshotStateOutput output)
+                throws IOException
+        {
+            output.writeInt(baseBlockCount);
+            output.writeInt(basePositionCount);
+            output.writeObject(valueAddresses);
+            output.writeObject(channels);
+            output.writeInt(nextBlockToCompact);
+            output.writeInt(positionCount);
+            output.writeLong(pagesMemorySize);
+            output.writeLong(estimatedSize);
+        }
+
+        @Override
+        public void readState(SnapshotStateInput input)
+                throws IOException, ClassNotFoundException
+        {
+            baseBlockCount = input.readInt();
+            basePositionCount = input.readInt();
+            valueAddresses = (long[]) input.readObject();
+            channels = (byte[][][]) input.readObject();
+            nextBlockToCompact = input.readInt();
+            positionCount = input.readInt();
+            pagesMemorySize = input.readLong();
+            estimatedSize = input.readLong();
+        }
     }
 }
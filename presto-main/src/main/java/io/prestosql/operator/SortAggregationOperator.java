@@ -27,10 +27,13 @@ import io.prestosql.spi.plan.AggregationNode;
 import io.prestosql.spi.plan.PlanNodeId;
 import io.prestosql.spi.snapshot.BlockEncodingSerdeProvider;
 import io.prestosql.spi.snapshot.RestorableConfig;
+import io.prestosql.spi.snapshot.SnapshotStateInput;
+import io.prestosql.spi.snapshot.SnapshotStateOutput;
 import io.prestosql.spi.type.Type;
 import io.prestosql.spiller.SpillerFactory;
 import io.prestosql.sql.gen.JoinCompiler;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
 
@@ -439,7 +442,7 @@ public class SortAggregationOperator
         super.restore(myState.baseState, serdeProvider);
     }
 
-    private static class SortAggregationOperatorState
+    public static class SortAggregationOperatorState
             extends GroupAggregationOperatorState
     {
         private Object baseState;
@@ -450,5 +453,33 @@ public class SortAggregationOperator
         private boolean finishing;
         private boolean finished;
         private boolean isFinalizedValuePresent;
+
+        @Override
+        public void writeState(SnapshotStateOutput output)
+                throws IOException
+        {
+            output.writeObject(baseState);
+            output.writeSerializable(operatorContext);
+            output.writeObject(aggregationBuilder);
+            output.writeLong(memoryContext);
+            output.writeBoolean(inputProcessed);
+            output.writeBoolean(finishing);
+            output.writeBoolean(finished);
+            output.writeBoolean(isFinalizedValuePresent);
+        }
+
+        @Override
+        public void readState(SnapshotStateInput input)
+                throws IOException, ClassNotFoundException
+        {
+            baseState = input.readObject();
+            operatorContext = input.readSerializable();
+            aggregationBuilder = input.readObject();
+            memoryContext = input.readLong();
+            inputProcessed = input.readBoolean();
+            finishing = input.readBoolean();
+            finished = input.readBoolean();
+            isFinalizedValuePresent = input.readBoolean();
+        }
     }
 }
@@ -13,8 +13,10 @@
  */
 package io.prestosql.operator;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.primitives.Ints;
+import io.airlift.units.DataSize;
 import io.hetu.core.transport.execution.buffer.PagesSerde;
 import io.hetu.core.transport.execution.buffer.SerializedPage;
 import io.prestosql.memory.context.LocalMemoryContext;
@@ -29,6 +31,7 @@ import io.prestosql.spi.snapshot.BlockEncodingSerdeProvider;
 import io.prestosql.spi.snapshot.RestorableConfig;
 import io.prestosql.spi.type.Type;
 import io.prestosql.sql.gen.JoinCompiler;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 
 import java.io.Serializable;
 import java.util.Deque;
@@ -39,9 +42,12 @@ import java.util.OptionalInt;
 
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static io.prestosql.spiller.SpillerFactory.unsupportedSpillerFactory;
 import static java.util.Objects.requireNonNull;
 
-@RestorableConfig(uncapturedFields = {"groupByTypes", "groupByChannels", "accumulatorFactories", "pagesHashStrategy", "outputPages", "snapshotState"})
+@RestorableConfig(uncapturedFields = {"groupByTypes", "groupByChannels", "accumulatorFactories", "pagesHashStrategy", "outputPages", "snapshotState",
+        "joinCompiler", "maxPartialMemory", "recentGroups", "hashAggregationFallback"})
 public class StreamingAggregationOperator
         implements Operator
 {
@@ -56,9 +62,28 @@ public class StreamingAggregationOperator
         private final Step step;
         private final List<AccumulatorFactory> accumulatorFactories;
         private final JoinCompiler joinCompiler;
+        private final Optional<DataSize> maxPartialMemory;
         private boolean closed;
 
         public StreamingAggregationOperatorFactory(int operatorId, PlanNodeId planNodeId, List<Type> sourceTypes, List<Type> groupByTypes, List<Integer> groupByChannels, Step step, List<AccumulatorFactory> accumulatorFactories, JoinCompiler joinCompiler)
+        {
+            this(operatorId, planNodeId, sourceTypes, groupByTypes, groupByChannels, step, accumulatorFactories, joinCompiler, Optional.empty());
+        }
+
+        /**
+         * @param maxPartialMemory if present and the step produces partial output, a group key that shows up again after its group
+         * was finished makes the operator fall back to a hash aggregation with this memory limit for the rest of its input
+         */
+        public StreamingAggregationOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                List<Type> sourceTypes,
+                List<Type> groupByTypes,
+                List<Integer> groupByChannels,
+                Step step,
+                List<AccumulatorFactory> accumulatorFactories,
+                JoinCompiler joinCompiler,
+                Optional<DataSize> maxPartialMemory)
         {
             this.operatorId = operatorId;
             this.planNodeId = requireNonNull(planNodeId, "planNodeId is null");
@@ -68,6 +93,7 @@ public class StreamingAggregationOperator
             this.step = step;
             this.accumulatorFactories = ImmutableList.copyOf(requireNonNull(accumulatorFactories, "accumulatorFactories is null"));
             this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
+            this.maxPartialMemory = requireNonNull(maxPartialMemory, "maxPartialMemory is null");
         }
 
         @Override
@@ -75,7 +101,7 @@ public class StreamingAggregationOperator
         {
             checkState(!closed, "Factory is already closed");
             OperatorContext addOperatorContext = driverContext.addOperatorContext(operatorId, planNodeId, StreamingAggregationOperator.class.getSimpleName());
-            return new StreamingAggregationOperator(addOperatorContext, sourceTypes, groupByTypes, groupByChannels, step, accumulatorFactories, joinCompiler);
+            return new StreamingAggregationOperator(addOperatorContext, sourceTypes, groupByTypes, groupByChannels, step, accumulatorFactories, joinCompiler, maxPartialMemory);
         }
 
         @Override
@@ -87,10 +113,13 @@ public class StreamingAggregationOperator
         @Override
         public OperatorFactory duplicate()
         {
-            return new StreamingAggregationOperatorFactory(operatorId, planNodeId, sourceTypes, groupByTypes, groupByChannels, step, accumulatorFactories, joinCompiler);
+            return new StreamingAggregationOperatorFactory(operatorId, planNodeId, sourceTypes, groupByTypes, groupByChannels, step, accumulatorFactories, joinCompiler, maxPartialMemory);
         }
     }
 
+    // number of most recent groups that are checked for keys showing up again
+    private static final int RECENT_GROUPS = 1024;
+
     private final OperatorContext operatorContext;
     private final LocalMemoryContext systemMemoryContext;
     private final LocalMemoryContext userMemoryContext;
@@ -99,16 +128,35 @@ public class StreamingAggregationOperator
     private final List<AccumulatorFactory> accumulatorFactories;
     private final Step step;
     private final PagesHashStrategy pagesHashStrategy;
+    private final JoinCompiler joinCompiler;
+    private final Optional<DataSize> maxPartialMemory;
+    // null unless out of order keys are detected, which is only done for partial aggregations
+    private final RecentGroups recentGroups;
 
     private List<Aggregator> aggregates;
     private final PageBuilder pageBuilder;
     private final Deque<Page> outputPages = new LinkedList<>();
     private Page currentGroup;
     private boolean finishing;
+    // takes over the remaining input once a group key was found out of order
+    private HashAggregationOperator hashAggregationFallback;
 
     private final SingleInputSnapshotState snapshotState;
 
     public StreamingAggregationOperator(OperatorContext operatorContext, List<Type> sourceTypes, List<Type> groupByTypes, List<Integer> groupByChannels, Step step, List<AccumulatorFactory> accumulatorFactories, JoinCompiler joinCompiler)
+    {
+        this(operatorContext, sourceTypes, groupByTypes, groupByChannels, step, accumulatorFactories, joinCompiler, Optional.empty());
+    }
+
+    public StreamingAggregationOperator(
+            OperatorContext operatorContext,
+            List<Type> sourceTypes,
+            List<Type> groupByTypes,
+            List<Integer> groupByChannels,
+            Step step,
+            List<AccumulatorFactory> accumulatorFactories,
+            JoinCompiler joinCompiler,
+            Optional<DataSize> maxPartialMemory)
     {
         this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
         this.systemMemoryContext = operatorContext.newLocalSystemMemoryContext(StreamingAggregationOperator.class.getSimpleName());
@@ -120,7 +168,9 @@ public class StreamingAggregationOperator
 
         this.aggregates = setupAggregates(step, accumulatorFactories);
         this.pageBuilder = new PageBuilder(toTypes(groupByTypes, aggregates));
-        requireNonNull(joinCompiler, "joinCompiler is null");
+        this.joinCompiler = requireNonNull(joinCompiler, "joinCompiler is null");
+        this.maxPartialMemory = requireNonNull(maxPartialMemory, "maxPartialMemory is null");
+        this.recentGroups = step.isOutputPartial() && maxPartialMemory.isPresent() ? new RecentGroups(RECENT_GROUPS) : null;
 
         requireNonNull(sourceTypes, "sourceTypes is null");
         pagesHashStrategy = joinCompiler.compilePagesHashStrategyFactory(sourceTypes, groupByChannels, Optional.empty())
@@ -159,6 +209,9 @@ public class StreamingAggregationOperator
     @Override
     public boolean needsInput()
     {
+        if (hashAggregationFallback != null) {
+            return outputPages.isEmpty() && hashAggregationFallback.needsInput();
+        }
         return !finishing && outputPages.isEmpty();
     }
 
@@ -174,6 +227,11 @@ public class StreamingAggregationOperator
             }
         }
 
+        if (hashAggregationFallback != null) {
+            hashAggregationFallback.addInput(page);
+            return;
+        }
+
         processInput(page);
         updateMemoryUsage();
     }
@@ -205,16 +263,27 @@ public class StreamingAggregationOperator
         requireNonNull(page, "page is null");
 
         Page groupByPage = extractColumns(page, groupByChannels);
+        boolean newGroup = true;
         if (currentGroup != null) {
             if (!pagesHashStrategy.rowEqualsRow(0, extractColumns(currentGroup, groupByChannels), 0, groupByPage)) {
                 // page starts with new group, so flush it
                 evaluateAndFlushGroup(currentGroup, 0);
             }
+            else {
+                newGroup = false;
+            }
             currentGroup = null;
         }
 
         int startPosition = 0;
         while (true) {
+            if (newGroup && recentGroups != null && !recentGroups.add(pagesHashStrategy.hashRow(startPosition, groupByPage))) {
+                // a recently flushed group starts again, so the input is not grouped after all
+                fallBackToHashAggregation(page.getRegion(startPosition, page.getPositionCount() - startPosition));
+                return;
+            }
+            newGroup = true;
+
             // may be equal to page.getPositionCount() if the end is not found in this page
             int nextGroupStart = findNextGroupStart(startPosition, groupByPage);
             addRowsToAggregates(page, startPosition, nextGroupStart - 1);
@@ -231,6 +300,43 @@ public class StreamingAggregationOperator
         }
     }
 
+    private void fallBackToHashAggregation(Page remainingInput)
+    {
+        // groups emitted so far are merged with the groups of the hash aggregation by the final aggregation
+        if (!pageBuilder.isEmpty()) {
+            outputPages.add(pageBuilder.build());
+            pageBuilder.reset();
+        }
+        hashAggregationFallback = new HashAggregationOperator(
+                operatorContext,
+                groupByTypes,
+                Ints.asList(groupByChannels),
+                ImmutableList.of(),
+                step,
+                false,
+                accumulatorFactories,
+                Optional.empty(),
+                Optional.empty(),
+                10_000,
+                maxPartialMemory,
+                // spilling is disabled: the partial fallback flushes at maxPartialMemory and never asks for a spiller
+                false,
+                new DataSize(0, MEGABYTE),
+                new DataSize(0, MEGABYTE),
+                unsupportedSpillerFactory(),
+                joinCompiler,
+                true,
+                Optional.empty());
+        hashAggregationFallback.addInput(remainingInput);
+        updateMemoryUsage();
+    }
+
+    @VisibleForTesting
+    boolean isHashAggregationFallback()
+    {
+        return hashAggregationFallback != null;
+    }
+
     private static Page extractColumns(Page page, int[] channels)
     {
         Block[] newBlocks = new Block[channels.length];
@@ -290,7 +396,15 @@ public class StreamingAggregationOperator
         }
 
         if (!outputPages.isEmpty()) {
-            return outputPages.removeFirst();
+            Page page = outputPages.removeFirst();
+            if (hashAggregationFallback != null) {
+                updateMemoryUsage();
+            }
+            return page;
+        }
+
+        if (hashAggregationFallback != null) {
+            return hashAggregationFallback.getOutput();
         }
 
         return null;
@@ -307,6 +421,11 @@ public class StreamingAggregationOperator
     {
         finishing = true;
 
+        if (hashAggregationFallback != null) {
+            hashAggregationFallback.finish();
+            return;
+        }
+
         if (currentGroup != null) {
             evaluateAndFlushGroup(currentGroup, 0);
             currentGroup = null;
@@ -326,12 +445,19 @@ public class StreamingAggregationOperator
             return false;
         }
 
+        if (hashAggregationFallback != null) {
+            return outputPages.isEmpty() && hashAggregationFallback.isFinished();
+        }
+
         return finishing && outputPages.isEmpty() && currentGroup == null && pageBuilder.isEmpty();
     }
 
     @Override
     public void close()
     {
+        if (hashAggregationFallback != null) {
+            hashAggregationFallback.close();
+        }
         if (snapshotState != null) {
             snapshotState.close();
         }
@@ -376,6 +502,42 @@ public class StreamingAggregationOperator
         this.finishing = myState.finishing;
     }
 
+    /**
+     * Hashes of the most recent group keys. Hash collisions only cause an unnecessary fall back.
+     */
+    private static class RecentGroups
+    {
+        private final long[] hashes;
+        private final LongOpenHashSet hashSet;
+        private int next;
+        private int size;
+
+        RecentGroups(int capacity)
+        {
+            this.hashes = new long[capacity];
+            this.hashSet = new LongOpenHashSet(capacity);
+        }
+
+        /**
+         * @return false if the hash is among the recent groups
+         */
+        boolean add(long hash)
+        {
+            if (!hashSet.add(hash)) {
+                return false;
+            }
+            if (size == hashes.length) {
+                hashSet.remove(hashes[next]);
+            }
+            else {
+                size++;
+            }
+            hashes[next] = hash;
+            next = (next + 1) % hashes.length;
+            return true;
+        }
+    }
+
     private static class StreamingAggregationOperatorState
             implements Serializable
     {
@@ -31,14 +31,18 @@ import io.prestosql.operator.aggregation.GroupedAccumulator;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.block.BlockBuilder;
 import io.prestosql.spi.plan.AggregationNode;
+import io.prestosql.spi.snapshot.BinarySnapshotState;
 import io.prestosql.spi.snapshot.BlockEncodingSerdeProvider;
 import io.prestosql.spi.snapshot.Restorable;
 import io.prestosql.spi.snapshot.RestorableConfig;
+import io.prestosql.spi.snapshot.SnapshotStateInput;
+import io.prestosql.spi.snapshot.SnapshotStateOutput;
 import io.prestosql.spi.type.Type;
 import io.prestosql.sql.gen.JoinCompiler;
 import it.unimi.dsi.fastutil.ints.IntIterator;
 import it.unimi.dsi.fastutil.ints.IntIterators;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
@@ -47,6 +51,7 @@ import java.util.OptionalLong;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static io.prestosql.SystemSessionProperties.isDictionaryAggregationEnabled;
+import static io.prestosql.SystemSessionProperties.isFlatGroupByHashEnabled;
 import static io.prestosql.operator.GroupByHash.createGroupByHash;
 import static io.prestosql.operator.GroupBySort.createGroupBySort;
 import static java.util.Objects.requireNonNull;
@@ -82,6 +87,7 @@ public abstract class InMemoryAggregationBuilder
                 groupByChannels,
                 hashChannel,
                 isDictionaryAggregationEnabled(operatorContext.getSession()),
+                isFlatGroupByHashEnabled(operatorContext.getSession()),
                 maxPartialMemory,
                 Optional.empty(),
                 joinCompiler,
@@ -102,6 +108,36 @@ public abstract class InMemoryAggregationBuilder
             JoinCompiler joinCompiler,
             UpdateMemory updateMemory,
             AggregationNode.AggregationType aggregationType)
+    {
+        this(accumulatorFactories,
+                step,
+                expectedGroups,
+                groupByTypes,
+                groupByChannels,
+                hashChannel,
+                processDictionary,
+                false,
+                maxPartialMemory,
+                overwriteIntermediateChannelOffset,
+                joinCompiler,
+                updateMemory,
+                aggregationType);
+    }
+
+    public InMemoryAggregationBuilder(
+            List<AccumulatorFactory> accumulatorFactories,
+            AggregationNode.Step step,
+            int expectedGroups,
+            List<Type> groupByTypes,
+            List<Integer> groupByChannels,
+            Optional<Integer> hashChannel,
+            boolean processDictionary,
+            boolean flatGroupByHashEnabled,
+            Optional<DataSize> maxPartialMemory,
+            Optional<Integer> overwriteIntermediateChannelOffset,
+            JoinCompiler joinCompiler,
+            UpdateMemory updateMemory,
+            AggregationNode.AggregationType aggregationType)
     {
         if (aggregationType.equals(AggregationNode.AggregationType.SORT_BASED)) {
             this.groupBy = createGroupBySort(
@@ -120,6 +156,7 @@ public abstract class InMemoryAggregationBuilder
                     hashChannel,
                     expectedGroups,
                     processDictionary,
+                    flatGroupByHashEnabled,
                     joinCompiler,
                     updateMemory);
         }
@@ -390,11 +427,30 @@ public abstract class InMemoryAggregationBuilder
         throw new UnsupportedOperationException();
     }
 
-    private static class InMemoryAggregationBuilderState
-            implements Serializable
+    public static class InMemoryAggregationBuilderState
+            implements Serializable, BinarySnapshotState
     {
         private Object groupBy;
         private List<Object> aggregators;
         private boolean full;
+
+        @Override
+        public void writeState(SnapshotStateOutput output)
+                throws IOException
+        {
+            output.writeObject(groupBy);
+            output.writeSerializable(aggregators);
+            output.writeBoolean(full);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void readState(SnapshotStateInput input)
+                throws IOException, ClassNotFoundException
+        {
+            groupBy = input.readObject();
+            aggregators = (List<Object>) input.readSerializable();
+            full = input.readBoolean();
+        }
     }
 }
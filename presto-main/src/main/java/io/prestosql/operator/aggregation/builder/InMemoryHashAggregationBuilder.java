@@ -36,6 +36,7 @@ import java.util.List;
 import java.util.Optional;
 
 import static io.prestosql.SystemSessionProperties.isDictionaryAggregationEnabled;
+import static io.prestosql.SystemSessionProperties.isFlatGroupByHashEnabled;
 import static io.prestosql.spi.type.BigintType.BIGINT;
 
 public class InMemoryHashAggregationBuilder
@@ -60,6 +61,7 @@ public class InMemoryHashAggregationBuilder
                 groupByChannels,
                 hashChannel,
                 isDictionaryAggregationEnabled(operatorContext.getSession()),
+                isFlatGroupByHashEnabled(operatorContext.getSession()),
                 maxPartialMemory,
                 Optional.empty(),
                 joinCompiler,
@@ -87,6 +89,7 @@ public class InMemoryHashAggregationBuilder
                 groupByChannels,
                 hashChannel,
                 isDictionaryAggregationEnabled(operatorContext.getSession()),
+                isFlatGroupByHashEnabled(operatorContext.getSession()),
                 maxPartialMemory,
                 overwriteIntermediateChannelOffset,
                 joinCompiler,
@@ -108,7 +111,37 @@ public class InMemoryHashAggregationBuilder
             UpdateMemory updateMemory,
             AggregationNode.AggregationType aggregationType)
     {
-        super(accumulatorFactories, step, expectedGroups, groupByTypes, groupByChannels, hashChannel, processDictionary,
+        this(accumulatorFactories,
+                step,
+                expectedGroups,
+                groupByTypes,
+                groupByChannels,
+                hashChannel,
+                processDictionary,
+                false,
+                maxPartialMemory,
+                overwriteIntermediateChannelOffset,
+                joinCompiler,
+                updateMemory,
+                aggregationType);
+    }
+
+    public InMemoryHashAggregationBuilder(
+            List<AccumulatorFactory> accumulatorFactories,
+            Step step,
+            int expectedGroups,
+            List<Type> groupByTypes,
+            List<Integer> groupByChannels,
+            Optional<Integer> hashChannel,
+            boolean processDictionary,
+            boolean flatGroupByHashEnabled,
+            Optional<DataSize> maxPartialMemory,
+            Optional<Integer> overwriteIntermediateChannelOffset,
+            JoinCompiler joinCompiler,
+            UpdateMemory updateMemory,
+            AggregationNode.AggregationType aggregationType)
+    {
+        super(accumulatorFactories, step, expectedGroups, groupByTypes, groupByChannels, hashChannel, processDictionary, flatGroupByHashEnabled,
                 maxPartialMemory, overwriteIntermediateChannelOffset, joinCompiler, updateMemory, aggregationType);
     }
 
@@ -27,9 +27,12 @@ import io.prestosql.operator.WorkProcessor;
 import io.prestosql.operator.aggregation.AccumulatorFactory;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.plan.AggregationNode;
+import io.prestosql.spi.snapshot.BinarySnapshotState;
 import io.prestosql.spi.snapshot.BlockEncodingSerdeProvider;
 import io.prestosql.spi.snapshot.Restorable;
 import io.prestosql.spi.snapshot.RestorableConfig;
+import io.prestosql.spi.snapshot.SnapshotStateInput;
+import io.prestosql.spi.snapshot.SnapshotStateOutput;
 import io.prestosql.spi.type.Type;
 import io.prestosql.spiller.Spiller;
 import io.prestosql.spiller.SpillerFactory;
@@ -404,8 +407,8 @@ public class SpillableHashAggregationBuilder
         }
     }
 
-    private static class SpillableHashAggregationBuilderState
-            implements Serializable
+    public static class SpillableHashAggregationBuilderState
+            implements Serializable, BinarySnapshotState
     {
         private Object operatorContext;
         private Object hashAggregationBuilder;
@@ -416,5 +419,35 @@ public class SpillableHashAggregationBuilder
         private double expectedHashCollisions;
         private boolean producingOutput;
         private Object spiller;
+
+        @Override
+        public void writeState(SnapshotStateOutput output)
+                throws IOException
+        {
+            output.writeSerializable(operatorContext);
+            output.writeObject(hashAggregationBuilder);
+            output.writeLong(localRevocableMemoryContext);
+            output.writeLong(localUserMemoryContext);
+            output.writeLong(emptyHashAggregationBuilderSize);
+            output.writeLong(hashCollisions);
+            output.writeDouble(expectedHashCollisions);
+            output.writeBoolean(producingOutput);
+            output.writeSerializable(spiller);
+        }
+
+        @Override
+        public void readState(SnapshotStateInput input)
+                throws IOException, ClassNotFoundException
+        {
+            operatorContext = input.readSerializable();
+            hashAggregationBuilder = input.readObject();
+            localRevocableMemoryContext = input.readLong();
+            localUserMemoryContext = input.readLong();
+            emptyHashAggregationBuilderSize = input.readLong();
+            hashCollisions = input.readLong();
+            expectedHashCollisions = input.readDouble();
+            producingOutput = input.readBoolean();
+            spiller = input.readSerializable();
+        }
     }
 }
@@ -15,12 +15,16 @@ package io.prestosql.operator.aggregation.partial;
 
 import io.prestosql.operator.HashAggregationOperator;
 
+import java.util.OptionalLong;
+
 /**
  * Controls whenever partial aggregation is enabled across all {@link HashAggregationOperator}s
  * for a particular plan node on a single node.
  * Partial aggregation is disabled once enough rows has been processed ({@link #minNumberOfRowsProcessed})
  * and the ratio between output(unique) and input rows is too high (> {@link #uniqueRowsRatioThreshold}).
- * TODO https://github.com/trinodb/trino/issues/11361 add support to adaptively re-enable partial aggregation.
+ * Once disabled, partial aggregation is re-enabled after {@link #REENABLE_ROWS_MULTIPLIER} times
+ * {@link #minNumberOfRowsProcessed} rows have been passed through, so that a change in data distribution
+ * (e.g. sorted or clustered input) gets a chance to be aggregated again.
  * <p>
  * The class is thread safe and objects of this class are used potentially by multiple threads/drivers simultaneously.
  * Different threads either:
@@ -29,12 +33,15 @@ import io.prestosql.operator.HashAggregationOperator;
  */
 public class PartialAggregationController
 {
+    private static final long REENABLE_ROWS_MULTIPLIER = 10;
+
     private final long minNumberOfRowsProcessed;
     private final double uniqueRowsRatioThreshold;
 
     private volatile boolean partialAggregationDisabled;
     private long totalRowProcessed;
     private long totalUniqueRowsProduced;
+    private long totalRowsSkipped;
 
     public PartialAggregationController(long minNumberOfRowsProcessedToDisable, double uniqueRowsRatioThreshold)
     {
@@ -47,14 +54,34 @@ public class PartialAggregationController
         return partialAggregationDisabled;
     }
 
-    public synchronized void onFlush(long rowsProcessed, long uniqueRowsProduced)
+    /**
+     * @param uniqueRowsProduced number of rows produced by the flushed aggregation,
+     * or empty if the rows were passed through without being aggregated
+     */
+    public synchronized void onFlush(long rowsProcessed, OptionalLong uniqueRowsProduced)
     {
+        if (!uniqueRowsProduced.isPresent()) {
+            if (!partialAggregationDisabled) {
+                // operator was still skipping when another one re-enabled partial aggregation
+                return;
+            }
+            totalRowsSkipped += rowsProcessed;
+            if (totalRowsSkipped >= minNumberOfRowsProcessed * REENABLE_ROWS_MULTIPLIER) {
+                totalRowProcessed = 0;
+                totalUniqueRowsProduced = 0;
+                totalRowsSkipped = 0;
+                partialAggregationDisabled = false;
+            }
+            return;
+        }
+
         if (partialAggregationDisabled) {
+            // aggregation was started before partial aggregation got disabled
             return;
         }
 
         totalRowProcessed += rowsProcessed;
-        totalUniqueRowsProduced += uniqueRowsProduced;
+        totalUniqueRowsProduced += uniqueRowsProduced.getAsLong();
         if (shouldDisablePartialAggregation()) {
             partialAggregationDisabled = true;
         }
@@ -36,8 +36,9 @@ public class LocalExchangeMemoryManager
     private final long maxBufferedBytes;
     private final AtomicLong bufferedBytes = new AtomicLong();
 
+    // written under lock, but read without it on the update path
     @GuardedBy("this")
-    private SettableFuture<?> notFullFuture = NOT_FULL;
+    private volatile SettableFuture<?> notFullFuture = NOT_FULL;
 
     public LocalExchangeMemoryManager(long maxBufferedBytes)
     {
@@ -46,11 +47,20 @@ public class LocalExchangeMemoryManager
     }
 
     public void updateMemoryUsage(long bytesAdded)
+    {
+        // all producers and consumers of the exchange update the usage, so only
+        // take the lock when a blocked writer may have to be released
+        long buffered = bufferedBytes.addAndGet(bytesAdded);
+        if (buffered > maxBufferedBytes || notFullFuture.isDone()) {
+            return;
+        }
+        releaseBlockedWriters();
+    }
+
+    private void releaseBlockedWriters()
     {
         SettableFuture<?> future;
         synchronized (this) {
-            bufferedBytes.addAndGet(bytesAdded);
-
             // if we are full, then breakout
             if (bufferedBytes.get() > maxBufferedBytes || notFullFuture.isDone()) {
                 return;
@@ -65,13 +75,22 @@ public class LocalExchangeMemoryManager
         future.set(null);
     }
 
-    public synchronized ListenableFuture<?> getNotFullFuture()
+    public ListenableFuture<?> getNotFullFuture()
     {
-        // if we are full and the current not full future is already complete, create a new one
-        if (bufferedBytes.get() > maxBufferedBytes && notFullFuture.isDone()) {
-            notFullFuture = SettableFuture.create();
+        SettableFuture<?> future;
+        synchronized (this) {
+            // if we are full and the current not full future is already complete, create a new one
+            if (bufferedBytes.get() > maxBufferedBytes && notFullFuture.isDone()) {
+                notFullFuture = SettableFuture.create();
+            }
+            future = notFullFuture;
+        }
+
+        // the usage may have dropped after the check above, without the update seeing the new future
+        if (!future.isDone() && bufferedBytes.get() <= maxBufferedBytes) {
+            releaseBlockedWriters();
         }
-        return notFullFuture;
+        return future;
     }
 
     public long getBufferedBytes()
@@ -32,11 +32,11 @@ import javax.validation.constraints.NotNull;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Optional;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 
@@ -59,20 +59,25 @@ public class LocalExchangeSource
 
     private final Consumer<LocalExchangeSource> onFinish;
 
-    private final Queue<PageReference> buffer = new LinkedList<>();
-    // originBuffer mirrors buffer, but keeps track of the origin of each page
-    private final Queue<Optional<String>> originBuffer = new LinkedList<>();
+    // Lock free multi-producer queue: every sink of the exchange hands pages to this source concurrently,
+    // so producers only enqueue and touch the lock when a reader is actually waiting for data
+    private final Queue<BufferedPage> buffer = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger bufferedPages = new AtomicInteger();
     private final AtomicLong bufferedBytes = new AtomicLong();
 
     private final Object lock = new Object();
 
     private List<Page> pages = new ArrayList<>();
 
+    // written under lock, but read without it by producers
     @GuardedBy("lock")
-    private SettableFuture<?> notEmptyFuture = NOT_EMPTY;
+    private volatile SettableFuture<?> notEmptyFuture = NOT_EMPTY;
 
     @GuardedBy("lock")
-    private boolean finishing;
+    private volatile boolean finishing;
+
+    @GuardedBy("lock")
+    private volatile boolean closed;
 
     // Only set for local-merge, to record markers.
     // Markers may not reach the local-merge operator because it may be blocked on other channels.
@@ -88,7 +93,7 @@ public class LocalExchangeSource
     {
         // This must be lock free to assure task info creation is fast
         // Note: the stats my be internally inconsistent
-        return new LocalExchangeBufferInfo(bufferedBytes.get(), buffer.size());
+        return new LocalExchangeBufferInfo(bufferedBytes.get(), bufferedPages.get());
     }
 
     void addInputChannel(String inputChannel)
@@ -105,42 +110,65 @@ public class LocalExchangeSource
     {
         checkNotHoldsLock();
 
+        if (snapshotState != null) {
+            addPageForMerge(pageReference, origin);
+            return;
+        }
+
+        // ignore pages after finish
+        if (finishing) {
+            // dereference the page outside of lock
+            pageReference.removePage();
+            return;
+        }
+
+        enqueue(pageReference, origin);
+
+        if (closed) {
+            // close raced with this producer and may have drained the buffer before the page was added
+            releaseBufferedPages();
+            return;
+        }
+
+        // we just added a page so we are not empty; readers that started waiting before the page
+        // was enqueued either see it in waitForReading, or are notified here
+        if (!notEmptyFuture.isDone()) {
+            notifyNotEmpty();
+        }
+    }
+
+    private void addPageForMerge(PageReference pageReference, String origin)
+    {
         boolean added = false;
         SettableFuture<?> notEmptySettableFuture;
         synchronized (lock) {
             // ignore pages after finish
             if (!finishing) {
-                if (snapshotState != null) {
-                    // For local-merge
-                    Page page;
-                    synchronized (snapshotState) {
-                        // This may look suspicious, in that if there are "pending pages" in the snapshot state, then
-                        // a) those pages were associated with specific input channels (exchange source/sink) when the state
-                        // was captured, but now they would be returned to any channel asking for the next page, and
-                        // b) when the pending page is returned, the current page (in pageReference) is discarded and lost.
-                        // But the above never happens because "merge" operators are always preceded by OrderByOperators,
-                        // which only send data pages at the end, *after* all markers. That means when snapshot is taken,
-                        // no data page has been received, so when the snapshot is restored, there won't be any pending pages.
-                        page = snapshotState.processPage(() -> Pair.of(pageReference.peekPage(), origin)).orElse(null);
-                    }
-                    //if new input page is marker, we don't add it to buffer, it will be obtained through MultiInputSnapshotState's getPendingMarker()
-                    if (page instanceof MarkerPage || page == null) {
-                        pageReference.removePage();
-                        // whenever local exchange source sees a marker page, it's going to check whether operator after local merge is blocked by it.
-                        // if it is, this local exchange source will unblock in order for next operator to ask for output to pass down the marker.
-                        if (!this.notEmptyFuture.isDone()) {
-                            notEmptySettableFuture = this.notEmptyFuture;
-                            this.notEmptyFuture = NOT_EMPTY;
-                            notEmptySettableFuture.set(null);
-                        }
-                        return;
+                // For local-merge
+                Page page;
+                synchronized (snapshotState) {
+                    // This may look suspicious, in that if there are "pending pages" in the snapshot state, then
+                    // a) those pages were associated with specific input channels (exchange source/sink) when the state
+                    // was captured, but now they would be returned to any channel asking for the next page, and
+                    // b) when the pending page is returned, the current page (in pageReference) is discarded and lost.
+                    // But the above never happens because "merge" operators are always preceded by OrderByOperators,
+                    // which only send data pages at the end, *after* all markers. That means when snapshot is taken,
+                    // no data page has been received, so when the snapshot is restored, there won't be any pending pages.
+                    page = snapshotState.processPage(() -> Pair.of(pageReference.peekPage(), origin)).orElse(null);
+                }
+                //if new input page is marker, we don't add it to buffer, it will be obtained through MultiInputSnapshotState's getPendingMarker()
+                if (page instanceof MarkerPage || page == null) {
+                    pageReference.removePage();
+                    // whenever local exchange source sees a marker page, it's going to check whether operator after local merge is blocked by it.
+                    // if it is, this local exchange source will unblock in order for next operator to ask for output to pass down the marker.
+                    if (!this.notEmptyFuture.isDone()) {
+                        notEmptySettableFuture = this.notEmptyFuture;
+                        this.notEmptyFuture = NOT_EMPTY;
+                        notEmptySettableFuture.set(null);
                     }
+                    return;
                 }
-                // buffered bytes must be updated before adding to the buffer to assure
-                // the count does not go negative
-                bufferedBytes.addAndGet(pageReference.getRetainedSizeInBytes());
-                buffer.add(pageReference);
-                originBuffer.add(Optional.ofNullable(origin));
+                enqueue(pageReference, origin);
                 added = true;
             }
 
@@ -158,6 +186,27 @@ public class LocalExchangeSource
         notEmptySettableFuture.set(null);
     }
 
+    private void enqueue(PageReference pageReference, String origin)
+    {
+        // buffered bytes must be updated before adding to the buffer to assure
+        // the count does not go negative
+        bufferedBytes.addAndGet(pageReference.getRetainedSizeInBytes());
+        bufferedPages.incrementAndGet();
+        buffer.add(new BufferedPage(pageReference, origin));
+    }
+
+    private void notifyNotEmpty()
+    {
+        SettableFuture<?> notEmptySettableFuture;
+        synchronized (lock) {
+            notEmptySettableFuture = this.notEmptyFuture;
+            this.notEmptyFuture = NOT_EMPTY;
+        }
+
+        // notify readers outside of lock since this may result in a callback
+        notEmptySettableFuture.set(null);
+    }
+
     public WorkProcessor<Page> pages()
     {
         return WorkProcessor.create(
@@ -218,26 +267,21 @@ public class LocalExchangeSource
     {
         checkNotHoldsLock();
 
-        PageReference pageReference;
-        Optional<String> origin;
-        // NOTE: need a lock to poll from the buffers. Lock not needed when updating buffered bytes,
-        // as it is not expected to be consistent with the buffer (only best effort).
-        synchronized (lock) {
-            pageReference = buffer.poll();
-            origin = originBuffer.poll();
-        }
-        if (pageReference == null) {
+        // NOTE: Lock not needed when updating buffered bytes and pages,
+        // as they are not expected to be consistent with the buffer (only best effort).
+        BufferedPage bufferedPage = buffer.poll();
+        if (bufferedPage == null) {
             return Pair.of(null, null);
         }
-        checkState(origin != null, "pageReference is not null, but origin is");
+        bufferedPages.decrementAndGet();
 
         // dereference the page outside of lock, since may trigger a callback
-        Page page = pageReference.removePage();
+        Page page = bufferedPage.getPageReference().removePage();
         bufferedBytes.addAndGet(-page.getRetainedSizeInBytes());
 
         checkFinished();
 
-        return Pair.of(page, origin.orElse(null));
+        return Pair.of(page, bufferedPage.getOrigin());
     }
 
     public List<Page> getPages()
@@ -257,20 +301,26 @@ public class LocalExchangeSource
     {
         checkNotHoldsLock();
 
+        SettableFuture<?> future;
         synchronized (lock) {
             // if we need to block readers, and the current future is complete, create a new one
             if (!finishing && buffer.isEmpty() && notEmptyFuture.isDone()) {
                 notEmptyFuture = SettableFuture.create();
             }
-            return notEmptyFuture;
+            future = notEmptyFuture;
+        }
+
+        // producers do not take the lock, so a page may have been enqueued after the check above
+        // by a producer that still saw the previous (completed) future
+        if (!future.isDone() && !buffer.isEmpty()) {
+            notifyNotEmpty();
         }
+        return future;
     }
 
     public boolean isFinished()
     {
-        synchronized (lock) {
-            return finishing && buffer.isEmpty();
-        }
+        return finishing && buffer.isEmpty();
     }
 
     public void finish()
@@ -298,22 +348,17 @@ public class LocalExchangeSource
     {
         checkNotHoldsLock();
 
-        List<PageReference> remainingPages;
         SettableFuture<?> notEmptySettableFuture;
         synchronized (lock) {
             finishing = true;
-
-            remainingPages = new ArrayList<>(buffer);
-            buffer.clear();
-            originBuffer.clear();
-            bufferedBytes.addAndGet(-remainingPages.stream().mapToLong(PageReference::getRetainedSizeInBytes).sum());
+            closed = true;
 
             notEmptySettableFuture = this.notEmptyFuture;
             this.notEmptyFuture = NOT_EMPTY;
         }
 
         // free all the remaining pages
-        remainingPages.forEach(PageReference::removePage);
+        releaseBufferedPages();
 
         // notify readers outside of lock since this may result in a callback
         notEmptySettableFuture.set(null);
@@ -323,6 +368,17 @@ public class LocalExchangeSource
         checkFinished();
     }
 
+    private void releaseBufferedPages()
+    {
+        // producers that raced with close release their own pages, so the buffer may be drained concurrently
+        for (BufferedPage bufferedPage = buffer.poll(); bufferedPage != null; bufferedPage = buffer.poll()) {
+            bufferedPages.decrementAndGet();
+            PageReference pageReference = bufferedPage.getPageReference();
+            bufferedBytes.addAndGet(-pageReference.getRetainedSizeInBytes());
+            pageReference.removePage();
+        }
+    }
+
     private void checkFinished()
     {
         checkNotHoldsLock();
@@ -340,4 +396,27 @@ public class LocalExchangeSource
     {
         checkState(!Thread.holdsLock(lock), "Can not execute this method while holding the lock");
     }
+
+    private static final class BufferedPage
+    {
+        private final PageReference pageReference;
+        // origin of the page, used by snapshot to track input channels
+        private final String origin;
+
+        private BufferedPage(PageReference pageReference, String origin)
+        {
+            this.pageReference = requireNonNull(pageReference, "pageReference is null");
+            this.origin = origin;
+        }
+
+        public PageReference getPageReference()
+        {
+            return pageReference;
+        }
+
+        public String getOrigin()
+        {
+            return origin;
+        }
+    }
 }
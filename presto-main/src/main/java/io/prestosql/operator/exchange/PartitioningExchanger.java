@@ -68,8 +68,10 @@ class PartitioningExchanger
         }
     }
 
+    // Not synchronized: LocalExchange creates an exchanger for each sink, and a sink is only written by the
+    // driver that owns it, so the partition assignments are effectively per producer thread
     @Override
-    public synchronized void accept(Page page, String origin)
+    public void accept(Page page, String origin)
     {
         // reset the assignment lists
         for (IntList partitionAssignment : partitionAssignments) {
@@ -83,16 +85,27 @@ class PartitioningExchanger
         }
 
         // build a page for each partition
-        Block[] outputBlocks = new Block[page.getChannelCount()];
+        Page[] pageSplits = new Page[buffers.size()];
+        long retainedSizeInBytes = 0;
         for (int partition = 0; partition < buffers.size(); partition++) {
             IntArrayList positions = partitionAssignments[partition];
             if (!positions.isEmpty()) {
+                Block[] outputBlocks = new Block[page.getChannelCount()];
                 for (int i = 0; i < page.getChannelCount(); i++) {
                     outputBlocks[i] = page.getBlock(i).copyPositions(positions.elements(), 0, positions.size());
                 }
 
-                Page pageSplit = new Page(positions.size(), outputBlocks);
-                memoryManager.updateMemoryUsage(pageSplit.getRetainedSizeInBytes());
+                pageSplits[partition] = new Page(positions.size(), outputBlocks);
+                retainedSizeInBytes += pageSplits[partition].getRetainedSizeInBytes();
+            }
+        }
+
+        // account for the whole input page at once, instead of once per partition, since the memory manager
+        // is shared by all producers and consumers of the exchange
+        memoryManager.updateMemoryUsage(retainedSizeInBytes);
+        for (int partition = 0; partition < pageSplits.length; partition++) {
+            Page pageSplit = pageSplits[partition];
+            if (pageSplit != null) {
                 buffers.get(partition).accept(new PageReference(pageSplit, 1, () -> memoryManager.updateMemoryUsage(-pageSplit.getRetainedSizeInBytes())), origin);
             }
         }
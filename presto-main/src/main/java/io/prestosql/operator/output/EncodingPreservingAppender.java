@@ -0,0 +1,200 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator.output;
+
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockBuilder;
+import io.prestosql.spi.block.DictionaryBlock;
+import io.prestosql.spi.block.RunLengthEncodedBlock;
+import io.prestosql.spi.type.Type;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+import static io.airlift.slice.SizeOf.sizeOf;
+import static java.lang.Math.min;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Collects the positions of one channel of an output partition. The positions stay run length encoded
+ * while every appended block is run length encoded with the same value, and stay dictionary encoded
+ * while every appended block is a dictionary over the same dictionary. Any other block turns the
+ * channel flat until the next page is built, and the positions collected so far are copied into the
+ * block builder of the partition.
+ */
+class EncodingPreservingAppender
+{
+    private static final int INITIAL_IDS_SIZE = 1024;
+
+    private enum Mode
+    {
+        EMPTY,
+        RLE,
+        DICTIONARY,
+        FLAT,
+    }
+
+    private final Type type;
+
+    private Mode mode = Mode.EMPTY;
+    private Block rleValue;
+    private int rleCount;
+    private Block dictionary;
+    private int[] ids = new int[0];
+    private int idCount;
+
+    EncodingPreservingAppender(Type type)
+    {
+        this.type = requireNonNull(type, "type is null");
+    }
+
+    public void append(IntArrayList positions, Block source, BlockBuilder target, PositionsAppender flatAppender)
+    {
+        if (source instanceof RunLengthEncodedBlock) {
+            Block value = ((RunLengthEncodedBlock) source).getValue();
+            if (mode == Mode.EMPTY) {
+                mode = Mode.RLE;
+                rleValue = value;
+                rleCount = positions.size();
+                return;
+            }
+            if (mode == Mode.RLE && isSameValue(rleValue, value)) {
+                rleCount += positions.size();
+                return;
+            }
+        }
+        else if (source instanceof DictionaryBlock) {
+            DictionaryBlock dictionaryBlock = (DictionaryBlock) source;
+            if (mode == Mode.EMPTY) {
+                mode = Mode.DICTIONARY;
+                dictionary = dictionaryBlock.getDictionary();
+            }
+            if (mode == Mode.DICTIONARY && dictionary == dictionaryBlock.getDictionary()) {
+                appendIds(positions, dictionaryBlock);
+                return;
+            }
+        }
+
+        flatten(target);
+        flatAppender.appendTo(positions, source, target);
+    }
+
+    /**
+     * Copies the positions collected so far into the block builder, so that it can be appended to directly
+     */
+    public void flatten(BlockBuilder target)
+    {
+        if (mode == Mode.RLE) {
+            for (int i = 0; i < rleCount; i++) {
+                type.appendTo(rleValue, 0, target);
+            }
+        }
+        else if (mode == Mode.DICTIONARY) {
+            for (int i = 0; i < idCount; i++) {
+                type.appendTo(dictionary, ids[i], target);
+            }
+        }
+        clearEncodedPositions();
+        mode = Mode.FLAT;
+    }
+
+    public boolean isFlat()
+    {
+        return mode == Mode.FLAT;
+    }
+
+    public Block build(BlockBuilder target)
+    {
+        Block block;
+        if (mode == Mode.RLE) {
+            block = new RunLengthEncodedBlock(rleValue, rleCount);
+        }
+        else if (mode == Mode.DICTIONARY) {
+            block = new DictionaryBlock(idCount, dictionary, Arrays.copyOf(ids, idCount));
+        }
+        else {
+            block = target.build();
+        }
+        clearEncodedPositions();
+        mode = Mode.EMPTY;
+        return block;
+    }
+
+    /**
+     * Estimated size of the encoded positions once the page is built, the flat positions are accounted by the block builder
+     */
+    public long getSizeInBytes()
+    {
+        if (mode == Mode.RLE) {
+            return rleValue.getSizeInBytes();
+        }
+        if (mode == Mode.DICTIONARY) {
+            long dictionarySize = dictionary.getSizeInBytes();
+            long averageEntrySize = dictionarySize / Math.max(1, dictionary.getPositionCount());
+            return min(dictionarySize, averageEntrySize * idCount) + (long) idCount * Integer.BYTES;
+        }
+        return 0;
+    }
+
+    /**
+     * Retained size without the dictionary, which is usually shared with other partitions, see {@link #getDictionary()}
+     */
+    public long getRetainedSizeInBytes()
+    {
+        long size = sizeOf(ids);
+        if (rleValue != null) {
+            size += rleValue.getRetainedSizeInBytes();
+        }
+        return size;
+    }
+
+    public Optional<Block> getDictionary()
+    {
+        return Optional.ofNullable(dictionary);
+    }
+
+    private void appendIds(IntArrayList positions, DictionaryBlock source)
+    {
+        int[] positionArray = positions.elements();
+        int count = positions.size();
+        if (idCount + count > ids.length) {
+            ids = Arrays.copyOf(ids, Math.max(Math.max(INITIAL_IDS_SIZE, idCount + count), ids.length * 2));
+        }
+        for (int i = 0; i < count; i++) {
+            ids[idCount + i] = source.getId(positionArray[i]);
+        }
+        idCount += count;
+    }
+
+    private boolean isSameValue(Block left, Block right)
+    {
+        if (left == right) {
+            return true;
+        }
+        boolean leftIsNull = left.isNull(0);
+        if (leftIsNull || right.isNull(0)) {
+            return leftIsNull && right.isNull(0);
+        }
+        return type.isComparable() && type.equalTo(left, 0, right, 0);
+    }
+
+    private void clearEncodedPositions()
+    {
+        rleValue = null;
+        rleCount = 0;
+        dictionary = null;
+        idCount = 0;
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator.output;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Space-Saving sketch of the most frequent partitioning keys. Keys are tracked by hash; the
+ * rendered key value is only computed when a hash enters the sketch. Counts are over-estimated
+ * by at most the count of the entry that was evicted to make room for the key.
+ */
+class HeavyHitterSketch
+{
+    private final int capacity;
+    private final Map<Long, Entry> entries;
+    private long totalCount;
+
+    HeavyHitterSketch(int capacity)
+    {
+        checkArgument(capacity > 0, "capacity must be positive");
+        this.capacity = capacity;
+        this.entries = new HashMap<>(capacity * 2);
+    }
+
+    /**
+     * Counts an occurrence of a key that is already tracked.
+     *
+     * @return false if the key is not tracked, in which case the caller must {@link #add} it
+     */
+    boolean increment(long keyHash)
+    {
+        Entry entry = entries.get(keyHash);
+        if (entry == null) {
+            return false;
+        }
+        entry.count++;
+        totalCount++;
+        return true;
+    }
+
+    void add(long keyHash, int partition, String key)
+    {
+        long count = 1;
+        if (entries.size() >= capacity) {
+            Entry min = null;
+            for (Entry entry : entries.values()) {
+                if (min == null || entry.count < min.count) {
+                    min = entry;
+                }
+            }
+            entries.remove(min.keyHash);
+            count += min.count;
+        }
+        entries.put(keyHash, new Entry(keyHash, partition, key, count));
+        totalCount++;
+    }
+
+    long getTotalCount()
+    {
+        return totalCount;
+    }
+
+    /**
+     * Returns the tracked keys whose count is at least {@code minCount}, most frequent first.
+     */
+    List<PartitionedOutputOperator.HotKey> getHotKeys(long minCount, long scale)
+    {
+        List<Entry> hot = new ArrayList<>();
+        for (Entry entry : entries.values()) {
+            if (entry.count >= minCount) {
+                hot.add(entry);
+            }
+        }
+        hot.sort(Comparator.comparingLong((Entry entry) -> entry.count).reversed());
+
+        ImmutableList.Builder<PartitionedOutputOperator.HotKey> hotKeys = ImmutableList.builder();
+        for (Entry entry : hot) {
+            hotKeys.add(new PartitionedOutputOperator.HotKey(entry.key, entry.partition, entry.count * scale));
+        }
+        return hotKeys.build();
+    }
+
+    private static class Entry
+    {
+        private final long keyHash;
+        private final int partition;
+        private final String key;
+        private long count;
+
+        Entry(long keyHash, int partition, String key, long count)
+        {
+            this.keyHash = keyHash;
+            this.partition = partition;
+            this.key = key;
+            this.count = count;
+        }
+    }
+}
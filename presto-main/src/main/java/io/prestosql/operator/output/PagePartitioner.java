@@ -13,6 +13,7 @@
  */
 package io.prestosql.operator.output;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.units.DataSize;
 import io.hetu.core.transport.execution.buffer.PagesSerde;
@@ -27,6 +28,7 @@ import io.prestosql.spi.block.Block;
 import io.prestosql.spi.block.BlockBuilder;
 import io.prestosql.spi.block.DictionaryBlock;
 import io.prestosql.spi.block.RunLengthEncodedBlock;
+import io.prestosql.spi.connector.ConnectorSession;
 import io.prestosql.spi.predicate.NullableValue;
 import io.prestosql.spi.snapshot.BlockEncodingSerdeProvider;
 import io.prestosql.spi.snapshot.Restorable;
@@ -34,29 +36,42 @@ import io.prestosql.spi.snapshot.RestorableConfig;
 import io.prestosql.spi.type.Type;
 import it.unimi.dsi.fastutil.ints.IntArrayList;
 import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
 
 import java.io.Serializable;
 import java.util.List;
 import java.util.Optional;
 import java.util.OptionalInt;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.function.IntUnaryOperator;
 
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Verify.verify;
 import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.prestosql.SystemSessionProperties.isExchangeHotKeyDetectionEnabled;
+import static io.prestosql.SystemSessionProperties.isExchangeLightweightEncodingsEnabled;
 import static io.prestosql.execution.buffer.PageSplitterUtil.splitPage;
+import static io.prestosql.operator.scalar.CombineHashFunction.getHash;
 import static io.prestosql.spi.block.PageBuilderStatus.DEFAULT_MAX_PAGE_SIZE_IN_BYTES;
+import static io.prestosql.type.TypeUtils.hashPosition;
 import static java.lang.Math.max;
 import static java.lang.Math.min;
 import static java.util.Objects.requireNonNull;
 
 @RestorableConfig(stateClassName = "PagePartitionerState", uncapturedFields = {"outputBuffer", "sourceTypes", "partitionFunction", "partitionChannels",
-        "partitionConstants", "operatorContext", "pageBuilders"})
+        "partitionConstants", "operatorContext", "pageBuilders", "keyChannels", "session", "partitionSizeInBytes", "hotKeySketch",
+        "nextSamplePosition", "maxPageSizeInBytes", "preserveEncodings", "encodingPreservingAppenders"})
 public class PagePartitioner
         implements Restorable
 {
     private static final int COLUMNAR_STRATEGY_COEFFICIENT = 4;
+    // Skew detection looks at one in SKEW_SAMPLE_INTERVAL rows, and only reports keys seen in at least MIN_HOT_KEY_SAMPLES of them
+    private static final int SKEW_SAMPLE_INTERVAL = 16;
+    private static final int MIN_HOT_KEY_SAMPLES = 64;
+    private static final int HOT_KEY_SKETCH_CAPACITY = 32;
+    private static final int MAX_HOT_KEY_LENGTH = 64;
     final String id;
     //shared field
     final OutputBuffer outputBuffer;
@@ -73,6 +88,15 @@ public class PagePartitioner
     private final OperatorContext operatorContext;
     private final PositionsAppenderFactory positionsAppenderFactory;
     private final PositionsAppender[] positionsAppenders;
+    private final int[] keyChannels;
+    private final ConnectorSession session;
+    private final AtomicLongArray partitionSizeInBytes;
+    private final Optional<HeavyHitterSketch> hotKeySketch;
+    private int nextSamplePosition;
+    private final int maxPageSizeInBytes;
+    // keeps dictionary and run length encoded blocks encoded in the output partitions, so that the exchange serde can pack them
+    private final boolean preserveEncodings;
+    private final EncodingPreservingAppender[][] encodingPreservingAppenders;
 
     public PagePartitioner(
             String id,
@@ -86,6 +110,35 @@ public class PagePartitioner
             List<Type> sourceTypes,
             DataSize maxMemory,
             PositionsAppenderFactory positionsAppenderFactory)
+    {
+        this(
+                id,
+                partitionFunction,
+                partitionChannels,
+                partitionConstants,
+                partitionChannels,
+                replicatesAnyRow,
+                nullChannel,
+                outputBuffer,
+                operatorContext,
+                sourceTypes,
+                maxMemory,
+                positionsAppenderFactory);
+    }
+
+    public PagePartitioner(
+            String id,
+            PartitionFunction partitionFunction,
+            List<Integer> partitionChannels,
+            List<Optional<NullableValue>> partitionConstants,
+            List<Integer> keyChannels,
+            boolean replicatesAnyRow,
+            OptionalInt nullChannel,
+            OutputBuffer outputBuffer,
+            OperatorContext operatorContext,
+            List<Type> sourceTypes,
+            DataSize maxMemory,
+            PositionsAppenderFactory positionsAppenderFactory)
     {
         this.id = id;
         this.partitionFunction = requireNonNull(partitionFunction, "partitionFunction is null");
@@ -104,11 +157,33 @@ public class PagePartitioner
         int pageSize = min(DEFAULT_MAX_PAGE_SIZE_IN_BYTES, ((int) maxMemory.toBytes()) / partitionCount);
         pageSize = max(1, pageSize);
 
+        this.maxPageSizeInBytes = pageSize;
+
         this.pageBuilders = new PageBuilder[partitionCount];
         for (int i = 0; i < partitionCount; i++) {
             pageBuilders[i] = PageBuilder.withMaxPageSize(pageSize, sourceTypes);
         }
+        this.preserveEncodings = isExchangeLightweightEncodingsEnabled(operatorContext.getSession());
+        this.encodingPreservingAppenders = new EncodingPreservingAppender[preserveEncodings ? partitionCount : 0][];
+        for (int partition = 0; partition < encodingPreservingAppenders.length; partition++) {
+            encodingPreservingAppenders[partition] = new EncodingPreservingAppender[sourceTypes.size()];
+            for (int channel = 0; channel < sourceTypes.size(); channel++) {
+                encodingPreservingAppenders[partition][channel] = new EncodingPreservingAppender(sourceTypes.get(channel));
+            }
+        }
         positionsAppenders = new PositionsAppender[sourceTypes.size()];
+
+        // Constant partitioning arguments show up as negative channels; there is no key to track for them
+        this.keyChannels = requireNonNull(keyChannels, "keyChannels is null").stream()
+                .mapToInt(Integer::intValue)
+                .filter(channel -> channel >= 0)
+                .toArray();
+        this.session = operatorContext.getSession().toConnectorSession();
+        this.partitionSizeInBytes = new AtomicLongArray(partitionCount);
+        // Sampling runs on the driver thread, so it is a diagnostic that must be enabled explicitly.
+        // Round robin partitioning has no keys, and a single partition cannot be skewed
+        boolean detectHotKeys = isExchangeHotKeyDetectionEnabled(operatorContext.getSession()) && this.keyChannels.length > 0 && partitionCount > 1;
+        this.hotKeySketch = detectHotKeys ? Optional.of(new HeavyHitterSketch(HOT_KEY_SKETCH_CAPACITY)) : Optional.empty();
     }
 
     public ListenableFuture<?> isFull()
@@ -124,6 +199,9 @@ public class PagePartitioner
         for (PageBuilder pageBuilder : pageBuilders) {
             sizeInBytes += pageBuilder.getSizeInBytes();
         }
+        for (int partition = 0; partition < encodingPreservingAppenders.length; partition++) {
+            sizeInBytes += getEncodedSizeInBytes(partition);
+        }
         return sizeInBytes;
     }
 
@@ -136,12 +214,41 @@ public class PagePartitioner
         for (PageBuilder pageBuilder : pageBuilders) {
             sizeInBytes += pageBuilder.getRetainedSizeInBytes();
         }
+        // dictionaries are shared by the partitions that received positions of the same input block
+        Set<Block> dictionaries = new ReferenceOpenHashSet<>();
+        for (EncodingPreservingAppender[] appenders : encodingPreservingAppenders) {
+            for (EncodingPreservingAppender appender : appenders) {
+                sizeInBytes += appender.getRetainedSizeInBytes();
+                appender.getDictionary().ifPresent(dictionaries::add);
+            }
+        }
+        for (Block dictionary : dictionaries) {
+            sizeInBytes += dictionary.getRetainedSizeInBytes();
+        }
         return sizeInBytes;
     }
 
     public PartitionedOutputOperator.PartitionedOutputInfo getInfo()
     {
-        return new PartitionedOutputOperator.PartitionedOutputInfo(rowsAdded.get(), pagesAdded.get(), outputBuffer.getPeakMemoryUsage());
+        long[] partitionSizes = new long[partitionSizeInBytes.length()];
+        for (int partition = 0; partition < partitionSizes.length; partition++) {
+            partitionSizes[partition] = partitionSizeInBytes.get(partition);
+        }
+        return new PartitionedOutputOperator.PartitionedOutputInfo(
+                rowsAdded.get(),
+                pagesAdded.get(),
+                outputBuffer.getPeakMemoryUsage(),
+                partitionSizes,
+                hotKeySketch.map(this::getHotKeys).orElse(ImmutableList.of()));
+    }
+
+    private List<PartitionedOutputOperator.HotKey> getHotKeys(HeavyHitterSketch sketch)
+    {
+        synchronized (sketch) {
+            // A key is hot when it alone accounts for at least the rows of an average partition
+            long minCount = max(MIN_HOT_KEY_SAMPLES, sketch.getTotalCount() / partitionFunction.getPartitionCount());
+            return sketch.getHotKeys(minCount, SKEW_SAMPLE_INTERVAL);
+        }
     }
 
     public void partitionPage(Page page)
@@ -150,6 +257,10 @@ public class PagePartitioner
             return;
         }
 
+        if (hotKeySketch.isPresent()) {
+            sampleKeys(page, hotKeySketch.get());
+        }
+
         if (page.getPositionCount() < partitionFunction.getPartitionCount() * COLUMNAR_STRATEGY_COEFFICIENT) {
             // Partition will have on average less than COLUMNAR_STRATEGY_COEFFICIENT rows.
             // Doing it column-wise would degrade performance, so we fall back to row-wise approach.
@@ -162,6 +273,63 @@ public class PagePartitioner
         }
     }
 
+    private void sampleKeys(Page page, HeavyHitterSketch sketch)
+    {
+        int position = nextSamplePosition;
+        if (position >= page.getPositionCount()) {
+            nextSamplePosition = position - page.getPositionCount();
+            return;
+        }
+
+        Page partitionFunctionArgs = null;
+        Block nullsBlock = nullChannel >= 0 ? page.getBlock(nullChannel) : null;
+        synchronized (sketch) {
+            for (; position < page.getPositionCount(); position += SKEW_SAMPLE_INTERVAL) {
+                // Null keys are replicated to every partition, so they do not skew any of them
+                if (nullsBlock != null && nullsBlock.isNull(position)) {
+                    continue;
+                }
+                long keyHash = hashKey(page, position);
+                if (!sketch.increment(keyHash)) {
+                    if (partitionFunctionArgs == null) {
+                        partitionFunctionArgs = getPartitionFunctionArguments(page);
+                    }
+                    sketch.add(keyHash, partitionFunction.getPartition(partitionFunctionArgs, position), renderKey(page, position));
+                }
+            }
+        }
+        nextSamplePosition = position - page.getPositionCount();
+    }
+
+    private long hashKey(Page page, int position)
+    {
+        long hash = 0;
+        for (int channel : keyChannels) {
+            hash = getHash(hash, hashPosition(sourceTypes[channel], page.getBlock(channel), position));
+        }
+        return hash;
+    }
+
+    private String renderKey(Page page, int position)
+    {
+        StringBuilder key = new StringBuilder();
+        for (int i = 0; i < keyChannels.length; i++) {
+            if (i > 0) {
+                key.append(", ");
+            }
+            int channel = keyChannels[i];
+            key.append(sourceTypes[channel].getObjectValue(session, page.getBlock(channel), position));
+        }
+        if (keyChannels.length > 1) {
+            key.insert(0, '(').append(')');
+        }
+        if (key.length() > MAX_HOT_KEY_LENGTH) {
+            key.setLength(MAX_HOT_KEY_LENGTH);
+            key.append("...");
+        }
+        return key.toString();
+    }
+
     public void partitionPageByRow(Page page)
     {
         requireNonNull(page, "page is null");
@@ -172,8 +340,8 @@ public class PagePartitioner
         int position;
         // Handle "any row" replication outside of the inner loop processing
         if (replicatesAnyRow && !hasAnyRowBeenReplicated) {
-            for (PageBuilder pageBuilder : pageBuilders) {
-                appendRow(pageBuilder, page, 0);
+            for (int partition = 0; partition < pageBuilders.length; partition++) {
+                appendRow(partition, page, 0);
             }
             hasAnyRowBeenReplicated = true;
             position = 1;
@@ -188,28 +356,32 @@ public class PagePartitioner
             Block nullsBlock = page.getBlock(nullChannel);
             for (; position < page.getPositionCount(); position++) {
                 if (nullsBlock.isNull(position)) {
-                    for (PageBuilder pageBuilder : pageBuilders) {
-                        appendRow(pageBuilder, page, position);
+                    for (int partition = 0; partition < pageBuilders.length; partition++) {
+                        appendRow(partition, page, position);
                     }
                 }
                 else {
                     int partition = partitionFunction.getPartition(partitionFunctionArgs, position);
-                    appendRow(pageBuilders[partition], page, position);
+                    appendRow(partition, page, position);
                 }
             }
         }
         else {
             for (; position < page.getPositionCount(); position++) {
                 int partition = partitionFunction.getPartition(partitionFunctionArgs, position);
-                appendRow(pageBuilders[partition], page, position);
+                appendRow(partition, page, position);
             }
         }
 
         flush(false);
     }
 
-    private void appendRow(PageBuilder pageBuilder, Page page, int position)
+    private void appendRow(int partition, Page page, int position)
     {
+        PageBuilder pageBuilder = pageBuilders[partition];
+        if (preserveEncodings) {
+            flattenEncodedChannels(partition);
+        }
         pageBuilder.declarePosition();
 
         for (int channel = 0; channel < sourceTypes.length; channel++) {
@@ -227,7 +399,7 @@ public class PagePartitioner
         for (int i = 0; i < partitionFunction.getPartitionCount(); i++) {
             IntArrayList partitionPositions = partitionedPositions[i];
             if (!partitionPositions.isEmpty()) {
-                appendToOutputPartition(pageBuilders[i], page, partitionPositions, newPositionsAppenders);
+                appendToOutputPartition(i, page, partitionPositions, newPositionsAppenders);
                 partitionPositions.clear();
             }
         }
@@ -276,15 +448,62 @@ public class PagePartitioner
         return partitionPositions;
     }
 
-    private void appendToOutputPartition(PageBuilder outputPartition, Page page, IntArrayList positions, PositionsAppender[] positionsAppenders)
+    private void appendToOutputPartition(int partition, Page page, IntArrayList positions, PositionsAppender[] positionsAppenders)
     {
+        PageBuilder outputPartition = pageBuilders[partition];
         outputPartition.declarePositions(positions.size());
 
         for (int channel = 0; channel < positionsAppenders.length; channel++) {
             Block partitionBlock = page.getBlock(channel);
             BlockBuilder target = outputPartition.getBlockBuilder(channel);
-            positionsAppenders[channel].appendTo(positions, partitionBlock, target);
+            if (preserveEncodings) {
+                encodingPreservingAppenders[partition][channel].append(positions, partitionBlock, target, positionsAppenders[channel]);
+            }
+            else {
+                positionsAppenders[channel].appendTo(positions, partitionBlock, target);
+            }
+        }
+    }
+
+    private void flattenEncodedChannels(int partition)
+    {
+        EncodingPreservingAppender[] appenders = encodingPreservingAppenders[partition];
+        for (int channel = 0; channel < appenders.length; channel++) {
+            if (!appenders[channel].isFlat()) {
+                appenders[channel].flatten(pageBuilders[partition].getBlockBuilder(channel));
+            }
+        }
+    }
+
+    private long getEncodedSizeInBytes(int partition)
+    {
+        long sizeInBytes = 0;
+        for (EncodingPreservingAppender appender : encodingPreservingAppenders[partition]) {
+            sizeInBytes += appender.getSizeInBytes();
+        }
+        return sizeInBytes;
+    }
+
+    private boolean isPartitionFull(int partition)
+    {
+        PageBuilder pageBuilder = pageBuilders[partition];
+        if (pageBuilder.isFull()) {
+            return true;
+        }
+        return preserveEncodings && pageBuilder.getSizeInBytes() + getEncodedSizeInBytes(partition) >= maxPageSizeInBytes;
+    }
+
+    private Page buildPartitionPage(int partition)
+    {
+        PageBuilder pageBuilder = pageBuilders[partition];
+        if (!preserveEncodings) {
+            return pageBuilder.build();
+        }
+        Block[] blocks = new Block[sourceTypes.length];
+        for (int channel = 0; channel < blocks.length; channel++) {
+            blocks[channel] = encodingPreservingAppenders[partition][channel].build(pageBuilder.getBlockBuilder(channel));
         }
+        return new Page(pageBuilder.getPositionCount(), blocks);
     }
 
     private IntArrayList[] initPositions(Page page)
@@ -451,8 +670,8 @@ public class PagePartitioner
         // add all full pages to output buffer
         for (int partition = 0; partition < pageBuilders.length; partition++) {
             PageBuilder partitionPageBuilder = pageBuilders[partition];
-            if (!partitionPageBuilder.isEmpty() && (force || partitionPageBuilder.isFull())) {
-                Page pagePartition = partitionPageBuilder.build();
+            if (!partitionPageBuilder.isEmpty() && (force || isPartitionFull(partition))) {
+                Page pagePartition = buildPartitionPage(partition);
                 partitionPageBuilder.reset();
 
                 FileSystemExchangeConfig.DirectSerialisationType serialisationType = outputBuffer.getExchangeDirectSerialisationType();
@@ -470,6 +689,7 @@ public class PagePartitioner
                 }
                 pagesAdded.incrementAndGet();
                 rowsAdded.addAndGet(pagePartition.getPositionCount());
+                partitionSizeInBytes.addAndGet(partition, pagePartition.getSizeInBytes());
             }
         }
     }
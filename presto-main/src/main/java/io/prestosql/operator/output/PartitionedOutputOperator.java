@@ -15,6 +15,7 @@ package io.prestosql.operator.output;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.units.DataSize;
 import io.hetu.core.transport.execution.buffer.SerializedPage;
@@ -41,7 +42,11 @@ import io.prestosql.util.Mergeable;
 
 import java.io.Serializable;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -49,6 +54,7 @@ import java.util.function.Function;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.ImmutableList.toImmutableList;
 import static java.util.Objects.requireNonNull;
 
 @RestorableConfig(uncapturedFields = {"pagePreprocessor", "snapshotState"})
@@ -61,6 +67,7 @@ public class PartitionedOutputOperator
         private final PartitionFunction partitionFunction;
         private final List<Integer> partitionChannels;
         private final List<Optional<NullableValue>> partitionConstants;
+        private final List<Integer> keyChannels;
         private final OutputBuffer outputBuffer;
         private final boolean replicatesAnyRow;
         private final OptionalInt nullChannel;
@@ -76,10 +83,38 @@ public class PartitionedOutputOperator
                 OutputBuffer outputBuffer,
                 DataSize maxMemory,
                 PositionsAppenderFactory positionsAppenderFactory)
+        {
+            this(
+                    partitionFunction,
+                    partitionChannels,
+                    partitionConstants,
+                    partitionChannels,
+                    replicatesAnyRow,
+                    nullChannel,
+                    outputBuffer,
+                    maxMemory,
+                    positionsAppenderFactory);
+        }
+
+        /**
+         * @param keyChannels the channels holding the partitioning key values, which differ from
+         * {@code partitionChannels} when partitioning on a precomputed hash. Used to report hot keys.
+         */
+        public PartitionedOutputFactory(
+                PartitionFunction partitionFunction,
+                List<Integer> partitionChannels,
+                List<Optional<NullableValue>> partitionConstants,
+                List<Integer> keyChannels,
+                boolean replicatesAnyRow,
+                OptionalInt nullChannel,
+                OutputBuffer outputBuffer,
+                DataSize maxMemory,
+                PositionsAppenderFactory positionsAppenderFactory)
         {
             this.partitionFunction = requireNonNull(partitionFunction, "partitionFunction is null");
             this.partitionChannels = requireNonNull(partitionChannels, "partitionChannels is null");
             this.partitionConstants = requireNonNull(partitionConstants, "partitionConstants is null");
+            this.keyChannels = requireNonNull(keyChannels, "keyChannels is null");
             this.replicatesAnyRow = replicatesAnyRow;
             this.nullChannel = requireNonNull(nullChannel, "nullChannel is null");
             this.outputBuffer = requireNonNull(outputBuffer, "outputBuffer is null");
@@ -104,6 +139,7 @@ public class PartitionedOutputOperator
                     partitionFunction,
                     partitionChannels,
                     partitionConstants,
+                    keyChannels,
                     replicatesAnyRow,
                     nullChannel,
                     outputBuffer,
@@ -122,6 +158,7 @@ public class PartitionedOutputOperator
         private final PartitionFunction partitionFunction;
         private final List<Integer> partitionChannels;
         private final List<Optional<NullableValue>> partitionConstants;
+        private final List<Integer> keyChannels;
         private final boolean replicatesAnyRow;
         private final OptionalInt nullChannel;
         private final OutputBuffer outputBuffer;
@@ -154,6 +191,39 @@ public class PartitionedOutputOperator
                     partitionFunction,
                     partitionChannels,
                     partitionConstants,
+                    partitionChannels,
+                    replicatesAnyRow,
+                    nullChannel,
+                    outputBuffer,
+                    maxMemory,
+                    new AtomicInteger(1),
+                    positionsAppenderFactory);
+        }
+
+        public PartitionedOutputOperatorFactory(
+                int operatorId,
+                PlanNodeId planNodeId,
+                List<Type> sourceTypes,
+                Function<Page, Page> pagePreprocessor,
+                PartitionFunction partitionFunction,
+                List<Integer> partitionChannels,
+                List<Optional<NullableValue>> partitionConstants,
+                List<Integer> keyChannels,
+                boolean replicatesAnyRow,
+                OptionalInt nullChannel,
+                OutputBuffer outputBuffer,
+                DataSize maxMemory,
+                PositionsAppenderFactory positionsAppenderFactory)
+        {
+            this(
+                    operatorId,
+                    planNodeId,
+                    sourceTypes,
+                    pagePreprocessor,
+                    partitionFunction,
+                    partitionChannels,
+                    partitionConstants,
+                    keyChannels,
                     replicatesAnyRow,
                     nullChannel,
                     outputBuffer,
@@ -170,6 +240,7 @@ public class PartitionedOutputOperator
                 PartitionFunction partitionFunction,
                 List<Integer> partitionChannels,
                 List<Optional<NullableValue>> partitionConstants,
+                List<Integer> keyChannels,
                 boolean replicatesAnyRow,
                 OptionalInt nullChannel,
                 OutputBuffer outputBuffer,
@@ -184,6 +255,7 @@ public class PartitionedOutputOperator
             this.partitionFunction = requireNonNull(partitionFunction, "partitionFunction is null");
             this.partitionChannels = requireNonNull(partitionChannels, "partitionChannels is null");
             this.partitionConstants = requireNonNull(partitionConstants, "partitionConstants is null");
+            this.keyChannels = requireNonNull(keyChannels, "keyChannels is null");
             this.replicatesAnyRow = replicatesAnyRow;
             this.nullChannel = requireNonNull(nullChannel, "nullChannel is null");
             this.outputBuffer = requireNonNull(outputBuffer, "outputBuffer is null");
@@ -206,6 +278,7 @@ public class PartitionedOutputOperator
                     partitionFunction,
                     partitionChannels,
                     partitionConstants,
+                    keyChannels,
                     replicatesAnyRow,
                     nullChannel,
                     outputBuffer,
@@ -234,6 +307,7 @@ public class PartitionedOutputOperator
                     partitionFunction,
                     partitionChannels,
                     partitionConstants,
+                    keyChannels,
                     replicatesAnyRow,
                     nullChannel,
                     outputBuffer,
@@ -265,6 +339,37 @@ public class PartitionedOutputOperator
             OutputBuffer outputBuffer,
             DataSize maxMemory,
             PositionsAppenderFactory positionsAppenderFactory)
+    {
+        this(
+                id,
+                operatorContext,
+                sourceTypes,
+                pagePreprocessor,
+                partitionFunction,
+                partitionChannels,
+                partitionConstants,
+                partitionChannels,
+                replicatesAnyRow,
+                nullChannel,
+                outputBuffer,
+                maxMemory,
+                positionsAppenderFactory);
+    }
+
+    public PartitionedOutputOperator(
+            String id,
+            OperatorContext operatorContext,
+            List<Type> sourceTypes,
+            Function<Page, Page> pagePreprocessor,
+            PartitionFunction partitionFunction,
+            List<Integer> partitionChannels,
+            List<Optional<NullableValue>> partitionConstants,
+            List<Integer> keyChannels,
+            boolean replicatesAnyRow,
+            OptionalInt nullChannel,
+            OutputBuffer outputBuffer,
+            DataSize maxMemory,
+            PositionsAppenderFactory positionsAppenderFactory)
     {
         this.operatorContext = requireNonNull(operatorContext, "operatorContext is null");
         this.pagePreprocessor = requireNonNull(pagePreprocessor, "pagePreprocessor is null");
@@ -273,6 +378,7 @@ public class PartitionedOutputOperator
                 partitionFunction,
                 partitionChannels,
                 partitionConstants,
+                keyChannels,
                 replicatesAnyRow,
                 nullChannel,
                 outputBuffer,
@@ -379,19 +485,32 @@ public class PartitionedOutputOperator
     public static class PartitionedOutputInfo
             implements Mergeable<PartitionedOutputInfo>, OperatorInfo
     {
+        private static final int MAX_REPORTED_HOT_KEYS = 10;
+
         private final long rowsAdded;
         private final long pagesAdded;
         private final long outputBufferPeakMemoryUsage;
+        private final long[] partitionSizeInBytes;
+        private final List<HotKey> hotKeys;
+
+        public PartitionedOutputInfo(long rowsAdded, long pagesAdded, long outputBufferPeakMemoryUsage)
+        {
+            this(rowsAdded, pagesAdded, outputBufferPeakMemoryUsage, new long[0], ImmutableList.of());
+        }
 
         @JsonCreator
         public PartitionedOutputInfo(
                 @JsonProperty("rowsAdded") long rowsAdded,
                 @JsonProperty("pagesAdded") long pagesAdded,
-                @JsonProperty("outputBufferPeakMemoryUsage") long outputBufferPeakMemoryUsage)
+                @JsonProperty("outputBufferPeakMemoryUsage") long outputBufferPeakMemoryUsage,
+                @JsonProperty("partitionSizeInBytes") long[] partitionSizeInBytes,
+                @JsonProperty("hotKeys") List<HotKey> hotKeys)
         {
             this.rowsAdded = rowsAdded;
             this.pagesAdded = pagesAdded;
             this.outputBufferPeakMemoryUsage = outputBufferPeakMemoryUsage;
+            this.partitionSizeInBytes = requireNonNull(partitionSizeInBytes, "partitionSizeInBytes is null");
+            this.hotKeys = ImmutableList.copyOf(requireNonNull(hotKeys, "hotKeys is null"));
         }
 
         @JsonProperty
@@ -412,13 +531,53 @@ public class PartitionedOutputOperator
             return outputBufferPeakMemoryUsage;
         }
 
+        /**
+         * Bytes sent to each output partition, indexed by partition.
+         */
+        @JsonProperty
+        public long[] getPartitionSizeInBytes()
+        {
+            return partitionSizeInBytes;
+        }
+
+        /**
+         * Keys that alone account for at least an average partition worth of rows, most frequent first.
+         */
+        @JsonProperty
+        public List<HotKey> getHotKeys()
+        {
+            return hotKeys;
+        }
+
         @Override
         public PartitionedOutputInfo mergeWith(PartitionedOutputInfo other)
         {
+            long[] mergedSizes = new long[Math.max(partitionSizeInBytes.length, other.partitionSizeInBytes.length)];
+            for (int i = 0; i < partitionSizeInBytes.length; i++) {
+                mergedSizes[i] += partitionSizeInBytes[i];
+            }
+            for (int i = 0; i < other.partitionSizeInBytes.length; i++) {
+                mergedSizes[i] += other.partitionSizeInBytes[i];
+            }
+
+            Map<HotKey, Long> mergedHotKeys = new LinkedHashMap<>();
+            for (HotKey hotKey : hotKeys) {
+                mergedHotKeys.merge(hotKey.withEstimatedRows(0), hotKey.getEstimatedRows(), Long::sum);
+            }
+            for (HotKey hotKey : other.hotKeys) {
+                mergedHotKeys.merge(hotKey.withEstimatedRows(0), hotKey.getEstimatedRows(), Long::sum);
+            }
+
             return new PartitionedOutputInfo(
                     rowsAdded + other.rowsAdded,
                     pagesAdded + other.pagesAdded,
-                    Math.max(outputBufferPeakMemoryUsage, other.outputBufferPeakMemoryUsage));
+                    Math.max(outputBufferPeakMemoryUsage, other.outputBufferPeakMemoryUsage),
+                    mergedSizes,
+                    mergedHotKeys.entrySet().stream()
+                            .map(entry -> entry.getKey().withEstimatedRows(entry.getValue()))
+                            .sorted(Comparator.comparingLong(HotKey::getEstimatedRows).reversed())
+                            .limit(MAX_REPORTED_HOT_KEYS)
+                            .collect(toImmutableList()));
         }
 
         @Override
@@ -434,6 +593,83 @@ public class PartitionedOutputOperator
                     .add("rowsAdded", rowsAdded)
                     .add("pagesAdded", pagesAdded)
                     .add("outputBufferPeakMemoryUsage", outputBufferPeakMemoryUsage)
+                    .add("hotKeys", hotKeys)
+                    .toString();
+        }
+    }
+
+    /**
+     * A partitioning key that was seen much more often than the others. The row count is
+     * estimated from a sample of the input.
+     */
+    public static class HotKey
+    {
+        private final String key;
+        private final int partition;
+        private final long estimatedRows;
+
+        @JsonCreator
+        public HotKey(
+                @JsonProperty("key") String key,
+                @JsonProperty("partition") int partition,
+                @JsonProperty("estimatedRows") long estimatedRows)
+        {
+            this.key = requireNonNull(key, "key is null");
+            this.partition = partition;
+            this.estimatedRows = estimatedRows;
+        }
+
+        @JsonProperty
+        public String getKey()
+        {
+            return key;
+        }
+
+        @JsonProperty
+        public int getPartition()
+        {
+            return partition;
+        }
+
+        @JsonProperty
+        public long getEstimatedRows()
+        {
+            return estimatedRows;
+        }
+
+        private HotKey withEstimatedRows(long estimatedRows)
+        {
+            return new HotKey(key, partition, estimatedRows);
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            HotKey that = (HotKey) o;
+            return partition == that.partition &&
+                    estimatedRows == that.estimatedRows &&
+                    key.equals(that.key);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(key, partition, estimatedRows);
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("key", key)
+                    .add("partition", partition)
+                    .add("estimatedRows", estimatedRows)
                     .toString();
         }
     }
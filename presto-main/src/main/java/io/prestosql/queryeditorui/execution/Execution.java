@@ -384,6 +384,8 @@ public class Execution
                 0,
                 zeroData,
                 zeroData,
+                0,
+                zeroData,
                 ImmutableList.of(),
                 ImmutableList.of(),
                 zeroDuration,
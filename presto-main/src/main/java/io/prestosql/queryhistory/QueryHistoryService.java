@@ -311,6 +311,8 @@ public class QueryHistoryService
                 0,
                 ZERO_BYTES,
                 ZERO_BYTES,
+                0,
+                ZERO_BYTES,
                 ImmutableList.of(),
                 ImmutableList.of(),
                 ZERO_MILLIS,
@@ -32,6 +32,7 @@ import io.prestosql.cost.CostCalculator.EstimatedExchanges;
 import io.prestosql.cost.CostCalculatorUsingExchanges;
 import io.prestosql.cost.CostCalculatorWithEstimatedExchanges;
 import io.prestosql.cost.CostComparator;
+import io.prestosql.cost.JoinBuildSizeHistory;
 import io.prestosql.cost.StatsAndCosts;
 import io.prestosql.cost.StatsCalculatorModule;
 import io.prestosql.cost.TaskCountEstimator;
@@ -353,6 +354,8 @@ public class CoordinatorModule
         binder.bind(CostCalculator.class).to(CostCalculatorUsingExchanges.class).in(Scopes.SINGLETON);
         binder.bind(CostCalculator.class).annotatedWith(EstimatedExchanges.class).to(CostCalculatorWithEstimatedExchanges.class).in(Scopes.SINGLETON);
         binder.bind(CostComparator.class).in(Scopes.SINGLETON);
+        binder.bind(JoinBuildSizeHistory.class).in(Scopes.SINGLETON);
+        newExporter(binder).export(JoinBuildSizeHistory.class).withGeneratedName();
 
         // cluster statistics
         jaxrsBinder(binder).bind(ClusterStatsResource.class);
@@ -489,6 +489,8 @@ public class QueryResource
                 0,
                 ZERO_BYTES,
                 ZERO_BYTES,
+                0,
+                ZERO_BYTES,
                 ImmutableList.of(),
                 ImmutableList.of(),
                 ZERO_MILLIS,
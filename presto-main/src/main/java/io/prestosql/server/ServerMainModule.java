@@ -66,6 +66,7 @@ import io.prestosql.execution.TaskManagerConfig;
 import io.prestosql.execution.TaskStatus;
 import io.prestosql.execution.executor.MultilevelSplitQueue;
 import io.prestosql.execution.executor.TaskExecutor;
+import io.prestosql.execution.executor.WorkStealingSplitQueue;
 import io.prestosql.execution.scheduler.FlatNetworkTopology;
 import io.prestosql.execution.scheduler.LegacyNetworkTopology;
 import io.prestosql.execution.scheduler.NetworkTopology;
@@ -241,6 +242,16 @@ public class ServerMainModule
         return newScheduledThreadPool(config.getHttpTimeoutThreads(), daemonThreadsNamed("async-http-timeout-%s"));
     }
 
+    @Provides
+    @Singleton
+    public static MultilevelSplitQueue createSplitQueue(TaskManagerConfig config)
+    {
+        if (config.isWorkStealingEnabled()) {
+            return new WorkStealingSplitQueue(config.getLevelTimeMultiplier().doubleValue());
+        }
+        return new MultilevelSplitQueue(config);
+    }
+
     @Provides
     @Singleton
     public static BlockEncodingSerde createBlockEncodingSerde(Metadata metadata)
@@ -366,7 +377,6 @@ public class ServerMainModule
         newExporter(binder).export(TaskManager.class).withGeneratedName();
         binder.bind(TaskExecutor.class).in(Scopes.SINGLETON);
         newExporter(binder).export(TaskExecutor.class).withGeneratedName();
-        binder.bind(MultilevelSplitQueue.class).in(Scopes.SINGLETON);
         newExporter(binder).export(MultilevelSplitQueue.class).withGeneratedName();
         binder.bind(LocalExecutionPlanner.class).in(Scopes.SINGLETON);
         configBinder(binder).bindConfig(CompilerConfig.class);
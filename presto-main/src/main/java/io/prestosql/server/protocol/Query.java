@@ -858,6 +858,7 @@ public class Query
         }
         AtomicLong totalCpuTimeMillis = new AtomicLong(0L);
         AtomicLong allSnapshotsSizeBytes = new AtomicLong(0L);
+        AtomicLong allSnapshotsSkippedSizeBytes = new AtomicLong(0L);
         AtomicLong totalWallTimeMillis = new AtomicLong(0L);
         AtomicLong lastSnapshotId = new AtomicLong(0L);
 
@@ -876,6 +877,7 @@ public class Query
                     long wallTime = snapshotInfo.getEndTime() - snapshotInfo.getBeginTime();
                     capturedSnapshots.add(snapshotId);
                     allSnapshotsSizeBytes.addAndGet(snapshotInfo.getSizeBytes());
+                    allSnapshotsSkippedSizeBytes.addAndGet(snapshotInfo.getSkippedSizeBytes());
                     totalWallTimeMillis.addAndGet(wallTime);
                     totalCpuTimeMillis.addAndGet(snapshotInfo.getCpuTime());
                 }
@@ -889,6 +891,7 @@ public class Query
             SnapshotStats.Builder builder = SnapshotStats.builder();
             if (capturedSnapshots.size() > 0) {
                 builder.setAllSnapshotsSizeBytes(allSnapshotsSizeBytes.get())
+                        .setAllSnapshotsSkippedSizeBytes(allSnapshotsSkippedSizeBytes.get())
                         .setTotalWallTimeMillis(totalWallTimeMillis.get())
                         .setTotalCpuTimeMillis(totalCpuTimeMillis.get())
                         .setCapturedSnapshotList(capturedSnapshots);
@@ -902,6 +905,7 @@ public class Query
                 long lastWallTime = lastSnapshotInfo.getEndTime() - lastSnapshotInfo.getBeginTime();
                 builder.setLastCaptureSnapshotId(lastSnapshotId.get())
                         .setLastSnapshotSizeBytes(lastSnapshotInfo.getSizeBytes())
+                        .setLastSnapshotSkippedSizeBytes(lastSnapshotInfo.getSkippedSizeBytes())
                         .setLastSnapshotWallTimeMillis(lastWallTime)
                         .setLastSnapshotCpuTimeMillis(lastSnapshotInfo.getCpuTime());
             }
@@ -0,0 +1,678 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.snapshot;
+
+import io.airlift.slice.InputStreamSliceInput;
+import io.airlift.slice.OutputStreamSliceOutput;
+import io.airlift.slice.SliceInput;
+import io.airlift.slice.SliceOutput;
+import io.prestosql.spi.snapshot.BinarySnapshotState;
+import io.prestosql.spi.snapshot.SnapshotStateInput;
+import io.prestosql.spi.snapshot.SnapshotStateOutput;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.lang.reflect.Array;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import static io.airlift.slice.Slices.wrappedBooleanArray;
+import static io.airlift.slice.Slices.wrappedDoubleArray;
+import static io.airlift.slice.Slices.wrappedFloatArray;
+import static io.airlift.slice.Slices.wrappedIntArray;
+import static io.airlift.slice.Slices.wrappedLongArray;
+import static io.airlift.slice.Slices.wrappedShortArray;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Compact binary format for captured operator state, used instead of Java or Kryo serialization
+ * when {@link RecoveryConfig#SNAPSHOT_USE_BINARY_STATE_FORMAT} is set.
+ * <p>
+ * States of the operators with large primitive arrays (hash tables, big arrays, page index addresses) implement
+ * {@link BinarySnapshotState} and write their fields explicitly; primitive arrays are copied to the stream in bulk without
+ * per element calls, and shared references and cycles are preserved. A value that has no binary format fails the capture
+ * with {@link NotSerializableException}, unless the state explicitly writes it with Java serialization.
+ * States of other operators are stored with the Java or Kryo serializer, and the format used is recorded in the header.
+ */
+public final class BinarySnapshotStateSerializer
+{
+    private static final int MAGIC = 0x48425354;
+    private static final byte VERSION = 1;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // how the root state is stored
+    private static final byte BINARY_FORMAT = 0;
+    private static final byte JAVA_FORMAT = 1;
+    private static final byte KRYO_FORMAT = 2;
+
+    private static final byte NULL = 0;
+    private static final byte REFERENCE = 1;
+    private static final byte BOOLEAN = 2;
+    private static final byte BYTE = 3;
+    private static final byte SHORT = 4;
+    private static final byte CHAR = 5;
+    private static final byte INT = 6;
+    private static final byte LONG = 7;
+    private static final byte FLOAT = 8;
+    private static final byte DOUBLE = 9;
+    private static final byte STRING = 10;
+    private static final byte ENUM = 11;
+    private static final byte BOOLEAN_ARRAY = 12;
+    private static final byte BYTE_ARRAY = 13;
+    private static final byte SHORT_ARRAY = 14;
+    private static final byte CHAR_ARRAY = 15;
+    private static final byte INT_ARRAY = 16;
+    private static final byte LONG_ARRAY = 17;
+    private static final byte FLOAT_ARRAY = 18;
+    private static final byte DOUBLE_ARRAY = 19;
+    private static final byte OBJECT_ARRAY = 20;
+    private static final byte COLLECTION = 21;
+    private static final byte MAP = 22;
+    private static final byte INT_ARRAY_LIST = 23;
+    private static final byte LONG_ARRAY_LIST = 24;
+    private static final byte BINARY_STATE = 25;
+    private static final byte JAVA_SERIALIZED = 26;
+
+    private BinarySnapshotStateSerializer()
+    {
+    }
+
+    /**
+     * Write the state in the binary format
+     *
+     * @throws NotSerializableException if the state has no binary format
+     */
+    public static void serialize(Object state, OutputStream outputStream)
+            throws IOException
+    {
+        SliceOutput output = new OutputStreamSliceOutput(outputStream, BUFFER_SIZE);
+        writeHeader(output, BINARY_FORMAT);
+        new StateWriter(output).writeObject(state);
+        output.flush();
+    }
+
+    /**
+     * Write the state in the binary format if it is a {@link BinarySnapshotState},
+     * and with the Java or Kryo serializer otherwise
+     */
+    public static void serialize(Object state, OutputStream outputStream, boolean useKryo)
+            throws IOException
+    {
+        if (state instanceof BinarySnapshotState) {
+            serialize(state, outputStream);
+            return;
+        }
+        SliceOutput output = new OutputStreamSliceOutput(outputStream, BUFFER_SIZE);
+        writeHeader(output, useKryo ? KRYO_FORMAT : JAVA_FORMAT);
+        output.flush();
+        RecoveryUtils.serializeState(state, outputStream, useKryo);
+    }
+
+    public static Object deserialize(InputStream inputStream)
+            throws IOException, ClassNotFoundException
+    {
+        // read the header without buffering, so that the rest of the stream can be handed to another serializer
+        DataInputStream header = new DataInputStream(inputStream);
+        if (header.readInt() != MAGIC) {
+            throw new StreamCorruptedException("Not a binary snapshot state");
+        }
+        byte version = header.readByte();
+        if (version != VERSION) {
+            throw new StreamCorruptedException("Unsupported binary snapshot state version: " + version);
+        }
+        byte format = header.readByte();
+        switch (format) {
+            case BINARY_FORMAT:
+                return new StateReader(new InputStreamSliceInput(inputStream, BUFFER_SIZE)).readObject();
+            case JAVA_FORMAT:
+                return RecoveryUtils.deserializeState(inputStream, false);
+            case KRYO_FORMAT:
+                return RecoveryUtils.deserializeState(inputStream, true);
+            default:
+                throw new StreamCorruptedException("Unknown snapshot state format: " + format);
+        }
+    }
+
+    private static void writeHeader(SliceOutput output, byte format)
+    {
+        output.writeInt(MAGIC);
+        output.writeByte(VERSION);
+        output.writeByte(format);
+    }
+
+    private static boolean isCollection(Class<?> type)
+    {
+        return type == ArrayList.class || type == LinkedList.class || type == ArrayDeque.class || type == HashSet.class || type == LinkedHashSet.class;
+    }
+
+    private static boolean isMap(Class<?> type)
+    {
+        return type == HashMap.class || type == LinkedHashMap.class;
+    }
+
+    private static final class StateWriter
+            implements SnapshotStateOutput
+    {
+        private final SliceOutput output;
+        private final Map<Object, Integer> references = new IdentityHashMap<>();
+        private final Map<Class<?>, Integer> classes = new HashMap<>();
+
+        private StateWriter(SliceOutput output)
+        {
+            this.output = output;
+        }
+
+        @Override
+        public void writeBoolean(boolean value)
+        {
+            output.writeBoolean(value);
+        }
+
+        @Override
+        public void writeInt(int value)
+        {
+            output.writeInt(value);
+        }
+
+        @Override
+        public void writeLong(long value)
+        {
+            output.writeLong(value);
+        }
+
+        @Override
+        public void writeDouble(double value)
+        {
+            output.writeDouble(value);
+        }
+
+        @Override
+        public void writeObject(Object value)
+                throws IOException
+        {
+            if (value == null) {
+                output.writeByte(NULL);
+                return;
+            }
+
+            Class<?> type = value.getClass();
+            // values without identity
+            if (type == Boolean.class) {
+                output.writeByte(BOOLEAN);
+                output.writeBoolean((Boolean) value);
+                return;
+            }
+            if (type == Byte.class) {
+                output.writeByte(BYTE);
+                output.writeByte((Byte) value);
+                return;
+            }
+            if (type == Short.class) {
+                output.writeByte(SHORT);
+                output.writeShort((Short) value);
+                return;
+            }
+            if (type == Character.class) {
+                output.writeByte(CHAR);
+                output.writeShort((Character) value);
+                return;
+            }
+            if (type == Integer.class) {
+                output.writeByte(INT);
+                output.writeInt((Integer) value);
+                return;
+            }
+            if (type == Long.class) {
+                output.writeByte(LONG);
+                output.writeLong((Long) value);
+                return;
+            }
+            if (type == Float.class) {
+                output.writeByte(FLOAT);
+                output.writeFloat((Float) value);
+                return;
+            }
+            if (type == Double.class) {
+                output.writeByte(DOUBLE);
+                output.writeDouble((Double) value);
+                return;
+            }
+            if (type == String.class) {
+                output.writeByte(STRING);
+                writeString((String) value);
+                return;
+            }
+            if (value instanceof Enum) {
+                output.writeByte(ENUM);
+                writeClass(((Enum<?>) value).getDeclaringClass());
+                writeString(((Enum<?>) value).name());
+                return;
+            }
+
+            Integer reference = references.get(value);
+            if (reference != null) {
+                output.writeByte(REFERENCE);
+                output.writeInt(reference);
+                return;
+            }
+
+            if (type.isArray()) {
+                references.put(value, references.size());
+                writeArray(value, type);
+            }
+            else if (type == LongArrayList.class) {
+                references.put(value, references.size());
+                LongArrayList list = (LongArrayList) value;
+                output.writeByte(LONG_ARRAY_LIST);
+                output.writeInt(list.size());
+                output.writeBytes(wrappedLongArray(list.elements(), 0, list.size()));
+            }
+            else if (type == IntArrayList.class) {
+                references.put(value, references.size());
+                IntArrayList list = (IntArrayList) value;
+                output.writeByte(INT_ARRAY_LIST);
+                output.writeInt(list.size());
+                output.writeBytes(wrappedIntArray(list.elements(), 0, list.size()));
+            }
+            else if (isCollection(type)) {
+                references.put(value, references.size());
+                Collection<?> collection = (Collection<?>) value;
+                output.writeByte(COLLECTION);
+                writeClass(type);
+                output.writeInt(collection.size());
+                for (Object element : collection) {
+                    writeObject(element);
+                }
+            }
+            else if (isMap(type)) {
+                references.put(value, references.size());
+                Map<?, ?> map = (Map<?, ?>) value;
+                output.writeByte(MAP);
+                writeClass(type);
+                output.writeInt(map.size());
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    writeObject(entry.getKey());
+                    writeObject(entry.getValue());
+                }
+            }
+            else if (value instanceof BinarySnapshotState) {
+                references.put(value, references.size());
+                output.writeByte(BINARY_STATE);
+                writeClass(type);
+                ((BinarySnapshotState) value).writeState(this);
+            }
+            else {
+                throw new NotSerializableException(type.getName() + " has no binary snapshot state format");
+            }
+        }
+
+        @Override
+        public void writeSerializable(Object value)
+                throws IOException
+        {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream objectOutput = new ObjectOutputStream(bytes)) {
+                objectOutput.writeObject(value);
+            }
+            output.writeByte(JAVA_SERIALIZED);
+            output.writeInt(bytes.size());
+            output.writeBytes(bytes.toByteArray());
+        }
+
+        private void writeArray(Object array, Class<?> type)
+                throws IOException
+        {
+            Class<?> componentType = type.getComponentType();
+            if (componentType == long.class) {
+                long[] values = (long[]) array;
+                output.writeByte(LONG_ARRAY);
+                output.writeInt(values.length);
+                output.writeBytes(wrappedLongArray(values));
+            }
+            else if (componentType == int.class) {
+                int[] values = (int[]) array;
+                output.writeByte(INT_ARRAY);
+                output.writeInt(values.length);
+                output.writeBytes(wrappedIntArray(values));
+            }
+            else if (componentType == byte.class) {
+                byte[] values = (byte[]) array;
+                output.writeByte(BYTE_ARRAY);
+                output.writeInt(values.length);
+                output.writeBytes(values);
+            }
+            else if (componentType == boolean.class) {
+                boolean[] values = (boolean[]) array;
+                output.writeByte(BOOLEAN_ARRAY);
+                output.writeInt(values.length);
+                output.writeBytes(wrappedBooleanArray(values));
+            }
+            else if (componentType == double.class) {
+                double[] values = (double[]) array;
+                output.writeByte(DOUBLE_ARRAY);
+                output.writeInt(values.length);
+                output.writeBytes(wrappedDoubleArray(values));
+            }
+            else if (componentType == short.class) {
+                short[] values = (short[]) array;
+                output.writeByte(SHORT_ARRAY);
+                output.writeInt(values.length);
+                output.writeBytes(wrappedShortArray(values));
+            }
+            else if (componentType == float.class) {
+                float[] values = (float[]) array;
+                output.writeByte(FLOAT_ARRAY);
+                output.writeInt(values.length);
+                output.writeBytes(wrappedFloatArray(values));
+            }
+            else if (componentType == char.class) {
+                char[] values = (char[]) array;
+                output.writeByte(CHAR_ARRAY);
+                output.writeInt(values.length);
+                for (char value : values) {
+                    output.writeShort(value);
+                }
+            }
+            else {
+                Object[] values = (Object[]) array;
+                output.writeByte(OBJECT_ARRAY);
+                writeClass(componentType);
+                output.writeInt(values.length);
+                for (Object value : values) {
+                    writeObject(value);
+                }
+            }
+        }
+
+        private void writeClass(Class<?> type)
+        {
+            Integer id = classes.get(type);
+            if (id != null) {
+                output.writeInt(id);
+                return;
+            }
+            id = classes.size();
+            classes.put(type, id);
+            output.writeInt(id);
+            writeString(type.getName());
+        }
+
+        private void writeString(String value)
+        {
+            byte[] bytes = value.getBytes(UTF_8);
+            output.writeInt(bytes.length);
+            output.writeBytes(bytes);
+        }
+    }
+
+    private static final class StateReader
+            implements SnapshotStateInput
+    {
+        private final SliceInput input;
+        private final List<Object> references = new ArrayList<>();
+        private final List<Class<?>> classes = new ArrayList<>();
+
+        private StateReader(SliceInput input)
+        {
+            this.input = input;
+        }
+
+        @Override
+        public boolean readBoolean()
+        {
+            return input.readBoolean();
+        }
+
+        @Override
+        public int readInt()
+        {
+            return input.readInt();
+        }
+
+        @Override
+        public long readLong()
+        {
+            return input.readLong();
+        }
+
+        @Override
+        public double readDouble()
+        {
+            return input.readDouble();
+        }
+
+        @Override
+        public Object readSerializable()
+                throws IOException, ClassNotFoundException
+        {
+            byte tag = input.readByte();
+            if (tag != JAVA_SERIALIZED) {
+                throw new StreamCorruptedException("Expected a java serialized value but found tag: " + tag);
+            }
+            byte[] bytes = new byte[input.readInt()];
+            input.readBytes(bytes);
+            try (ObjectInputStream objectInput = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+                return objectInput.readObject();
+            }
+        }
+
+        @Override
+        public Object readObject()
+                throws IOException, ClassNotFoundException
+        {
+            byte tag = input.readByte();
+            switch (tag) {
+                case NULL:
+                    return null;
+                case REFERENCE:
+                    return references.get(input.readInt());
+                case BOOLEAN:
+                    return input.readBoolean();
+                case BYTE:
+                    return input.readByte();
+                case SHORT:
+                    return input.readShort();
+                case CHAR:
+                    return (char) input.readShort();
+                case INT:
+                    return input.readInt();
+                case LONG:
+                    return input.readLong();
+                case FLOAT:
+                    return input.readFloat();
+                case DOUBLE:
+                    return input.readDouble();
+                case STRING:
+                    return readString();
+                case ENUM:
+                    return readEnum();
+                case BOOLEAN_ARRAY: {
+                    boolean[] values = new boolean[input.readInt()];
+                    input.readBytes(wrappedBooleanArray(values));
+                    return register(values);
+                }
+                case BYTE_ARRAY: {
+                    byte[] values = new byte[input.readInt()];
+                    input.readBytes(values);
+                    return register(values);
+                }
+                case SHORT_ARRAY: {
+                    short[] values = new short[input.readInt()];
+                    input.readBytes(wrappedShortArray(values));
+                    return register(values);
+                }
+                case CHAR_ARRAY: {
+                    char[] values = new char[input.readInt()];
+                    for (int i = 0; i < values.length; i++) {
+                        values[i] = (char) input.readShort();
+                    }
+                    return register(values);
+                }
+                case INT_ARRAY: {
+                    int[] values = new int[input.readInt()];
+                    input.readBytes(wrappedIntArray(values));
+                    return register(values);
+                }
+                case LONG_ARRAY: {
+                    long[] values = new long[input.readInt()];
+                    input.readBytes(wrappedLongArray(values));
+                    return register(values);
+                }
+                case FLOAT_ARRAY: {
+                    float[] values = new float[input.readInt()];
+                    input.readBytes(wrappedFloatArray(values));
+                    return register(values);
+                }
+                case DOUBLE_ARRAY: {
+                    double[] values = new double[input.readInt()];
+                    input.readBytes(wrappedDoubleArray(values));
+                    return register(values);
+                }
+                case OBJECT_ARRAY: {
+                    Class<?> componentType = readClass();
+                    Object[] values = (Object[]) Array.newInstance(componentType, input.readInt());
+                    register(values);
+                    for (int i = 0; i < values.length; i++) {
+                        values[i] = readObject();
+                    }
+                    return values;
+                }
+                case LONG_ARRAY_LIST: {
+                    long[] values = new long[input.readInt()];
+                    input.readBytes(wrappedLongArray(values));
+                    return register(LongArrayList.wrap(values));
+                }
+                case INT_ARRAY_LIST: {
+                    int[] values = new int[input.readInt()];
+                    input.readBytes(wrappedIntArray(values));
+                    return register(IntArrayList.wrap(values));
+                }
+                case COLLECTION: {
+                    @SuppressWarnings("unchecked")
+                    Collection<Object> collection = (Collection<Object>) newInstance(readClass());
+                    register(collection);
+                    int size = input.readInt();
+                    for (int i = 0; i < size; i++) {
+                        collection.add(readObject());
+                    }
+                    return collection;
+                }
+                case MAP: {
+                    @SuppressWarnings("unchecked")
+                    Map<Object, Object> map = (Map<Object, Object>) newInstance(readClass());
+                    register(map);
+                    int size = input.readInt();
+                    for (int i = 0; i < size; i++) {
+                        Object key = readObject();
+                        map.put(key, readObject());
+                    }
+                    return map;
+                }
+                case BINARY_STATE: {
+                    Class<?> type = readClass();
+                    if (!BinarySnapshotState.class.isAssignableFrom(type)) {
+                        throw new StreamCorruptedException("Not a binary snapshot state class: " + type.getName());
+                    }
+                    BinarySnapshotState value = (BinarySnapshotState) newInstance(type);
+                    register(value);
+                    value.readState(this);
+                    return value;
+                }
+                default:
+                    throw new StreamCorruptedException("Unknown binary snapshot state tag: " + tag);
+            }
+        }
+
+        private Object register(Object value)
+        {
+            references.add(value);
+            return value;
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private Object readEnum()
+                throws IOException, ClassNotFoundException
+        {
+            Class type = readClass();
+            return Enum.valueOf(type, readString());
+        }
+
+        private Class<?> readClass()
+                throws IOException, ClassNotFoundException
+        {
+            int id = input.readInt();
+            if (id < classes.size()) {
+                return classes.get(id);
+            }
+            if (id != classes.size()) {
+                throw new StreamCorruptedException("Unexpected class id: " + id);
+            }
+            Class<?> type = loadClass(readString());
+            classes.add(type);
+            return type;
+        }
+
+        private String readString()
+        {
+            byte[] bytes = new byte[input.readInt()];
+            input.readBytes(bytes);
+            return new String(bytes, UTF_8);
+        }
+
+        private static Class<?> loadClass(String name)
+                throws ClassNotFoundException
+        {
+            ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+            if (classLoader != null) {
+                try {
+                    return Class.forName(name, false, classLoader);
+                }
+                catch (ClassNotFoundException ignored) {
+                    // fall back to the loader of this class
+                }
+            }
+            return Class.forName(name, false, BinarySnapshotStateSerializer.class.getClassLoader());
+        }
+
+        private static Object newInstance(Class<?> type)
+                throws IOException
+        {
+            try {
+                return type.getConstructor().newInstance();
+            }
+            catch (ReflectiveOperationException e) {
+                throw new IOException("Cannot instantiate " + type.getName(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.snapshot;
+
+import io.prestosql.spi.snapshot.BlockEncodingSerdeProvider;
+import io.prestosql.spi.snapshot.Restorable;
+
+/**
+ * Indicate an object can capture only what changed since its previous capture or restore.
+ * An incremental state is stored together with the id of the snapshot it is based on.
+ * When it is restored, the chain of incremental states is applied, oldest first,
+ * on top of the last full state before the result is passed to {@link Restorable#restore}.
+ */
+public interface IncrementalRestorable
+        extends Restorable
+{
+    /**
+     * Capture the changes made to this object since it was last captured or restored.
+     * Both full and incremental captures become the base for the next incremental capture.
+     *
+     * @return the incremental state, or null if a full capture is needed
+     */
+    Object captureIncremental(BlockEncodingSerdeProvider serdeProvider);
+
+    /**
+     * Combine a state with an incremental state captured after it.
+     *
+     * @param baseState a full state, possibly combined with earlier incremental states
+     * @param incrementalState a state returned by {@link #captureIncremental}
+     * @return a full state that can be passed to {@link Restorable#restore}
+     */
+    Object applyIncremental(Object baseState, Object incrementalState);
+
+    /**
+     * Finds the size of the state that the last incremental capture did not write again
+     *
+     * @return size in bytes
+     */
+    long getIncrementalSkippedBytes();
+}
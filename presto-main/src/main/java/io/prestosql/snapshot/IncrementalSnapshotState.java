@@ -0,0 +1,93 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.snapshot;
+
+import io.prestosql.spi.snapshot.BinarySnapshotState;
+import io.prestosql.spi.snapshot.SnapshotStateInput;
+import io.prestosql.spi.snapshot.SnapshotStateOutput;
+
+import java.io.IOException;
+import java.io.Serializable;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * State stored for an {@link IncrementalRestorable} when it only captured the changes
+ * since the snapshot identified by baseSnapshotId
+ */
+public class IncrementalSnapshotState
+        implements Serializable, BinarySnapshotState
+{
+    private long baseSnapshotId;
+    private Object state;
+
+    // Used by the binary state format
+    public IncrementalSnapshotState()
+    {
+    }
+
+    public IncrementalSnapshotState(long baseSnapshotId, Object state)
+    {
+        this.baseSnapshotId = baseSnapshotId;
+        this.state = requireNonNull(state, "state is null");
+    }
+
+    public long getBaseSnapshotId()
+    {
+        return baseSnapshotId;
+    }
+
+    public Object getState()
+    {
+        return state;
+    }
+
+    @Override
+    public void writeState(SnapshotStateOutput output)
+            throws IOException
+    {
+        output.writeLong(baseSnapshotId);
+        // states of operators without a binary format are written with Java serialization
+        boolean binaryState = state instanceof BinarySnapshotState;
+        output.writeBoolean(binaryState);
+        if (binaryState) {
+            output.writeObject(state);
+        }
+        else {
+            output.writeSerializable(state);
+        }
+    }
+
+    @Override
+    public void readState(SnapshotStateInput input)
+            throws IOException, ClassNotFoundException
+    {
+        baseSnapshotId = input.readLong();
+        if (input.readBoolean()) {
+            state = input.readObject();
+        }
+        else {
+            state = input.readSerializable();
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("baseSnapshotId", baseSnapshotId)
+                .toString();
+    }
+}
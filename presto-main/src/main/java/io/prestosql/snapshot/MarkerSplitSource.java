@@ -393,6 +393,18 @@ public class MarkerSplitSource
         return sentFinalMarker;
     }
 
+    @Override
+    public long getDynamicFilterPrunedSplits()
+    {
+        return source.getDynamicFilterPrunedSplits();
+    }
+
+    @Override
+    public long getDynamicFilterPrunedBytes()
+    {
+        return source.getDynamicFilterPrunedBytes();
+    }
+
     private void acquireLock()
     {
         try {
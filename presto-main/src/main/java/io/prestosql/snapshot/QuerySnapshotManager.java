@@ -552,7 +552,7 @@ public class QuerySnapshotManager
 
     private SnapshotInfo getNewSnapshotInfo(long snapshotId)
     {
-        return new SnapshotInfo(0, 0, 0, 0, SnapshotResult.IN_PROGRESS);
+        return new SnapshotInfo(0, 0, 0, 0, 0, SnapshotResult.IN_PROGRESS);
     }
 
     private void setSnapshotBeginTime(long snapshotId, long currentTimeMillis)
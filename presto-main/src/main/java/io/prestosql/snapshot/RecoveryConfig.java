@@ -39,6 +39,9 @@ public class RecoveryConfig
     public static final String SNAPSHOT_TIME_INTERVAL = "hetu.internal.snapshot.timeInterval";
     public static final String SNAPSHOT_SPLIT_COUNT_INTERVAL = "hetu.internal.snapshot.splitCountInterval";
     public static final String SNAPSHOT_USE_KRYO_SERIALIZATION = "hetu.snapshot.useKryoSerialization";
+    public static final String SNAPSHOT_USE_BINARY_STATE_FORMAT = "hetu.snapshot.useBinaryStateFormat";
+    public static final String SNAPSHOT_INCREMENTAL_CAPTURE_ENABLED = "hetu.snapshot.incrementalCaptureEnabled";
+    public static final String SNAPSHOT_FULL_CAPTURE_INTERVAL = "hetu.snapshot.fullCaptureInterval";
     public static final String SPILLER_SPILL_PROFILE = "experimental.spiller-spill-profile";
     public static final String SPILLER_SPILL_TO_HDFS = "experimental.spiller-spill-to-hdfs";
     public static final String ELIMINATE_DUPLICATE_SPILL_FILES = "experimental.eliminate-duplicate-spill-files";
@@ -55,6 +58,9 @@ public class RecoveryConfig
     private Duration snapshotTimeInterval = new Duration(5, TimeUnit.MINUTES);
     private long snapshotSplitCountInterval = 1_000;
     private boolean snapshotUseKryoSerialization;
+    private boolean snapshotUseBinaryStateFormat;
+    private boolean snapshotIncrementalCaptureEnabled;
+    private int snapshotFullCaptureInterval = 5;
 
     public enum IntervalType
     {
@@ -167,6 +173,46 @@ public class RecoveryConfig
         return this;
     }
 
+    public boolean isSnapshotUseBinaryStateFormat()
+    {
+        return snapshotUseBinaryStateFormat;
+    }
+
+    @Config(SNAPSHOT_USE_BINARY_STATE_FORMAT)
+    @ConfigDescription("snapshot use binary state format, takes precedence over kryo serialization")
+    public RecoveryConfig setSnapshotUseBinaryStateFormat(boolean snapshotUseBinaryStateFormat)
+    {
+        this.snapshotUseBinaryStateFormat = snapshotUseBinaryStateFormat;
+        return this;
+    }
+
+    public boolean isSnapshotIncrementalCaptureEnabled()
+    {
+        return snapshotIncrementalCaptureEnabled;
+    }
+
+    @Config(SNAPSHOT_INCREMENTAL_CAPTURE_ENABLED)
+    @ConfigDescription("capture only the changes since the previous snapshot for operators that support it")
+    public RecoveryConfig setSnapshotIncrementalCaptureEnabled(boolean snapshotIncrementalCaptureEnabled)
+    {
+        this.snapshotIncrementalCaptureEnabled = snapshotIncrementalCaptureEnabled;
+        return this;
+    }
+
+    @Min(1)
+    public int getSnapshotFullCaptureInterval()
+    {
+        return snapshotFullCaptureInterval;
+    }
+
+    @Config(SNAPSHOT_FULL_CAPTURE_INTERVAL)
+    @ConfigDescription("number of snapshots after which an incremental state is compacted into a full one")
+    public RecoveryConfig setSnapshotFullCaptureInterval(int snapshotFullCaptureInterval)
+    {
+        this.snapshotFullCaptureInterval = snapshotFullCaptureInterval;
+        return this;
+    }
+
     public String getSpillProfile()
     {
         return spillProfile;
@@ -133,7 +133,8 @@ public class RecoveryUtils
             try {
                 HetuFileSystemClient fs = profile == null ?
                         fileSystemClientManager.getFileSystemClient(root) : fileSystemClientManager.getFileSystemClient(profile, root);
-                return new SnapshotFileBasedClient(fs, root, fileSystemClientManager, spillProfile, spillToHdfs, recoveryConfig.isSnapshotUseKryoSerialization());
+                return new SnapshotFileBasedClient(fs, root, fileSystemClientManager, spillProfile, spillToHdfs, recoveryConfig.isSnapshotUseKryoSerialization(),
+                        recoveryConfig.isSnapshotUseBinaryStateFormat());
             }
             catch (Exception e) {
                 LOG.warn(e, "Failed to create SnapshotFileBasedClient");
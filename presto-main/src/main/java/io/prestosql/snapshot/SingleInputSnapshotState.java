@@ -26,7 +26,9 @@ import io.prestosql.spi.snapshot.Restorable;
 import org.apache.commons.lang3.tuple.Pair;
 
 import java.nio.file.Path;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -37,7 +39,9 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
+import static io.prestosql.SystemSessionProperties.getSnapshotFullCaptureInterval;
 import static io.prestosql.SystemSessionProperties.isEliminateDuplicateSpillFilesEnabled;
+import static io.prestosql.SystemSessionProperties.isSnapshotIncrementalCaptureEnabled;
 import static java.util.Objects.requireNonNull;
 
 /**
@@ -68,6 +72,13 @@ public class SingleInputSnapshotState
     Map<Long, List<String>> snapshotSpillPaths = new LinkedHashMap<>();
     private final boolean isEliminateDuplicateSpillFilesEnabled;
     long lastSnapshotId = -1;
+    // Incremental capture is only used for restorable objects that implement IncrementalRestorable.
+    // After fullCaptureInterval - 1 incremental captures, a full capture compacts the chain of incremental states.
+    private final boolean incrementalCaptureEnabled;
+    private final int fullCaptureInterval;
+    // Snapshot that the next incremental capture is based on, or -1 if the next capture has to be a full one
+    private long lastCapturedSnapshotId = -1;
+    private int incrementalCaptureCount;
 
     public static SingleInputSnapshotState forOperator(Operator operator, OperatorContext operatorContext)
     {
@@ -78,7 +89,9 @@ public class SingleInputSnapshotState
                 snapshotId -> SnapshotStateId.forOperator(snapshotId, operatorContext),
                 snapshotId -> SnapshotStateId.forDriverComponent(snapshotId, operatorContext, operatorContext.getOperatorId() + "-spill"),
                 operatorContext.newLocalUserMemoryContext(SingleInputSnapshotState.class.getSimpleName()),
-                isEliminateDuplicateSpillFilesEnabled(operatorContext.getDriverContext().getSession()));
+                isEliminateDuplicateSpillFilesEnabled(operatorContext.getDriverContext().getSession()),
+                isSnapshotIncrementalCaptureEnabled(operatorContext.getDriverContext().getSession()),
+                getSnapshotFullCaptureInterval(operatorContext.getDriverContext().getSession()));
     }
 
     SingleInputSnapshotState(Restorable restorable,
@@ -88,6 +101,19 @@ public class SingleInputSnapshotState
                              Function<Long, SnapshotStateId> spillStateIdGenerator,
                              LocalMemoryContext snapshotMemoryContext,
                              boolean isEliminateDuplicateSpillFilesEnabled)
+    {
+        this(restorable, snapshotManager, pagesSerde, snapshotStateIdGenerator, spillStateIdGenerator, snapshotMemoryContext, isEliminateDuplicateSpillFilesEnabled, false, 1);
+    }
+
+    SingleInputSnapshotState(Restorable restorable,
+                             TaskSnapshotManager snapshotManager,
+                             PagesSerde pagesSerde,
+                             Function<Long, SnapshotStateId> snapshotStateIdGenerator,
+                             Function<Long, SnapshotStateId> spillStateIdGenerator,
+                             LocalMemoryContext snapshotMemoryContext,
+                             boolean isEliminateDuplicateSpillFilesEnabled,
+                             boolean incrementalCaptureEnabled,
+                             int fullCaptureInterval)
     {
         this.restorable = requireNonNull(restorable, "restorable is null");
         this.restorableId = String.format("%s (%s)", restorable.getClass().getSimpleName(), snapshotStateIdGenerator.apply(0L).getId());
@@ -97,6 +123,8 @@ public class SingleInputSnapshotState
         this.pagesSerde = pagesSerde;
         this.snapshotMemoryContext = snapshotMemoryContext;
         this.isEliminateDuplicateSpillFilesEnabled = isEliminateDuplicateSpillFilesEnabled;
+        this.incrementalCaptureEnabled = incrementalCaptureEnabled && restorable instanceof IncrementalRestorable;
+        this.fullCaptureInterval = Math.max(fullCaptureInterval, 1);
     }
 
     public void close()
@@ -128,6 +156,18 @@ public class SingleInputSnapshotState
                 else {
                     state = snapshotManager.loadState(componentId);
                 }
+                int incrementalStateCount = 0;
+                if (state.isPresent() && state.get() instanceof IncrementalSnapshotState) {
+                    Deque<Object> chain = loadIncrementalChain(componentId, (IncrementalSnapshotState) state.get());
+                    if (chain == null) {
+                        LOG.warn("Can't locate base state of incremental snapshot %d, component %s", snapshotId, restorableId);
+                        state = Optional.empty();
+                    }
+                    else {
+                        incrementalStateCount = chain.size() - 1;
+                        state = Optional.of(applyIncrementalChain(chain));
+                    }
+                }
                 if (!state.isPresent()) {
                     snapshotManager.failedToRestore(componentId, true);
                     LOG.warn("Can't locate saved state for snapshot %d, component %s", snapshotId, restorableId);
@@ -140,6 +180,9 @@ public class SingleInputSnapshotState
                     Stopwatch timer = Stopwatch.createStarted();
                     restorable.restore(state.get(), pagesSerde);
                     timer.stop();
+                    // Captures after the restore are based on this snapshot
+                    lastCapturedSnapshotId = snapshotId;
+                    incrementalCaptureCount = incrementalStateCount;
                     boolean successful = true;
                     if (restorable instanceof Spillable && ((Spillable) restorable).isSpilled() && !((Spillable) restorable).isSpillToHdfsEnabled()) {
                         Boolean result = loadSpilledFiles(snapshotId, (Spillable) restorable);
@@ -190,7 +233,7 @@ public class SingleInputSnapshotState
             return;
         }
         try {
-            storeState(componentId);
+            storeState(componentId, snapshotId);
             if (restorable instanceof Spillable && !((Spillable) restorable).isSpillToHdfsEnabled()) {
                 if (((Spillable) restorable).isSpilled()) {
                     storeSpilledFiles(snapshotId, (Spillable) restorable, true);
@@ -210,19 +253,35 @@ public class SingleInputSnapshotState
         catch (Exception e) {
             LOG.warn(e, "Failed to capture and store snapshot state");
             snapshotManager.failedToCapture(componentId);
+            lastCapturedSnapshotId = -1;
         }
         finally {
             snapshotMemoryContext.setBytes(0);
         }
     }
 
-    private void storeState(SnapshotStateId componentId)
+    private void storeState(SnapshotStateId componentId, long snapshotId)
             throws Exception
     {
         Stopwatch timer = Stopwatch.createStarted();
-        Object state = restorable.capture(pagesSerde);
+        Object state = null;
+        if (canCaptureIncrementally()) {
+            IncrementalRestorable incrementalRestorable = (IncrementalRestorable) restorable;
+            Object incrementalState = incrementalRestorable.captureIncremental(pagesSerde);
+            if (incrementalState != null) {
+                state = new IncrementalSnapshotState(lastCapturedSnapshotId, incrementalState);
+                incrementalCaptureCount++;
+                snapshotManager.updateSnapshotCaptureSkippedSize(snapshotId, incrementalRestorable.getIncrementalSkippedBytes());
+            }
+        }
+        if (state == null) {
+            state = restorable.capture(pagesSerde);
+            incrementalCaptureCount = 0;
+        }
         timer.stop();
         long serTime = timer.elapsed(TimeUnit.MILLISECONDS);
+        // Invalidate the base until the state is stored
+        lastCapturedSnapshotId = -1;
 
         if (restorable.supportsConsolidatedWrites()) {
             snapshotManager.storeConsolidatedState(componentId, state, serTime);
@@ -230,6 +289,46 @@ public class SingleInputSnapshotState
         else {
             snapshotManager.storeState(componentId, state, serTime);
         }
+        lastCapturedSnapshotId = snapshotId;
+    }
+
+    private boolean canCaptureIncrementally()
+    {
+        return incrementalCaptureEnabled
+                && lastCapturedSnapshotId > 0
+                && incrementalCaptureCount < fullCaptureInterval - 1
+                && !snapshotManager.isCaptureFailed(lastCapturedSnapshotId);
+    }
+
+    // Returns incremental states from the oldest to the newest, preceded by the full state they are based on,
+    // or null if any of the base states can't be found
+    private Deque<Object> loadIncrementalChain(SnapshotStateId componentId, IncrementalSnapshotState state)
+            throws Exception
+    {
+        Deque<Object> chain = new ArrayDeque<>();
+        Object current = state;
+        while (current instanceof IncrementalSnapshotState) {
+            IncrementalSnapshotState incrementalState = (IncrementalSnapshotState) current;
+            chain.push(incrementalState.getState());
+            SnapshotStateId baseId = componentId.withSnapshotId(incrementalState.getBaseSnapshotId());
+            Optional<Object> base = snapshotManager.loadExactState(baseId, restorable.supportsConsolidatedWrites());
+            if (!base.isPresent()) {
+                return null;
+            }
+            current = base.get();
+        }
+        chain.push(current);
+        return chain;
+    }
+
+    private Object applyIncrementalChain(Deque<Object> chain)
+    {
+        IncrementalRestorable incrementalRestorable = (IncrementalRestorable) restorable;
+        Object state = chain.pop();
+        while (!chain.isEmpty()) {
+            state = incrementalRestorable.applyIncremental(state, chain.pop());
+        }
+        return state;
     }
 
     public boolean hasMarker()
@@ -47,10 +47,17 @@ public class SnapshotFileBasedClient
     private final FileSystemClientManager fileSystemClientManager;
     private final Path rootPath;
     private final boolean useKryo;
+    private final boolean useBinaryStateFormat;
     private final String spillProfile;
     private final boolean spillToHdfs;
 
     public SnapshotFileBasedClient(HetuFileSystemClient fsClient, Path rootPath, FileSystemClientManager fileSystemClientManager, String spillProfile, boolean spillToHdfs, boolean useKryo)
+    {
+        this(fsClient, rootPath, fileSystemClientManager, spillProfile, spillToHdfs, useKryo, false);
+    }
+
+    public SnapshotFileBasedClient(HetuFileSystemClient fsClient, Path rootPath, FileSystemClientManager fileSystemClientManager, String spillProfile, boolean spillToHdfs, boolean useKryo,
+            boolean useBinaryStateFormat)
     {
         this.fsClient = fsClient;
         this.rootPath = rootPath;
@@ -58,6 +65,7 @@ public class SnapshotFileBasedClient
         this.spillProfile = spillProfile;
         this.spillToHdfs = spillToHdfs;
         this.useKryo = useKryo;
+        this.useBinaryStateFormat = useBinaryStateFormat;
     }
 
     @Override
@@ -70,7 +78,12 @@ public class SnapshotFileBasedClient
         fsClient.createDirectories(file.getParent());
 
         try (OutputStream outputStream = fsClient.newOutputStream(file)) {
-            RecoveryUtils.serializeState(state, outputStream, useKryo);
+            if (useBinaryStateFormat) {
+                BinarySnapshotStateSerializer.serialize(state, outputStream, useKryo);
+            }
+            else {
+                RecoveryUtils.serializeState(state, outputStream, useKryo);
+            }
         }
         timer.stop();
         if (dataCollector != null) {
@@ -95,7 +108,12 @@ public class SnapshotFileBasedClient
         }
 
         try (InputStream inputStream = fsClient.newInputStream(file)) {
-            result = Optional.of(RecoveryUtils.deserializeState(inputStream, useKryo));
+            if (useBinaryStateFormat) {
+                result = Optional.of(BinarySnapshotStateSerializer.deserialize(inputStream));
+            }
+            else {
+                result = Optional.of(RecoveryUtils.deserializeState(inputStream, useKryo));
+            }
         }
         timer.stop();
         if (dataCollector != null) {
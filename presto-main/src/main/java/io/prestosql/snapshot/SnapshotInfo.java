@@ -29,6 +29,8 @@ public class SnapshotInfo
     private SnapshotResult snapshotResult;
     // captured/restored size in bytes (consolidated to task level)
     private AtomicLong sizeBytes;
+    // size in bytes of state that incremental captures didn't write again, because it was stored by earlier snapshots
+    private AtomicLong skippedSizeBytes;
     // CPU time taken while capturing/restoring the state
     private AtomicLong cpuTime;
     // To track snapshot capture/restore begin and end time (Wall time) at query level
@@ -40,12 +42,14 @@ public class SnapshotInfo
     @JsonCreator
     public SnapshotInfo(
             @JsonProperty("sizeBytes") long sizeBytes,
+            @JsonProperty("skippedSizeBytes") long skippedSizeBytes,
             @JsonProperty("cpuTime") long cpuTime,
             @JsonProperty("beginTime") long beginTime,
             @JsonProperty("endTime") long endTime,
             @JsonProperty("snapshotResult") SnapshotResult snapshotResult)
     {
         this.sizeBytes = new AtomicLong(sizeBytes);
+        this.skippedSizeBytes = new AtomicLong(skippedSizeBytes);
         this.cpuTime = new AtomicLong(cpuTime);
         this.beginTime = beginTime;
         this.endTime = endTime;
@@ -65,6 +69,12 @@ public class SnapshotInfo
         return sizeBytes.get();
     }
 
+    @JsonProperty
+    public long getSkippedSizeBytes()
+    {
+        return skippedSizeBytes.get();
+    }
+
     @JsonProperty
     public long getCpuTime()
     {
@@ -107,6 +117,12 @@ public class SnapshotInfo
         this.sizeBytes.addAndGet(sizeBytes);
     }
 
+    @JsonProperty
+    public void updateSkippedSizeBytes(long skippedSizeBytes)
+    {
+        this.skippedSizeBytes.addAndGet(skippedSizeBytes);
+    }
+
     @JsonProperty
     public void updateCpuTime(long cpuTime)
     {
@@ -127,7 +143,7 @@ public class SnapshotInfo
 
     public static SnapshotInfo withStatus(SnapshotResult result)
     {
-        SnapshotInfo info = new SnapshotInfo(0, 0, 0, 0, result);
+        SnapshotInfo info = new SnapshotInfo(0, 0, 0, 0, 0, result);
         info.setSnapshotResult(result);
         return info;
     }
@@ -136,6 +152,7 @@ public class SnapshotInfo
     {
         // Update only Size and CpuTime, which to be accumulated from task level
         sizeBytes.addAndGet(curSnapshotInfo.getSizeBytes());
+        skippedSizeBytes.addAndGet(curSnapshotInfo.getSkippedSizeBytes());
         cpuTime.addAndGet(curSnapshotInfo.getCpuTime());
     }
 
@@ -145,6 +162,7 @@ public class SnapshotInfo
         return toStringHelper(this)
                 .add("snapshotResult", snapshotResult)
                 .add("sizeBytes", sizeBytes)
+                .add("skippedSizeBytes", skippedSizeBytes)
                 .add("cpuTime", cpuTime)
                 .add("beginTime", beginTime)
                 .add("endTime", endTime)
@@ -200,6 +200,26 @@ public class TaskSnapshotManager
         return loadedValue;
     }
 
+    /**
+     * Load the state that was stored for exactly this snapshot, without looking at previous snapshots.
+     * Used to locate the base of an incremental state. Returns empty if the state was not stored,
+     * or if the task didn't complete that snapshot.
+     */
+    public Optional<Object> loadExactState(SnapshotStateId snapshotStateId, boolean consolidated)
+            throws Exception
+    {
+        long snapshotId = snapshotStateId.getSnapshotId();
+        loadMapIfNecessary(snapshotId, snapshotStateId.getTaskId());
+        Object value = loadCache.get(snapshotId).get(snapshotStateId.toString());
+        if (value == null) {
+            return Optional.empty();
+        }
+        if (consolidated) {
+            return Optional.of(value);
+        }
+        return recoveryUtils.loadState(SnapshotStateId.fromString((String) value), this);
+    }
+
     public void storeFile(SnapshotStateId snapshotStateId, Path sourceFile, long skipBytes)
             throws Exception
     {
@@ -316,6 +336,21 @@ public class TaskSnapshotManager
         }
     }
 
+    /**
+     * Whether components of this task failed to capture the snapshot. An incremental capture can't be based on such a snapshot.
+     */
+    public boolean isCaptureFailed(long snapshotId)
+    {
+        synchronized (captureResults) {
+            SnapshotInfo snapshotInfo = captureResults.get(snapshotId);
+            if (snapshotInfo == null) {
+                return false;
+            }
+            SnapshotResult result = snapshotInfo.getSnapshotResult();
+            return result == SnapshotResult.FAILED || result == SnapshotResult.IN_PROGRESS_FAILED;
+        }
+    }
+
     public RestoreResult getSnapshotRestoreResult()
     {
         return restoreResult;
@@ -436,6 +471,14 @@ public class TaskSnapshotManager
         }
     }
 
+    public void updateSnapshotCaptureSkippedSize(long snapshotId, long sizeBytes)
+    {
+        synchronized (captureResults) {
+            SnapshotInfo snapshotInfo = captureResults.computeIfAbsent(snapshotId, k -> getNewSnapshotInfo(k));
+            snapshotInfo.updateSkippedSizeBytes(sizeBytes);
+        }
+    }
+
     @Override
     public void updateSnapshotCaptureCpuTime(long snapshotId, long time)
     {
@@ -473,7 +516,7 @@ public class TaskSnapshotManager
 
     private SnapshotInfo getNewSnapshotInfo(long snapshotId)
     {
-        return new SnapshotInfo(0, 0, 0, 0, SnapshotResult.IN_PROGRESS);
+        return new SnapshotInfo(0, 0, 0, 0, 0, SnapshotResult.IN_PROGRESS);
     }
 
     @Override
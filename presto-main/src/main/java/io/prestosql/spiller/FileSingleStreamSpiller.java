@@ -27,7 +27,10 @@ import io.airlift.compress.snappy.SnappyFramedInputStream;
 import io.airlift.compress.snappy.SnappyFramedOutputStream;
 import io.airlift.slice.InputStreamSliceInput;
 import io.airlift.slice.OutputStreamSliceOutput;
+import io.airlift.slice.Slice;
+import io.airlift.slice.SliceInput;
 import io.airlift.slice.SliceOutput;
+import io.airlift.slice.Slices;
 import io.hetu.core.transport.execution.buffer.PagesSerde;
 import io.hetu.core.transport.execution.buffer.PagesSerdeUtil;
 import io.hetu.core.transport.execution.buffer.SerializedPage;
@@ -54,6 +57,9 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Serializable;
 import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Iterator;
@@ -64,25 +70,32 @@ import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 
 import static com.google.common.base.Preconditions.checkState;
+import static io.airlift.slice.SizeOf.SIZE_OF_BYTE;
+import static io.airlift.slice.SizeOf.SIZE_OF_INT;
 import static io.hetu.core.transport.execution.buffer.PagesSerdeUtil.writeSerializedPage;
 import static io.prestosql.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
 import static io.prestosql.spiller.FileSingleStreamSpillerFactory.SPILL_FILE_PREFIX;
 import static io.prestosql.spiller.FileSingleStreamSpillerFactory.SPILL_FILE_SUFFIX;
 import static io.prestosql.spiller.FileSingleStreamSpillerFactory.getFileSystem;
+import static java.lang.Math.toIntExact;
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
 import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.READ;
 import static java.util.Objects.requireNonNull;
 
 @NotThreadSafe
 
 @RestorableConfig(uncapturedFields = {"closer", "serde",
         "spillerStats", "localSpillContext", "memoryContext", "executor", "spillInProgress", "cipherIV", "spillCipher", "fileSystemClientManager", "fileSystemClient",
-        "spillPath", "output", "oldState", "closed", "outputStream", "sessionTargetFile", "useSessionDirectSerde"})
+        "spillPath", "output", "oldState", "closed", "outputStream", "sessionTargetFile", "useSessionDirectSerde", "mmapReadEnabled", "mappedRead"})
 public class FileSingleStreamSpiller
         extends FileSingleSessionStreamSpiller
         implements SingleStreamSpiller
 {
     @VisibleForTesting
     static final int BUFFER_SIZE = 4 * 1024;
+    // position count, codec markers, uncompressed size and size that precede the data of a serialized page
+    private static final int SERIALIZED_PAGE_HEADER_SIZE = SIZE_OF_INT + SIZE_OF_BYTE + SIZE_OF_INT + SIZE_OF_INT;
 
     private FileHolder targetFile;
     private final Closer closer = Closer.create();
@@ -114,6 +127,8 @@ public class FileSingleStreamSpiller
     private boolean isSingleSessionSpiller;
     private long targetFileSize = Long.MAX_VALUE;
     private final boolean isSnapshotEnabled;
+    private final boolean mmapReadEnabled;
+    private boolean mappedRead;
 
     public FileSingleStreamSpiller(
             PagesSerde serde,
@@ -132,7 +147,8 @@ public class FileSingleStreamSpiller
             FileSystemClientManager fileSystemClientManager,
             boolean isSingleSessionSpiller,
             boolean isSnapshotEnabled,
-            String queryId)
+            String queryId,
+            boolean mmapReadEnabled)
     {
         this.serde = requireNonNull(serde, "serde is null");
         this.executor = requireNonNull(executor, "executor is null");
@@ -181,6 +197,7 @@ public class FileSingleStreamSpiller
         this.compressionEnabled = compressionEnabled;
         this.spillCipher = spillCipher;
         this.isSingleSessionSpiller = isSingleSessionSpiller;
+        this.mmapReadEnabled = mmapReadEnabled;
         if (isSingleSessionSpiller) {
             super.setTargetFile(getTargetFile(), useDirectSerde);
             try {
@@ -367,6 +384,13 @@ public class FileSingleStreamSpiller
         writable = false;
 
         try {
+            if (canMapSpillFile()) {
+                Optional<MappedByteBuffer> mapping = mapSpillFile();
+                if (mapping.isPresent()) {
+                    return readMappedPages(mapping.get());
+                }
+            }
+
             InputStream input = closer.register(targetFile.newInputStream());
             Iterator<Page> pages;
 
@@ -393,6 +417,70 @@ public class FileSingleStreamSpiller
         }
     }
 
+    private boolean canMapSpillFile()
+    {
+        // compressed and encrypted pages are decoded from heap arrays, and the stream formats of
+        // the direct serde and of spill to HDFS cannot be sliced
+        return mmapReadEnabled && !spillToHdfs && !useDirectSerde && !isSingleSessionSpiller && !compressionEnabled && !spillCipher.isPresent();
+    }
+
+    private Optional<MappedByteBuffer> mapSpillFile()
+            throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(targetFile.getFilePath(), READ)) {
+            long size = channel.size();
+            if (size == 0 || size > Integer.MAX_VALUE) {
+                return Optional.empty();
+            }
+            // the mapping stays valid after the channel is closed and after the file is deleted
+            return Optional.of(channel.map(READ_ONLY, 0, size));
+        }
+    }
+
+    /**
+     * Reads the pages as slices of the mapping, without copying them. Every page gets a buffer of its
+     * own over its part of the mapping, so that blocks report the size of their page as retained size.
+     * The mapping is not unmapped explicitly, since the pages may be used after the spiller is closed.
+     * The page buffers reference the mapping, and it is released by the garbage collector together
+     * with the last page.
+     */
+    private Iterator<Page> readMappedPages(MappedByteBuffer mapping)
+    {
+        mappedRead = true;
+        SliceInput input = Slices.wrappedBuffer(mapping).getInput();
+        Iterator<SerializedPage> serializedPages = PagesSerdeUtil.readSerializedPages(input);
+        Iterator<Page> pages = new AbstractIterator<Page>()
+        {
+            @Override
+            protected Page computeNext()
+            {
+                // the reader parses the next page on hasNext()
+                int pageOffset = toIntExact(input.position());
+                if (!serializedPages.hasNext()) {
+                    return endOfData();
+                }
+                SerializedPage page = serializedPages.next();
+                Slice data = Slices.wrappedBuffer(pageBuffer(mapping, pageOffset + SERIALIZED_PAGE_HEADER_SIZE, page.getSlice().length()));
+                return serde.deserialize(new SerializedPage(data, page.getPageCodecMarkers(), page.getPositionCount(), page.getUncompressedSizeInBytes(), page.getPageMetadata()));
+            }
+        };
+        return closeWhenExhausted(pages, () -> {}, localSpillContext);
+    }
+
+    private static ByteBuffer pageBuffer(MappedByteBuffer mapping, int offset, int length)
+    {
+        ByteBuffer buffer = mapping.duplicate();
+        buffer.position(offset);
+        buffer.limit(offset + length);
+        return buffer.slice();
+    }
+
+    @VisibleForTesting
+    boolean isMappedRead()
+    {
+        return mappedRead;
+    }
+
     @Override
     public void close()
     {
@@ -18,6 +18,9 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.inject.Inject;
 import io.airlift.log.Logger;
+import io.airlift.units.DataSize;
+import io.hetu.core.transport.execution.buffer.FixedPageCompressionPolicy;
+import io.hetu.core.transport.execution.buffer.PageCompressionCodec;
 import io.hetu.core.transport.execution.buffer.PagesSerde;
 import io.hetu.core.transport.execution.buffer.PagesSerdeFactory;
 import io.prestosql.filesystem.FileSystemClientManager;
@@ -44,7 +47,10 @@ import java.util.stream.Stream;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static io.prestosql.spi.StandardErrorCode.OUT_OF_SPILL_SPACE;
+import static java.lang.Math.max;
+import static java.lang.Math.toIntExact;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 import static java.util.concurrent.Executors.newFixedThreadPool;
@@ -59,8 +65,11 @@ public class FileSingleStreamSpillerFactory
     @VisibleForTesting
     static final String SPILL_FILE_SUFFIX = ".bin";
     private static final String SPILL_FILE_GLOB = "spill*.bin";
+    // one write and one read-ahead in flight per spill path across all striped spillers
+    private static final int IO_THREADS_PER_SPILL_PATH = 2;
 
     private final ListeningExecutorService executor;
+    private final ListeningExecutorService ioExecutor;
     private final PagesSerdeFactory serdeFactory;
     private final List<Path> spillPaths;
     private final SpillerStats spillerStats;
@@ -69,6 +78,9 @@ public class FileSingleStreamSpillerFactory
     private final boolean spillDirectSerdeEnabled;
     private final boolean useKryo;
     private final boolean spillCompressionEnabled;
+    private final boolean spillStripingEnabled;
+    private final int spillStripeChunkSize;
+    private final boolean spillMmapReadEnabled;
     private int roundRobinIndex;
     private int spillPrefetchReadPages;
     private boolean spillToHdfs;
@@ -94,7 +106,11 @@ public class FileSingleStreamSpillerFactory
                 requireNonNull(nodeSpillConfig, "nodeSpillConfig is null").isSpillUseKryoSerialization(),
                 requireNonNull(featuresConfig, "featuresConfig is null").isSpillToHdfs(),
                 requireNonNull(featuresConfig, "featuresConfig is null").getSpillProfile(),
-                requireNonNull(fileSystemClientManager, "fileSystemClientManager is null"));
+                requireNonNull(fileSystemClientManager, "fileSystemClientManager is null"),
+                requireNonNull(nodeSpillConfig, "nodeSpillConfig is null").getSpillCompressionCodec(),
+                requireNonNull(nodeSpillConfig, "nodeSpillConfig is null").isSpillStripingEnabled(),
+                requireNonNull(nodeSpillConfig, "nodeSpillConfig is null").getSpillStripeChunkSize(),
+                requireNonNull(nodeSpillConfig, "nodeSpillConfig is null").isSpillMmapReadEnabled());
     }
 
     @VisibleForTesting
@@ -132,12 +148,61 @@ public class FileSingleStreamSpillerFactory
             boolean spillToHdfs,
             String spillProfile,
             FileSystemClientManager fileSystemClientManager)
+    {
+        this(executor, blockEncodingSerde, spillerStats, spillPaths, maxUsedSpaceThreshold,
+                spillCompressionEnabled, spillEncryptionEnabled, spillDirectSerdeEnabled,
+                spillPrefetchReadPages, useKryo, spillToHdfs, spillProfile, fileSystemClientManager, PageCompressionCodec.ZSTD);
+    }
+
+    @VisibleForTesting
+    public FileSingleStreamSpillerFactory(
+            ListeningExecutorService executor,
+            BlockEncodingSerde blockEncodingSerde,
+            SpillerStats spillerStats,
+            List<Path> spillPaths,
+            double maxUsedSpaceThreshold,
+            boolean spillCompressionEnabled,
+            boolean spillEncryptionEnabled,
+            boolean spillDirectSerdeEnabled,
+            int spillPrefetchReadPages,
+            boolean useKryo,
+            boolean spillToHdfs,
+            String spillProfile,
+            FileSystemClientManager fileSystemClientManager,
+            PageCompressionCodec spillCompressionCodec)
+    {
+        this(executor, blockEncodingSerde, spillerStats, spillPaths, maxUsedSpaceThreshold,
+                spillCompressionEnabled, spillEncryptionEnabled, spillDirectSerdeEnabled,
+                spillPrefetchReadPages, useKryo, spillToHdfs, spillProfile, fileSystemClientManager, spillCompressionCodec,
+                false, new DataSize(1, MEGABYTE), false);
+    }
+
+    @VisibleForTesting
+    public FileSingleStreamSpillerFactory(
+            ListeningExecutorService executor,
+            BlockEncodingSerde blockEncodingSerde,
+            SpillerStats spillerStats,
+            List<Path> spillPaths,
+            double maxUsedSpaceThreshold,
+            boolean spillCompressionEnabled,
+            boolean spillEncryptionEnabled,
+            boolean spillDirectSerdeEnabled,
+            int spillPrefetchReadPages,
+            boolean useKryo,
+            boolean spillToHdfs,
+            String spillProfile,
+            FileSystemClientManager fileSystemClientManager,
+            PageCompressionCodec spillCompressionCodec,
+            boolean spillStripingEnabled,
+            DataSize spillStripeChunkSize,
+            boolean spillMmapReadEnabled)
     {
         checkArgument(!(blockEncodingSerde instanceof KryoBlockEncodingSerde)
                         || (blockEncodingSerde instanceof KryoBlockEncodingSerde && spillDirectSerdeEnabled),
                 "Kryo serialization should enable DirectSpill");
 
-        this.serdeFactory = new PagesSerdeFactory(blockEncodingSerde, spillCompressionEnabled);
+        PageCompressionCodec codec = spillCompressionEnabled ? requireNonNull(spillCompressionCodec, "spillCompressionCodec is null") : PageCompressionCodec.NONE;
+        this.serdeFactory = new PagesSerdeFactory(blockEncodingSerde, new FixedPageCompressionPolicy(codec, Optional.empty()), false);
         this.executor = requireNonNull(executor, "executor is null");
         this.spillerStats = requireNonNull(spillerStats, "spillerStats can not be null");
         requireNonNull(spillPaths, "spillPaths is null");
@@ -152,6 +217,10 @@ public class FileSingleStreamSpillerFactory
         this.useKryo = useKryo;
         this.fileSystemClientManager = fileSystemClientManager;
         this.spillPaths = ImmutableList.copyOf(spillPaths);
+        this.spillStripingEnabled = spillStripingEnabled;
+        this.spillMmapReadEnabled = spillMmapReadEnabled;
+        this.spillStripeChunkSize = toIntExact(requireNonNull(spillStripeChunkSize, "spillStripeChunkSize is null").toBytes());
+        this.ioExecutor = listeningDecorator(newFixedThreadPool(max(1, this.spillPaths.size()) * IO_THREADS_PER_SPILL_PATH, daemonThreadsNamed("binary-spiller-io-%s")));
     }
 
     public synchronized void cleanupOldSpillFiles()
@@ -163,6 +232,7 @@ public class FileSingleStreamSpillerFactory
     public void destroy()
     {
         executor.shutdownNow();
+        ioExecutor.shutdownNow();
     }
 
     private synchronized void cleanupOldSpillFiles(Path path, boolean spillToHdfs, String spillProfile, FileSystemClientManager fileSystemClientManager)
@@ -197,6 +267,13 @@ public class FileSingleStreamSpillerFactory
         if (spillEncryptionEnabled) {
             spillCipher = Optional.of(new AesSpillCipher());
         }
+        if (spillStripingEnabled && !isSingleSessionSpiller && !isSnapshotEnabled && !isSpillToHdfs && spillToHdfsPath == null && !useKryo) {
+            // snapshot and single session spilling rely on the whole stream being in one file
+            List<Path> stripePaths = getStripeSpillPaths();
+            HetuFileSystemClient fileSystemClient = getFileSystem(stripePaths.get(0), false, spillProfile, fileSystemClientManager);
+            return new StripedFileSingleStreamSpiller(serdeFactory.createDirectPagesSerde(spillCipher, false, false), executor, ioExecutor, stripePaths, fileSystemClient,
+                    spillerStats, spillContext, memoryContext, spillCipher, spillStripeChunkSize);
+        }
         PagesSerde serde = serdeFactory.createDirectPagesSerde(spillCipher, spillDirectSerdeEnabled, useKryo);
         Path spillPath;
         if (spillToHdfsPath != null) {
@@ -205,7 +282,7 @@ public class FileSingleStreamSpillerFactory
         else {
             spillPath = isSpillToHdfs ? Paths.get("/tmp/hetu/snapshot") : getNextSpillPath();
         }
-        return new FileSingleStreamSpiller(serde, executor, spillPath, spillerStats, spillContext, memoryContext, spillCipher, spillCompressionEnabled, spillDirectSerdeEnabled, spillPrefetchReadPages, useKryo, isSpillToHdfs, spillProfile, fileSystemClientManager, isSingleSessionSpiller, isSnapshotEnabled, queryId);
+        return new FileSingleStreamSpiller(serde, executor, spillPath, spillerStats, spillContext, memoryContext, spillCipher, spillCompressionEnabled, spillDirectSerdeEnabled, spillPrefetchReadPages, useKryo, isSpillToHdfs, spillProfile, fileSystemClientManager, isSingleSessionSpiller, isSnapshotEnabled, queryId, spillMmapReadEnabled);
     }
 
     private synchronized Path getHdfsSpillPath(Path spillToHdfsPath)
@@ -233,6 +310,25 @@ public class FileSingleStreamSpillerFactory
         throw new PrestoException(OUT_OF_SPILL_SPACE, "No free space available for spill");
     }
 
+    private synchronized List<Path> getStripeSpillPaths()
+    {
+        // rotate the first stripe so that streams with a single chunk do not all land on the same path
+        ImmutableList.Builder<Path> builder = ImmutableList.builder();
+        int spillPathsCount = spillPaths.size();
+        for (int i = 0; i < spillPathsCount; ++i) {
+            Path path = spillPaths.get((roundRobinIndex + i) % spillPathsCount);
+            if (hasEnoughDiskSpace(path)) {
+                builder.add(path);
+            }
+        }
+        List<Path> paths = builder.build();
+        if (paths.isEmpty()) {
+            return ImmutableList.of(getNextSpillPath());
+        }
+        roundRobinIndex = (roundRobinIndex + 1) % spillPathsCount;
+        return paths;
+    }
+
     private boolean hasEnoughDiskSpace(Path path)
     {
         try {
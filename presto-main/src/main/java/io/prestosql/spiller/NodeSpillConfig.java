@@ -15,6 +15,9 @@ package io.prestosql.spiller;
 
 import io.airlift.configuration.Config;
 import io.airlift.units.DataSize;
+import io.airlift.units.MaxDataSize;
+import io.airlift.units.MinDataSize;
+import io.hetu.core.transport.execution.buffer.PageCompressionCodec;
 
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
@@ -26,12 +29,16 @@ public class NodeSpillConfig
     private DataSize queryMaxSpillPerNode = new DataSize(100, DataSize.Unit.GIGABYTE);
 
     private boolean spillCompressionEnabled;
+    private PageCompressionCodec spillCompressionCodec = PageCompressionCodec.ZSTD;
     private boolean spillEncryptionEnabled;
 
     private boolean spillDirectSerdeEnabled;
 
     private int spillPrefetchReadPages = 1;
     private boolean spillUseKryoSerialization;
+    private boolean spillStripingEnabled;
+    private DataSize spillStripeChunkSize = new DataSize(1, DataSize.Unit.MEGABYTE);
+    private boolean spillMmapReadEnabled;
 
     @NotNull
     public DataSize getMaxSpillPerNode()
@@ -71,6 +78,19 @@ public class NodeSpillConfig
         return this;
     }
 
+    @NotNull
+    public PageCompressionCodec getSpillCompressionCodec()
+    {
+        return spillCompressionCodec;
+    }
+
+    @Config("experimental.spill-compression-codec")
+    public NodeSpillConfig setSpillCompressionCodec(PageCompressionCodec spillCompressionCodec)
+    {
+        this.spillCompressionCodec = spillCompressionCodec;
+        return this;
+    }
+
     public boolean isSpillEncryptionEnabled()
     {
         return spillEncryptionEnabled;
@@ -120,4 +140,43 @@ public class NodeSpillConfig
         this.spillUseKryoSerialization = spillUseKryoSerialization;
         return this;
     }
+
+    public boolean isSpillStripingEnabled()
+    {
+        return spillStripingEnabled;
+    }
+
+    @Config("experimental.spill-striping-enabled")
+    public NodeSpillConfig setSpillStripingEnabled(boolean spillStripingEnabled)
+    {
+        this.spillStripingEnabled = spillStripingEnabled;
+        return this;
+    }
+
+    @NotNull
+    @MinDataSize("4kB")
+    @MaxDataSize("64MB")
+    public DataSize getSpillStripeChunkSize()
+    {
+        return spillStripeChunkSize;
+    }
+
+    @Config("experimental.spill-stripe-chunk-size")
+    public NodeSpillConfig setSpillStripeChunkSize(DataSize spillStripeChunkSize)
+    {
+        this.spillStripeChunkSize = spillStripeChunkSize;
+        return this;
+    }
+
+    public boolean isSpillMmapReadEnabled()
+    {
+        return spillMmapReadEnabled;
+    }
+
+    @Config("experimental.spill-mmap-read-enabled")
+    public NodeSpillConfig setSpillMmapReadEnabled(boolean spillMmapReadEnabled)
+    {
+        this.spillMmapReadEnabled = spillMmapReadEnabled;
+        return this;
+    }
 }
@@ -22,4 +22,11 @@ import java.util.List;
 public interface SpillerFactory
 {
     Spiller create(List<Type> types, SpillContext localSpillContext, AggregatedMemoryContext aggregatedMemoryContext, boolean isSnapshotEnabled, String queryId, boolean isSpillToHdfs);
+
+    static SpillerFactory unsupportedSpillerFactory()
+    {
+        return (types, localSpillContext, aggregatedMemoryContext, isSnapshotEnabled, queryId, isSpillToHdfs) -> {
+            throw new UnsupportedOperationException();
+        };
+    }
 }
@@ -13,13 +13,21 @@
  */
 package io.prestosql.spiller;
 
+import com.google.common.collect.ImmutableMap;
 import org.weakref.jmx.Managed;
 
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicLong;
 
+import static java.util.stream.Collectors.joining;
+
 public class SpillerStats
 {
     protected final AtomicLong totalSpilledBytes = new AtomicLong();
+    private final ConcurrentMap<Path, SpillPathStats> spillPathStats = new ConcurrentHashMap<>();
 
     @Managed
     public long getTotalSpilledBytes()
@@ -31,4 +39,80 @@ public class SpillerStats
     {
         totalSpilledBytes.addAndGet(delta);
     }
+
+    public void addSpillPathWrite(Path spillPath, long bytes, long nanos)
+    {
+        getSpillPathStats(spillPath).addWrite(bytes, nanos);
+    }
+
+    public void addSpillPathRead(Path spillPath, long bytes, long nanos)
+    {
+        getSpillPathStats(spillPath).addRead(bytes, nanos);
+    }
+
+    public Map<Path, SpillPathStats> getSpillPathStats()
+    {
+        return ImmutableMap.copyOf(spillPathStats);
+    }
+
+    @Managed
+    public String getSpillPathThroughput()
+    {
+        return spillPathStats.entrySet().stream()
+                .map(entry -> String.format("%s: write %.1f MB/s, read %.1f MB/s", entry.getKey(), entry.getValue().getWriteMegabytesPerSecond(), entry.getValue().getReadMegabytesPerSecond()))
+                .collect(joining("; "));
+    }
+
+    private SpillPathStats getSpillPathStats(Path spillPath)
+    {
+        return spillPathStats.computeIfAbsent(spillPath, path -> new SpillPathStats());
+    }
+
+    public static class SpillPathStats
+    {
+        private final AtomicLong writtenBytes = new AtomicLong();
+        private final AtomicLong writeNanos = new AtomicLong();
+        private final AtomicLong readBytes = new AtomicLong();
+        private final AtomicLong readNanos = new AtomicLong();
+
+        private void addWrite(long bytes, long nanos)
+        {
+            writtenBytes.addAndGet(bytes);
+            writeNanos.addAndGet(nanos);
+        }
+
+        private void addRead(long bytes, long nanos)
+        {
+            readBytes.addAndGet(bytes);
+            readNanos.addAndGet(nanos);
+        }
+
+        public long getWrittenBytes()
+        {
+            return writtenBytes.get();
+        }
+
+        public long getReadBytes()
+        {
+            return readBytes.get();
+        }
+
+        public double getWriteMegabytesPerSecond()
+        {
+            return megabytesPerSecond(writtenBytes.get(), writeNanos.get());
+        }
+
+        public double getReadMegabytesPerSecond()
+        {
+            return megabytesPerSecond(readBytes.get(), readNanos.get());
+        }
+
+        private static double megabytesPerSecond(long bytes, long nanos)
+        {
+            if (nanos == 0) {
+                return 0;
+            }
+            return (bytes / (1024.0 * 1024.0)) / (nanos / 1_000_000_000.0);
+        }
+    }
 }
@@ -0,0 +1,418 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.spiller;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Closer;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import io.airlift.slice.DynamicSliceOutput;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+import io.hetu.core.transport.execution.buffer.PagesSerde;
+import io.hetu.core.transport.execution.buffer.PagesSerdeUtil;
+import io.hetu.core.transport.execution.buffer.SerializedPage;
+import io.prestosql.memory.context.LocalMemoryContext;
+import io.prestosql.operator.SpillContext;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.PrestoException;
+import io.prestosql.spi.filesystem.HetuFileSystemClient;
+import io.prestosql.spi.snapshot.RestorableConfig;
+import io.prestosql.spi.spiller.SpillCipher;
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static io.airlift.concurrent.MoreFutures.getFutureValue;
+import static io.hetu.core.transport.execution.buffer.PagesSerdeUtil.writeSerializedPage;
+import static io.prestosql.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
+import static io.prestosql.spiller.FileSingleStreamSpillerFactory.SPILL_FILE_PREFIX;
+import static io.prestosql.spiller.FileSingleStreamSpillerFactory.SPILL_FILE_SUFFIX;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Spills a single page stream across several spill paths. Serialized pages are packed into
+ * large chunks, and chunk {@code i} is written to the file on spill path {@code i % paths}
+ * by the I/O executor, so serialization of the next chunk overlaps the writes of the previous
+ * ones and every disk receives large sequential writes. Reads prefetch one chunk per spill path.
+ */
+@NotThreadSafe
+@RestorableConfig(unsupported = true)
+public class StripedFileSingleStreamSpiller
+        implements SingleStreamSpiller
+{
+    private final PagesSerde serde;
+    private final ListeningExecutorService executor;
+    private final ListeningExecutorService ioExecutor;
+    private final SpillerStats spillerStats;
+    private final SpillContext localSpillContext;
+    private final LocalMemoryContext memoryContext;
+    private final int chunkSize;
+    private final List<Stripe> stripes;
+    private final List<ChunkLocation> chunks = new ArrayList<>();
+    private final Deque<ListenableFuture<?>> pendingWrites = new ArrayDeque<>();
+    private final ConcurrentLinkedQueue<DynamicSliceOutput> freeBuffers = new ConcurrentLinkedQueue<>();
+    private final Closer closer = Closer.create();
+
+    private DynamicSliceOutput currentChunk;
+    private boolean writable = true;
+    private long spilledPagesInMemorySize;
+    private ListenableFuture<?> spillInProgress = Futures.immediateFuture(null);
+
+    public StripedFileSingleStreamSpiller(
+            PagesSerde serde,
+            ListeningExecutorService executor,
+            ListeningExecutorService ioExecutor,
+            List<Path> spillPaths,
+            HetuFileSystemClient fileSystemClient,
+            SpillerStats spillerStats,
+            SpillContext spillContext,
+            LocalMemoryContext memoryContext,
+            Optional<SpillCipher> spillCipher,
+            int chunkSize)
+    {
+        this.serde = requireNonNull(serde, "serde is null");
+        this.executor = requireNonNull(executor, "executor is null");
+        this.ioExecutor = requireNonNull(ioExecutor, "ioExecutor is null");
+        this.spillerStats = requireNonNull(spillerStats, "spillerStats is null");
+        this.localSpillContext = spillContext.newLocalSpillContext();
+        this.memoryContext = requireNonNull(memoryContext, "memoryContext is null");
+        requireNonNull(spillPaths, "spillPaths is null");
+        checkArgument(!spillPaths.isEmpty(), "spillPaths is empty");
+        checkArgument(chunkSize > 0, "chunkSize must be positive");
+        this.chunkSize = chunkSize;
+        if (requireNonNull(spillCipher, "spillCipher is null").isPresent()) {
+            closer.register(spillCipher.get()::close);
+        }
+        // Same reasoning as in FileSingleStreamSpiller: reserve the memory of the buffers up front,
+        // since the writes may still be running on the I/O threads when close() is called.
+        // One chunk is being filled while at most one chunk per stripe is in flight.
+        this.memoryContext.setBytes((long) chunkSize * (spillPaths.size() + 1));
+
+        ImmutableList.Builder<Stripe> builder = ImmutableList.builder();
+        try {
+            for (Path spillPath : spillPaths) {
+                FileHolder file = closer.register(new FileHolder(fileSystemClient.createTemporaryFile(spillPath, SPILL_FILE_PREFIX, SPILL_FILE_SUFFIX), fileSystemClient, false));
+                builder.add(new Stripe(spillPath, file));
+            }
+        }
+        catch (IOException e) {
+            throw new PrestoException(GENERIC_INTERNAL_ERROR, "Failed to create spill file", e);
+        }
+        this.stripes = builder.build();
+    }
+
+    @Override
+    public ListenableFuture<?> spill(Iterator<Page> pageIterator)
+    {
+        requireNonNull(pageIterator, "pageIterator is null");
+        checkNoSpillInProgress();
+        spillInProgress = executor.submit(() -> writePages(pageIterator));
+        return spillInProgress;
+    }
+
+    private void writePages(Iterator<Page> pageIterator)
+    {
+        checkState(writable, "Spilling no longer allowed. The spiller has been made non-writable on first read for subsequent reads to be consistent");
+        Stopwatch timer = Stopwatch.createStarted();
+        while (pageIterator.hasNext()) {
+            Page page = pageIterator.next();
+            spilledPagesInMemorySize += page.getSizeInBytes();
+            SerializedPage serializedPage = serde.serialize(page);
+            long pageSize = serializedPage.getSizeInBytes();
+            localSpillContext.updateBytes(pageSize);
+            spillerStats.addToTotalSpilledBytes(pageSize);
+
+            if (currentChunk == null) {
+                currentChunk = allocateChunk();
+            }
+            writeSerializedPage(currentChunk, serializedPage);
+            if (currentChunk.size() >= chunkSize) {
+                flushChunk();
+            }
+        }
+        if (currentChunk != null && currentChunk.size() > 0) {
+            flushChunk();
+        }
+        // the spill is only complete once every chunk is on disk
+        while (!pendingWrites.isEmpty()) {
+            getFutureValue(pendingWrites.removeFirst());
+        }
+        timer.stop();
+        localSpillContext.updateWriteTime(timer.elapsed(TimeUnit.MILLISECONDS));
+    }
+
+    private DynamicSliceOutput allocateChunk()
+    {
+        DynamicSliceOutput buffer = freeBuffers.poll();
+        if (buffer == null) {
+            // pages are never split across chunks, so leave room for the one that overflows the chunk
+            return new DynamicSliceOutput(chunkSize + chunkSize / 4);
+        }
+        buffer.reset();
+        return buffer;
+    }
+
+    private void flushChunk()
+    {
+        DynamicSliceOutput chunk = currentChunk;
+        currentChunk = null;
+
+        Stripe stripe = stripes.get(chunks.size() % stripes.size());
+        int length = chunk.size();
+        long position = stripe.reserve(length);
+        chunks.add(new ChunkLocation(stripe, position, length));
+
+        // bound the number of chunks buffered in memory to one in flight per stripe
+        while (pendingWrites.size() >= stripes.size()) {
+            getFutureValue(pendingWrites.removeFirst());
+        }
+        pendingWrites.addLast(ioExecutor.submit(() -> {
+            try {
+                stripe.write(chunk.slice(), position);
+            }
+            finally {
+                freeBuffers.add(chunk);
+            }
+        }));
+    }
+
+    @Override
+    public long getSpilledPagesInMemorySize()
+    {
+        return spilledPagesInMemorySize;
+    }
+
+    @Override
+    public Iterator<Page> getSpilledPages()
+    {
+        checkNoSpillInProgress();
+        checkState(writable, "Repeated reads are disallowed to prevent potential resource leaks ");
+        writable = false;
+        freeBuffers.clear();
+        return new StripedPageReader();
+    }
+
+    @Override
+    public ListenableFuture<List<Page>> getAllSpilledPages()
+    {
+        return executor.submit(() -> ImmutableList.copyOf(getSpilledPages()));
+    }
+
+    @Override
+    public void close()
+    {
+        closer.register(localSpillContext);
+        closer.register(() -> memoryContext.setBytes(0));
+        stripes.forEach(closer::register);
+        try {
+            closer.close();
+        }
+        catch (IOException e) {
+            throw new PrestoException(GENERIC_INTERNAL_ERROR, "Failed to close spiller", e);
+        }
+    }
+
+    @Override
+    public void deleteFile()
+    {
+        stripes.forEach(stripe -> stripe.file.close());
+    }
+
+    @Override
+    public Path getFile()
+    {
+        return stripes.get(0).file.getFilePath();
+    }
+
+    @Override
+    public Pair<Path, Long> getSpilledFileInfo()
+    {
+        Stripe stripe = stripes.get(0);
+        return ImmutablePair.of(stripe.file.getFilePath(), stripe.size);
+    }
+
+    @VisibleForTesting
+    List<Path> getStripeFiles()
+    {
+        return stripes.stream().map(stripe -> stripe.file.getFilePath()).collect(ImmutableList.toImmutableList());
+    }
+
+    private void checkNoSpillInProgress()
+    {
+        checkState(spillInProgress.isDone(), "spill in progress");
+    }
+
+    private class StripedPageReader
+            extends AbstractIterator<Page>
+    {
+        private final Deque<ListenableFuture<Slice>> prefetchedChunks = new ArrayDeque<>();
+        private int nextChunkToFetch;
+        private Iterator<SerializedPage> currentPages = ImmutableList.<SerializedPage>of().iterator();
+
+        @Override
+        protected Page computeNext()
+        {
+            Stopwatch stopwatch = Stopwatch.createStarted();
+            try {
+                while (!currentPages.hasNext()) {
+                    prefetch();
+                    if (prefetchedChunks.isEmpty()) {
+                        return endOfData();
+                    }
+                    Slice chunk = getFutureValue(prefetchedChunks.removeFirst());
+                    currentPages = PagesSerdeUtil.readSerializedPages(chunk.getInput());
+                }
+                return serde.deserialize(currentPages.next());
+            }
+            finally {
+                stopwatch.stop();
+                localSpillContext.updateReadTime(stopwatch.elapsed(TimeUnit.MILLISECONDS));
+            }
+        }
+
+        private void prefetch()
+        {
+            // keep one read outstanding per stripe so that all disks are busy
+            while (prefetchedChunks.size() < stripes.size() && nextChunkToFetch < chunks.size()) {
+                ChunkLocation location = chunks.get(nextChunkToFetch++);
+                prefetchedChunks.addLast(ioExecutor.submit(() -> location.stripe.read(location.position, location.length)));
+            }
+        }
+    }
+
+    private class Stripe
+            implements AutoCloseable
+    {
+        private final Path spillPath;
+        private final FileHolder file;
+        private long size;
+        private FileChannel channel;
+
+        Stripe(Path spillPath, FileHolder file)
+        {
+            this.spillPath = requireNonNull(spillPath, "spillPath is null");
+            this.file = requireNonNull(file, "file is null");
+        }
+
+        long reserve(int length)
+        {
+            long position = size;
+            size += length;
+            return position;
+        }
+
+        void write(Slice chunk, long position)
+        {
+            long start = System.nanoTime();
+            ByteBuffer buffer = chunk.toByteBuffer();
+            long offset = position;
+            try {
+                FileChannel fileChannel = getChannel();
+                while (buffer.hasRemaining()) {
+                    offset += fileChannel.write(buffer, offset);
+                }
+            }
+            catch (IOException e) {
+                throw new PrestoException(GENERIC_INTERNAL_ERROR, "Failed to spill pages", e);
+            }
+            spillerStats.addSpillPathWrite(spillPath, chunk.length(), System.nanoTime() - start);
+        }
+
+        Slice read(long position, int length)
+        {
+            long start = System.nanoTime();
+            byte[] bytes = new byte[length];
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            long offset = position;
+            try {
+                FileChannel fileChannel = getChannel();
+                while (buffer.hasRemaining()) {
+                    int read = fileChannel.read(buffer, offset);
+                    if (read < 0) {
+                        throw new PrestoException(GENERIC_INTERNAL_ERROR, "Unexpected end of spill file " + file.getFilePath());
+                    }
+                    offset += read;
+                }
+            }
+            catch (IOException e) {
+                throw new PrestoException(GENERIC_INTERNAL_ERROR, "Failed to read spilled pages", e);
+            }
+            spillerStats.addSpillPathRead(spillPath, length, System.nanoTime() - start);
+            return Slices.wrappedBuffer(bytes);
+        }
+
+        private synchronized FileChannel getChannel()
+                throws IOException
+        {
+            if (channel == null) {
+                channel = FileChannel.open(file.getFilePath(), READ, WRITE);
+            }
+            return channel;
+        }
+
+        @Override
+        public synchronized void close()
+        {
+            try {
+                if (channel != null) {
+                    channel.close();
+                }
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            finally {
+                file.close();
+            }
+        }
+    }
+
+    private static class ChunkLocation
+    {
+        private final Stripe stripe;
+        private final long position;
+        private final int length;
+
+        ChunkLocation(Stripe stripe, long position, int length)
+        {
+            this.stripe = stripe;
+            this.position = position;
+            this.length = length;
+        }
+    }
+}
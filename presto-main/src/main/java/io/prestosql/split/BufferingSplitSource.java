@@ -72,6 +72,18 @@ public class BufferingSplitSource
         return source.getTableExecuteSplitsInfo();
     }
 
+    @Override
+    public long getDynamicFilterPrunedSplits()
+    {
+        return source.getDynamicFilterPrunedSplits();
+    }
+
+    @Override
+    public long getDynamicFilterPrunedBytes()
+    {
+        return source.getDynamicFilterPrunedBytes();
+    }
+
     @Override
     public List<Split> groupSmallSplits(List<Split> pendingSplits, Lifespan lifespan, int maxGroupSize)
     {
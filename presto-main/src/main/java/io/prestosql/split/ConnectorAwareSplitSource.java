@@ -81,6 +81,18 @@ public class ConnectorAwareSplitSource
         return source.getTableExecuteSplitsInfo();
     }
 
+    @Override
+    public long getDynamicFilterPrunedSplits()
+    {
+        return source.getDynamicFilterPrunedSplits();
+    }
+
+    @Override
+    public long getDynamicFilterPrunedBytes()
+    {
+        return source.getDynamicFilterPrunedBytes();
+    }
+
     @Override
     public String toString()
     {
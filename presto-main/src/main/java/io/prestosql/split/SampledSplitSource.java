@@ -68,4 +68,16 @@ public class SampledSplitSource
     {
         return splitSource.isFinished();
     }
+
+    @Override
+    public long getDynamicFilterPrunedSplits()
+    {
+        return splitSource.getDynamicFilterPrunedSplits();
+    }
+
+    @Override
+    public long getDynamicFilterPrunedBytes()
+    {
+        return splitSource.getDynamicFilterPrunedBytes();
+    }
 }
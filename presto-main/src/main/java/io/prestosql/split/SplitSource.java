@@ -42,6 +42,16 @@ public interface SplitSource
         return Optional.empty();
     }
 
+    default long getDynamicFilterPrunedSplits()
+    {
+        return 0;
+    }
+
+    default long getDynamicFilterPrunedBytes()
+    {
+        return 0;
+    }
+
     class SplitBatch
     {
         private final List<Split> splits;
@@ -23,6 +23,7 @@ import io.airlift.log.Logger;
 import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
 import io.airlift.units.MaxDataSize;
+import io.hetu.core.transport.execution.buffer.PageCompressionCodec;
 import io.prestosql.operator.aggregation.arrayagg.ArrayAggGroupImplementation;
 import io.prestosql.operator.aggregation.histogram.HistogramGroupImplementation;
 import io.prestosql.operator.aggregation.multimapagg.MultimapAggGroupImplementation;
@@ -39,6 +40,7 @@ import java.nio.file.Paths;
 import java.util.List;
 
 import static com.google.common.collect.ImmutableList.toImmutableList;
+import static io.airlift.units.DataSize.Unit.GIGABYTE;
 import static io.airlift.units.DataSize.Unit.KILOBYTE;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static io.prestosql.sql.analyzer.FeaturesConfig.DynamicFilterDataType.BLOOM_FILTER;
@@ -79,6 +81,7 @@ public class FeaturesConfig
     private boolean distributedIndexJoinsEnabled;
     private JoinDistributionType joinDistributionType = JoinDistributionType.AUTOMATIC;
     private DataSize joinMaxBroadcastTableSize = new DataSize(100, MEGABYTE);
+    private boolean adaptiveJoinDistributionEnabled;
     private boolean colocatedJoinsEnabled;
     private boolean groupedExecutionEnabled;
     private boolean dynamicScheduleForGroupedExecution;
@@ -100,11 +103,17 @@ public class FeaturesConfig
     private boolean pushLimitThroughSemiJoin = true;
     private boolean pushLimitThroughOuterJoin = true;
     private boolean exchangeCompressionEnabled;
+    private boolean exchangePooledSerdeBuffersEnabled;
+    private PageCompressionCodec exchangeCompressionCodec = PageCompressionCodec.ZSTD;
+    private boolean exchangeAdaptiveCompressionEnabled;
+    private DataSize exchangeAdaptiveCompressionNetworkBandwidth = new DataSize(1, GIGABYTE);
+    private boolean exchangeLightweightEncodingsEnabled;
     private boolean legacyMapSubscript;
     private boolean optimizeMixedDistinctAggregations;
     private boolean unwrapCasts = true;
     private boolean forceSingleNodeOutput = true;
     private boolean pagesIndexEagerCompactionEnabled;
+    private boolean flatGroupByHashEnabled;
     private boolean distributedSort = true;
     private boolean queryPushDown = true;
     private boolean pushLimitDown = true;
@@ -161,6 +170,7 @@ public class FeaturesConfig
     private DynamicFilterDataType dynamicFilteringDataType = BLOOM_FILTER;
     private DataSize dynamicFilteringMaxPerDriverSize = new DataSize(1, MEGABYTE);
     private double dynamicFilteringBloomFilterFpp = 0.1D;
+    private boolean dynamicFilteringSplitBlockBloomFilter;
     // enable or disable execution plan cache functionality via Session properties
     private boolean enableExecutionPlanCache = true;
 
@@ -180,6 +190,8 @@ public class FeaturesConfig
     private long cubeMetadataCacheSize = 5;
     private Duration cubeMetadataCacheTtl = new Duration(1, HOURS);
     private boolean sortBasedAggregationEnabled;
+    private boolean streamingPartialAggregationEnabled;
+    private boolean exchangeHotKeyDetectionEnabled;
     private int prcntDriversForPartialAggr = 5;
     private boolean skipAttachingStatsWithPlan = true;
     private boolean skipNonApplicableRulesEnabled;
@@ -343,6 +355,19 @@ public class FeaturesConfig
         return this;
     }
 
+    public boolean isAdaptiveJoinDistributionEnabled()
+    {
+        return adaptiveJoinDistributionEnabled;
+    }
+
+    @Config("adaptive-join-distribution-enabled")
+    @ConfigDescription("Use build side sizes observed in earlier queries when choosing between broadcast and partitioned joins")
+    public FeaturesConfig setAdaptiveJoinDistributionEnabled(boolean adaptiveJoinDistributionEnabled)
+    {
+        this.adaptiveJoinDistributionEnabled = adaptiveJoinDistributionEnabled;
+        return this;
+    }
+
     public boolean isGroupedExecutionEnabled()
     {
         return groupedExecutionEnabled;
@@ -1098,6 +1123,19 @@ public class FeaturesConfig
         return this;
     }
 
+    public boolean isDynamicFilteringSplitBlockBloomFilter()
+    {
+        return dynamicFilteringSplitBlockBloomFilter;
+    }
+
+    @Config("dynamic-filtering-split-block-bloom-filter")
+    @ConfigDescription("Build bloom filter dynamic filters with the cache line blocked layout")
+    public FeaturesConfig setDynamicFilteringSplitBlockBloomFilter(boolean dynamicFilteringSplitBlockBloomFilter)
+    {
+        this.dynamicFilteringSplitBlockBloomFilter = dynamicFilteringSplitBlockBloomFilter;
+        return this;
+    }
+
     /**
      * Presto can only cache execution plans for supported connectors.
      * This method checks if the session property for enabled execution plan caching
@@ -1150,6 +1188,73 @@ public class FeaturesConfig
         return this;
     }
 
+    public boolean isExchangePooledSerdeBuffersEnabled()
+    {
+        return exchangePooledSerdeBuffersEnabled;
+    }
+
+    @Config("exchange.pooled-serde-buffers-enabled")
+    @ConfigDescription("Reuse serialization, compression and encryption buffers across pages in exchanges")
+    public FeaturesConfig setExchangePooledSerdeBuffersEnabled(boolean exchangePooledSerdeBuffersEnabled)
+    {
+        this.exchangePooledSerdeBuffersEnabled = exchangePooledSerdeBuffersEnabled;
+        return this;
+    }
+
+    @NotNull
+    public PageCompressionCodec getExchangeCompressionCodec()
+    {
+        return exchangeCompressionCodec;
+    }
+
+    @Config("exchange.compression-codec")
+    @ConfigDescription("Codec used to compress pages in exchanges when compression is enabled")
+    public FeaturesConfig setExchangeCompressionCodec(PageCompressionCodec exchangeCompressionCodec)
+    {
+        this.exchangeCompressionCodec = exchangeCompressionCodec;
+        return this;
+    }
+
+    public boolean isExchangeAdaptiveCompressionEnabled()
+    {
+        return exchangeAdaptiveCompressionEnabled;
+    }
+
+    @Config("exchange.adaptive-compression-enabled")
+    @ConfigDescription("Choose the exchange compression codec, or no compression, at runtime from the observed compression ratio and throughput")
+    public FeaturesConfig setExchangeAdaptiveCompressionEnabled(boolean exchangeAdaptiveCompressionEnabled)
+    {
+        this.exchangeAdaptiveCompressionEnabled = exchangeAdaptiveCompressionEnabled;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getExchangeAdaptiveCompressionNetworkBandwidth()
+    {
+        return exchangeAdaptiveCompressionNetworkBandwidth;
+    }
+
+    @Config("exchange.adaptive-compression-network-bandwidth")
+    @ConfigDescription("Network bandwidth per second assumed by adaptive exchange compression to weigh compression time against transfer time")
+    public FeaturesConfig setExchangeAdaptiveCompressionNetworkBandwidth(DataSize exchangeAdaptiveCompressionNetworkBandwidth)
+    {
+        this.exchangeAdaptiveCompressionNetworkBandwidth = exchangeAdaptiveCompressionNetworkBandwidth;
+        return this;
+    }
+
+    public boolean isExchangeLightweightEncodingsEnabled()
+    {
+        return exchangeLightweightEncodingsEnabled;
+    }
+
+    @Config("exchange.lightweight-encodings-enabled")
+    @ConfigDescription("Bit pack integer columns and dictionary encode low cardinality columns of pages sent in exchanges")
+    public FeaturesConfig setExchangeLightweightEncodingsEnabled(boolean exchangeLightweightEncodingsEnabled)
+    {
+        this.exchangeLightweightEncodingsEnabled = exchangeLightweightEncodingsEnabled;
+        return this;
+    }
+
     public boolean isEnableIntermediateAggregations()
     {
         return enableIntermediateAggregations;
@@ -1210,6 +1315,19 @@ public class FeaturesConfig
         return this;
     }
 
+    public boolean isFlatGroupByHashEnabled()
+    {
+        return flatGroupByHashEnabled;
+    }
+
+    @Config("experimental.flat-group-by-hash-enabled")
+    @ConfigDescription("Store multi-channel group by keys in flat row-oriented records instead of blocks")
+    public FeaturesConfig setFlatGroupByHashEnabled(boolean flatGroupByHashEnabled)
+    {
+        this.flatGroupByHashEnabled = flatGroupByHashEnabled;
+        return this;
+    }
+
     @MaxDataSize("1MB")
     public DataSize getFilterAndProjectMinOutputPageSize()
     {
@@ -1489,6 +1607,32 @@ public class FeaturesConfig
         return this;
     }
 
+    public boolean isStreamingPartialAggregationEnabled()
+    {
+        return streamingPartialAggregationEnabled;
+    }
+
+    @Config("optimizer.streaming-partial-aggregation-enabled")
+    @ConfigDescription("Use streaming partial aggregation when the input is known to be grouped on the grouping keys")
+    public FeaturesConfig setStreamingPartialAggregationEnabled(boolean streamingPartialAggregationEnabled)
+    {
+        this.streamingPartialAggregationEnabled = streamingPartialAggregationEnabled;
+        return this;
+    }
+
+    public boolean isExchangeHotKeyDetectionEnabled()
+    {
+        return exchangeHotKeyDetectionEnabled;
+    }
+
+    @Config("exchange.hot-key-detection-enabled")
+    @ConfigDescription("Sample the partitioning keys of partitioned outputs and report hot keys")
+    public FeaturesConfig setExchangeHotKeyDetectionEnabled(boolean exchangeHotKeyDetectionEnabled)
+    {
+        this.exchangeHotKeyDetectionEnabled = exchangeHotKeyDetectionEnabled;
+        return this;
+    }
+
     public int getPrcntDriversForPartialAggr()
     {
         return this.prcntDriversForPartialAggr;
@@ -36,6 +36,7 @@ import io.prestosql.spi.relation.VariableReferenceExpression;
 import io.prestosql.spi.statestore.StateSet;
 import io.prestosql.spi.statestore.StateStore;
 import io.prestosql.spi.util.BloomFilter;
+import io.prestosql.spi.util.SplitBlockBloomFilter;
 import io.prestosql.sql.DynamicFilters;
 import io.prestosql.sql.analyzer.FeaturesConfig;
 import io.prestosql.sql.planner.plan.SemiJoinNode;
@@ -53,8 +54,10 @@ import java.util.function.Consumer;
 import static com.google.common.base.Verify.verify;
 import static io.prestosql.SystemSessionProperties.getDynamicFilteringBloomFilterFpp;
 import static io.prestosql.SystemSessionProperties.getDynamicFilteringDataType;
+import static io.prestosql.SystemSessionProperties.isDynamicFilteringSplitBlockBloomFilter;
 import static io.prestosql.spi.dynamicfilter.BloomFilterDynamicFilter.convertBloomFilterToByteArray;
 import static io.prestosql.spi.dynamicfilter.DynamicFilter.DataType.BLOOM_FILTER;
+import static io.prestosql.spi.dynamicfilter.HashSetDynamicFilter.createValueSet;
 import static io.prestosql.spi.statestore.StateCollection.Type.SET;
 import static io.prestosql.sql.DynamicFilters.Descriptor;
 import static io.prestosql.sql.DynamicFilters.extractDynamicFilters;
@@ -86,6 +89,7 @@ public class LocalDynamicFilter
 
     private FeaturesConfig.DynamicFilterDataType dynamicFilterDataType;
     private final double bloomFilterFpp;
+    private final boolean splitBlockBloomFilter;
     private final StateStoreProvider stateStoreProvider;
     private final TaskId taskId;
     private Map<String, DynamicFilterSourceOperator.Channel> channels = new HashMap<>();
@@ -94,12 +98,19 @@ public class LocalDynamicFilter
             TaskId taskId, StateStoreProvider stateStoreProvider)
     {
         this(probeSymbols, buildChannels, partitionCount, type, getDynamicFilteringDataType(session),
-                getDynamicFilteringBloomFilterFpp(session), taskId, stateStoreProvider);
+                getDynamicFilteringBloomFilterFpp(session), isDynamicFilteringSplitBlockBloomFilter(session), taskId, stateStoreProvider);
     }
 
     public LocalDynamicFilter(Multimap<String, Symbol> probeSymbols, Map<String, Integer> buildChannels, int partitionCount,
                               DynamicFilter.Type filterType, FeaturesConfig.DynamicFilterDataType dataType,
                               double bloomFilterFpp, TaskId taskId, StateStoreProvider stateStoreProvider)
+    {
+        this(probeSymbols, buildChannels, partitionCount, filterType, dataType, bloomFilterFpp, false, taskId, stateStoreProvider);
+    }
+
+    public LocalDynamicFilter(Multimap<String, Symbol> probeSymbols, Map<String, Integer> buildChannels, int partitionCount,
+                              DynamicFilter.Type filterType, FeaturesConfig.DynamicFilterDataType dataType,
+                              double bloomFilterFpp, boolean splitBlockBloomFilter, TaskId taskId, StateStoreProvider stateStoreProvider)
     {
         this.probeSymbols = requireNonNull(probeSymbols, "probeSymbols is null");
         this.buildChannels = requireNonNull(buildChannels, "buildChannels is null");
@@ -113,6 +124,7 @@ public class LocalDynamicFilter
         this.type = filterType;
         this.dynamicFilterDataType = requireNonNull(dataType, "dynamic filter data type is null");
         this.bloomFilterFpp = bloomFilterFpp;
+        this.splitBlockBloomFilter = splitBlockBloomFilter;
         this.taskId = requireNonNull(taskId, "taskId is null");
         this.stateStoreProvider = requireNonNull(stateStoreProvider, "stateStore is null");
     }
@@ -225,7 +237,7 @@ public class LocalDynamicFilter
         }
         else if (!isIncomplete) {
             values.forEach((key, value) -> {
-                result.putIfAbsent(key.getFilterId(), new HashSet<>());
+                result.putIfAbsent(key.getFilterId(), createValueSet(key.getType()));
                 Set set = result.get(key.getFilterId());
                 set.addAll(value);
                 channels.put(key.getFilterId(), key);
@@ -273,7 +285,8 @@ public class LocalDynamicFilter
                 }
             }
             else {
-                ((StateSet) stateStore.getOrCreateStateCollection(key, SET)).add(filterValues);
+                // keep the state store format independent of the specialized value sets
+                ((StateSet) stateStore.getOrCreateStateCollection(key, SET)).add(new HashSet<>(filterValues));
             }
             ((StateSet) stateStore.getOrCreateStateCollection(createKey(TASKSPREFIX, filterId, channel.getQueryId()), SET)).add(taskId.toString());
             log.debug("creating new " + dataType + " dynamic filter for size of: " + result.size() + ", key: " + key + ", taskId: " + taskId);
@@ -282,7 +295,9 @@ public class LocalDynamicFilter
 
     private BloomFilter createBloomFilterFromSet(DynamicFilterSourceOperator.Channel channel, Set values, double bloomFilterFpp)
     {
-        BloomFilter bloomFilter = new BloomFilter(BloomFilterDynamicFilter.DEFAULT_DYNAMIC_FILTER_SIZE, bloomFilterFpp);
+        BloomFilter bloomFilter = splitBlockBloomFilter
+                ? new SplitBlockBloomFilter(BloomFilterDynamicFilter.DEFAULT_DYNAMIC_FILTER_SIZE, bloomFilterFpp)
+                : new BloomFilter(BloomFilterDynamicFilter.DEFAULT_DYNAMIC_FILTER_SIZE, bloomFilterFpp);
         if (channel.getType().getJavaType() == long.class) {
             for (Object value : values) {
                 long lv = (Long) value;
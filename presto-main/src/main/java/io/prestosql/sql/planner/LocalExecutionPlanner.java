@@ -631,20 +631,21 @@ public class LocalExecutionPlanner
         List<Integer> partitionChannels;
         List<Optional<NullableValue>> partitionConstants;
         List<Type> partitionChannelTypes;
+        List<Integer> keyChannels = partitioningScheme.getPartitioning().getArguments().stream()
+                .map(argument -> {
+                    if (argument.isConstant()) {
+                        return -1;
+                    }
+                    return outputLayout.indexOf(argument.getColumn());
+                })
+                .collect(toImmutableList());
         if (partitioningScheme.getHashColumn().isPresent()) {
             partitionChannels = ImmutableList.of(outputLayout.indexOf(partitioningScheme.getHashColumn().get()));
             partitionConstants = ImmutableList.of(Optional.empty());
             partitionChannelTypes = ImmutableList.of(BIGINT);
         }
         else {
-            partitionChannels = partitioningScheme.getPartitioning().getArguments().stream()
-                    .map(argument -> {
-                        if (argument.isConstant()) {
-                            return -1;
-                        }
-                        return outputLayout.indexOf(argument.getColumn());
-                    })
-                    .collect(toImmutableList());
+            partitionChannels = keyChannels;
             partitionConstants = partitioningScheme.getPartitioning().getArguments().stream()
                     .map(argument -> {
                         if (argument.isConstant()) {
@@ -685,6 +686,7 @@ public class LocalExecutionPlanner
                         partitionFunction,
                         partitionChannels,
                         partitionConstants,
+                        keyChannels,
                         partitioningScheme.isReplicateNullsAndAny(),
                         nullChannel,
                         outputBuffer,
@@ -3617,7 +3619,8 @@ public class LocalExecutionPlanner
                         groupByChannels,
                         step,
                         accumulatorFactories,
-                        joinCompiler);
+                        joinCompiler,
+                        step.isOutputPartial() ? maxPartialAggregationMemorySize : Optional.empty());
             }
             else {
                 Optional<Integer> hashChannel = hashSymbol.map(channelGetter(source));
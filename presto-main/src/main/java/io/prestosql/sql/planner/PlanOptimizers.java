@@ -18,6 +18,7 @@ import com.google.common.collect.ImmutableSet;
 import io.prestosql.cost.CostCalculator;
 import io.prestosql.cost.CostCalculator.EstimatedExchanges;
 import io.prestosql.cost.CostComparator;
+import io.prestosql.cost.JoinBuildSizeHistory;
 import io.prestosql.cost.StatsCalculator;
 import io.prestosql.cost.TaskCountEstimator;
 import io.prestosql.cube.CubeManager;
@@ -179,6 +180,7 @@ import io.prestosql.sql.planner.optimizations.AddExchanges;
 import io.prestosql.sql.planner.optimizations.AddLocalExchanges;
 import io.prestosql.sql.planner.optimizations.AddReuseExchange;
 import io.prestosql.sql.planner.optimizations.AddSortBasedAggregation;
+import io.prestosql.sql.planner.optimizations.AddStreamingPartialAggregation;
 import io.prestosql.sql.planner.optimizations.AdjustApplicableOptimizationRule;
 import io.prestosql.sql.planner.optimizations.ApplyConnectorOptimization;
 import io.prestosql.sql.planner.optimizations.BeginTableWrite;
@@ -239,7 +241,8 @@ public class PlanOptimizers
             @EstimatedExchanges CostCalculator estimatedExchangesCostCalculator,
             CostComparator costComparator,
             TaskCountEstimator taskCountEstimator,
-            CubeManager cubeManager)
+            CubeManager cubeManager,
+            JoinBuildSizeHistory joinBuildSizeHistory)
     {
         this(metadata,
                 typeAnalyzer,
@@ -255,7 +258,8 @@ public class PlanOptimizers
                 estimatedExchangesCostCalculator,
                 costComparator,
                 taskCountEstimator,
-                cubeManager);
+                cubeManager,
+                joinBuildSizeHistory);
     }
 
     @PostConstruct
@@ -288,6 +292,42 @@ public class PlanOptimizers
             CostComparator costComparator,
             TaskCountEstimator taskCountEstimator,
             CubeManager cubeManager)
+    {
+        this(metadata,
+                typeAnalyzer,
+                featuresConfig,
+                taskManagerConfig,
+                forceSingleNode,
+                exporter,
+                splitManager,
+                planOptimizerManager,
+                pageSourceManager,
+                statsCalculator,
+                costCalculator,
+                inputEstimatedExchangesCostCalculator,
+                costComparator,
+                taskCountEstimator,
+                cubeManager,
+                new JoinBuildSizeHistory());
+    }
+
+    public PlanOptimizers(
+            Metadata metadata,
+            TypeAnalyzer typeAnalyzer,
+            FeaturesConfig featuresConfig,
+            TaskManagerConfig taskManagerConfig,
+            boolean forceSingleNode,
+            MBeanExporter exporter,
+            SplitManager splitManager,
+            ConnectorPlanOptimizerManager planOptimizerManager,
+            PageSourceManager pageSourceManager,
+            StatsCalculator statsCalculator,
+            CostCalculator costCalculator,
+            CostCalculator inputEstimatedExchangesCostCalculator,
+            CostComparator costComparator,
+            TaskCountEstimator taskCountEstimator,
+            CubeManager cubeManager,
+            JoinBuildSizeHistory joinBuildSizeHistory)
     {
         CostCalculator estimatedExchangesCostCalculator = inputEstimatedExchangesCostCalculator;
         this.exporter = exporter;
@@ -672,7 +712,7 @@ public class PlanOptimizers
                     statsCalculator,
                     estimatedExchangesCostCalculator,
                     ImmutableSet.of(
-                            new DetermineJoinDistributionType(costComparator, taskCountEstimator), // Must run before AddExchanges
+                            new DetermineJoinDistributionType(costComparator, taskCountEstimator, joinBuildSizeHistory), // Must run before AddExchanges
                             // Must run before AddExchanges and after ReplicateSemiJoinInDelete
                             // to avoid temporarily having an invalid plan
                             new DetermineSemiJoinDistributionType(costComparator, taskCountEstimator)))));
@@ -771,6 +811,8 @@ public class PlanOptimizers
                 ImmutableSet.of(
                         new AddIntermediateAggregations(),
                         new RemoveRedundantIdentityProjections())));
+        // Needs to run after aggregations have been split into partial and final steps
+        builder.add(new AddStreamingPartialAggregation(metadata, typeAnalyzer));
 
         builder.add(new AddReuseExchange(metadata));
 
@@ -18,13 +18,17 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Ordering;
 import io.airlift.units.DataSize;
 import io.prestosql.cost.CostComparator;
+import io.prestosql.cost.JoinBuildSizeHistory;
+import io.prestosql.cost.JoinBuildSizeHistory.BuildSideKey;
 import io.prestosql.cost.LocalCostEstimate;
 import io.prestosql.cost.PlanNodeStatsEstimate;
 import io.prestosql.cost.StatsProvider;
 import io.prestosql.cost.TaskCountEstimator;
 import io.prestosql.matching.Captures;
 import io.prestosql.matching.Pattern;
+import io.prestosql.spi.PrestoWarning;
 import io.prestosql.spi.plan.JoinNode;
+import io.prestosql.spi.plan.JoinNode.DistributionType;
 import io.prestosql.spi.plan.PlanNode;
 import io.prestosql.spi.plan.TableScanNode;
 import io.prestosql.spi.plan.ValuesNode;
@@ -38,10 +42,14 @@ import io.prestosql.sql.tree.Unnest;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalLong;
 
+import static io.airlift.units.DataSize.succinctBytes;
 import static io.prestosql.SystemSessionProperties.getJoinDistributionType;
 import static io.prestosql.SystemSessionProperties.getJoinMaxBroadcastTableSize;
+import static io.prestosql.SystemSessionProperties.isAdaptiveJoinDistributionEnabled;
 import static io.prestosql.cost.CostCalculatorWithEstimatedExchanges.calculateJoinCostWithoutOutput;
+import static io.prestosql.spi.connector.StandardWarningCode.JOIN_DISTRIBUTION_ADJUSTED;
 import static io.prestosql.spi.plan.JoinNode.DistributionType.PARTITIONED;
 import static io.prestosql.spi.plan.JoinNode.DistributionType.REPLICATED;
 import static io.prestosql.spi.plan.JoinNode.Type.FULL;
@@ -52,6 +60,7 @@ import static io.prestosql.sql.analyzer.FeaturesConfig.JoinDistributionType.AUTO
 import static io.prestosql.sql.planner.optimizations.QueryCardinalityUtil.isAtMostScalar;
 import static io.prestosql.sql.planner.plan.Patterns.join;
 import static io.prestosql.util.MorePredicates.isInstanceOfAny;
+import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
 
 public class DetermineJoinDistributionType
@@ -61,11 +70,18 @@ public class DetermineJoinDistributionType
 
     private final CostComparator costComparator;
     private final TaskCountEstimator taskCountEstimator;
+    private final JoinBuildSizeHistory buildSizeHistory;
 
     public DetermineJoinDistributionType(CostComparator costComparator, TaskCountEstimator taskCountEstimator)
+    {
+        this(costComparator, taskCountEstimator, new JoinBuildSizeHistory());
+    }
+
+    public DetermineJoinDistributionType(CostComparator costComparator, TaskCountEstimator taskCountEstimator, JoinBuildSizeHistory buildSizeHistory)
     {
         this.costComparator = requireNonNull(costComparator, "costComparator is null");
         this.taskCountEstimator = requireNonNull(taskCountEstimator, "taskCountEstimator is null");
+        this.buildSizeHistory = requireNonNull(buildSizeHistory, "buildSizeHistory is null");
     }
 
     @Override
@@ -79,7 +95,11 @@ public class DetermineJoinDistributionType
     {
         JoinDistributionType joinDistributionType = getJoinDistributionType(context.getSession());
         if (joinDistributionType == AUTOMATIC) {
-            return Result.ofPlanNode(getCostBasedJoin(joinNode, context));
+            PlanNode costBasedJoin = getCostBasedJoin(joinNode, context);
+            if (isAdaptiveJoinDistributionEnabled(context.getSession()) && costBasedJoin instanceof JoinNode) {
+                return Result.ofPlanNode(getObservedSizeBasedJoin(joinNode, (JoinNode) costBasedJoin, context));
+            }
+            return Result.ofPlanNode(costBasedJoin);
         }
         return Result.ofPlanNode(getSyntacticOrderJoin(joinNode, context, joinDistributionType));
     }
@@ -143,6 +163,50 @@ public class DetermineJoinDistributionType
         return planNodeOrderings.min(possibleJoinNodes).getPlanNode();
     }
 
+    /**
+     * Corrects the cost based choice when the build side has run before and its actual size
+     * contradicts the estimate: a build side that turned out too large is no longer broadcast,
+     * and one that turned out small enough is broadcast instead of being partitioned.
+     */
+    private JoinNode getObservedSizeBasedJoin(JoinNode joinNode, JoinNode costBasedJoin, Context context)
+    {
+        Optional<DataSize> joinMaxBroadcastTableSize = getJoinMaxBroadcastTableSize(context.getSession());
+        if (!joinMaxBroadcastTableSize.isPresent() || mustPartition(joinNode) || mustReplicate(joinNode, context)) {
+            return costBasedJoin;
+        }
+
+        Optional<BuildSideKey> buildSideKey = JoinBuildSizeHistory.getBuildSideKey(joinNode, context.getLookup());
+        if (!buildSideKey.isPresent()) {
+            return costBasedJoin;
+        }
+        OptionalLong observedSize = buildSizeHistory.getObservedSize(buildSideKey.get());
+        if (!observedSize.isPresent()) {
+            return costBasedJoin;
+        }
+
+        boolean replicated = costBasedJoin.getDistributionType().get() == REPLICATED;
+        boolean fitsBroadcast = observedSize.getAsLong() <= joinMaxBroadcastTableSize.get().toBytes();
+        JoinNode adjustedJoin;
+        if (replicated && !fitsBroadcast && costBasedJoin.getRight() == joinNode.getRight()) {
+            adjustedJoin = joinNode.withDistributionType(PARTITIONED);
+        }
+        else if (!replicated && fitsBroadcast) {
+            adjustedJoin = joinNode.withDistributionType(REPLICATED);
+        }
+        else {
+            return costBasedJoin;
+        }
+
+        DistributionType distributionType = adjustedJoin.getDistributionType().get();
+        buildSizeHistory.recordAdjustment(distributionType);
+        context.getWarningCollector().add(new PrestoWarning(JOIN_DISTRIBUTION_ADJUSTED, format(
+                "Using %s join for build side over %s, which produced %s in an earlier query",
+                distributionType,
+                buildSideKey.get(),
+                succinctBytes(observedSize.getAsLong()))));
+        return adjustedJoin;
+    }
+
     private JoinNode getSizeBasedJoin(JoinNode joinNode, Context context)
     {
         DataSize joinMaxBroadcastTableSize = getJoinMaxBroadcastTableSize(context.getSession()).get();
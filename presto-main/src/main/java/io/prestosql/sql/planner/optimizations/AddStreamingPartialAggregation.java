@@ -0,0 +1,104 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.sql.planner.optimizations;
+
+import io.prestosql.Session;
+import io.prestosql.execution.warnings.WarningCollector;
+import io.prestosql.metadata.Metadata;
+import io.prestosql.spi.plan.AggregationNode;
+import io.prestosql.spi.plan.PlanNode;
+import io.prestosql.spi.plan.PlanNodeIdAllocator;
+import io.prestosql.sql.planner.PlanSymbolAllocator;
+import io.prestosql.sql.planner.TypeAnalyzer;
+import io.prestosql.sql.planner.TypeProvider;
+import io.prestosql.sql.planner.optimizations.StreamPropertyDerivations.StreamProperties;
+import io.prestosql.sql.planner.plan.SimplePlanRewriter;
+
+import static io.prestosql.SystemSessionProperties.isSnapshotEnabled;
+import static io.prestosql.SystemSessionProperties.isStreamingPartialAggregationEnabled;
+import static io.prestosql.spi.plan.AggregationNode.Step.PARTIAL;
+import static io.prestosql.sql.planner.optimizations.StreamPropertyDerivations.derivePropertiesRecursively;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Marks partial aggregations as streamable when their input is grouped on the grouping keys according to the
+ * local properties of the plan below them, e.g. sorting reported by the connector for its table scans.
+ * Such an aggregation emits every group as soon as the key changes instead of building a hash table.
+ * Since duplicate groups are merged by the final aggregation, the operator can fall back to hash aggregation
+ * when the input turns out not to be grouped at runtime.
+ */
+public class AddStreamingPartialAggregation
+        implements PlanOptimizer
+{
+    private final Metadata metadata;
+    private final TypeAnalyzer typeAnalyzer;
+
+    public AddStreamingPartialAggregation(Metadata metadata, TypeAnalyzer typeAnalyzer)
+    {
+        this.metadata = requireNonNull(metadata, "metadata is null");
+        this.typeAnalyzer = requireNonNull(typeAnalyzer, "typeAnalyzer is null");
+    }
+
+    @Override
+    public PlanNode optimize(PlanNode plan, Session session, TypeProvider types, PlanSymbolAllocator planSymbolAllocator, PlanNodeIdAllocator idAllocator, WarningCollector warningCollector)
+    {
+        if (!isStreamingPartialAggregationEnabled(session) || isSnapshotEnabled(session)) {
+            return plan;
+        }
+        return SimplePlanRewriter.rewriteWith(new Rewriter(session, planSymbolAllocator.getTypes()), plan);
+    }
+
+    private class Rewriter
+            extends SimplePlanRewriter<Void>
+    {
+        private final Session session;
+        private final TypeProvider types;
+
+        private Rewriter(Session session, TypeProvider types)
+        {
+            this.session = session;
+            this.types = types;
+        }
+
+        @Override
+        public PlanNode visitAggregation(AggregationNode node, RewriteContext<Void> context)
+        {
+            AggregationNode rewritten = (AggregationNode) context.defaultRewrite(node);
+            if (rewritten.getStep() != PARTIAL || !rewritten.getPreGroupedSymbols().isEmpty() || rewritten.getHashSymbol().isPresent()) {
+                return rewritten;
+            }
+
+            AggregationNode streaming = new AggregationNode(
+                    rewritten.getId(),
+                    rewritten.getSource(),
+                    rewritten.getAggregations(),
+                    rewritten.getGroupingSets(),
+                    rewritten.getGroupingKeys(),
+                    rewritten.getStep(),
+                    rewritten.getHashSymbol(),
+                    rewritten.getGroupIdSymbol(),
+                    rewritten.getAggregationType(),
+                    rewritten.getFinalizeSymbol());
+            if (!streaming.isStreamable() || streaming.getAggregationType() != AggregationNode.AggregationType.HASH) {
+                return rewritten;
+            }
+
+            StreamProperties properties = derivePropertiesRecursively(rewritten.getSource(), metadata, session, types, typeAnalyzer);
+            if (LocalProperties.match(properties.getLocalProperties(), LocalProperties.grouped(rewritten.getGroupingKeys())).get(0).isPresent()) {
+                return rewritten;
+            }
+            return streaming;
+        }
+    }
+}
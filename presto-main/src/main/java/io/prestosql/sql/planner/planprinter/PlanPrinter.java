@@ -31,7 +31,10 @@ import io.prestosql.execution.StageStats;
 import io.prestosql.execution.TableInfo;
 import io.prestosql.expressions.LogicalRowExpressions;
 import io.prestosql.metadata.Metadata;
+import io.prestosql.operator.OperatorStats;
 import io.prestosql.operator.StageExecutionDescriptor;
+import io.prestosql.operator.output.PartitionedOutputOperator.HotKey;
+import io.prestosql.operator.output.PartitionedOutputOperator.PartitionedOutputInfo;
 import io.prestosql.spi.connector.ColumnHandle;
 import io.prestosql.spi.metadata.TableHandle;
 import io.prestosql.spi.plan.AggregationNode;
@@ -136,6 +139,7 @@ import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Verify.verify;
 import static com.google.common.collect.ImmutableList.toImmutableList;
 import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static io.airlift.units.DataSize.succinctBytes;
 import static io.prestosql.execution.StageInfo.getAllStages;
 import static io.prestosql.operator.StageExecutionDescriptor.ungroupedExecution;
 import static io.prestosql.spi.operator.ReuseExchangeOperator.STRATEGY.REUSE_STRATEGY_CONSUMER;
@@ -348,6 +352,8 @@ public class PlanPrinter
                     Joiner.on(", ").join(arguments),
                     formatHash(partitioningScheme.getHashColumn())));
         }
+        stageInfo.flatMap(PlanPrinter::getPartitionedOutputInfo)
+                .ifPresent(info -> appendOutputPartitionSkew(builder, info));
         builder.append(indentString(1)).append(format("Stage Execution Strategy: %s\n", fragment.getStageExecutionDescriptor().getStageExecutionStrategy()));
 
         TypeProvider typeProvider = TypeProvider.copyOf(allFragments.stream()
@@ -369,6 +375,43 @@ public class PlanPrinter
         return builder.toString();
     }
 
+    private static Optional<PartitionedOutputInfo> getPartitionedOutputInfo(StageInfo stageInfo)
+    {
+        return stageInfo.getStageStats().getOperatorSummaries().stream()
+                .map(OperatorStats::getInfo)
+                .filter(PartitionedOutputInfo.class::isInstance)
+                .map(PartitionedOutputInfo.class::cast)
+                .reduce(PartitionedOutputInfo::mergeWith);
+    }
+
+    private static void appendOutputPartitionSkew(StringBuilder builder, PartitionedOutputInfo info)
+    {
+        long[] partitionSizes = info.getPartitionSizeInBytes();
+        long totalSize = stream(partitionSizes).sum();
+        if (partitionSizes.length < 2 || totalSize == 0) {
+            return;
+        }
+        long maxSize = stream(partitionSizes).max().getAsLong();
+        double averageSize = (double) totalSize / partitionSizes.length;
+        builder.append(indentString(1))
+                .append(format("Output partitions: max %s, avg. %s (skew %sx)\n",
+                        succinctBytes(maxSize),
+                        succinctBytes((long) averageSize),
+                        formatDouble(maxSize / averageSize)));
+
+        if (!info.getHotKeys().isEmpty()) {
+            builder.append(indentString(1))
+                    .append(format("Hot keys: %s\n", info.getHotKeys().stream()
+                            .map(PlanPrinter::formatHotKey)
+                            .collect(joining(", "))));
+        }
+    }
+
+    private static String formatHotKey(HotKey hotKey)
+    {
+        return format("%s (partition %s, ~%s)", hotKey.getKey(), hotKey.getPartition(), formatPositions(hotKey.getEstimatedRows()));
+    }
+
     public static String graphvizLogicalPlan(PlanNode plan, TypeProvider types)
     {
         // TODO: This should move to something like GraphvizRenderer
@@ -414,7 +414,8 @@ public class LocalQueryRunner
                 heuristicIndexerManager,
                 new RowExpressionDomainTranslator(metadata),
                 new RowExpressionDeterminismEvaluator(metadata),
-                new FilterStatsCalculator(metadata, scalarStatsCalculator, statsNormalizer));
+                new FilterStatsCalculator(metadata, scalarStatsCalculator, statsNormalizer),
+                null);
 
         GlobalSystemConnectorFactory globalSystemConnectorFactory = new GlobalSystemConnectorFactory(ImmutableSet.of(
                 new NodeSystemTable(nodeManager),
@@ -0,0 +1,215 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.block;
+
+import io.airlift.slice.DynamicSliceOutput;
+import io.airlift.slice.Slice;
+import io.hetu.core.transport.block.LightweightBlockEncodingSerde;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockBuilder;
+import io.prestosql.spi.block.BlockEncodingSerde;
+import io.prestosql.spi.block.DictionaryBlock;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+import org.testng.annotations.Test;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.IntegerType.INTEGER;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+
+/**
+ * Time is reported per row. The {@code encodedBytes} counter of {@link #encode} divided by
+ * {@code rows} gives the bytes per row on the wire.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+public class BenchmarkLightweightBlockEncodings
+{
+    private static final BlockEncodingSerde BLOCK_ENCODING_SERDE = createTestMetadataManager().getFunctionAndTypeManager().getBlockEncodingSerde();
+    private static final int POSITIONS = 10_000;
+
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public Slice encode(BenchmarkData data, EncodedSizeCounter counter)
+    {
+        DynamicSliceOutput output = data.getOutput();
+        output.reset();
+        data.getSerde().writeBlock(output, data.getBlock());
+        counter.rows += POSITIONS;
+        counter.encodedBytes += output.size();
+        return output.slice();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public Block decode(BenchmarkData data)
+    {
+        return BLOCK_ENCODING_SERDE.readBlock(data.getEncoded().getInput());
+    }
+
+    @SuppressWarnings("PublicField")
+    @AuxCounters
+    @State(Scope.Thread)
+    public static class EncodedSizeCounter
+    {
+        public long rows;
+        public long encodedBytes;
+    }
+
+    @State(Scope.Thread)
+    public static class BenchmarkData
+    {
+        @Param({"BIGINT_RANDOM", "BIGINT_NARROW", "BIGINT_SORTED", "INTEGER_NARROW", "VARCHAR_LOW_CARDINALITY", "DICTIONARY"})
+        private String dataType = "BIGINT_NARROW";
+
+        @Param({"false", "true"})
+        private boolean lightweightEncodings = true;
+
+        private BlockEncodingSerde serde;
+        private Block block;
+        private Slice encoded;
+        private final DynamicSliceOutput output = new DynamicSliceOutput(POSITIONS * Long.BYTES);
+
+        @Setup
+        public void setup()
+        {
+            serde = lightweightEncodings ? new LightweightBlockEncodingSerde(BLOCK_ENCODING_SERDE) : BLOCK_ENCODING_SERDE;
+            block = createBlock(dataType, new Random(0));
+
+            DynamicSliceOutput encodedOutput = new DynamicSliceOutput(POSITIONS * Long.BYTES);
+            serde.writeBlock(encodedOutput, block);
+            encoded = encodedOutput.slice();
+        }
+
+        private static Block createBlock(String dataType, Random random)
+        {
+            switch (dataType) {
+                case "BIGINT_RANDOM": {
+                    BlockBuilder builder = BIGINT.createBlockBuilder(null, POSITIONS);
+                    for (int i = 0; i < POSITIONS; i++) {
+                        BIGINT.writeLong(builder, random.nextLong());
+                    }
+                    return builder.build();
+                }
+                case "BIGINT_NARROW": {
+                    BlockBuilder builder = BIGINT.createBlockBuilder(null, POSITIONS);
+                    for (int i = 0; i < POSITIONS; i++) {
+                        BIGINT.writeLong(builder, 1_000_000L + random.nextInt(1000));
+                    }
+                    return builder.build();
+                }
+                case "BIGINT_SORTED": {
+                    BlockBuilder builder = BIGINT.createBlockBuilder(null, POSITIONS);
+                    long value = System.currentTimeMillis();
+                    for (int i = 0; i < POSITIONS; i++) {
+                        value += random.nextInt(16);
+                        BIGINT.writeLong(builder, value);
+                    }
+                    return builder.build();
+                }
+                case "INTEGER_NARROW": {
+                    BlockBuilder builder = INTEGER.createBlockBuilder(null, POSITIONS);
+                    for (int i = 0; i < POSITIONS; i++) {
+                        INTEGER.writeLong(builder, random.nextInt(100));
+                    }
+                    return builder.build();
+                }
+                case "VARCHAR_LOW_CARDINALITY": {
+                    BlockBuilder builder = VARCHAR.createBlockBuilder(null, POSITIONS);
+                    for (int i = 0; i < POSITIONS; i++) {
+                        VARCHAR.writeSlice(builder, utf8Slice("status_" + random.nextInt(8)));
+                    }
+                    return builder.build();
+                }
+                case "DICTIONARY": {
+                    BlockBuilder dictionary = VARCHAR.createBlockBuilder(null, 100);
+                    for (int i = 0; i < 100; i++) {
+                        VARCHAR.writeSlice(dictionary, utf8Slice("dictionary_value_" + i));
+                    }
+                    int[] ids = new int[POSITIONS];
+                    for (int i = 0; i < POSITIONS; i++) {
+                        ids[i] = random.nextInt(100);
+                    }
+                    return new DictionaryBlock(dictionary.build(), ids);
+                }
+                default:
+                    throw new IllegalArgumentException("Unsupported data type: " + dataType);
+            }
+        }
+
+        public BlockEncodingSerde getSerde()
+        {
+            return serde;
+        }
+
+        public Block getBlock()
+        {
+            return block;
+        }
+
+        public Slice getEncoded()
+        {
+            return encoded;
+        }
+
+        public DynamicSliceOutput getOutput()
+        {
+            return output;
+        }
+    }
+
+    @Test
+    public void testBenchmark()
+    {
+        BenchmarkData data = new BenchmarkData();
+        data.setup();
+        encode(data, new EncodedSizeCounter());
+        decode(data);
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkLightweightBlockEncodings.class.getSimpleName() + ".*")
+                .build();
+        new Runner(options).run();
+    }
+}
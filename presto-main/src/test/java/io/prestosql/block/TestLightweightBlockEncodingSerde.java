@@ -0,0 +1,150 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.block;
+
+import io.airlift.slice.DynamicSliceOutput;
+import io.hetu.core.transport.block.LightweightBlockEncodingSerde;
+import io.hetu.core.transport.block.PackedDictionaryBlockEncoding;
+import io.hetu.core.transport.block.PackedIntArrayBlockEncoding;
+import io.hetu.core.transport.block.PackedLongArrayBlockEncoding;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockEncodingSerde;
+import io.prestosql.spi.block.DictionaryBlock;
+import io.prestosql.spi.block.IntArrayBlockEncoding;
+import io.prestosql.spi.block.LongArrayBlockEncoding;
+import io.prestosql.spi.block.RunLengthBlockEncoding;
+import io.prestosql.spi.block.VariableWidthBlockEncoding;
+import io.prestosql.spi.type.Type;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static io.prestosql.block.BlockAssertions.assertBlockEquals;
+import static io.prestosql.block.BlockAssertions.createEmptyLongsBlock;
+import static io.prestosql.block.BlockAssertions.createIntsBlock;
+import static io.prestosql.block.BlockAssertions.createLongDictionaryBlock;
+import static io.prestosql.block.BlockAssertions.createLongSequenceBlock;
+import static io.prestosql.block.BlockAssertions.createLongsBlock;
+import static io.prestosql.block.BlockAssertions.createStringsBlock;
+import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.IntegerType.INTEGER;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestLightweightBlockEncodingSerde
+{
+    private static final BlockEncodingSerde BLOCK_ENCODING_SERDE = createTestMetadataManager().getFunctionAndTypeManager().getBlockEncodingSerde();
+    private static final BlockEncodingSerde LIGHTWEIGHT_BLOCK_ENCODING_SERDE = new LightweightBlockEncodingSerde(BLOCK_ENCODING_SERDE);
+
+    @Test
+    public void testLongs()
+    {
+        assertRoundTrip(BIGINT, createLongSequenceBlock(0, 1000), PackedLongArrayBlockEncoding.NAME);
+        assertRoundTrip(BIGINT, createLongsBlock(5L, null, 7L, 5L, null, 1000L, 6L, 5L, 5L), PackedLongArrayBlockEncoding.NAME);
+        assertRoundTrip(BIGINT, createLongsBlock(repeat(42L, 1000)), PackedLongArrayBlockEncoding.NAME);
+        assertRoundTrip(BIGINT, createLongsBlock(Long.MIN_VALUE, Long.MAX_VALUE, 0L, -1L, 1L), LongArrayBlockEncoding.NAME);
+        assertRoundTrip(BIGINT, createEmptyLongsBlock(), RunLengthBlockEncoding.NAME);
+
+        Random random = new Random(0);
+        List<Long> values = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            values.add(random.nextInt(100) == 0 ? null : 1_000_000_000L + random.nextInt(1 << 20));
+        }
+        assertRoundTrip(BIGINT, createLongsBlock(values), PackedLongArrayBlockEncoding.NAME);
+    }
+
+    @Test
+    public void testLongsDelta()
+    {
+        List<Long> values = new ArrayList<>();
+        long value = Long.MIN_VALUE;
+        for (int i = 0; i < 1000; i++) {
+            values.add(value);
+            value += Integer.MAX_VALUE + (i % 3);
+        }
+        assertRoundTrip(BIGINT, createLongsBlock(values), PackedLongArrayBlockEncoding.NAME);
+    }
+
+    @Test
+    public void testInts()
+    {
+        List<Integer> values = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            values.add(i % 10 == 0 ? null : i % 100 - 50);
+        }
+        assertRoundTrip(INTEGER, createIntsBlock(values), PackedIntArrayBlockEncoding.NAME);
+        assertRoundTrip(INTEGER, createIntsBlock(Integer.MIN_VALUE, Integer.MAX_VALUE, -1, 0, 1, null), IntArrayBlockEncoding.NAME);
+    }
+
+    @Test
+    public void testDictionary()
+    {
+        assertRoundTrip(BIGINT, createLongDictionaryBlock(0, 1000), PackedDictionaryBlockEncoding.NAME);
+
+        Block dictionary = createLongsBlock(7L, 11L, 13L, null);
+        int[] ids = new int[500];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = i % 4;
+        }
+        assertRoundTrip(BIGINT, new DictionaryBlock(dictionary, ids), PackedDictionaryBlockEncoding.NAME);
+    }
+
+    @Test
+    public void testVariableWidth()
+    {
+        List<String> values = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            values.add(i % 10 == 0 ? null : "value_" + (i % 7));
+        }
+        assertRoundTrip(VARCHAR, createStringsBlock(values), PackedDictionaryBlockEncoding.NAME);
+
+        values.clear();
+        for (int i = 0; i < 1000; i++) {
+            values.add("distinct_" + i);
+        }
+        assertRoundTrip(VARCHAR, createStringsBlock(values), VariableWidthBlockEncoding.NAME);
+        assertRoundTrip(VARCHAR, createStringsBlock("a", "b", null), VariableWidthBlockEncoding.NAME);
+    }
+
+    private static void assertRoundTrip(Type type, Block block, String expectedEncoding)
+    {
+        DynamicSliceOutput output = new DynamicSliceOutput(1024);
+        LIGHTWEIGHT_BLOCK_ENCODING_SERDE.writeBlock(output, block);
+        Block actual = BLOCK_ENCODING_SERDE.readBlock(output.slice().getInput());
+        assertBlockEquals(type, actual, block);
+
+        int nameLength = output.slice().getInt(0);
+        assertEquals(output.slice().toString(Integer.BYTES, nameLength, UTF_8), expectedEncoding);
+
+        if (!expectedEncoding.equals(block.getEncodingName())) {
+            DynamicSliceOutput plainOutput = new DynamicSliceOutput(1024);
+            BLOCK_ENCODING_SERDE.writeBlock(plainOutput, block);
+            assertTrue(output.size() < plainOutput.size(), "lightweight encoding is not smaller");
+        }
+    }
+
+    private static List<Long> repeat(Long value, int count)
+    {
+        List<Long> values = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            values.add(value);
+        }
+        return values;
+    }
+}
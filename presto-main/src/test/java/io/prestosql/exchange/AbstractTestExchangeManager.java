@@ -27,10 +27,12 @@ import org.testng.annotations.Test;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.ExecutionException;
 import java.util.function.Function;
 
 import static com.google.common.collect.ImmutableMap.toImmutableMap;
+import static com.google.common.collect.Iterables.getOnlyElement;
 import static io.airlift.concurrent.MoreFutures.getFutureValue;
 import static io.airlift.units.DataSize.Unit.BYTE;
 import static io.airlift.units.DataSize.Unit.KILOBYTE;
@@ -216,6 +218,49 @@ public abstract class AbstractTestExchangeManager
                 .containsExactlyInAnyOrder(smallPage, mediumPage, largePage, maxPage);
     }
 
+    @Test
+    public void testSplit()
+            throws ExecutionException, InterruptedException
+    {
+        Exchange exchange = exchangeManager.createExchange(new ExchangeContext(new QueryId("query"), createRandomExchangeId()), 1);
+        List<ExchangeSinkHandle> sinkHandles = ImmutableList.of(exchange.addSink(0), exchange.addSink(1), exchange.addSink(2));
+        exchange.noMoreSinks();
+        for (int i = 0; i < sinkHandles.size(); i++) {
+            ExchangeSinkInstanceHandle sinkInstanceHandle = exchange.instantiateSink(sinkHandles.get(i), 0);
+            writeData(sinkInstanceHandle, ImmutableMultimap.of(0, repeatString("x", 1000) + i), true);
+            exchange.sinkFinished(sinkInstanceHandle);
+        }
+
+        ExchangeSourceHandle partition = getOnlyElement(exchange.getSourceHandles().get());
+        long partitionSize = exchange.getExchangeSourceStatistics(partition).getSizeInBytes();
+
+        List<ExchangeSourceHandle> singleFileHandles = split(exchange, partition, 1);
+        assertThat(singleFileHandles).hasSize(3);
+        assertThat(singleFileHandles.stream().mapToLong(handle -> exchange.getExchangeSourceStatistics(handle).getSizeInBytes()).sum())
+                .isEqualTo(partitionSize);
+        assertThat(readData(singleFileHandles))
+                .containsExactlyInAnyOrder(repeatString("x", 1000) + 0, repeatString("x", 1000) + 1, repeatString("x", 1000) + 2);
+
+        // every file is a handle of its own whatever the target size, the scheduler packs them into tasks
+        assertThat(split(exchange, partition, partitionSize)).hasSize(3);
+        assertThat(split(exchange, partition, 2 * partitionSize)).hasSize(3);
+
+        exchange.close();
+    }
+
+    private static List<ExchangeSourceHandle> split(Exchange exchange, ExchangeSourceHandle handle, long targetSizeInBytes)
+    {
+        ImmutableList.Builder<ExchangeSourceHandle> result = ImmutableList.builder();
+        try (ExchangeSourceSplitter splitter = exchange.split(handle, targetSizeInBytes)) {
+            Optional<ExchangeSourceHandle> next = splitter.getNext();
+            while (next.isPresent()) {
+                result.add(next.get());
+                next = splitter.getNext();
+            }
+        }
+        return result.build();
+    }
+
     @Test
     public void testMaxOutputPartitionCountCheck()
     {
@@ -36,6 +36,7 @@ public class TestNodeSchedulerConfig
                 .setMaxPendingSplitsPerTask(10)
                 .setIncludeCoordinator(true)
                 .setOptimizedLocalScheduling(true)
+                .setCacheAffinitySchedulingEnabled(false)
                 .setAllowedNoMatchingNodePeriod(new Duration(2, TimeUnit.MINUTES))
                 .setNodeAllocatorType("bin_packing"));
     }
@@ -50,6 +51,7 @@ public class TestNodeSchedulerConfig
                 .put("node-scheduler.max-pending-splits-per-task", "11")
                 .put("node-scheduler.max-splits-per-node", "101")
                 .put("node-scheduler.optimized-local-scheduling", "false")
+                .put("node-scheduler.cache-affinity-scheduling-enabled", "true")
                 .put("node-scheduler.allowed-no-matching-node-period", "3m")
                 .put("node-scheduler.allocator-type", "fixed_count")
                 .build();
@@ -61,6 +63,7 @@ public class TestNodeSchedulerConfig
                 .setMaxPendingSplitsPerTask(11)
                 .setMinCandidates(11)
                 .setOptimizedLocalScheduling(false)
+                .setCacheAffinitySchedulingEnabled(true)
                 .setAllowedNoMatchingNodePeriod(new Duration(3, TimeUnit.MINUTES))
                 .setNodeAllocatorType("fixed_count");
 
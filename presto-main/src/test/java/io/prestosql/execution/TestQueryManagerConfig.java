@@ -65,6 +65,7 @@ public class TestQueryManagerConfig
                 .setFaultTolerantExecutionTargetTaskInputSize(new DataSize(4, GIGABYTE))
                 .setFaultTolerantExecutionTargetTaskSplitCount(64)
                 .setFaultTolerantPreserveInputPartitionsInWriteStage(true)
+                .setFaultTolerantExecutionAdaptivePartitioningEnabled(false)
                 .setFaultTolerantExecutionMinTaskSplitCount(16)
                 .setFaultTolerantExecutionMaxTaskSplitCount(256)
                 .setFaultTolerantExecutionPartitionCount(50)
@@ -109,6 +110,7 @@ public class TestQueryManagerConfig
                 .put("fault-tolerant-execution-target-task-input-size", "5GB")
                 .put("fault-tolerant-execution-target-task-split-count", "65")
                 .put("fault-tolerant-execution-preserve-input-partitions-in-write-stage", "false")
+                .put("fault-tolerant-execution-adaptive-partitioning-enabled", "true")
                 .put("fault-tolerant-execution-min-task-split-count", "17")
                 .put("fault-tolerant-execution-max-task-split-count", "257")
                 .put("fault-tolerant-execution-partition-count", "51")
@@ -150,6 +152,7 @@ public class TestQueryManagerConfig
                 .setFaultTolerantExecutionTargetTaskInputSize(new DataSize(5, GIGABYTE))
                 .setFaultTolerantExecutionTargetTaskSplitCount(65)
                 .setFaultTolerantPreserveInputPartitionsInWriteStage(false)
+                .setFaultTolerantExecutionAdaptivePartitioningEnabled(true)
                 .setFaultTolerantExecutionMinTaskSplitCount(17)
                 .setFaultTolerantExecutionMaxTaskSplitCount(257)
                 .setFaultTolerantExecutionPartitionCount(51)
@@ -237,6 +237,9 @@ public class TestQueryStats
             new DataSize(30, BYTE),
             new DataSize(30, BYTE),
 
+            31,
+            new DataSize(32, BYTE),
+
             ImmutableList.of(new StageGcStatistics(
                     101,
                     102,
@@ -324,6 +327,9 @@ public class TestQueryStats
 
         assertEquals(actual.getPhysicalWrittenDataSize(), new DataSize(30, BYTE));
 
+        assertEquals(actual.getDynamicFilterPrunedSplits(), 31);
+        assertEquals(actual.getDynamicFilterPrunedDataSize(), new DataSize(32, BYTE));
+
         assertEquals(actual.getStageGcStatistics().size(), 1);
         StageGcStatistics gcStatistics = actual.getStageGcStatistics().get(0);
         assertEquals(gcStatistics.getStageId(), 101);
@@ -91,6 +91,9 @@ public class TestStageStats
             new DataSize(26, BYTE),
             new DataSize(26, BYTE),
 
+            27,
+            new DataSize(28, BYTE),
+
             new StageGcStatistics(
                     101,
                     102,
@@ -162,6 +165,9 @@ public class TestStageStats
 
         assertEquals(actual.getPhysicalWrittenDataSize(), new DataSize(26, BYTE));
 
+        assertEquals(actual.getDynamicFilterPrunedSplits(), 27);
+        assertEquals(actual.getDynamicFilterPrunedDataSize(), new DataSize(28, BYTE));
+
         assertEquals(actual.getGcInfo().getStageId(), 101);
         assertEquals(actual.getGcInfo().getTasks(), 102);
         assertEquals(actual.getGcInfo().getFullGcTasks(), 103);
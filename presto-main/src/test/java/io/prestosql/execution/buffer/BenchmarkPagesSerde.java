@@ -0,0 +1,188 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.execution.buffer;
+
+import com.google.common.collect.ImmutableList;
+import io.airlift.tpch.LineItem;
+import io.airlift.tpch.LineItemGenerator;
+import io.hetu.core.transport.execution.buffer.PagesSerde;
+import io.hetu.core.transport.execution.buffer.PagesSerdeFactory;
+import io.hetu.core.transport.execution.buffer.SerializedPage;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.PageBuilder;
+import io.prestosql.spi.block.BlockEncodingSerde;
+import io.prestosql.spi.type.Type;
+import io.prestosql.spiller.AesSpillCipher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+import org.testng.annotations.Test;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.DoubleType.DOUBLE;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static io.prestosql.spi.type.VarcharType.createUnboundedVarcharType;
+
+/**
+ * Run with the GC profiler (enabled in {@link #main}) and compare {@code gc.alloc.rate.norm},
+ * which is reported per page because every operation is normalized by {@link OperationsPerInvocation}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+public class BenchmarkPagesSerde
+{
+    private static final List<Type> TYPES = ImmutableList.of(BIGINT, BIGINT, DOUBLE, createUnboundedVarcharType(), DOUBLE);
+    private static final BlockEncodingSerde BLOCK_ENCODING_SERDE = createTestMetadataManager().getFunctionAndTypeManager().getBlockEncodingSerde();
+    private static final int PAGES_COUNT = 16;
+
+    @Benchmark
+    @OperationsPerInvocation(PAGES_COUNT)
+    public long serialize(BenchmarkData data)
+    {
+        long serializedBytes = 0;
+        for (Page page : data.getPages()) {
+            serializedBytes += data.getSerde().serialize(page).getSizeInBytes();
+        }
+        return serializedBytes;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAGES_COUNT)
+    public long deserialize(BenchmarkData data)
+    {
+        long positionCount = 0;
+        for (SerializedPage page : data.getSerializedPages()) {
+            positionCount += data.getSerde().deserialize(page).getPositionCount();
+        }
+        return positionCount;
+    }
+
+    @State(Scope.Thread)
+    public static class BenchmarkData
+    {
+        @Param("10000")
+        private int rowsPerPage = 10000;
+
+        @Param({"false", "true"})
+        private boolean compressionEnabled;
+
+        @Param({"false", "true"})
+        private boolean encryptionEnabled;
+
+        @Param({"false", "true"})
+        private boolean pooledBuffersEnabled;
+
+        private PagesSerde serde;
+        private List<Page> pages;
+        private List<SerializedPage> serializedPages;
+
+        @Setup
+        public void setup()
+        {
+            serde = new PagesSerdeFactory(BLOCK_ENCODING_SERDE, compressionEnabled, pooledBuffersEnabled)
+                    .createDirectPagesSerde(encryptionEnabled ? Optional.of(new AesSpillCipher()) : Optional.empty(), false, false);
+            pages = createInputPages();
+
+            ImmutableList.Builder<SerializedPage> builder = ImmutableList.builder();
+            for (Page page : pages) {
+                builder.add(serde.serialize(page));
+            }
+            serializedPages = builder.build();
+        }
+
+        private List<Page> createInputPages()
+        {
+            ImmutableList.Builder<Page> builder = ImmutableList.builder();
+
+            PageBuilder pageBuilder = new PageBuilder(TYPES);
+            Iterator<LineItem> iterator = new LineItemGenerator(1, 1, 1).iterator();
+            for (int j = 0; j < PAGES_COUNT; j++) {
+                for (int i = 0; i < rowsPerPage; i++) {
+                    pageBuilder.declarePosition();
+
+                    LineItem lineItem = iterator.next();
+                    BIGINT.writeLong(pageBuilder.getBlockBuilder(0), lineItem.getOrderKey());
+                    BIGINT.writeLong(pageBuilder.getBlockBuilder(1), lineItem.getDiscountPercent());
+                    DOUBLE.writeDouble(pageBuilder.getBlockBuilder(2), lineItem.getDiscount());
+                    VARCHAR.writeString(pageBuilder.getBlockBuilder(3), lineItem.getReturnFlag());
+                    DOUBLE.writeDouble(pageBuilder.getBlockBuilder(4), lineItem.getExtendedPrice());
+                }
+                builder.add(pageBuilder.build());
+                pageBuilder.reset();
+            }
+
+            return builder.build();
+        }
+
+        public PagesSerde getSerde()
+        {
+            return serde;
+        }
+
+        public List<Page> getPages()
+        {
+            return pages;
+        }
+
+        public List<SerializedPage> getSerializedPages()
+        {
+            return serializedPages;
+        }
+    }
+
+    @Test
+    public void testBenchmark()
+    {
+        BenchmarkData data = new BenchmarkData();
+        data.setup();
+        serialize(data);
+        deserialize(data);
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkPagesSerde.class.getSimpleName() + ".*")
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
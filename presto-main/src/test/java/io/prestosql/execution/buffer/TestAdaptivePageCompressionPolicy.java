@@ -0,0 +1,78 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.execution.buffer;
+
+import com.google.common.collect.ImmutableList;
+import io.hetu.core.transport.execution.buffer.AdaptivePageCompressionPolicy;
+import io.hetu.core.transport.execution.buffer.PageCompressionCodec;
+import io.hetu.core.transport.execution.buffer.PageCompressionStats;
+import org.testng.annotations.Test;
+
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+import static io.hetu.core.transport.execution.buffer.PageCompressionCodec.LZ4;
+import static io.hetu.core.transport.execution.buffer.PageCompressionCodec.NONE;
+import static io.hetu.core.transport.execution.buffer.PageCompressionCodec.ZSTD;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestAdaptivePageCompressionPolicy
+{
+    private static final long MEGABYTE = 1024 * 1024;
+
+    @Test
+    public void testSlowNetworkPrefersBetterRatio()
+    {
+        // 10MB/s network: 100ns per byte on the wire
+        AdaptivePageCompressionPolicy policy = new AdaptivePageCompressionPolicy(ImmutableList.of(LZ4, ZSTD), 10 * MEGABYTE, Optional.empty());
+        policy.record(LZ4, MEGABYTE, MEGABYTE / 2, MEGABYTE);
+        policy.record(ZSTD, MEGABYTE, MEGABYTE / 4, 5 * MEGABYTE);
+        assertEquals(policy.getCurrentCodec(), ZSTD);
+    }
+
+    @Test
+    public void testFastNetworkPrefersCheaperCodec()
+    {
+        // 1GB/s network: ~1ns per byte on the wire
+        AdaptivePageCompressionPolicy policy = new AdaptivePageCompressionPolicy(ImmutableList.of(LZ4, ZSTD), 1024 * MEGABYTE, Optional.empty());
+        policy.record(LZ4, MEGABYTE, MEGABYTE / 2, MEGABYTE / 4);
+        policy.record(ZSTD, MEGABYTE, MEGABYTE / 4, 5 * MEGABYTE);
+        assertEquals(policy.getCurrentCodec(), LZ4);
+    }
+
+    @Test
+    public void testDisablesCompressionWhenNotWorthIt()
+    {
+        PageCompressionStats stats = new PageCompressionStats();
+        AdaptivePageCompressionPolicy policy = new AdaptivePageCompressionPolicy(ImmutableList.of(LZ4), 1024 * MEGABYTE, Optional.of(stats));
+        policy.record(LZ4, MEGABYTE, MEGABYTE, 2 * MEGABYTE);
+        assertEquals(policy.getCurrentCodec(), NONE);
+        assertEquals(stats.getPages(LZ4), 1);
+        assertEquals(stats.getCompressedPages(LZ4), 0);
+
+        // compression keeps being sampled and is enabled again once it pays off
+        Set<PageCompressionCodec> codecs = new HashSet<>();
+        for (int i = 0; i < 200; i++) {
+            codecs.add(policy.nextCodec());
+        }
+        assertTrue(codecs.contains(LZ4));
+        assertTrue(codecs.contains(NONE));
+        for (int i = 0; i < 10; i++) {
+            policy.record(LZ4, MEGABYTE, MEGABYTE / 10, MEGABYTE / 10);
+        }
+        assertEquals(policy.getCurrentCodec(), LZ4);
+    }
+}
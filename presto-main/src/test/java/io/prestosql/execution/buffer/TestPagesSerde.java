@@ -16,24 +16,35 @@ package io.prestosql.execution.buffer;
 import com.google.common.collect.ImmutableList;
 import io.airlift.slice.DynamicSliceOutput;
 import io.airlift.slice.Slice;
+import io.hetu.core.transport.execution.buffer.FixedPageCompressionPolicy;
+import io.hetu.core.transport.execution.buffer.PageCompressionCodec;
+import io.hetu.core.transport.execution.buffer.PageCompressionStats;
 import io.hetu.core.transport.execution.buffer.PagesSerde;
+import io.hetu.core.transport.execution.buffer.PagesSerdeFactory;
+import io.hetu.core.transport.execution.buffer.SerializedPage;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.block.Block;
 import io.prestosql.spi.block.BlockBuilder;
+import io.prestosql.spi.block.BlockEncodingSerde;
 import io.prestosql.spi.type.Type;
+import io.prestosql.spiller.AesSpillCipher;
 import io.prestosql.testing.TestingPagesSerdeFactory;
 import org.testng.annotations.Test;
 
 import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static io.hetu.core.transport.execution.buffer.PagesSerdeUtil.readPages;
 import static io.hetu.core.transport.execution.buffer.PagesSerdeUtil.writePages;
+import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
 import static io.prestosql.operator.PageAssertions.assertPageEquals;
 import static io.prestosql.spi.type.BigintType.BIGINT;
 import static io.prestosql.spi.type.VarcharType.VARCHAR;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 public class TestPagesSerde
 {
@@ -61,6 +72,68 @@ public class TestPagesSerde
         assertFalse(pageIterator.hasNext());
     }
 
+    @Test
+    public void testPooledBuffersRoundTrip()
+    {
+        PagesSerdeFactory serdeFactory = new PagesSerdeFactory(createTestMetadataManager().getFunctionAndTypeManager().getBlockEncodingSerde(), true, true);
+        for (boolean encrypted : new boolean[] {false, true}) {
+            PagesSerde serde = serdeFactory.createDirectPagesSerde(encrypted ? Optional.of(new AesSpillCipher()) : Optional.empty(), false, false);
+            assertTrue(serde.isPooledBuffersEnabled());
+            AtomicLong retainedSize = new AtomicLong(-1);
+            serde.setRetainedSizeListener(retainedSize::set);
+            assertEquals(retainedSize.get(), 0);
+
+            List<Type> types = ImmutableList.of(BIGINT, VARCHAR);
+            Page firstPage = createBigintVarcharPage(0, 1000, "first");
+            Page secondPage = createBigintVarcharPage(1000, 10, "second");
+
+            // serializing another page must not overwrite the bytes of an already serialized page
+            SerializedPage firstSerialized = serde.serialize(firstPage);
+            SerializedPage secondSerialized = serde.serialize(secondPage);
+            assertEquals(firstSerialized.isEncrypted(), encrypted);
+            assertTrue(retainedSize.get() > 0);
+            assertEquals(retainedSize.get(), serde.getRetainedSizeInBytes());
+
+            Page firstDeserialized = serde.deserialize(firstSerialized);
+            Page secondDeserialized = serde.deserialize(secondSerialized);
+            assertPageEquals(types, firstDeserialized, firstPage);
+            assertPageEquals(types, secondDeserialized, secondPage);
+        }
+    }
+
+    @Test
+    public void testCompressionCodecs()
+    {
+        BlockEncodingSerde blockEncodingSerde = createTestMetadataManager().getFunctionAndTypeManager().getBlockEncodingSerde();
+        PagesSerde reader = new PagesSerdeFactory(blockEncodingSerde, false).createPagesSerde();
+        List<Type> types = ImmutableList.of(BIGINT, VARCHAR);
+        Page page = createBigintVarcharPage(0, 1000, "value");
+        for (PageCompressionCodec codec : PageCompressionCodec.values()) {
+            PageCompressionStats stats = new PageCompressionStats();
+            PagesSerde writer = new PagesSerdeFactory(blockEncodingSerde, new FixedPageCompressionPolicy(codec, Optional.of(stats)), false).createPagesSerde();
+
+            SerializedPage serialized = writer.serialize(page);
+            assertEquals(serialized.getCompressionCodec(), codec);
+            assertEquals(serialized.isCompressed(), codec != PageCompressionCodec.NONE);
+            assertEquals(stats.getPages(codec), 1);
+            assertEquals(stats.getOutputBytes(codec), serialized.getSizeInBytes());
+
+            // the codec is recorded in the page, so any serde can read it
+            assertPageEquals(types, reader.deserialize(serialized), page);
+        }
+    }
+
+    private static Page createBigintVarcharPage(int start, int positionCount, String value)
+    {
+        BlockBuilder bigintBuilder = BIGINT.createBlockBuilder(null, positionCount);
+        BlockBuilder varcharBuilder = VARCHAR.createBlockBuilder(null, positionCount);
+        for (int i = start; i < start + positionCount; i++) {
+            BIGINT.writeLong(bigintBuilder, i % 7);
+            VARCHAR.writeString(varcharBuilder, value + i % 3);
+        }
+        return new Page(bigintBuilder.build(), varcharBuilder.build());
+    }
+
     @Test
     public void testBigintSerializedSize()
     {
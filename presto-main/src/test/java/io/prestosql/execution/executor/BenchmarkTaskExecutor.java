@@ -0,0 +1,189 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.execution.executor;
+
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.airlift.units.Duration;
+import io.prestosql.execution.SplitRunner;
+import io.prestosql.execution.TaskId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Drives trivial splits (splits that finish in a single quanta) through the task executor, so the
+ * result is dominated by split dispatch. The score is reported in splits per second.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(2)
+@Warmup(iterations = 10, time = 500, timeUnit = MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = MILLISECONDS)
+@BenchmarkMode(Mode.Throughput)
+public class BenchmarkTaskExecutor
+{
+    private static final int TASKS = 16;
+    private static final int SPLITS_PER_TASK = 1_000;
+    private static final int TOTAL_SPLITS = TASKS * SPLITS_PER_TASK;
+
+    @Benchmark
+    @OperationsPerInvocation(TOTAL_SPLITS)
+    public int runSplits(BenchmarkData data)
+            throws Exception
+    {
+        TaskExecutor taskExecutor = data.getTaskExecutor();
+        List<TaskHandle> taskHandles = new ArrayList<>(TASKS);
+        List<ListenableFuture<?>> futures = new ArrayList<>(TOTAL_SPLITS);
+        for (int task = 0; task < TASKS; task++) {
+            TaskHandle taskHandle = taskExecutor.addTask(new TaskId("benchmark", 0, task, 0), () -> 0, 10, new Duration(1, MILLISECONDS), OptionalInt.empty(), 1);
+            taskHandles.add(taskHandle);
+
+            ImmutableList.Builder<SplitRunner> splits = ImmutableList.builder();
+            for (int split = 0; split < SPLITS_PER_TASK; split++) {
+                splits.add(new TrivialSplit());
+            }
+            futures.addAll(taskExecutor.enqueueSplits(taskHandle, false, splits.build()));
+        }
+
+        Futures.allAsList(futures).get();
+        taskHandles.forEach(taskExecutor::removeTask);
+        return futures.size();
+    }
+
+    @State(Scope.Thread)
+    public static class BenchmarkData
+    {
+        @Param({"multilevel", "work-stealing"})
+        private String splitQueue = "multilevel";
+
+        @Param("16")
+        private int runnerThreads = 16;
+
+        private TaskExecutor taskExecutor;
+
+        @Setup
+        public void setup()
+        {
+            MultilevelSplitQueue queue;
+            switch (splitQueue) {
+                case "multilevel":
+                    queue = new MultilevelSplitQueue(2);
+                    break;
+                case "work-stealing":
+                    queue = new WorkStealingSplitQueue(2);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unsupported split queue: " + splitQueue);
+            }
+            taskExecutor = new TaskExecutor(runnerThreads, runnerThreads * 2, 3, Integer.MAX_VALUE, queue, Ticker.systemTicker());
+            taskExecutor.start();
+        }
+
+        @TearDown
+        public void tearDown()
+        {
+            taskExecutor.stop();
+        }
+
+        public TaskExecutor getTaskExecutor()
+        {
+            return taskExecutor;
+        }
+    }
+
+    private static class TrivialSplit
+            implements SplitRunner
+    {
+        private volatile boolean finished;
+
+        @Override
+        public ListenableFuture<?> processFor(Duration duration)
+        {
+            finished = true;
+            return Futures.immediateFuture(null);
+        }
+
+        @Override
+        public String getInfo()
+        {
+            return "trivial-split";
+        }
+
+        @Override
+        public boolean isFinished()
+        {
+            return finished;
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+
+    @Test
+    public void verify()
+            throws Exception
+    {
+        for (String splitQueue : ImmutableList.of("multilevel", "work-stealing")) {
+            BenchmarkData data = new BenchmarkData();
+            data.splitQueue = splitQueue;
+            data.setup();
+            try {
+                assertEquals(runSplits(data), TOTAL_SPLITS);
+                assertEquals(data.getTaskExecutor().getTotalSplits(), 0);
+            }
+            finally {
+                data.tearDown();
+            }
+        }
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkTaskExecutor.class.getSimpleName() + ".*")
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -21,8 +21,10 @@ import io.airlift.testing.TestingTicker;
 import io.airlift.units.Duration;
 import io.prestosql.execution.SplitRunner;
 import io.prestosql.execution.TaskId;
+import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.OptionalInt;
@@ -371,11 +373,16 @@ public class TestTaskExecutor
         }
     }
 
-    @Test(timeOut = 30_000)
-    public void testMinMaxDriversPerTask()
+    @DataProvider
+    public static Object[][] splitQueues()
+    {
+        return new Object[][] {{new MultilevelSplitQueue(2)}, {new WorkStealingSplitQueue(2)}};
+    }
+
+    @Test(timeOut = 30_000, dataProvider = "splitQueues")
+    public void testMinMaxDriversPerTask(MultilevelSplitQueue splitQueue)
     {
         int maxDriversPerTask = 2;
-        MultilevelSplitQueue splitQueue = new MultilevelSplitQueue(2);
         TestingTicker ticker = new TestingTicker();
         TaskExecutor taskExecutor = new TaskExecutor(4, 16, 1, maxDriversPerTask, splitQueue, ticker);
         taskExecutor.start();
@@ -411,10 +418,9 @@ public class TestTaskExecutor
         }
     }
 
-    @Test(timeOut = 30_000)
-    public void testUserSpecifiedMaxDriversPerTask()
+    @Test(timeOut = 30_000, dataProvider = "splitQueues")
+    public void testUserSpecifiedMaxDriversPerTask(MultilevelSplitQueue splitQueue)
     {
-        MultilevelSplitQueue splitQueue = new MultilevelSplitQueue(2);
         TestingTicker ticker = new TestingTicker();
         // create a task executor with min/max drivers per task to be 2 and 4
         TaskExecutor taskExecutor = new TaskExecutor(4, 16, 2, 4, splitQueue, ticker);
@@ -450,6 +456,41 @@ public class TestTaskExecutor
         }
     }
 
+    @Test(timeOut = 30_000)
+    public void testWorkStealingTasksComplete()
+            throws Exception
+    {
+        WorkStealingSplitQueue splitQueue = new WorkStealingSplitQueue(2);
+        TaskExecutor taskExecutor = new TaskExecutor(4, 8, 3, 4, splitQueue, new TestingTicker());
+        taskExecutor.start();
+        try {
+            List<ListenableFuture<?>> futures = new ArrayList<>();
+            List<TaskHandle> taskHandles = new ArrayList<>();
+            for (int task = 0; task < 4; task++) {
+                TaskHandle taskHandle = taskExecutor.addTask(new TaskId("test" + task, 0, 0, 0), () -> 0, 10, new Duration(1, MILLISECONDS), OptionalInt.empty(), 1);
+                taskHandles.add(taskHandle);
+
+                ImmutableList.Builder<SplitRunner> splits = ImmutableList.builder();
+                for (int split = 0; split < 50; split++) {
+                    splits.add(new YieldingJob(5));
+                }
+                // intermediate splits are queued by the runner threads as they yield, leaf splits are started by the executor
+                futures.addAll(taskExecutor.enqueueSplits(taskHandle, task % 2 == 0, splits.build()));
+            }
+
+            Futures.allAsList(futures).get();
+            taskHandles.forEach(taskExecutor::removeTask);
+
+            assertEquals(splitQueue.size(), 0);
+            long taken = splitQueue.getLocalSplitsTaken().getTotalCount() + splitQueue.getSharedSplitsTaken().getTotalCount() + splitQueue.getStolenSplits().getTotalCount();
+            // each split is taken once for every quanta
+            assertEquals(taken, 4 * 50 * 5);
+        }
+        finally {
+            taskExecutor.stop();
+        }
+    }
+
     private void assertSplitStates(int endIndex, TestingJob[] splits)
     {
         // assert that splits up to and including endIndex are all started
@@ -476,6 +517,41 @@ public class TestTaskExecutor
         }
     }
 
+    private static class YieldingJob
+            implements SplitRunner
+    {
+        private final AtomicInteger remainingQuanta;
+
+        public YieldingJob(int quanta)
+        {
+            this.remainingQuanta = new AtomicInteger(quanta);
+        }
+
+        @Override
+        public ListenableFuture<?> processFor(Duration duration)
+        {
+            remainingQuanta.decrementAndGet();
+            return Futures.immediateFuture(null);
+        }
+
+        @Override
+        public String getInfo()
+        {
+            return "yielding-split";
+        }
+
+        @Override
+        public boolean isFinished()
+        {
+            return remainingQuanta.get() <= 0;
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+
     private static class TestingJob
             implements SplitRunner
     {
@@ -102,6 +102,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadLocalRandom;
 
+import static com.google.common.collect.Iterables.getOnlyElement;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.prestosql.SessionTestUtils.TEST_SESSION;
 import static io.prestosql.SessionTestUtils.TEST_SESSION_REUSE;
@@ -438,6 +439,81 @@ public class TestNodeScheduler
         assertTrue(nodeIdToSplits.get(splitCacheMap.getCachedNodeId(split3Key).get()).contains(split3));
     }
 
+    @Test
+    public void testCacheAffinityScheduling()
+    {
+        setUpNodes();
+        NodeSchedulerConfig nodeSchedulerConfig = new NodeSchedulerConfig()
+                .setMaxSplitsPerNode(20)
+                .setIncludeCoordinator(false)
+                .setMaxPendingSplitsPerTask(10)
+                .setCacheAffinitySchedulingEnabled(true);
+
+        NodeScheduler nodeScheduler = new NodeScheduler(new LegacyNetworkTopology(), nodeManager, nodeSchedulerConfig, nodeTaskMap);
+        NodeSelector selector = nodeScheduler.createNodeSelector(CONNECTOR_ID, false, null);
+        assertTrue(selector instanceof SplitCacheAwareNodeSelector);
+
+        Set<Split> splits = new HashSet<>();
+        for (int i = 0; i < 10; i++) {
+            splits.add(new Split(CONNECTOR_ID, new TestSplitCacheAffinity("hdfs://hacluster/user/hive/warehouse/test_table/00000" + i + "_0"), Lifespan.taskWide()));
+        }
+        Multimap<InternalNode, Split> assignment1 = selector.computeAssignments(splits, ImmutableList.copyOf(taskMap.values()), Optional.empty()).getAssignments();
+        assertEquals(assignment1.size(), 10);
+
+        // splits reading the same files are scheduled on the same workers again
+        Set<Split> sameFileSplits = new HashSet<>();
+        Map<String, InternalNode> expectedNodes = new HashMap<>();
+        assignment1.forEach((node, split) -> {
+            String key = split.getConnectorSplit().getCacheAffinityKey().get();
+            expectedNodes.put(key, node);
+            sameFileSplits.add(new Split(CONNECTOR_ID, new TestSplitCacheAffinity(key), Lifespan.taskWide()));
+        });
+        Multimap<InternalNode, Split> assignment2 = selector.computeAssignments(sameFileSplits, ImmutableList.copyOf(taskMap.values()), Optional.empty()).getAssignments();
+        assertEquals(assignment2.size(), 10);
+        assignment2.forEach((node, split) -> assertEquals(node, expectedNodes.get(split.getConnectorSplit().getCacheAffinityKey().get())));
+    }
+
+    @Test
+    public void testCacheAffinitySchedulingRespectsMaxPendingSplitsPerTask()
+    {
+        setUpNodes();
+        NodeSchedulerConfig nodeSchedulerConfig = new NodeSchedulerConfig()
+                .setMaxSplitsPerNode(20)
+                .setIncludeCoordinator(false)
+                .setMaxPendingSplitsPerTask(10)
+                .setCacheAffinitySchedulingEnabled(true);
+
+        NodeScheduler nodeScheduler = new NodeScheduler(new LegacyNetworkTopology(), nodeManager, nodeSchedulerConfig, nodeTaskMap);
+        NodeSelector selector = nodeScheduler.createNodeSelector(CONNECTOR_ID, false, null);
+
+        String cacheKey = "hdfs://hacluster/user/hive/warehouse/test_table/000000_0";
+        Split probe = new Split(CONNECTOR_ID, new TestSplitCacheAffinity(cacheKey), Lifespan.taskWide());
+        InternalNode cacheNode = getOnlyElement(selector.computeAssignments(ImmutableSet.of(probe), ImmutableList.of(), Optional.empty()).getAssignments().keySet());
+
+        // the task of the stage on the worker holding the cache already has maxPendingSplitsPerTask splits queued
+        ImmutableList.Builder<Split> initialSplits = ImmutableList.builder();
+        for (int i = 0; i < 10; i++) {
+            initialSplits.add(new Split(CONNECTOR_ID, new TestSplitRemote(), Lifespan.taskWide()));
+        }
+        MockRemoteTaskFactory remoteTaskFactory = new MockRemoteTaskFactory(remoteTaskExecutor, remoteTaskScheduledExecutor);
+        TaskId taskId = new TaskId("test", 1, 1, 0);
+        RemoteTask remoteTask = remoteTaskFactory.createTableScanTask(taskId, cacheNode, initialSplits.build(), nodeTaskMap.createPartitionedSplitCountTracker(cacheNode, taskId));
+        taskMap.put(cacheNode, remoteTask);
+        nodeTaskMap.addTask(cacheNode, remoteTask);
+
+        Set<Split> splits = new HashSet<>();
+        for (int i = 0; i < 5; i++) {
+            splits.add(new Split(CONNECTOR_ID, new TestSplitCacheAffinity(cacheKey), Lifespan.taskWide()));
+        }
+        Multimap<InternalNode, Split> assignment = selector.computeAssignments(splits, ImmutableList.copyOf(taskMap.values()), Optional.empty()).getAssignments();
+
+        // the worker is below maxSplitsPerNode, but the splits go to the other workers
+        assertEquals(assignment.size(), 5);
+        assertFalse(assignment.keySet().contains(cacheNode));
+
+        remoteTask.abort();
+    }
+
     @Test
     public void testScheduleRemote()
     {
@@ -1190,6 +1266,23 @@ public class TestNodeScheduler
         }
     }
 
+    private static class TestSplitCacheAffinity
+            extends TestSplitRemote
+    {
+        private final String cacheAffinityKey;
+
+        TestSplitCacheAffinity(String cacheAffinityKey)
+        {
+            this.cacheAffinityKey = requireNonNull(cacheAffinityKey, "cacheAffinityKey is null");
+        }
+
+        @Override
+        public Optional<String> getCacheAffinityKey()
+        {
+            return Optional.of(cacheAffinityKey);
+        }
+    }
+
     private static class TestNetworkTopology
             implements NetworkTopology
     {
@@ -0,0 +1,429 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.execution.scheduler;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ListMultimap;
+import io.airlift.units.DataSize;
+import io.prestosql.cost.StatsAndCosts;
+import io.prestosql.exchange.Exchange;
+import io.prestosql.exchange.ExchangeSinkHandle;
+import io.prestosql.exchange.ExchangeSinkInstanceHandle;
+import io.prestosql.exchange.ExchangeSourceHandle;
+import io.prestosql.exchange.ExchangeSourceSplitter;
+import io.prestosql.exchange.ExchangeSourceStatistics;
+import io.prestosql.exchange.RetryPolicy;
+import io.prestosql.execution.scheduler.StageTaskSourceFactory.HashDistributionTaskSource;
+import io.prestosql.spi.plan.JoinNode;
+import io.prestosql.spi.plan.PlanNode;
+import io.prestosql.spi.plan.PlanNodeId;
+import io.prestosql.spi.plan.Symbol;
+import io.prestosql.sql.planner.Partitioning;
+import io.prestosql.sql.planner.PartitioningScheme;
+import io.prestosql.sql.planner.PlanFragment;
+import io.prestosql.sql.planner.plan.ExchangeNode;
+import io.prestosql.sql.planner.plan.PlanFragmentId;
+import io.prestosql.sql.planner.plan.RemoteSourceNode;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static io.airlift.concurrent.MoreFutures.getFutureValue;
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static io.airlift.units.DataSize.Unit.GIGABYTE;
+import static io.prestosql.operator.StageExecutionDescriptor.ungroupedExecution;
+import static io.prestosql.spi.plan.JoinNode.DistributionType.PARTITIONED;
+import static io.prestosql.spi.plan.JoinNode.DistributionType.REPLICATED;
+import static io.prestosql.spi.plan.JoinNode.Type.INNER;
+import static io.prestosql.sql.planner.SystemPartitioningHandle.FIXED_HASH_DISTRIBUTION;
+import static io.prestosql.sql.planner.SystemPartitioningHandle.SINGLE_DISTRIBUTION;
+import static io.prestosql.sql.planner.plan.ExchangeNode.Type.REPARTITION;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class TestStageTaskSourceFactory
+{
+    private static final PlanNodeId PROBE = new PlanNodeId("probe");
+    private static final PlanNodeId BUILD = new PlanNodeId("build");
+    private static final DataSize TARGET_SIZE = new DataSize(100, BYTE);
+
+    @Test
+    public void testBalancePartitionsSkewedSizes()
+    {
+        TestingExchange exchange = new TestingExchange();
+        ImmutableListMultimap.Builder<PlanNodeId, ExchangeSourceHandle> handles = ImmutableListMultimap.builder();
+        long[] partitionSizes = {60, 50, 40, 30, 20};
+        for (int partition = 0; partition < partitionSizes.length; partition++) {
+            handles.put(PROBE, new TestingExchangeSourceHandle(partition, partitionSizes[partition]));
+        }
+
+        // largest first into the least loaded of total / target tasks
+        List<TaskDescriptor> tasks = getTasks(exchange, handles.build(), true, Optional.empty());
+        assertEquals(tasks.size(), 2);
+        assertEquals(getExchangeSourceSizes(tasks), ImmutableList.of(110L, 90L));
+
+        // without the flag the partitions are packed in order
+        tasks = getTasks(exchange, handles.build(), false, Optional.empty());
+        assertEquals(getExchangeSourceSizes(tasks), ImmutableList.of(60L, 90L, 50L));
+        assertEquals(exchange.getSplitCount(), 0);
+    }
+
+    @Test
+    public void testSplitSingleHugePartition()
+    {
+        TestingExchange exchange = new TestingExchange();
+        TestingExchangeSourceHandle hugeProbe = new TestingExchangeSourceHandle(0, 40, 40, 40, 40);
+        TestingExchangeSourceHandle hugeBuild = new TestingExchangeSourceHandle(0, 20);
+        ListMultimap<PlanNodeId, ExchangeSourceHandle> handles = ImmutableListMultimap.<PlanNodeId, ExchangeSourceHandle>builder()
+                .put(PROBE, hugeProbe)
+                .put(BUILD, hugeBuild)
+                .put(PROBE, new TestingExchangeSourceHandle(1, 10))
+                .put(BUILD, new TestingExchangeSourceHandle(1, 10))
+                .build();
+
+        List<TaskDescriptor> tasks = getTasks(exchange, handles, true, Optional.of(PROBE));
+        assertEquals(tasks.size(), 3);
+        assertEquals(exchange.getSplitCount(), 1);
+        long probeSize = 0;
+        int splitPartitionTasks = 0;
+        for (TaskDescriptor task : tasks) {
+            List<ExchangeSourceHandle> build = task.getExchangeSourceHandles().get(BUILD);
+            assertEquals(build.size(), 1);
+            if (build.get(0) == hugeBuild) {
+                // every part of the split partition reads the whole build side and a slice of the probe side
+                splitPartitionTasks++;
+                assertEquals(getSize(task.getExchangeSourceHandles().get(PROBE)), 80);
+            }
+            probeSize += getSize(task.getExchangeSourceHandles().get(PROBE));
+        }
+        assertEquals(splitPartitionTasks, 2);
+        assertEquals(probeSize, 170);
+    }
+
+    @Test
+    public void testSplitPartitionDisabled()
+    {
+        TestingExchange exchange = new TestingExchange();
+        TestingExchangeSourceHandle hugeProbe = new TestingExchangeSourceHandle(0, 40, 40, 40, 40);
+        ListMultimap<PlanNodeId, ExchangeSourceHandle> handles = ImmutableListMultimap.<PlanNodeId, ExchangeSourceHandle>builder()
+                .put(PROBE, hugeProbe)
+                .put(BUILD, new TestingExchangeSourceHandle(0, 20))
+                .put(PROBE, new TestingExchangeSourceHandle(1, 10))
+                .put(BUILD, new TestingExchangeSourceHandle(1, 10))
+                .build();
+
+        List<TaskDescriptor> tasks = getTasks(exchange, handles, false, Optional.empty());
+        assertEquals(tasks.size(), 2);
+        assertSame(getOnlyProbeHandle(tasks.get(0)), hugeProbe);
+        assertEquals(exchange.getSplitCount(), 0);
+    }
+
+    @Test
+    public void testSplitPartitionLargeBuildSide()
+    {
+        // every part would read the whole build side again, so the partition is not split
+        for (long buildSize : new long[] {60, 100, 150}) {
+            TestingExchange exchange = new TestingExchange();
+            TestingExchangeSourceHandle hugeProbe = new TestingExchangeSourceHandle(0, 40, 40, 40, 40);
+            ListMultimap<PlanNodeId, ExchangeSourceHandle> handles = ImmutableListMultimap.of(PROBE, hugeProbe, BUILD, new TestingExchangeSourceHandle(0, buildSize));
+
+            List<TaskDescriptor> tasks = getTasks(exchange, handles, true, Optional.of(PROBE));
+            assertEquals(tasks.size(), 1);
+            assertSame(getOnlyProbeHandle(tasks.get(0)), hugeProbe);
+            assertEquals(exchange.getSplitCount(), 0);
+        }
+    }
+
+    @Test
+    public void testSplitPartitionWithinTarget()
+    {
+        TestingExchange exchange = new TestingExchange();
+        TestingExchangeSourceHandle probe = new TestingExchangeSourceHandle(0, 30, 30);
+        ListMultimap<PlanNodeId, ExchangeSourceHandle> handles = ImmutableListMultimap.of(PROBE, probe, BUILD, new TestingExchangeSourceHandle(0, 20));
+
+        List<TaskDescriptor> tasks = getTasks(exchange, handles, true, Optional.of(PROBE));
+        assertEquals(tasks.size(), 1);
+        assertSame(getOnlyProbeHandle(tasks.get(0)), probe);
+        assertEquals(exchange.getSplitCount(), 0);
+    }
+
+    @Test
+    public void testGetSplittableRemoteSource()
+    {
+        RemoteSourceNode probe = remoteSource(PROBE, "probe_key");
+        RemoteSourceNode build = remoteSource(BUILD, "build_key");
+
+        assertEquals(HashDistributionTaskSource.getSplittableRemoteSource(fragment(join(probe, build, PARTITIONED))), Optional.of(PROBE));
+        // only the probe side of a partitioned join can be divided between tasks
+        assertFalse(HashDistributionTaskSource.getSplittableRemoteSource(fragment(join(probe, build, REPLICATED))).isPresent());
+        assertFalse(HashDistributionTaskSource.getSplittableRemoteSource(fragment(probe)).isPresent());
+    }
+
+    private static List<TaskDescriptor> getTasks(TestingExchange exchange, ListMultimap<PlanNodeId, ExchangeSourceHandle> handles, boolean adaptivePartitioning, Optional<PlanNodeId> splittableRemoteSource)
+    {
+        IdentityHashMap<ExchangeSourceHandle, Exchange> exchangeForHandle = new IdentityHashMap<>();
+        handles.values().forEach(handle -> exchangeForHandle.put(handle, exchange));
+        HashDistributionTaskSource taskSource = new HashDistributionTaskSource(
+                ImmutableMap.of(),
+                exchangeForHandle,
+                handles,
+                ImmutableListMultimap.of(),
+                1,
+                value -> {},
+                new int[0],
+                Optional.empty(),
+                Optional.empty(),
+                Long.MAX_VALUE,
+                TARGET_SIZE,
+                new DataSize(4, GIGABYTE),
+                adaptivePartitioning,
+                splittableRemoteSource,
+                directExecutor());
+        List<TaskDescriptor> tasks = getFutureValue(taskSource.getMoreTasks());
+        assertTrue(taskSource.isFinished());
+        return tasks;
+    }
+
+    private static List<Long> getExchangeSourceSizes(List<TaskDescriptor> tasks)
+    {
+        return tasks.stream()
+                .map(task -> getSize(task.getExchangeSourceHandles().values()))
+                .collect(toImmutableList());
+    }
+
+    private static long getSize(Iterable<ExchangeSourceHandle> handles)
+    {
+        long size = 0;
+        for (ExchangeSourceHandle handle : handles) {
+            size += ((TestingExchangeSourceHandle) handle).getSizeInBytes();
+        }
+        return size;
+    }
+
+    private static ExchangeSourceHandle getOnlyProbeHandle(TaskDescriptor task)
+    {
+        List<ExchangeSourceHandle> probe = task.getExchangeSourceHandles().get(PROBE);
+        assertEquals(probe.size(), 1);
+        return probe.get(0);
+    }
+
+    private static RemoteSourceNode remoteSource(PlanNodeId id, String symbol)
+    {
+        return new RemoteSourceNode(id, new PlanFragmentId(id.toString()), ImmutableList.of(new Symbol(symbol)), Optional.empty(), REPARTITION, RetryPolicy.TASK);
+    }
+
+    private static JoinNode join(PlanNode probe, PlanNode build, JoinNode.DistributionType distributionType)
+    {
+        Symbol probeKey = getOnlySymbol(probe);
+        Symbol buildKey = getOnlySymbol(build);
+        return new JoinNode(
+                new PlanNodeId("join"),
+                INNER,
+                probe,
+                build,
+                ImmutableList.of(new JoinNode.EquiJoinClause(probeKey, buildKey)),
+                ImmutableList.of(probeKey, buildKey),
+                Optional.empty(),
+                Optional.empty(),
+                Optional.empty(),
+                Optional.of(distributionType),
+                Optional.empty(),
+                ImmutableMap.of());
+    }
+
+    private static Symbol getOnlySymbol(PlanNode node)
+    {
+        assertEquals(node.getOutputSymbols().size(), 1);
+        return node.getOutputSymbols().get(0);
+    }
+
+    private static PlanFragment fragment(PlanNode root)
+    {
+        return new PlanFragment(
+                new PlanFragmentId("fragment"),
+                root,
+                Collections.emptyMap(),
+                FIXED_HASH_DISTRIBUTION,
+                ImmutableList.of(),
+                new PartitioningScheme(Partitioning.create(SINGLE_DISTRIBUTION, ImmutableList.of()), root.getOutputSymbols()),
+                ungroupedExecution(),
+                StatsAndCosts.empty(),
+                Optional.empty(),
+                Optional.empty(),
+                Optional.empty());
+    }
+
+    /**
+     * Splits a handle into one handle per file, like the file system exchange.
+     */
+    private static class TestingExchange
+            implements Exchange
+    {
+        private int splitCount;
+
+        public int getSplitCount()
+        {
+            return splitCount;
+        }
+
+        @Override
+        public ExchangeSourceSplitter split(ExchangeSourceHandle handle, long targetSizeInBytes)
+        {
+            splitCount++;
+            TestingExchangeSourceHandle sourceHandle = (TestingExchangeSourceHandle) handle;
+            Iterator<Long> files = sourceHandle.getFileSizes().iterator();
+            return new ExchangeSourceSplitter()
+            {
+                @Override
+                public CompletableFuture<Void> isBlocked()
+                {
+                    return completedFuture(null);
+                }
+
+                @Override
+                public Optional<ExchangeSourceHandle> getNext()
+                {
+                    if (!files.hasNext()) {
+                        return Optional.empty();
+                    }
+                    return Optional.of(new TestingExchangeSourceHandle(sourceHandle.getPartitionId(), files.next()));
+                }
+
+                @Override
+                public void close()
+                {
+                }
+            };
+        }
+
+        @Override
+        public ExchangeSourceStatistics getExchangeSourceStatistics(ExchangeSourceHandle handle)
+        {
+            return new ExchangeSourceStatistics(((TestingExchangeSourceHandle) handle).getSizeInBytes());
+        }
+
+        @Override
+        public ExchangeSinkHandle addSink(int taskPartitionId)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void noMoreSinks()
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public ExchangeSinkInstanceHandle instantiateSink(ExchangeSinkHandle sinkHandle, int taskAttemptId)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void sinkFinished(ExchangeSinkInstanceHandle handle)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<List<ExchangeSourceHandle>> getSourceHandles()
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+
+    private static class TestingExchangeSourceHandle
+            implements ExchangeSourceHandle
+    {
+        private final int partitionId;
+        private final List<Long> fileSizes;
+
+        public TestingExchangeSourceHandle(int partitionId, long... fileSizes)
+        {
+            this.partitionId = partitionId;
+            ImmutableList.Builder<Long> sizes = ImmutableList.builder();
+            for (long fileSize : fileSizes) {
+                sizes.add(fileSize);
+            }
+            this.fileSizes = sizes.build();
+        }
+
+        @Override
+        public int getPartitionId()
+        {
+            return partitionId;
+        }
+
+        public List<Long> getFileSizes()
+        {
+            return fileSizes;
+        }
+
+        public long getSizeInBytes()
+        {
+            return fileSizes.stream().mapToLong(Long::longValue).sum();
+        }
+
+        @Override
+        public long getRetainedSizeInBytes()
+        {
+            return 0;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            TestingExchangeSourceHandle other = (TestingExchangeSourceHandle) obj;
+            return partitionId == other.partitionId && fileSizes.equals(other.fileSizes);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(partitionId, fileSizes);
+        }
+
+        @Override
+        public String toString()
+        {
+            return partitionId + ":" + fileSizes;
+        }
+    }
+}
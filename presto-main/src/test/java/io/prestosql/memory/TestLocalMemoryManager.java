@@ -14,8 +14,13 @@
 package io.prestosql.memory;
 
 import io.airlift.units.DataSize;
+import io.prestosql.spi.QueryId;
+import io.prestosql.spi.memory.ReclaimableMemoryConsumer;
 import org.testng.annotations.Test;
 
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
 import static io.airlift.units.DataSize.Unit.GIGABYTE;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.testng.Assert.assertEquals;
@@ -52,6 +57,67 @@ public class TestLocalMemoryManager
         assertEquals(localMemoryManager.getPools().size(), 2);
     }
 
+    @Test
+    public void testReclaimMemory()
+    {
+        NodeMemoryConfig config = new NodeMemoryConfig()
+                .setReservedPoolEnabled(false)
+                .setHeapHeadroom(new DataSize(10, GIGABYTE))
+                .setMaxQueryMemoryPerNode(new DataSize(20, GIGABYTE))
+                .setMaxQueryTotalMemoryPerNode(new DataSize(20, GIGABYTE))
+                .setReclaimableMemoryThreshold(0.5);
+
+        LocalMemoryManager localMemoryManager = new LocalMemoryManager(config, new DataSize(60, GIGABYTE).toBytes(), new DataSize(60, GIGABYTE).toBytes(), () -> 0, newDirectExecutorService());
+        localMemoryManager.registerReclaimableMemoryConsumer(new TestingReclaimableMemoryConsumer(new DataSize(8, GIGABYTE).toBytes(), false));
+        assertEquals(localMemoryManager.getReclaimableMemoryBytes(), new DataSize(8, GIGABYTE).toBytes());
+
+        // general pool is 50GB, memory is reclaimed once reservations and the reclaimable memory exceed 25GB
+        MemoryPool generalPool = localMemoryManager.getGeneralPool();
+        generalPool.reserve(new QueryId("q1"), "test", new DataSize(10, GIGABYTE).toBytes());
+        assertEquals(localMemoryManager.getReclaimableMemoryBytes(), new DataSize(8, GIGABYTE).toBytes());
+
+        generalPool.reserve(new QueryId("q2"), "test", new DataSize(10, GIGABYTE).toBytes());
+        assertEquals(localMemoryManager.getReclaimableMemoryBytes(), new DataSize(5, GIGABYTE).toBytes());
+
+        generalPool.reserve(new QueryId("q3"), "test", new DataSize(20, GIGABYTE).toBytes());
+        assertEquals(localMemoryManager.getReclaimableMemoryBytes(), 0);
+    }
+
+    @Test
+    public void testReclaimDirectMemory()
+    {
+        NodeMemoryConfig config = new NodeMemoryConfig()
+                .setReservedPoolEnabled(false)
+                .setHeapHeadroom(new DataSize(10, GIGABYTE))
+                .setMaxQueryMemoryPerNode(new DataSize(20, GIGABYTE))
+                .setMaxQueryTotalMemoryPerNode(new DataSize(20, GIGABYTE))
+                .setReclaimableMemoryThreshold(0.5);
+
+        TestingReclaimableMemoryConsumer consumer = new TestingReclaimableMemoryConsumer(new DataSize(8, GIGABYTE).toBytes(), true);
+        AtomicLong otherDirectMemory = new AtomicLong();
+        LocalMemoryManager localMemoryManager = new LocalMemoryManager(
+                config,
+                new DataSize(60, GIGABYTE).toBytes(),
+                new DataSize(20, GIGABYTE).toBytes(),
+                () -> consumer.getRetainedSizeInBytes() + otherDirectMemory.get(),
+                newDirectExecutorService());
+        localMemoryManager.registerReclaimableMemoryConsumer(consumer);
+
+        // direct memory is not shrunk for reservations in the general pool
+        MemoryPool generalPool = localMemoryManager.getGeneralPool();
+        generalPool.reserve(new QueryId("q1"), "test", new DataSize(40, GIGABYTE).toBytes());
+        assertEquals(localMemoryManager.getReclaimableMemoryBytes(), new DataSize(8, GIGABYTE).toBytes());
+
+        // direct memory is reclaimed once the direct memory of the JVM exceeds 10GB
+        otherDirectMemory.set(new DataSize(5, GIGABYTE).toBytes());
+        generalPool.reserve(new QueryId("q2"), "test", 1);
+        assertEquals(localMemoryManager.getReclaimableMemoryBytes(), new DataSize(5, GIGABYTE).toBytes());
+
+        otherDirectMemory.set(new DataSize(12, GIGABYTE).toBytes());
+        generalPool.reserve(new QueryId("q3"), "test", 1);
+        assertEquals(localMemoryManager.getReclaimableMemoryBytes(), 0);
+    }
+
     @Test
     public void testMaxQueryMemoryPerNodeBiggerThanQueryTotalMemoryPerNode()
     {
@@ -80,4 +146,37 @@ public class TestLocalMemoryManager
                 .hasMessageMatching("Invalid memory configuration\\. The sum of max total query memory per node .* and heap headroom .*" +
                         "cannot be larger than the available heap memory .*");
     }
+
+    private static class TestingReclaimableMemoryConsumer
+            implements ReclaimableMemoryConsumer
+    {
+        private final AtomicLong retainedBytes;
+        private final boolean directMemory;
+
+        public TestingReclaimableMemoryConsumer(long retainedBytes, boolean directMemory)
+        {
+            this.retainedBytes = new AtomicLong(retainedBytes);
+            this.directMemory = directMemory;
+        }
+
+        @Override
+        public long getRetainedSizeInBytes()
+        {
+            return retainedBytes.get();
+        }
+
+        @Override
+        public boolean isDirectMemory()
+        {
+            return directMemory;
+        }
+
+        @Override
+        public long reclaim(long bytes)
+        {
+            long reclaimed = Math.min(bytes, retainedBytes.get());
+            retainedBytes.addAndGet(-reclaimed);
+            return reclaimed;
+        }
+    }
 }
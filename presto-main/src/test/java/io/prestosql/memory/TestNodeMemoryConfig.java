@@ -34,7 +34,8 @@ public class TestNodeMemoryConfig
                 .setMaxQueryMemoryPerNode(new DataSize(AVAILABLE_HEAP_MEMORY * 0.1, BYTE))
                 .setMaxQueryTotalMemoryPerNode(new DataSize(AVAILABLE_HEAP_MEMORY * 0.3, BYTE))
                 .setHeapHeadroom(new DataSize(AVAILABLE_HEAP_MEMORY * 0.3, BYTE))
-                .setReservedPoolEnabled(false));
+                .setReservedPoolEnabled(false)
+                .setReclaimableMemoryThreshold(0.9));
     }
 
     @Test
@@ -45,13 +46,15 @@ public class TestNodeMemoryConfig
                 .put("query.max-total-memory-per-node", "3GB")
                 .put("memory.heap-headroom-per-node", "1GB")
                 .put("experimental.reserved-pool-enabled", "true")
+                .put("memory.reclaimable-memory-threshold", "0.5")
                 .build();
 
         NodeMemoryConfig expected = new NodeMemoryConfig()
                 .setMaxQueryMemoryPerNode(new DataSize(1, GIGABYTE))
                 .setMaxQueryTotalMemoryPerNode(new DataSize(3, GIGABYTE))
                 .setHeapHeadroom(new DataSize(1, GIGABYTE))
-                .setReservedPoolEnabled(true);
+                .setReservedPoolEnabled(true)
+                .setReclaimableMemoryThreshold(0.5);
 
         assertFullMapping(properties, expected);
     }
@@ -20,6 +20,9 @@ import io.airlift.tpch.LineItemGenerator;
 import io.airlift.units.DataSize;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.PageBuilder;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.dynamicfilter.DynamicFilter;
+import io.prestosql.spi.dynamicfilter.HashSetDynamicFilter;
 import io.prestosql.spi.plan.PlanNodeId;
 import io.prestosql.testing.TestingTaskContext;
 import org.openjdk.jmh.annotations.Benchmark;
@@ -39,8 +42,10 @@ import org.openjdk.jmh.runner.options.OptionsBuilder;
 import org.openjdk.jmh.runner.options.VerboseMode;
 import org.testng.annotations.Test;
 
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -51,6 +56,7 @@ import static io.prestosql.SessionTestUtils.TEST_SESSION;
 import static io.prestosql.SystemSessionProperties.getDynamicFilteringMaxPerDriverSize;
 import static io.prestosql.SystemSessionProperties.getDynamicFilteringMaxPerDriverValueCount;
 import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.TypeUtils.readNativeValue;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
 import static org.testng.Assert.assertEquals;
@@ -63,6 +69,7 @@ import static org.testng.Assert.assertEquals;
 public class BenchmarkDynamicFilterSourceOperator
 {
     private static final int TOTAL_POSITIONS = 1_000_000;
+    private static final int FILTER_VALUES = 10_000;
 
     @State(Scope.Thread)
     public static class BenchmarkContext
@@ -74,6 +81,9 @@ public class BenchmarkDynamicFilterSourceOperator
         private ScheduledExecutorService scheduledExecutor;
         private OperatorFactory operatorFactory;
         private List<Page> pages;
+        private Set<Object> boxedValues;
+        private HashSetDynamicFilter dynamicFilter;
+        private int[] positions;
 
         @Setup
         public void setup()
@@ -83,6 +93,20 @@ public class BenchmarkDynamicFilterSourceOperator
 
             pages = createInputPages(Integer.valueOf(positionsPerPage));
 
+            // every tenth order key, as collected by the build side of a selective join
+            boxedValues = new HashSet<>();
+            for (Page page : pages) {
+                Block block = page.getBlock(0);
+                for (int i = 0; i < block.getPositionCount() && boxedValues.size() < FILTER_VALUES; i++) {
+                    long orderKey = BIGINT.getLong(block, i);
+                    if (orderKey % 10 == 0) {
+                        boxedValues.add(orderKey);
+                    }
+                }
+            }
+            dynamicFilter = new HashSetDynamicFilter("0", null, boxedValues, DynamicFilter.Type.LOCAL);
+            positions = new int[Integer.valueOf(positionsPerPage)];
+
             NodeInfo nodeInfo = new NodeInfo("test");
             operatorFactory = new DynamicFilterSourceOperator.DynamicFilterSourceOperatorFactory(
                     1,
@@ -115,6 +139,21 @@ public class BenchmarkDynamicFilterSourceOperator
             return pages;
         }
 
+        public Set<Object> getBoxedValues()
+        {
+            return boxedValues;
+        }
+
+        public HashSetDynamicFilter getDynamicFilter()
+        {
+            return dynamicFilter;
+        }
+
+        public int[] getPositions()
+        {
+            return positions;
+        }
+
         private static List<Page> createInputPages(int positionsPerPage)
         {
             ImmutableList.Builder<Page> localPages = ImmutableList.builder();
@@ -171,6 +210,41 @@ public class BenchmarkDynamicFilterSourceOperator
         return outputPages.build();
     }
 
+    /**
+     * Probing through a boxed set, as done before the dynamic filters had specialized value sets
+     */
+    @Benchmark
+    public int dynamicFilterProbeBoxed(BenchmarkContext context)
+    {
+        Set<Object> values = context.getBoxedValues();
+        int matches = 0;
+        for (Page page : context.getPages()) {
+            Block block = page.getBlock(0);
+            for (int i = 0; i < block.getPositionCount(); i++) {
+                if (values.contains(readNativeValue(BIGINT, block, i))) {
+                    matches++;
+                }
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public int dynamicFilterProbeBatched(BenchmarkContext context)
+    {
+        DynamicFilter dynamicFilter = context.getDynamicFilter();
+        int[] positions = context.getPositions();
+        int matches = 0;
+        for (Page page : context.getPages()) {
+            Block block = page.getBlock(0);
+            for (int i = 0; i < block.getPositionCount(); i++) {
+                positions[i] = i;
+            }
+            matches += dynamicFilter.filter(BIGINT, block, positions, block.getPositionCount(), positions);
+        }
+        return matches;
+    }
+
     @Test
     public void testBenchmark()
     {
@@ -179,6 +253,7 @@ public class BenchmarkDynamicFilterSourceOperator
 
         List<Page> outputPages = dynamicFilterCollect(context);
         assertEquals(TOTAL_POSITIONS, outputPages.stream().mapToInt(Page::getPositionCount).sum());
+        assertEquals(dynamicFilterProbeBatched(context), dynamicFilterProbeBoxed(context));
 
         context.cleanup();
     }
@@ -77,7 +77,7 @@ public class BenchmarkGroupByHash
     @OperationsPerInvocation(POSITIONS)
     public Object groupByHashPreCompute(BenchmarkData data)
     {
-        GroupByHash groupByHash = new MultiChannelGroupByHash(data.getTypes(), data.getChannels(), data.getHashChannel(), EXPECTED_SIZE, false, getJoinCompiler(), NOOP);
+        GroupByHash groupByHash = data.createGroupByHash();
         data.getPages().forEach(p -> groupByHash.getGroupIds(p).process());
 
         ImmutableList.Builder<Page> pages = ImmutableList.builder();
@@ -98,7 +98,7 @@ public class BenchmarkGroupByHash
     @OperationsPerInvocation(POSITIONS)
     public Object addPagePreCompute(BenchmarkData data)
     {
-        GroupByHash groupByHash = new MultiChannelGroupByHash(data.getTypes(), data.getChannels(), data.getHashChannel(), EXPECTED_SIZE, false, getJoinCompiler(), NOOP);
+        GroupByHash groupByHash = data.createGroupByHash();
         data.getPages().forEach(p -> groupByHash.addPage(p).process());
 
         ImmutableList.Builder<Page> pages = ImmutableList.builder();
@@ -337,6 +337,9 @@ public class BenchmarkGroupByHash
         @Param({"VARCHAR", "BIGINT"})
         private String dataType = "VARCHAR";
 
+        @Param({"false", "true"})
+        private boolean flatGroupByHash;
+
         private List<Page> pages;
         private Optional<Integer> hashChannel;
         private List<Type> types;
@@ -383,6 +386,14 @@ public class BenchmarkGroupByHash
         {
             return channels;
         }
+
+        public GroupByHash createGroupByHash()
+        {
+            if (flatGroupByHash) {
+                return new FlatGroupByHash(types, channels, hashChannel, EXPECTED_SIZE, false, getJoinCompiler(), NOOP);
+            }
+            return new MultiChannelGroupByHash(types, channels, hashChannel, EXPECTED_SIZE, false, getJoinCompiler(), NOOP);
+        }
     }
 
     private static JoinCompiler getJoinCompiler()
@@ -390,6 +401,26 @@ public class BenchmarkGroupByHash
         return new JoinCompiler(createTestMetadataManager());
     }
 
+    // JMH reports time and allocation rate only, so the footprint of the hash itself is printed up front
+    private static void printRetainedBytesPerGroup()
+    {
+        for (boolean flat : new boolean[] {false, true}) {
+            for (String dataType : new String[] {"VARCHAR", "BIGINT"}) {
+                BenchmarkData data = new BenchmarkData();
+                data.channelCount = 5;
+                data.dataType = dataType;
+                data.flatGroupByHash = flat;
+                data.setup();
+                GroupByHash groupByHash = data.createGroupByHash();
+                data.getPages().forEach(page -> groupByHash.addPage(page).process());
+                System.out.printf("%s %s: %.1f retained bytes per group%n",
+                        flat ? "FlatGroupByHash" : "MultiChannelGroupByHash",
+                        dataType,
+                        (double) groupByHash.getEstimatedSize() / groupByHash.getGroupCount());
+            }
+        }
+    }
+
     public static void main(String[] args)
             throws RunnerException
     {
@@ -398,6 +429,7 @@ public class BenchmarkGroupByHash
         data.setup();
         new BenchmarkGroupByHash().groupByHashPreCompute(data);
         new BenchmarkGroupByHash().addPagePreCompute(data);
+        printRetainedBytesPerGroup();
 
         SingleChannelBenchmarkData singleChannelBenchmarkData = new SingleChannelBenchmarkData();
         singleChannelBenchmarkData.setup();
@@ -20,6 +20,7 @@ import io.prestosql.metadata.Metadata;
 import io.prestosql.operator.HashAggregationOperator.HashAggregationOperatorFactory;
 import io.prestosql.operator.StreamingAggregationOperator.StreamingAggregationOperatorFactory;
 import io.prestosql.operator.aggregation.InternalAggregationFunction;
+import io.prestosql.operator.aggregation.partial.PartialAggregationController;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.block.BlockBuilder;
 import io.prestosql.spi.connector.QualifiedObjectName;
@@ -97,7 +98,7 @@ public class BenchmarkHashAndStreamingAggregationOperators
         @Param({"1", "10", "1000"})
         public int rowsPerGroup;
 
-        @Param({"streaming", "hash"})
+        @Param({"streaming", "hash", "partial-hash", "adaptive-partial-hash"})
         public String operatorType;
 
         private ExecutorService executor;
@@ -113,7 +114,7 @@ public class BenchmarkHashAndStreamingAggregationOperators
 
             int groupsPerPage = ROWS_PER_PAGE / rowsPerGroup;
 
-            boolean hashAggregation = operatorType.equalsIgnoreCase("hash");
+            boolean hashAggregation = !operatorType.equalsIgnoreCase("streaming");
 
             RowPagesBuilder pagesBuilder = RowPagesBuilder.rowPagesBuilder(hashAggregation, ImmutableList.of(0), VARCHAR, BIGINT);
             for (int i = 0; i < TOTAL_PAGES; i++) {
@@ -127,11 +128,25 @@ public class BenchmarkHashAndStreamingAggregationOperators
 
             pages = pagesBuilder.build();
 
-            if (hashAggregation) {
-                operatorFactory = createHashAggregationOperatorFactory(pagesBuilder.getHashChannel());
-            }
-            else {
-                operatorFactory = createStreamingAggregationOperatorFactory();
+            switch (operatorType) {
+                case "streaming":
+                    operatorFactory = createStreamingAggregationOperatorFactory();
+                    break;
+                case "hash":
+                    operatorFactory = createHashAggregationOperatorFactory(pagesBuilder.getHashChannel(), AggregationNode.Step.SINGLE, Optional.empty());
+                    break;
+                case "partial-hash":
+                    operatorFactory = createHashAggregationOperatorFactory(pagesBuilder.getHashChannel(), AggregationNode.Step.PARTIAL, Optional.empty());
+                    break;
+                case "adaptive-partial-hash":
+                    // same thresholds as the adaptive-partial-aggregation.* defaults
+                    operatorFactory = createHashAggregationOperatorFactory(
+                            pagesBuilder.getHashChannel(),
+                            AggregationNode.Step.PARTIAL,
+                            Optional.of(new PartialAggregationController(100_000, 0.8)));
+                    break;
+                default:
+                    throw new UnsupportedOperationException("Unsupported operatorType: " + operatorType);
             }
         }
 
@@ -156,7 +171,10 @@ public class BenchmarkHashAndStreamingAggregationOperators
                     new JoinCompiler(createTestMetadataManager()));
         }
 
-        private OperatorFactory createHashAggregationOperatorFactory(Optional<Integer> hashChannel)
+        private OperatorFactory createHashAggregationOperatorFactory(
+                Optional<Integer> hashChannel,
+                AggregationNode.Step step,
+                Optional<PartialAggregationController> partialAggregationController)
         {
             JoinCompiler joinCompiler = new JoinCompiler(createTestMetadataManager());
             SpillerFactory spillerFactory = (types, localSpillContext, aggregatedMemoryContext, isSnapshotEnabled, queryId, isSpillToHdfs) -> null;
@@ -167,7 +185,7 @@ public class BenchmarkHashAndStreamingAggregationOperators
                     ImmutableList.of(VARCHAR),
                     ImmutableList.of(0),
                     ImmutableList.of(),
-                    AggregationNode.Step.SINGLE,
+                    step,
                     false,
                     ImmutableList.of(COUNT.bind(ImmutableList.of(0), Optional.empty()),
                             LONG_SUM.bind(ImmutableList.of(1), Optional.empty())),
@@ -181,7 +199,7 @@ public class BenchmarkHashAndStreamingAggregationOperators
                     spillerFactory,
                     joinCompiler,
                     false,
-                    Optional.empty());
+                    partialAggregationController);
         }
 
         private static void repeatToStringBlock(String value, int count, BlockBuilder blockBuilder)
@@ -254,6 +272,23 @@ public class BenchmarkHashAndStreamingAggregationOperators
         verify(1000, "hash");
     }
 
+    @Test
+    public void verifyPartialHash()
+    {
+        verify(1, "partial-hash");
+        verify(10, "partial-hash");
+        verify(1000, "partial-hash");
+    }
+
+    @Test
+    public void verifyAdaptivePartialHash()
+    {
+        // unique keys disable partial aggregation, so rows are passed through and the output row count is unchanged
+        verify(1, "adaptive-partial-hash");
+        verify(10, "adaptive-partial-hash");
+        verify(1000, "adaptive-partial-hash");
+    }
+
     private void verify(int rowsPerGroup, String operatorType)
     {
         Context context = new Context();
@@ -0,0 +1,300 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.CountingOutputStream;
+import io.airlift.units.DataSize;
+import io.prestosql.RowPagesBuilder;
+import io.prestosql.metadata.Metadata;
+import io.prestosql.operator.HashAggregationOperator.HashAggregationOperatorFactory;
+import io.prestosql.operator.HashBuilderOperator.HashBuilderOperatorFactory;
+import io.prestosql.operator.aggregation.InternalAggregationFunction;
+import io.prestosql.snapshot.BinarySnapshotStateSerializer;
+import io.prestosql.snapshot.RecoveryUtils;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.connector.QualifiedObjectName;
+import io.prestosql.spi.function.Signature;
+import io.prestosql.spi.plan.AggregationNode;
+import io.prestosql.spi.plan.PlanNodeId;
+import io.prestosql.spi.snapshot.BlockEncodingSerdeProvider;
+import io.prestosql.spiller.SingleStreamSpillerFactory;
+import io.prestosql.spiller.SpillerFactory;
+import io.prestosql.sql.gen.JoinCompiler;
+import io.prestosql.testing.TestingTaskContext;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.io.ByteStreams.nullOutputStream;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.units.DataSize.Unit.GIGABYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static io.airlift.units.DataSize.succinctBytes;
+import static io.prestosql.RowPagesBuilder.rowPagesBuilder;
+import static io.prestosql.SessionTestUtils.TEST_SESSION;
+import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
+import static io.prestosql.spi.function.FunctionKind.AGGREGATE;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static java.util.concurrent.Executors.newScheduledThreadPool;
+
+/**
+ * Measures how fast the snapshot state of large hash aggregations and hash builds is captured and restored
+ * with each snapshot serialization format. The {@code bytes} counter is reported in bytes per second.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+public class BenchmarkOperatorSnapshotState
+{
+    private static final Metadata metadata = createTestMetadataManager();
+
+    private static final InternalAggregationFunction LONG_SUM = metadata.getFunctionAndTypeManager().getAggregateFunctionImplementation(
+            new Signature(QualifiedObjectName.valueOfDefaultFunction("sum"), AGGREGATE, BIGINT.getTypeSignature(), BIGINT.getTypeSignature()));
+    private static final InternalAggregationFunction COUNT = metadata.getFunctionAndTypeManager().getAggregateFunctionImplementation(
+            new Signature(QualifiedObjectName.valueOfDefaultFunction("count"), AGGREGATE, BIGINT.getTypeSignature()));
+
+    @Benchmark
+    public long capture(Context context, ByteCounter counter)
+            throws IOException
+    {
+        CountingOutputStream output = new CountingOutputStream(nullOutputStream());
+        context.serialize(context.getOperator().capture(context.getSerde()), output);
+        counter.bytes += output.getCount();
+        return output.getCount();
+    }
+
+    @Benchmark
+    public void restore(Context context, ByteCounter counter)
+            throws IOException, ClassNotFoundException
+    {
+        Object state = context.deserialize(new ByteArrayInputStream(context.getCapturedState()));
+        context.getOperator().restore(state, context.getSerde());
+        counter.bytes += context.getCapturedState().length;
+    }
+
+    @SuppressWarnings("PublicField")
+    @AuxCounters
+    @State(Scope.Thread)
+    public static class ByteCounter
+    {
+        public long bytes;
+    }
+
+    @State(Scope.Thread)
+    public static class Context
+    {
+        private static final int ROWS_PER_PAGE = 10_000;
+
+        @Param({"hash_aggregation", "hash_builder"})
+        private String operatorType = "hash_aggregation";
+
+        @Param({"JAVA", "KRYO", "BINARY"})
+        private String format = "BINARY";
+
+        @Param("100")
+        private int pageCount = 100;
+
+        private ExecutorService executor;
+        private ScheduledExecutorService scheduledExecutor;
+        private Operator operator;
+        private byte[] capturedState;
+
+        @Setup
+        public void setup()
+                throws IOException
+        {
+            executor = newCachedThreadPool(daemonThreadsNamed("test-executor-%s"));
+            scheduledExecutor = newScheduledThreadPool(2, daemonThreadsNamed("test-scheduledExecutor-%s"));
+
+            RowPagesBuilder pagesBuilder = rowPagesBuilder(false, ImmutableList.of(0), BIGINT, BIGINT);
+            for (int i = 0; i < pageCount; i++) {
+                // every row is a distinct key, so the hash grows with the input
+                pagesBuilder.addSequencePage(ROWS_PER_PAGE, i * ROWS_PER_PAGE, 0);
+            }
+            List<Page> pages = pagesBuilder.build();
+
+            DriverContext driverContext = TestingTaskContext.createTaskContext(executor, scheduledExecutor, TEST_SESSION, new DataSize(4, GIGABYTE))
+                    .addPipelineContext(0, true, true, false)
+                    .addDriverContext();
+            operator = operatorType.equals("hash_aggregation") ? createHashAggregationOperatorFactory().createOperator(driverContext) : createHashBuilderOperatorFactory().createOperator(driverContext);
+            for (Page page : pages) {
+                operator.addInput(page);
+                operator.getOutput();
+            }
+
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            serialize(operator.capture(getSerde()), output);
+            capturedState = output.toByteArray();
+        }
+
+        @TearDown
+        public void cleanup()
+        {
+            executor.shutdownNow();
+            scheduledExecutor.shutdownNow();
+        }
+
+        private static OperatorFactory createHashAggregationOperatorFactory()
+        {
+            JoinCompiler joinCompiler = new JoinCompiler(createTestMetadataManager());
+            SpillerFactory spillerFactory = (types, localSpillContext, aggregatedMemoryContext, isSnapshotEnabled, queryId, isSpillToHdfs) -> null;
+
+            return new HashAggregationOperatorFactory(
+                    0,
+                    new PlanNodeId("test"),
+                    ImmutableList.of(BIGINT),
+                    ImmutableList.of(0),
+                    ImmutableList.of(),
+                    AggregationNode.Step.SINGLE,
+                    false,
+                    ImmutableList.of(COUNT.bind(ImmutableList.of(0), Optional.empty()),
+                            LONG_SUM.bind(ImmutableList.of(1), Optional.empty())),
+                    Optional.empty(),
+                    Optional.empty(),
+                    100_000,
+                    Optional.of(new DataSize(16, MEGABYTE)),
+                    false,
+                    succinctBytes(8),
+                    succinctBytes(Integer.MAX_VALUE),
+                    spillerFactory,
+                    joinCompiler,
+                    false,
+                    Optional.empty());
+        }
+
+        private static OperatorFactory createHashBuilderOperatorFactory()
+        {
+            List<Integer> outputChannels = ImmutableList.of(0, 1);
+            JoinBridgeManager<PartitionedLookupSourceFactory> lookupSourceFactoryManager = JoinBridgeManager.lookupAllAtOnce(new PartitionedLookupSourceFactory(
+                    ImmutableList.of(BIGINT, BIGINT),
+                    ImmutableList.of(BIGINT, BIGINT),
+                    ImmutableList.of(BIGINT),
+                    1,
+                    ImmutableMap.of(),
+                    false,
+                    false));
+            return new HashBuilderOperatorFactory(
+                    1,
+                    new PlanNodeId("test"),
+                    lookupSourceFactoryManager,
+                    outputChannels,
+                    ImmutableList.of(0),
+                    OptionalInt.empty(),
+                    Optional.empty(),
+                    Optional.empty(),
+                    ImmutableList.of(),
+                    10_000,
+                    new PagesIndex.TestingFactory(false),
+                    false,
+                    SingleStreamSpillerFactory.unsupportedSingleStreamSpillerFactory());
+        }
+
+        private void serialize(Object state, OutputStream output)
+                throws IOException
+        {
+            if (format.equals("BINARY")) {
+                BinarySnapshotStateSerializer.serialize(state, output);
+            }
+            else {
+                RecoveryUtils.serializeState(state, output, format.equals("KRYO"));
+            }
+        }
+
+        private Object deserialize(InputStream input)
+                throws IOException, ClassNotFoundException
+        {
+            if (format.equals("BINARY")) {
+                return BinarySnapshotStateSerializer.deserialize(input);
+            }
+            return RecoveryUtils.deserializeState(input, format.equals("KRYO"));
+        }
+
+        public Operator getOperator()
+        {
+            return operator;
+        }
+
+        public BlockEncodingSerdeProvider getSerde()
+        {
+            return operator.getOperatorContext().getDriverContext().getSerde();
+        }
+
+        public byte[] getCapturedState()
+        {
+            return capturedState;
+        }
+    }
+
+    @Test
+    public void testBenchmark()
+            throws Exception
+    {
+        for (String operatorType : ImmutableList.of("hash_aggregation", "hash_builder")) {
+            for (String format : ImmutableList.of("JAVA", "KRYO", "BINARY")) {
+                Context context = new Context();
+                context.operatorType = operatorType;
+                context.format = format;
+                context.pageCount = 2;
+                context.setup();
+                capture(context, new ByteCounter());
+                restore(context, new ByteCounter());
+                context.cleanup();
+            }
+        }
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkOperatorSnapshotState.class.getSimpleName() + ".*")
+                .build();
+        new Runner(options).run();
+    }
+}
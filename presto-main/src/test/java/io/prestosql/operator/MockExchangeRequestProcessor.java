@@ -47,6 +47,7 @@ import static io.prestosql.client.PrestoHeaders.PRESTO_BUFFER_COMPLETE;
 import static io.prestosql.client.PrestoHeaders.PRESTO_PAGE_NEXT_TOKEN;
 import static io.prestosql.client.PrestoHeaders.PRESTO_PAGE_TOKEN;
 import static io.prestosql.testing.TestingPagesSerdeFactory.testingPagesSerde;
+import static java.lang.String.format;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
 
@@ -59,10 +60,25 @@ public class MockExchangeRequestProcessor
     private final LoadingCache<URI, MockBuffer> buffers = CacheBuilder.newBuilder().build(CacheLoader.from(MockBuffer::new));
 
     private final DataSize expectedMaxSize;
+    private final boolean exactMaxSize;
 
     public MockExchangeRequestProcessor(DataSize expectedMaxSize)
+    {
+        this(expectedMaxSize, true);
+    }
+
+    private MockExchangeRequestProcessor(DataSize expectedMaxSize, boolean exactMaxSize)
     {
         this.expectedMaxSize = expectedMaxSize;
+        this.exactMaxSize = exactMaxSize;
+    }
+
+    /**
+     * Accepts requests for any size up to the given size, as sent with credit based flow control
+     */
+    public static MockExchangeRequestProcessor withMaxSizeLimit(DataSize maxSize)
+    {
+        return new MockExchangeRequestProcessor(maxSize, false);
     }
 
     public void addPage(URI location, Page page)
@@ -85,7 +101,12 @@ public class MockExchangeRequestProcessor
         // verify we got a data size and it parses correctly
         assertTrue(!request.getHeaders().get(PrestoHeaders.PRESTO_MAX_SIZE).isEmpty());
         DataSize maxSize = DataSize.valueOf(request.getHeader(PrestoHeaders.PRESTO_MAX_SIZE));
-        assertEquals(maxSize, expectedMaxSize);
+        if (exactMaxSize) {
+            assertEquals(maxSize, expectedMaxSize);
+        }
+        else {
+            assertTrue(maxSize.toBytes() <= expectedMaxSize.toBytes(), format("requested %s, but at most %s was expected", maxSize, expectedMaxSize));
+        }
 
         RequestLocation requestLocation = new RequestLocation(request.getUri());
         URI location = requestLocation.getLocation();
@@ -45,6 +45,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.google.common.collect.Maps.uniqueIndex;
 import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
@@ -52,6 +53,7 @@ import static com.google.common.util.concurrent.Uninterruptibles.sleepUninterrup
 import static io.airlift.concurrent.MoreFutures.tryGetFutureValue;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.airlift.testing.Assertions.assertLessThan;
+import static io.prestosql.client.PrestoHeaders.PRESTO_MAX_SIZE;
 import static io.prestosql.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
 import static io.prestosql.testing.TestingPagesSerdeFactory.testingPagesSerde;
 import static io.prestosql.testing.TestingRecoveryUtils.NOOP_RECOVERY_UTILS;
@@ -140,6 +142,109 @@ public class TestExchangeClient
         assertStatus(status.getPageBufferClientStatuses().get(0), location, "closed", 3, 3, 3, "not scheduled");
     }
 
+    @Test
+    public void testCreditBasedFlowControlHappyPath()
+    {
+        DataSize maxResponseSize = new DataSize(10, Unit.MEGABYTE);
+        MockExchangeRequestProcessor processor = new MockExchangeRequestProcessor(maxResponseSize);
+
+        URI location = URI.create("http://localhost:8080");
+        String instanceId = "testing instance id";
+        processor.addPage(location, createPage(1));
+        processor.addPage(location, createPage(2));
+        processor.addPage(location, createPage(3));
+        processor.setComplete(location);
+
+        // the buffer is large enough that the credit of a single client is capped by the max response size
+        @SuppressWarnings("resource")
+        ExchangeClient exchangeClient = new ExchangeClient(
+                new DataSize(1, Unit.GIGABYTE),
+                maxResponseSize,
+                1,
+                true,
+                true,
+                new TestingHttpClient(processor, scheduler),
+                scheduler,
+                new SimpleLocalMemoryContext(newSimpleAggregatedMemoryContext(), "test"),
+                pageBufferClientCallbackExecutor, failureDetectorManager, (taskId, failure) -> {}, RetryPolicy.NONE, null);
+
+        exchangeClient.addLocation(new TaskId("taskid"), new TaskLocation(location, instanceId));
+        exchangeClient.noMoreLocations();
+
+        assertPageEquals(getNextPage(exchangeClient), createPage(1));
+        assertPageEquals(getNextPage(exchangeClient), createPage(2));
+        assertPageEquals(getNextPage(exchangeClient), createPage(3));
+        assertNull(getNextPage(exchangeClient));
+        assertEquals(exchangeClient.isClosed(), true);
+
+        ExchangeClientStatus status = exchangeClient.getStatus();
+        assertEquals(status.getBufferedPages(), 0);
+        assertEquals(status.getBufferedBytes(), 0);
+        assertStatus(status.getPageBufferClientStatuses().get(0), location, "closed", 3, 3, 3, "not scheduled");
+    }
+
+    @Test(timeOut = 10000)
+    public void testCreditBasedFlowControlWithSmallBuffer()
+    {
+        // the buffer is smaller than the minimum credit of all clients together
+        DataSize bufferCapacity = new DataSize(100, Unit.KILOBYTE);
+        MockExchangeRequestProcessor processor = MockExchangeRequestProcessor.withMaxSizeLimit(bufferCapacity);
+        AtomicLong requestedBytes = new AtomicLong();
+        AtomicLong maxRequestedBytes = new AtomicLong();
+        TestingHttpClient.Processor slowProcessor = request -> {
+            String maxSize = request.getHeader(PRESTO_MAX_SIZE);
+            if (maxSize == null) {
+                return processor.handle(request);
+            }
+            long bytes = DataSize.valueOf(maxSize).toBytes();
+            maxRequestedBytes.accumulateAndGet(requestedBytes.addAndGet(bytes), Math::max);
+            try {
+                // keep the requests in flight long enough to overlap
+                sleepUninterruptibly(20, MILLISECONDS);
+                return processor.handle(request);
+            }
+            finally {
+                requestedBytes.addAndGet(-bytes);
+            }
+        };
+
+        @SuppressWarnings("resource")
+        ExchangeClient exchangeClient = new ExchangeClient(
+                bufferCapacity,
+                new DataSize(1, Unit.MEGABYTE),
+                1,
+                true,
+                true,
+                new TestingHttpClient(slowProcessor, newCachedThreadPool(daemonThreadsNamed("test-%s"))),
+                scheduler,
+                new SimpleLocalMemoryContext(newSimpleAggregatedMemoryContext(), "test"),
+                pageBufferClientCallbackExecutor, failureDetectorManager, (taskId, failure) -> {}, RetryPolicy.NONE, null);
+
+        int locationCount = 4;
+        for (int i = 0; i < locationCount; i++) {
+            URI location = URI.create("http://localhost:" + (8081 + i));
+            processor.addPage(location, createPage(1));
+            processor.addPage(location, createPage(2));
+            processor.addPage(location, createPage(3));
+            processor.setComplete(location);
+            exchangeClient.addLocation(new TaskId("taskid"), new TaskLocation(location, "testing instance id"));
+        }
+        exchangeClient.noMoreLocations();
+
+        int pageCount = 0;
+        int positionCount = 0;
+        for (SerializedPage page = getNextPage(exchangeClient); page != null; page = getNextPage(exchangeClient)) {
+            pageCount++;
+            positionCount += page.getPositionCount();
+        }
+        assertEquals(pageCount, 3 * locationCount);
+        assertEquals(positionCount, 6 * locationCount);
+        assertEquals(exchangeClient.isClosed(), true);
+
+        // the requests in flight never asked for more than the buffer can hold
+        assertTrue(maxRequestedBytes.get() <= bufferCapacity.toBytes(), "requested " + maxRequestedBytes.get() + " bytes at once");
+    }
+
     @Test
     public void testMarkers()
     {
@@ -37,6 +37,7 @@ public class TestExchangeClientConfig
                 .setPageBufferClientMaxCallbackThreads(25)
                 .setClientThreads(25)
                 .setAcknowledgePages(true)
+                .setCreditBasedFlowControl(false)
                 .setDeduplicationBufferSize(new DataSize(32, Unit.MEGABYTE)));
     }
 
@@ -50,6 +51,7 @@ public class TestExchangeClientConfig
                 .put("exchange.client-threads", "2")
                 .put("exchange.page-buffer-client.max-callback-threads", "16")
                 .put("exchange.acknowledge-pages", "false")
+                .put("exchange.credit-based-flow-control", "true")
                 .put("exchange.deduplication-buffer-size", "64MB")
                 .build();
 
@@ -60,6 +62,7 @@ public class TestExchangeClientConfig
                 .setClientThreads(2)
                 .setPageBufferClientMaxCallbackThreads(16)
                 .setAcknowledgePages(false)
+                .setCreditBasedFlowControl(true)
                 .setDeduplicationBufferSize(new DataSize(64, Unit.MEGABYTE));
 
         assertFullMapping(properties, expected);
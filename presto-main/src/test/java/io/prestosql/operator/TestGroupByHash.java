@@ -47,8 +47,10 @@ import static io.prestosql.block.BlockAssertions.createLongsBlock;
 import static io.prestosql.block.BlockAssertions.createStringSequenceBlock;
 import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
 import static io.prestosql.operator.GroupByHash.createGroupByHash;
+import static io.prestosql.operator.UpdateMemory.NOOP;
 import static io.prestosql.spi.block.DictionaryId.randomDictionaryId;
 import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.BooleanType.BOOLEAN;
 import static io.prestosql.spi.type.DoubleType.DOUBLE;
 import static io.prestosql.spi.type.VarcharType.VARCHAR;
 import static io.prestosql.type.TypeUtils.getHashBlock;
@@ -603,4 +605,114 @@ public class TestGroupByHash
         assertEquals(currentQuota.get(), 10);
         assertEquals(currentQuota.get() / 3, yields);
     }
+
+    @Test
+    public void testFlatGroupByHash()
+    {
+        assertFlatGroupByHashMatchesMultiChannel(Optional.empty());
+        assertFlatGroupByHashMatchesMultiChannel(Optional.of(3));
+    }
+
+    @Test
+    public void testFlatGroupByHashUnsupportedType()
+    {
+        GroupByHash groupByHash = createGroupByHash(ImmutableList.of(DOUBLE, VARCHAR), new int[] {0, 1}, Optional.empty(), 100, false, true, JOIN_COMPILER, NOOP);
+        assertTrue(groupByHash instanceof MultiChannelGroupByHash);
+    }
+
+    @Test
+    public void testFlatGroupByHashSnapshot()
+    {
+        List<Type> types = ImmutableList.of(BIGINT, VARCHAR, BOOLEAN);
+        Page first = createFlatGroupByHashPage(0, 500);
+        Page second = createFlatGroupByHashPage(500, 1000);
+
+        GroupByHash expected = createGroupByHash(types, new int[] {0, 1, 2}, Optional.empty(), 1, false, true, JOIN_COMPILER, NOOP);
+        assertTrue(expected instanceof FlatGroupByHash);
+        getGroupIds(expected, first);
+        int groupCount = expected.getGroupCount();
+        Object snapshot = expected.capture(null);
+        long[] expectedGroupIds = getGroupIds(expected, second);
+
+        GroupByHash restored = createGroupByHash(types, new int[] {0, 1, 2}, Optional.empty(), 1, false, true, JOIN_COMPILER, NOOP);
+        restored.restore(snapshot, null);
+        assertEquals(restored.getGroupCount(), groupCount);
+        assertEquals(getGroupIds(restored, second), expectedGroupIds);
+        assertEquals(restored.getGroupCount(), expected.getGroupCount());
+        PageAssertions.assertPageEquals(types, getGroupValues(restored), getGroupValues(expected));
+    }
+
+    private void assertFlatGroupByHashMatchesMultiChannel(Optional<Integer> hashChannel)
+    {
+        List<Type> types = ImmutableList.of(BIGINT, VARCHAR, BOOLEAN);
+        Page page = createFlatGroupByHashPage(0, 1000);
+
+        // a small expected size forces several rehashes
+        GroupByHash flat = createGroupByHash(types, new int[] {0, 1, 2}, hashChannel, 1, false, true, JOIN_COMPILER, NOOP);
+        GroupByHash multiChannel = createGroupByHash(types, new int[] {0, 1, 2}, hashChannel, 1, false, false, JOIN_COMPILER, NOOP);
+        assertTrue(flat instanceof FlatGroupByHash);
+        assertTrue(multiChannel instanceof MultiChannelGroupByHash);
+
+        assertEquals(getGroupIds(flat, page), getGroupIds(multiChannel, page));
+        // the second pass only finds existing groups
+        assertEquals(getGroupIds(flat, page), getGroupIds(multiChannel, page));
+        assertEquals(flat.getGroupCount(), multiChannel.getGroupCount());
+        assertEquals(flat.getTypes(), multiChannel.getTypes());
+        PageAssertions.assertPageEquals(flat.getTypes(), getGroupValues(flat), getGroupValues(multiChannel));
+        for (int groupId = 0; groupId < flat.getGroupCount(); groupId++) {
+            assertEquals(flat.getRawHash(groupId), multiChannel.getRawHash(groupId));
+        }
+
+        for (int position = 0; position < page.getPositionCount(); position++) {
+            assertTrue(flat.contains(position, page, new int[] {0, 1, 2}));
+        }
+        Page missing = createFlatGroupByHashPage(5000, 5001);
+        assertEquals(flat.contains(0, missing, new int[] {0, 1, 2}), multiChannel.contains(0, missing, new int[] {0, 1, 2}));
+    }
+
+    private static Page createFlatGroupByHashPage(int start, int end)
+    {
+        List<Type> types = ImmutableList.of(BIGINT, VARCHAR, BOOLEAN);
+        PageBuilder pageBuilder = new PageBuilder(types);
+        for (int i = start; i < end; i++) {
+            pageBuilder.declarePosition();
+            if (i % 11 == 0) {
+                pageBuilder.getBlockBuilder(0).appendNull();
+            }
+            else {
+                BIGINT.writeLong(pageBuilder.getBlockBuilder(0), i % 37);
+            }
+            if (i % 7 == 0) {
+                pageBuilder.getBlockBuilder(1).appendNull();
+            }
+            else {
+                VARCHAR.writeString(pageBuilder.getBlockBuilder(1), "key-" + (i % 13));
+            }
+            BOOLEAN.writeBoolean(pageBuilder.getBlockBuilder(2), i % 2 == 0);
+        }
+        Page page = pageBuilder.build();
+        return page.appendColumn(getHashBlock(types, page.getBlock(0), page.getBlock(1), page.getBlock(2)));
+    }
+
+    private static long[] getGroupIds(GroupByHash groupByHash, Page page)
+    {
+        Work<GroupByIdBlock> work = groupByHash.getGroupIds(page);
+        assertTrue(work.process());
+        GroupByIdBlock groupIds = work.getResult();
+        long[] result = new long[groupIds.getPositionCount()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = groupIds.getGroupId(i);
+        }
+        return result;
+    }
+
+    private static Page getGroupValues(GroupByHash groupByHash)
+    {
+        PageBuilder pageBuilder = new PageBuilder(groupByHash.getTypes());
+        for (int groupId = 0; groupId < groupByHash.getGroupCount(); groupId++) {
+            pageBuilder.declarePosition();
+            groupByHash.appendValuesTo(groupId, pageBuilder, 0);
+        }
+        return pageBuilder.build();
+    }
 }
@@ -84,6 +84,7 @@ import static io.prestosql.operator.OperatorAssertion.dropChannel;
 import static io.prestosql.operator.OperatorAssertion.toMaterializedResult;
 import static io.prestosql.operator.OperatorAssertion.toPages;
 import static io.prestosql.operator.OperatorAssertion.toPagesCompareStateSimple;
+import static io.prestosql.operator.PageAssertions.assertPageEquals;
 import static io.prestosql.spi.function.FunctionKind.AGGREGATE;
 import static io.prestosql.spi.plan.AggregationNode.Step.PARTIAL;
 import static io.prestosql.spi.type.BigintType.BIGINT;
@@ -1083,6 +1084,57 @@ public class TestHashAggregationOperator
         OperatorAssertion.assertOperatorEquals(operatorFactory, ImmutableList.of(BIGINT, BIGINT), createDriverContext(), operator2Input, operator2Expected);
     }
 
+    @Test
+    public void testAdaptivePartialAggregationReenabled()
+    {
+        List<Integer> hashChannels = Ints.asList(0);
+
+        PartialAggregationController partialAggregationController = new PartialAggregationController(5, 0.8);
+        HashAggregationOperatorFactory operatorFactory = new HashAggregationOperatorFactory(
+                0,
+                new PlanNodeId("test"),
+                ImmutableList.of(BIGINT),
+                hashChannels,
+                ImmutableList.of(),
+                PARTIAL,
+                ImmutableList.of(LONG_MIN.bind(ImmutableList.of(0), Optional.empty())),
+                Optional.empty(),
+                Optional.empty(),
+                100,
+                Optional.of(new DataSize(1, BYTE)), // this setting makes operator to flush after each page
+                joinCompiler,
+                false,
+                Optional.of(partialAggregationController));
+
+        // unique values disable partial aggregation, which is re-enabled after 10 * 5 rows have been passed through
+        RowPagesBuilder inputBuilder = rowPagesBuilder(false, hashChannels, BIGINT)
+                .addSequencePage(10, 0);
+        RowPagesBuilder expectedBuilder = rowPagesBuilder(BIGINT, BIGINT)
+                .addSequencePage(10, 0, 0);
+        for (int i = 0; i < 5; i++) {
+            inputBuilder.addBlocksPage(createRLEBlock(1, 10));
+            expectedBuilder.addBlocksPage(createRLEBlock(1, 10), createRLEBlock(1, 10));
+        }
+        // once re-enabled the page is aggregated again
+        inputBuilder.addBlocksPage(createRLEBlock(1, 10));
+        expectedBuilder.addBlocksPage(createLongsBlock(1), createLongsBlock(1));
+
+        Operator operator = operatorFactory.createOperator(createDriverContext());
+        List<Page> actual = toPages(operator, inputBuilder.build().iterator());
+        List<Page> expected = expectedBuilder.build();
+        assertEquals(actual.size(), expected.size());
+        for (int i = 0; i < actual.size(); i++) {
+            assertPageEquals(ImmutableList.of(BIGINT, BIGINT), actual.get(i), expected.get(i));
+        }
+        assertFalse(partialAggregationController.isPartialAggregationDisabled());
+
+        HashCollisionsInfo info = (HashCollisionsInfo) operator.getOperatorContext().getOperatorStats().getInfo();
+        assertEquals(info.getPartialAggregationInputRows(), 20);
+        assertEquals(info.getPartialAggregationUniqueRows(), 11);
+        assertEquals(info.getPartialAggregationSkippedRows(), 50);
+        assertEquals(info.getPartialAggregationUniqueRowsRatio(), 11.0 / 20);
+    }
+
     private DriverContext createDriverContext()
     {
         return createDriverContext(Integer.MAX_VALUE);
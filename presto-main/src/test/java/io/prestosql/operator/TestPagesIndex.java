@@ -16,6 +16,7 @@ package io.prestosql.operator;
 import com.google.common.collect.ImmutableList;
 import io.hetu.core.transport.execution.buffer.PagesSerde;
 import io.prestosql.spi.Page;
+import io.prestosql.spi.block.SortOrder;
 import io.prestosql.spi.snapshot.SnapshotTestUtil;
 import io.prestosql.spi.type.Type;
 import io.prestosql.testing.TestingPagesSerdeFactory;
@@ -24,14 +25,19 @@ import org.testng.annotations.Test;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
 import static io.prestosql.SequencePageBuilder.createSequencePage;
+import static io.prestosql.operator.PageAssertions.assertPageEquals;
 import static io.prestosql.spi.type.BigintType.BIGINT;
 import static io.prestosql.spi.type.VarcharType.VARCHAR;
 import static java.lang.String.format;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
 
 public class TestPagesIndex
@@ -85,6 +91,52 @@ public class TestPagesIndex
         return expectedMapping;
     }
 
+    @Test
+    public void testIncrementalSnapshot()
+    {
+        List<Type> types = ImmutableList.of(BIGINT, VARCHAR);
+        PagesSerde serde = TestingPagesSerdeFactory.testingPagesSerde();
+
+        PagesIndex pagesIndex = newPagesIndex(types, 30, false);
+        // No base to capture changes against yet
+        assertNull(pagesIndex.captureIncremental(serde));
+
+        pagesIndex.addPage(somePage(types));
+        Object fullState = pagesIndex.capture(serde);
+
+        pagesIndex.addPage(somePage(types));
+        pagesIndex.addPage(somePage(types));
+        Object incrementalState = pagesIndex.captureIncremental(serde);
+        assertNotNull(incrementalState);
+        assertTrue(pagesIndex.getIncrementalSkippedBytes() > 0);
+        assertRestoredEquals(types, pagesIndex, pagesIndex.applyIncremental(fullState, incrementalState), serde);
+
+        // Sorting reorders existing positions
+        Object baseState = pagesIndex.applyIncremental(fullState, incrementalState);
+        pagesIndex.sort(ImmutableList.of(0), ImmutableList.of(SortOrder.DESC_NULLS_LAST));
+        incrementalState = pagesIndex.captureIncremental(serde);
+        assertRestoredEquals(types, pagesIndex, pagesIndex.applyIncremental(baseState, incrementalState), serde);
+
+        // After clearing the index, a full capture is needed again
+        pagesIndex.clear();
+        pagesIndex.addPage(somePage(types));
+        assertNull(pagesIndex.captureIncremental(serde));
+    }
+
+    private static void assertRestoredEquals(List<Type> types, PagesIndex expected, Object state, PagesSerde serde)
+    {
+        PagesIndex restored = newPagesIndex(types, 30, false);
+        restored.restore(state, serde);
+        assertEquals(restored.getPositionCount(), expected.getPositionCount());
+        Iterator<Page> expectedPages = expected.getSortedPages();
+        Iterator<Page> restoredPages = restored.getSortedPages();
+        while (expectedPages.hasNext()) {
+            assertTrue(restoredPages.hasNext());
+            assertPageEquals(types, restoredPages.next(), expectedPages.next());
+        }
+        assertFalse(restoredPages.hasNext());
+    }
+
     @Test
     public void testEagerCompact()
     {
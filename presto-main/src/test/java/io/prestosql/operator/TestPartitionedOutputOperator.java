@@ -17,13 +17,17 @@ package io.prestosql.operator;
 import com.google.common.collect.ImmutableList;
 import io.airlift.units.DataSize;
 import io.hetu.core.transport.execution.buffer.SerializedPage;
+import io.prestosql.Session;
 import io.prestosql.execution.TaskId;
 import io.prestosql.execution.buffer.PartitionedOutputBuffer;
 import io.prestosql.operator.exchange.LocalPartitionGenerator;
 import io.prestosql.operator.output.PartitionedOutputOperator;
+import io.prestosql.operator.output.PartitionedOutputOperator.HotKey;
+import io.prestosql.operator.output.PartitionedOutputOperator.PartitionedOutputInfo;
 import io.prestosql.operator.output.PositionsAppenderFactory;
 import io.prestosql.snapshot.RecoveryUtils;
 import io.prestosql.spi.Page;
+import io.prestosql.spi.block.BlockBuilder;
 import io.prestosql.spi.plan.PlanNodeId;
 import io.prestosql.spi.snapshot.MarkerPage;
 import io.prestosql.spi.snapshot.SnapshotTestUtil;
@@ -32,6 +36,7 @@ import io.prestosql.testing.TestingTaskContext;
 import org.mockito.ArgumentCaptor;
 import org.testng.annotations.Test;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -45,6 +50,7 @@ import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.airlift.units.DataSize.Unit.GIGABYTE;
 import static io.prestosql.RowPagesBuilder.rowPagesBuilder;
 import static io.prestosql.SessionTestUtils.TEST_SNAPSHOT_SESSION;
+import static io.prestosql.SystemSessionProperties.EXCHANGE_HOT_KEY_DETECTION_ENABLED;
 import static io.prestosql.spi.type.BigintType.BIGINT;
 import static io.prestosql.testing.assertions.Assert.assertEquals;
 import static java.util.concurrent.Executors.newCachedThreadPool;
@@ -126,6 +132,49 @@ public class TestPartitionedOutputOperator
         assertTrue(((SerializedPage) pages.get(8).get(0)).isMarkerPage());
     }
 
+    @Test
+    public void testHotKeyDetection()
+    {
+        PartitionedOutputBuffer buffer = mock(PartitionedOutputBuffer.class);
+        Session session = Session.builder(TEST_SNAPSHOT_SESSION)
+                .setSystemProperty(EXCHANGE_HOT_KEY_DETECTION_ENABLED, "true")
+                .build();
+        PartitionedOutputOperator operator = createPartitionedOutputOperator(mock(RecoveryUtils.class), buffer, session);
+        operator.addInput(createSkewedPage());
+        operator.finish();
+
+        PartitionedOutputInfo info = operator.getInfo();
+        assertEquals(info.getPartitionSizeInBytes().length, PARTITION_COUNT);
+        assertEquals(info.getHotKeys().size(), 1);
+        HotKey hotKey = info.getHotKeys().get(0);
+        assertEquals(hotKey.getKey(), "7");
+        assertTrue(hotKey.getEstimatedRows() > 8_000, "estimated rows: " + hotKey.getEstimatedRows());
+        assertEquals(Arrays.stream(info.getPartitionSizeInBytes()).max().getAsLong(), info.getPartitionSizeInBytes()[hotKey.getPartition()]);
+    }
+
+    @Test
+    public void testHotKeyDetectionDisabled()
+    {
+        PartitionedOutputBuffer buffer = mock(PartitionedOutputBuffer.class);
+        PartitionedOutputOperator operator = createPartitionedOutputOperator(mock(RecoveryUtils.class), buffer);
+        operator.addInput(createSkewedPage());
+        operator.finish();
+
+        PartitionedOutputInfo info = operator.getInfo();
+        assertEquals(info.getPartitionSizeInBytes().length, PARTITION_COUNT);
+        assertTrue(info.getHotKeys().isEmpty());
+    }
+
+    private static Page createSkewedPage()
+    {
+        // 90% of the rows share key 7
+        BlockBuilder blockBuilder = BIGINT.createBlockBuilder(null, 10_000);
+        for (int i = 0; i < 10_000; i++) {
+            BIGINT.writeLong(blockBuilder, i % 10 == 0 ? i : 7);
+        }
+        return new Page(blockBuilder.build());
+    }
+
     private Map<String, Object> createExpectedMappingBeforeFinish()
     {
         Map<String, Object> expectedMapping = new HashMap<>();
@@ -155,6 +204,11 @@ public class TestPartitionedOutputOperator
     }
 
     private PartitionedOutputOperator createPartitionedOutputOperator(RecoveryUtils recoveryUtils, PartitionedOutputBuffer buffer)
+    {
+        return createPartitionedOutputOperator(recoveryUtils, buffer, TEST_SNAPSHOT_SESSION);
+    }
+
+    private PartitionedOutputOperator createPartitionedOutputOperator(RecoveryUtils recoveryUtils, PartitionedOutputBuffer buffer, Session session)
     {
         PositionsAppenderFactory positionsAppenderFactory = new PositionsAppenderFactory();
         PartitionFunction partitionFunction = new LocalPartitionGenerator(new InterpretedHashGenerator(ImmutableList.of(BIGINT), new int[] {0}), PARTITION_COUNT);
@@ -167,19 +221,19 @@ public class TestPartitionedOutputOperator
                 buffer,
                 new DataSize(1, GIGABYTE),
                 positionsAppenderFactory);
-        TaskContext taskContext = createTaskContext(recoveryUtils);
+        TaskContext taskContext = createTaskContext(recoveryUtils, session);
         return (PartitionedOutputOperator) operatorFactory
                 .createOutputOperator(0, new PlanNodeId("plan-node-0"), TYPES, Function.identity(), taskContext)
                 .createOperator(createDriverContext(taskContext));
     }
 
-    private TaskContext createTaskContext(RecoveryUtils recoveryUtils)
+    private TaskContext createTaskContext(RecoveryUtils recoveryUtils, Session session)
     {
-        TaskContext taskContext = TestingTaskContext.builder(EXECUTOR, SCHEDULER, TEST_SNAPSHOT_SESSION, recoveryUtils)
+        TaskContext taskContext = TestingTaskContext.builder(EXECUTOR, SCHEDULER, session, recoveryUtils)
                 .setMemoryPoolSize(MAX_MEMORY)
                 .build();
         // So that
-        return TestingTaskContext.createTaskContext(taskContext.getQueryContext(), EXECUTOR, TEST_SNAPSHOT_SESSION, new TaskId("query.1.1.0"));
+        return TestingTaskContext.createTaskContext(taskContext.getQueryContext(), EXECUTOR, session, new TaskId("query.1.1.0"));
     }
 
     private DriverContext createDriverContext(TaskContext taskContext)
@@ -14,6 +14,7 @@
 package io.prestosql.operator;
 
 import com.google.common.collect.ImmutableList;
+import io.airlift.units.DataSize;
 import io.prestosql.RowPagesBuilder;
 import io.prestosql.metadata.Metadata;
 import io.prestosql.operator.StreamingAggregationOperator.StreamingAggregationOperatorFactory;
@@ -37,10 +38,14 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
 
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.testing.Assertions.assertEqualsIgnoreOrder;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static io.prestosql.SessionTestUtils.TEST_SESSION;
 import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
 import static io.prestosql.operator.OperatorAssertion.assertOperatorEquals;
 import static io.prestosql.operator.OperatorAssertion.assertOperatorEqualsWithSimpleSelfStateComparison;
+import static io.prestosql.operator.OperatorAssertion.toMaterializedResult;
+import static io.prestosql.operator.OperatorAssertion.toPages;
 import static io.prestosql.spi.function.FunctionKind.AGGREGATE;
 import static io.prestosql.spi.type.BigintType.BIGINT;
 import static io.prestosql.spi.type.BooleanType.BOOLEAN;
@@ -50,6 +55,9 @@ import static io.prestosql.testing.TestingTaskContext.createTaskContext;
 import static java.lang.String.format;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.Executors.newScheduledThreadPool;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 @Test(singleThreaded = true)
 public class TestStreamingAggregationOperator
@@ -249,4 +257,74 @@ public class TestStreamingAggregationOperator
                 .build();
         assertOperatorEquals(operatorFactory, driverContext, input, expected);
     }
+
+    @Test
+    public void testPartialGroupedInput()
+    {
+        RowPagesBuilder rowPagesBuilder = RowPagesBuilder.rowPagesBuilder(BOOLEAN, VARCHAR, BIGINT);
+        List<Page> input = rowPagesBuilder
+                .row(true, "0", 1)
+                .row(false, "1", 2)
+                .pageBreak()
+                .row(true, "1", 3)
+                .row(false, "2", 4)
+                .build();
+
+        MaterializedResult expected = resultBuilder(driverContext.getSession(), VARCHAR, BIGINT, BIGINT)
+                .row("0", 1L, 1L)
+                .row("1", 2L, 5L)
+                .row("2", 1L, 4L)
+                .build();
+
+        StreamingAggregationOperator operator = createPartialOperator();
+        MaterializedResult actual = toMaterializedResult(driverContext.getSession(), expected.getTypes(), toPages(operator, input.iterator()));
+        assertEquals(actual.getMaterializedRows(), expected.getMaterializedRows());
+        assertFalse(operator.isHashAggregationFallback());
+    }
+
+    @Test
+    public void testPartialFallbackToHashAggregation()
+    {
+        RowPagesBuilder rowPagesBuilder = RowPagesBuilder.rowPagesBuilder(BOOLEAN, VARCHAR, BIGINT);
+        List<Page> input = rowPagesBuilder
+                .addSequencePage(3, 0, 0, 1)
+                .pageBreak()
+                .row(true, "3", 4)
+                .row(false, "1", 5)
+                .row(true, "3", 6)
+                .pageBreak()
+                .row(false, "3", 7)
+                .build();
+
+        // groups emitted before the out of order key "1" are not merged with the ones from the hash aggregation
+        MaterializedResult expected = resultBuilder(driverContext.getSession(), VARCHAR, BIGINT, BIGINT)
+                .row("0", 1L, 1L)
+                .row("1", 1L, 2L)
+                .row("2", 1L, 3L)
+                .row("3", 1L, 4L)
+                .row("1", 1L, 5L)
+                .row("3", 2L, 13L)
+                .build();
+
+        StreamingAggregationOperator operator = createPartialOperator();
+        MaterializedResult actual = toMaterializedResult(driverContext.getSession(), expected.getTypes(), toPages(operator, input.iterator()));
+        assertEqualsIgnoreOrder(actual.getMaterializedRows(), expected.getMaterializedRows());
+        assertTrue(operator.isHashAggregationFallback());
+    }
+
+    private StreamingAggregationOperator createPartialOperator()
+    {
+        return (StreamingAggregationOperator) new StreamingAggregationOperatorFactory(
+                0,
+                new PlanNodeId("test"),
+                ImmutableList.of(BOOLEAN, VARCHAR, BIGINT),
+                ImmutableList.of(VARCHAR),
+                ImmutableList.of(1),
+                AggregationNode.Step.PARTIAL,
+                ImmutableList.of(COUNT.bind(ImmutableList.of(0), Optional.empty()),
+                        LONG_SUM.bind(ImmutableList.of(2), Optional.empty())),
+                new JoinCompiler(createTestMetadataManager()),
+                Optional.of(new DataSize(16, MEGABYTE)))
+                .createOperator(driverContext);
+    }
 }
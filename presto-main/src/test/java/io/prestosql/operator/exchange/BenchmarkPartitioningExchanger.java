@@ -0,0 +1,238 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator.exchange;
+
+import com.google.common.collect.ImmutableList;
+import io.airlift.units.DataSize;
+import io.prestosql.SequencePageBuilder;
+import io.prestosql.execution.Lifespan;
+import io.prestosql.operator.exchange.LocalExchange.LocalExchangeFactory;
+import io.prestosql.operator.exchange.LocalExchange.LocalExchangeSinkFactory;
+import io.prestosql.operator.exchange.LocalExchange.LocalExchangeSinkFactoryId;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.type.Type;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static io.prestosql.operator.PipelineExecutionStrategy.UNGROUPED_EXECUTION;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.sql.planner.SystemPartitioningHandle.FIXED_HASH_DISTRIBUTION;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Measures the hand off of hash partitioned pages from many concurrent producers (local exchange sinks)
+ * to the partition consumers (local exchange sources), including the exchange memory accounting.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(2)
+@Warmup(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@BenchmarkMode(Mode.AverageTime)
+public class BenchmarkPartitioningExchanger
+{
+    private static final List<Type> TYPES = ImmutableList.of(BIGINT, BIGINT);
+    private static final int PARTITIONS = 16;
+    private static final int POSITIONS_PER_PAGE = 1024;
+    // divisible by all producer counts, so the total amount of work does not depend on the parameter
+    private static final int TOTAL_PAGES = 1920;
+
+    @Benchmark
+    @OperationsPerInvocation(TOTAL_PAGES)
+    public long exchange(BenchmarkData data)
+            throws Exception
+    {
+        List<Future<?>> producers = new ArrayList<>();
+        for (LocalExchangeSink sink : data.getSinks()) {
+            producers.add(data.getExecutor().submit(() -> produce(sink, data.getPage(), TOTAL_PAGES / data.getSinks().size())));
+        }
+
+        List<Future<Long>> consumers = new ArrayList<>();
+        for (LocalExchangeSource source : data.getSources()) {
+            consumers.add(data.getExecutor().submit(() -> consume(source)));
+        }
+
+        for (Future<?> producer : producers) {
+            producer.get();
+        }
+        long positions = 0;
+        for (Future<Long> consumer : consumers) {
+            positions += consumer.get();
+        }
+        return positions;
+    }
+
+    private static Void produce(LocalExchangeSink sink, Page page, int pages)
+            throws InterruptedException, ExecutionException
+    {
+        for (int i = 0; i < pages; i++) {
+            sink.waitForWriting().get();
+            sink.addPage(page, null);
+        }
+        sink.finish();
+        return null;
+    }
+
+    private static long consume(LocalExchangeSource source)
+            throws InterruptedException, ExecutionException
+    {
+        long positions = 0;
+        while (true) {
+            Page page = source.removePage().getLeft();
+            if (page != null) {
+                positions += page.getPositionCount();
+            }
+            else if (source.isFinished()) {
+                return positions;
+            }
+            else {
+                source.waitForReading().get();
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class BenchmarkData
+    {
+        @Param({"8", "32", "96"})
+        private int producers = 8;
+
+        private final Page page = SequencePageBuilder.createSequencePage(TYPES, POSITIONS_PER_PAGE, 0, 42);
+
+        private ExecutorService executor;
+        private List<LocalExchangeSink> sinks;
+        private List<LocalExchangeSource> sources;
+
+        @Setup
+        public void setup()
+        {
+            executor = newCachedThreadPool(daemonThreadsNamed("partitioning-exchanger-%s"));
+        }
+
+        @Setup(Level.Invocation)
+        public void createExchange()
+        {
+            LocalExchangeFactory factory = new LocalExchangeFactory(
+                    FIXED_HASH_DISTRIBUTION,
+                    PARTITIONS,
+                    TYPES,
+                    ImmutableList.of(0),
+                    Optional.empty(),
+                    UNGROUPED_EXECUTION,
+                    new DataSize(32, MEGABYTE));
+            LocalExchangeSinkFactoryId sinkFactoryId = factory.newSinkFactoryId();
+            factory.noMoreSinkFactories();
+
+            LocalExchange exchange = factory.getLocalExchange(Lifespan.taskWide());
+            LocalExchangeSinkFactory sinkFactory = exchange.getSinkFactory(sinkFactoryId);
+            ImmutableList.Builder<LocalExchangeSink> sinks = ImmutableList.builder();
+            for (int i = 0; i < producers; i++) {
+                sinks.add(sinkFactory.createSink("sink-" + i));
+            }
+            sinkFactory.close();
+            sinkFactory.noMoreSinkFactories();
+            this.sinks = sinks.build();
+
+            ImmutableList.Builder<LocalExchangeSource> sources = ImmutableList.builder();
+            for (int i = 0; i < exchange.getBufferCount(); i++) {
+                sources.add(exchange.getSource(i));
+            }
+            this.sources = sources.build();
+        }
+
+        @TearDown
+        public void tearDown()
+        {
+            executor.shutdownNow();
+        }
+
+        public ExecutorService getExecutor()
+        {
+            return executor;
+        }
+
+        public Page getPage()
+        {
+            return page;
+        }
+
+        public List<LocalExchangeSink> getSinks()
+        {
+            return sinks;
+        }
+
+        public List<LocalExchangeSource> getSources()
+        {
+            return sources;
+        }
+    }
+
+    @Test
+    public void verify()
+            throws Exception
+    {
+        BenchmarkData data = new BenchmarkData();
+        data.setup();
+        try {
+            data.createExchange();
+            assertEquals(exchange(data), (long) TOTAL_PAGES * POSITIONS_PER_PAGE);
+            for (LocalExchangeSource source : data.getSources()) {
+                assertEquals(source.getBufferInfo().getBufferedBytes(), 0);
+                assertEquals(source.getBufferInfo().getBufferedPages(), 0);
+            }
+        }
+        finally {
+            data.tearDown();
+        }
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkPartitioningExchanger.class.getSimpleName() + ".*")
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.operator.output;
+
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockBuilder;
+import io.prestosql.spi.block.DictionaryBlock;
+import io.prestosql.spi.block.RunLengthEncodedBlock;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import org.testng.annotations.Test;
+
+import static io.prestosql.block.BlockAssertions.assertBlockEquals;
+import static io.prestosql.block.BlockAssertions.createLongsBlock;
+import static io.prestosql.block.BlockAssertions.createRLEBlock;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestEncodingPreservingAppender
+{
+    private static final PositionsAppender FLAT_APPENDER = new PositionsAppender.TypedPositionsAppender(BIGINT);
+
+    @Test
+    public void testRunLengthEncoded()
+    {
+        EncodingPreservingAppender appender = new EncodingPreservingAppender(BIGINT);
+        BlockBuilder target = BIGINT.createBlockBuilder(null, 8);
+        appender.append(positions(0, 2), createRLEBlock(5, 10), target, FLAT_APPENDER);
+        appender.append(positions(1, 3, 4), createRLEBlock(5, 10), target, FLAT_APPENDER);
+        assertTrue(appender.getSizeInBytes() > 0);
+
+        Block block = appender.build(target);
+        assertTrue(block instanceof RunLengthEncodedBlock);
+        assertBlockEquals(BIGINT, block, createLongsBlock(5, 5, 5, 5, 5));
+        assertEquals(appender.getSizeInBytes(), 0);
+    }
+
+    @Test
+    public void testDictionary()
+    {
+        Block dictionary = createLongsBlock(10, 20, 30);
+        EncodingPreservingAppender appender = new EncodingPreservingAppender(BIGINT);
+        BlockBuilder target = BIGINT.createBlockBuilder(null, 8);
+        appender.append(positions(0, 3), new DictionaryBlock(dictionary, new int[] {2, 0, 1, 1}), target, FLAT_APPENDER);
+        appender.append(positions(1), new DictionaryBlock(dictionary, new int[] {0, 2}), target, FLAT_APPENDER);
+        assertTrue(appender.getDictionary().isPresent());
+
+        Block block = appender.build(target);
+        assertTrue(block instanceof DictionaryBlock);
+        assertBlockEquals(BIGINT, block, createLongsBlock(30, 20, 30));
+    }
+
+    @Test
+    public void testFlattenOnMismatch()
+    {
+        EncodingPreservingAppender appender = new EncodingPreservingAppender(BIGINT);
+        BlockBuilder target = BIGINT.createBlockBuilder(null, 8);
+        appender.append(positions(0, 1), createRLEBlock(5, 2), target, FLAT_APPENDER);
+        appender.append(positions(0), createRLEBlock(6, 2), target, FLAT_APPENDER);
+        assertTrue(appender.isFlat());
+        appender.append(positions(1), new DictionaryBlock(createLongsBlock(7, 8), new int[] {0, 1}), target, FLAT_APPENDER);
+        appender.append(positions(0), createLongsBlock(9), target, FLAT_APPENDER);
+
+        Block block = appender.build(target);
+        assertBlockEquals(BIGINT, block, createLongsBlock(5, 5, 6, 8, 9));
+        assertFalse(appender.isFlat());
+
+        // a new page starts encoded again
+        target = BIGINT.createBlockBuilder(null, 8);
+        appender.append(positions(0), createRLEBlock(1, 1), target, FLAT_APPENDER);
+        assertTrue(appender.build(target) instanceof RunLengthEncodedBlock);
+    }
+
+    private static IntArrayList positions(int... positions)
+    {
+        return IntArrayList.wrap(positions);
+    }
+}
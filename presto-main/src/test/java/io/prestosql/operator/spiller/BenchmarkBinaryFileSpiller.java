@@ -17,8 +17,10 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.MoreExecutors;
 import io.airlift.tpch.LineItem;
 import io.airlift.tpch.LineItemGenerator;
+import io.airlift.units.DataSize;
 import io.hetu.core.filesystem.HetuLocalFileSystemClient;
 import io.hetu.core.filesystem.LocalConfig;
+import io.hetu.core.transport.execution.buffer.PageCompressionCodec;
 import io.prestosql.filesystem.FileSystemClientManager;
 import io.prestosql.spi.Page;
 import io.prestosql.spi.PageBuilder;
@@ -57,6 +59,7 @@ import java.util.Properties;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static io.prestosql.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
 import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
 import static io.prestosql.spi.type.BigintType.BIGINT;
@@ -119,6 +122,10 @@ public class BenchmarkBinaryFileSpiller
         @Param({"1", "25"})
         private int spillPrefetchReadPages = 1;
 
+        // only takes effect for uncompressed and unencrypted spills without direct serde
+        @Param({"false", "true"})
+        private boolean mmapReadEnabled;
+
         private List<Page> pages;
 
         private FileSingleStreamSpillerFactory singleStreamSpillerFactory;
@@ -141,8 +148,13 @@ public class BenchmarkBinaryFileSpiller
                     directSerdeEnabled,
                     spillPrefetchReadPages,
                     false,
+                    false,
                     null,
-                    fileSystemClientManager);
+                    fileSystemClientManager,
+                    PageCompressionCodec.ZSTD,
+                    false,
+                    new DataSize(1, MEGABYTE),
+                    mmapReadEnabled);
             spillerFactory = new GenericSpillerFactory(singleStreamSpillerFactory);
             pages = createInputPages();
         }
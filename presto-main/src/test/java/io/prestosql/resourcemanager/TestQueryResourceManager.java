@@ -127,6 +127,9 @@ public class TestQueryResourceManager
             new DataSize(26, BYTE),
             new DataSize(26, BYTE),
 
+            27,
+            new DataSize(28, BYTE),
+
             new StageGcStatistics(
                     101,
                     102,
@@ -236,6 +239,9 @@ public class TestQueryResourceManager
                 new DataSize(26, BYTE),
                 new DataSize(26, BYTE),
 
+                27,
+                new DataSize(28, BYTE),
+
                 new StageGcStatistics(
                         101,
                         102,
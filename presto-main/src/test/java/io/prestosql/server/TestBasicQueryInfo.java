@@ -118,6 +118,8 @@ public class TestBasicQueryInfo
                                 32,
                                 DataSize.valueOf("32GB"),
                                 DataSize.valueOf("32GB"),
+                                33,
+                                DataSize.valueOf("34GB"),
                                 ImmutableList.of(new StageGcStatistics(
                                         101,
                                         102,
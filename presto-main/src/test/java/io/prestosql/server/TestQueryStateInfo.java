@@ -169,6 +169,8 @@ public class TestQueryStateInfo
                         32,
                         DataSize.valueOf("33GB"),
                         DataSize.valueOf("33GB"),
+                        34,
+                        DataSize.valueOf("35GB"),
                         ImmutableList.of(),
                         ImmutableList.of(),
                         Duration.valueOf("24m"),
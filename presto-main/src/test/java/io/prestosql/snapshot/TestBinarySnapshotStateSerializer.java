@@ -0,0 +1,220 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.snapshot;
+
+import com.google.common.collect.ImmutableList;
+import io.prestosql.spi.snapshot.BinarySnapshotState;
+import io.prestosql.spi.snapshot.SnapshotStateInput;
+import io.prestosql.spi.snapshot.SnapshotStateOutput;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertThrows;
+
+public class TestBinarySnapshotStateSerializer
+{
+    @Test
+    public void testValues()
+            throws Exception
+    {
+        assertNull(roundTrip(null));
+        assertEquals(roundTrip(true), true);
+        assertEquals(roundTrip((byte) 3), (byte) 3);
+        assertEquals(roundTrip((short) -4), (short) -4);
+        assertEquals(roundTrip('x'), 'x');
+        assertEquals(roundTrip(Integer.MIN_VALUE), Integer.MIN_VALUE);
+        assertEquals(roundTrip(Long.MAX_VALUE), Long.MAX_VALUE);
+        assertEquals(roundTrip(1.5f), 1.5f);
+        assertEquals(roundTrip(Double.NaN), Double.NaN);
+        assertEquals(roundTrip("snapshot state"), "snapshot state");
+        assertEquals(roundTrip(SnapshotResult.FAILED_FATAL), SnapshotResult.FAILED_FATAL);
+    }
+
+    @Test
+    public void testArrays()
+            throws Exception
+    {
+        assertEquals((long[]) roundTrip(new long[] {Long.MIN_VALUE, 0, Long.MAX_VALUE}), new long[] {Long.MIN_VALUE, 0, Long.MAX_VALUE});
+        assertEquals((int[]) roundTrip(new int[] {1, -2, 3}), new int[] {1, -2, 3});
+        assertEquals((byte[]) roundTrip(new byte[] {1, 2}), new byte[] {1, 2});
+        assertEquals((boolean[]) roundTrip(new boolean[] {true, false, true}), new boolean[] {true, false, true});
+        assertEquals((double[]) roundTrip(new double[] {1.25, -3}), new double[] {1.25, -3});
+        assertEquals((short[]) roundTrip(new short[] {7, -7}), new short[] {7, -7});
+        assertEquals((float[]) roundTrip(new float[] {0.5f}), new float[] {0.5f});
+        assertEquals((char[]) roundTrip(new char[] {'a', Character.MAX_VALUE}), new char[] {'a', Character.MAX_VALUE});
+        assertEquals((long[]) roundTrip(new long[0]), new long[0]);
+
+        long[][] segments = new long[][] {new long[1024], null, new long[] {5}};
+        segments[0][1023] = 42;
+        long[][] actual = (long[][]) roundTrip(segments);
+        assertEquals(actual.length, 3);
+        assertEquals(actual[0], segments[0]);
+        assertNull(actual[1]);
+        assertEquals(actual[2], segments[2]);
+    }
+
+    @Test
+    public void testCollections()
+            throws Exception
+    {
+        List<Object> list = new ArrayList<>();
+        list.add(1L);
+        list.add(null);
+        list.add("a");
+        assertEquals(roundTrip(list), list);
+
+        Map<String, Object> map = new HashMap<>();
+        map.put("long", 1L);
+        map.put("list", list);
+        assertEquals(roundTrip(map), map);
+
+        LongArrayList longs = new LongArrayList(new long[] {3, 1, 2});
+        assertEquals(roundTrip(longs), longs);
+        IntArrayList ints = new IntArrayList(new int[] {3, 1, 2});
+        assertEquals(roundTrip(ints), ints);
+    }
+
+    @Test
+    public void testUnsupportedValue()
+    {
+        assertThrows(NotSerializableException.class, () -> roundTrip(ImmutableList.of(1, 2, 3)));
+        TestState state = new TestState();
+        state.children = new Object[] {new Object()};
+        assertThrows(NotSerializableException.class, () -> roundTrip(state));
+    }
+
+    @Test
+    public void testNonBinaryState()
+            throws Exception
+    {
+        for (boolean useKryo : new boolean[] {false, true}) {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            BinarySnapshotStateSerializer.serialize(ImmutableList.of(1, 2, 3), output, useKryo);
+            assertEquals(BinarySnapshotStateSerializer.deserialize(new ByteArrayInputStream(output.toByteArray())), ImmutableList.of(1, 2, 3));
+        }
+    }
+
+    @Test
+    public void testStateObjects()
+            throws Exception
+    {
+        TestState child = new TestState();
+        child.count = 7;
+        child.values = new long[] {1, 2, 3};
+
+        TestState state = new TestState();
+        state.count = 3;
+        state.ratio = 0.5;
+        state.finished = true;
+        state.values = new long[] {4, 5};
+        state.child = child;
+        state.children = new Object[] {child, child};
+        state.self = state;
+        state.context = ImmutableList.of("context");
+
+        TestState actual = (TestState) roundTrip(state);
+        assertEquals(actual.count, 3);
+        assertEquals(actual.ratio, 0.5);
+        assertEquals(actual.finished, true);
+        assertEquals(actual.values, new long[] {4, 5});
+        assertEquals(actual.child.count, 7);
+        assertEquals(actual.child.values, new long[] {1, 2, 3});
+        assertNull(actual.child.child);
+        assertSame(actual.children[0], actual.child);
+        assertSame(actual.children[1], actual.child);
+        assertSame(actual.self, actual);
+        assertEquals(actual.context, ImmutableList.of("context"));
+    }
+
+    @Test
+    public void testIncrementalState()
+            throws Exception
+    {
+        TestState delta = new TestState();
+        delta.count = 5;
+        delta.values = new long[] {6, 7};
+        IncrementalSnapshotState actual = (IncrementalSnapshotState) roundTrip(new IncrementalSnapshotState(3, delta));
+        assertEquals(actual.getBaseSnapshotId(), 3);
+        assertEquals(((TestState) actual.getState()).count, 5);
+        assertEquals(((TestState) actual.getState()).values, new long[] {6, 7});
+
+        // a state without a binary format is kept with Java serialization
+        actual = (IncrementalSnapshotState) roundTrip(new IncrementalSnapshotState(4, ImmutableList.of(1, 2)));
+        assertEquals(actual.getBaseSnapshotId(), 4);
+        assertEquals(actual.getState(), ImmutableList.of(1, 2));
+    }
+
+    private static Object roundTrip(Object state)
+            throws IOException, ClassNotFoundException
+    {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        BinarySnapshotStateSerializer.serialize(state, output);
+        return BinarySnapshotStateSerializer.deserialize(new ByteArrayInputStream(output.toByteArray()));
+    }
+
+    public static class TestState
+            implements Serializable, BinarySnapshotState
+    {
+        private int count;
+        private double ratio;
+        private boolean finished;
+        private long[] values;
+        private TestState child;
+        private Object[] children;
+        private Object self;
+        private Object context;
+
+        @Override
+        public void writeState(SnapshotStateOutput output)
+                throws IOException
+        {
+            output.writeInt(count);
+            output.writeDouble(ratio);
+            output.writeBoolean(finished);
+            output.writeObject(values);
+            output.writeObject(child);
+            output.writeObject(children);
+            output.writeObject(self);
+            output.writeSerializable(context);
+        }
+
+        @Override
+        public void readState(SnapshotStateInput input)
+                throws IOException, ClassNotFoundException
+        {
+            count = input.readInt();
+            ratio = input.readDouble();
+            finished = input.readBoolean();
+            values = (long[]) input.readObject();
+            child = (TestState) input.readObject();
+            children = (Object[]) input.readObject();
+            self = input.readObject();
+            context = input.readSerializable();
+        }
+    }
+}
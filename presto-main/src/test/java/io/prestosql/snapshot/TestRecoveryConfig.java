@@ -37,6 +37,9 @@ public class TestRecoveryConfig
                 .setRecoveryMaxRetries(10)
                 .setRecoveryRetryTimeout(new Duration(10, TimeUnit.MINUTES))
                 .setSnapshotUseKryoSerialization(false)
+                .setSnapshotUseBinaryStateFormat(false)
+                .setSnapshotIncrementalCaptureEnabled(false)
+                .setSnapshotFullCaptureInterval(5)
                 .setEliminateDuplicateSpillFilesEnabled(false));
     }
 
@@ -53,6 +56,9 @@ public class TestRecoveryConfig
                 .put("hetu.recovery.maxRetries", "20")
                 .put("hetu.recovery.retryTimeout", "5m")
                 .put("hetu.snapshot.useKryoSerialization", "true")
+                .put("hetu.snapshot.useBinaryStateFormat", "true")
+                .put("hetu.snapshot.incrementalCaptureEnabled", "true")
+                .put("hetu.snapshot.fullCaptureInterval", "10")
                 .put("experimental.eliminate-duplicate-spill-files", "true")
                 .build();
 
@@ -66,6 +72,9 @@ public class TestRecoveryConfig
                 .setRecoveryMaxRetries(20)
                 .setRecoveryRetryTimeout(new Duration(5, TimeUnit.MINUTES))
                 .setSnapshotUseKryoSerialization(true)
+                .setSnapshotUseBinaryStateFormat(true)
+                .setSnapshotIncrementalCaptureEnabled(true)
+                .setSnapshotFullCaptureInterval(10)
                 .setEliminateDuplicateSpillFilesEnabled(true);
 
         ConfigAssertions.assertFullMapping(properties, expected);
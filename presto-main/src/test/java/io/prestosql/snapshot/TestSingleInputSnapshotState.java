@@ -28,11 +28,13 @@ import io.prestosql.spi.snapshot.Restorable;
 import io.prestosql.spi.snapshot.RestorableConfig;
 import io.prestosql.testing.assertions.Assert;
 import org.apache.commons.lang3.tuple.Pair;
+import org.mockito.ArgumentCaptor;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Optional;
@@ -321,6 +323,145 @@ public class TestSingleInputSnapshotState
         verify(snapshotManager, times(1)).loadState(anyObject());
     }
 
+    @Test
+    public void testIncrementalCapture()
+            throws Exception
+    {
+        TestingIncrementalRestorable incrementalRestorable = new TestingIncrementalRestorable();
+        SingleInputSnapshotState singleInputSnapshotState = new SingleInputSnapshotState(
+                incrementalRestorable,
+                snapshotManager,
+                null,
+                TestSingleInputSnapshotState::createSnapshotStateId,
+                TestSingleInputSnapshotState::createSnapshotStateId,
+                snapshotMemoryContext, false, true, 3);
+        incrementalRestorable.values.add(1);
+        singleInputSnapshotState.processPage(marker1);
+        incrementalRestorable.values.add(2);
+        singleInputSnapshotState.processPage(marker2);
+        incrementalRestorable.values.add(3);
+        singleInputSnapshotState.processPage(MarkerPage.snapshotPage(3));
+
+        ArgumentCaptor<Object> states = ArgumentCaptor.forClass(Object.class);
+        verify(snapshotManager, times(3)).storeState(anyObject(), states.capture(), anyLong());
+        List<Object> storedStates = states.getAllValues();
+        Assert.assertEquals(storedStates.get(0), ImmutableList.of(1));
+        IncrementalSnapshotState incrementalState = (IncrementalSnapshotState) storedStates.get(1);
+        Assert.assertEquals(incrementalState.getBaseSnapshotId(), 1);
+        Assert.assertEquals(incrementalState.getState(), ImmutableList.of(2));
+        verify(snapshotManager, times(1)).updateSnapshotCaptureSkippedSize(2, 1);
+        // After fullCaptureInterval snapshots, the whole state is captured again
+        Assert.assertEquals(storedStates.get(2), ImmutableList.of(1, 2, 3));
+    }
+
+    @Test
+    public void testIncrementalRestore()
+            throws Exception
+    {
+        TestingIncrementalRestorable incrementalRestorable = new TestingIncrementalRestorable();
+        SingleInputSnapshotState singleInputSnapshotState = new SingleInputSnapshotState(
+                incrementalRestorable,
+                snapshotManager,
+                null,
+                TestSingleInputSnapshotState::createSnapshotStateId,
+                TestSingleInputSnapshotState::createSnapshotStateId,
+                snapshotMemoryContext, false, true, 3);
+        incrementalRestorable.values.add(5);
+
+        when(snapshotManager.loadState(snapshotId2)).thenReturn(Optional.of(new IncrementalSnapshotState(1, ImmutableList.of(2, 3))));
+        when(snapshotManager.loadExactState(snapshotId1, false)).thenReturn(Optional.of(ImmutableList.of(1)));
+        singleInputSnapshotState.processPage(resume2);
+        Assert.assertEquals(incrementalRestorable.values, ImmutableList.of(1, 2, 3));
+        verify(snapshotManager, times(1)).succeededToRestore(eq(snapshotId2), anyLong());
+
+        // Captures after the restore are based on the restored snapshot
+        incrementalRestorable.values.add(4);
+        singleInputSnapshotState.processPage(MarkerPage.snapshotPage(3));
+        ArgumentCaptor<Object> states = ArgumentCaptor.forClass(Object.class);
+        verify(snapshotManager, times(1)).storeState(anyObject(), states.capture(), anyLong());
+        IncrementalSnapshotState incrementalState = (IncrementalSnapshotState) states.getValue();
+        Assert.assertEquals(incrementalState.getBaseSnapshotId(), 2);
+        Assert.assertEquals(incrementalState.getState(), ImmutableList.of(4));
+    }
+
+    @Test
+    public void testIncrementalRestoreMissingBase()
+            throws Exception
+    {
+        TestingIncrementalRestorable incrementalRestorable = new TestingIncrementalRestorable();
+        SingleInputSnapshotState singleInputSnapshotState = new SingleInputSnapshotState(
+                incrementalRestorable,
+                snapshotManager,
+                null,
+                TestSingleInputSnapshotState::createSnapshotStateId,
+                TestSingleInputSnapshotState::createSnapshotStateId,
+                snapshotMemoryContext, false, true, 3);
+
+        when(snapshotManager.loadState(snapshotId2)).thenReturn(Optional.of(new IncrementalSnapshotState(1, ImmutableList.of(2))));
+        when(snapshotManager.loadExactState(snapshotId1, false)).thenReturn(Optional.empty());
+        singleInputSnapshotState.processPage(resume2);
+        verify(snapshotManager, times(1)).failedToRestore(snapshotId2, true);
+        verify(snapshotManager, times(0)).succeededToRestore(anyObject(), anyLong());
+    }
+
+    @RestorableConfig(uncapturedFields = {"capturedCount", "skippedCount"})
+    private static class TestingIncrementalRestorable
+            implements IncrementalRestorable
+    {
+        List<Integer> values = new ArrayList<>();
+        int capturedCount;
+        int skippedCount;
+
+        @Override
+        public Object capture(BlockEncodingSerdeProvider serdeProvider)
+        {
+            capturedCount = values.size();
+            return new ArrayList<>(values);
+        }
+
+        @Override
+        public Object captureIncremental(BlockEncodingSerdeProvider serdeProvider)
+        {
+            List<Integer> increment = new ArrayList<>(values.subList(capturedCount, values.size()));
+            skippedCount = capturedCount;
+            capturedCount = values.size();
+            return increment;
+        }
+
+        @Override
+        public Object applyIncremental(Object baseState, Object incrementalState)
+        {
+            List<Integer> result = new ArrayList<>((List<Integer>) baseState);
+            result.addAll((List<Integer>) incrementalState);
+            return result;
+        }
+
+        @Override
+        public long getIncrementalSkippedBytes()
+        {
+            return skippedCount;
+        }
+
+        @Override
+        public void restore(Object state, BlockEncodingSerdeProvider serdeProvider)
+        {
+            values = new ArrayList<>((List<Integer>) state);
+            capturedCount = values.size();
+        }
+
+        @Override
+        public boolean supportsConsolidatedWrites()
+        {
+            return false;
+        }
+
+        @Override
+        public long getUsedMemory()
+        {
+            return 0;
+        }
+    }
+
     @RestorableConfig(uncapturedFields = {"supportsConsolidatedWrites"})
     private static class TestingRestorable
             implements Restorable
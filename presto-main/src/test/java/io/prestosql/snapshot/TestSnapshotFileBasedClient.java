@@ -101,4 +101,27 @@ public class TestSnapshotFileBasedClient
         client.loadState(snapshotStateId, null);
         Assert.assertEquals(map, client.loadState(snapshotStateId, null).get());
     }
+
+    /**
+     * Test store, load snapshot state
+     * @throws Exception
+     */
+    @Test
+    public void testSnapshotStateWithBinaryFormat()
+            throws Exception
+    {
+        SnapshotFileBasedClient client = new SnapshotFileBasedClient(new HetuLocalFileSystemClient(new LocalConfig(new Properties()), Paths.get(ROOT_PATH_STR)), Paths.get(ROOT_PATH_STR), new FileSystemClientManager(), null, false, false, true);
+        String queryId = "query1";
+        TaskId taskId = new TaskId(queryId, 1, 1, 0);
+        SnapshotStateId snapshotStateId = new SnapshotStateId(2, taskId, 10);
+        LinkedHashMap<Long, SnapshotResult> map = new LinkedHashMap<>();
+        map.put(3L, SnapshotResult.SUCCESSFUL);
+        map.put(1L, SnapshotResult.FAILED);
+        map.put(5L, SnapshotResult.FAILED_FATAL);
+        map.put(8L, SnapshotResult.SUCCESSFUL);
+
+        // Test store and Load
+        client.storeState(snapshotStateId, map, null);
+        Assert.assertEquals(map, client.loadState(snapshotStateId, null).get());
+    }
 }
@@ -19,11 +19,13 @@ import com.google.common.collect.Iterators;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import io.airlift.log.Logger;
 import io.airlift.slice.InputStreamSliceInput;
+import io.airlift.units.DataSize;
 import io.hetu.core.filesystem.HdfsConfig;
 import io.hetu.core.filesystem.HetuHdfsFileSystemClient;
 import io.hetu.core.filesystem.HetuLocalFileSystemClient;
 import io.hetu.core.filesystem.LocalConfig;
 import io.hetu.core.transport.execution.buffer.PageCodecMarker;
+import io.hetu.core.transport.execution.buffer.PageCompressionCodec;
 import io.hetu.core.transport.execution.buffer.PagesSerdeUtil;
 import io.hetu.core.transport.execution.buffer.SerializedPage;
 import io.prestosql.filesystem.FileSystemClientManager;
@@ -59,6 +61,7 @@ import static com.google.common.io.MoreFiles.listFiles;
 import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
 import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static io.prestosql.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
 import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
 import static io.prestosql.spi.type.BigintType.BIGINT;
@@ -225,6 +228,61 @@ public class TestFileSingleStreamSpiller
         assertEquals(memoryContext.getBytes(), 0);
     }
 
+    @Test
+    public void testSpillMmapRead()
+            throws Exception
+    {
+        assertSpillMmapRead(false, false);
+        // compressed and encrypted spills fall back to the stream reader
+        assertSpillMmapRead(true, true);
+    }
+
+    private void assertSpillMmapRead(boolean compression, boolean encryption)
+            throws Exception
+    {
+        FileSingleStreamSpillerFactory spillerFactory = new FileSingleStreamSpillerFactory(
+                executor, // executor won't be closed, because we don't call destroy() on the spiller factory
+                createTestMetadataManager().getFunctionAndTypeManager().getBlockEncodingSerde(),
+                new SpillerStats(),
+                ImmutableList.of(spillPath.toPath()),
+                1.0,
+                compression,
+                encryption,
+                false,
+                1,
+                false,
+                false,
+                null,
+                fileSystemClientManager,
+                PageCompressionCodec.LZ4,
+                false,
+                new DataSize(1, MEGABYTE),
+                true);
+        LocalMemoryContext memoryContext = newSimpleAggregatedMemoryContext().newLocalMemoryContext("test");
+        SingleStreamSpiller spiller = spillerFactory.create(TYPES, bytes -> {}, memoryContext, false, false, "queryId", false);
+        assertTrue(spiller instanceof FileSingleStreamSpiller);
+
+        Page page = buildPage();
+        spiller.spill(page).get();
+        spiller.spill(Iterators.forArray(page, page, page)).get();
+
+        List<Page> spilledPages = ImmutableList.copyOf(spiller.getSpilledPages());
+        assertEquals(((FileSingleStreamSpiller) spiller).isMappedRead(), !compression && !encryption);
+        assertEquals(spilledPages.size(), 4);
+        for (Page spilledPage : spilledPages) {
+            PageAssertions.assertPageEquals(TYPES, page, spilledPage);
+        }
+
+        spiller.close();
+        assertEquals(listFiles(spillPath.toPath()).stream().filter(path -> path.toString().endsWith(".bin")).count(), 0);
+        assertEquals(memoryContext.getBytes(), 0);
+
+        // pages read from the mapping stay readable after the spiller is closed and the file is deleted
+        for (Page spilledPage : spilledPages) {
+            PageAssertions.assertPageEquals(TYPES, page, spilledPage);
+        }
+    }
+
     private Page buildPage()
     {
         BlockBuilder col1 = BIGINT.createBlockBuilder(null, 1);
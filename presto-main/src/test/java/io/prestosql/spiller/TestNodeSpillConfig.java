@@ -16,6 +16,7 @@ package io.prestosql.spiller;
 import com.google.common.collect.ImmutableMap;
 import io.airlift.configuration.testing.ConfigAssertions;
 import io.airlift.units.DataSize;
+import io.hetu.core.transport.execution.buffer.PageCompressionCodec;
 import org.testng.annotations.Test;
 
 import java.util.Map;
@@ -34,10 +35,14 @@ public class TestNodeSpillConfig
                 .setMaxSpillPerNode(new DataSize(100, GIGABYTE))
                 .setQueryMaxSpillPerNode(new DataSize(100, GIGABYTE))
                 .setSpillCompressionEnabled(false)
+                .setSpillCompressionCodec(PageCompressionCodec.ZSTD)
                 .setSpillEncryptionEnabled(false)
                 .setSpillDirectSerdeEnabled(false)
                 .setSpillPrefetchReadPages(1)
-                .setSpillUseKryoSerialization(false));
+                .setSpillUseKryoSerialization(false)
+                .setSpillStripingEnabled(false)
+                .setSpillStripeChunkSize(new DataSize(1, MEGABYTE))
+                .setSpillMmapReadEnabled(false));
     }
 
     @Test
@@ -47,20 +52,28 @@ public class TestNodeSpillConfig
                 .put("experimental.max-spill-per-node", "10MB")
                 .put("experimental.query-max-spill-per-node", "15 MB")
                 .put("experimental.spill-compression-enabled", "true")
+                .put("experimental.spill-compression-codec", "LZ4")
                 .put("experimental.spill-encryption-enabled", "true")
                 .put("experimental.spill-direct-serde-enabled", "true")
                 .put("experimental.spill-prefetch-read-pages", "25")
                 .put("experimental.spill-use-kryo-serialization", "true")
+                .put("experimental.spill-striping-enabled", "true")
+                .put("experimental.spill-stripe-chunk-size", "4MB")
+                .put("experimental.spill-mmap-read-enabled", "true")
                 .build();
 
         NodeSpillConfig expected = new NodeSpillConfig()
                 .setMaxSpillPerNode(new DataSize(10, MEGABYTE))
                 .setQueryMaxSpillPerNode(new DataSize(15, MEGABYTE))
                 .setSpillCompressionEnabled(true)
+                .setSpillCompressionCodec(PageCompressionCodec.LZ4)
                 .setSpillEncryptionEnabled(true)
                 .setSpillDirectSerdeEnabled(true)
                 .setSpillPrefetchReadPages(25)
-                .setSpillUseKryoSerialization(true);
+                .setSpillUseKryoSerialization(true)
+                .setSpillStripingEnabled(true)
+                .setSpillStripeChunkSize(new DataSize(4, MEGABYTE))
+                .setSpillMmapReadEnabled(true);
 
         assertFullMapping(properties, expected);
     }
@@ -0,0 +1,189 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.spiller;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import io.airlift.units.DataSize;
+import io.hetu.core.filesystem.HetuLocalFileSystemClient;
+import io.hetu.core.filesystem.LocalConfig;
+import io.hetu.core.transport.execution.buffer.PageCompressionCodec;
+import io.prestosql.filesystem.FileSystemClientManager;
+import io.prestosql.memory.context.LocalMemoryContext;
+import io.prestosql.operator.PageAssertions;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.block.BlockBuilder;
+import io.prestosql.spi.type.Type;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static com.google.common.collect.Iterators.cycle;
+import static com.google.common.collect.Iterators.limit;
+import static com.google.common.io.MoreFiles.deleteRecursively;
+import static com.google.common.io.MoreFiles.listFiles;
+import static com.google.common.io.RecursiveDeleteOption.ALLOW_INSECURE;
+import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static io.prestosql.memory.context.AggregatedMemoryContext.newSimpleAggregatedMemoryContext;
+import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static java.nio.file.Files.createTempDirectory;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestStripedFileSingleStreamSpiller
+{
+    private static final List<Type> TYPES = ImmutableList.of(BIGINT, VARCHAR);
+    private static final int PAGE_COUNT = 50;
+
+    private final ListeningExecutorService executor = listeningDecorator(newCachedThreadPool());
+    private final File rootPath = createTempDirectory(getClass().getName()).toFile();
+    private final List<Path> spillPaths = ImmutableList.of(new File(rootPath, "disk1").toPath(), new File(rootPath, "disk2").toPath());
+    private final FileSystemClientManager fileSystemClientManager = mock(FileSystemClientManager.class);
+
+    public TestStripedFileSingleStreamSpiller()
+            throws IOException
+    {}
+
+    @BeforeClass
+    public void setUp()
+            throws IOException
+    {
+        when(fileSystemClientManager.getFileSystemClient(any(Path.class))).thenReturn(new HetuLocalFileSystemClient(new LocalConfig(new Properties()), rootPath.getCanonicalFile().toPath()));
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+            throws Exception
+    {
+        executor.shutdown();
+        deleteRecursively(rootPath.toPath(), ALLOW_INSECURE);
+    }
+
+    @Test
+    public void testSpill()
+            throws Exception
+    {
+        assertStripedSpill(false, false);
+    }
+
+    @Test
+    public void testSpillCompressionAndEncryption()
+            throws Exception
+    {
+        assertStripedSpill(true, true);
+    }
+
+    @Test
+    public void testSnapshotUsesSingleFile()
+    {
+        FileSingleStreamSpillerFactory spillerFactory = createSpillerFactory(new SpillerStats(), false, false);
+        LocalMemoryContext memoryContext = newSimpleAggregatedMemoryContext().newLocalMemoryContext("test");
+        SingleStreamSpiller spiller = spillerFactory.create(TYPES, bytes -> {}, memoryContext, false, true, "queryId", false);
+        assertTrue(spiller instanceof FileSingleStreamSpiller);
+        spiller.close();
+    }
+
+    private void assertStripedSpill(boolean compression, boolean encryption)
+            throws Exception
+    {
+        SpillerStats spillerStats = new SpillerStats();
+        FileSingleStreamSpillerFactory spillerFactory = createSpillerFactory(spillerStats, compression, encryption);
+        LocalMemoryContext memoryContext = newSimpleAggregatedMemoryContext().newLocalMemoryContext("test");
+        SingleStreamSpiller singleStreamSpiller = spillerFactory.create(TYPES, bytes -> {}, memoryContext, false, false, "queryId", false);
+        assertTrue(singleStreamSpiller instanceof StripedFileSingleStreamSpiller);
+        StripedFileSingleStreamSpiller spiller = (StripedFileSingleStreamSpiller) singleStreamSpiller;
+
+        // one chunk being filled and one in flight per stripe
+        assertEquals(memoryContext.getBytes(), 3 * 4096);
+
+        Page page = buildPage();
+        spiller.spill(page).get();
+        spiller.spill(limit(cycle(page), PAGE_COUNT - 1)).get();
+
+        for (Path spillPath : spillPaths) {
+            assertEquals(listFiles(spillPath).stream().filter(path -> path.toString().endsWith(".bin")).count(), 1);
+        }
+        assertEquals(spiller.getStripeFiles().size(), 2);
+        for (Path file : spiller.getStripeFiles()) {
+            assertTrue(file.toFile().length() > 0, "every spill path should receive a part of the stream");
+        }
+
+        List<Page> spilledPages = spiller.getAllSpilledPages().get();
+        assertEquals(spilledPages.size(), PAGE_COUNT);
+        for (Page spilledPage : spilledPages) {
+            PageAssertions.assertPageEquals(TYPES, page, spilledPage);
+        }
+
+        Map<Path, SpillerStats.SpillPathStats> pathStats = spillerStats.getSpillPathStats();
+        assertEquals(pathStats.keySet(), spillPaths.stream().collect(toImmutableSet()));
+        for (SpillerStats.SpillPathStats stats : pathStats.values()) {
+            assertTrue(stats.getWrittenBytes() > 0);
+            assertEquals(stats.getReadBytes(), stats.getWrittenBytes());
+        }
+
+        spiller.close();
+        for (Path spillPath : spillPaths) {
+            assertEquals(listFiles(spillPath).stream().filter(path -> path.toString().endsWith(".bin")).count(), 0);
+        }
+        assertEquals(memoryContext.getBytes(), 0);
+    }
+
+    private FileSingleStreamSpillerFactory createSpillerFactory(SpillerStats spillerStats, boolean compression, boolean encryption)
+    {
+        return new FileSingleStreamSpillerFactory(
+                executor,
+                createTestMetadataManager().getFunctionAndTypeManager().getBlockEncodingSerde(),
+                spillerStats,
+                spillPaths,
+                1.0,
+                compression,
+                encryption,
+                false,
+                1,
+                false,
+                false,
+                null,
+                fileSystemClientManager,
+                PageCompressionCodec.ZSTD,
+                true,
+                new DataSize(4, KILOBYTE));
+    }
+
+    private static Page buildPage()
+    {
+        BlockBuilder col1 = BIGINT.createBlockBuilder(null, 256);
+        BlockBuilder col2 = VARCHAR.createBlockBuilder(null, 256);
+        for (int i = 0; i < 256; i++) {
+            BIGINT.writeLong(col1, i);
+            VARCHAR.writeString(col2, "value-" + i);
+        }
+        return new Page(col1.build(), col2.build());
+    }
+}
@@ -18,6 +18,7 @@ import io.airlift.configuration.ConfigurationFactory;
 import io.airlift.configuration.testing.ConfigAssertions;
 import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
+import io.hetu.core.transport.execution.buffer.PageCompressionCodec;
 import io.prestosql.operator.aggregation.arrayagg.ArrayAggGroupImplementation;
 import io.prestosql.operator.aggregation.histogram.HistogramGroupImplementation;
 import io.prestosql.operator.aggregation.multimapagg.MultimapAggGroupImplementation;
@@ -63,6 +64,7 @@ public class TestFeaturesConfig
                 .setDistributedIndexJoinsEnabled(false)
                 .setJoinDistributionType(JoinDistributionType.AUTOMATIC)
                 .setJoinMaxBroadcastTableSize(new DataSize(100, MEGABYTE))
+                .setAdaptiveJoinDistributionEnabled(false)
                 .setGroupedExecutionEnabled(false)
                 .setDynamicScheduleForGroupedExecutionEnabled(false)
                 .setConcurrentLifespansPerTask(0)
@@ -104,11 +106,17 @@ public class TestFeaturesConfig
                 .setDefaultFilterFactorEnabled(false)
                 .setEnableForcedExchangeBelowGroupId(true)
                 .setExchangeCompressionEnabled(false)
+                .setExchangePooledSerdeBuffersEnabled(false)
+                .setExchangeCompressionCodec(PageCompressionCodec.ZSTD)
+                .setExchangeAdaptiveCompressionEnabled(false)
+                .setExchangeAdaptiveCompressionNetworkBandwidth(new DataSize(1, GIGABYTE))
+                .setExchangeLightweightEncodingsEnabled(false)
                 .setEnableIntermediateAggregations(false)
                 .setPushAggregationThroughJoin(true)
                 .setParseDecimalLiteralsAsDouble(false)
                 .setForceSingleNodeOutput(true)
                 .setPagesIndexEagerCompactionEnabled(false)
+                .setFlatGroupByHashEnabled(false)
                 .setFilterAndProjectMinOutputPageSize(new DataSize(500, KILOBYTE))
                 .setFilterAndProjectMinOutputPageRowCount(256)
                 .setUseMarkDistinct(true)
@@ -129,6 +137,7 @@ public class TestFeaturesConfig
                 .setDynamicFilteringMaxSize(1000000)
                 .setDynamicFilteringMaxPerDriverSize(new DataSize(1, MEGABYTE))
                 .setDynamicFilteringBloomFilterFpp(0.1)
+                .setDynamicFilteringSplitBlockBloomFilter(false)
                 .setQueryPushDown(true)
                 .setPushLimitDown(true)
                 .setPushLimitThroughOuterJoin(true)
@@ -155,6 +164,8 @@ public class TestFeaturesConfig
                 .setLegacyMapSubscript(false)
                 .setListBuiltInFunctionsOnly(true)
                 .setSortBasedAggregationEnabled(false)
+                .setStreamingPartialAggregationEnabled(false)
+                .setExchangeHotKeyDetectionEnabled(false)
                 .setPrcntDriversForPartialAggr(5)
                 .setSkipAttachingStatsWithPlan(true)
                 .setSkipNonApplicableRulesEnabled(false)
@@ -186,6 +197,7 @@ public class TestFeaturesConfig
                 .put("distributed-index-joins-enabled", "true")
                 .put("join-distribution-type", "BROADCAST")
                 .put("join-max-broadcast-table-size", "42GB")
+                .put("adaptive-join-distribution-enabled", "true")
                 .put("grouped-execution-enabled", "true")
                 .put("dynamic-schedule-for-grouped-execution", "true")
                 .put("concurrent-lifespans-per-task", "1")
@@ -224,10 +236,16 @@ public class TestFeaturesConfig
                 .put("experimental.memory-revoking-threshold", "0.2")
                 .put("experimental.memory-revoking-target", "0.8")
                 .put("exchange.compression-enabled", "true")
+                .put("exchange.pooled-serde-buffers-enabled", "true")
+                .put("exchange.compression-codec", "LZ4")
+                .put("exchange.adaptive-compression-enabled", "true")
+                .put("exchange.adaptive-compression-network-bandwidth", "3GB")
+                .put("exchange.lightweight-encodings-enabled", "true")
                 .put("optimizer.enable-intermediate-aggregations", "true")
                 .put("parse-decimal-literals-as-double", "true")
                 .put("optimizer.force-single-node-output", "false")
                 .put("pages-index.eager-compaction-enabled", "true")
+                .put("experimental.flat-group-by-hash-enabled", "true")
                 .put("experimental.filter-and-project-min-output-page-size", "1MB")
                 .put("experimental.filter-and-project-min-output-page-row-count", "2048")
                 .put("histogram.implementation", "LEGACY")
@@ -254,6 +272,7 @@ public class TestFeaturesConfig
                 .put("dynamic-filtering-data-type", "HASHSET")
                 .put("dynamic-filtering-max-per-driver-size", "64kB")
                 .put("dynamic-filtering-bloom-filter-fpp", "0.001")
+                .put("dynamic-filtering-split-block-bloom-filter", "true")
                 .put("implicit-conversion", "true")
                 .put("optimizer.push-table-through-subquery", "true")
                 .put("optimizer.rewrite-filtering-semi-join-to-inner-join", "true")
@@ -272,6 +291,8 @@ public class TestFeaturesConfig
                 .put("deprecated.legacy-map-subscript", "true")
                 .put("list-built-in-functions-only", "false")
                 .put("optimizer.sort-based-aggregation-enabled", "true")
+                .put("optimizer.streaming-partial-aggregation-enabled", "true")
+                .put("exchange.hot-key-detection-enabled", "true")
                 .put("sort.prcnt-drivers-for-partial-aggr", "55")
                 .put("optimizer.skip-attaching-stats-with-plan", "false")
                 .put("optimizer.skip-non-applicable-rules-enabled", "true")
@@ -299,6 +320,7 @@ public class TestFeaturesConfig
                 .setDistributedIndexJoinsEnabled(true)
                 .setJoinDistributionType(BROADCAST)
                 .setJoinMaxBroadcastTableSize(new DataSize(42, GIGABYTE))
+                .setAdaptiveJoinDistributionEnabled(true)
                 .setGroupedExecutionEnabled(true)
                 .setDynamicScheduleForGroupedExecutionEnabled(true)
                 .setConcurrentLifespansPerTask(1)
@@ -338,10 +360,16 @@ public class TestFeaturesConfig
                 .setMemoryRevokingThreshold(0.2)
                 .setMemoryRevokingTarget(0.8)
                 .setExchangeCompressionEnabled(true)
+                .setExchangePooledSerdeBuffersEnabled(true)
+                .setExchangeCompressionCodec(PageCompressionCodec.LZ4)
+                .setExchangeAdaptiveCompressionEnabled(true)
+                .setExchangeAdaptiveCompressionNetworkBandwidth(new DataSize(3, GIGABYTE))
+                .setExchangeLightweightEncodingsEnabled(true)
                 .setEnableIntermediateAggregations(true)
                 .setParseDecimalLiteralsAsDouble(true)
                 .setForceSingleNodeOutput(false)
                 .setPagesIndexEagerCompactionEnabled(true)
+                .setFlatGroupByHashEnabled(true)
                 .setFilterAndProjectMinOutputPageSize(new DataSize(1, MEGABYTE))
                 .setFilterAndProjectMinOutputPageRowCount(2048)
                 .setUseMarkDistinct(false)
@@ -371,6 +399,7 @@ public class TestFeaturesConfig
                 .setDynamicFilteringMaxSize(10000)
                 .setDynamicFilteringMaxPerDriverSize(new DataSize(64, KILOBYTE))
                 .setDynamicFilteringBloomFilterFpp(0.001)
+                .setDynamicFilteringSplitBlockBloomFilter(true)
                 .setTransformSelfJoinToGroupby(false)
                 .setReuseTableScanEnabled(true)
                 .setSpillReuseExchange(true)
@@ -387,6 +416,8 @@ public class TestFeaturesConfig
                 .setLegacyMapSubscript(true)
                 .setListBuiltInFunctionsOnly(false)
                 .setSortBasedAggregationEnabled(true)
+                .setStreamingPartialAggregationEnabled(true)
+                .setExchangeHotKeyDetectionEnabled(true)
                 .setPrcntDriversForPartialAggr(55)
                 .setSkipAttachingStatsWithPlan(false)
                 .setSkipNonApplicableRulesEnabled(true)
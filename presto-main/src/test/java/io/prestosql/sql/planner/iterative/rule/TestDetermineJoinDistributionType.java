@@ -15,17 +15,27 @@ package io.prestosql.sql.planner.iterative.rule;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import io.airlift.units.DataSize;
 import io.prestosql.cost.CostComparator;
+import io.prestosql.cost.JoinBuildSizeHistory;
 import io.prestosql.cost.PlanNodeStatsEstimate;
 import io.prestosql.cost.SymbolStatsEstimate;
 import io.prestosql.cost.TaskCountEstimator;
+import io.prestosql.plugin.tpch.TpchColumnHandle;
+import io.prestosql.plugin.tpch.TpchTableHandle;
+import io.prestosql.plugin.tpch.TpchTransactionHandle;
+import io.prestosql.spi.connector.CatalogName;
+import io.prestosql.spi.metadata.TableHandle;
 import io.prestosql.spi.plan.JoinNode;
 import io.prestosql.spi.plan.JoinNode.DistributionType;
 import io.prestosql.spi.plan.JoinNode.Type;
+import io.prestosql.spi.plan.PlanNode;
 import io.prestosql.spi.plan.PlanNodeId;
 import io.prestosql.spi.plan.Symbol;
 import io.prestosql.spi.type.VarcharType;
 import io.prestosql.sql.analyzer.FeaturesConfig.JoinDistributionType;
+import io.prestosql.sql.planner.iterative.Lookup;
+import io.prestosql.sql.planner.iterative.rule.test.PlanBuilder;
 import io.prestosql.sql.planner.iterative.rule.test.RuleAssert;
 import io.prestosql.sql.planner.iterative.rule.test.RuleTester;
 import org.testng.annotations.AfterClass;
@@ -34,8 +44,13 @@ import org.testng.annotations.Test;
 
 import java.util.Optional;
 
+import static io.airlift.units.DataSize.Unit.GIGABYTE;
+import static io.prestosql.SystemSessionProperties.ADAPTIVE_JOIN_DISTRIBUTION_ENABLED;
 import static io.prestosql.SystemSessionProperties.JOIN_DISTRIBUTION_TYPE;
 import static io.prestosql.SystemSessionProperties.JOIN_MAX_BROADCAST_TABLE_SIZE;
+import static io.prestosql.cost.JoinBuildSizeHistory.getBuildSideKey;
+import static io.prestosql.plugin.tpch.TpchMetadata.TINY_SCALE_FACTOR;
+import static io.prestosql.spi.function.OperatorType.EQUAL;
 import static io.prestosql.spi.plan.JoinNode.DistributionType.PARTITIONED;
 import static io.prestosql.spi.plan.JoinNode.DistributionType.REPLICATED;
 import static io.prestosql.spi.plan.JoinNode.Type.FULL;
@@ -47,9 +62,14 @@ import static io.prestosql.spi.type.VarcharType.createUnboundedVarcharType;
 import static io.prestosql.sql.planner.assertions.PlanMatchPattern.enforceSingleRow;
 import static io.prestosql.sql.planner.assertions.PlanMatchPattern.equiJoinClause;
 import static io.prestosql.sql.planner.assertions.PlanMatchPattern.join;
+import static io.prestosql.sql.planner.assertions.PlanMatchPattern.tableScan;
 import static io.prestosql.sql.planner.assertions.PlanMatchPattern.values;
 import static io.prestosql.sql.planner.iterative.rule.test.PlanBuilder.castToRowExpression;
+import static io.prestosql.sql.planner.iterative.rule.test.PlanBuilder.comparison;
 import static io.prestosql.sql.planner.iterative.rule.test.PlanBuilder.constantExpressions;
+import static io.prestosql.sql.relational.Expressions.constant;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
 
 @Test(singleThreaded = true)
 public class TestDetermineJoinDistributionType
@@ -635,6 +655,87 @@ public class TestDetermineJoinDistributionType
                         values(ImmutableMap.of("B1", 0))));
     }
 
+    @Test
+    public void testObservedBuildSizePreventsBroadcast()
+    {
+        JoinBuildSizeHistory buildSizeHistory = new JoinBuildSizeHistory();
+
+        tester.assertThat(new DetermineJoinDistributionType(COST_COMPARATOR, new TaskCountEstimator(() -> NODES_COUNT), buildSizeHistory))
+                .setSystemProperty(JOIN_DISTRIBUTION_TYPE, JoinDistributionType.AUTOMATIC.name())
+                .setSystemProperty(ADAPTIVE_JOIN_DISTRIBUTION_ENABLED, "true")
+                .on(p -> {
+                    JoinNode join = lineitemNationJoin(p, false);
+                    buildSizeHistory.record(getBuildSideKey(join, Lookup.noLookup()).get(), new DataSize(10, GIGABYTE).toBytes(), true);
+                    return join;
+                })
+                .matches(join(
+                        INNER,
+                        ImmutableList.of(equiJoinClause("L_ORDERKEY", "N_NATIONKEY")),
+                        Optional.empty(),
+                        Optional.of(PARTITIONED),
+                        tableScan("lineitem", ImmutableMap.of("L_ORDERKEY", "orderkey")),
+                        tableScan("nation", ImmutableMap.of("N_NATIONKEY", "nationkey"))));
+        assertEquals(buildSizeHistory.getPartitionedAdjustments(), 1);
+    }
+
+    @Test
+    public void testObservedBuildSizeOfFilteredBuildSideNotReused()
+    {
+        JoinBuildSizeHistory buildSizeHistory = new JoinBuildSizeHistory();
+
+        tester.assertThat(new DetermineJoinDistributionType(COST_COMPARATOR, new TaskCountEstimator(() -> NODES_COUNT), buildSizeHistory))
+                .setSystemProperty(JOIN_DISTRIBUTION_TYPE, JoinDistributionType.AUTOMATIC.name())
+                .setSystemProperty(ADAPTIVE_JOIN_DISTRIBUTION_ENABLED, "true")
+                .on(p -> {
+                    // the size of the filtered build side says nothing about the unfiltered one
+                    JoinNode filteredJoin = lineitemNationJoin(p, true);
+                    buildSizeHistory.record(getBuildSideKey(filteredJoin, Lookup.noLookup()).get(), new DataSize(10, GIGABYTE).toBytes(), true);
+                    JoinNode join = lineitemNationJoin(p, false);
+                    assertNotEquals(getBuildSideKey(join, Lookup.noLookup()), getBuildSideKey(filteredJoin, Lookup.noLookup()));
+                    return join;
+                })
+                .matches(join(
+                        INNER,
+                        ImmutableList.of(equiJoinClause("L_ORDERKEY", "N_NATIONKEY")),
+                        Optional.empty(),
+                        Optional.of(REPLICATED),
+                        tableScan("lineitem", ImmutableMap.of("L_ORDERKEY", "orderkey")),
+                        tableScan("nation", ImmutableMap.of("N_NATIONKEY", "nationkey"))));
+        assertEquals(buildSizeHistory.getPartitionedAdjustments(), 0);
+    }
+
+    private static JoinNode lineitemNationJoin(PlanBuilder p, boolean filterBuildSide)
+    {
+        Symbol lineitemOrderKey = p.symbol("lineitem_orderkey", BIGINT);
+        Symbol nationKey = p.symbol("nationkey", BIGINT);
+        PlanNode buildSide = p.tableScan(
+                tpchTable("nation"),
+                ImmutableList.of(nationKey),
+                ImmutableMap.of(nationKey, new TpchColumnHandle("nationkey", BIGINT)));
+        if (filterBuildSide) {
+            buildSide = p.filter(comparison(EQUAL, p.variable("nationkey", BIGINT), constant(1L, BIGINT)), buildSide);
+        }
+        return p.join(
+                INNER,
+                p.tableScan(
+                        tpchTable("lineitem"),
+                        ImmutableList.of(lineitemOrderKey),
+                        ImmutableMap.of(lineitemOrderKey, new TpchColumnHandle("orderkey", BIGINT))),
+                buildSide,
+                ImmutableList.of(new JoinNode.EquiJoinClause(lineitemOrderKey, nationKey)),
+                ImmutableList.of(lineitemOrderKey, nationKey),
+                Optional.empty());
+    }
+
+    private static TableHandle tpchTable(String tableName)
+    {
+        return new TableHandle(
+                new CatalogName("local"),
+                new TpchTableHandle(tableName, TINY_SCALE_FACTOR),
+                TpchTransactionHandle.INSTANCE,
+                Optional.empty());
+    }
+
     private RuleAssert assertDetermineJoinDistributionType()
     {
         return assertDetermineJoinDistributionType(COST_COMPARATOR);
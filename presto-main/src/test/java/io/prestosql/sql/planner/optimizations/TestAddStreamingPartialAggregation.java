@@ -0,0 +1,85 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.sql.planner.optimizations;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import io.prestosql.Session;
+import io.prestosql.sql.planner.assertions.BasePlanTest;
+import io.prestosql.sql.planner.assertions.PlanMatchPattern;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static io.prestosql.SystemSessionProperties.PLAN_WITH_TABLE_NODE_PARTITIONING;
+import static io.prestosql.SystemSessionProperties.STREAMING_PARTIAL_AGGREGATION_ENABLED;
+import static io.prestosql.spi.plan.AggregationNode.Step.PARTIAL;
+import static io.prestosql.sql.planner.assertions.PlanMatchPattern.aggregation;
+import static io.prestosql.sql.planner.assertions.PlanMatchPattern.anyTree;
+import static io.prestosql.sql.planner.assertions.PlanMatchPattern.functionCall;
+import static io.prestosql.sql.planner.assertions.PlanMatchPattern.singleGroupingSet;
+import static io.prestosql.sql.planner.assertions.PlanMatchPattern.tableScan;
+
+public class TestAddStreamingPartialAggregation
+        extends BasePlanTest
+{
+    public TestAddStreamingPartialAggregation()
+    {
+        // without node partitioning the aggregation is split into a partial and a final step around a remote exchange
+        super(ImmutableMap.of(
+                STREAMING_PARTIAL_AGGREGATION_ENABLED, "true",
+                PLAN_WITH_TABLE_NODE_PARTITIONING, "false"));
+    }
+
+    @Test
+    public void testGroupedInput()
+    {
+        // "orders" table is naturally grouped on orderkey
+        assertDistributedPlan("SELECT orderkey, count(*) FROM orders GROUP BY orderkey",
+                partialAggregation("orderkey", ImmutableList.of("orderkey")));
+    }
+
+    @Test
+    public void testUngroupedInput()
+    {
+        assertDistributedPlan("SELECT custkey, count(*) FROM orders GROUP BY custkey",
+                partialAggregation("custkey", ImmutableList.of()));
+    }
+
+    @Test
+    public void testDisabled()
+    {
+        Session session = Session.builder(getQueryRunner().getDefaultSession())
+                .setSystemProperty(STREAMING_PARTIAL_AGGREGATION_ENABLED, "false")
+                .build();
+        assertDistributedPlan("SELECT orderkey, count(*) FROM orders GROUP BY orderkey",
+                session,
+                partialAggregation("orderkey", ImmutableList.of()));
+    }
+
+    private static PlanMatchPattern partialAggregation(String groupingKey, List<String> preGroupedSymbols)
+    {
+        return anyTree(
+                aggregation(
+                        singleGroupingSet(groupingKey),
+                        ImmutableMap.of(Optional.empty(), functionCall("count", ImmutableList.of())),
+                        preGroupedSymbols,
+                        ImmutableMap.of(),
+                        Optional.empty(),
+                        PARTIAL,
+                        anyTree(
+                                tableScan("orders", ImmutableMap.of(groupingKey, groupingKey)))));
+    }
+}
@@ -14,6 +14,7 @@
 package io.prestosql.orc;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.slice.Slice;
 import io.airlift.slice.Slices;
 import io.airlift.units.DataSize;
@@ -26,12 +27,15 @@ import java.io.UncheckedIOException;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Verify.verify;
 import static io.prestosql.orc.OrcDataSourceUtils.getDiskRangeSlice;
 import static io.prestosql.orc.OrcDataSourceUtils.mergeAdjacentDiskRanges;
+import static io.prestosql.orc.VectoredReader.getRangeData;
 import static java.lang.Math.toIntExact;
 import static java.util.Objects.requireNonNull;
 
@@ -46,12 +50,32 @@ public abstract class AbstractOrcDataSource
     private final boolean lazyReadSmallRanges;
     private long readTimeNanos;
     private long readBytes;
+    // time spent by the vectored reads, which run on the threads of the vectored reader
+    private final LongAdder vectoredReadTimeNanos = new LongAdder();
     private final long lastModifiedTime;
+    private final Optional<VectoredReader> vectoredReader;
+    private final VectoredReadTracker vectoredReads = new VectoredReadTracker();
 
     private final long estimatedSize;
     private final OrcReaderOptions options;
 
     public AbstractOrcDataSource(OrcDataSourceId id, long size, DataSize maxMergeDistance, DataSize maxBufferSize, DataSize streamBufferSize, boolean lazyReadSmallRanges, long lastModifiedTime)
+    {
+        this(id, size, maxMergeDistance, maxBufferSize, streamBufferSize, lazyReadSmallRanges, lastModifiedTime, Optional.empty());
+    }
+
+    /**
+     * @param vectoredReader when present, the merged small ranges are read concurrently by the vectored reader
+     */
+    public AbstractOrcDataSource(
+            OrcDataSourceId id,
+            long size,
+            DataSize maxMergeDistance,
+            DataSize maxBufferSize,
+            DataSize streamBufferSize,
+            boolean lazyReadSmallRanges,
+            long lastModifiedTime,
+            Optional<VectoredReader> vectoredReader)
     {
         this.id = requireNonNull(id, "id is null");
 
@@ -63,6 +87,7 @@ public abstract class AbstractOrcDataSource
         this.streamBufferSize = requireNonNull(streamBufferSize, "streamBufferSize is null");
         this.lazyReadSmallRanges = lazyReadSmallRanges;
         this.lastModifiedTime = lastModifiedTime;
+        this.vectoredReader = requireNonNull(vectoredReader, "vectoredReader is null");
 
         this.estimatedSize = 0L;
         this.options = null;
@@ -80,6 +105,7 @@ public abstract class AbstractOrcDataSource
         this.lazyReadSmallRanges = false;
         this.lastModifiedTime = 0L;
         this.size = estimatedSize;
+        this.vectoredReader = Optional.empty();
     }
 
     protected abstract void readInternal(long position, byte[] buffer, int bufferOffset, int bufferLength)
@@ -100,7 +126,7 @@ public abstract class AbstractOrcDataSource
     @Override
     public final long getReadTimeNanos()
     {
-        return readTimeNanos;
+        return readTimeNanos + vectoredReadTimeNanos.sum();
     }
 
     @Override
@@ -207,7 +233,17 @@ public abstract class AbstractOrcDataSource
         Iterable<DiskRange> mergedRanges = mergeAdjacentDiskRanges(diskRanges.values(), maxMergeDistance, maxBufferSize);
 
         ImmutableMap.Builder<K, OrcDataReader> slices = ImmutableMap.builder();
-        if (lazyReadSmallRanges) {
+        if (vectoredReader.isPresent()) {
+            for (DiskRange mergedRange : mergedRanges) {
+                readBytes += mergedRange.getLength();
+            }
+            Map<K, ListenableFuture<Slice>> rangeData = vectoredReads.register(
+                    vectoredReader.get().readRanges(diskRanges, maxMergeDistance, maxBufferSize, vectoredReads.track(this::readVectored)));
+            for (Entry<K, DiskRange> entry : diskRanges.entrySet()) {
+                slices.put(entry.getKey(), new VectoredOrcDataReader(id, entry.getValue(), rangeData.get(entry.getKey())));
+            }
+        }
+        else if (lazyReadSmallRanges) {
             for (DiskRange mergedRange : mergedRanges) {
                 LazyBufferLoader mergedRangeLazyLoader = new LazyBufferLoader(mergedRange);
                 for (Entry<K, DiskRange> diskRangeEntry : diskRanges.entrySet()) {
@@ -236,6 +272,24 @@ public abstract class AbstractOrcDataSource
         return sliceStreams;
     }
 
+    private void readVectored(long position, byte[] buffer, int bufferOffset, int bufferLength)
+            throws IOException
+    {
+        long start = System.nanoTime();
+        readInternal(position, buffer, bufferOffset, bufferLength);
+        vectoredReadTimeNanos.add(System.nanoTime() - start);
+    }
+
+    /**
+     * Cancels the vectored reads that have not started and waits for the running ones.
+     * Subclasses created with a vectored reader call this before they release their input.
+     */
+    protected final void closeVectoredReads()
+            throws IOException
+    {
+        vectoredReads.close();
+    }
+
     private <K> Map<K, OrcDataReader> readLargeDiskRanges(Map<K, DiskRange> diskRanges)
     {
         if (diskRanges.isEmpty()) {
@@ -354,6 +408,69 @@ public abstract class AbstractOrcDataSource
         }
     }
 
+    private final class VectoredOrcDataReader
+            implements OrcDataReader
+    {
+        private final OrcDataSourceId orcDataSourceId;
+        private final DiskRange diskRange;
+        private final ListenableFuture<Slice> rangeData;
+        private Slice data;
+
+        public VectoredOrcDataReader(OrcDataSourceId orcDataSourceId, DiskRange diskRange, ListenableFuture<Slice> rangeData)
+        {
+            this.orcDataSourceId = requireNonNull(orcDataSourceId, "orcDataSourceId is null");
+            this.diskRange = requireNonNull(diskRange, "diskRange is null");
+            this.rangeData = requireNonNull(rangeData, "rangeData is null");
+        }
+
+        @Override
+        public OrcDataSourceId getOrcDataSourceId()
+        {
+            return orcDataSourceId;
+        }
+
+        @Override
+        public long getRetainedSize()
+        {
+            // the buffer is allocated as soon as the read is issued
+            return diskRange.getLength();
+        }
+
+        @Override
+        public int getSize()
+        {
+            return diskRange.getLength();
+        }
+
+        @Override
+        public int getMaxBufferSize()
+        {
+            return diskRange.getLength();
+        }
+
+        @Override
+        public Slice seekBuffer(int newPosition)
+                throws IOException
+        {
+            if (data == null) {
+                data = getRangeData(rangeData);
+                if (data.length() != diskRange.getLength()) {
+                    throw new OrcCorruptionException(id, "Expected to load %s bytes, but %s bytes were loaded", diskRange.getLength(), data.length());
+                }
+            }
+            return data.slice(newPosition, data.length() - newPosition);
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("orcDataSourceId", orcDataSourceId)
+                    .add("diskRange", diskRange)
+                    .toString();
+        }
+    }
+
     @Override
     public long getRetainedSize()
     {
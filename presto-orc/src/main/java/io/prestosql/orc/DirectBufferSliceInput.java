@@ -0,0 +1,209 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.orc;
+
+import io.airlift.slice.BasicSliceInput;
+import io.airlift.slice.FixedLengthSliceInput;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+import org.openjdk.jol.info.ClassLayout;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Input over a direct buffer that reads slices as views of the buffer without copying. Unlike the
+ * slices of a {@link BasicSliceInput}, which report the whole buffer as retained, a view only
+ * reports its own length, so that values read from the same buffer are not accounted for the
+ * whole buffer each.
+ */
+final class DirectBufferSliceInput
+        extends FixedLengthSliceInput
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(DirectBufferSliceInput.class).instanceSize();
+
+    private final ByteBuffer buffer;
+    private final BasicSliceInput delegate;
+
+    public DirectBufferSliceInput(ByteBuffer buffer)
+    {
+        requireNonNull(buffer, "buffer is null");
+        checkArgument(buffer.isDirect(), "buffer is not direct");
+        this.buffer = buffer.slice();
+        this.delegate = Slices.wrappedBuffer(this.buffer).getInput();
+    }
+
+    @Override
+    public long length()
+    {
+        return delegate.length();
+    }
+
+    @Override
+    public long position()
+    {
+        return delegate.position();
+    }
+
+    @Override
+    public void setPosition(long position)
+    {
+        delegate.setPosition(position);
+    }
+
+    @Override
+    public boolean isReadable()
+    {
+        return delegate.isReadable();
+    }
+
+    @Override
+    public int available()
+    {
+        return delegate.available();
+    }
+
+    @Override
+    public int read()
+    {
+        return delegate.read();
+    }
+
+    @Override
+    public boolean readBoolean()
+    {
+        return delegate.readBoolean();
+    }
+
+    @Override
+    public byte readByte()
+    {
+        return delegate.readByte();
+    }
+
+    @Override
+    public int readUnsignedByte()
+    {
+        return delegate.readUnsignedByte();
+    }
+
+    @Override
+    public short readShort()
+    {
+        return delegate.readShort();
+    }
+
+    @Override
+    public int readUnsignedShort()
+    {
+        return delegate.readUnsignedShort();
+    }
+
+    @Override
+    public int readInt()
+    {
+        return delegate.readInt();
+    }
+
+    @Override
+    public long readLong()
+    {
+        return delegate.readLong();
+    }
+
+    @Override
+    public float readFloat()
+    {
+        return delegate.readFloat();
+    }
+
+    @Override
+    public double readDouble()
+    {
+        return delegate.readDouble();
+    }
+
+    @Override
+    public Slice readSlice(int length)
+    {
+        int position = toIntExact(delegate.position());
+        // checks the bounds and advances the position
+        delegate.readSlice(length);
+        if (length == 0) {
+            return Slices.EMPTY_SLICE;
+        }
+        ByteBuffer view = buffer.duplicate();
+        view.position(position);
+        view.limit(position + length);
+        return Slices.wrappedBuffer(view.slice());
+    }
+
+    @Override
+    public int read(byte[] destination, int destinationIndex, int length)
+    {
+        return delegate.read(destination, destinationIndex, length);
+    }
+
+    @Override
+    public void readBytes(byte[] destination, int destinationIndex, int length)
+    {
+        delegate.readBytes(destination, destinationIndex, length);
+    }
+
+    @Override
+    public void readBytes(Slice destination, int destinationIndex, int length)
+    {
+        delegate.readBytes(destination, destinationIndex, length);
+    }
+
+    @Override
+    public void readBytes(OutputStream out, int length)
+            throws IOException
+    {
+        delegate.readBytes(out, length);
+    }
+
+    @Override
+    public long skip(long length)
+    {
+        return delegate.skip(length);
+    }
+
+    @Override
+    public int skipBytes(int length)
+    {
+        return delegate.skipBytes(length);
+    }
+
+    @Override
+    public long getRetainedSize()
+    {
+        return INSTANCE_SIZE + delegate.getRetainedSize();
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("position", position())
+                .add("length", length())
+                .toString();
+    }
+}
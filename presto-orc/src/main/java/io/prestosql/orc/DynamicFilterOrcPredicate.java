@@ -18,6 +18,7 @@ import io.airlift.log.Logger;
 import io.prestosql.orc.metadata.ColumnMetadata;
 import io.prestosql.orc.metadata.OrcColumnId;
 import io.prestosql.orc.metadata.statistics.ColumnStatistics;
+import io.prestosql.orc.metadata.statistics.DateStatistics;
 import io.prestosql.orc.metadata.statistics.IntegerStatistics;
 import io.prestosql.spi.dynamicfilter.DynamicFilter;
 
@@ -71,40 +72,20 @@ public class DynamicFilterOrcPredicate
     private boolean columnOverlaps(List<DynamicFilter> dynamicFilters, long numberOfRows, ColumnStatistics columnStatistics)
     {
         boolean filterResult = true;
-        for (int j = 0; j < dynamicFilters.size(); j++) {
-            String typeName = dynamicFilters.get(j).getColumnHandle().getTypeName();
+        for (DynamicFilter dynamicFilter : dynamicFilters) {
+            String typeName = dynamicFilter.getColumnHandle().getTypeName();
             Optional<ColumnBasicStats> stats = getColumnBasicStats(typeName, numberOfRows, columnStatistics);
             if (stats.isPresent()) {
-                Long min = stats.get().getMinimum();
-                Long max = stats.get().getMaximum();
-                if (dynamicFilters.get(j).hasMinMaxStats()) {
-                    filterResult = dynamicFilters.get(j).isRangeOverlaps(min, max);
-                    if (filterResult) {
-                        break;
-                    }
-                }
-                else if (dynamicFilters.get(j).contains(min) || dynamicFilters.get(j).contains(max) || rangeMatch(min, max, dynamicFilters.get(j))) {
-                    filterResult = true;
+                // range filters compare min/max, small value lists and bloom filters over narrow ranges check the values
+                filterResult = dynamicFilter.overlapsRange(stats.get().getMinimum(), stats.get().getMaximum());
+                if (filterResult) {
                     break;
                 }
-                else {
-                    filterResult = false;
-                }
             }
         }
         return filterResult;
     }
 
-    private boolean rangeMatch(Long min, Long max, DynamicFilter dynamicFilter)
-    {
-        for (long value = min + 1; value < max; value++) {
-            if (dynamicFilter.contains(value)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
     public List<DynamicFilter> getColumnDynamicFilters(int columnId)
     {
         for (ColumnDynamicFilter columnDynamicFilter : columnDynamicFilters) {
@@ -144,6 +125,17 @@ public class DynamicFilterOrcPredicate
                 }
                 break;
             }
+            case "date": {
+                DateStatistics dateStatistics = columnStatistics.getDateStatistics();
+                if (dateStatistics != null) {
+                    Integer min = dateStatistics.getMin();
+                    Integer max = dateStatistics.getMax();
+                    if (null != min && null != max) {
+                        return Optional.of(new ColumnBasicStats(min, max));
+                    }
+                }
+                break;
+            }
             default:
                 break;
         }
@@ -0,0 +1,84 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.orc;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Count-min sketch that estimates how often keys were accessed recently, used for TinyLFU
+ * admission. Counters saturate at 15 and are halved periodically, so the estimates follow
+ * the recent popularity of keys. Not thread-safe.
+ */
+final class FrequencySketch
+{
+    private static final int DEPTH = 4;
+    private static final int MAX_FREQUENCY = 15;
+    private static final int[] SEEDS = {0x97cb3127, 0xb9b6ec2d, 0x2f1eb7ff, 0x1c76c4d5};
+
+    private final byte[][] table;
+    private final int mask;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(int width)
+    {
+        checkArgument(width > 0, "width must be positive");
+        int tableWidth = Integer.highestOneBit(width - 1) << 1;
+        tableWidth = Math.max(tableWidth, 1);
+        this.table = new byte[DEPTH][tableWidth];
+        this.mask = tableWidth - 1;
+        this.sampleSize = 10 * tableWidth;
+    }
+
+    int frequency(int hash)
+    {
+        int frequency = MAX_FREQUENCY;
+        for (int row = 0; row < DEPTH; row++) {
+            frequency = Math.min(frequency, table[row][index(hash, row)]);
+        }
+        return frequency;
+    }
+
+    void increment(int hash)
+    {
+        boolean added = false;
+        for (int row = 0; row < DEPTH; row++) {
+            int index = index(hash, row);
+            if (table[row][index] < MAX_FREQUENCY) {
+                table[row][index]++;
+                added = true;
+            }
+        }
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    private void reset()
+    {
+        for (byte[] row : table) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] = (byte) (row[i] >>> 1);
+            }
+        }
+        additions /= 2;
+    }
+
+    private int index(int hash, int row)
+    {
+        int h = (hash ^ SEEDS[row]) * 0x9e3779b9;
+        h ^= h >>> 16;
+        return h & mask;
+    }
+}
@@ -0,0 +1,469 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.orc;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import com.google.common.cache.AbstractCache;
+import com.google.common.cache.CacheLoader.InvalidCacheLoadException;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import io.airlift.log.Logger;
+import io.airlift.slice.DynamicSliceOutput;
+import io.airlift.slice.Slice;
+import io.airlift.slice.SliceOutput;
+import io.airlift.slice.Slices;
+import io.airlift.units.DataSize;
+import io.prestosql.spi.memory.ReclaimableMemoryConsumer;
+
+import javax.annotation.concurrent.GuardedBy;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Cache that keeps its values serialized in direct memory, so that a large cache neither competes
+ * with queries for heap nor adds to garbage collection pauses. The cache is bounded by the size of
+ * the serialized values and evicts the least recently used entries. A new entry is only admitted
+ * if it was accessed more often recently than the entries it would evict (TinyLFU), so a large
+ * scan of data that is read once does not flush the entries that are read repeatedly.
+ * <p>
+ * Keys are partitioned into segments by hash. Each segment has its own lock, recency order,
+ * frequency sketch and an equal share of the maximum weight, so that concurrent readers of
+ * different keys rarely contend.
+ * <p>
+ * Values are deserialized on every hit, directly from the direct memory of the entry, so
+ * deserialized values may share the memory of the entry instead of copying it. The memory of an
+ * evicted entry is released by the garbage collector once no deserialized value references it.
+ * <p>
+ * Concurrent loads of the same key are not coalesced.
+ */
+public class OffHeapCache<K, V>
+        extends AbstractCache<K, V>
+        implements ReclaimableMemoryConsumer
+{
+    private static final Logger log = Logger.get(OffHeapCache.class);
+    private static final long ESTIMATED_ENTRY_SIZE = 64 * 1024;
+    private static final int MIN_SKETCH_WIDTH = 1024;
+    private static final int MAX_SKETCH_WIDTH = 1 << 24;
+    private static final long MIN_SEGMENT_WEIGHT = 64 * 1024 * 1024;
+    private static final int MAX_SEGMENTS = 16;
+
+    private final Codec<V> codec;
+    private final long expireAfterAccessNanos;
+    private final Ticker ticker;
+    private final StatsCounter statsCounter = new SimpleStatsCounter();
+    private final List<Segment> segments;
+    private final int segmentShift;
+    private final AtomicLong weight = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    public OffHeapCache(Codec<V> codec, DataSize maximumWeight, Duration expireAfterAccess)
+    {
+        this(codec, maximumWeight, expireAfterAccess, Ticker.systemTicker(), defaultSegmentCount(maximumWeight));
+    }
+
+    @VisibleForTesting
+    OffHeapCache(Codec<V> codec, DataSize maximumWeight, Duration expireAfterAccess, Ticker ticker)
+    {
+        this(codec, maximumWeight, expireAfterAccess, ticker, 1);
+    }
+
+    @VisibleForTesting
+    OffHeapCache(Codec<V> codec, DataSize maximumWeight, Duration expireAfterAccess, Ticker ticker, int segmentCount)
+    {
+        this.codec = requireNonNull(codec, "codec is null");
+        this.expireAfterAccessNanos = requireNonNull(expireAfterAccess, "expireAfterAccess is null").toNanos();
+        this.ticker = requireNonNull(ticker, "ticker is null");
+        long maximumBytes = requireNonNull(maximumWeight, "maximumWeight is null").toBytes();
+        checkArgument(maximumBytes >= 0, "maximumWeight is negative");
+        checkArgument(segmentCount > 0 && Integer.bitCount(segmentCount) == 1, "segmentCount must be a power of two");
+
+        ImmutableList.Builder<Segment> segments = ImmutableList.builder();
+        for (int i = 0; i < segmentCount; i++) {
+            segments.add(new Segment(maximumBytes / segmentCount));
+        }
+        this.segments = segments.build();
+        this.segmentShift = Integer.SIZE - Integer.numberOfTrailingZeros(segmentCount);
+    }
+
+    private static int defaultSegmentCount(DataSize maximumWeight)
+    {
+        long segmentCount = Long.highestOneBit(maximumWeight.toBytes() / MIN_SEGMENT_WEIGHT);
+        return toIntExact(Math.max(1, Math.min(MAX_SEGMENTS, segmentCount)));
+    }
+
+    @Override
+    public V getIfPresent(Object key)
+    {
+        ByteBuffer data = segmentFor(key).getIfPresent(key);
+        if (data == null) {
+            statsCounter.recordMisses(1);
+            return null;
+        }
+        statsCounter.recordHits(1);
+        return codec.read(data.duplicate());
+    }
+
+    @Override
+    public V get(K key, Callable<? extends V> loader)
+            throws ExecutionException
+    {
+        V value = getIfPresent(key);
+        if (value != null) {
+            return value;
+        }
+
+        long start = System.nanoTime();
+        try {
+            value = loader.call();
+        }
+        catch (RuntimeException e) {
+            statsCounter.recordLoadException(System.nanoTime() - start);
+            throw new UncheckedExecutionException(e);
+        }
+        catch (Exception e) {
+            statsCounter.recordLoadException(System.nanoTime() - start);
+            throw new ExecutionException(e);
+        }
+        catch (Error e) {
+            statsCounter.recordLoadException(System.nanoTime() - start);
+            throw new ExecutionError(e);
+        }
+        if (value == null) {
+            statsCounter.recordLoadException(System.nanoTime() - start);
+            throw new InvalidCacheLoadException("loader returned null for key " + key);
+        }
+        statsCounter.recordLoadSuccess(System.nanoTime() - start);
+        put(key, value);
+        return value;
+    }
+
+    @Override
+    public void put(K key, V value)
+    {
+        requireNonNull(key, "key is null");
+        requireNonNull(value, "value is null");
+
+        ByteBuffer data;
+        try {
+            data = serialize(value);
+        }
+        catch (RuntimeException e) {
+            // values the codec cannot serialize are not cached
+            log.debug(e, "Failed to serialize value for key %s", key);
+            return;
+        }
+
+        if (!segmentFor(key).put(key, data)) {
+            rejectedCount.incrementAndGet();
+        }
+    }
+
+    @Override
+    public long getRetainedSizeInBytes()
+    {
+        return weight.get();
+    }
+
+    @Override
+    public boolean isDirectMemory()
+    {
+        return true;
+    }
+
+    /**
+     * Evicts the least recently used entries until at least the given number of bytes is released.
+     * Each segment gives back an equal share first, the segments that still hold entries make up
+     * for the segments that ran out.
+     */
+    @Override
+    public long reclaim(long bytes)
+    {
+        long reclaimedBytes = 0;
+        long share = (bytes + segments.size() - 1) / segments.size();
+        for (Segment segment : segments) {
+            if (reclaimedBytes >= bytes) {
+                return reclaimedBytes;
+            }
+            reclaimedBytes += segment.reclaim(Math.min(share, bytes - reclaimedBytes));
+        }
+        for (Segment segment : segments) {
+            if (reclaimedBytes >= bytes) {
+                return reclaimedBytes;
+            }
+            reclaimedBytes += segment.reclaim(bytes - reclaimedBytes);
+        }
+        return reclaimedBytes;
+    }
+
+    public long getRejectedCount()
+    {
+        return rejectedCount.get();
+    }
+
+    @Override
+    public long size()
+    {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    @Override
+    public void invalidate(Object key)
+    {
+        segmentFor(key).invalidate(key);
+    }
+
+    @Override
+    public void invalidateAll()
+    {
+        for (Segment segment : segments) {
+            segment.invalidateAll();
+        }
+    }
+
+    @Override
+    public void cleanUp()
+    {
+        for (Segment segment : segments) {
+            segment.cleanUp();
+        }
+    }
+
+    @Override
+    public CacheStats stats()
+    {
+        return statsCounter.snapshot();
+    }
+
+    private Segment segmentFor(Object key)
+    {
+        if (segments.size() == 1) {
+            return segments.get(0);
+        }
+        // the sketch indexes mix the low bits of the hash, so the segment is picked by the high bits
+        return segments.get((key.hashCode() * 0x9e3779b9) >>> segmentShift);
+    }
+
+    private boolean isExpired(Entry entry, long now)
+    {
+        return now - entry.accessTime >= expireAfterAccessNanos;
+    }
+
+    private ByteBuffer serialize(V value)
+    {
+        SliceOutput output = new DynamicSliceOutput(1024);
+        codec.write(output, value);
+        Slice serialized = output.slice();
+        ByteBuffer data = ByteBuffer.allocateDirect(serialized.length());
+        Slices.wrappedBuffer(data).setBytes(0, serialized);
+        return data;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "OffHeapCache{" + codec + "}";
+    }
+
+    private final class Segment
+    {
+        private final long maximumWeight;
+
+        @GuardedBy("this")
+        private final LinkedHashMap<Object, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+        @GuardedBy("this")
+        private final FrequencySketch sketch;
+        @GuardedBy("this")
+        private long weight;
+
+        private Segment(long maximumWeight)
+        {
+            this.maximumWeight = maximumWeight;
+            this.sketch = new FrequencySketch(toIntExact(Math.max(MIN_SKETCH_WIDTH, Math.min(MAX_SKETCH_WIDTH, maximumWeight / ESTIMATED_ENTRY_SIZE))));
+        }
+
+        public synchronized ByteBuffer getIfPresent(Object key)
+        {
+            sketch.increment(key.hashCode());
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            long now = ticker.read();
+            if (isExpired(entry, now)) {
+                removeEntry(key);
+                statsCounter.recordEviction();
+                return null;
+            }
+            entry.accessTime = now;
+            return entry.data;
+        }
+
+        /**
+         * Stores the entry, unless the admission policy rejects it. A rejected entry leaves the
+         * previous entry of the key in place.
+         */
+        public synchronized boolean put(Object key, ByteBuffer data)
+        {
+            // the previous entry of the key makes room for its replacement
+            Entry previous = entries.remove(key);
+            if (previous != null) {
+                addWeight(-previous.data.capacity());
+            }
+            if (!admit(key, data.capacity())) {
+                if (previous != null) {
+                    entries.put(key, previous);
+                    addWeight(previous.data.capacity());
+                }
+                return false;
+            }
+            entries.put(key, new Entry(data, ticker.read()));
+            addWeight(data.capacity());
+            return true;
+        }
+
+        @GuardedBy("this")
+        private boolean admit(Object key, long entryWeight)
+        {
+            if (entryWeight > maximumWeight) {
+                return false;
+            }
+            long bytesToEvict = weight + entryWeight - maximumWeight;
+            if (bytesToEvict <= 0) {
+                return true;
+            }
+
+            // the least recently used entries make room for the new entry, unless one of them is more popular
+            int candidateFrequency = sketch.frequency(key.hashCode());
+            long now = ticker.read();
+            List<Object> victims = new ArrayList<>();
+            long evictedBytes = 0;
+            for (Map.Entry<Object, Entry> entry : entries.entrySet()) {
+                if (evictedBytes >= bytesToEvict) {
+                    break;
+                }
+                if (!isExpired(entry.getValue(), now) && sketch.frequency(entry.getKey().hashCode()) >= candidateFrequency) {
+                    return false;
+                }
+                victims.add(entry.getKey());
+                evictedBytes += entry.getValue().data.capacity();
+            }
+            for (Object victim : victims) {
+                removeEntry(victim);
+                statsCounter.recordEviction();
+            }
+            return true;
+        }
+
+        public synchronized long reclaim(long bytes)
+        {
+            long reclaimedBytes = 0;
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (reclaimedBytes < bytes && iterator.hasNext()) {
+                reclaimedBytes += iterator.next().data.capacity();
+                iterator.remove();
+                statsCounter.recordEviction();
+            }
+            addWeight(-reclaimedBytes);
+            return reclaimedBytes;
+        }
+
+        public synchronized long size()
+        {
+            return entries.size();
+        }
+
+        public synchronized void invalidate(Object key)
+        {
+            removeEntry(key);
+        }
+
+        public synchronized void invalidateAll()
+        {
+            entries.clear();
+            addWeight(-weight);
+        }
+
+        public synchronized void cleanUp()
+        {
+            long now = ticker.read();
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                Entry entry = iterator.next();
+                if (isExpired(entry, now)) {
+                    addWeight(-entry.data.capacity());
+                    iterator.remove();
+                    statsCounter.recordEviction();
+                }
+            }
+        }
+
+        @GuardedBy("this")
+        private void removeEntry(Object key)
+        {
+            Entry entry = entries.remove(key);
+            if (entry != null) {
+                addWeight(-entry.data.capacity());
+            }
+        }
+
+        @GuardedBy("this")
+        private void addWeight(long delta)
+        {
+            weight += delta;
+            OffHeapCache.this.weight.addAndGet(delta);
+        }
+    }
+
+    private static final class Entry
+    {
+        private final ByteBuffer data;
+        private long accessTime;
+
+        private Entry(ByteBuffer data, long accessTime)
+        {
+            this.data = data;
+            this.accessTime = accessTime;
+        }
+    }
+
+    public interface Codec<V>
+    {
+        void write(SliceOutput output, V value);
+
+        /**
+         * Reads a value from the direct memory of an entry. The value may keep referencing the memory.
+         */
+        V read(ByteBuffer data);
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.orc;
+
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.BasicSliceInput;
+import io.airlift.slice.SliceOutput;
+import io.airlift.slice.Slices;
+import io.prestosql.orc.OffHeapCache.Codec;
+import io.prestosql.orc.metadata.ColumnEncoding;
+import io.prestosql.orc.metadata.ColumnEncoding.ColumnEncodingKind;
+import io.prestosql.orc.metadata.ColumnMetadata;
+import io.prestosql.orc.metadata.OrcColumnId;
+import io.prestosql.orc.metadata.Stream;
+import io.prestosql.orc.metadata.Stream.StreamKind;
+import io.prestosql.orc.metadata.StripeFooter;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockEncodingSerde;
+
+import java.nio.ByteBuffer;
+import java.time.ZoneId;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.requireNonNull;
+
+public final class OffHeapCacheCodecs
+{
+    private static final StreamKind[] STREAM_KINDS = StreamKind.values();
+    private static final ColumnEncodingKind[] COLUMN_ENCODING_KINDS = ColumnEncodingKind.values();
+
+    private OffHeapCacheCodecs()
+    {
+    }
+
+    /**
+     * Blocks are written with their block encodings. Variable width data is read back as a view of
+     * the cache entry without copying, and only the view counts towards the retained size of the
+     * block. Fixed width blocks are backed by heap arrays, so their values are copied on every hit.
+     */
+    public static Codec<Block> blockCodec(BlockEncodingSerde blockEncodingSerde)
+    {
+        requireNonNull(blockEncodingSerde, "blockEncodingSerde is null");
+        return new Codec<Block>()
+        {
+            @Override
+            public void write(SliceOutput output, Block block)
+            {
+                blockEncodingSerde.writeBlock(output, block);
+            }
+
+            @Override
+            public Block read(ByteBuffer data)
+            {
+                return blockEncodingSerde.readBlock(new DirectBufferSliceInput(data));
+            }
+
+            @Override
+            public String toString()
+            {
+                return "BlockCodec";
+            }
+        };
+    }
+
+    public static Codec<StripeFooter> stripeFooterCodec()
+    {
+        return new Codec<StripeFooter>()
+        {
+            @Override
+            public void write(SliceOutput output, StripeFooter stripeFooter)
+            {
+                output.writeInt(stripeFooter.getStreams().size());
+                for (Stream stream : stripeFooter.getStreams()) {
+                    output.writeInt(stream.getColumnId().getId());
+                    output.writeByte(stream.getStreamKind().ordinal());
+                    output.writeInt(stream.getLength());
+                    output.writeBoolean(stream.isUseVInts());
+                }
+
+                ColumnMetadata<ColumnEncoding> columnEncodings = stripeFooter.getColumnEncodings();
+                output.writeInt(columnEncodings.size());
+                for (int i = 0; i < columnEncodings.size(); i++) {
+                    ColumnEncoding columnEncoding = columnEncodings.get(new OrcColumnId(i));
+                    output.writeByte(columnEncoding.getColumnEncodingKind().ordinal());
+                    output.writeInt(columnEncoding.getDictionarySize());
+                }
+
+                byte[] timeZone = stripeFooter.getTimeZone().getId().getBytes(UTF_8);
+                output.writeInt(timeZone.length);
+                output.writeBytes(timeZone);
+            }
+
+            @Override
+            public StripeFooter read(ByteBuffer data)
+            {
+                BasicSliceInput input = Slices.wrappedBuffer(data).getInput();
+                int streamCount = input.readInt();
+                ImmutableList.Builder<Stream> streams = ImmutableList.builderWithExpectedSize(streamCount);
+                for (int i = 0; i < streamCount; i++) {
+                    OrcColumnId columnId = new OrcColumnId(input.readInt());
+                    StreamKind streamKind = STREAM_KINDS[input.readByte()];
+                    int length = input.readInt();
+                    boolean useVInts = input.readBoolean();
+                    streams.add(new Stream(columnId, streamKind, length, useVInts));
+                }
+
+                int columnCount = input.readInt();
+                ImmutableList.Builder<ColumnEncoding> columnEncodings = ImmutableList.builderWithExpectedSize(columnCount);
+                for (int i = 0; i < columnCount; i++) {
+                    ColumnEncodingKind kind = COLUMN_ENCODING_KINDS[input.readByte()];
+                    columnEncodings.add(new ColumnEncoding(kind, input.readInt()));
+                }
+
+                ZoneId timeZone = ZoneId.of(input.readSlice(input.readInt()).toStringUtf8());
+                return new StripeFooter(streams.build(), new ColumnMetadata<>(columnEncodings.build()), timeZone);
+            }
+
+            @Override
+            public String toString()
+            {
+                return "StripeFooterCodec";
+            }
+        };
+    }
+}
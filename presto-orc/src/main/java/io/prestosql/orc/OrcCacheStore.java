@@ -17,17 +17,28 @@ package io.prestosql.orc;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.Weigher;
+import com.google.common.collect.ImmutableList;
+import io.airlift.log.Logger;
 import io.airlift.units.DataSize;
 import io.prestosql.orc.metadata.RowGroupIndex;
 import io.prestosql.orc.metadata.StripeFooter;
 import io.prestosql.orc.metadata.statistics.HashableBloomFilter;
 import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockEncodingSerde;
+import io.prestosql.spi.memory.ReclaimableMemoryConsumer;
 
 import java.time.Duration;
 import java.util.List;
 
+import static io.airlift.units.DataSize.succinctBytes;
+import static io.hetu.core.common.util.DirectMemoryUtil.getMaxDirectMemory;
+import static io.prestosql.orc.OffHeapCacheCodecs.blockCodec;
+import static io.prestosql.orc.OffHeapCacheCodecs.stripeFooterCodec;
+
 public class OrcCacheStore
 {
+    private static final Logger log = Logger.get(OrcCacheStore.class);
+
     public static final OrcCacheStore CACHE_NOTHING = new OrcCacheStore(null,
             null,
             null,
@@ -83,6 +94,20 @@ public class OrcCacheStore
         return rowDataCache;
     }
 
+    /**
+     * Caches that hold memory which is not accounted for in memory pools, and can give it back on request
+     */
+    public List<ReclaimableMemoryConsumer> getReclaimableMemoryConsumers()
+    {
+        ImmutableList.Builder<ReclaimableMemoryConsumer> consumers = ImmutableList.builder();
+        for (Cache<?, ?> cache : new Cache<?, ?>[] {fileTailCache, stripeFooterCache, rowIndexCache, bloomFiltersCache, rowDataCache}) {
+            if (cache instanceof ReclaimableMemoryConsumer) {
+                consumers.add((ReclaimableMemoryConsumer) cache);
+            }
+        }
+        return consumers.build();
+    }
+
     public static Builder builder()
     {
         return new Builder();
@@ -111,6 +136,43 @@ public class OrcCacheStore
             return store;
         }
 
+        /**
+         * Same as {@link #newCacheStore}, except that stripe footers and row data are kept serialized
+         * in direct memory, bounded by their serialized size. Statistics are always recorded for these caches.
+         * The caches are scaled down to half of the maximum direct memory of the JVM, leaving the rest
+         * for network and I/O buffers.
+         */
+        public OrcCacheStore newOffHeapCacheStore(long fileTailMaximumSize, Duration fileTailTtl,
+                DataSize stripeFooterMaximumSize, Duration stripeFooterTtl,
+                long rowIndexMaximumSize, Duration rowIndexTtl,
+                long bloomFiltersMaximumSize, Duration bloomFiltersTtl,
+                DataSize rowDataMaximumWeight, Duration rowDataTtl,
+                BlockEncodingSerde blockEncodingSerde,
+                boolean isOrcCacheStatsMetricCollectionEnabled)
+        {
+            long directMemoryLimit = getMaxDirectMemory() / 2;
+            long directMemorySize = stripeFooterMaximumSize.toBytes() + rowDataMaximumWeight.toBytes();
+            DataSize stripeFooterCacheSize = stripeFooterMaximumSize;
+            DataSize rowDataCacheSize = rowDataMaximumWeight;
+            if (directMemorySize > directMemoryLimit) {
+                double scale = (double) directMemoryLimit / directMemorySize;
+                stripeFooterCacheSize = succinctBytes((long) (stripeFooterMaximumSize.toBytes() * scale));
+                rowDataCacheSize = succinctBytes((long) (rowDataMaximumWeight.toBytes() * scale));
+                log.warn("Off-heap Orc caches of %s exceed half of the maximum direct memory, limiting the stripe footer cache to %s and the row data cache to %s",
+                        succinctBytes(directMemorySize),
+                        stripeFooterCacheSize,
+                        rowDataCacheSize);
+            }
+
+            OrcCacheStore store = new OrcCacheStore();
+            store.fileTailCache = buildOrcFileTailCache(fileTailMaximumSize, fileTailTtl, isOrcCacheStatsMetricCollectionEnabled);
+            store.stripeFooterCache = new OffHeapCache<>(stripeFooterCodec(), stripeFooterCacheSize, stripeFooterTtl);
+            store.rowIndexCache = buildOrcRowGroupIndexCache(rowIndexMaximumSize, rowIndexTtl, isOrcCacheStatsMetricCollectionEnabled);
+            store.bloomFiltersCache = buildOrcBloomFilterCache(bloomFiltersMaximumSize, bloomFiltersTtl, isOrcCacheStatsMetricCollectionEnabled);
+            store.rowDataCache = new OffHeapCache<>(blockCodec(blockEncodingSerde), rowDataCacheSize, rowDataTtl);
+            return store;
+        }
+
         private Cache<OrcFileTailCacheKey, OrcFileTail> buildOrcFileTailCache(long maximumSize, Duration ttl, boolean isOrcCacheStatsMetricCollectionEnabled)
         {
             CacheBuilder cacheBuilder = CacheBuilder.newBuilder().maximumSize(maximumSize).expireAfterAccess(ttl);
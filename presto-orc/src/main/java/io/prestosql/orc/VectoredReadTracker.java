@@ -0,0 +1,121 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.orc;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.prestosql.orc.VectoredReader.RangeReader;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Tracks the vectored reads issued for one data source, so that the data source is only closed
+ * once no read uses it anymore. Closing the tracker cancels the reads that have not started and
+ * waits for the reads that are running.
+ */
+@ThreadSafe
+public class VectoredReadTracker
+{
+    @GuardedBy("this")
+    private final Set<ListenableFuture<?>> pendingReads = new HashSet<>();
+    @GuardedBy("this")
+    private int runningReads;
+    @GuardedBy("this")
+    private boolean closed;
+
+    /**
+     * Wraps the reader of the data source so that every read is tracked while it runs,
+     * and reads that start after the tracker is closed fail.
+     */
+    public RangeReader track(RangeReader reader)
+    {
+        requireNonNull(reader, "reader is null");
+        return (position, buffer, bufferOffset, length) -> {
+            synchronized (this) {
+                if (closed) {
+                    throw new IOException("Data source is closed");
+                }
+                runningReads++;
+            }
+            try {
+                reader.read(position, buffer, bufferOffset, length);
+            }
+            finally {
+                synchronized (this) {
+                    runningReads--;
+                    notifyAll();
+                }
+            }
+        };
+    }
+
+    /**
+     * Registers the reads returned by {@link VectoredReader#readRanges}, so that they can be
+     * cancelled if they have not started when the tracker is closed.
+     */
+    public <K, V extends ListenableFuture<?>> Map<K, V> register(Map<K, V> reads)
+    {
+        for (V read : reads.values()) {
+            synchronized (this) {
+                pendingReads.add(read);
+            }
+            read.addListener(() -> unregister(read), directExecutor());
+        }
+        return reads;
+    }
+
+    private synchronized void unregister(ListenableFuture<?> read)
+    {
+        pendingReads.remove(read);
+    }
+
+    /**
+     * Cancels the reads that have not started and waits until the running reads are done.
+     */
+    public void close()
+            throws InterruptedIOException
+    {
+        List<ListenableFuture<?>> reads;
+        synchronized (this) {
+            closed = true;
+            reads = ImmutableList.copyOf(pendingReads);
+            pendingReads.clear();
+        }
+        // do not interrupt reads in flight, as interrupting a read can close the underlying stream
+        reads.forEach(read -> read.cancel(false));
+
+        synchronized (this) {
+            while (runningReads > 0) {
+                try {
+                    wait();
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for vectored reads");
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.orc;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+import io.airlift.units.DataSize;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+import static com.google.common.base.Throwables.throwIfInstanceOf;
+import static com.google.common.base.Throwables.throwIfUnchecked;
+import static com.google.common.util.concurrent.Futures.transform;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static io.prestosql.orc.OrcDataSourceUtils.mergeAdjacentDiskRanges;
+import static java.lang.Math.toIntExact;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads a set of disk ranges with as few and as concurrent requests as possible. Ranges that are
+ * closer than the merge distance are coalesced into one request as long as the request does not
+ * exceed the maximum merged size. The requests are issued on the executor, which bounds the number
+ * of reads in flight, and the data of each range is returned as a future so that callers can
+ * decode the first ranges while the others are still being fetched.
+ */
+public class VectoredReader
+{
+    private final Executor executor;
+
+    public VectoredReader(Executor executor)
+    {
+        this.executor = requireNonNull(executor, "executor is null");
+    }
+
+    public <K> Map<K, ListenableFuture<Slice>> readRanges(Map<K, DiskRange> diskRanges, DataSize maxMergeDistance, DataSize maxMergedSize, RangeReader reader)
+    {
+        requireNonNull(diskRanges, "diskRanges is null");
+        requireNonNull(reader, "reader is null");
+
+        if (diskRanges.isEmpty()) {
+            return ImmutableMap.of();
+        }
+
+        List<DiskRange> mergedRanges = mergeAdjacentDiskRanges(diskRanges.values(), maxMergeDistance, maxMergedSize);
+        ImmutableMap.Builder<DiskRange, ListenableFuture<Slice>> mergedReads = ImmutableMap.builder();
+        for (DiskRange mergedRange : mergedRanges) {
+            ListenableFutureTask<Slice> read = ListenableFutureTask.create(() -> {
+                byte[] buffer = new byte[mergedRange.getLength()];
+                reader.read(mergedRange.getOffset(), buffer, 0, buffer.length);
+                return Slices.wrappedBuffer(buffer);
+            });
+            executor.execute(read);
+            mergedReads.put(mergedRange, read);
+        }
+
+        return sliceMergedReads(diskRanges, mergedReads.build());
+    }
+
+    private static <K> Map<K, ListenableFuture<Slice>> sliceMergedReads(Map<K, DiskRange> diskRanges, Map<DiskRange, ListenableFuture<Slice>> mergedReads)
+    {
+        ImmutableMap.Builder<K, ListenableFuture<Slice>> slices = ImmutableMap.builder();
+        for (Entry<K, DiskRange> entry : diskRanges.entrySet()) {
+            DiskRange diskRange = entry.getValue();
+            ListenableFuture<Slice> slice = null;
+            for (Entry<DiskRange, ListenableFuture<Slice>> mergedRead : mergedReads.entrySet()) {
+                DiskRange mergedRange = mergedRead.getKey();
+                if (mergedRange.contains(diskRange)) {
+                    int offset = toIntExact(diskRange.getOffset() - mergedRange.getOffset());
+                    slice = transform(mergedRead.getValue(), buffer -> buffer.slice(offset, diskRange.getLength()), directExecutor());
+                    break;
+                }
+            }
+            if (slice == null) {
+                throw new IllegalStateException("No matching read for disk range");
+            }
+            slices.put(entry.getKey(), slice);
+        }
+        return slices.build();
+    }
+
+    /**
+     * Waits for the data of a range returned by {@link #readRanges}, rethrowing the failure of the read.
+     */
+    public static Slice getRangeData(ListenableFuture<Slice> rangeData)
+            throws IOException
+    {
+        try {
+            return rangeData.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a vectored read");
+        }
+        catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throwIfInstanceOf(cause, IOException.class);
+            throwIfUnchecked(cause);
+            throw new IOException(cause);
+        }
+    }
+
+    public interface RangeReader
+    {
+        void read(long position, byte[] buffer, int bufferOffset, int length)
+                throws IOException;
+    }
+}
@@ -153,7 +153,7 @@ public class LongSelectiveColumnReader
                 }
                 else {
                     long value = dataStream.next();
-                    if ((this.filter == null || this.filter.testLong(value)) && (dynamicFilters == null || dynamicFilters.stream().anyMatch(df -> df.contains(value)))) {
+                    if ((this.filter == null || this.filter.testLong(value)) && (dynamicFilters == null || anyDynamicFilterContains(dynamicFilters, value))) {
                         if (outputRequired) {
                             values[outputPositionCount] = value;
                             if (nullsAllowed && presentStream != null) {
@@ -176,6 +176,17 @@ public class LongSelectiveColumnReader
         return outputPositionCount;
     }
 
+    // avoids boxing the value, and a lambda per row, for the dynamic filters with a long specialization
+    private static boolean anyDynamicFilterContains(List<DynamicFilter> dynamicFilters, long value)
+    {
+        for (int i = 0; i < dynamicFilters.size(); i++) {
+            if (dynamicFilters.get(i).contains(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public int readOr(int offset, int[] positions, int positionCount, List<TupleDomainFilter> filters, BitSet accumulator) throws IOException
     {
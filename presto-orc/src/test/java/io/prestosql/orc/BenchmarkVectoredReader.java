@@ -0,0 +1,148 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.orc;
+
+import com.google.common.collect.ImmutableMap;
+import io.airlift.units.DataSize;
+import io.prestosql.orc.stream.OrcDataReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+
+/**
+ * Reads the streams of a stripe from a data source that injects a fixed latency into every
+ * request, with and without the vectored reader.
+ */
+@SuppressWarnings("MethodMayBeStatic")
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+public class BenchmarkVectoredReader
+{
+    @Benchmark
+    public long readStreams(BenchmarkData data)
+            throws IOException
+    {
+        long bytes = 0;
+        Map<Integer, OrcDataReader> readers = data.getDataSource().readFully(data.getRanges());
+        for (OrcDataReader reader : readers.values()) {
+            bytes += reader.seekBuffer(0).length();
+        }
+        return bytes;
+    }
+
+    @State(Scope.Thread)
+    public static class BenchmarkData
+    {
+        private static final int STREAM_COUNT = 32;
+        private static final int STREAM_SIZE = 64 * 1024;
+        private static final int STREAM_GAP = 1024 * 1024;
+
+        @Param({"1", "10"})
+        private long latencyMillis = 1;
+
+        @Param({"false", "true"})
+        private boolean vectoredReadEnabled;
+
+        private ExecutorService executor;
+        private TestingSlowOrcDataSource dataSource;
+        private Map<Integer, DiskRange> ranges;
+
+        @Setup
+        public void setup()
+        {
+            executor = newFixedThreadPool(16);
+            ImmutableMap.Builder<Integer, DiskRange> builder = ImmutableMap.builder();
+            for (int i = 0; i < STREAM_COUNT; i++) {
+                builder.put(i, new DiskRange((long) i * (STREAM_SIZE + STREAM_GAP), STREAM_SIZE));
+            }
+            ranges = builder.build();
+            byte[] data = new byte[STREAM_COUNT * (STREAM_SIZE + STREAM_GAP)];
+            dataSource = new TestingSlowOrcDataSource(
+                    data,
+                    latencyMillis,
+                    new DataSize(1, KILOBYTE),
+                    new DataSize(8, MEGABYTE),
+                    vectoredReadEnabled ? Optional.of(new VectoredReader(executor)) : Optional.empty());
+        }
+
+        @TearDown
+        public void tearDown()
+        {
+            executor.shutdownNow();
+        }
+
+        public TestingSlowOrcDataSource getDataSource()
+        {
+            return dataSource;
+        }
+
+        public Map<Integer, DiskRange> getRanges()
+        {
+            return ranges;
+        }
+    }
+
+    @Test
+    public void testBenchmark()
+            throws IOException
+    {
+        BenchmarkData data = new BenchmarkData();
+        data.vectoredReadEnabled = true;
+        data.setup();
+        try {
+            readStreams(data);
+        }
+        finally {
+            data.tearDown();
+        }
+    }
+
+    public static void main(String[] args)
+            throws Exception
+    {
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkVectoredReader.class.getSimpleName() + ".*")
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.orc;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import io.prestosql.orc.DynamicFilterOrcPredicate.DynamicFilterOrcPredicateBuilder;
+import io.prestosql.orc.metadata.ColumnMetadata;
+import io.prestosql.orc.metadata.OrcColumnId;
+import io.prestosql.orc.metadata.statistics.ColumnStatistics;
+import io.prestosql.orc.metadata.statistics.DateStatistics;
+import io.prestosql.orc.metadata.statistics.IntegerStatistics;
+import io.prestosql.spi.connector.ColumnHandle;
+import io.prestosql.spi.dynamicfilter.DynamicFilter;
+import io.prestosql.spi.dynamicfilter.HashSetDynamicFilter;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestDynamicFilterOrcPredicate
+{
+    private static final OrcColumnId BIGINT_COLUMN = new OrcColumnId(1);
+    private static final OrcColumnId DATE_COLUMN = new OrcColumnId(2);
+
+    @Test
+    public void testIntegerStatistics()
+    {
+        OrcPredicate predicate = predicate(BIGINT_COLUMN, filter("bigint", 1L, 3L, 50L));
+
+        assertTrue(predicate.matches(10, statistics(integerStatistics(2L, 3L), null)));
+        assertTrue(predicate.matches(10, statistics(integerStatistics(40L, 60L), null)));
+        assertFalse(predicate.matches(10, statistics(integerStatistics(51L, 100L), null)));
+        assertFalse(predicate.matches(10, statistics(integerStatistics(-10L, 0L), null)));
+        // within min/max of the filter, but between its values
+        assertFalse(predicate.matches(10, statistics(integerStatistics(4L, 49L), null)));
+    }
+
+    @Test(timeOut = 10_000)
+    public void testWideRange()
+    {
+        // ranges are compared against the filter, not expanded into every value between min and max
+        OrcPredicate predicate = predicate(BIGINT_COLUMN, filter("bigint", 1L, 3L, 50L));
+        assertTrue(predicate.matches(10, statistics(integerStatistics(Long.MIN_VALUE, Long.MAX_VALUE), null)));
+        assertFalse(predicate.matches(10, statistics(integerStatistics(51L, Long.MAX_VALUE), null)));
+    }
+
+    @Test
+    public void testDateStatistics()
+    {
+        OrcPredicate predicate = predicate(DATE_COLUMN, filter("date", 18_000L, 18_100L));
+
+        assertTrue(predicate.matches(10, statistics(null, dateStatistics(17_500, 18_500))));
+        assertTrue(predicate.matches(10, statistics(null, dateStatistics(18_100, 18_100))));
+        assertFalse(predicate.matches(10, statistics(null, dateStatistics(17_000, 17_999))));
+        assertFalse(predicate.matches(10, statistics(null, dateStatistics(18_001, 18_099))));
+    }
+
+    @Test
+    public void testMissingStatistics()
+    {
+        OrcPredicate predicate = predicate(BIGINT_COLUMN, filter("bigint", 1L));
+
+        assertTrue(predicate.matches(10, statistics(null, null)));
+        assertTrue(predicate.matches(0, statistics(integerStatistics(5L, 10L), null)));
+        assertTrue(predicate.matches(10, new ColumnMetadata<>(Arrays.asList(rootStatistics(), null, null))));
+        // statistics of another type are ignored
+        assertTrue(predicate(DATE_COLUMN, filter("date", 1L)).matches(10, statistics(null, integerStatistics(5L, 10L))));
+    }
+
+    @Test
+    public void testMultipleFilters()
+    {
+        ColumnMetadata<ColumnStatistics> statistics = statistics(integerStatistics(10L, 20L), dateStatistics(100, 200));
+
+        // filters on the same column are alternatives, a single overlapping filter keeps the section
+        assertTrue(predicate(BIGINT_COLUMN, filter("bigint", 1L), filter("bigint", 15L)).matches(10, statistics));
+        assertFalse(predicate(BIGINT_COLUMN, filter("bigint", 1L), filter("bigint", 25L)).matches(10, statistics));
+
+        // every filtered column must overlap
+        OrcPredicate predicate = DynamicFilterOrcPredicateBuilder.builder()
+                .addColumn(BIGINT_COLUMN, ImmutableList.of(filter("bigint", 15L)))
+                .addColumn(DATE_COLUMN, ImmutableList.of(filter("date", 300L)))
+                .build()
+                .get();
+        assertFalse(predicate.matches(10, statistics));
+    }
+
+    private static OrcPredicate predicate(OrcColumnId columnId, DynamicFilter... filters)
+    {
+        return DynamicFilterOrcPredicateBuilder.builder()
+                .addColumn(columnId, ImmutableList.copyOf(filters))
+                .build()
+                .get();
+    }
+
+    private static DynamicFilter filter(String typeName, Long... values)
+    {
+        ColumnHandle column = new ColumnHandle()
+        {
+            @Override
+            public String getTypeName()
+            {
+                return typeName;
+            }
+        };
+        return new HashSetDynamicFilter("filterId", column, new HashSet<>(ImmutableSet.copyOf(values)), DynamicFilter.Type.LOCAL);
+    }
+
+    private static ColumnMetadata<ColumnStatistics> statistics(ColumnStatistics bigintStatistics, ColumnStatistics dateStatistics)
+    {
+        List<ColumnStatistics> statistics = Arrays.asList(rootStatistics(), bigintStatistics, dateStatistics);
+        return new ColumnMetadata<>(statistics);
+    }
+
+    private static ColumnStatistics rootStatistics()
+    {
+        return new ColumnStatistics(10L, 0L, null, null, null, null, null, null, null, null);
+    }
+
+    private static ColumnStatistics integerStatistics(Long minimum, Long maximum)
+    {
+        return new ColumnStatistics(10L, 9L, null, new IntegerStatistics(minimum, maximum, null), null, null, null, null, null, null);
+    }
+
+    private static ColumnStatistics dateStatistics(Integer minimum, Integer maximum)
+    {
+        return new ColumnStatistics(10L, 5L, null, null, null, null, new DateStatistics(minimum, maximum), null, null, null);
+    }
+}
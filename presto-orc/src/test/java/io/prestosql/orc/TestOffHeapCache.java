@@ -0,0 +1,325 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.orc;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.Slice;
+import io.airlift.slice.SliceOutput;
+import io.airlift.slice.Slices;
+import io.airlift.testing.TestingTicker;
+import io.airlift.units.DataSize;
+import io.prestosql.orc.OffHeapCache.Codec;
+import io.prestosql.orc.metadata.ColumnEncoding;
+import io.prestosql.orc.metadata.ColumnMetadata;
+import io.prestosql.orc.metadata.OrcColumnId;
+import io.prestosql.orc.metadata.Stream;
+import io.prestosql.orc.metadata.StripeFooter;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockBuilder;
+import org.testng.annotations.Test;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.base.Strings.repeat;
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static io.prestosql.metadata.MetadataManager.createTestMetadataManager;
+import static io.prestosql.orc.OffHeapCacheCodecs.blockCodec;
+import static io.prestosql.orc.OffHeapCacheCodecs.stripeFooterCodec;
+import static io.prestosql.orc.metadata.ColumnEncoding.ColumnEncodingKind.DICTIONARY_V2;
+import static io.prestosql.orc.metadata.ColumnEncoding.ColumnEncodingKind.DIRECT;
+import static io.prestosql.orc.metadata.Stream.StreamKind.DATA;
+import static io.prestosql.orc.metadata.Stream.StreamKind.LENGTH;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class TestOffHeapCache
+{
+    private static final Codec<String> STRING_CODEC = new Codec<String>()
+    {
+        @Override
+        public void write(SliceOutput output, String value)
+        {
+            output.writeBytes(value.getBytes(UTF_8));
+        }
+
+        @Override
+        public String read(ByteBuffer data)
+        {
+            return Slices.wrappedBuffer(data).toStringUtf8();
+        }
+    };
+
+    @Test
+    public void testGetAndPut()
+            throws Exception
+    {
+        OffHeapCache<String, String> cache = new OffHeapCache<>(STRING_CODEC, new DataSize(1, KILOBYTE), Duration.ofHours(1));
+        assertNull(cache.getIfPresent("a"));
+
+        cache.put("a", value('a'));
+        assertEquals(cache.getIfPresent("a"), value('a'));
+        assertEquals(cache.size(), 1);
+        assertEquals(cache.getRetainedSizeInBytes(), 100);
+
+        AtomicInteger loads = new AtomicInteger();
+        assertEquals(cache.get("b", () -> {
+            loads.incrementAndGet();
+            return value('b');
+        }), value('b'));
+        assertEquals(cache.get("b", () -> {
+            loads.incrementAndGet();
+            return value('x');
+        }), value('b'));
+        assertEquals(loads.get(), 1);
+
+        assertEquals(cache.stats().hitCount(), 2);
+        assertEquals(cache.stats().missCount(), 2);
+        assertEquals(cache.stats().loadSuccessCount(), 1);
+
+        cache.invalidate("a");
+        assertNull(cache.getIfPresent("a"));
+        assertEquals(cache.getRetainedSizeInBytes(), 100);
+
+        cache.invalidateAll();
+        assertEquals(cache.size(), 0);
+        assertEquals(cache.getRetainedSizeInBytes(), 0);
+    }
+
+    @Test
+    public void testOversizedValueNotCached()
+    {
+        OffHeapCache<String, String> cache = new OffHeapCache<>(STRING_CODEC, new DataSize(50, BYTE), Duration.ofHours(1));
+        cache.put("a", value('a'));
+        assertNull(cache.getIfPresent("a"));
+        assertEquals(cache.getRejectedCount(), 1);
+        assertEquals(cache.getRetainedSizeInBytes(), 0);
+    }
+
+    @Test
+    public void testScanDoesNotFlushHotEntries()
+    {
+        OffHeapCache<String, String> cache = new OffHeapCache<>(STRING_CODEC, new DataSize(1000, BYTE), Duration.ofHours(1));
+        for (int i = 0; i < 10; i++) {
+            cache.put("hot" + i, value('h'));
+        }
+        for (int access = 0; access < 3; access++) {
+            for (int i = 0; i < 10; i++) {
+                assertNotNull(cache.getIfPresent("hot" + i));
+            }
+        }
+
+        // every key of the scan is read once
+        for (int i = 0; i < 100; i++) {
+            String key = "scan" + i;
+            assertNull(cache.getIfPresent(key));
+            cache.put(key, value('s'));
+        }
+
+        for (int i = 0; i < 10; i++) {
+            assertNotNull(cache.getIfPresent("hot" + i));
+        }
+        assertEquals(cache.getRejectedCount(), 100);
+        assertEquals(cache.getRetainedSizeInBytes(), 1000);
+
+        // a key read more often than the cached entries replaces the least recently used one
+        for (int access = 0; access < 10; access++) {
+            assertNull(cache.getIfPresent("popular"));
+        }
+        cache.put("popular", value('p'));
+        assertEquals(cache.getIfPresent("popular"), value('p'));
+        assertNull(cache.getIfPresent("hot0"));
+        assertEquals(cache.size(), 10);
+    }
+
+    @Test
+    public void testRejectedReplacementKeepsEntry()
+    {
+        OffHeapCache<String, String> cache = new OffHeapCache<>(STRING_CODEC, new DataSize(1000, BYTE), Duration.ofHours(1));
+        for (int i = 0; i < 10; i++) {
+            cache.put("hot" + i, value('h'));
+            assertNotNull(cache.getIfPresent("hot" + i));
+        }
+
+        // the larger value would evict an entry that is read as often as the key
+        cache.put("hot0", repeat("x", 150));
+        assertEquals(cache.getRejectedCount(), 1);
+        assertEquals(cache.getIfPresent("hot0"), value('h'));
+        assertEquals(cache.size(), 10);
+        assertEquals(cache.getRetainedSizeInBytes(), 1000);
+
+        // a replacement that fits is stored
+        cache.put("hot0", repeat("y", 100));
+        assertEquals(cache.getIfPresent("hot0"), repeat("y", 100));
+        assertEquals(cache.getRetainedSizeInBytes(), 1000);
+    }
+
+    @Test
+    public void testSegments()
+            throws Exception
+    {
+        OffHeapCache<String, String> cache = new OffHeapCache<>(STRING_CODEC, new DataSize(4000, BYTE), Duration.ofHours(1), Ticker.systemTicker(), 4);
+        ExecutorService executor = newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        String key = "key" + ThreadLocalRandom.current().nextInt(100);
+                        if (cache.getIfPresent(key) == null) {
+                            cache.put(key, value('v'));
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+
+        // every segment is bounded by its share of the maximum weight
+        assertTrue(cache.getRetainedSizeInBytes() <= 4000);
+        assertEquals(cache.getRetainedSizeInBytes(), cache.size() * 100);
+
+        long retainedBytes = cache.getRetainedSizeInBytes();
+        assertEquals(cache.reclaim(retainedBytes), retainedBytes);
+        assertEquals(cache.size(), 0);
+        assertEquals(cache.getRetainedSizeInBytes(), 0);
+    }
+
+    @Test
+    public void testReclaim()
+    {
+        OffHeapCache<String, String> cache = new OffHeapCache<>(STRING_CODEC, new DataSize(1000, BYTE), Duration.ofHours(1));
+        for (int i = 0; i < 10; i++) {
+            cache.put("key" + i, value('k'));
+        }
+        assertNotNull(cache.getIfPresent("key0"));
+
+        assertEquals(cache.reclaim(250), 300);
+        assertEquals(cache.getRetainedSizeInBytes(), 700);
+        assertEquals(cache.size(), 7);
+        // least recently used entries are reclaimed first
+        assertNotNull(cache.getIfPresent("key0"));
+        assertNull(cache.getIfPresent("key1"));
+        assertNull(cache.getIfPresent("key3"));
+        assertNotNull(cache.getIfPresent("key4"));
+
+        assertEquals(cache.reclaim(10_000), 700);
+        assertEquals(cache.getRetainedSizeInBytes(), 0);
+    }
+
+    @Test
+    public void testExpireAfterAccess()
+    {
+        TestingTicker ticker = new TestingTicker();
+        OffHeapCache<String, String> cache = new OffHeapCache<>(STRING_CODEC, new DataSize(1, KILOBYTE), Duration.ofMinutes(10), ticker);
+        cache.put("a", value('a'));
+        cache.put("b", value('b'));
+
+        ticker.increment(6, TimeUnit.MINUTES);
+        assertNotNull(cache.getIfPresent("a"));
+
+        ticker.increment(6, TimeUnit.MINUTES);
+        assertNotNull(cache.getIfPresent("a"));
+        assertNull(cache.getIfPresent("b"));
+        assertEquals(cache.getRetainedSizeInBytes(), 100);
+
+        ticker.increment(10, TimeUnit.MINUTES);
+        cache.cleanUp();
+        assertEquals(cache.size(), 0);
+        assertEquals(cache.getRetainedSizeInBytes(), 0);
+    }
+
+    @Test
+    public void testStripeFooterCodec()
+            throws Exception
+    {
+        StripeFooter stripeFooter = new StripeFooter(
+                ImmutableList.of(new Stream(new OrcColumnId(1), DATA, 1234, true), new Stream(new OrcColumnId(2), LENGTH, 56, false)),
+                new ColumnMetadata<>(ImmutableList.of(new ColumnEncoding(DIRECT, 0), new ColumnEncoding(DIRECT, 0), new ColumnEncoding(DICTIONARY_V2, 789))),
+                ZoneId.of("Asia/Shanghai"));
+        Cache<String, StripeFooter> cache = new OffHeapCache<>(stripeFooterCodec(), new DataSize(1, KILOBYTE), Duration.ofHours(1));
+        cache.put("footer", stripeFooter);
+
+        StripeFooter cached = cache.getIfPresent("footer");
+        assertNotNull(cached);
+        assertEquals(cached.getTimeZone(), stripeFooter.getTimeZone());
+        assertEquals(cached.getStreams().size(), 2);
+        for (int i = 0; i < 2; i++) {
+            Stream expected = stripeFooter.getStreams().get(i);
+            Stream actual = cached.getStreams().get(i);
+            assertEquals(actual.getColumnId(), expected.getColumnId());
+            assertEquals(actual.getStreamKind(), expected.getStreamKind());
+            assertEquals(actual.getLength(), expected.getLength());
+            assertEquals(actual.isUseVInts(), expected.isUseVInts());
+        }
+        assertEquals(cached.getColumnEncodings().size(), 3);
+        ColumnEncoding encoding = cached.getColumnEncodings().get(new OrcColumnId(2));
+        assertEquals(encoding.getColumnEncodingKind(), DICTIONARY_V2);
+        assertEquals(encoding.getDictionarySize(), 789);
+    }
+
+    @Test
+    public void testBlockCodec()
+    {
+        BlockBuilder blockBuilder = VARCHAR.createBlockBuilder(null, 3);
+        VARCHAR.writeSlice(blockBuilder, utf8Slice("alice"));
+        blockBuilder.appendNull();
+        VARCHAR.writeSlice(blockBuilder, utf8Slice("bob"));
+        Block block = blockBuilder.build();
+
+        Cache<String, Block> cache = new OffHeapCache<>(blockCodec(createTestMetadataManager().getFunctionAndTypeManager().getBlockEncodingSerde()), new DataSize(1, KILOBYTE), Duration.ofHours(1));
+        cache.put("block", block);
+
+        Block cached = cache.getIfPresent("block");
+        assertNotNull(cached);
+        assertEquals(cached.getPositionCount(), 3);
+        assertEquals(VARCHAR.getSlice(cached, 0), utf8Slice("alice"));
+        assertTrue(cached.isNull(1));
+        assertFalse(cached.isNull(2));
+        assertEquals(VARCHAR.getSlice(cached, 2), utf8Slice("bob"));
+
+        // the values are a view of the entry that only retains the bytes of the values
+        Slice values = cached.getRawSlice(0);
+        assertFalse(values.hasByteArray());
+        assertEquals(values.getRetainedSize(), "alicebob".length());
+    }
+
+    private static String value(char c)
+    {
+        return repeat(String.valueOf(c), 100);
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.orc;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.airlift.slice.Slice;
+import io.airlift.units.DataSize;
+import io.prestosql.orc.stream.OrcDataReader;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.airlift.slice.Slices.wrappedBuffer;
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static io.prestosql.orc.VectoredReader.getRangeData;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class TestVectoredReader
+{
+    private static final int READ_THREADS = 4;
+    private static final byte[] DATA = createData(64 * 1024);
+
+    private final ExecutorService executor = newFixedThreadPool(READ_THREADS);
+    private final VectoredReader vectoredReader = new VectoredReader(executor);
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+    {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testCoalesceRanges()
+            throws Exception
+    {
+        Map<String, DiskRange> ranges = ImmutableMap.of(
+                "a", new DiskRange(100, 100),
+                "b", new DiskRange(210, 100),
+                "c", new DiskRange(1000, 100),
+                "d", new DiskRange(1100, 500));
+        AtomicInteger requestCount = new AtomicInteger();
+        VectoredReader.RangeReader reader = (position, buffer, bufferOffset, length) -> {
+            requestCount.incrementAndGet();
+            System.arraycopy(DATA, (int) position, buffer, bufferOffset, length);
+        };
+
+        // a and b are within the merge distance, c and d would exceed the merged size
+        Map<String, ListenableFuture<Slice>> data = vectoredReader.readRanges(ranges, new DataSize(10, BYTE), new DataSize(500, BYTE), reader);
+        assertRangeData(ranges, data);
+        assertEquals(requestCount.get(), 3);
+
+        requestCount.set(0);
+        data = vectoredReader.readRanges(ranges, new DataSize(1, MEGABYTE), new DataSize(1, MEGABYTE), reader);
+        assertRangeData(ranges, data);
+        assertEquals(requestCount.get(), 1);
+    }
+
+    @Test
+    public void testConcurrentReads()
+            throws Exception
+    {
+        ImmutableMap.Builder<Integer, DiskRange> builder = ImmutableMap.builder();
+        for (int i = 0; i < 16; i++) {
+            builder.put(i, new DiskRange(i * 4096L, 1024));
+        }
+        Map<Integer, DiskRange> ranges = builder.build();
+
+        TestingSlowOrcDataSource dataSource = new TestingSlowOrcDataSource(DATA, 20, new DataSize(0, BYTE), new DataSize(1, MEGABYTE), Optional.of(vectoredReader));
+        Map<Integer, OrcDataReader> readers = dataSource.readFully(ranges);
+        for (Map.Entry<Integer, DiskRange> entry : ranges.entrySet()) {
+            DiskRange range = entry.getValue();
+            assertEquals(readers.get(entry.getKey()).seekBuffer(0), wrappedBuffer(DATA, (int) range.getOffset(), range.getLength()));
+        }
+
+        assertEquals(dataSource.getRequestCount(), ranges.size());
+        assertEquals(dataSource.getReadBytes(), 16 * 1024);
+        // the reads overlap, but never exceed the threads of the executor
+        assertTrue(dataSource.getMaxReadsInFlight() > 1, "reads were not issued concurrently");
+        assertTrue(dataSource.getMaxReadsInFlight() <= READ_THREADS, "more reads in flight than read threads");
+    }
+
+    @Test
+    public void testCloseWaitsForReads()
+            throws Exception
+    {
+        ImmutableMap.Builder<Integer, DiskRange> builder = ImmutableMap.builder();
+        for (int i = 0; i < 16; i++) {
+            builder.put(i, new DiskRange(i * 4096L, 1024));
+        }
+        Map<Integer, DiskRange> ranges = builder.build();
+
+        TestingSlowOrcDataSource dataSource = new TestingSlowOrcDataSource(DATA, 200, new DataSize(0, BYTE), new DataSize(1, MEGABYTE), Optional.of(vectoredReader));
+        Map<Integer, OrcDataReader> readers = dataSource.readFully(ranges);
+        // the buffers are allocated as soon as the reads are issued
+        assertEquals(readers.get(0).getRetainedSize(), 1024);
+
+        dataSource.close();
+        assertEquals(dataSource.getReadsInFlight(), 0);
+        // the reads that were still queued are dropped
+        assertTrue(dataSource.getRequestCount() <= READ_THREADS, "queued reads were not cancelled");
+    }
+
+    @Test
+    public void testSequentialReadsWithoutVectoredReader()
+            throws Exception
+    {
+        Map<Integer, DiskRange> ranges = ImmutableMap.of(
+                0, new DiskRange(0, 1024),
+                1, new DiskRange(8192, 1024),
+                2, new DiskRange(16384, 1024));
+
+        TestingSlowOrcDataSource dataSource = new TestingSlowOrcDataSource(DATA, 1, new DataSize(0, BYTE), new DataSize(1, MEGABYTE), Optional.empty());
+        Map<Integer, OrcDataReader> readers = dataSource.readFully(ranges);
+        for (Map.Entry<Integer, DiskRange> entry : ranges.entrySet()) {
+            DiskRange range = entry.getValue();
+            assertEquals(readers.get(entry.getKey()).seekBuffer(0), wrappedBuffer(DATA, (int) range.getOffset(), range.getLength()));
+        }
+        assertEquals(dataSource.getRequestCount(), 3);
+        assertEquals(dataSource.getMaxReadsInFlight(), 1);
+    }
+
+    @Test
+    public void testReadFailure()
+    {
+        Map<String, ListenableFuture<Slice>> data = vectoredReader.readRanges(
+                ImmutableMap.of("a", new DiskRange(0, 10)),
+                new DataSize(0, BYTE),
+                new DataSize(1, MEGABYTE),
+                (position, buffer, bufferOffset, length) -> {
+                    throw new IOException("read failed");
+                });
+        try {
+            getRangeData(data.get("a"));
+            fail("expected IOException");
+        }
+        catch (IOException e) {
+            assertEquals(e.getMessage(), "read failed");
+        }
+    }
+
+    private static void assertRangeData(Map<String, DiskRange> ranges, Map<String, ListenableFuture<Slice>> data)
+            throws IOException
+    {
+        assertEquals(data.keySet(), ranges.keySet());
+        for (Map.Entry<String, DiskRange> entry : ranges.entrySet()) {
+            DiskRange range = entry.getValue();
+            assertEquals(getRangeData(data.get(entry.getKey())), wrappedBuffer(DATA, (int) range.getOffset(), range.getLength()));
+        }
+    }
+
+    private static byte[] createData(int length)
+    {
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = (byte) i;
+        }
+        return data;
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.orc;
+
+import io.airlift.units.DataSize;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An in-memory data source that stands in for a slow file system: every read request waits for
+ * a fixed latency before the data is returned.
+ */
+class TestingSlowOrcDataSource
+        extends AbstractOrcDataSource
+{
+    private final byte[] data;
+    private final long latencyMillis;
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final AtomicInteger readsInFlight = new AtomicInteger();
+    private final AtomicInteger maxReadsInFlight = new AtomicInteger();
+
+    public TestingSlowOrcDataSource(byte[] data, long latencyMillis, DataSize maxMergeDistance, DataSize maxBufferSize, Optional<VectoredReader> vectoredReader)
+    {
+        super(new OrcDataSourceId("slow"), data.length, maxMergeDistance, maxBufferSize, new DataSize(1, MEGABYTE), false, 0, vectoredReader);
+        this.data = requireNonNull(data, "data is null");
+        this.latencyMillis = latencyMillis;
+    }
+
+    public int getRequestCount()
+    {
+        return requestCount.get();
+    }
+
+    public int getReadsInFlight()
+    {
+        return readsInFlight.get();
+    }
+
+    public int getMaxReadsInFlight()
+    {
+        return maxReadsInFlight.get();
+    }
+
+    @Override
+    protected void readInternal(long position, byte[] buffer, int bufferOffset, int bufferLength)
+            throws IOException
+    {
+        requestCount.incrementAndGet();
+        int inFlight = readsInFlight.incrementAndGet();
+        maxReadsInFlight.accumulateAndGet(inFlight, Math::max);
+        try {
+            Thread.sleep(latencyMillis);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+        finally {
+            readsInFlight.decrementAndGet();
+        }
+        System.arraycopy(data, (int) position, buffer, bufferOffset, bufferLength);
+    }
+
+    @Override
+    public void close()
+            throws IOException
+    {
+        closeVectoredReads();
+    }
+}
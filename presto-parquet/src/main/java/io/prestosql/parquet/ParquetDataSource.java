@@ -13,11 +13,16 @@
  */
 package io.prestosql.parquet;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ListMultimap;
+import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.slice.Slice;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.util.Map;
+
+import static com.google.common.util.concurrent.Futures.immediateFuture;
 
 public interface ParquetDataSource
         extends Closeable
@@ -47,4 +52,26 @@ public interface ParquetDataSource
     Slice readFully(long position, int length);
 
     <K> ListMultimap<K, ChunkReader> planRead(ListMultimap<K, DiskRange> diskRanges);
+
+    /**
+     * Whether {@link #readFullyAsync} fetches the ranges concurrently in the background.
+     */
+    default boolean isAsyncReadSupported()
+    {
+        return false;
+    }
+
+    /**
+     * Starts reading the disk ranges and returns a future with the data of each range.
+     * Data sources that do not support asynchronous reads read the ranges before returning.
+     */
+    default <K> Map<K, ListenableFuture<Slice>> readFullyAsync(Map<K, DiskRange> diskRanges)
+    {
+        ImmutableMap.Builder<K, ListenableFuture<Slice>> slices = ImmutableMap.builder();
+        for (Map.Entry<K, DiskRange> entry : diskRanges.entrySet()) {
+            DiskRange diskRange = entry.getValue();
+            slices.put(entry.getKey(), immediateFuture(readFully(diskRange.getOffset(), diskRange.getLength())));
+        }
+        return slices.build();
+    }
 }
@@ -17,20 +17,26 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
+import io.airlift.slice.BasicSliceInput;
 import io.airlift.slice.Slice;
 import io.prestosql.parquet.DictionaryPage;
 import io.prestosql.parquet.ParquetCorruptionException;
 import io.prestosql.parquet.ParquetDataSource;
 import io.prestosql.parquet.ParquetEncoding;
 import io.prestosql.parquet.RichColumnDescriptor;
+import io.prestosql.spi.predicate.Domain;
 import io.prestosql.spi.predicate.TupleDomain;
 import io.prestosql.spi.type.DecimalType;
 import io.prestosql.spi.type.Type;
+import io.prestosql.spi.type.VarcharType;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.parquet.column.ColumnDescriptor;
 import org.apache.parquet.column.Encoding;
 import org.apache.parquet.column.EncodingStats;
 import org.apache.parquet.column.statistics.Statistics;
+import org.apache.parquet.column.values.bloomfilter.BlockSplitBloomFilter;
+import org.apache.parquet.column.values.bloomfilter.BloomFilter;
+import org.apache.parquet.format.BloomFilterHeader;
 import org.apache.parquet.format.DictionaryPageHeader;
 import org.apache.parquet.format.PageHeader;
 import org.apache.parquet.format.PageType;
@@ -39,7 +45,13 @@ import org.apache.parquet.hadoop.metadata.BlockMetaData;
 import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
 import org.apache.parquet.hadoop.metadata.CompressionCodecName;
 import org.apache.parquet.internal.filter2.columnindex.ColumnIndexStore;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.DateLogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.IntLogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.StringLogicalTypeAnnotation;
 import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType;
 import org.joda.time.DateTimeZone;
 
 import java.io.ByteArrayInputStream;
@@ -49,6 +61,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.Set;
 
 import static com.google.common.base.Verify.verify;
@@ -57,9 +70,13 @@ import static io.prestosql.parquet.ParquetCompressionUtils.decompress;
 import static io.prestosql.parquet.ParquetTypeUtils.getParquetEncoding;
 import static io.prestosql.spi.type.BigintType.BIGINT;
 import static io.prestosql.spi.type.DateType.DATE;
+import static io.prestosql.spi.type.DoubleType.DOUBLE;
 import static io.prestosql.spi.type.IntegerType.INTEGER;
+import static io.prestosql.spi.type.RealType.REAL;
 import static io.prestosql.spi.type.SmallintType.SMALLINT;
 import static io.prestosql.spi.type.TinyintType.TINYINT;
+import static io.prestosql.spi.type.VarbinaryType.VARBINARY;
+import static java.lang.Float.intBitsToFloat;
 import static java.lang.Math.toIntExact;
 import static java.lang.String.format;
 import static org.apache.parquet.column.Encoding.BIT_PACKED;
@@ -68,6 +85,8 @@ import static org.apache.parquet.column.Encoding.RLE;
 
 public final class PredicateUtils
 {
+    private static final int BLOOM_FILTER_HEADER_MAX_SIZE = 64;
+
     private PredicateUtils()
     {
     }
@@ -197,6 +216,129 @@ public final class PredicateUtils
         }
     }
 
+    /**
+     * Returns false if the bloom filters of the row group show that none of the values of an
+     * equality or IN predicate are present. Columns without a bloom filter are not checked.
+     */
+    public static boolean bloomFilterPredicatesMatch(BlockMetaData blockMetadata, ParquetDataSource dataSource, Map<List<String>, RichColumnDescriptor> descriptorsByPath, TupleDomain<ColumnDescriptor> parquetTupleDomain)
+    {
+        if (!parquetTupleDomain.getDomains().isPresent()) {
+            return false;
+        }
+        Map<ColumnDescriptor, Domain> domains = parquetTupleDomain.getDomains().get();
+        for (ColumnChunkMetaData columnMetaData : blockMetadata.getColumns()) {
+            if (columnMetaData.getBloomFilterOffset() < 0) {
+                continue;
+            }
+            RichColumnDescriptor descriptor = descriptorsByPath.get(Arrays.asList(columnMetaData.getPath().toArray()));
+            Domain domain = descriptor == null ? null : domains.get(descriptor);
+            // nulls are not added to bloom filters
+            if (domain == null || domain.isNullAllowed() || !domain.getValues().isDiscreteSet()) {
+                continue;
+            }
+            Optional<BloomFilter> bloomFilter = readBloomFilter(dataSource, columnMetaData.getBloomFilterOffset());
+            if (bloomFilter.isPresent() && !bloomFilterMightContain(bloomFilter.get(), descriptor.getPrimitiveType(), domain.getType(), domain.getValues().getDiscreteSet())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Optional<BloomFilter> readBloomFilter(ParquetDataSource dataSource, long offset)
+    {
+        // the length of the header is not stored in the file, but it is always shorter than this
+        int headerLength = toIntExact(Math.min(BLOOM_FILTER_HEADER_MAX_SIZE, dataSource.getSize() - offset));
+        BasicSliceInput input = dataSource.readFully(offset, headerLength).getInput();
+        BloomFilterHeader header;
+        try {
+            header = Util.readBloomFilterHeader(input);
+        }
+        catch (IOException ignored) {
+            return Optional.empty();
+        }
+        if (!header.getAlgorithm().isSetBLOCK() || !header.getHash().isSetXXHASH() || !header.getCompression().isSetUNCOMPRESSED()) {
+            return Optional.empty();
+        }
+        long bitsetOffset = offset + input.position();
+        int bitsetLength = header.getNumBytes();
+        if (bitsetLength <= 0 || bitsetOffset + bitsetLength > dataSource.getSize()) {
+            return Optional.empty();
+        }
+        byte[] bitset = new byte[bitsetLength];
+        dataSource.readFully(bitsetOffset, bitset);
+        return Optional.of(new BlockSplitBloomFilter(bitset));
+    }
+
+    @VisibleForTesting
+    static boolean bloomFilterMightContain(BloomFilter bloomFilter, PrimitiveType primitiveType, Type type, List<Object> values)
+    {
+        for (Object value : values) {
+            OptionalLong hash = getBloomFilterHash(bloomFilter, primitiveType, type, value);
+            if (!hash.isPresent() || bloomFilter.findHash(hash.getAsLong())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the hash of the value as written by the Parquet writer, or empty if the value of this
+     * type cannot be hashed the same way as the values of the column.
+     */
+    private static OptionalLong getBloomFilterHash(BloomFilter bloomFilter, PrimitiveType primitiveType, Type type, Object value)
+    {
+        LogicalTypeAnnotation annotation = primitiveType.getLogicalTypeAnnotation();
+        boolean signedInteger = annotation == null ||
+                (annotation instanceof IntLogicalTypeAnnotation && ((IntLogicalTypeAnnotation) annotation).isSigned());
+        switch (primitiveType.getPrimitiveTypeName()) {
+            case INT32:
+                if ((signedInteger && isIntegerType(type)) || (annotation instanceof DateLogicalTypeAnnotation && type.equals(DATE))) {
+                    long longValue = (long) value;
+                    if (longValue == (int) longValue) {
+                        return OptionalLong.of(bloomFilter.hash((int) longValue));
+                    }
+                }
+                return OptionalLong.empty();
+            case INT64:
+                if (signedInteger && isIntegerType(type)) {
+                    return OptionalLong.of(bloomFilter.hash((long) value));
+                }
+                return OptionalLong.empty();
+            case DOUBLE:
+                // -0.0 equals 0.0 and NaN is written with different bit patterns, but they do not hash the same
+                if (annotation == null && type.equals(DOUBLE) && (double) value != 0 && !Double.isNaN((double) value)) {
+                    return OptionalLong.of(bloomFilter.hash((double) value));
+                }
+                return OptionalLong.empty();
+            case FLOAT:
+                if (annotation == null && type.equals(REAL)) {
+                    float floatValue = intBitsToFloat(toIntExact((long) value));
+                    if (floatValue != 0 && !Float.isNaN(floatValue)) {
+                        return OptionalLong.of(bloomFilter.hash(floatValue));
+                    }
+                }
+                return OptionalLong.empty();
+            case BINARY:
+                // bounded varchar values are truncated when they are read, so a longer stored value can match without hashing the same
+                if ((annotation == null || annotation instanceof StringLogicalTypeAnnotation) && (isUnboundedVarchar(type) || type.equals(VARBINARY))) {
+                    return OptionalLong.of(bloomFilter.hash(Binary.fromConstantByteArray(((Slice) value).getBytes())));
+                }
+                return OptionalLong.empty();
+            default:
+                return OptionalLong.empty();
+        }
+    }
+
+    private static boolean isUnboundedVarchar(Type type)
+    {
+        return type instanceof VarcharType && ((VarcharType) type).isUnbounded();
+    }
+
+    private static boolean isIntegerType(Type type)
+    {
+        return type.equals(BIGINT) || type.equals(INTEGER) || type.equals(SMALLINT) || type.equals(TINYINT);
+    }
+
     private static boolean isColumnPredicate(ColumnDescriptor columnDescriptor, TupleDomain<ColumnDescriptor> parquetTupleDomain)
     {
         verify(parquetTupleDomain.getDomains().isPresent(), "parquetTupleDomain is empty");
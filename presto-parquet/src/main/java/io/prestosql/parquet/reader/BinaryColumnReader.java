@@ -14,7 +14,9 @@
 package io.prestosql.parquet.reader;
 
 import io.airlift.slice.Slice;
+import io.prestosql.orc.TupleDomainFilter;
 import io.prestosql.parquet.RichColumnDescriptor;
+import io.prestosql.parquet.dictionary.Dictionary;
 import io.prestosql.spi.block.BlockBuilder;
 import io.prestosql.spi.type.Type;
 import org.apache.parquet.io.api.Binary;
@@ -27,7 +29,7 @@ import static io.prestosql.spi.type.Varchars.isVarcharType;
 import static io.prestosql.spi.type.Varchars.truncateToLength;
 
 public class BinaryColumnReader
-        extends PrimitiveColumnReader
+        extends FilteringPrimitiveColumnReader
 {
     public BinaryColumnReader(RichColumnDescriptor descriptor)
     {
@@ -66,4 +68,41 @@ public class BinaryColumnReader
             valuesReader.readBytes();
         }
     }
+
+    @Override
+    protected boolean readAndTestValue(TupleDomainFilter filter, BlockBuilder blockBuilder, Type type)
+    {
+        return testAndWrite(filter, blockBuilder, type, valuesReader.readBytes());
+    }
+
+    @Override
+    protected boolean testDictionaryValue(TupleDomainFilter filter, Dictionary dictionary, int id)
+    {
+        return testAndWrite(filter, null, null, dictionary.decodeToBinary(id));
+    }
+
+    @Override
+    protected void writeDictionaryValue(BlockBuilder blockBuilder, Type type, Dictionary dictionary, int id)
+    {
+        type.writeSlice(blockBuilder, toSlice(dictionary.decodeToBinary(id)));
+    }
+
+    private static boolean testAndWrite(TupleDomainFilter filter, BlockBuilder blockBuilder, Type type, Binary binary)
+    {
+        if (!filter.testBytes(binary.getBytesUnsafe(), 0, binary.length())) {
+            return false;
+        }
+        if (blockBuilder != null) {
+            type.writeSlice(blockBuilder, toSlice(binary));
+        }
+        return true;
+    }
+
+    private static Slice toSlice(Binary binary)
+    {
+        if (binary.length() == 0) {
+            return EMPTY_SLICE;
+        }
+        return wrappedBuffer(binary.getBytes());
+    }
 }
@@ -13,12 +13,15 @@
  */
 package io.prestosql.parquet.reader;
 
+import io.prestosql.orc.TupleDomainFilter;
 import io.prestosql.parquet.RichColumnDescriptor;
+import io.prestosql.parquet.dictionary.Dictionary;
 import io.prestosql.spi.block.BlockBuilder;
 import io.prestosql.spi.type.Type;
+import org.apache.parquet.io.ParquetDecodingException;
 
 public class BooleanColumnReader
-        extends PrimitiveColumnReader
+        extends FilteringPrimitiveColumnReader
 {
     public BooleanColumnReader(RichColumnDescriptor descriptor)
     {
@@ -43,4 +46,29 @@ public class BooleanColumnReader
             valuesReader.readBoolean();
         }
     }
+
+    @Override
+    protected boolean readAndTestValue(TupleDomainFilter filter, BlockBuilder blockBuilder, Type type)
+    {
+        boolean value = valuesReader.readBoolean();
+        if (!filter.testBoolean(value)) {
+            return false;
+        }
+        if (blockBuilder != null) {
+            type.writeBoolean(blockBuilder, value);
+        }
+        return true;
+    }
+
+    @Override
+    protected boolean testDictionaryValue(TupleDomainFilter filter, Dictionary dictionary, int id)
+    {
+        throw new ParquetDecodingException("Dictionary encoding is not supported for boolean column " + columnDescriptor);
+    }
+
+    @Override
+    protected void writeDictionaryValue(BlockBuilder blockBuilder, Type type, Dictionary dictionary, int id)
+    {
+        throw new ParquetDecodingException("Dictionary encoding is not supported for boolean column " + columnDescriptor);
+    }
 }
@@ -13,12 +13,14 @@
  */
 package io.prestosql.parquet.reader;
 
+import io.prestosql.orc.TupleDomainFilter;
 import io.prestosql.parquet.RichColumnDescriptor;
+import io.prestosql.parquet.dictionary.Dictionary;
 import io.prestosql.spi.block.BlockBuilder;
 import io.prestosql.spi.type.Type;
 
 public class DoubleColumnReader
-        extends PrimitiveColumnReader
+        extends FilteringPrimitiveColumnReader
 {
     public DoubleColumnReader(RichColumnDescriptor descriptor)
     {
@@ -43,4 +45,29 @@ public class DoubleColumnReader
             valuesReader.readDouble();
         }
     }
+
+    @Override
+    protected boolean readAndTestValue(TupleDomainFilter filter, BlockBuilder blockBuilder, Type type)
+    {
+        double value = valuesReader.readDouble();
+        if (!filter.testDouble(value)) {
+            return false;
+        }
+        if (blockBuilder != null) {
+            type.writeDouble(blockBuilder, value);
+        }
+        return true;
+    }
+
+    @Override
+    protected boolean testDictionaryValue(TupleDomainFilter filter, Dictionary dictionary, int id)
+    {
+        return filter.testDouble(dictionary.decodeToDouble(id));
+    }
+
+    @Override
+    protected void writeDictionaryValue(BlockBuilder blockBuilder, Type type, Dictionary dictionary, int id)
+    {
+        type.writeDouble(blockBuilder, dictionary.decodeToDouble(id));
+    }
 }
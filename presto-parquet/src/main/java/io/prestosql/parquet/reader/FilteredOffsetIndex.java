@@ -56,6 +56,14 @@ class FilteredOffsetIndex
         return indexMap.length;
     }
 
+    /**
+     * Returns the number of pages of the column chunk that are filtered out.
+     */
+    public int getSkippedPageCount()
+    {
+        return offsetIndex.getPageCount() - indexMap.length;
+    }
+
     @Override
     public long getOffset(int pageIndex)
     {
@@ -0,0 +1,86 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.parquet.reader;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongList;
+import org.apache.parquet.internal.filter2.columnindex.RowRanges;
+
+import java.util.PrimitiveIterator;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * The rows of a row group that have to be read, as sorted, disjoint ranges of row indexes.
+ */
+final class FilteredRowRanges
+{
+    // inclusive bounds of the ranges
+    private final long[] from;
+    private final long[] to;
+    private final long rowCount;
+
+    FilteredRowRanges(long[] from, long[] to)
+    {
+        checkArgument(from.length == to.length, "from and to must have the same length");
+        this.from = from;
+        this.to = to;
+        long count = 0;
+        for (int i = 0; i < from.length; i++) {
+            checkArgument(from[i] <= to[i], "invalid range [%s, %s]", from[i], to[i]);
+            checkArgument(i == 0 || to[i - 1] < from[i], "ranges must be sorted and disjoint");
+            count += to[i] - from[i] + 1;
+        }
+        this.rowCount = count;
+    }
+
+    public static FilteredRowRanges fromRowRanges(RowRanges rowRanges)
+    {
+        LongList from = new LongArrayList();
+        LongList to = new LongArrayList();
+        PrimitiveIterator.OfLong rows = rowRanges.iterator();
+        while (rows.hasNext()) {
+            long row = rows.nextLong();
+            int last = to.size() - 1;
+            if (last >= 0 && to.getLong(last) + 1 == row) {
+                to.set(last, row);
+            }
+            else {
+                from.add(row);
+                to.add(row);
+            }
+        }
+        return new FilteredRowRanges(from.toLongArray(), to.toLongArray());
+    }
+
+    public int getRangeCount()
+    {
+        return from.length;
+    }
+
+    public long getFrom(int range)
+    {
+        return from[range];
+    }
+
+    public long getTo(int range)
+    {
+        return to[range];
+    }
+
+    public long getRowCount()
+    {
+        return rowCount;
+    }
+}
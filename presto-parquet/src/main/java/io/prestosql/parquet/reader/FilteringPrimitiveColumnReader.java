@@ -0,0 +1,195 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.parquet.reader;
+
+import io.prestosql.orc.TupleDomainFilter;
+import io.prestosql.parquet.Field;
+import io.prestosql.parquet.RichColumnDescriptor;
+import io.prestosql.parquet.dictionary.Dictionary;
+import io.prestosql.spi.block.BlockBuilder;
+import io.prestosql.spi.type.Type;
+import io.prestosql.spi.type.VarcharType;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+import static io.prestosql.parquet.ParquetTypeUtils.createDecimalType;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.BooleanType.BOOLEAN;
+import static io.prestosql.spi.type.DateType.DATE;
+import static io.prestosql.spi.type.DoubleType.DOUBLE;
+import static io.prestosql.spi.type.IntegerType.INTEGER;
+import static io.prestosql.spi.type.RealType.REAL;
+import static io.prestosql.spi.type.SmallintType.SMALLINT;
+import static io.prestosql.spi.type.TinyintType.TINYINT;
+import static io.prestosql.spi.type.VarbinaryType.VARBINARY;
+import static java.lang.Math.max;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Column reader that can test the values of a batch against a {@link TupleDomainFilter} while
+ * they are decoded, without materializing the values that do not match.
+ */
+public abstract class FilteringPrimitiveColumnReader
+        extends PrimitiveColumnReader
+{
+    private static final byte DICTIONARY_ENTRY_UNKNOWN = 0;
+    private static final byte DICTIONARY_ENTRY_MATCHES = 1;
+    private static final byte DICTIONARY_ENTRY_REJECTED = 2;
+
+    // filter results per dictionary entry, valid for dictionaryFilter and filteredDictionary
+    private TupleDomainFilter dictionaryFilter;
+    private Dictionary filteredDictionary;
+    private byte[] dictionaryFilterResults = new byte[0];
+
+    public FilteringPrimitiveColumnReader(RichColumnDescriptor descriptor)
+    {
+        super(descriptor);
+    }
+
+    /**
+     * Whether {@link PrimitiveColumnReader#createReader} returns a filtering reader for the column
+     * and its values can be tested while decoding when the column is read as the given type.
+     */
+    public static boolean isFilterSupported(RichColumnDescriptor descriptor, Type type)
+    {
+        if (createDecimalType(descriptor).isPresent()) {
+            return false;
+        }
+        switch (descriptor.getType()) {
+            case BOOLEAN:
+                return type == BOOLEAN;
+            case INT32:
+                return type == BIGINT || type == INTEGER || type == SMALLINT || type == TINYINT || type == DATE;
+            case INT64:
+                LogicalTypeAnnotation annotation = descriptor.getPrimitiveType().getLogicalTypeAnnotation();
+                if (annotation instanceof LogicalTypeAnnotation.TimeLogicalTypeAnnotation || annotation instanceof LogicalTypeAnnotation.TimestampLogicalTypeAnnotation) {
+                    return false;
+                }
+                return type == BIGINT || type == INTEGER || type == SMALLINT || type == TINYINT;
+            case FLOAT:
+                return type == REAL;
+            case DOUBLE:
+                return type == DOUBLE;
+            case BINARY:
+                // bounded varchar and char values are truncated or trimmed before they are returned, so they are not tested on the raw bytes
+                return type == VARBINARY || (type instanceof VarcharType && ((VarcharType) type).isUnbounded());
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Reads the next non-null value, tests it against the filter and, if it matches and
+     * blockBuilder is not null, appends it to blockBuilder.
+     */
+    protected abstract boolean readAndTestValue(TupleDomainFilter filter, BlockBuilder blockBuilder, Type type);
+
+    protected abstract boolean testDictionaryValue(TupleDomainFilter filter, Dictionary dictionary, int id);
+
+    protected abstract void writeDictionaryValue(BlockBuilder blockBuilder, Type type, Dictionary dictionary, int id);
+
+    /**
+     * Tests the values of the next batch at the given positions against the filter and skips all
+     * other values. The positions that pass are moved to the front of the positions array and,
+     * if blockBuilder is not null, their values are appended to blockBuilder. Dictionary encoded
+     * pages are tested once per dictionary entry.
+     *
+     * @return the number of positions that passed the filter
+     */
+    public int filterPrimitive(Field field, TupleDomainFilter filter, int[] positions, int positionCount, BlockBuilder blockBuilder)
+    {
+        PositionFilter positionFilter = new PositionFilter(filter, field.getType(), positions, blockBuilder);
+        readSelectedValues(positions, positionCount, positionFilter);
+        return positionFilter.getOutputPositionCount();
+    }
+
+    private boolean filterValue(TupleDomainFilter filter, BlockBuilder blockBuilder, Type type)
+    {
+        if (definitionLevel != columnDescriptor.getMaxDefinitionLevel()) {
+            if (!filter.testNull()) {
+                return false;
+            }
+            if (blockBuilder != null) {
+                blockBuilder.appendNull();
+            }
+            return true;
+        }
+        if (!isDictionaryEncodedPage()) {
+            return readAndTestValue(filter, blockBuilder, type);
+        }
+
+        int id = valuesReader.readValueDictionaryId();
+        if (!testDictionaryEntry(filter, id)) {
+            return false;
+        }
+        if (blockBuilder != null) {
+            writeDictionaryValue(blockBuilder, type, getDictionary(), id);
+        }
+        return true;
+    }
+
+    private boolean testDictionaryEntry(TupleDomainFilter filter, int id)
+    {
+        Dictionary dictionary = getDictionary();
+        if (dictionaryFilter != filter || filteredDictionary != dictionary) {
+            dictionaryFilter = filter;
+            filteredDictionary = dictionary;
+            Arrays.fill(dictionaryFilterResults, DICTIONARY_ENTRY_UNKNOWN);
+        }
+        if (id >= dictionaryFilterResults.length) {
+            dictionaryFilterResults = Arrays.copyOf(dictionaryFilterResults, max(id + 1, dictionaryFilterResults.length * 2));
+        }
+        byte result = dictionaryFilterResults[id];
+        if (result == DICTIONARY_ENTRY_UNKNOWN) {
+            result = testDictionaryValue(filter, dictionary, id) ? DICTIONARY_ENTRY_MATCHES : DICTIONARY_ENTRY_REJECTED;
+            dictionaryFilterResults[id] = result;
+        }
+        return result == DICTIONARY_ENTRY_MATCHES;
+    }
+
+    private final class PositionFilter
+            implements IntConsumer
+    {
+        private final TupleDomainFilter filter;
+        private final Type type;
+        private final int[] positions;
+        private final BlockBuilder blockBuilder;
+
+        private int outputPositionCount;
+
+        private PositionFilter(TupleDomainFilter filter, Type type, int[] positions, BlockBuilder blockBuilder)
+        {
+            this.filter = requireNonNull(filter, "filter is null");
+            this.type = requireNonNull(type, "type is null");
+            this.positions = requireNonNull(positions, "positions is null");
+            this.blockBuilder = blockBuilder;
+        }
+
+        @Override
+        public void accept(int position)
+        {
+            if (filterValue(filter, blockBuilder, type)) {
+                // never overwrites a position that is still to be visited
+                positions[outputPositionCount++] = position;
+            }
+        }
+
+        public int getOutputPositionCount()
+        {
+            return outputPositionCount;
+        }
+    }
+}
@@ -13,14 +13,16 @@
  */
 package io.prestosql.parquet.reader;
 
+import io.prestosql.orc.TupleDomainFilter;
 import io.prestosql.parquet.RichColumnDescriptor;
+import io.prestosql.parquet.dictionary.Dictionary;
 import io.prestosql.spi.block.BlockBuilder;
 import io.prestosql.spi.type.Type;
 
 import static java.lang.Float.floatToRawIntBits;
 
 public class FloatColumnReader
-        extends PrimitiveColumnReader
+        extends FilteringPrimitiveColumnReader
 {
     public FloatColumnReader(RichColumnDescriptor descriptor)
     {
@@ -45,4 +47,29 @@ public class FloatColumnReader
             valuesReader.readFloat();
         }
     }
+
+    @Override
+    protected boolean readAndTestValue(TupleDomainFilter filter, BlockBuilder blockBuilder, Type type)
+    {
+        float value = valuesReader.readFloat();
+        if (!filter.testFloat(value)) {
+            return false;
+        }
+        if (blockBuilder != null) {
+            type.writeLong(blockBuilder, floatToRawIntBits(value));
+        }
+        return true;
+    }
+
+    @Override
+    protected boolean testDictionaryValue(TupleDomainFilter filter, Dictionary dictionary, int id)
+    {
+        return filter.testFloat(dictionary.decodeToFloat(id));
+    }
+
+    @Override
+    protected void writeDictionaryValue(BlockBuilder blockBuilder, Type type, Dictionary dictionary, int id)
+    {
+        type.writeLong(blockBuilder, floatToRawIntBits(dictionary.decodeToFloat(id)));
+    }
 }
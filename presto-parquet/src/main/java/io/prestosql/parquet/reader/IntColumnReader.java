@@ -13,12 +13,14 @@
  */
 package io.prestosql.parquet.reader;
 
+import io.prestosql.orc.TupleDomainFilter;
 import io.prestosql.parquet.RichColumnDescriptor;
+import io.prestosql.parquet.dictionary.Dictionary;
 import io.prestosql.spi.block.BlockBuilder;
 import io.prestosql.spi.type.Type;
 
 public class IntColumnReader
-        extends PrimitiveColumnReader
+        extends FilteringPrimitiveColumnReader
 {
     public IntColumnReader(RichColumnDescriptor descriptor)
     {
@@ -43,4 +45,29 @@ public class IntColumnReader
             valuesReader.readInteger();
         }
     }
+
+    @Override
+    protected boolean readAndTestValue(TupleDomainFilter filter, BlockBuilder blockBuilder, Type type)
+    {
+        int value = valuesReader.readInteger();
+        if (!filter.testLong(value)) {
+            return false;
+        }
+        if (blockBuilder != null) {
+            type.writeLong(blockBuilder, value);
+        }
+        return true;
+    }
+
+    @Override
+    protected boolean testDictionaryValue(TupleDomainFilter filter, Dictionary dictionary, int id)
+    {
+        return filter.testLong(dictionary.decodeToInt(id));
+    }
+
+    @Override
+    protected void writeDictionaryValue(BlockBuilder blockBuilder, Type type, Dictionary dictionary, int id)
+    {
+        type.writeLong(blockBuilder, dictionary.decodeToInt(id));
+    }
 }
@@ -13,12 +13,14 @@
  */
 package io.prestosql.parquet.reader;
 
+import io.prestosql.orc.TupleDomainFilter;
 import io.prestosql.parquet.RichColumnDescriptor;
+import io.prestosql.parquet.dictionary.Dictionary;
 import io.prestosql.spi.block.BlockBuilder;
 import io.prestosql.spi.type.Type;
 
 public class LongColumnReader
-        extends PrimitiveColumnReader
+        extends FilteringPrimitiveColumnReader
 {
     public LongColumnReader(RichColumnDescriptor descriptor)
     {
@@ -43,4 +45,29 @@ public class LongColumnReader
             valuesReader.readLong();
         }
     }
+
+    @Override
+    protected boolean readAndTestValue(TupleDomainFilter filter, BlockBuilder blockBuilder, Type type)
+    {
+        long value = valuesReader.readLong();
+        if (!filter.testLong(value)) {
+            return false;
+        }
+        if (blockBuilder != null) {
+            type.writeLong(blockBuilder, value);
+        }
+        return true;
+    }
+
+    @Override
+    protected boolean testDictionaryValue(TupleDomainFilter filter, Dictionary dictionary, int id)
+    {
+        return filter.testLong(dictionary.decodeToLong(id));
+    }
+
+    @Override
+    protected void writeDictionaryValue(BlockBuilder blockBuilder, Type type, Dictionary dictionary, int id)
+    {
+        type.writeLong(blockBuilder, dictionary.decodeToLong(id));
+    }
 }
@@ -154,6 +154,9 @@ public final class MetadataReader
                             metaData.total_uncompressed_size);
                     column.setColumnIndexReference(toColumnIndexReference(columnChunk));
                     column.setOffsetIndexReference(toOffsetIndexReference(columnChunk));
+                    if (metaData.isSetBloom_filter_offset()) {
+                        column.setBloomFilterOffset(metaData.getBloom_filter_offset());
+                    }
                     blockMetaData.addColumn(column);
                 }
                 blockMetaData.setPath(filePath);
@@ -262,6 +265,11 @@ public final class MetadataReader
                             metaData.num_values,
                             metaData.total_compressed_size,
                             metaData.total_uncompressed_size);
+                    column.setColumnIndexReference(toColumnIndexReference(columnChunk));
+                    column.setOffsetIndexReference(toOffsetIndexReference(columnChunk));
+                    if (metaData.isSetBloom_filter_offset()) {
+                        column.setBloomFilterOffset(metaData.getBloom_filter_offset());
+                    }
                     blockMetaData.addColumn(column);
                 }
                 blockMetaData.setPath(filePath);
@@ -23,6 +23,7 @@ import java.io.IOException;
 import java.util.LinkedList;
 import java.util.List;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static io.prestosql.parquet.ParquetCompressionUtils.decompress;
 import static java.lang.Math.toIntExact;
 
@@ -32,11 +33,24 @@ class PageReader
     private final long valueCount;
     private final List<DataPage> compressedPages;
     private final DictionaryPage compressedDictionaryPage;
+    // first row index of each page, null when the pages are all pages of the column chunk
+    private final long[] firstRowIndexes;
+    private int readPageCount;
 
     public PageReader(CompressionCodecName codec,
             List<DataPage> compressedPages,
             DictionaryPage compressedDictionaryPage)
     {
+        this(codec, compressedPages, compressedDictionaryPage, null);
+    }
+
+    public PageReader(CompressionCodecName codec,
+            List<DataPage> compressedPages,
+            DictionaryPage compressedDictionaryPage,
+            long[] firstRowIndexes)
+    {
+        checkArgument(firstRowIndexes == null || firstRowIndexes.length == compressedPages.size(), "firstRowIndexes must have one entry per page");
+        this.firstRowIndexes = firstRowIndexes;
         this.codec = codec;
         this.compressedPages = new LinkedList<>(compressedPages);
         this.compressedDictionaryPage = compressedDictionaryPage;
@@ -52,12 +66,25 @@ class PageReader
         return valueCount;
     }
 
+    /**
+     * Returns the index within the row group of the first row of the page last returned by
+     * {@link #readPage}, or -1 if the pages are all pages of the column chunk and follow each other.
+     */
+    public long getFirstRowIndex()
+    {
+        if (firstRowIndexes == null || readPageCount == 0) {
+            return -1;
+        }
+        return firstRowIndexes[readPageCount - 1];
+    }
+
     public DataPage readPage()
     {
         if (compressedPages.isEmpty()) {
             return null;
         }
         DataPage compressedPage = compressedPages.remove(0);
+        readPageCount++;
         try {
             if (compressedPage instanceof DataPageV1) {
                 DataPageV1 dataPageV1 = (DataPageV1) compressedPage;
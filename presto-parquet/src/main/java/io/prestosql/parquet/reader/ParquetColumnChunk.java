@@ -25,6 +25,7 @@ import org.apache.parquet.format.DataPageHeaderV2;
 import org.apache.parquet.format.DictionaryPageHeader;
 import org.apache.parquet.format.PageHeader;
 import org.apache.parquet.format.Util;
+import org.apache.parquet.internal.column.columnindex.OffsetIndex;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
@@ -96,6 +97,44 @@ public class ParquetColumnChunk
         return new PageReader(descriptor.getColumnChunkMetaData().getCodec(), pages, dictionaryPage);
     }
 
+    /**
+     * Reads the data pages listed in the offset index, which must be the only data pages in the
+     * buffer. The dictionary page, if the buffer starts with one, is read as well.
+     */
+    public PageReader readPages(OffsetIndex offsetIndex)
+            throws IOException
+    {
+        List<DataPage> pages = new ArrayList<>();
+        DictionaryPage dictionaryPage = null;
+        int pageCount = offsetIndex.getPageCount();
+        long[] firstRowIndexes = new long[pageCount];
+        while (pages.size() < pageCount) {
+            PageHeader pageHeader = readPageHeader();
+            int uncompressedPageSize = pageHeader.getUncompressed_page_size();
+            int compressedPageSize = pageHeader.getCompressed_page_size();
+            switch (pageHeader.type) {
+                case DICTIONARY_PAGE:
+                    if (dictionaryPage != null || !pages.isEmpty()) {
+                        throw new ParquetCorruptionException("%s has an unexpected dictionary page in column chunk", descriptor.getColumnDescriptor());
+                    }
+                    dictionaryPage = readDictionaryPage(pageHeader, uncompressedPageSize, compressedPageSize);
+                    break;
+                case DATA_PAGE:
+                    firstRowIndexes[pages.size()] = offsetIndex.getFirstRowIndex(pages.size());
+                    readDataPageV1(pageHeader, uncompressedPageSize, compressedPageSize, pages);
+                    break;
+                case DATA_PAGE_V2:
+                    firstRowIndexes[pages.size()] = offsetIndex.getFirstRowIndex(pages.size());
+                    readDataPageV2(pageHeader, uncompressedPageSize, compressedPageSize, pages);
+                    break;
+                default:
+                    skip(compressedPageSize);
+                    break;
+            }
+        }
+        return new PageReader(descriptor.getColumnChunkMetaData().getCodec(), pages, dictionaryPage, firstRowIndexes);
+    }
+
     public int getPosition()
     {
         return pos;
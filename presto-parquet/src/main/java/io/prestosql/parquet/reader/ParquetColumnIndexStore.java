@@ -0,0 +1,117 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.parquet.reader;
+
+import io.airlift.slice.Slice;
+import io.prestosql.parquet.ParquetDataSource;
+import org.apache.parquet.format.Util;
+import org.apache.parquet.format.converter.ParquetMetadataConverter;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnPath;
+import org.apache.parquet.internal.column.columnindex.ColumnIndex;
+import org.apache.parquet.internal.column.columnindex.OffsetIndex;
+import org.apache.parquet.internal.filter2.columnindex.ColumnIndexStore;
+import org.apache.parquet.internal.hadoop.metadata.IndexReference;
+import org.apache.parquet.io.ParquetDecodingException;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static java.lang.String.format;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Column and offset indexes of one row group. Indexes are read from the data source the first
+ * time they are requested, so only the columns used by the filter and the projected columns are read.
+ */
+public class ParquetColumnIndexStore
+        implements ColumnIndexStore
+{
+    private final ParquetDataSource dataSource;
+    private final Map<ColumnPath, ColumnChunkMetaData> columns = new HashMap<>();
+    private final Map<ColumnPath, Optional<ColumnIndex>> columnIndexes = new HashMap<>();
+    private final Map<ColumnPath, Optional<OffsetIndex>> offsetIndexes = new HashMap<>();
+
+    private ParquetColumnIndexStore(ParquetDataSource dataSource, BlockMetaData block)
+    {
+        this.dataSource = requireNonNull(dataSource, "dataSource is null");
+        for (ColumnChunkMetaData column : block.getColumns()) {
+            columns.put(column.getPath(), column);
+        }
+    }
+
+    /**
+     * Returns the index store of the row group, or empty if the file was written without page indexes.
+     */
+    public static Optional<ColumnIndexStore> createColumnIndexStore(ParquetDataSource dataSource, BlockMetaData block)
+    {
+        for (ColumnChunkMetaData column : block.getColumns()) {
+            if (column.getColumnIndexReference() != null && column.getOffsetIndexReference() != null) {
+                return Optional.of(new ParquetColumnIndexStore(dataSource, block));
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public ColumnIndex getColumnIndex(ColumnPath column)
+    {
+        return columnIndexes.computeIfAbsent(column, this::readColumnIndex).orElse(null);
+    }
+
+    @Override
+    public OffsetIndex getOffsetIndex(ColumnPath column)
+    {
+        return offsetIndexes.computeIfAbsent(column, this::readOffsetIndex)
+                .orElseThrow(() -> new MissingOffsetIndexException(column));
+    }
+
+    private Optional<ColumnIndex> readColumnIndex(ColumnPath path)
+    {
+        ColumnChunkMetaData column = columns.get(path);
+        if (column == null || column.getColumnIndexReference() == null) {
+            return Optional.empty();
+        }
+        try {
+            Slice index = readIndex(column.getColumnIndexReference());
+            return Optional.ofNullable(ParquetMetadataConverter.fromParquetColumnIndex(column.getPrimitiveType(), Util.readColumnIndex(index.getInput())));
+        }
+        catch (IOException e) {
+            throw new ParquetDecodingException(format("Error reading column index of %s in %s", path, dataSource.getId()), e);
+        }
+    }
+
+    private Optional<OffsetIndex> readOffsetIndex(ColumnPath path)
+    {
+        ColumnChunkMetaData column = columns.get(path);
+        if (column == null || column.getOffsetIndexReference() == null) {
+            return Optional.empty();
+        }
+        try {
+            Slice index = readIndex(column.getOffsetIndexReference());
+            return Optional.of(ParquetMetadataConverter.fromParquetOffsetIndex(Util.readOffsetIndex(index.getInput())));
+        }
+        catch (IOException e) {
+            throw new ParquetDecodingException(format("Error reading offset index of %s in %s", path, dataSource.getId()), e);
+        }
+    }
+
+    private Slice readIndex(IndexReference reference)
+    {
+        return dataSource.readFully(reference.getOffset(), reference.getLength());
+    }
+}
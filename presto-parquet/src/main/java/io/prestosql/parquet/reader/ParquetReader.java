@@ -14,11 +14,16 @@
 package io.prestosql.parquet.reader;
 
 import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Multimap;
+import com.google.common.util.concurrent.ListenableFuture;
+import io.airlift.slice.Slice;
 import io.airlift.units.DataSize;
 import io.prestosql.memory.context.AggregatedMemoryContext;
 import io.prestosql.memory.context.LocalMemoryContext;
+import io.prestosql.orc.TupleDomainFilter;
 import io.prestosql.parquet.ChunkKey;
 import io.prestosql.parquet.ChunkReader;
 import io.prestosql.parquet.DiskRange;
@@ -33,6 +38,7 @@ import io.prestosql.parquet.predicate.Predicate;
 import io.prestosql.parquet.reader.FilteredOffsetIndex.OffsetRange;
 import io.prestosql.spi.block.ArrayBlock;
 import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockBuilder;
 import io.prestosql.spi.block.RowBlock;
 import io.prestosql.spi.block.RunLengthEncodedBlock;
 import io.prestosql.spi.type.MapType;
@@ -51,6 +57,7 @@ import org.apache.parquet.hadoop.metadata.ColumnPath;
 import org.apache.parquet.internal.column.columnindex.OffsetIndex;
 import org.apache.parquet.internal.filter2.columnindex.ColumnIndexFilter;
 import org.apache.parquet.internal.filter2.columnindex.ColumnIndexStore;
+import org.apache.parquet.internal.filter2.columnindex.ColumnIndexStore.MissingOffsetIndexException;
 import org.apache.parquet.internal.filter2.columnindex.RowRanges;
 import org.apache.parquet.io.MessageColumnIO;
 import org.apache.parquet.io.PrimitiveColumnIO;
@@ -60,14 +67,17 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static io.prestosql.orc.VectoredReader.getRangeData;
 import static io.prestosql.parquet.ParquetValidationUtils.validateParquet;
 import static io.prestosql.parquet.reader.ListColumnReader.calculateCollectionOffsets;
 import static io.prestosql.spi.type.StandardTypes.ARRAY;
@@ -115,6 +125,21 @@ public class ParquetReader
     private final List<RowRanges> blockRowRanges;
     private final Map<ColumnPath, ColumnDescriptor> paths = new HashMap<>();
     private final Optional<FilterPredicate> filter;
+    // page skipping requires all columns to have one value per row
+    private final boolean rowRangesSupported;
+    private FilteredRowRanges currentRowRanges;
+    private long skippedPageCount;
+    private long skippedPageBytes;
+
+    // when the data source reads asynchronously, the column chunks of the current row group are requested
+    // together and the column chunks of the next row group are fetched while the current one is decoded
+    private final boolean prefetchColumnChunks;
+    private Map<ColumnPath, ListenableFuture<Slice>> currentColumnChunks = ImmutableMap.of();
+    private int nextRowGroup = -1;
+    private Map<ColumnPath, ListenableFuture<Slice>> nextColumnChunks = ImmutableMap.of();
+    private AggregatedMemoryContext nextRowGroupMemoryContext;
+    // column chunk reads that are no longer needed, accounted in their memory context until they complete
+    private final List<RetiredColumnChunks> retiredColumnChunks = new ArrayList<>();
 
     public ParquetReader(Optional<String> fileCreatedBy,
                          MessageColumnIO messageColumnIO,
@@ -124,13 +149,35 @@ public class ParquetReader
                          AggregatedMemoryContext systemMemoryContext,
                          DataSize maxReadBlockSize)
     {
-        this.blockRowRanges = null;
-        this.columnIndexStore = null;
+        this(fileCreatedBy, messageColumnIO, blocks, dataSource, timeZone, systemMemoryContext, maxReadBlockSize, null, null);
+    }
+
+    /**
+     * Creates a reader that uses the column indexes of the row groups to read only the pages
+     * that can contain rows matching the predicate. Rows of the other pages are not returned.
+     *
+     * @param parquetPredicate the predicate, or null to read all rows
+     * @param columnIndexStore the index store of each row group, required when parquetPredicate is not null
+     */
+    public ParquetReader(Optional<String> fileCreatedBy,
+                         MessageColumnIO messageColumnIO,
+                         List<BlockMetaData> blocks,
+                         ParquetDataSource dataSource,
+                         DateTimeZone timeZone,
+                         AggregatedMemoryContext systemMemoryContext,
+                         DataSize maxReadBlockSize,
+                         Predicate parquetPredicate,
+                         List<Optional<ColumnIndexStore>> columnIndexStore)
+    {
+        checkArgument(parquetPredicate == null || (columnIndexStore != null && columnIndexStore.size() == blocks.size()),
+                "elements of columnIndexStore must correspond to blocks");
+        this.blockRowRanges = listWithNulls(blocks.size());
+        this.columnIndexStore = columnIndexStore;
         this.chunkReaders = null;
         this.options = null;
         this.memoryContext = null;
         this.firstRowsOfBlocks = null;
-        this.filter = null;
+        this.filter = parquetPredicate == null ? Optional.empty() : parquetPredicate.toParquetFilter(timeZone);
         this.fileCreatedBy = requireNonNull(fileCreatedBy, "fileCreatedBy is null");
         this.blocks = blocks;
         this.dataSource = requireNonNull(dataSource, "dataSource is null");
@@ -141,6 +188,12 @@ public class ParquetReader
         columns = messageColumnIO.getLeaves();
         columnReaders = new PrimitiveColumnReader[columns.size()];
         maxBytesPerCell = new long[columns.size()];
+        for (PrimitiveColumnIO column : columns) {
+            ColumnDescriptor columnDescriptor = column.getColumnDescriptor();
+            this.paths.put(ColumnPath.get(columnDescriptor.getPath()), columnDescriptor);
+        }
+        this.rowRangesSupported = isRowRangesSupported(columns);
+        this.prefetchColumnChunks = dataSource.isAsyncReadSupported();
     }
 
     public ParquetReader(
@@ -192,6 +245,8 @@ public class ParquetReader
             ColumnDescriptor columnDescriptor = column.getColumnDescriptor();
             this.paths.put(ColumnPath.get(columnDescriptor.getPath()), columnDescriptor);
         }
+        this.rowRangesSupported = isRowRangesSupported(columns);
+        this.prefetchColumnChunks = false;
         if (parquetPredicate != null && options.isUseColumnIndex()) {
             this.filter = parquetPredicate.toParquetFilter(timeZone);
         }
@@ -233,7 +288,7 @@ public class ParquetReader
             if (rowRanges != null && rowRanges.rowCount() < rowGroupRowCount) {
                 Optional<ColumnIndexStore> optionalColumnIndexStore = this.columnIndexStore.get(rowGroup);
                 if (optionalColumnIndexStore.isPresent()) {
-                    OffsetIndex offsetIndex = optionalColumnIndexStore.get().getOffsetIndex(columnPath);
+                    OffsetIndex offsetIndex = getOffsetIndex(optionalColumnIndexStore.get(), columnPath);
                     if (offsetIndex != null) {
                         return FilteredOffsetIndex.filterOffsetIndex(offsetIndex, rowRanges, rowGroupRowCount);
                     }
@@ -262,6 +317,72 @@ public class ParquetReader
         return rowRanges;
     }
 
+    private static OffsetIndex getOffsetIndex(ColumnIndexStore columnIndexStore, ColumnPath columnPath)
+    {
+        try {
+            return columnIndexStore.getOffsetIndex(columnPath);
+        }
+        catch (MissingOffsetIndexException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the rows of the row group that can match the filter, or null if all rows have to be read.
+     */
+    private FilteredRowRanges getFilteredRowRanges(int rowGroup)
+    {
+        if (!filter.isPresent() || !rowRangesSupported) {
+            return null;
+        }
+        RowRanges rowRanges = getRowRanges(filter.get(), rowGroup);
+        if (rowRanges == null || rowRanges.rowCount() == blocks.get(rowGroup).getRowCount()) {
+            return null;
+        }
+        return FilteredRowRanges.fromRowRanges(rowRanges);
+    }
+
+    private static boolean isRowRangesSupported(List<PrimitiveColumnIO> columns)
+    {
+        for (PrimitiveColumnIO column : columns) {
+            if (column.getColumnDescriptor().getMaxRepetitionLevel() > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void recordSkippedRowGroup(int rowGroup)
+    {
+        Optional<ColumnIndexStore> rowGroupColumnIndexStore = columnIndexStore.get(rowGroup);
+        for (ColumnChunkMetaData metadata : blocks.get(rowGroup).getColumns()) {
+            if (paths.containsKey(metadata.getPath())) {
+                skippedPageBytes += metadata.getTotalSize();
+                OffsetIndex offsetIndex = rowGroupColumnIndexStore.map(store -> getOffsetIndex(store, metadata.getPath())).orElse(null);
+                if (offsetIndex != null) {
+                    skippedPageCount += offsetIndex.getPageCount();
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of data pages that were not read because they cannot contain rows matching the predicate.
+     */
+    public long getSkippedPageCount()
+    {
+        return skippedPageCount;
+    }
+
+    /**
+     * Returns the number of bytes of the column chunks that were not read because their pages cannot contain
+     * rows matching the predicate.
+     */
+    public long getSkippedPageBytes()
+    {
+        return skippedPageBytes;
+    }
+
     private ColumnChunkMetaData getColumnChunkMetaData(BlockMetaData blockMetaData, ColumnDescriptor columnDescriptor)
             throws IOException
     {
@@ -284,8 +405,21 @@ public class ParquetReader
     public void close()
             throws IOException
     {
-        currentRowGroupMemoryContext.close();
-        dataSource.close();
+        // reads that have not started are dropped, and the data source waits for the running ones when it is closed
+        currentColumnChunks.values().forEach(columnChunk -> columnChunk.cancel(false));
+        nextColumnChunks.values().forEach(columnChunk -> columnChunk.cancel(false));
+        retiredColumnChunks.forEach(RetiredColumnChunks::cancel);
+        try {
+            dataSource.close();
+        }
+        finally {
+            retiredColumnChunks.forEach(RetiredColumnChunks::release);
+            retiredColumnChunks.clear();
+            if (nextRowGroupMemoryContext != null) {
+                nextRowGroupMemoryContext.close();
+            }
+            currentRowGroupMemoryContext.close();
+        }
     }
 
     public long getPosition()
@@ -312,19 +446,112 @@ public class ParquetReader
 
     private boolean advanceToNextRowGroup()
     {
-        currentRowGroupMemoryContext.close();
+        releaseCompletedColumnChunks();
+        retireColumnChunks(currentColumnChunks, currentRowGroupMemoryContext);
+        currentColumnChunks = ImmutableMap.of();
         currentRowGroupMemoryContext = systemMemoryContext.newAggregatedMemoryContext();
 
-        if (currentBlock == blocks.size()) {
-            return false;
+        while (currentBlock < blocks.size()) {
+            int rowGroup = currentBlock;
+            currentBlockMetadata = blocks.get(rowGroup);
+            currentBlock = currentBlock + 1;
+
+            currentRowRanges = getFilteredRowRanges(rowGroup);
+            if (currentRowRanges != null && currentRowRanges.getRowCount() == 0) {
+                // the column indexes show that no page of the row group can match
+                recordSkippedRowGroup(rowGroup);
+                continue;
+            }
+
+            nextRowInGroup = 0L;
+            currentGroupRowCount = currentRowRanges == null ? currentBlockMetadata.getRowCount() : currentRowRanges.getRowCount();
+            if (prefetchColumnChunks) {
+                startColumnChunkReads(rowGroup);
+            }
+            initializeColumnReaders();
+            return true;
         }
-        currentBlockMetadata = blocks.get(currentBlock);
-        currentBlock = currentBlock + 1;
+        return false;
+    }
 
-        nextRowInGroup = 0L;
-        currentGroupRowCount = currentBlockMetadata.getRowCount();
-        initializeColumnReaders();
-        return true;
+    private void startColumnChunkReads(int rowGroup)
+    {
+        if (rowGroup == nextRowGroup) {
+            currentRowGroupMemoryContext.close();
+            currentRowGroupMemoryContext = nextRowGroupMemoryContext;
+            currentColumnChunks = nextColumnChunks;
+            nextRowGroup = -1;
+            nextColumnChunks = ImmutableMap.of();
+            nextRowGroupMemoryContext = null;
+        }
+        else {
+            discardNextColumnChunks();
+            currentColumnChunks = readColumnChunksAsync(rowGroup, currentRowGroupMemoryContext);
+        }
+
+        if (rowGroup + 1 < blocks.size()) {
+            nextRowGroup = rowGroup + 1;
+            nextRowGroupMemoryContext = systemMemoryContext.newAggregatedMemoryContext();
+            nextColumnChunks = readColumnChunksAsync(nextRowGroup, nextRowGroupMemoryContext);
+        }
+    }
+
+    private Map<ColumnPath, ListenableFuture<Slice>> readColumnChunksAsync(int rowGroup, AggregatedMemoryContext rowGroupMemoryContext)
+    {
+        if (getFilteredRowRanges(rowGroup) != null) {
+            // only the pages overlapping the row ranges are read, when the column is first used
+            return ImmutableMap.of();
+        }
+
+        Map<ColumnPath, DiskRange> diskRanges = new HashMap<>();
+        long totalSize = 0;
+        for (ColumnChunkMetaData metadata : blocks.get(rowGroup).getColumns()) {
+            if (paths.containsKey(metadata.getPath())) {
+                diskRanges.put(metadata.getPath(), new DiskRange(metadata.getStartingPos(), toIntExact(metadata.getTotalSize())));
+                totalSize += metadata.getTotalSize();
+            }
+        }
+        if (diskRanges.isEmpty()) {
+            return ImmutableMap.of();
+        }
+        rowGroupMemoryContext.newLocalMemoryContext(ParquetReader.class.getSimpleName()).setBytes(totalSize);
+        return dataSource.readFullyAsync(diskRanges);
+    }
+
+    private void discardNextColumnChunks()
+    {
+        if (nextRowGroupMemoryContext != null) {
+            retireColumnChunks(nextColumnChunks, nextRowGroupMemoryContext);
+        }
+        nextRowGroup = -1;
+        nextColumnChunks = ImmutableMap.of();
+        nextRowGroupMemoryContext = null;
+    }
+
+    /**
+     * Drops column chunk reads that are no longer needed. Their memory is released once the reads are
+     * done. They are not cancelled, as a cancelled read can still be running.
+     */
+    private void retireColumnChunks(Map<ColumnPath, ListenableFuture<Slice>> columnChunks, AggregatedMemoryContext memoryContext)
+    {
+        RetiredColumnChunks retired = new RetiredColumnChunks(columnChunks.values(), memoryContext);
+        if (retired.isDone()) {
+            retired.release();
+        }
+        else {
+            retiredColumnChunks.add(retired);
+        }
+    }
+
+    private void releaseCompletedColumnChunks()
+    {
+        retiredColumnChunks.removeIf(retired -> {
+            if (!retired.isDone()) {
+                return false;
+            }
+            retired.release();
+            return true;
+        });
     }
 
     private ColumnChunk readArray(GroupField field)
@@ -387,20 +614,8 @@ public class ParquetReader
     private ColumnChunk readPrimitive(PrimitiveField field)
             throws IOException
     {
-        ColumnDescriptor columnDescriptor = field.getDescriptor();
         int fieldId = field.getId();
-        PrimitiveColumnReader columnReader = columnReaders[fieldId];
-        if (columnReader.getPageReader() == null) {
-            validateParquet(currentBlockMetadata.getRowCount() > 0, "Row group has 0 rows");
-            ColumnChunkMetaData metadata = getColumnChunkMetaData(columnDescriptor);
-            long startingPosition = metadata.getStartingPos();
-            int totalSize = toIntExact(metadata.getTotalSize());
-            byte[] buffer = allocateBlock(totalSize);
-            dataSource.readFully(startingPosition, buffer);
-            ColumnChunkDescriptor descriptor = new ColumnChunkDescriptor(columnDescriptor, metadata, totalSize);
-            ParquetColumnChunk columnChunk = new ParquetColumnChunk(fileCreatedBy, descriptor, buffer, 0);
-            columnReader.setPageReader(columnChunk.readAllPages());
-        }
+        PrimitiveColumnReader columnReader = getColumnReader(field);
         ColumnChunk columnChunk = columnReader.readPrimitive(field);
 
         // update max size per primitive column chunk
@@ -414,6 +629,59 @@ public class ParquetReader
         return columnChunk;
     }
 
+    private PrimitiveColumnReader getColumnReader(PrimitiveField field)
+            throws IOException
+    {
+        ColumnDescriptor columnDescriptor = field.getDescriptor();
+        PrimitiveColumnReader columnReader = columnReaders[field.getId()];
+        if (columnReader.getPageReader() == null) {
+            validateParquet(currentBlockMetadata.getRowCount() > 0, "Row group has 0 rows");
+            ColumnChunkMetaData metadata = getColumnChunkMetaData(columnDescriptor);
+            long startingPosition = metadata.getStartingPos();
+            FilteredOffsetIndex offsetIndex = null;
+            if (currentRowRanges != null) {
+                offsetIndex = getFilteredOffsetIndex(currentBlock - 1, currentBlockMetadata.getRowCount(), metadata.getPath());
+            }
+            ListenableFuture<Slice> columnChunkData = currentColumnChunks.get(metadata.getPath());
+            if (offsetIndex == null && columnChunkData != null) {
+                // memory of the prefetched column chunks is already accounted in the row group memory context
+                Slice data = getRangeData(columnChunkData);
+                ColumnChunkDescriptor descriptor = new ColumnChunkDescriptor(columnDescriptor, metadata, data.length());
+                ParquetColumnChunk columnChunk = new ParquetColumnChunk(fileCreatedBy, descriptor, data.byteArray(), data.byteArrayOffset());
+                columnReader.setPageReader(columnChunk.readAllPages(), currentRowRanges);
+            }
+            else if (offsetIndex == null) {
+                int totalSize = toIntExact(metadata.getTotalSize());
+                byte[] buffer = allocateBlock(totalSize);
+                dataSource.readFully(startingPosition, buffer);
+                ColumnChunkDescriptor descriptor = new ColumnChunkDescriptor(columnDescriptor, metadata, totalSize);
+                ParquetColumnChunk columnChunk = new ParquetColumnChunk(fileCreatedBy, descriptor, buffer, 0);
+                columnReader.setPageReader(columnChunk.readAllPages(), currentRowRanges);
+            }
+            else {
+                // read the dictionary page and the pages overlapping the row ranges into one buffer
+                List<OffsetRange> offsetRanges = offsetIndex.calculateOffsetRanges(startingPosition);
+                int totalSize = 0;
+                for (OffsetRange offsetRange : offsetRanges) {
+                    totalSize += toIntExact(offsetRange.getLength());
+                }
+                byte[] buffer = allocateBlock(totalSize);
+                int bufferOffset = 0;
+                for (OffsetRange offsetRange : offsetRanges) {
+                    int length = toIntExact(offsetRange.getLength());
+                    dataSource.readFully(offsetRange.getOffset(), buffer, bufferOffset, length);
+                    bufferOffset += length;
+                }
+                skippedPageCount += offsetIndex.getSkippedPageCount();
+                skippedPageBytes += metadata.getTotalSize() - totalSize;
+                ColumnChunkDescriptor descriptor = new ColumnChunkDescriptor(columnDescriptor, metadata, totalSize);
+                ParquetColumnChunk columnChunk = new ParquetColumnChunk(fileCreatedBy, descriptor, buffer, 0);
+                columnReader.setPageReader(columnChunk.readPages(offsetIndex), currentRowRanges);
+            }
+        }
+        return columnReader;
+    }
+
     private byte[] allocateBlock(int length)
     {
         byte[] buffer = new byte[length];
@@ -447,6 +715,42 @@ public class ParquetReader
         return readColumnChunk(field).getBlock();
     }
 
+    /**
+     * Whether {@link #filterBlock} can be used for the field: a top level primitive column whose
+     * values can be tested while they are decoded.
+     */
+    public boolean isFilterSupported(PrimitiveField field)
+    {
+        RichColumnDescriptor descriptor = field.getDescriptor();
+        return descriptor.getMaxRepetitionLevel() == 0 &&
+                descriptor.getMaxDefinitionLevel() <= 1 &&
+                FilteringPrimitiveColumnReader.isFilterSupported(descriptor, field.getType());
+    }
+
+    /**
+     * Tests the values of the current batch at the given positions against the filter without
+     * materializing the values that do not match. The positions that pass are moved to the front
+     * of the positions array and, if blockBuilder is not null, their values are appended to it.
+     *
+     * @return the number of positions that passed the filter
+     */
+    public int filterBlock(PrimitiveField field, TupleDomainFilter filter, int[] positions, int positionCount, BlockBuilder blockBuilder)
+            throws IOException
+    {
+        PrimitiveColumnReader columnReader = getColumnReader(field);
+        checkArgument(columnReader instanceof FilteringPrimitiveColumnReader, "Filter is not supported for column %s", field.getDescriptor());
+        return ((FilteringPrimitiveColumnReader) columnReader).filterPrimitive(field, filter, positions, positionCount, blockBuilder);
+    }
+
+    /**
+     * Reads only the given positions of the current batch, skipping the values at all other positions.
+     */
+    public Block readBlock(PrimitiveField field, int[] positions, int positionCount)
+            throws IOException
+    {
+        return getColumnReader(field).readPrimitive(field, positions, positionCount);
+    }
+
     private ColumnChunk readColumnChunk(Field field)
             throws IOException
     {
@@ -480,4 +784,32 @@ public class ParquetReader
     {
         return currentGroupRowCount + nextRowInGroup - batchSize;
     }
+
+    private static final class RetiredColumnChunks
+    {
+        private final List<ListenableFuture<Slice>> reads;
+        private final AggregatedMemoryContext memoryContext;
+
+        private RetiredColumnChunks(Collection<ListenableFuture<Slice>> reads, AggregatedMemoryContext memoryContext)
+        {
+            this.reads = ImmutableList.copyOf(requireNonNull(reads, "reads is null"));
+            this.memoryContext = requireNonNull(memoryContext, "memoryContext is null");
+        }
+
+        public boolean isDone()
+        {
+            return reads.stream().allMatch(Future::isDone);
+        }
+
+        public void cancel()
+        {
+            // do not interrupt reads in flight, as interrupting a read can close the underlying stream
+            reads.forEach(read -> read.cancel(false));
+        }
+
+        public void release()
+        {
+            memoryContext.close();
+        }
+    }
 }
@@ -24,6 +24,7 @@ import io.prestosql.parquet.ParquetTypeUtils;
 import io.prestosql.parquet.RichColumnDescriptor;
 import io.prestosql.parquet.dictionary.Dictionary;
 import io.prestosql.spi.PrestoException;
+import io.prestosql.spi.block.Block;
 import io.prestosql.spi.block.BlockBuilder;
 import io.prestosql.spi.type.DecimalType;
 import io.prestosql.spi.type.Type;
@@ -43,6 +44,7 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.util.Optional;
 import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Verify.verify;
@@ -52,6 +54,7 @@ import static io.prestosql.parquet.ValuesType.DEFINITION_LEVEL;
 import static io.prestosql.parquet.ValuesType.REPETITION_LEVEL;
 import static io.prestosql.parquet.ValuesType.VALUES;
 import static io.prestosql.spi.StandardErrorCode.NOT_SUPPORTED;
+import static java.lang.Math.toIntExact;
 import static java.util.Objects.requireNonNull;
 
 public abstract class PrimitiveColumnReader
@@ -73,6 +76,12 @@ public abstract class PrimitiveColumnReader
     private DataPage page;
     private int remainingValueCountInPage;
     private int readOffset;
+    private boolean dictionaryEncodedPage;
+
+    // rows of the row group to read, null when all rows are read; only used for columns that are not repeated
+    private FilteredRowRanges rowRanges;
+    private int rowRangeIndex;
+    private long currentRow;
 
     protected abstract void readValue(BlockBuilder blockBuilder, Type type);
 
@@ -149,6 +158,19 @@ public abstract class PrimitiveColumnReader
 
     public void setPageReader(PageReader pageReader)
     {
+        setPageReader(pageReader, null);
+    }
+
+    /**
+     * Sets the pages to read and the rows of the row group that are read. Rows outside of the
+     * row ranges are skipped, and the pages only need to cover the rows in the ranges.
+     */
+    void setPageReader(PageReader pageReader, FilteredRowRanges rowRanges)
+    {
+        checkArgument(rowRanges == null || columnDescriptor.getMaxRepetitionLevel() == 0, "Row ranges are not supported for repeated column %s", columnDescriptor);
+        this.rowRanges = rowRanges;
+        this.rowRangeIndex = 0;
+        this.currentRow = 0;
         this.pageReader = requireNonNull(pageReader, "pageReader");
         DictionaryPage dictionaryPage = pageReader.readDictionaryPage();
 
@@ -186,10 +208,7 @@ public abstract class PrimitiveColumnReader
         BlockBuilder blockBuilder = field.getType().createBlockBuilder(null, nextBatchSize);
         int valueCount = 0;
         while (valueCount < nextBatchSize) {
-            if (page == null) {
-                readNextPage();
-            }
-            int valuesToRead = Math.min(remainingValueCountInPage, nextBatchSize - valueCount);
+            int valuesToRead = Math.min(getReadableValueCount(), nextBatchSize - valueCount);
             readValues(blockBuilder, valuesToRead, field.getType(), definitionLevels, repetitionLevels);
             valueCount += valuesToRead;
         }
@@ -200,6 +219,50 @@ public abstract class PrimitiveColumnReader
         return new ColumnChunk(blockBuilder.build(), definitionLevels.toIntArray(), repetitionLevels.toIntArray());
     }
 
+    /**
+     * Reads the values of the next batch at the given positions, skipping all other values.
+     * Only supported for columns that are not nested in a repeated field.
+     */
+    public Block readPrimitive(Field field, int[] positions, int positionCount)
+    {
+        Type type = field.getType();
+        BlockBuilder blockBuilder = type.createBlockBuilder(null, positionCount);
+        readSelectedValues(positions, positionCount, position -> readValue(blockBuilder, type));
+        return blockBuilder.build();
+    }
+
+    /**
+     * Passes the position of each value of the next batch that is at one of the given positions to
+     * the consumer, which has to read the value, and skips all other values. The consumer may overwrite
+     * the entries of the positions array up to the one of the position it is given.
+     */
+    protected void readSelectedValues(int[] positions, int positionCount, IntConsumer selectedValueConsumer)
+    {
+        checkArgument(columnDescriptor.getMaxRepetitionLevel() == 0, "Selective read is not supported for repeated column %s", columnDescriptor);
+        SelectedValuesReader reader = new SelectedValuesReader(positions, positionCount, selectedValueConsumer);
+        seek();
+        int valueCount = 0;
+        while (valueCount < nextBatchSize) {
+            int valuesToRead = Math.min(getReadableValueCount(), nextBatchSize - valueCount);
+            processValues(valuesToRead, reader);
+            valueCount += valuesToRead;
+        }
+        checkArgument(valueCount == nextBatchSize, "valueCount %s not equals to batchSize %s", valueCount, nextBatchSize);
+
+        readOffset = 0;
+        nextBatchSize = 0;
+    }
+
+    protected Dictionary getDictionary()
+    {
+        return dictionary;
+    }
+
+    protected boolean isDictionaryEncodedPage()
+    {
+        return dictionaryEncodedPage;
+    }
+
     private void readValues(BlockBuilder blockBuilder, int valuesToRead, Type type, IntList definitionLevels, IntList repetitionLevels)
     {
         processValues(valuesToRead, ignored -> {
@@ -248,16 +311,39 @@ public abstract class PrimitiveColumnReader
         }
         int valuePosition = 0;
         while (valuePosition < readOffset) {
-            if (page == null) {
-                readNextPage();
-            }
-            int offset = Math.min(remainingValueCountInPage, readOffset - valuePosition);
+            int offset = Math.min(getReadableValueCount(), readOffset - valuePosition);
             skipValues(offset);
             valuePosition = valuePosition + offset;
         }
         checkArgument(valuePosition == readOffset, "valuePosition %s must be equal to readOffset %s", valuePosition, readOffset);
     }
 
+    /**
+     * Skips the rows before the next row range and returns the number of values that can be read
+     * before the end of the current page or of the current row range is reached.
+     */
+    private int getReadableValueCount()
+    {
+        if (page == null) {
+            readNextPage();
+        }
+        if (rowRanges == null) {
+            return remainingValueCountInPage;
+        }
+        while (currentRow > rowRanges.getTo(rowRangeIndex)) {
+            rowRangeIndex++;
+        }
+        long rangeStart = rowRanges.getFrom(rowRangeIndex);
+        while (currentRow < rangeStart) {
+            if (page == null) {
+                verify(readNextPage(), "Page with row %s is missing in column %s", currentRow, columnDescriptor);
+                continue;
+            }
+            skipValues(toIntExact(Math.min(remainingValueCountInPage, rangeStart - currentRow)));
+        }
+        return toIntExact(Math.min(remainingValueCountInPage, rowRanges.getTo(rowRangeIndex) - currentRow + 1));
+    }
+
     private boolean readNextPage()
     {
         verify(page == null, "readNextPage has to be called when page is null");
@@ -266,6 +352,11 @@ public abstract class PrimitiveColumnReader
             // we have read all pages
             return false;
         }
+        long firstRowIndex = pageReader.getFirstRowIndex();
+        if (firstRowIndex >= 0) {
+            // pages between the previous page and this one were not read
+            currentRow = firstRowIndex;
+        }
         remainingValueCountInPage = page.getValueCount();
         if (page instanceof DataPageV1) {
             valuesReader = readPageV1((DataPageV1) page);
@@ -284,6 +375,8 @@ public abstract class PrimitiveColumnReader
         }
         remainingValueCountInPage -= valuesRead;
         currentValueCount += valuesRead;
+        // each value is a row, as row ranges are only used for columns that are not repeated
+        currentRow += valuesRead;
     }
 
     private ValuesReader readPageV1(DataPageV1 page)
@@ -321,7 +414,8 @@ public abstract class PrimitiveColumnReader
     private ValuesReader initDataReader(ParquetEncoding dataEncoding, int valueCount, ByteBufferInputStream in)
     {
         ValuesReader localValuesReader;
-        if (dataEncoding.usesDictionary()) {
+        dictionaryEncodedPage = dataEncoding.usesDictionary();
+        if (dictionaryEncodedPage) {
             if (dictionary == null) {
                 throw new ParquetDecodingException("Dictionary is missing for Page");
             }
@@ -339,4 +433,35 @@ public abstract class PrimitiveColumnReader
             throw new ParquetDecodingException("Error reading parquet page in column " + columnDescriptor, e);
         }
     }
+
+    private final class SelectedValuesReader
+            implements Consumer<Void>
+    {
+        private final int[] positions;
+        private final int positionCount;
+        private final IntConsumer selectedValueConsumer;
+
+        private int position;
+        private int positionIndex;
+
+        private SelectedValuesReader(int[] positions, int positionCount, IntConsumer selectedValueConsumer)
+        {
+            this.positions = requireNonNull(positions, "positions is null");
+            this.positionCount = positionCount;
+            this.selectedValueConsumer = requireNonNull(selectedValueConsumer, "selectedValueConsumer is null");
+        }
+
+        @Override
+        public void accept(Void ignored)
+        {
+            if (positionIndex < positionCount && positions[positionIndex] == position) {
+                positionIndex++;
+                selectedValueConsumer.accept(position);
+            }
+            else {
+                skipValue();
+            }
+            position++;
+        }
+    }
 }
@@ -13,17 +13,28 @@
  */
 package io.prestosql.parquet.predicate;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import org.apache.parquet.column.Encoding;
 import org.apache.parquet.column.EncodingStats;
 import org.apache.parquet.column.statistics.BinaryStatistics;
+import org.apache.parquet.column.values.bloomfilter.BlockSplitBloomFilter;
+import org.apache.parquet.column.values.bloomfilter.BloomFilter;
 import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.Types;
 import org.testng.annotations.Test;
 
 import java.util.Set;
 
 import static com.google.common.collect.Sets.union;
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.prestosql.parquet.predicate.PredicateUtils.bloomFilterMightContain;
 import static io.prestosql.parquet.predicate.PredicateUtils.isOnlyDictionaryEncodingPages;
+import static io.prestosql.spi.type.VarbinaryType.VARBINARY;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static io.prestosql.spi.type.VarcharType.createVarcharType;
 import static org.apache.parquet.column.Encoding.BIT_PACKED;
 import static org.apache.parquet.column.Encoding.PLAIN;
 import static org.apache.parquet.column.Encoding.PLAIN_DICTIONARY;
@@ -31,6 +42,7 @@ import static org.apache.parquet.column.Encoding.RLE;
 import static org.apache.parquet.column.Encoding.RLE_DICTIONARY;
 import static org.apache.parquet.hadoop.metadata.ColumnPath.fromDotString;
 import static org.apache.parquet.hadoop.metadata.CompressionCodecName.UNCOMPRESSED;
+import static org.apache.parquet.schema.LogicalTypeAnnotation.stringType;
 import static org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName.BINARY;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
@@ -72,6 +84,20 @@ public class TestPredicateUtils
         assertFalse(isOnlyDictionaryEncodingPages(createColumnMetaDataV2(RLE_DICTIONARY, PLAIN)));
     }
 
+    @Test
+    public void testBinaryBloomFilter()
+    {
+        BloomFilter bloomFilter = new BlockSplitBloomFilter(1024);
+        bloomFilter.insertHash(bloomFilter.hash(Binary.fromString("abcdef")));
+        PrimitiveType column = Types.optional(BINARY).as(stringType()).named("column");
+
+        assertTrue(bloomFilterMightContain(bloomFilter, column, VARCHAR, ImmutableList.of(utf8Slice("abcdef"))));
+        assertFalse(bloomFilterMightContain(bloomFilter, column, VARCHAR, ImmutableList.of(utf8Slice("abc"))));
+        assertFalse(bloomFilterMightContain(bloomFilter, column, VARBINARY, ImmutableList.of(utf8Slice("abc"))));
+        // a varchar(3) column reads "abcdef" as "abc", so the filter cannot be used
+        assertTrue(bloomFilterMightContain(bloomFilter, column, createVarcharType(3), ImmutableList.of(utf8Slice("abc"))));
+    }
+
     private ColumnChunkMetaData createColumnMetaDataV2(Encoding... dataEncodings)
     {
         EncodingStats encodingStats = new EncodingStats.Builder()
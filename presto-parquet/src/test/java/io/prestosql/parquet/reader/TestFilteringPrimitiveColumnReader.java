@@ -0,0 +1,79 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.parquet.reader;
+
+import io.prestosql.parquet.RichColumnDescriptor;
+import io.prestosql.spi.type.Type;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.Types;
+import org.joda.time.DateTimeZone;
+import org.testng.annotations.Test;
+
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.BooleanType.BOOLEAN;
+import static io.prestosql.spi.type.DateType.DATE;
+import static io.prestosql.spi.type.DoubleType.DOUBLE;
+import static io.prestosql.spi.type.IntegerType.INTEGER;
+import static io.prestosql.spi.type.RealType.REAL;
+import static io.prestosql.spi.type.TimestampType.TIMESTAMP;
+import static io.prestosql.spi.type.VarbinaryType.VARBINARY;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static io.prestosql.spi.type.VarcharType.createVarcharType;
+import static org.apache.parquet.schema.LogicalTypeAnnotation.TimeUnit.MICROS;
+import static org.apache.parquet.schema.LogicalTypeAnnotation.decimalType;
+import static org.apache.parquet.schema.LogicalTypeAnnotation.timestampType;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestFilteringPrimitiveColumnReader
+{
+    @Test
+    public void testIsFilterSupported()
+    {
+        assertFilterSupported(column(PrimitiveType.PrimitiveTypeName.BOOLEAN, null), BOOLEAN, true);
+        assertFilterSupported(column(PrimitiveType.PrimitiveTypeName.INT32, null), INTEGER, true);
+        assertFilterSupported(column(PrimitiveType.PrimitiveTypeName.INT32, null), DATE, true);
+        assertFilterSupported(column(PrimitiveType.PrimitiveTypeName.INT64, null), BIGINT, true);
+        assertFilterSupported(column(PrimitiveType.PrimitiveTypeName.INT64, null), DATE, false);
+        assertFilterSupported(column(PrimitiveType.PrimitiveTypeName.FLOAT, null), REAL, true);
+        assertFilterSupported(column(PrimitiveType.PrimitiveTypeName.DOUBLE, null), DOUBLE, true);
+        assertFilterSupported(column(PrimitiveType.PrimitiveTypeName.BINARY, null), VARCHAR, true);
+        assertFilterSupported(column(PrimitiveType.PrimitiveTypeName.BINARY, null), VARBINARY, true);
+        assertFilterSupported(column(PrimitiveType.PrimitiveTypeName.BINARY, null), createVarcharType(10), false);
+
+        // these are read by readers that do not filter
+        assertFilterSupported(column(PrimitiveType.PrimitiveTypeName.INT64, timestampType(false, MICROS)), BIGINT, false);
+        assertFilterSupported(column(PrimitiveType.PrimitiveTypeName.INT64, timestampType(false, MICROS)), TIMESTAMP, false);
+        assertFilterSupported(column(PrimitiveType.PrimitiveTypeName.INT64, decimalType(2, 10)), BIGINT, false);
+        assertFilterSupported(column(PrimitiveType.PrimitiveTypeName.INT96, null), TIMESTAMP, false);
+    }
+
+    private static void assertFilterSupported(RichColumnDescriptor descriptor, Type type, boolean expected)
+    {
+        assertEquals(FilteringPrimitiveColumnReader.isFilterSupported(descriptor, type), expected);
+        if (expected) {
+            // the check is made without creating a reader, so it has to agree with the reader that is created
+            assertTrue(PrimitiveColumnReader.createReader(descriptor, DateTimeZone.UTC) instanceof FilteringPrimitiveColumnReader);
+        }
+    }
+
+    private static RichColumnDescriptor column(PrimitiveType.PrimitiveTypeName typeName, LogicalTypeAnnotation annotation)
+    {
+        Types.PrimitiveBuilder<PrimitiveType> builder = Types.optional(typeName);
+        PrimitiveType type = annotation == null ? builder.named("column") : builder.as(annotation).named("column");
+        return new RichColumnDescriptor(new ColumnDescriptor(new String[] {"column"}, typeName, 0, 1), type);
+    }
+}
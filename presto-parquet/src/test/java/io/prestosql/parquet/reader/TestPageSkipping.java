@@ -0,0 +1,146 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.parquet.reader;
+
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+import io.prestosql.parquet.DataPage;
+import io.prestosql.parquet.DataPageV1;
+import io.prestosql.parquet.PrimitiveField;
+import io.prestosql.parquet.RichColumnDescriptor;
+import io.prestosql.spi.block.Block;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.internal.column.columnindex.OffsetIndex;
+import org.apache.parquet.internal.column.columnindex.OffsetIndexBuilder;
+import org.apache.parquet.internal.filter2.columnindex.RowRanges;
+import org.apache.parquet.schema.PrimitiveType;
+import org.joda.time.DateTimeZone;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static io.prestosql.parquet.ParquetEncoding.PLAIN;
+import static io.prestosql.parquet.ParquetEncoding.RLE;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName.INT64;
+import static org.apache.parquet.schema.Type.Repetition.REQUIRED;
+import static org.testng.Assert.assertEquals;
+
+public class TestPageSkipping
+{
+    private static final int ROWS_PER_PAGE = 10;
+    private static final PrimitiveType TYPE = new PrimitiveType(REQUIRED, INT64, "value");
+    private static final RichColumnDescriptor DESCRIPTOR = new RichColumnDescriptor(new ColumnDescriptor(new String[] {"value"}, TYPE, 0, 0), TYPE);
+    private static final PrimitiveField FIELD = new PrimitiveField(BIGINT, 0, 0, true, DESCRIPTOR, 0);
+
+    @Test
+    public void testFromRowRanges()
+    {
+        OffsetIndex offsetIndex = createOffsetIndex(4);
+
+        FilteredRowRanges adjacentPages = FilteredRowRanges.fromRowRanges(RowRanges.create(40, IntStream.of(1, 2).iterator(), offsetIndex));
+        assertEquals(adjacentPages.getRangeCount(), 1);
+        assertEquals(adjacentPages.getFrom(0), 10);
+        assertEquals(adjacentPages.getTo(0), 29);
+        assertEquals(adjacentPages.getRowCount(), 20);
+
+        FilteredRowRanges separatePages = FilteredRowRanges.fromRowRanges(RowRanges.create(40, IntStream.of(0, 3).iterator(), offsetIndex));
+        assertEquals(separatePages.getRangeCount(), 2);
+        assertEquals(separatePages.getFrom(0), 0);
+        assertEquals(separatePages.getTo(0), 9);
+        assertEquals(separatePages.getFrom(1), 30);
+        assertEquals(separatePages.getTo(1), 39);
+        assertEquals(separatePages.getRowCount(), 20);
+    }
+
+    @Test
+    public void testReadRowRangesOfFilteredPages()
+    {
+        // only the second and fourth of four pages are read
+        PrimitiveColumnReader reader = createReader(new int[] {1, 3}, new FilteredRowRanges(new long[] {12, 33}, new long[] {15, 36}));
+
+        reader.prepareNextRead(3);
+        assertValues(reader.readPrimitive(FIELD).getBlock(), 12, 13, 14);
+        reader.prepareNextRead(5);
+        assertValues(reader.readPrimitive(FIELD).getBlock(), 15, 33, 34, 35, 36);
+    }
+
+    @Test
+    public void testSkipBatchAcrossRowRanges()
+    {
+        PrimitiveColumnReader reader = createReader(new int[] {0, 1, 2, 3}, new FilteredRowRanges(new long[] {2, 25}, new long[] {4, 38}));
+
+        // the first batch is not loaded, as for a lazy block that is never accessed
+        reader.prepareNextRead(5);
+        reader.prepareNextRead(4);
+        assertValues(reader.readPrimitive(FIELD).getBlock(), 27, 28, 29, 30);
+        reader.prepareNextRead(4);
+        assertValues(reader.readPrimitive(FIELD, new int[] {0, 3}, 2), 31, 34);
+    }
+
+    @Test
+    public void testReadAllRows()
+    {
+        PrimitiveColumnReader reader = PrimitiveColumnReader.createReader(DESCRIPTOR, DateTimeZone.UTC);
+        reader.setPageReader(new PageReader(CompressionCodecName.UNCOMPRESSED, createPages(new int[] {0, 1}), null));
+
+        reader.prepareNextRead(8);
+        reader.prepareNextRead(4);
+        assertValues(reader.readPrimitive(FIELD).getBlock(), 8, 9, 10, 11);
+    }
+
+    private static PrimitiveColumnReader createReader(int[] pageIndexes, FilteredRowRanges rowRanges)
+    {
+        long[] firstRowIndexes = new long[pageIndexes.length];
+        for (int i = 0; i < pageIndexes.length; i++) {
+            firstRowIndexes[i] = (long) pageIndexes[i] * ROWS_PER_PAGE;
+        }
+        PrimitiveColumnReader reader = PrimitiveColumnReader.createReader(DESCRIPTOR, DateTimeZone.UTC);
+        reader.setPageReader(new PageReader(CompressionCodecName.UNCOMPRESSED, createPages(pageIndexes), null, firstRowIndexes), rowRanges);
+        return reader;
+    }
+
+    private static List<DataPage> createPages(int[] pageIndexes)
+    {
+        ImmutableList.Builder<DataPage> pages = ImmutableList.builder();
+        for (int pageIndex : pageIndexes) {
+            Slice data = Slices.allocate(ROWS_PER_PAGE * Long.BYTES);
+            for (int i = 0; i < ROWS_PER_PAGE; i++) {
+                data.setLong(i * Long.BYTES, (long) pageIndex * ROWS_PER_PAGE + i);
+            }
+            pages.add(new DataPageV1(data, ROWS_PER_PAGE, data.length(), null, RLE, RLE, PLAIN));
+        }
+        return pages.build();
+    }
+
+    private static OffsetIndex createOffsetIndex(int pageCount)
+    {
+        OffsetIndexBuilder builder = OffsetIndexBuilder.getBuilder();
+        for (int i = 0; i < pageCount; i++) {
+            builder.add(ROWS_PER_PAGE * Long.BYTES, ROWS_PER_PAGE);
+        }
+        return builder.build();
+    }
+
+    private static void assertValues(Block block, long... expected)
+    {
+        assertEquals(block.getPositionCount(), expected.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(BIGINT.getLong(block, i), expected[i]);
+        }
+    }
+}
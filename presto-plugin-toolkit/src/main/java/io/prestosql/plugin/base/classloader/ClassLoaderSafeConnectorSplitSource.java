@@ -54,6 +54,22 @@ public class ClassLoaderSafeConnectorSplitSource
         }
     }
 
+    @Override
+    public long getDynamicFilterPrunedSplits()
+    {
+        try (ThreadContextClassLoader ignored = new ThreadContextClassLoader(classLoader)) {
+            return delegate.getDynamicFilterPrunedSplits();
+        }
+    }
+
+    @Override
+    public long getDynamicFilterPrunedBytes()
+    {
+        try (ThreadContextClassLoader ignored = new ThreadContextClassLoader(classLoader)) {
+            return delegate.getDynamicFilterPrunedBytes();
+        }
+    }
+
     @Override
     public void close()
     {
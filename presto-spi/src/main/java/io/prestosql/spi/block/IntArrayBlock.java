@@ -255,6 +255,21 @@ public class IntArrayBlock
     @Override
     public boolean[] filter(BloomFilter filter, boolean[] validPositions)
     {
+        if (filter.isSplitBlock()) {
+            // a split block probe is a few masks on one cache line, cheap enough to run inline
+            for (int i = 0; i < positionCount; i++) {
+                if (!validPositions[i]) {
+                    continue;
+                }
+                if (valueIsNull != null && valueIsNull[i + arrayOffset]) {
+                    validPositions[i] = filter.mightContain(BloomFilter.hash((byte[]) null));
+                }
+                else {
+                    validPositions[i] = filter.mightContain(BloomFilter.hash(values[i + arrayOffset]));
+                }
+            }
+            return validPositions;
+        }
         for (int i = 0; i < positionCount; i++) {
             if (valueIsNull != null && valueIsNull[i + arrayOffset]) {
                 validPositions[i] = validPositions[i] && filter.test((byte[]) null);
@@ -0,0 +1,185 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.spi.connector;
+
+import io.prestosql.spi.Page;
+import io.prestosql.spi.PrestoException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+import static io.prestosql.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Page source that runs the blocking fetches of a {@link RecordPageSource} on a separate executor,
+ * so the driver thread never waits on the cursor. The next page is fetched while the driver
+ * processes the current one, and {@link #isBlocked()} is not done while a fetch is in progress.
+ * <p>
+ * The cursor is only used by one fetch at a time, so it does not need to be thread safe.
+ * <p>
+ * The prefetched page is held outside of the operator, so it is reported in the memory usage of
+ * this page source until the driver takes it. While a fetch is running, the size of the previous
+ * page is reported instead, so the memory is already accounted when the operator polls the usage
+ * right after {@link #getNextPage()}.
+ */
+public class AsyncRecordPageSource
+        implements ConnectorPageSource
+{
+    private final RecordPageSource delegate;
+    private final Executor executor;
+
+    private final Object lock = new Object();
+
+    // guarded by lock
+    private CompletableFuture<Page> pendingPage;
+    private boolean closed;
+
+    private volatile boolean finished;
+    // retained size of the prefetched page, or of the previous page while a fetch is running
+    private volatile long prefetchedBytes;
+
+    public AsyncRecordPageSource(RecordPageSource delegate, Executor executor)
+    {
+        this.delegate = requireNonNull(delegate, "delegate is null");
+        this.executor = requireNonNull(executor, "executor is null");
+    }
+
+    @Override
+    public long getCompletedBytes()
+    {
+        return delegate.getCompletedBytes();
+    }
+
+    @Override
+    public long getReadTimeNanos()
+    {
+        return delegate.getReadTimeNanos();
+    }
+
+    @Override
+    public long getMemoryUsage()
+    {
+        return delegate.getMemoryUsage() + prefetchedBytes;
+    }
+
+    @Override
+    public long getSystemMemoryUsage()
+    {
+        return delegate.getSystemMemoryUsage() + prefetchedBytes;
+    }
+
+    @Override
+    public boolean isFinished()
+    {
+        synchronized (lock) {
+            return closed || (finished && pendingPage == null);
+        }
+    }
+
+    @Override
+    public CompletableFuture<?> isBlocked()
+    {
+        synchronized (lock) {
+            CompletableFuture<Page> future = fetchIfNecessary();
+            return future == null || future.isDone() ? NOT_BLOCKED : future;
+        }
+    }
+
+    @Override
+    public Page getNextPage()
+    {
+        CompletableFuture<Page> future;
+        synchronized (lock) {
+            future = fetchIfNecessary();
+            if (future == null || !future.isDone()) {
+                return null;
+            }
+            pendingPage = null;
+        }
+
+        Page page;
+        try {
+            page = future.join();
+        }
+        catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new PrestoException(GENERIC_INTERNAL_ERROR, cause);
+        }
+
+        synchronized (lock) {
+            // start fetching the next page while the driver processes this one
+            if (fetchIfNecessary() == null) {
+                prefetchedBytes = 0;
+            }
+        }
+        return page;
+    }
+
+    private CompletableFuture<Page> fetchIfNecessary()
+    {
+        if (pendingPage == null && !closed && !finished) {
+            pendingPage = CompletableFuture.supplyAsync(this::fetchPage, executor);
+        }
+        return pendingPage;
+    }
+
+    private Page fetchPage()
+    {
+        // the delegate only returns a page once it is full, or the cursor is exhausted
+        while (true) {
+            Page page = delegate.getNextPage();
+            if (delegate.isFinished()) {
+                finished = true;
+            }
+            if (page != null || finished) {
+                synchronized (lock) {
+                    // a page fetched after close is dropped and must not stay accounted
+                    prefetchedBytes = page == null || closed ? 0 : page.getRetainedSizeInBytes();
+                }
+                return page;
+            }
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        CompletableFuture<Page> future;
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            future = pendingPage;
+            pendingPage = null;
+            prefetchedBytes = 0;
+        }
+
+        if (future == null || future.isDone()) {
+            delegate.close();
+        }
+        else {
+            // do not close the cursor under a running fetch, the fetch thread closes it when it returns
+            future.whenComplete((page, throwable) -> delegate.close());
+        }
+    }
+}
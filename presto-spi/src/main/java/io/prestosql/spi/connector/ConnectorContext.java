@@ -21,6 +21,7 @@ import io.prestosql.spi.block.BlockEncodingSerde;
 import io.prestosql.spi.function.FunctionMetadataManager;
 import io.prestosql.spi.function.StandardFunctionResolution;
 import io.prestosql.spi.heuristicindex.IndexClient;
+import io.prestosql.spi.memory.ReclaimableMemoryConsumer;
 import io.prestosql.spi.metastore.HetuMetastore;
 import io.prestosql.spi.plan.FilterStatsCalculatorService;
 import io.prestosql.spi.relation.RowExpressionService;
@@ -97,4 +98,12 @@ public interface ConnectorContext
     {
         return SpiVersionHolder.SPI_VERSION;
     }
+
+    /**
+     * Registers memory of the connector that the worker shrinks when it runs low on memory.
+     * Engines that do not manage connector memory ignore the consumer.
+     */
+    default void registerReclaimableMemoryConsumer(ReclaimableMemoryConsumer consumer)
+    {
+    }
 }
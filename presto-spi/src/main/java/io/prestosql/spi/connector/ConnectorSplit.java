@@ -18,6 +18,7 @@ import io.prestosql.spi.SplitWeight;
 import sun.reflect.generics.reflectiveObjects.NotImplementedException;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface ConnectorSplit
 {
@@ -55,6 +56,15 @@ public interface ConnectorSplit
         return false;
     }
 
+    /**
+     * Returns the key of the data the split reads through a worker-local cache. When cache affinity
+     * scheduling is enabled, splits with the same key are scheduled on the same worker.
+     */
+    default Optional<String> getCacheAffinityKey()
+    {
+        return Optional.empty();
+    }
+
     Object getInfo();
 
     default int getSplitCount()
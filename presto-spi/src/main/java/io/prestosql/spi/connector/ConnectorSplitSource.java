@@ -69,4 +69,20 @@ public interface ConnectorSplitSource
     {
         return Optional.empty();
     }
+
+    /**
+     * Returns the number of splits this source skipped so far because dynamic filters showed they cannot produce any row.
+     */
+    default long getDynamicFilterPrunedSplits()
+    {
+        return 0;
+    }
+
+    /**
+     * Returns the total size in bytes of the splits counted by {@link #getDynamicFilterPrunedSplits()}.
+     */
+    default long getDynamicFilterPrunedBytes()
+    {
+        return 0;
+    }
 }
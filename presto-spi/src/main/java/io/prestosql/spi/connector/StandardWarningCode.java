@@ -26,7 +26,8 @@ public enum StandardWarningCode
     PARSER_WARNING(0x0000_0005),
     SNAPSHOT_NOT_SUPPORTED(0x0000_0006),
     SNAPSHOT_RECOVERY(0X000_007),
-    TASK_RETRY_NOT_SUPPORTED(0x0000_0008)
+    TASK_RETRY_NOT_SUPPORTED(0x0000_0008),
+    JOIN_DISTRIBUTION_ADJUSTED(0x0000_0009)
     /**/;
     private final WarningCode warningCode;
 
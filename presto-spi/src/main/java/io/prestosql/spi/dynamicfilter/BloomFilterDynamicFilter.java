@@ -35,6 +35,8 @@ public class BloomFilterDynamicFilter
     public static final Logger log = Logger.get(BloomFilterDynamicFilter.class);
     public static final int DEFAULT_DYNAMIC_FILTER_SIZE = 1024 * 1024;
     public static final double DEFAULT_BLOOM_FILTER_FPP = 0.1D;
+    // ranges up to this many values are probed value by value when testing a range
+    private static final long MAX_PROBED_RANGE = 64;
     private byte[] bloomFilterSerialized;
     private BloomFilter bloomFilterDeserialized;
 
@@ -152,6 +154,29 @@ public class BloomFilterDynamicFilter
         return bloomFilterDeserialized.test(((String) value).getBytes());
     }
 
+    @Override
+    public boolean contains(long value)
+    {
+        return bloomFilterDeserialized.test(value);
+    }
+
+    @Override
+    public boolean overlapsRange(long low, long high)
+    {
+        if (!super.overlapsRange(low, high)) {
+            return false;
+        }
+        if (low > high || high - low < 0 || high - low >= MAX_PROBED_RANGE) {
+            return true;
+        }
+        for (long offset = 0; offset <= high - low; offset++) {
+            if (contains(low + offset)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public long getSize()
     {
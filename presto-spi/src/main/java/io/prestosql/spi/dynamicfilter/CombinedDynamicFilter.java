@@ -15,6 +15,7 @@
 package io.prestosql.spi.dynamicfilter;
 
 import com.google.common.collect.ImmutableList;
+import io.prestosql.spi.block.Block;
 import io.prestosql.spi.connector.ColumnHandle;
 import io.prestosql.spi.predicate.TupleDomain;
 
@@ -49,6 +50,25 @@ public class CombinedDynamicFilter
         return filter1.contains(value) && filter2.contains(value);
     }
 
+    @Override
+    public boolean contains(long value)
+    {
+        return filter1.contains(value) && filter2.contains(value);
+    }
+
+    @Override
+    public boolean overlapsRange(long low, long high)
+    {
+        return filter1.overlapsRange(low, high) && filter2.overlapsRange(low, high);
+    }
+
+    @Override
+    public int filter(io.prestosql.spi.type.Type valueType, Block block, int[] positions, int positionCount, int[] matchedPositions)
+    {
+        int matchCount = filter1.filter(valueType, block, positions, positionCount, matchedPositions);
+        return filter2.filter(valueType, block, matchedPositions, matchCount, matchedPositions);
+    }
+
     @Override
     public long getSize()
     {
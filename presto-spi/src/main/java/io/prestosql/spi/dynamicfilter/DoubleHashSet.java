@@ -0,0 +1,124 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.spi.dynamicfilter;
+
+import org.openjdk.jol.info.ClassLayout;
+
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.Iterator;
+
+import static java.lang.Double.doubleToLongBits;
+import static java.lang.Double.longBitsToDouble;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Set of double values stored by their bits in a {@link LongHashSet}, which matches
+ * the equality of {@link Double#equals(Object)}.
+ */
+public class DoubleHashSet
+        extends AbstractSet<Double>
+        implements Serializable
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(DoubleHashSet.class).instanceSize();
+
+    private final LongHashSet bits;
+
+    public DoubleHashSet()
+    {
+        this.bits = new LongHashSet();
+    }
+
+    public DoubleHashSet(int expectedSize)
+    {
+        this.bits = new LongHashSet(expectedSize);
+    }
+
+    public boolean add(double value)
+    {
+        return bits.add(doubleToLongBits(value));
+    }
+
+    public boolean contains(double value)
+    {
+        return bits.contains(doubleToLongBits(value));
+    }
+
+    public boolean remove(double value)
+    {
+        return bits.remove(doubleToLongBits(value));
+    }
+
+    @Override
+    public boolean add(Double value)
+    {
+        requireNonNull(value, "value is null");
+        return add(value.doubleValue());
+    }
+
+    @Override
+    public boolean contains(Object value)
+    {
+        return value instanceof Double && contains(((Double) value).doubleValue());
+    }
+
+    @Override
+    public boolean remove(Object value)
+    {
+        return value instanceof Double && remove(((Double) value).doubleValue());
+    }
+
+    @Override
+    public int size()
+    {
+        return bits.size();
+    }
+
+    @Override
+    public void clear()
+    {
+        bits.clear();
+    }
+
+    @Override
+    public Iterator<Double> iterator()
+    {
+        Iterator<Long> iterator = bits.iterator();
+        return new Iterator<Double>()
+        {
+            @Override
+            public boolean hasNext()
+            {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Double next()
+            {
+                return longBitsToDouble(iterator.next());
+            }
+
+            @Override
+            public void remove()
+            {
+                iterator.remove();
+            }
+        };
+    }
+
+    public long getRetainedSizeInBytes()
+    {
+        return INSTANCE_SIZE + bits.getRetainedSizeInBytes();
+    }
+}
@@ -14,12 +14,15 @@
  */
 package io.prestosql.spi.dynamicfilter;
 
+import io.prestosql.spi.block.Block;
 import io.prestosql.spi.connector.ColumnHandle;
 import io.prestosql.spi.predicate.TupleDomain;
 
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
 
+import static io.prestosql.spi.type.TypeUtils.readNativeValue;
+
 /**
  * DynamicFilter contains dynamic filter information and
  * one of value set, bloom filter, min/max values for filtering
@@ -130,6 +133,44 @@ public abstract class DynamicFilter
      */
     public abstract boolean contains(Object value);
 
+    /**
+     * Contains for a value of a type whose java type is long, overridden by filters that can avoid boxing it
+     *
+     * @return boolean whether or not the value is in the DynamicFilter
+     */
+    public boolean contains(long value)
+    {
+        return contains((Object) value);
+    }
+
+    /**
+     * Filter positions of a block in one call, overridden by filters that can test
+     * the values without reading them as objects
+     *
+     * @param type type of the values in the block
+     * @param block block to filter
+     * @param positions positions of the block to test
+     * @param positionCount number of positions to test
+     * @param matchedPositions receives the positions whose value is in the DynamicFilter, may be {@code positions}
+     * @return number of matched positions
+     */
+    public int filter(io.prestosql.spi.type.Type type, Block block, int[] positions, int positionCount, int[] matchedPositions)
+    {
+        return filterByValue(type, block, positions, positionCount, matchedPositions);
+    }
+
+    protected final int filterByValue(io.prestosql.spi.type.Type type, Block block, int[] positions, int positionCount, int[] matchedPositions)
+    {
+        int matchCount = 0;
+        for (int i = 0; i < positionCount; i++) {
+            int position = positions[i];
+            if (contains(readNativeValue(type, block, position))) {
+                matchedPositions[matchCount++] = position;
+            }
+        }
+        return matchCount;
+    }
+
     /**
      * Get the size of the current DynamicFilter
      *
@@ -204,6 +245,20 @@ public abstract class DynamicFilter
         return ((Long) min).compareTo(statsMax) <= 0 && statsMin.compareTo((Long) max) <= 0;
     }
 
+    /**
+     * Determine whether the current DynamicFilter may contain any value within the closed range [low, high],
+     * e.g. the min/max statistics of a partition, file, stripe or row group
+     *
+     * @return false only if no value in the range can match, otherwise true
+     */
+    public boolean overlapsRange(long low, long high)
+    {
+        if (min instanceof Long && max instanceof Long) {
+            return isRangeOverlaps(low, high);
+        }
+        return true;
+    }
+
     @Override
     public int hashCode()
     {
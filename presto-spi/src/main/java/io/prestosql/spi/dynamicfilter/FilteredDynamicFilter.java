@@ -15,6 +15,7 @@
 package io.prestosql.spi.dynamicfilter;
 
 import com.google.common.collect.ImmutableList;
+import io.prestosql.spi.block.Block;
 import io.prestosql.spi.connector.ColumnHandle;
 import io.prestosql.spi.relation.RowExpression;
 
@@ -57,6 +58,24 @@ public class FilteredDynamicFilter
         return false;
     }
 
+    @Override
+    public boolean contains(long value)
+    {
+        if (!filter.isPresent()) {
+            return super.contains(value);
+        }
+        return contains((Object) value);
+    }
+
+    @Override
+    public int filter(io.prestosql.spi.type.Type valueType, Block block, int[] positions, int positionCount, int[] matchedPositions)
+    {
+        if (!filter.isPresent()) {
+            return super.filter(valueType, block, positions, positionCount, matchedPositions);
+        }
+        return filterByValue(valueType, block, positions, positionCount, matchedPositions);
+    }
+
     @Override
     public DynamicFilter clone()
     {
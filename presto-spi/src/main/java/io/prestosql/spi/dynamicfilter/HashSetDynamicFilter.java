@@ -14,25 +14,88 @@
  */
 package io.prestosql.spi.dynamicfilter;
 
+import io.airlift.slice.Slice;
+import io.prestosql.spi.block.Block;
 import io.prestosql.spi.connector.ColumnHandle;
 import io.prestosql.spi.predicate.TupleDomain;
 
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 
 public class HashSetDynamicFilter
         extends DynamicFilter
 {
+    // value lists up to this size are checked value by value when testing a range
+    private static final int SMALL_VALUE_LIST_SIZE = 1024;
+
     protected Set valueSet;
 
     public HashSetDynamicFilter(String filterId, ColumnHandle columnHandle, Set valueSet, Type type)
     {
         super();
-        this.valueSet = valueSet;
+        this.valueSet = specialize(valueSet);
         this.columnHandle = columnHandle;
         this.filterId = filterId;
         this.type = type;
+        setMinMax(this.valueSet);
+    }
+
+    /**
+     * Create an empty set for collecting values of the given type, which avoids boxing
+     * the values when the java type of the type is long, double or Slice
+     */
+    public static Set<?> createValueSet(io.prestosql.spi.type.Type valueType)
+    {
+        Class<?> javaType = valueType.getJavaType();
+        if (javaType == long.class) {
+            return new LongHashSet();
+        }
+        if (javaType == double.class) {
+            return new DoubleHashSet();
+        }
+        if (javaType == Slice.class) {
+            return new SliceHashSet();
+        }
+        return new HashSet<>();
+    }
+
+    /**
+     * Copy values collected in a generic set, e.g. read from the state store, into a specialized set
+     */
+    private static Set specialize(Set valueSet)
+    {
+        if (valueSet == null || valueSet.isEmpty() || valueSet instanceof LongHashSet || valueSet instanceof DoubleHashSet || valueSet instanceof SliceHashSet) {
+            return valueSet;
+        }
+
+        Object first = valueSet.iterator().next();
+        Set specialized;
+        Class<?> valueClass;
+        if (first instanceof Long) {
+            specialized = new LongHashSet(valueSet.size());
+            valueClass = Long.class;
+        }
+        else if (first instanceof Double) {
+            specialized = new DoubleHashSet(valueSet.size());
+            valueClass = Double.class;
+        }
+        else if (first instanceof Slice) {
+            specialized = new SliceHashSet(valueSet.size());
+            valueClass = Slice.class;
+        }
+        else {
+            return valueSet;
+        }
+
+        for (Object value : valueSet) {
+            if (!valueClass.isInstance(value)) {
+                return valueSet;
+            }
+            specialized.add(value);
+        }
+        return specialized;
     }
 
     @Override
@@ -43,7 +106,11 @@ public class HashSetDynamicFilter
 
     private void setMinMax(Set valueSet)
     {
-        if (null != valueSet && !valueSet.isEmpty()) {
+        if (valueSet instanceof LongHashSet && !valueSet.isEmpty()) {
+            this.min = ((LongHashSet) valueSet).min();
+            this.max = ((LongHashSet) valueSet).max();
+        }
+        else if (null != valueSet && !valueSet.isEmpty()) {
             Object value = valueSet.iterator().next();
             if (value instanceof Long) {
                 this.min = Collections.min(valueSet);
@@ -52,6 +119,18 @@ public class HashSetDynamicFilter
         }
     }
 
+    @Override
+    public boolean overlapsRange(long low, long high)
+    {
+        if (!super.overlapsRange(low, high)) {
+            return false;
+        }
+        if (valueSet instanceof LongHashSet && valueSet.size() <= SMALL_VALUE_LIST_SIZE) {
+            return ((LongHashSet) valueSet).containsAnyInRange(low, high);
+        }
+        return true;
+    }
+
     public Set getSetValues()
     {
         return valueSet;
@@ -63,6 +142,53 @@ public class HashSetDynamicFilter
         return valueSet.contains(value);
     }
 
+    @Override
+    public boolean contains(long value)
+    {
+        if (valueSet instanceof LongHashSet) {
+            return ((LongHashSet) valueSet).contains(value);
+        }
+        return valueSet.contains(value);
+    }
+
+    @Override
+    public int filter(io.prestosql.spi.type.Type valueType, Block block, int[] positions, int positionCount, int[] matchedPositions)
+    {
+        Class<?> javaType = valueType.getJavaType();
+        int matchCount = 0;
+        if (valueSet instanceof LongHashSet && javaType == long.class) {
+            LongHashSet set = (LongHashSet) valueSet;
+            for (int i = 0; i < positionCount; i++) {
+                int position = positions[i];
+                if (!block.isNull(position) && set.contains(valueType.getLong(block, position))) {
+                    matchedPositions[matchCount++] = position;
+                }
+            }
+            return matchCount;
+        }
+        if (valueSet instanceof DoubleHashSet && javaType == double.class) {
+            DoubleHashSet set = (DoubleHashSet) valueSet;
+            for (int i = 0; i < positionCount; i++) {
+                int position = positions[i];
+                if (!block.isNull(position) && set.contains(valueType.getDouble(block, position))) {
+                    matchedPositions[matchCount++] = position;
+                }
+            }
+            return matchCount;
+        }
+        if (valueSet instanceof SliceHashSet && javaType == Slice.class) {
+            SliceHashSet set = (SliceHashSet) valueSet;
+            for (int i = 0; i < positionCount; i++) {
+                int position = positions[i];
+                if (!block.isNull(position) && set.contains(valueType.getSlice(block, position))) {
+                    matchedPositions[matchCount++] = position;
+                }
+            }
+            return matchCount;
+        }
+        return filterByValue(valueType, block, positions, positionCount, matchedPositions);
+    }
+
     @Override
     public long getSize()
     {
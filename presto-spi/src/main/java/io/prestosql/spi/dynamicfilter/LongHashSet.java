@@ -0,0 +1,367 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.spi.dynamicfilter;
+
+import org.openjdk.jol.info.ClassLayout;
+
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static io.airlift.slice.SizeOf.sizeOf;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Open addressing set of long values, used to collect and probe dynamic filter values
+ * without boxing. Zero marks an empty slot and is tracked separately.
+ * Iterating or adding through the {@link java.util.Set} interface boxes the values,
+ * so that the set can still be handed to code expecting a set of {@link Long}.
+ * Removed values are not replaced by tombstones: the rest of their probe sequence is shifted back.
+ */
+public class LongHashSet
+        extends AbstractSet<Long>
+        implements Serializable
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(LongHashSet.class).instanceSize();
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float FILL_RATIO = 0.75f;
+
+    private long[] values;
+    private int mask;
+    private int maxFill;
+    private int size;
+    private boolean containsZero;
+
+    public LongHashSet()
+    {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LongHashSet(int expectedSize)
+    {
+        int capacity = arraySize(expectedSize);
+        values = new long[capacity];
+        mask = capacity - 1;
+        maxFill = maxFill(capacity);
+    }
+
+    public boolean add(long value)
+    {
+        if (value == 0) {
+            if (containsZero) {
+                return false;
+            }
+            containsZero = true;
+            size++;
+            return true;
+        }
+
+        int position = hash(value) & mask;
+        while (values[position] != 0) {
+            if (values[position] == value) {
+                return false;
+            }
+            position = (position + 1) & mask;
+        }
+        values[position] = value;
+        size++;
+        if (size >= maxFill) {
+            rehash(values.length * 2);
+        }
+        return true;
+    }
+
+    public boolean contains(long value)
+    {
+        if (value == 0) {
+            return containsZero;
+        }
+
+        int position = hash(value) & mask;
+        long current;
+        while ((current = values[position]) != 0) {
+            if (current == value) {
+                return true;
+            }
+            position = (position + 1) & mask;
+        }
+        return false;
+    }
+
+    public boolean remove(long value)
+    {
+        if (value == 0) {
+            if (!containsZero) {
+                return false;
+            }
+            containsZero = false;
+            size--;
+            return true;
+        }
+
+        int position = hash(value) & mask;
+        long current;
+        while ((current = values[position]) != 0) {
+            if (current == value) {
+                shiftBack(position, null);
+                size--;
+                return true;
+            }
+            position = (position + 1) & mask;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean add(Long value)
+    {
+        requireNonNull(value, "value is null");
+        return add(value.longValue());
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends Long> collection)
+    {
+        if (!(collection instanceof LongHashSet)) {
+            return super.addAll(collection);
+        }
+        LongHashSet other = (LongHashSet) collection;
+        boolean modified = other.containsZero && add(0L);
+        for (long value : other.values) {
+            if (value != 0) {
+                modified |= add(value);
+            }
+        }
+        return modified;
+    }
+
+    @Override
+    public boolean contains(Object value)
+    {
+        return value instanceof Long && contains(((Long) value).longValue());
+    }
+
+    @Override
+    public boolean remove(Object value)
+    {
+        return value instanceof Long && remove(((Long) value).longValue());
+    }
+
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    @Override
+    public void clear()
+    {
+        values = new long[DEFAULT_CAPACITY];
+        mask = DEFAULT_CAPACITY - 1;
+        maxFill = maxFill(DEFAULT_CAPACITY);
+        size = 0;
+        containsZero = false;
+    }
+
+    @Override
+    public Iterator<Long> iterator()
+    {
+        return new Iterator<Long>()
+        {
+            private static final int NONE = -1;
+            private static final int ZERO = -2;
+            private static final int WRAPPED = -3;
+
+            // the table is walked backwards, so that removing a value only shifts values that were
+            // already returned, except for the ones moved from the start to the end of the table
+            private final List<Long> wrapped = new ArrayList<>();
+            private boolean zeroPending = containsZero;
+            private int remaining = size;
+            private int position = values.length;
+            private int wrappedPosition;
+            private int last = NONE;
+
+            @Override
+            public boolean hasNext()
+            {
+                return remaining > 0;
+            }
+
+            @Override
+            public Long next()
+            {
+                if (remaining == 0) {
+                    throw new NoSuchElementException();
+                }
+                remaining--;
+                if (zeroPending) {
+                    zeroPending = false;
+                    last = ZERO;
+                    return 0L;
+                }
+                while (position > 0) {
+                    position--;
+                    if (values[position] != 0) {
+                        last = position;
+                        return values[position];
+                    }
+                }
+                last = WRAPPED;
+                return wrapped.get(wrappedPosition++);
+            }
+
+            @Override
+            public void remove()
+            {
+                if (last == NONE) {
+                    throw new IllegalStateException();
+                }
+                if (last == WRAPPED) {
+                    // the whole table has been walked, so shifting it cannot hide any value
+                    LongHashSet.this.remove(wrapped.get(wrappedPosition - 1).longValue());
+                }
+                else {
+                    if (last == ZERO) {
+                        containsZero = false;
+                    }
+                    else {
+                        shiftBack(last, wrapped);
+                    }
+                    size--;
+                }
+                last = NONE;
+            }
+        };
+    }
+
+    /**
+     * Returns whether any value of the set lies within the closed range [low, high],
+     * scanning the slots directly so that no value is boxed
+     */
+    public boolean containsAnyInRange(long low, long high)
+    {
+        if (containsZero && low <= 0 && 0 <= high) {
+            return true;
+        }
+        for (long value : values) {
+            if (value != 0 && low <= value && value <= high) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public long min()
+    {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        long min = containsZero ? 0 : Long.MAX_VALUE;
+        for (long value : values) {
+            if (value != 0) {
+                min = Math.min(min, value);
+            }
+        }
+        return min;
+    }
+
+    public long max()
+    {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        long max = containsZero ? 0 : Long.MIN_VALUE;
+        for (long value : values) {
+            if (value != 0) {
+                max = Math.max(max, value);
+            }
+        }
+        return max;
+    }
+
+    public long getRetainedSizeInBytes()
+    {
+        return INSTANCE_SIZE + sizeOf(values);
+    }
+
+    /**
+     * Empties the given slot and moves back the values that follow it in their probe sequence.
+     * Values moved from the start of the table to its end are added to {@code wrapped}, if present.
+     */
+    private void shiftBack(int position, List<Long> wrapped)
+    {
+        int last = position;
+        while (true) {
+            int next = (last + 1) & mask;
+            long current;
+            while (true) {
+                current = values[next];
+                if (current == 0) {
+                    values[last] = 0;
+                    return;
+                }
+                int home = hash(current) & mask;
+                // the value can fill the slot unless its home lies cyclically within (last, next]
+                if (last <= next ? (home <= last || home > next) : (home <= last && home > next)) {
+                    break;
+                }
+                next = (next + 1) & mask;
+            }
+            if (next < last && wrapped != null) {
+                wrapped.add(current);
+            }
+            values[last] = current;
+            last = next;
+        }
+    }
+
+    private void rehash(int newCapacity)
+    {
+        long[] oldValues = values;
+        values = new long[newCapacity];
+        mask = newCapacity - 1;
+        maxFill = maxFill(newCapacity);
+        for (long value : oldValues) {
+            if (value != 0) {
+                int position = hash(value) & mask;
+                while (values[position] != 0) {
+                    position = (position + 1) & mask;
+                }
+                values[position] = value;
+            }
+        }
+    }
+
+    private static int hash(long value)
+    {
+        // mix the bits so that sequential keys are spread over the table
+        long hash = value * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    private static int arraySize(int expectedSize)
+    {
+        long capacity = Math.max(DEFAULT_CAPACITY, (long) Math.ceil(expectedSize / FILL_RATIO));
+        return (int) Math.min(1 << 30, Long.highestOneBit(capacity - 1) << 1);
+    }
+
+    private static int maxFill(int capacity)
+    {
+        return Math.min(capacity - 1, (int) Math.ceil(capacity * FILL_RATIO));
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.spi.dynamicfilter;
+
+import io.airlift.slice.Slice;
+import io.airlift.slice.XxHash64;
+import org.openjdk.jol.info.ClassLayout;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static io.prestosql.spi.util.SizeOf.sizeOf;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Open addressing set of {@link Slice} values. The hash of every value is kept next to it,
+ * so that probing only compares the bytes of values whose hashes match.
+ * Removed values are not replaced by tombstones: the rest of their probe sequence is shifted back.
+ */
+public class SliceHashSet
+        extends AbstractSet<Slice>
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(SliceHashSet.class).instanceSize();
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final float FILL_RATIO = 0.75f;
+
+    private Slice[] values;
+    private long[] hashes;
+    private int mask;
+    private int maxFill;
+    private int size;
+    private long valuesSizeInBytes;
+
+    public SliceHashSet()
+    {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public SliceHashSet(int expectedSize)
+    {
+        long capacity = Math.max(DEFAULT_CAPACITY, (long) Math.ceil(expectedSize / FILL_RATIO));
+        allocate((int) Math.min(1 << 30, Long.highestOneBit(capacity - 1) << 1));
+    }
+
+    @Override
+    public boolean add(Slice value)
+    {
+        requireNonNull(value, "value is null");
+        long hash = XxHash64.hash(value);
+        int position = (int) hash & mask;
+        while (values[position] != null) {
+            if (hashes[position] == hash && values[position].equals(value)) {
+                return false;
+            }
+            position = (position + 1) & mask;
+        }
+        values[position] = value;
+        hashes[position] = hash;
+        valuesSizeInBytes += value.getRetainedSize();
+        size++;
+        if (size >= maxFill) {
+            rehash();
+        }
+        return true;
+    }
+
+    public boolean contains(Slice value)
+    {
+        long hash = XxHash64.hash(value);
+        int position = (int) hash & mask;
+        Slice current;
+        while ((current = values[position]) != null) {
+            if (hashes[position] == hash && current.equals(value)) {
+                return true;
+            }
+            position = (position + 1) & mask;
+        }
+        return false;
+    }
+
+    public boolean remove(Slice value)
+    {
+        long hash = XxHash64.hash(value);
+        int position = (int) hash & mask;
+        Slice current;
+        while ((current = values[position]) != null) {
+            if (hashes[position] == hash && current.equals(value)) {
+                valuesSizeInBytes -= current.getRetainedSize();
+                shiftBack(position, null);
+                size--;
+                return true;
+            }
+            position = (position + 1) & mask;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean remove(Object value)
+    {
+        return value instanceof Slice && remove((Slice) value);
+    }
+
+    @Override
+    public boolean contains(Object value)
+    {
+        return value instanceof Slice && contains((Slice) value);
+    }
+
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    @Override
+    public void clear()
+    {
+        allocate(DEFAULT_CAPACITY);
+        size = 0;
+        valuesSizeInBytes = 0;
+    }
+
+    @Override
+    public Iterator<Slice> iterator()
+    {
+        return new Iterator<Slice>()
+        {
+            // the table is walked backwards, so that removing a value only shifts values that were
+            // already returned, except for the ones moved from the start to the end of the table
+            private final List<Slice> wrapped = new ArrayList<>();
+            private int remaining = size;
+            private int position = values.length;
+            private int wrappedPosition;
+            private Slice last;
+            private boolean lastWrapped;
+
+            @Override
+            public boolean hasNext()
+            {
+                return remaining > 0;
+            }
+
+            @Override
+            public Slice next()
+            {
+                if (remaining == 0) {
+                    throw new NoSuchElementException();
+                }
+                remaining--;
+                while (position > 0) {
+                    position--;
+                    if (values[position] != null) {
+                        last = values[position];
+                        lastWrapped = false;
+                        return last;
+                    }
+                }
+                last = wrapped.get(wrappedPosition++);
+                lastWrapped = true;
+                return last;
+            }
+
+            @Override
+            public void remove()
+            {
+                if (last == null) {
+                    throw new IllegalStateException();
+                }
+                if (lastWrapped) {
+                    // the whole table has been walked, so shifting it cannot hide any value
+                    SliceHashSet.this.remove(last);
+                }
+                else {
+                    valuesSizeInBytes -= last.getRetainedSize();
+                    shiftBack(position, wrapped);
+                    size--;
+                }
+                last = null;
+            }
+        };
+    }
+
+    public long getRetainedSizeInBytes()
+    {
+        return INSTANCE_SIZE + sizeOf(values) + sizeOf(hashes) + valuesSizeInBytes;
+    }
+
+    private void allocate(int capacity)
+    {
+        values = new Slice[capacity];
+        hashes = new long[capacity];
+        mask = capacity - 1;
+        maxFill = Math.min(capacity - 1, (int) Math.ceil(capacity * FILL_RATIO));
+    }
+
+    /**
+     * Empties the given slot and moves back the values that follow it in their probe sequence.
+     * Values moved from the start of the table to its end are added to {@code wrapped}, if present.
+     */
+    private void shiftBack(int position, List<Slice> wrapped)
+    {
+        int last = position;
+        while (true) {
+            int next = (last + 1) & mask;
+            Slice current;
+            while (true) {
+                current = values[next];
+                if (current == null) {
+                    values[last] = null;
+                    return;
+                }
+                int home = (int) hashes[next] & mask;
+                // the value can fill the slot unless its home lies cyclically within (last, next]
+                if (last <= next ? (home <= last || home > next) : (home <= last && home > next)) {
+                    break;
+                }
+                next = (next + 1) & mask;
+            }
+            if (next < last && wrapped != null) {
+                wrapped.add(current);
+            }
+            values[last] = current;
+            hashes[last] = hashes[next];
+            last = next;
+        }
+    }
+
+    private void rehash()
+    {
+        Slice[] oldValues = values;
+        long[] oldHashes = hashes;
+        allocate(values.length * 2);
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int position = (int) oldHashes[i] & mask;
+                while (values[position] != null) {
+                    position = (position + 1) & mask;
+                }
+                values[position] = oldValues[i];
+                hashes[position] = oldHashes[i];
+            }
+        }
+    }
+}
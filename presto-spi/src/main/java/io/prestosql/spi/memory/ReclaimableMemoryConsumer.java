@@ -0,0 +1,40 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.spi.memory;
+
+/**
+ * Memory held by a connector outside of query reservations, such as a cache, that the engine
+ * asks the connector to release when a worker runs low on memory.
+ */
+public interface ReclaimableMemoryConsumer
+{
+    long getRetainedSizeInBytes();
+
+    /**
+     * Whether the memory is allocated in direct buffers outside of the heap. Direct memory is
+     * shrunk when the direct memory of the JVM runs low, heap memory when the general pool does.
+     */
+    default boolean isDirectMemory()
+    {
+        return false;
+    }
+
+    /**
+     * Releases memory, trying to release at least the given number of bytes. Called from a
+     * background thread of the engine.
+     *
+     * @return the number of bytes released
+     */
+    long reclaim(long bytes);
+}
@@ -0,0 +1,35 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.spi.snapshot;
+
+import java.io.IOException;
+
+/**
+ * Captured state that writes itself to the binary snapshot state format, instead of being serialized by reflection.
+ * Implementations need a public no-argument constructor, which creates the object that {@link #readState} is called on when restoring.
+ */
+public interface BinarySnapshotState
+{
+    /**
+     * Write the fields of this state, in the order they are read back by {@link #readState}
+     */
+    void writeState(SnapshotStateOutput output)
+            throws IOException;
+
+    /**
+     * Read the fields written by {@link #writeState} into this newly created state
+     */
+    void readState(SnapshotStateInput input)
+            throws IOException, ClassNotFoundException;
+}
@@ -0,0 +1,42 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.spi.snapshot;
+
+import java.io.IOException;
+
+/**
+ * Input of the binary snapshot state format, passed to {@link BinarySnapshotState#readState}
+ */
+public interface SnapshotStateInput
+{
+    boolean readBoolean();
+
+    int readInt();
+
+    long readLong();
+
+    double readDouble();
+
+    /**
+     * Read a value written by {@link SnapshotStateOutput#writeObject}
+     */
+    Object readObject()
+            throws IOException, ClassNotFoundException;
+
+    /**
+     * Read a value written by {@link SnapshotStateOutput#writeSerializable}
+     */
+    Object readSerializable()
+            throws IOException, ClassNotFoundException;
+}
@@ -0,0 +1,46 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.spi.snapshot;
+
+import java.io.IOException;
+
+/**
+ * Output of the binary snapshot state format, passed to {@link BinarySnapshotState#writeState}
+ */
+public interface SnapshotStateOutput
+{
+    void writeBoolean(boolean value);
+
+    void writeInt(int value);
+
+    void writeLong(long value);
+
+    void writeDouble(double value);
+
+    /**
+     * Write a value that has a binary format: null, boxed primitives, strings, enums, arrays, fastutil int and long array lists,
+     * java.util array lists, hash sets and hash maps of such values, and {@link BinarySnapshotState} objects.
+     * Primitive arrays are copied in bulk.
+     *
+     * @throws java.io.NotSerializableException if the value, or anything it contains, has no binary format
+     */
+    void writeObject(Object value)
+            throws IOException;
+
+    /**
+     * Write a value with Java serialization. Only meant for small parts of a state, such as operator context or spiller states.
+     */
+    void writeSerializable(Object value)
+            throws IOException;
+}
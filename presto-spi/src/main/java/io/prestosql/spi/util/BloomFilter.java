@@ -115,6 +115,24 @@ public class BloomFilter
         return (int) (-n * Math.log(p) / (Math.log(2) * Math.log(2)));
     }
 
+    /**
+     * Hash of a long value as used by {@link #add(long)} and {@link #test(long)},
+     * to be passed to {@link #mightContain(long)}.
+     */
+    public static long hash(long value)
+    {
+        return getLongHash(value);
+    }
+
+    /**
+     * Hash of a byte array (or null) as used by {@link #add(byte[])} and {@link #test(byte[])},
+     * to be passed to {@link #mightContain(long)}.
+     */
+    public static long hash(byte[] value)
+    {
+        return (value == null) ? NULL_HASHCODE : OrcMurmur3.hash64(value);
+    }
+
     // Thomas Wang's integer hash function
     // http://web.archive.org/web/20071223173210/http://www.concentric.net/~Ttwang/tech/inthash.htm
     private static long getLongHash(long inputKey)
@@ -151,7 +169,9 @@ public class BloomFilter
             for (int i = 0; i < localNumBits; i++) {
                 bits[i] = dataInputStream.readLong();
             }
-            BloomFilter bloomFilter = new BloomFilter(bits, localNumHashFunctions);
+            BloomFilter bloomFilter = localNumHashFunctions == SplitBlockBloomFilter.SERIALIZED_LAYOUT_MARKER
+                    ? new SplitBlockBloomFilter(bits)
+                    : new BloomFilter(bits, localNumHashFunctions);
             try {
                 long localMin = dataInputStream.readLong();
                 long localMax = dataInputStream.readLong();
@@ -189,6 +209,10 @@ public class BloomFilter
             return;
         }
 
+        if (isSplitBlock() != that.isSplitBlock()) {
+            throw new IllegalArgumentException("BloomFilter to merge must have same layout");
+        }
+
         if (numHashFunctions != that.getNumHashFunctions()) {
             throw new IllegalArgumentException("BloomFilter to merge must have same number of hash functions");
         }
@@ -230,11 +254,15 @@ public class BloomFilter
 
         // Lets split up 64-bit hashcode into two 32-bit hash codes and employ the technique mentioned
         // in the above paper
-        long hash64 = (val == null) ? NULL_HASHCODE : OrcMurmur3.hash64(val);
-        addHash(hash64);
+        putHash(hash(val));
     }
 
-    private void addHash(long hash64)
+    /**
+     * Add a value given its hash, as computed by one of the {@code hash} methods
+     *
+     * @param hash64 hash of the value
+     */
+    public void putHash(long hash64)
     {
         int hash1 = (int) hash64;
         int hash2 = (int) (hash64 >>> 32);
@@ -254,7 +282,7 @@ public class BloomFilter
     {
         setMinMaxStats(val);
 
-        addHash(getLongHash(val));
+        putHash(getLongHash(val));
     }
 
     public void add(Slice val)
@@ -266,7 +294,7 @@ public class BloomFilter
     public void addLong(long val)
     {
         setMinMaxStats(val);
-        addHash(getLongHash(val));
+        putHash(getLongHash(val));
     }
 
     private void setMinMaxStats(long val)
@@ -293,17 +321,22 @@ public class BloomFilter
 
     public boolean test(byte[] val)
     {
-        long hash64 = (val == null) ? NULL_HASHCODE : OrcMurmur3.hash64(val);
-        return testHash(hash64);
+        return mightContain(hash(val));
     }
 
     public boolean test(Slice val)
     {
         long hash64 = (val == null) ? NULL_HASHCODE : OrcMurmur3.hash64(val);
-        return testHash(hash64);
+        return mightContain(hash64);
     }
 
-    private boolean testHash(long hash64)
+    /**
+     * Test a value given its hash, as computed by one of the {@code hash} methods
+     *
+     * @param hash64 hash of the value
+     * @return false if the value is definitely not in the filter
+     */
+    public boolean mightContain(long hash64)
     {
         int hash1 = (int) hash64;
         int hash2 = (int) (hash64 >>> 32);
@@ -324,7 +357,7 @@ public class BloomFilter
 
     public boolean test(long val)
     {
-        return testHash(getLongHash(val));
+        return mightContain(getLongHash(val));
     }
 
     public boolean test(double val)
@@ -352,6 +385,19 @@ public class BloomFilter
         return bitSet.getData();
     }
 
+    protected BitSet getBits()
+    {
+        return bitSet;
+    }
+
+    /**
+     * Whether this filter uses the cache line blocked layout of {@link SplitBlockBloomFilter}
+     */
+    public boolean isSplitBlock()
+    {
+        return false;
+    }
+
     /**
      * Returns the probability that test() method return true for an object
      * that has not actually been put in the BloomFilter.
@@ -398,7 +444,7 @@ public class BloomFilter
     {
         DataOutputStream dataOutputStream = new DataOutputStream(out);
         long[] bits = bitSet.getData();
-        dataOutputStream.writeInt(numHashFunctions);
+        dataOutputStream.writeInt(isSplitBlock() ? SplitBlockBloomFilter.SERIALIZED_LAYOUT_MARKER : numHashFunctions);
         dataOutputStream.writeInt(bits.length);
         for (int i = 0; i < bits.length; i++) {
             dataOutputStream.writeLong(bits[i]);
@@ -0,0 +1,145 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.spi.util;
+
+import com.google.common.annotations.VisibleForTesting;
+import org.openjdk.jol.info.ClassLayout;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static io.airlift.slice.SizeOf.sizeOf;
+
+/**
+ * Bloom filter using the split block layout described in "Cache-, Hash- and Space-Efficient
+ * Bloom Filters" by Putze et al. and used by Parquet. The bit set is divided into blocks of
+ * 256 bits, each made of eight 32-bit words. A value selects a single block with the upper
+ * half of its hash and sets one bit in every word of that block, using the lower half of the
+ * hash multiplied by a per word salt. A probe therefore touches one block, four adjacent longs
+ * within a single cache line, instead of {@code k} random cache lines, and can be evaluated
+ * without branches.
+ * <p>
+ * For the same number of bits the false positive probability is higher than the one of the
+ * classic layout, so the filter is sized for eight hash functions, which takes slightly more
+ * bits for the same expected false positive probability, see {@code BenchmarkBloomFilter}.
+ */
+public class SplitBlockBloomFilter
+        extends BloomFilter
+{
+    private static final int INSTANCE_SIZE = ClassLayout.parseClass(SplitBlockBloomFilter.class).instanceSize() + ClassLayout.parseClass(BitSet.class).instanceSize();
+
+    // written in place of the number of hash functions by BloomFilter.writeTo()
+    static final int SERIALIZED_LAYOUT_MARKER = -1;
+
+    private static final int WORDS_PER_BLOCK = 8;
+    private static final int BITS_PER_BLOCK = WORDS_PER_BLOCK * Integer.SIZE;
+    private static final int LONGS_PER_BLOCK = BITS_PER_BLOCK / Long.SIZE;
+    // bit positions are ints, see BitSet
+    private static final int MAX_BLOCKS = Integer.MAX_VALUE / BITS_PER_BLOCK;
+
+    // salts from the Parquet specification, one per word
+    private static final int[] SALT = {
+            0x47b6137b, 0x44974d91, 0x8824ad5b, 0xa2b7289d,
+            0x705495c7, 0x2df1424b, 0x9efc4947, 0x5c6bfb31};
+
+    private final long[] data;
+    private final long numBlocks;
+
+    public SplitBlockBloomFilter(long expectedEntries, double fpp)
+    {
+        this(new long[numBlocks(expectedEntries, fpp) * LONGS_PER_BLOCK]);
+    }
+
+    /**
+     * A constructor to support rebuilding the filter from a serialized representation.
+     *
+     * @param bits the serialized bits, a multiple of 256 bits
+     */
+    public SplitBlockBloomFilter(long[] bits)
+    {
+        super(bits, WORDS_PER_BLOCK);
+        checkArgument(bits.length % LONGS_PER_BLOCK == 0, "bits must be a multiple of the block size");
+        checkArgument(bits.length / LONGS_PER_BLOCK <= MAX_BLOCKS, "bits must not exceed %s blocks", MAX_BLOCKS);
+        this.data = bits;
+        this.numBlocks = bits.length / LONGS_PER_BLOCK;
+    }
+
+    @VisibleForTesting
+    static int numBlocks(long expectedEntries, double fpp)
+    {
+        checkArgument(expectedEntries > 0, "expectedEntries should be > 0");
+        checkArgument(fpp > 0.0 && fpp < 1.0, "False positive probability should be > 0.0 & < 1.0");
+        // sized as a classic filter with one hash function per word, as in the Parquet specification
+        double numBits = -WORDS_PER_BLOCK * expectedEntries / Math.log(1 - Math.pow(fpp, 1.0 / WORDS_PER_BLOCK));
+        return (int) Math.max(1, Math.min(Math.ceil(numBits / BITS_PER_BLOCK), MAX_BLOCKS));
+    }
+
+    @Override
+    public void putHash(long hash64)
+    {
+        int blockOffset = blockIndex(hash64) * BITS_PER_BLOCK;
+        int key = (int) hash64;
+        BitSet bits = getBits();
+        for (int i = 0; i < WORDS_PER_BLOCK; i++) {
+            bits.set(blockOffset + i * Integer.SIZE + bitInWord(key, i));
+        }
+    }
+
+    @Override
+    public boolean mightContain(long hash64)
+    {
+        return probe(hash64);
+    }
+
+    private boolean probe(long hash64)
+    {
+        int offset = blockIndex(hash64) * LONGS_PER_BLOCK;
+        int key = (int) hash64;
+        long mask0 = mask(key, 0);
+        long mask1 = mask(key, 2);
+        long mask2 = mask(key, 4);
+        long mask3 = mask(key, 6);
+        // non short-circuit to keep the probe free of branches
+        return ((data[offset] & mask0) == mask0)
+                & ((data[offset + 1] & mask1) == mask1)
+                & ((data[offset + 2] & mask2) == mask2)
+                & ((data[offset + 3] & mask3) == mask3);
+    }
+
+    private int blockIndex(long hash64)
+    {
+        return (int) (((hash64 >>> 32) * numBlocks) >>> 32);
+    }
+
+    // bits of words 'word' and 'word + 1', which share one long
+    private static long mask(int key, int word)
+    {
+        return (1L << bitInWord(key, word)) | (1L << (Integer.SIZE + bitInWord(key, word + 1)));
+    }
+
+    private static int bitInWord(int key, int word)
+    {
+        return (key * SALT[word]) >>> 27;
+    }
+
+    @Override
+    public boolean isSplitBlock()
+    {
+        return true;
+    }
+
+    @Override
+    public long getRetainedSizeInBytes()
+    {
+        return INSTANCE_SIZE + sizeOf(data);
+    }
+}
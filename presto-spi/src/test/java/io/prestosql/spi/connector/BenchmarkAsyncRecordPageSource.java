@@ -0,0 +1,290 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.spi.connector;
+
+import io.airlift.slice.Slice;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.type.Type;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Scans many remote tables concurrently with a small, fixed number of driver threads, the way
+ * federated JDBC scans run in the task executor. The cursor sleeps once per fetch to simulate the
+ * round trip to the remote database.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@BenchmarkMode(Mode.AverageTime)
+public class BenchmarkAsyncRecordPageSource
+{
+    private static final int ROWS_PER_SCAN = 10_000;
+    private static final int ROWS_PER_FETCH = 1_000;
+    private static final long FETCH_LATENCY_MILLIS = 1;
+
+    @Benchmark
+    public long scan(BenchmarkData data)
+            throws Exception
+    {
+        List<List<ConnectorPageSource>> assignments = new ArrayList<>();
+        for (int driver = 0; driver < data.driverThreads; driver++) {
+            assignments.add(new ArrayList<>());
+        }
+        for (int scan = 0; scan < data.scans; scan++) {
+            assignments.get(scan % data.driverThreads).add(data.createPageSource());
+        }
+
+        List<Future<Long>> drivers = new ArrayList<>();
+        for (List<ConnectorPageSource> pageSources : assignments) {
+            drivers.add(data.driverExecutor.submit(() -> drive(pageSources)));
+        }
+        long rows = 0;
+        for (Future<Long> driver : drivers) {
+            rows += driver.get();
+        }
+        return rows;
+    }
+
+    /**
+     * Round robin over the page sources, only waiting when all of them are blocked, like a driver
+     * thread of the task executor that moves on to other splits.
+     */
+    private static long drive(List<ConnectorPageSource> pageSources)
+            throws Exception
+    {
+        List<ConnectorPageSource> remaining = new ArrayList<>(pageSources);
+        long rows = 0;
+        while (!remaining.isEmpty()) {
+            boolean progress = false;
+            List<CompletableFuture<?>> blocked = new ArrayList<>();
+            for (Iterator<ConnectorPageSource> iterator = remaining.iterator(); iterator.hasNext(); ) {
+                ConnectorPageSource pageSource = iterator.next();
+                if (pageSource.isFinished()) {
+                    pageSource.close();
+                    iterator.remove();
+                    progress = true;
+                    continue;
+                }
+                CompletableFuture<?> future = pageSource.isBlocked();
+                if (!future.isDone()) {
+                    blocked.add(future);
+                    continue;
+                }
+                Page page = pageSource.getNextPage();
+                if (page != null) {
+                    rows += page.getPositionCount();
+                }
+                progress = true;
+            }
+            if (!progress && !blocked.isEmpty()) {
+                CompletableFuture.anyOf(blocked.toArray(new CompletableFuture[0])).get();
+            }
+        }
+        return rows;
+    }
+
+    @State(Scope.Thread)
+    public static class BenchmarkData
+    {
+        @Param({"false", "true"})
+        private boolean async;
+
+        @Param("200")
+        private int scans = 200;
+
+        @Param("4")
+        private int driverThreads = 4;
+
+        private ExecutorService driverExecutor;
+        private ExecutorService fetchExecutor;
+
+        @Setup
+        public void setup()
+        {
+            driverExecutor = Executors.newFixedThreadPool(driverThreads, daemonThreadFactory());
+            fetchExecutor = Executors.newCachedThreadPool(daemonThreadFactory());
+        }
+
+        @TearDown
+        public void tearDown()
+        {
+            driverExecutor.shutdownNow();
+            fetchExecutor.shutdownNow();
+        }
+
+        public ConnectorPageSource createPageSource()
+        {
+            RecordPageSource pageSource = new RecordPageSource(Collections.singletonList(BIGINT), new RemoteCursor());
+            if (async) {
+                return new AsyncRecordPageSource(pageSource, fetchExecutor);
+            }
+            return pageSource;
+        }
+
+        private static ThreadFactory daemonThreadFactory()
+        {
+            return runnable -> {
+                Thread thread = new Thread(runnable);
+                thread.setDaemon(true);
+                return thread;
+            };
+        }
+    }
+
+    private static class RemoteCursor
+            implements RecordCursor
+    {
+        private long position = -1;
+
+        @Override
+        public long getCompletedBytes()
+        {
+            return 0;
+        }
+
+        @Override
+        public long getReadTimeNanos()
+        {
+            return 0;
+        }
+
+        @Override
+        public Type getType(int field)
+        {
+            return BIGINT;
+        }
+
+        @Override
+        public boolean advanceNextPosition()
+        {
+            position++;
+            if (position >= ROWS_PER_SCAN) {
+                return false;
+            }
+            if (position % ROWS_PER_FETCH == 0) {
+                // round trip to the remote database for the next batch of rows
+                try {
+                    Thread.sleep(FETCH_LATENCY_MILLIS);
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException(e);
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public boolean getBoolean(int field)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long getLong(int field)
+        {
+            return position;
+        }
+
+        @Override
+        public double getDouble(int field)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Slice getSlice(int field)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Object getObject(int field)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isNull(int field)
+        {
+            return false;
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+
+    @Test
+    public void verify()
+            throws Exception
+    {
+        for (boolean async : new boolean[] {false, true}) {
+            BenchmarkData data = new BenchmarkData();
+            data.async = async;
+            data.scans = 20;
+            data.setup();
+            try {
+                assertEquals(scan(data), 20L * ROWS_PER_SCAN);
+            }
+            finally {
+                data.tearDown();
+            }
+        }
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkAsyncRecordPageSource.class.getSimpleName() + ".*")
+                .build();
+        new Runner(options).run();
+    }
+}
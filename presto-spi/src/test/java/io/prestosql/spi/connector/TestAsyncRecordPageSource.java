@@ -0,0 +1,276 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.spi.connector;
+
+import io.airlift.slice.Slice;
+import io.prestosql.spi.Page;
+import io.prestosql.spi.PrestoException;
+import io.prestosql.spi.type.Type;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static io.prestosql.spi.StandardErrorCode.GENERIC_INTERNAL_ERROR;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class TestAsyncRecordPageSource
+{
+    private ExecutorService executor;
+
+    @BeforeClass
+    public void setUp()
+    {
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+    {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testReadAllPages()
+            throws Exception
+    {
+        InMemoryRecordSet.Builder records = InMemoryRecordSet.builder(Collections.singletonList(BIGINT));
+        for (long i = 0; i < 200_000; i++) {
+            records.addRow(i);
+        }
+
+        ConnectorPageSource pageSource = new AsyncRecordPageSource(new RecordPageSource(records.build()), executor);
+        long rows = 0;
+        long sum = 0;
+        while (!pageSource.isFinished()) {
+            pageSource.isBlocked().get(10, TimeUnit.SECONDS);
+            Page page = pageSource.getNextPage();
+            if (page != null) {
+                rows += page.getPositionCount();
+                for (int position = 0; position < page.getPositionCount(); position++) {
+                    sum += BIGINT.getLong(page.getBlock(0), position);
+                }
+            }
+        }
+        pageSource.close();
+
+        assertEquals(rows, 200_000);
+        assertEquals(sum, 200_000L * (200_000 - 1) / 2);
+    }
+
+    @Test
+    public void testPrefetchedPageMemoryUsage()
+            throws Exception
+    {
+        InMemoryRecordSet.Builder records = InMemoryRecordSet.builder(Collections.singletonList(BIGINT));
+        for (long i = 0; i < 200_000; i++) {
+            records.addRow(i);
+        }
+        RecordPageSource delegate = new RecordPageSource(records.build());
+        ConnectorPageSource pageSource = new AsyncRecordPageSource(delegate, executor);
+
+        pageSource.isBlocked().get(10, TimeUnit.SECONDS);
+        Page page = pageSource.getNextPage();
+        assertTrue(page != null);
+        // the previous page size is reserved for the fetch that was started by getNextPage
+        assertTrue(pageSource.getSystemMemoryUsage() >= page.getRetainedSizeInBytes());
+
+        pageSource.isBlocked().get(10, TimeUnit.SECONDS);
+        assertTrue(pageSource.getSystemMemoryUsage() > delegate.getSystemMemoryUsage());
+
+        pageSource.close();
+        assertEquals(pageSource.getSystemMemoryUsage(), delegate.getSystemMemoryUsage());
+    }
+
+    @Test
+    public void testDriverDoesNotWaitOnFetch()
+            throws Exception
+    {
+        BlockingCursor cursor = new BlockingCursor();
+        ConnectorPageSource pageSource = new AsyncRecordPageSource(new RecordPageSource(Collections.singletonList(BIGINT), cursor), executor);
+
+        CompletableFuture<?> blocked = pageSource.isBlocked();
+        assertFalse(blocked.isDone());
+        assertNull(pageSource.getNextPage());
+        assertFalse(pageSource.isFinished());
+
+        cursor.release();
+        blocked.get(10, TimeUnit.SECONDS);
+        assertNull(pageSource.getNextPage());
+        assertTrue(pageSource.isFinished());
+        pageSource.close();
+        assertTrue(cursor.isClosed());
+    }
+
+    @Test
+    public void testCloseDuringFetch()
+            throws Exception
+    {
+        BlockingCursor cursor = new BlockingCursor();
+        ConnectorPageSource pageSource = new AsyncRecordPageSource(new RecordPageSource(Collections.singletonList(BIGINT), cursor), executor);
+
+        CompletableFuture<?> blocked = pageSource.isBlocked();
+        pageSource.close();
+        assertTrue(pageSource.isFinished());
+        // the cursor is still in use by the fetch
+        assertFalse(cursor.isClosed());
+
+        cursor.release();
+        blocked.get(10, TimeUnit.SECONDS);
+        assertTrue(cursor.awaitClosed());
+    }
+
+    @Test
+    public void testFetchFailure()
+            throws Exception
+    {
+        BlockingCursor cursor = new BlockingCursor();
+        cursor.failWith(new PrestoException(GENERIC_INTERNAL_ERROR, "remote failure"));
+        ConnectorPageSource pageSource = new AsyncRecordPageSource(new RecordPageSource(Collections.singletonList(BIGINT), cursor), executor);
+
+        CompletableFuture<?> blocked = pageSource.isBlocked();
+        cursor.release();
+        try {
+            blocked.get(10, TimeUnit.SECONDS);
+        }
+        catch (Exception ignored) {
+            // the failure is reported by getNextPage
+        }
+
+        try {
+            pageSource.getNextPage();
+            fail("expected failure");
+        }
+        catch (PrestoException e) {
+            assertEquals(e.getMessage(), "remote failure");
+        }
+        pageSource.close();
+    }
+
+    private static class BlockingCursor
+            implements RecordCursor
+    {
+        private final CountDownLatch released = new CountDownLatch(1);
+        private final CountDownLatch closed = new CountDownLatch(1);
+        private volatile RuntimeException failure;
+
+        public void release()
+        {
+            released.countDown();
+        }
+
+        public void failWith(RuntimeException failure)
+        {
+            this.failure = failure;
+        }
+
+        public boolean isClosed()
+        {
+            return closed.getCount() == 0;
+        }
+
+        public boolean awaitClosed()
+                throws InterruptedException
+        {
+            return closed.await(10, TimeUnit.SECONDS);
+        }
+
+        @Override
+        public long getCompletedBytes()
+        {
+            return 0;
+        }
+
+        @Override
+        public long getReadTimeNanos()
+        {
+            return 0;
+        }
+
+        @Override
+        public Type getType(int field)
+        {
+            return BIGINT;
+        }
+
+        @Override
+        public boolean advanceNextPosition()
+        {
+            try {
+                released.await();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return false;
+        }
+
+        @Override
+        public boolean getBoolean(int field)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long getLong(int field)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public double getDouble(int field)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Slice getSlice(int field)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Object getObject(int field)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isNull(int field)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close()
+        {
+            closed.countDown();
+        }
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.spi.dynamicfilter;
+
+import com.google.common.collect.ImmutableSet;
+import io.airlift.slice.Slice;
+import io.prestosql.spi.block.Block;
+import io.prestosql.spi.block.BlockBuilder;
+import io.prestosql.spi.connector.ColumnHandle;
+import io.prestosql.spi.util.BloomFilter;
+import org.testng.annotations.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.prestosql.spi.type.BigintType.BIGINT;
+import static io.prestosql.spi.type.DoubleType.DOUBLE;
+import static io.prestosql.spi.type.VarcharType.VARCHAR;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestDynamicFilterValueSets
+{
+    @Test
+    public void testLongHashSet()
+    {
+        LongHashSet set = new LongHashSet();
+        Set<Long> expected = new HashSet<>();
+        for (long value = -5_000; value < 5_000; value += 3) {
+            assertTrue(set.add(value));
+            expected.add(value);
+        }
+        assertFalse(set.add(0L));
+        assertFalse(set.add(3L));
+
+        assertEquals(set.size(), expected.size());
+        assertEquals(set, expected);
+        assertEquals(new HashSet<>(set), expected);
+        for (long value = -5_000; value < 5_000; value++) {
+            assertEquals(set.contains(value), expected.contains(value));
+        }
+        assertFalse(set.contains("0"));
+
+        LongHashSet copy = new LongHashSet(1);
+        copy.addAll(set);
+        assertEquals(copy, expected);
+
+        set.clear();
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains(0L));
+    }
+
+    @Test
+    public void testDoubleHashSet()
+    {
+        DoubleHashSet set = new DoubleHashSet();
+        set.add(1.5);
+        set.add(-0.0);
+        set.add(Double.NaN);
+
+        assertEquals(set, ImmutableSet.of(1.5, -0.0, Double.NaN));
+        assertTrue(set.contains(Double.NaN));
+        assertFalse(set.contains(0.0));
+        assertFalse(set.contains((Object) 1L));
+    }
+
+    @Test
+    public void testSliceHashSet()
+    {
+        SliceHashSet set = new SliceHashSet();
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(set.add(utf8Slice("value" + i)));
+        }
+        assertFalse(set.add(utf8Slice("value1")));
+
+        assertEquals(set.size(), 1_000);
+        assertTrue(set.contains(utf8Slice("value999")));
+        assertFalse(set.contains(utf8Slice("value1000")));
+        assertFalse(set.contains("value1"));
+        assertEquals(new HashSet<>(set).size(), 1_000);
+    }
+
+    @Test
+    public void testRemove()
+    {
+        // small tables with many collisions, so that removals shift probe sequences across the end of the table
+        Random random = new Random(42);
+        for (int round = 0; round < 1_000; round++) {
+            LongHashSet longs = new LongHashSet(random.nextInt(12));
+            SliceHashSet slices = new SliceHashSet(random.nextInt(12));
+            Set<Long> expected = new HashSet<>();
+            for (int i = random.nextInt(40); i > 0; i--) {
+                long value = random.nextInt(100) - 10;
+                longs.add(value);
+                slices.add(utf8Slice(String.valueOf(value)));
+                expected.add(value);
+            }
+
+            Set<Long> returned = new HashSet<>();
+            longs.removeIf(value -> {
+                assertTrue(returned.add(value));
+                return value % 3 == 0;
+            });
+            assertEquals(returned, expected);
+            slices.removeIf(value -> Long.parseLong(value.toStringUtf8()) % 3 == 0);
+            expected.removeIf(value -> value % 3 == 0);
+
+            assertEquals(longs, expected);
+            assertEquals(slices.size(), expected.size());
+            for (long value = -10; value < 90; value++) {
+                assertEquals(longs.contains(value), expected.contains(value));
+                assertEquals(slices.contains(utf8Slice(String.valueOf(value))), expected.contains(value));
+            }
+
+            assertEquals(longs.remove(1L), expected.contains(1L));
+            assertEquals(slices.remove(utf8Slice("1")), expected.contains(1L));
+            assertFalse(longs.contains(1L));
+            assertFalse(slices.contains(utf8Slice("1")));
+        }
+
+        DoubleHashSet doubles = new DoubleHashSet();
+        doubles.add(1.5);
+        doubles.add(0.0);
+        doubles.add(Double.NaN);
+        assertTrue(doubles.remove(Double.NaN));
+        assertFalse(doubles.remove(-0.0));
+        doubles.removeIf(value -> value == 0.0);
+        assertEquals(doubles, ImmutableSet.of(1.5));
+    }
+
+    @Test
+    public void testCreateValueSet()
+    {
+        assertTrue(HashSetDynamicFilter.createValueSet(BIGINT) instanceof LongHashSet);
+        assertTrue(HashSetDynamicFilter.createValueSet(DOUBLE) instanceof DoubleHashSet);
+        assertTrue(HashSetDynamicFilter.createValueSet(VARCHAR) instanceof SliceHashSet);
+    }
+
+    @Test
+    public void testSpecializedFilter()
+    {
+        HashSetDynamicFilter filter = new HashSetDynamicFilter("filterId", null, new HashSet<>(ImmutableSet.of(1L, 3L, 5L)), DynamicFilter.Type.LOCAL);
+        assertTrue(filter.getSetValues() instanceof LongHashSet);
+        assertTrue(filter.contains(3L));
+        assertTrue(filter.contains((Object) 3L));
+        assertFalse(filter.contains(4L));
+
+        BlockBuilder blockBuilder = BIGINT.createBlockBuilder(null, 6);
+        for (long value = 0; value < 5; value++) {
+            BIGINT.writeLong(blockBuilder, value);
+        }
+        blockBuilder.appendNull();
+        Block block = blockBuilder.build();
+
+        int[] positions = {0, 1, 2, 3, 4, 5};
+        int matchCount = filter.filter(BIGINT, block, positions, positions.length, positions);
+        assertEquals(matchCount, 2);
+        assertEquals(positions[0], 1);
+        assertEquals(positions[1], 3);
+    }
+
+    @Test
+    public void testOverlapsRange()
+    {
+        ColumnHandle column = new ColumnHandle() {};
+        HashSetDynamicFilter filter = new HashSetDynamicFilter("filterId", column, new HashSet<>(ImmutableSet.of(1L, 3L, 50L)), DynamicFilter.Type.LOCAL);
+        assertEquals(filter.getMin(), 1L);
+        assertEquals(filter.getMax(), 50L);
+        assertFalse(filter.overlapsRange(51, 100));
+        assertFalse(filter.overlapsRange(-10, 0));
+        // within min/max but between the values of the small value list
+        assertFalse(filter.overlapsRange(4, 49));
+        assertTrue(filter.overlapsRange(2, 3));
+        assertTrue(filter.overlapsRange(50, 50));
+
+        Set<Long> values = new HashSet<>();
+        for (long value = 0; value < 10_000; value += 2) {
+            values.add(value);
+        }
+        HashSetDynamicFilter largeFilter = new HashSetDynamicFilter("filterId", null, values, DynamicFilter.Type.LOCAL);
+        assertFalse(largeFilter.overlapsRange(10_000, 20_000));
+        assertTrue(largeFilter.overlapsRange(1, 1));
+
+        BloomFilter bloomFilter = new BloomFilter(1000, 0.001);
+        bloomFilter.addLong(10);
+        bloomFilter.addLong(20);
+        bloomFilter.addLong(1000);
+        BloomFilterDynamicFilter bloomFilterDynamicFilter = new BloomFilterDynamicFilter("filterId", column, bloomFilter, DynamicFilter.Type.LOCAL);
+        assertFalse(bloomFilterDynamicFilter.overlapsRange(0, 5));
+        assertFalse(bloomFilterDynamicFilter.overlapsRange(11, 19));
+        assertTrue(bloomFilterDynamicFilter.overlapsRange(15, 25));
+        assertTrue(bloomFilterDynamicFilter.overlapsRange(100, 900));
+
+        CombinedDynamicFilter combined = new CombinedDynamicFilter(column, filter, bloomFilterDynamicFilter);
+        assertTrue(combined.overlapsRange(3, 10));
+        assertFalse(combined.overlapsRange(4, 15));
+    }
+
+    @Test
+    public void testSliceFilter()
+    {
+        Set<Slice> values = ImmutableSet.of(utf8Slice("a"), utf8Slice("c"));
+        HashSetDynamicFilter filter = new HashSetDynamicFilter("filterId", null, values, DynamicFilter.Type.LOCAL);
+        assertTrue(filter.getSetValues() instanceof SliceHashSet);
+
+        BlockBuilder blockBuilder = VARCHAR.createBlockBuilder(null, 3);
+        VARCHAR.writeSlice(blockBuilder, utf8Slice("a"));
+        VARCHAR.writeSlice(blockBuilder, utf8Slice("b"));
+        VARCHAR.writeSlice(blockBuilder, utf8Slice("c"));
+        Block block = blockBuilder.build();
+
+        int[] positions = {0, 1, 2};
+        int[] matchedPositions = new int[3];
+        assertEquals(filter.filter(VARCHAR, block, positions, 3, matchedPositions), 2);
+        assertEquals(matchedPositions[0], 0);
+        assertEquals(matchedPositions[1], 2);
+    }
+}
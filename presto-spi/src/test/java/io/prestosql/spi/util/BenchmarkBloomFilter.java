@@ -18,8 +18,10 @@ import com.google.common.hash.Funnels;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.Fork;
 import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
 import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.Warmup;
 import org.openjdk.jmh.runner.Runner;
@@ -30,6 +32,7 @@ import org.openjdk.jmh.runner.options.VerboseMode;
 
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.Random;
 import java.util.concurrent.TimeUnit;
 
 @State(Scope.Thread)
@@ -39,6 +42,9 @@ import java.util.concurrent.TimeUnit;
 @Measurement(iterations = 20, time = 500, timeUnit = TimeUnit.MILLISECONDS)
 public class BenchmarkBloomFilter
 {
+    private static final int ENTRIES = 1024 * 1024;
+    private static final int PROBES = 1024 * 1024;
+
     @Benchmark
     public void buildBloomFilter()
     {
@@ -57,9 +63,88 @@ public class BenchmarkBloomFilter
         }
     }
 
+    @Benchmark
+    @OperationsPerInvocation(PROBES)
+    public int probeBloomFilter(ProbeData data)
+    {
+        return probe(data.getBloomFilter(), data.getProbes());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PROBES)
+    public int probeSplitBlockBloomFilter(ProbeData data)
+    {
+        return probe(data.getSplitBlockBloomFilter(), data.getProbes());
+    }
+
+    private static int probe(BloomFilter filter, long[] probes)
+    {
+        int matches = 0;
+        for (long probe : probes) {
+            if (filter.test(probe)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Both filters use the same number of bits, so that probe throughput and
+     * false positive rate can be compared at equal size
+     */
+    @State(Scope.Thread)
+    public static class ProbeData
+    {
+        private BloomFilter bloomFilter;
+        private BloomFilter splitBlockBloomFilter;
+        private long[] probes;
+
+        @Setup
+        public void setup()
+        {
+            bloomFilter = new BloomFilter(ENTRIES, 0.01);
+            // round the classic filter size up to whole 256 bit blocks
+            splitBlockBloomFilter = new SplitBlockBloomFilter(new long[(bloomFilter.getBitSet().length + 3) / 4 * 4]);
+            Random random = new Random(42);
+            for (int i = 0; i < ENTRIES; i++) {
+                long value = random.nextLong();
+                bloomFilter.add(value);
+                splitBlockBloomFilter.add(value);
+            }
+
+            // none of the probes were added, with high probability, so every match is a false positive
+            probes = new long[PROBES];
+            for (int i = 0; i < PROBES; i++) {
+                probes[i] = random.nextLong();
+            }
+        }
+
+        public BloomFilter getBloomFilter()
+        {
+            return bloomFilter;
+        }
+
+        public BloomFilter getSplitBlockBloomFilter()
+        {
+            return splitBlockBloomFilter;
+        }
+
+        public long[] getProbes()
+        {
+            return probes;
+        }
+    }
+
     public static void main(String[] args)
             throws RunnerException
     {
+        ProbeData data = new ProbeData();
+        data.setup();
+        System.out.printf("false positive rate at %s bits: classic %.4f, split block %.4f%n",
+                data.getBloomFilter().getNumBits(),
+                (double) probe(data.getBloomFilter(), data.getProbes()) / PROBES,
+                (double) probe(data.getSplitBlockBloomFilter(), data.getProbes()) / PROBES);
+
         Options options = new OptionsBuilder()
                 .verbosity(VerboseMode.NORMAL)
                 .include(".*" + BenchmarkBloomFilter.class.getSimpleName() + ".*")
@@ -0,0 +1,180 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.spi.util;
+
+import io.prestosql.spi.block.IntArrayBlock;
+import io.prestosql.spi.block.LongArrayBlock;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertThrows;
+import static org.testng.Assert.assertTrue;
+
+public class TestSplitBlockBloomFilter
+{
+    private static final int COUNT = 100_000;
+
+    @Test
+    public void testNoFalseNegatives()
+    {
+        BloomFilter filter = new SplitBlockBloomFilter(COUNT, 0.01);
+        assertTrue(filter.isEmpty());
+        for (int i = 0; i < COUNT; i++) {
+            filter.add((long) i * 7);
+            filter.add(("item-" + i).getBytes(StandardCharsets.UTF_8));
+        }
+        filter.add((byte[]) null);
+        assertFalse(filter.isEmpty());
+
+        for (int i = 0; i < COUNT; i++) {
+            assertTrue(filter.test((long) i * 7));
+            assertTrue(filter.test(("item-" + i).getBytes(StandardCharsets.UTF_8)));
+        }
+        assertTrue(filter.test((byte[]) null));
+        assertEquals(filter.getMin(), 0L);
+        assertEquals(filter.getMax(), (long) (COUNT - 1) * 7);
+    }
+
+    @Test
+    public void testFalsePositiveRate()
+    {
+        BloomFilter filter = new SplitBlockBloomFilter(COUNT, 0.01);
+        for (int i = 0; i < COUNT; i++) {
+            filter.add((long) i);
+        }
+
+        int falsePositives = 0;
+        for (int i = COUNT; i < 2 * COUNT; i++) {
+            if (filter.test((long) i)) {
+                falsePositives++;
+            }
+        }
+        // the blocked layout trades a little accuracy for locality
+        assertTrue(falsePositives < COUNT * 0.02, "false positives: " + falsePositives);
+    }
+
+    @Test
+    public void testProbeByHash()
+    {
+        for (BloomFilter filter : new BloomFilter[] {new BloomFilter(COUNT, 0.1), new SplitBlockBloomFilter(COUNT, 0.1)}) {
+            for (int i = 0; i < COUNT; i += 2) {
+                filter.add((long) i);
+            }
+            for (int i = 0; i < COUNT; i++) {
+                assertEquals(filter.mightContain(BloomFilter.hash((long) i)), filter.test((long) i));
+            }
+        }
+    }
+
+    @Test
+    public void testNumBlocks()
+    {
+        assertEquals(SplitBlockBloomFilter.numBlocks(1, 0.5), 1);
+        // bit positions of larger filters would not fit an int
+        assertEquals(SplitBlockBloomFilter.numBlocks(Integer.MAX_VALUE, 0.01), Integer.MAX_VALUE / 256);
+        assertEquals(SplitBlockBloomFilter.numBlocks(Long.MAX_VALUE, 0.01), Integer.MAX_VALUE / 256);
+    }
+
+    @Test
+    public void testBlockFilter()
+    {
+        int positions = 1000;
+        long[] longs = new long[positions];
+        int[] ints = new int[positions];
+        boolean[] nulls = new boolean[positions];
+        for (int i = 0; i < positions; i++) {
+            longs[i] = i;
+            ints[i] = i;
+            nulls[i] = i % 10 == 9;
+        }
+        LongArrayBlock longBlock = new LongArrayBlock(positions, Optional.of(nulls), longs);
+        IntArrayBlock intBlock = new IntArrayBlock(positions, Optional.of(nulls), ints);
+
+        for (BloomFilter filter : new BloomFilter[] {new BloomFilter(positions, 0.01), new SplitBlockBloomFilter(positions, 0.01)}) {
+            for (int i = 0; i < positions; i += 2) {
+                filter.add((long) i);
+            }
+
+            boolean[] longMatches = longBlock.filter(filter, initialPositions(positions));
+            boolean[] intMatches = intBlock.filter(filter, initialPositions(positions));
+            for (int i = 0; i < positions; i++) {
+                boolean expected = i % 3 != 0 && (nulls[i] ? filter.test((byte[]) null) : filter.test((long) i));
+                assertEquals(longMatches[i], expected, "position " + i);
+                assertEquals(intMatches[i], expected, "position " + i);
+            }
+        }
+    }
+
+    // positions already rejected by an earlier filter must stay rejected
+    private static boolean[] initialPositions(int positions)
+    {
+        boolean[] valid = new boolean[positions];
+        for (int i = 0; i < positions; i++) {
+            valid[i] = i % 3 != 0;
+        }
+        return valid;
+    }
+
+    @Test
+    public void testSerDe()
+            throws IOException
+    {
+        BloomFilter filter = new SplitBlockBloomFilter(COUNT, 0.1);
+        for (int i = 0; i < COUNT; i++) {
+            filter.add((long) i);
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        filter.writeTo(out);
+        BloomFilter deserialized = BloomFilter.readFrom(new ByteArrayInputStream(out.toByteArray()));
+
+        assertTrue(deserialized.isSplitBlock());
+        assertEquals(deserialized, filter);
+        assertEquals(deserialized.getMin(), 0L);
+        assertEquals(deserialized.getMax(), (long) COUNT - 1);
+        for (int i = 0; i < COUNT; i++) {
+            assertTrue(deserialized.test((long) i));
+        }
+    }
+
+    @Test
+    public void testMerge()
+    {
+        BloomFilter filter1 = new SplitBlockBloomFilter(COUNT, 0.1);
+        BloomFilter filter2 = new SplitBlockBloomFilter(COUNT, 0.1);
+        for (int i = 0; i < COUNT; i++) {
+            if (i % 2 == 0) {
+                filter1.add((long) i);
+            }
+            else {
+                filter2.add((long) i);
+            }
+        }
+
+        filter1.merge(filter2);
+        for (int i = 0; i < COUNT; i++) {
+            assertTrue(filter1.test((long) i));
+        }
+        assertEquals(filter1.getMax(), (long) COUNT - 1);
+
+        assertThrows(IllegalArgumentException.class, () -> filter1.merge(new BloomFilter(COUNT, 0.1)));
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.execution;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.Key;
+import io.prestosql.Session;
+import io.prestosql.client.Warning;
+import io.prestosql.cost.JoinBuildSizeHistory;
+import io.prestosql.spi.QueryId;
+import io.prestosql.spi.plan.JoinNode;
+import io.prestosql.sql.planner.optimizations.PlanNodeSearcher;
+import io.prestosql.testing.MaterializedResult;
+import io.prestosql.tests.DistributedQueryRunner;
+import io.prestosql.tests.ResultWithQueryId;
+import org.intellij.lang.annotations.Language;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static io.prestosql.SystemSessionProperties.ADAPTIVE_JOIN_DISTRIBUTION_ENABLED;
+import static io.prestosql.SystemSessionProperties.JOIN_DISTRIBUTION_TYPE;
+import static io.prestosql.SystemSessionProperties.JOIN_MAX_BROADCAST_TABLE_SIZE;
+import static io.prestosql.execution.TestQueryRunnerUtil.createQueryRunner;
+import static io.prestosql.spi.connector.StandardWarningCode.JOIN_DISTRIBUTION_ADJUSTED;
+import static io.prestosql.spi.plan.JoinNode.DistributionType.PARTITIONED;
+import static io.prestosql.spi.plan.JoinNode.DistributionType.REPLICATED;
+import static io.prestosql.testing.TestingSession.testSessionBuilder;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestAdaptiveJoinDistribution
+{
+    // the filter on the build side cannot be estimated, so the planner expects most of orders to survive it
+    @Language("SQL")
+    private static final String QUERY = "SELECT l.orderkey, l.linenumber FROM lineitem l JOIN orders o ON l.orderkey = o.orderkey WHERE o.orderkey % 1000 = 0";
+
+    private DistributedQueryRunner queryRunner;
+    private Session session;
+
+    @BeforeClass
+    public void setUp()
+            throws Exception
+    {
+        queryRunner = createQueryRunner();
+        session = testSessionBuilder()
+                .setCatalog("tpch")
+                .setSchema("tiny")
+                .setSystemProperty(JOIN_DISTRIBUTION_TYPE, "AUTOMATIC")
+                .setSystemProperty(JOIN_MAX_BROADCAST_TABLE_SIZE, "10kB")
+                .setSystemProperty(ADAPTIVE_JOIN_DISTRIBUTION_ENABLED, "true")
+                .build();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown()
+    {
+        queryRunner.close();
+        queryRunner = null;
+    }
+
+    @Test(timeOut = 120_000)
+    public void testSmallBuildSideIsReplicatedOnNextRun()
+            throws Exception
+    {
+        JoinBuildSizeHistory history = queryRunner.getCoordinator().getInstance(Key.get(JoinBuildSizeHistory.class));
+
+        // nothing has been observed yet, so the first run keeps the cost based choice
+        ResultWithQueryId<MaterializedResult> first = queryRunner.executeWithQueryId(session, QUERY);
+        assertEquals(getJoinDistributionTypes(first.getQueryId()), ImmutableSet.of(PARTITIONED));
+        assertFalse(hasAdjustedWarning(first.getResult()));
+
+        // build sides are recorded from the final query info, which is delivered asynchronously
+        while (history.getRecordedJoins() == 0) {
+            MILLISECONDS.sleep(10);
+        }
+
+        // the build side recorded from the distributed plan must be found again while planning the same query
+        ResultWithQueryId<MaterializedResult> second = queryRunner.executeWithQueryId(session, QUERY);
+        assertEquals(getJoinDistributionTypes(second.getQueryId()), ImmutableSet.of(REPLICATED));
+        assertTrue(hasAdjustedWarning(second.getResult()));
+        assertEquals(history.getReplicatedAdjustments(), 1);
+        assertEquals(history.getPartitionedAdjustments(), 0);
+        assertEquals(second.getResult().getMaterializedRows(), first.getResult().getMaterializedRows());
+    }
+
+    private Set<JoinNode.DistributionType> getJoinDistributionTypes(QueryId queryId)
+    {
+        List<JoinNode> joins = PlanNodeSearcher.searchFrom(queryRunner.getQueryPlan(queryId).getRoot())
+                .where(JoinNode.class::isInstance)
+                .findAll();
+        return joins.stream()
+                .map(join -> join.getDistributionType().get())
+                .collect(toImmutableSet());
+    }
+
+    private static boolean hasAdjustedWarning(MaterializedResult result)
+    {
+        List<Integer> codes = result.getWarnings().stream()
+                .map(Warning::getWarningCode)
+                .map(Warning.Code::getCode)
+                .collect(toImmutableList());
+        return codes.contains(JOIN_DISTRIBUTION_ADJUSTED.toWarningCode().getCode());
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.prestosql.tests;
+
+import com.google.common.collect.ImmutableMap;
+import io.prestosql.Session;
+import io.prestosql.plugin.tpch.TpchPlugin;
+import io.prestosql.testing.MaterializedResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static io.prestosql.testing.TestingSession.testSessionBuilder;
+
+/**
+ * Compares the polling exchange with the credit based flow control exchange on a local multi-worker cluster.
+ * Sample time mode reports the latency percentiles of every query next to the average throughput.
+ */
+@SuppressWarnings("MethodMayBeStatic")
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Fork(1)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.SampleTime)
+public class BenchmarkDistributedExchange
+{
+    @SuppressWarnings("FieldMayBeFinal")
+    @State(Scope.Benchmark)
+    public static class BenchmarkData
+    {
+        private final Map<String, String> queries = ImmutableMap.of(
+                "REPARTITION", "SELECT count(*) FROM (SELECT orderkey, count(*) FROM lineitem GROUP BY orderkey)",
+                "JOIN", "SELECT count(*) FROM lineitem l JOIN orders o ON l.orderkey = o.orderkey",
+                "GATHER", "SELECT sum(length(comment)) FROM (SELECT comment FROM lineitem ORDER BY comment LIMIT 100000)");
+
+        @Param({"REPARTITION", "JOIN", "GATHER"})
+        private String queryId = "REPARTITION";
+        @Param({"false", "true"})
+        private String creditBasedFlowControl = "false";
+        @Param("4")
+        private String nodeCount = "4";
+        @Param("sf1")
+        private String schema = "sf1";
+
+        private DistributedQueryRunner queryRunner;
+        private String query;
+
+        @Setup
+        public void setup()
+                throws Exception
+        {
+            Session session = testSessionBuilder()
+                    .setCatalog("tpch")
+                    .setSchema(schema)
+                    .build();
+            queryRunner = DistributedQueryRunner.builder(session)
+                    .setNodeCount(Integer.parseInt(nodeCount))
+                    .setExtraProperties(ImmutableMap.of("exchange.credit-based-flow-control", creditBasedFlowControl))
+                    .build();
+            queryRunner.installPlugin(new TpchPlugin());
+            queryRunner.createCatalog("tpch", "tpch");
+
+            query = queries.get(queryId);
+        }
+
+        @TearDown
+        public void tearDown()
+        {
+            queryRunner.close();
+            queryRunner = null;
+        }
+    }
+
+    @Benchmark
+    public MaterializedResult exchange(BenchmarkData benchmarkData)
+    {
+        return benchmarkData.queryRunner.execute(benchmarkData.query);
+    }
+
+    public static void main(String[] args)
+            throws Throwable
+    {
+        // assure the benchmarks are valid before running
+        BenchmarkData data = new BenchmarkData();
+        data.schema = "tiny";
+        data.setup();
+        try {
+            new BenchmarkDistributedExchange().exchange(data);
+        }
+        finally {
+            data.tearDown();
+        }
+
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkDistributedExchange.class.getSimpleName() + ".*")
+                .build();
+        new Runner(options).run();
+    }
+}